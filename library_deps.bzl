@@ -66,6 +66,8 @@ BATFISH_MAVEN_ARTIFACTS = [
     "org.mockito:mockito-core:3.3.3",
     "org.mockito:mockito-inline:3.3.3",
     "org.jgrapht:jgrapht-core:1.3.1",
+    "org.openjdk.jmh:jmh-core:1.33",
+    "org.openjdk.jmh:jmh-generator-annprocess:1.33",
     "org.jline:jline:3.13.1",
     "org.parboiled:parboiled-core:1.3.1",
     "org.parboiled:parboiled-java:1.3.1",
@@ -49,6 +49,7 @@ public class BfConsts {
   public static final String ARG_DELTA_TESTRIG = "deltatestrig";
   public static final String ARG_DIFFERENTIAL = "differential";
   public static final String ARG_DISABLE_UNRECOGNIZED = "disableunrecognized";
+  public static final String ARG_FILTER_ANALYSIS_THREADS = "filteranalysisthreads";
   public static final String ARG_HALT_ON_CONVERT_ERROR = "haltonconverterror";
   public static final String ARG_HALT_ON_PARSE_ERROR = "haltonparseerror";
   public static final String ARG_IGNORE_FILES_WITH_STRINGS = "ignorefileswithstrings";
@@ -85,6 +86,7 @@ public class BfConsts {
   public static final String PROP_COLUMN = "column";
   public static final String PROP_COLUMNS = "columns";
   public static final String PROP_COORDINATOR_PROPERTIES_PATH = "batfishCoordinatorPropertiesPath";
+  public static final String PROP_COUNTERS = "counters";
   public static final String PROP_DESCRIPTION = "description";
   public static final String PROP_DIFFERENTIAL = "differential";
   public static final String PROP_DISPLAY_HINTS = "displayHints";
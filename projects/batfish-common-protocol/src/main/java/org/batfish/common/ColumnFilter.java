@@ -6,6 +6,7 @@ import static java.util.Objects.requireNonNull;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -58,7 +59,12 @@ public final class ColumnFilter {
   }
 
   public boolean matches(@Nonnull Row row) {
-    return row.get(_column).toString().toLowerCase().contains(_filterText.toLowerCase());
+    return matches(row.get(_column));
+  }
+
+  /** Returns {@code true} iff this filter matches the given value of its column. */
+  public boolean matches(@Nonnull JsonNode value) {
+    return value.toString().toLowerCase().contains(_filterText.toLowerCase());
   }
 
   @Override
@@ -119,6 +119,7 @@ public class CoordConsts {
   public static final String SVC_KEY_VERSION = "version";
   public static final String SVC_KEY_WORK_LIST = "worklist";
   public static final String SVC_KEY_WORK_TYPE = "worktype";
+  public static final String SVC_KEY_WORKER = "worker";
   public static final String SVC_KEY_WORKID = "workid";
   public static final String SVC_KEY_WORKITEM = "workitem";
   public static final String SVC_KEY_WORKSTATUS = "workstatus";
@@ -160,6 +161,7 @@ public class CoordConsts {
   public static final String SVC_RSC_LIST_QUESTIONS = "listquestions";
   public static final String SVC_RSC_POOL_GET_QUESTION_TEMPLATES = "getquestiontemplates";
   public static final String SVC_RSC_POOL_GETSTATUS = "getstatus";
+  public static final String SVC_RSC_POOL_TASK_UPDATE = "taskupdate";
   public static final String SVC_RSC_POOL_UPDATE = "updatepool";
   public static final String SVC_RSC_QUEUE_WORK = "queuework";
   public static final String SVC_RSC_UPLOAD_QUESTION = "uploadquestion";
@@ -0,0 +1,213 @@
+package org.batfish.common.bdd;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import org.batfish.common.BatfishException;
+
+/**
+ * A compact, serializable node table for a list of {@link BDD BDDs} over the variables of a {@link
+ * BDDPacket}, which can be loaded into the factory of another {@link BDDPacket}.
+ *
+ * <p>Nodes are stored in arrays, children before parents, so that loading can rebuild them bottom
+ * up. Along with the nodes, the table records the name and relative order of every variable it
+ * uses, and loading fails unless the target {@link BDDPacket} has the same variable layout.
+ */
+@ParametersAreNonnullByDefault
+public final class BDDNodeTable implements Serializable {
+
+  /** Create a node table for the given {@link BDD BDDs}, which must be owned by {@code pkt}. */
+  public static @Nonnull BDDNodeTable create(BDDPacket pkt, List<BDD> bdds) {
+    return new Writer(pkt).write(bdds);
+  }
+
+  /**
+   * Load the {@link BDD BDDs} of this table into the factory of {@code pkt}, in the order they were
+   * given to {@link #create(BDDPacket, List)}.
+   *
+   * @throws BatfishException if {@code pkt} does not have the variable layout of the {@link
+   *     BDDPacket} this table was created from.
+   */
+  public @Nonnull List<BDD> load(BDDPacket pkt) {
+    checkVariableLayout(pkt);
+    BDDFactory factory = pkt.getFactory();
+    BDD[] nodes = new BDD[_vars.length];
+    for (int i = 0; i < nodes.length; i++) {
+      // The variable is above both children, so this only creates the one new node.
+      nodes[i] =
+          factory
+              .ithVar(_vars[i])
+              .ite(get(factory, nodes, _highs[i]), get(factory, nodes, _lows[i]));
+    }
+    return Arrays.stream(_roots)
+        .mapToObj(root -> get(factory, nodes, root))
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  /** Returns the number of (non-terminal) nodes in this table. */
+  public int getNodeCount() {
+    return _vars.length;
+  }
+
+  private static @Nonnull BDD get(BDDFactory factory, BDD[] nodes, int ref) {
+    if (ref == FALSE) {
+      return factory.zero();
+    } else if (ref == TRUE) {
+      return factory.one();
+    }
+    return nodes[ref - FIRST_NODE];
+  }
+
+  private void checkVariableLayout(BDDPacket pkt) {
+    BDDFactory factory = pkt.getFactory();
+    int previousLevel = -1;
+    for (Map.Entry<Integer, String> varName : _varNamesByLevel.entrySet()) {
+      int var = varName.getKey();
+      if (var >= factory.varNum() || !varName.getValue().equals(pkt.getBitName(var))) {
+        throw new BatfishException(
+            String.format(
+                "BDD variable %d is %s in the stored node table, but %s in the target packet",
+                var, varName.getValue(), var < factory.varNum() ? pkt.getBitName(var) : "missing"));
+      }
+      int level = factory.var2Level(var);
+      if (level <= previousLevel) {
+        throw new BatfishException(
+            String.format(
+                "BDD variable %s is out of order in the target packet", varName.getValue()));
+      }
+      previousLevel = level;
+    }
+  }
+
+  /** Assigns nodes their indices in the table, children before parents. */
+  private static final class Writer {
+    private final @Nonnull BDDPacket _pkt;
+    private final @Nonnull Map<BDD, Integer> _refs;
+    private final @Nonnull TableBuilder _table;
+
+    Writer(BDDPacket pkt) {
+      _pkt = pkt;
+      _refs = new HashMap<>();
+      _table = new TableBuilder();
+    }
+
+    BDDNodeTable write(List<BDD> bdds) {
+      int[] roots = bdds.stream().mapToInt(this::ref).toArray();
+      BDDFactory factory = _pkt.getFactory();
+      // Record the name of each used variable, ordered by level.
+      Map<Integer, String> varNamesByLevel =
+          new TreeMap<>(Comparator.comparingInt(factory::var2Level));
+      for (int i = 0; i < _table._size; i++) {
+        int var = _table._vars[i];
+        String name = _pkt.getBitName(var);
+        if (name == null) {
+          throw new BatfishException(
+              String.format("Cannot store BDD with variable %d that was not allocated", var));
+        }
+        varNamesByLevel.put(var, name);
+      }
+      return new BDDNodeTable(
+          Arrays.copyOf(_table._vars, _table._size),
+          Arrays.copyOf(_table._lows, _table._size),
+          Arrays.copyOf(_table._highs, _table._size),
+          roots,
+          ImmutableMap.copyOf(varNamesByLevel));
+    }
+
+    private int ref(BDD bdd) {
+      if (bdd.isZero()) {
+        return FALSE;
+      } else if (bdd.isOne()) {
+        return TRUE;
+      }
+      Integer ref = _refs.get(bdd);
+      if (ref != null) {
+        return ref;
+      }
+      // BDD depth is bounded by the number of variables, so recursion is safe.
+      int low = ref(bdd.low());
+      int high = ref(bdd.high());
+      int newRef = FIRST_NODE + _table.add(bdd.var(), low, high);
+      _refs.put(bdd, newRef);
+      return newRef;
+    }
+  }
+
+  /** Growable parallel arrays of node variables and children. */
+  private static final class TableBuilder {
+    private int[] _vars = new int[16];
+    private int[] _lows = new int[16];
+    private int[] _highs = new int[16];
+    private int _size;
+
+    int add(int var, int low, int high) {
+      if (_size == _vars.length) {
+        int newLength = 2 * _size;
+        _vars = Arrays.copyOf(_vars, newLength);
+        _lows = Arrays.copyOf(_lows, newLength);
+        _highs = Arrays.copyOf(_highs, newLength);
+      }
+      _vars[_size] = var;
+      _lows[_size] = low;
+      _highs[_size] = high;
+      return _size++;
+    }
+  }
+
+  private BDDNodeTable(
+      int[] vars, int[] lows, int[] highs, int[] roots, Map<Integer, String> varNamesByLevel) {
+    _vars = vars;
+    _lows = lows;
+    _highs = highs;
+    _roots = roots;
+    _varNamesByLevel = varNamesByLevel;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    } else if (!(o instanceof BDDNodeTable)) {
+      return false;
+    }
+    BDDNodeTable that = (BDDNodeTable) o;
+    return Arrays.equals(_vars, that._vars)
+        && Arrays.equals(_lows, that._lows)
+        && Arrays.equals(_highs, that._highs)
+        && Arrays.equals(_roots, that._roots)
+        && _varNamesByLevel.equals(that._varNamesByLevel);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(
+        Arrays.hashCode(_vars),
+        Arrays.hashCode(_lows),
+        Arrays.hashCode(_highs),
+        Arrays.hashCode(_roots),
+        _varNamesByLevel);
+  }
+
+  /* References to nodes: the two terminals, then each node by its index in the table. */
+  private static final int FALSE = 0;
+  private static final int TRUE = 1;
+  private static final int FIRST_NODE = 2;
+
+  /* The variable, low child, and high child of each node. */
+  private final @Nonnull int[] _vars;
+  private final @Nonnull int[] _lows;
+  private final @Nonnull int[] _highs;
+  private final @Nonnull int[] _roots;
+  private final @Nonnull Map<Integer, String> _varNamesByLevel;
+}
@@ -13,6 +13,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDFactory;
 import net.sf.javabdd.BDDPairing;
@@ -227,6 +228,11 @@ public class BDDPacket {
     return var;
   }
 
+  /** Returns the name of the given BDD variable, or {@code null} if it was not allocated. */
+  public @Nullable String getBitName(int var) {
+    return _bitNames.get(var);
+  }
+
   public IpSpaceToBDD getDstIpSpaceToBDD() {
     return _dstIpSpaceToBDD;
   }
@@ -0,0 +1,93 @@
+package org.batfish.common.bdd;
+
+import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.referencedSources;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.sf.javabdd.BDD;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.IpAccessList;
+
+/**
+ * The permit {@link BDD BDDs} of the {@link IpAccessList ACLs} of a snapshot, computed once when
+ * the snapshot is initialized and stored as a {@link BDDNodeTable} so that analyses in later
+ * processes can load them instead of converting the ACLs again.
+ *
+ * <p>Only ACLs that do not match on the source of a packet are included, since the encoding of
+ * sources depends on the analysis.
+ */
+@ParametersAreNonnullByDefault
+public final class SnapshotAclBdds implements Serializable {
+
+  /** Compute the {@link SnapshotAclBdds} of the given configurations. */
+  public static @Nonnull SnapshotAclBdds compute(Map<String, Configuration> configurations) {
+    BDDPacket pkt = new BDDPacket();
+    BDDSourceManager noSources = BDDSourceManager.empty(pkt);
+    ImmutableList.Builder<BDD> bdds = ImmutableList.builder();
+    ImmutableMap.Builder<String, Map<String, Integer>> indices = ImmutableMap.builder();
+    int index = 0;
+    for (Configuration c : configurations.values()) {
+      Map<String, IpAccessList> acls = c.getIpAccessLists();
+      IpAccessListToBdd aclToBdd =
+          new MemoizedIpAccessListToBdd(pkt, noSources, acls, c.getIpSpaces());
+      ImmutableMap.Builder<String, Integer> nodeIndices = ImmutableMap.builder();
+      for (Entry<String, IpAccessList> acl : acls.entrySet()) {
+        BDD bdd;
+        try {
+          if (!referencedSources(acls, acl.getValue()).isEmpty()) {
+            continue;
+          }
+          bdd = aclToBdd.toBdd(acl.getValue());
+        } catch (BatfishException | IllegalArgumentException e) {
+          // Leave the ACL to the analysis, which reports the problem in context.
+          continue;
+        }
+        bdds.add(bdd);
+        nodeIndices.put(acl.getKey(), index++);
+      }
+      indices.put(c.getHostname(), nodeIndices.build());
+    }
+    return new SnapshotAclBdds(BDDNodeTable.create(pkt, bdds.build()), indices.build());
+  }
+
+  /**
+   * Load the stored {@link BDD BDDs} into the factory of {@code pkt}.
+   *
+   * @return node --&gt; ACL name --&gt; permit {@link BDD}
+   * @throws BatfishException if {@code pkt} does not have the variable layout of a new {@link
+   *     BDDPacket}.
+   */
+  public @Nonnull Map<String, Map<String, BDD>> load(BDDPacket pkt) {
+    List<BDD> bdds = _nodeTable.load(pkt);
+    return _indices.entrySet().stream()
+        .collect(
+            ImmutableMap.toImmutableMap(
+                Entry::getKey,
+                nodeEntry ->
+                    nodeEntry.getValue().entrySet().stream()
+                        .collect(
+                            ImmutableMap.toImmutableMap(
+                                Entry::getKey, aclEntry -> bdds.get(aclEntry.getValue())))));
+  }
+
+  public @Nonnull BDDNodeTable getNodeTable() {
+    return _nodeTable;
+  }
+
+  private SnapshotAclBdds(BDDNodeTable nodeTable, Map<String, Map<String, Integer>> indices) {
+    _nodeTable = nodeTable;
+    _indices = indices;
+  }
+
+  private final @Nonnull BDDNodeTable _nodeTable;
+
+  /* node --> ACL name --> index of its BDD in the node table */
+  private final @Nonnull Map<String, Map<String, Integer>> _indices;
+}
@@ -88,6 +88,13 @@ public interface IBatfish extends IPluginConsumer {
 
   NodeRolesData getNodeRolesData();
 
+  /**
+   * Returns the snapshot the given snapshot was forked from, if there is one and its data plane has
+   * been computed.
+   */
+  @Nonnull
+  Optional<NetworkSnapshot> getParentSnapshotWithDataPlane(NetworkSnapshot snapshot);
+
   Optional<NodeRoleDimension> getNodeRoleDimension(String roleDimension);
 
   @Nonnull
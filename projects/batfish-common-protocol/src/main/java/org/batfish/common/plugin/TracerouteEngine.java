@@ -1,6 +1,7 @@
 package org.batfish.common.plugin;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.util.List;
 import java.util.Map;
@@ -64,4 +65,12 @@ public interface TracerouteEngine {
   /** Computes {@link TraceDag} for a {@link Set} of forward {@link Flow Flows}. */
   Map<Flow, TraceDag> computeTraceDags(
       Set<Flow> flows, Set<FirewallSessionTraceInfo> sessions, boolean ignoreFilters);
+
+  /**
+   * Returns performance counters accumulated by this engine over all the traces it has computed,
+   * e.g. memo hits and misses. Empty by default.
+   */
+  default Map<String, Long> getCounters() {
+    return ImmutableMap.of();
+  }
 }
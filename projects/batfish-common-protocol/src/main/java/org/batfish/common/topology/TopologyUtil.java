@@ -7,7 +7,6 @@ import static org.batfish.datamodel.Interface.TUNNEL_INTERFACE_TYPES;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.DiscreteDomain;
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
@@ -15,9 +14,9 @@ import com.google.common.collect.Range;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Streams;
 import com.google.common.graph.EndpointPair;
-import java.util.Collection;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -27,9 +26,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.SortedSet;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.IntStream;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -469,7 +468,7 @@ public final class TopologyUtil {
   public static @Nonnull Topology computeRawLayer3Topology(
       @Nonnull L3Adjacencies adjacencies, @Nonnull Map<String, Configuration> configurations) {
     Stream<Edge> filteredEdgeStream =
-        synthesizeL3Topology(configurations).getEdges().stream()
+        synthesizeL3Edges(configurations)
             .filter(
                 edge ->
                     adjacencies.inSameBroadcastDomain(edge.getHead(), edge.getTail())
@@ -505,9 +504,7 @@ public final class TopologyUtil {
                   return Stream.of(new Edge(nip, paired), new Edge(paired, nip));
                 });
 
-    return new Topology(
-        Streams.concat(filteredEdgeStream, linkLocalEdges)
-            .collect(ImmutableSortedSet.toImmutableSortedSet(Comparator.naturalOrder())));
+    return new Topology(toSortedEdges(Streams.concat(filteredEdgeStream, linkLocalEdges)));
   }
 
   /**
@@ -585,48 +582,100 @@ public final class TopologyUtil {
    * <p>Ignores {@code Loopback} interfaces and inactive interfaces.
    */
   public static Topology synthesizeL3Topology(Map<String, Configuration> configurations) {
-    Map<Prefix, List<Interface>> prefixInterfaces = computeInterfacesBucketByPrefix(configurations);
+    return new Topology(toSortedEdges(synthesizeL3Edges(configurations)));
+  }
 
-    ImmutableSortedSet.Builder<Edge> edges = ImmutableSortedSet.naturalOrder();
-    for (Entry<Prefix, List<Interface>> bucketEntry : prefixInterfaces.entrySet()) {
-      Prefix p = bucketEntry.getKey();
-      Set<Interface> candidateInterfaces = candidateInterfacesForPrefix(prefixInterfaces, p);
+  /**
+   * Collects the given edges into a sorted set. Sorting dominates for large topologies, so sort in
+   * parallel; copying the sorted array is then linear.
+   */
+  private static @Nonnull SortedSet<Edge> toSortedEdges(Stream<Edge> edges) {
+    Edge[] edgeArray = edges.toArray(Edge[]::new);
+    Arrays.parallelSort(edgeArray);
+    return ImmutableSortedSet.copyOf(edgeArray);
+  }
 
-      for (Interface iface1 : bucketEntry.getValue()) {
-        for (Interface iface2 : candidateInterfaces) {
-          // No device self-adjacencies in the same VRF.
-          if (!isValidLayer3Adjacency(iface1, iface2)) {
-            continue;
-          }
-          // Additionally, don't connect if any of the two endpoint interfaces have Tunnel or VPN
-          // interfaceTypes
-          if (TUNNEL_INTERFACE_TYPES.contains(iface1.getInterfaceType())
-              || TUNNEL_INTERFACE_TYPES.contains(iface2.getInterfaceType())) {
-            continue;
-          }
-          edges.add(new Edge(iface1, iface2));
-        }
-      }
-    }
-    return new Topology(edges.build());
+  /**
+   * Returns a parallel stream of the edges of {@link #synthesizeL3Topology(Map)}, possibly with
+   * duplicates, so that callers can filter them before paying to sort them.
+   */
+  private static Stream<Edge> synthesizeL3Edges(Map<String, Configuration> configurations) {
+    Map<Prefix, List<Interface>> prefixInterfaces = computeInterfacesBucketByPrefix(configurations);
+    Map<Prefix, Set<Interface>> candidateInterfacesByPrefix =
+        computeCandidateInterfacesByPrefix(prefixInterfaces);
+    // Look up each interface's NodeInterfacePair once, rather than once per edge.
+    Map<Interface, NodeInterfacePair> nodeInterfacePairs = new IdentityHashMap<>();
+    prefixInterfaces
+        .values()
+        .forEach(bucket -> bucket.forEach(i -> nodeInterfacePairs.put(i, NodeInterfacePair.of(i))));
+
+    // Buckets are independent, so compute their edges in parallel.
+    return prefixInterfaces.entrySet().parallelStream()
+        .flatMap(
+            bucketEntry -> {
+              Set<Interface> candidateInterfaces =
+                  candidateInterfacesByPrefix.get(bucketEntry.getKey());
+              return bucketEntry.getValue().stream()
+                  // Don't connect if any of the two endpoint interfaces have Tunnel or VPN
+                  // interfaceTypes
+                  .filter(iface1 -> !TUNNEL_INTERFACE_TYPES.contains(iface1.getInterfaceType()))
+                  .flatMap(
+                      iface1 ->
+                          candidateInterfaces.stream()
+                              .filter(
+                                  iface2 ->
+                                      !TUNNEL_INTERFACE_TYPES.contains(iface2.getInterfaceType())
+                                          // No device self-adjacencies in the same VRF.
+                                          && isValidLayer3Adjacency(iface1, iface2))
+                              .map(
+                                  iface2 ->
+                                      new Edge(
+                                          nodeInterfacePairs.get(iface1),
+                                          nodeInterfacePairs.get(iface2))));
+            });
   }
 
   /**
-   * Collect all interfaces that have subnets overlapping P iff they have an IP address in P. Use an
-   * IdentityHashSet to prevent duplicates.
+   * For each prefix bucket P, collect all interfaces in the buckets of prefixes with the same start
+   * IP as P that have an IP address in P. Use IdentityHashSets to prevent duplicates.
+   *
+   * <p>Rather than scanning the related buckets for each bucket, this walks from each bucketed
+   * interface to the buckets it is a candidate for, so its cost is linear in the number of
+   * interface addresses.
    */
   @Nonnull
-  private static Set<Interface> candidateInterfacesForPrefix(
-      Map<Prefix, List<Interface>> prefixBuckets, Prefix p) {
-    Set<Interface> candidateInterfaces = Sets.newIdentityHashSet();
-    IntStream.range(0, Prefix.MAX_PREFIX_LENGTH)
-        .mapToObj(
-            i -> prefixBuckets.getOrDefault(Prefix.create(p.getStartIp(), i), ImmutableList.of()))
-        .flatMap(Collection::stream)
-        .filter(
-            iface ->
-                iface.getAllConcreteAddresses().stream().anyMatch(ia -> p.containsIp(ia.getIp())))
-        .forEach(candidateInterfaces::add);
+  private static Map<Prefix, Set<Interface>> computeCandidateInterfacesByPrefix(
+      Map<Prefix, List<Interface>> prefixBuckets) {
+    Map<Prefix, Set<Interface>> candidateInterfaces = new HashMap<>();
+    prefixBuckets.keySet().forEach(p -> candidateInterfaces.put(p, Sets.newIdentityHashSet()));
+    prefixBuckets.forEach(
+        (bucketPrefix, bucket) -> {
+          int bucketLength = bucketPrefix.getPrefixLength();
+          // Wider buckets starting at the start IP of this bucket, which contain every interface in
+          // this bucket.
+          for (int length = 0; length < bucketLength; length++) {
+            Prefix p = Prefix.create(bucketPrefix.getStartIp(), length);
+            Set<Interface> candidates = candidateInterfaces.get(p);
+            if (candidates != null && p.getStartIp().equals(bucketPrefix.getStartIp())) {
+              candidates.addAll(bucket);
+            }
+          }
+          // This bucket and the narrower buckets within it that contain an interface address.
+          for (Interface iface : bucket) {
+            for (ConcreteInterfaceAddress address : iface.getAllConcreteAddresses()) {
+              Ip ip = address.getIp();
+              if (!bucketPrefix.containsIp(ip)) {
+                continue;
+              }
+              for (int length = bucketLength; length < Prefix.MAX_PREFIX_LENGTH; length++) {
+                Set<Interface> candidates = candidateInterfaces.get(Prefix.create(ip, length));
+                if (candidates != null) {
+                  candidates.add(iface);
+                }
+              }
+            }
+          }
+        });
     return candidateInterfaces;
   }
 
@@ -714,10 +763,11 @@ public final class TopologyUtil {
   public static TunnelTopology computeInitialTunnelTopology(
       Map<String, Configuration> configurations) {
     Map<Prefix, List<Interface>> prefixInterfaces = computeInterfacesBucketByPrefix(configurations);
+    Map<Prefix, Set<Interface>> candidateInterfacesByPrefix =
+        computeCandidateInterfacesByPrefix(prefixInterfaces);
     TunnelTopology.Builder builder = TunnelTopology.builder();
     for (Entry<Prefix, List<Interface>> bucketEntry : prefixInterfaces.entrySet()) {
-      Prefix p = bucketEntry.getKey();
-      Set<Interface> candidateInterfaces = candidateInterfacesForPrefix(prefixInterfaces, p);
+      Set<Interface> candidateInterfaces = candidateInterfacesByPrefix.get(bucketEntry.getKey());
 
       for (Interface iface1 : bucketEntry.getValue()) {
         for (Interface iface2 : candidateInterfaces) {
@@ -13,11 +13,9 @@ import java.util.List;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.batfish.common.util.PatternProvider;
+import org.batfish.datamodel.routing_policy.as_path.AsPathRegexMatcher;
 
 /** An AsPathAccessList is used to filter e/iBGP routes according to their AS-path attribute. */
 public final class AsPathAccessList implements Serializable {
@@ -72,9 +70,7 @@ public final class AsPathAccessList implements Serializable {
   private boolean newPermits(AsPath asPath) {
     boolean accept = false;
     for (AsPathAccessListLine line : _lines) {
-      Pattern p = PatternProvider.fromString(line.getRegex());
-      Matcher matcher = p.matcher(asPath.getAsPathString());
-      if (matcher.find()) {
+      if (AsPathRegexMatcher.of(line.getRegex()).matches(asPath)) {
         accept = line.getAction() == LineAction.PERMIT;
         break;
       }
@@ -0,0 +1,178 @@
+package org.batfish.datamodel;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.io.Serializable;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.routing_policy.communities.CommunitySet;
+
+/**
+ * The path attributes of a {@link BgpRoute}, i.e., the attributes a BGP speaker would carry in an
+ * UPDATE message, plus the Cisco weight.
+ *
+ * <p>Instances are interned: many routes (e.g., the copies of a prefix learned over every session
+ * of an iBGP mesh) share the same attributes, and all of them refer to a single instance. Two
+ * interned instances are equal if and only if they are the same object.
+ */
+@ParametersAreNonnullByDefault
+public final class BgpPathAttributes implements Serializable {
+
+  private static final Interner<BgpPathAttributes> INTERNER = Interners.newWeakInterner();
+
+  // Soft values: let it be garbage collected in times of pressure.
+  // Maximum size 2^16: Just some upper bound on cache size, well less than GiB.
+  //   (8 bytes seems smallest possible entry (set(long)), would be 1 MiB total).
+  private static final LoadingCache<Set<Long>, Set<Long>> CLUSTER_CACHE =
+      Caffeine.newBuilder().softValues().maximumSize(1 << 16).build(ImmutableSet::copyOf);
+
+  /** Returns the interned attributes with the given values. */
+  public static @Nonnull BgpPathAttributes create(
+      @Nullable AsPath asPath,
+      @Nullable Set<Long> clusterList,
+      CommunitySet communities,
+      long localPreference,
+      long med,
+      Ip originatorIp,
+      OriginType originType,
+      int weight) {
+    return INTERNER.intern(
+        new BgpPathAttributes(
+            firstNonNull(asPath, AsPath.empty()),
+            clusterList == null ? ImmutableSet.of() : CLUSTER_CACHE.get(clusterList),
+            communities,
+            localPreference,
+            med,
+            originatorIp,
+            originType,
+            weight));
+  }
+
+  @Nonnull private final AsPath _asPath;
+  @Nonnull private final Set<Long> _clusterList;
+  @Nonnull private final CommunitySet _communities;
+  private final long _localPreference;
+  private final long _med;
+  @Nonnull private final Ip _originatorIp;
+  @Nonnull private final OriginType _originType;
+  private final int _weight;
+
+  /* Cache the hashcode */
+  private transient int _hashCode = 0;
+
+  private BgpPathAttributes(
+      AsPath asPath,
+      Set<Long> clusterList,
+      CommunitySet communities,
+      long localPreference,
+      long med,
+      Ip originatorIp,
+      OriginType originType,
+      int weight) {
+    _asPath = asPath;
+    _clusterList = clusterList;
+    _communities = communities;
+    _localPreference = localPreference;
+    _med = med;
+    _originatorIp = originatorIp;
+    _originType = originType;
+    _weight = weight;
+  }
+
+  public @Nonnull AsPath getAsPath() {
+    return _asPath;
+  }
+
+  public @Nonnull Set<Long> getClusterList() {
+    return _clusterList;
+  }
+
+  public @Nonnull CommunitySet getCommunities() {
+    return _communities;
+  }
+
+  public long getLocalPreference() {
+    return _localPreference;
+  }
+
+  public long getMed() {
+    return _med;
+  }
+
+  public @Nonnull Ip getOriginatorIp() {
+    return _originatorIp;
+  }
+
+  public @Nonnull OriginType getOriginType() {
+    return _originType;
+  }
+
+  public int getWeight() {
+    return _weight;
+  }
+
+  /** Re-intern on Java deserialization, so that equality remains an identity check. */
+  private Object readResolve() {
+    return INTERNER.intern(this);
+  }
+
+  @Override
+  public boolean equals(@Nullable Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof BgpPathAttributes)) {
+      return false;
+    }
+    BgpPathAttributes other = (BgpPathAttributes) o;
+    return (_hashCode == other._hashCode || _hashCode == 0 || other._hashCode == 0)
+        && _originatorIp.equals(other._originatorIp)
+        && _localPreference == other._localPreference
+        && _med == other._med
+        && _originType == other._originType
+        && _weight == other._weight
+        && _asPath.equals(other._asPath)
+        && _clusterList.equals(other._clusterList)
+        && _communities.equals(other._communities);
+  }
+
+  @Override
+  public int hashCode() {
+    int h = _hashCode;
+    if (h == 0) {
+      h = _asPath.hashCode();
+      h = h * 31 + _clusterList.hashCode();
+      h = h * 31 + _communities.hashCode();
+      h = h * 31 + Long.hashCode(_localPreference);
+      h = h * 31 + Long.hashCode(_med);
+      h = h * 31 + _originatorIp.hashCode();
+      h = h * 31 + _originType.ordinal();
+      h = h * 31 + _weight;
+
+      _hashCode = h;
+    }
+    return h;
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("_asPath", _asPath)
+        .add("_clusterList", _clusterList)
+        .add("_communities", _communities)
+        .add("_localPreference", _localPreference)
+        .add("_med", _med)
+        .add("_originatorIp", _originatorIp)
+        .add("_originType", _originType)
+        .add("_weight", _weight)
+        .toString();
+  }
+}
@@ -1,12 +1,9 @@
 package org.batfish.datamodel;
 
-import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.github.benmanes.caffeine.cache.Caffeine;
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import java.util.Collection;
@@ -37,12 +34,6 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
   /** Local-preference has a maximum value of u32 max. */
   public static final long MAX_LOCAL_PREFERENCE = (1L << 32) - 1;
 
-  // Soft values: let it be garbage collected in times of pressure.
-  // Maximum size 2^16: Just some upper bound on cache size, well less than GiB.
-  //   (8 bytes seems smallest possible entry (set(long)), would be 1 MiB total).
-  private static final LoadingCache<Set<Long>, Set<Long>> CLUSTER_CACHE =
-      Caffeine.newBuilder().softValues().maximumSize(1 << 16).build(ImmutableSet::copyOf);
-
   /** Builder for {@link BgpRoute} */
   @ParametersAreNonnullByDefault
   public abstract static class Builder<B extends Builder<B, R>, R extends BgpRoute<B, R>>
@@ -279,13 +270,9 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
   static final String PROP_SRC_PROTOCOL = "srcProtocol";
   static final String PROP_WEIGHT = "weight";
 
-  @Nonnull protected final AsPath _asPath;
-  @Nonnull protected final Set<Long> _clusterList;
-  @Nonnull protected final CommunitySet _communities;
-  protected final long _localPreference;
-  protected final long _med;
-  @Nonnull protected final Ip _originatorIp;
-  @Nonnull protected final OriginType _originType;
+  /** Shared with all other routes having the same path attributes. */
+  @Nonnull protected final BgpPathAttributes _attributes;
+
   @Nonnull protected final RoutingProtocol _protocol;
 
   /**
@@ -298,8 +285,6 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
 
   protected final boolean _receivedFromRouteReflectorClient;
   @Nullable protected final RoutingProtocol _srcProtocol;
-  /* NOTE: Cisco-only attribute */
-  protected final int _weight;
 
   protected BgpRoute(
       @Nullable Prefix network,
@@ -326,84 +311,93 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
             || protocol == RoutingProtocol.IBGP
             || protocol == RoutingProtocol.AGGREGATE,
         "Invalid BgpRoute protocol");
-    _asPath = firstNonNull(asPath, AsPath.empty());
-    _clusterList = clusterList == null ? ImmutableSet.of() : CLUSTER_CACHE.get(clusterList);
-    _communities = communities;
-    _localPreference = localPreference;
-    _med = med;
+    _attributes =
+        BgpPathAttributes.create(
+            asPath,
+            clusterList,
+            communities,
+            localPreference,
+            med,
+            originatorIp,
+            originType,
+            weight);
     _nextHop = nextHop;
-    _originatorIp = originatorIp;
-    _originType = originType;
     _protocol = protocol;
     _receivedFromIp = receivedFromIp;
     _receivedFromRouteReflectorClient = receivedFromRouteReflectorClient;
     _srcProtocol = srcProtocol;
-    _weight = weight;
+  }
+
+  /** Return the path attributes of this route, which are interned */
+  @Nonnull
+  @JsonIgnore
+  public final BgpPathAttributes getAttributes() {
+    return _attributes;
   }
 
   @Nonnull
   @JsonProperty(PROP_AS_PATH)
   @Override
   public AsPath getAsPath() {
-    return _asPath;
+    return _attributes.getAsPath();
   }
 
   public @Nonnull Set<Long> getClusterList() {
-    return _clusterList;
+    return _attributes.getClusterList();
   }
 
   /** Return the set of all community attributes */
   @Nonnull
   @Override
   public final CommunitySet getCommunities() {
-    return _communities;
+    return _attributes.getCommunities();
   }
 
   /** Return the set of all community attributes */
   @Nonnull
   @Override
   public final Set<Community> getCommunitiesAsSet() {
-    return _communities.getCommunities();
+    return _attributes.getCommunities().getCommunities();
   }
 
   /** Return only standard community attributes */
   @Nonnull
   @JsonIgnore
   public Set<StandardCommunity> getStandardCommunities() {
-    return _communities.getStandardCommunities();
+    return _attributes.getCommunities().getStandardCommunities();
   }
 
   /** Return only extended community attributes */
   @Nonnull
   @JsonIgnore
   public Set<ExtendedCommunity> getExtendedCommunities() {
-    return _communities.getExtendedCommunities();
+    return _attributes.getCommunities().getExtendedCommunities();
   }
 
   @JsonProperty(PROP_LOCAL_PREFERENCE)
   @Override
   public long getLocalPreference() {
-    return _localPreference;
+    return _attributes.getLocalPreference();
   }
 
   @JsonIgnore(false)
   @JsonProperty(PROP_METRIC)
   @Override
   public long getMetric() {
-    return _med;
+    return _attributes.getMed();
   }
 
   @Nonnull
   @JsonProperty(PROP_ORIGINATOR_IP)
   public Ip getOriginatorIp() {
-    return _originatorIp;
+    return _attributes.getOriginatorIp();
   }
 
   @Nonnull
   @JsonProperty(PROP_ORIGIN_TYPE)
   @Override
   public OriginType getOriginType() {
-    return _originType;
+    return _attributes.getOriginType();
   }
 
   @Nonnull
@@ -434,7 +428,7 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
   @JsonProperty(PROP_WEIGHT)
   @Override
   public int getWeight() {
-    return _weight;
+    return _attributes.getWeight();
   }
 
   @Override
@@ -442,11 +436,11 @@ public abstract class BgpRoute<B extends Builder<B, R>, R extends BgpRoute<B, R>
 
   @JsonProperty(PROP_CLUSTER_LIST)
   private @Nonnull SortedSet<Long> getJsonClusterList() {
-    return ImmutableSortedSet.copyOf(_clusterList);
+    return ImmutableSortedSet.copyOf(_attributes.getClusterList());
   }
 
   @JsonProperty(PROP_COMMUNITIES)
   private @Nonnull CommunitySet getJsonCommunities() {
-    return _communities;
+    return _attributes.getCommunities();
   }
 }
@@ -0,0 +1,464 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A {@link PrefixMultiMap} with the same path-compressed trie structure and semantics as {@link
+ * PrefixTrieMultiMap}, but whose nodes are stored in primitive arrays rather than as objects.
+ *
+ * <p>Node {@code i} is described by:
+ *
+ * <ul>
+ *   <li>{@code _keys[i]}: the start IP of the node's prefix, its length, and whether its elements
+ *       are stored as a set, packed into a long (see {@link #key})
+ *   <li>{@code _children[2i]} and {@code _children[2i+1]}: the indices of the left and right
+ *       children, or {@link #NONE}
+ *   <li>{@code _elements[i]}: {@code null} if the node has no elements, the element itself if it
+ *       has one, or an {@link ImmutableSet} if it has more
+ * </ul>
+ *
+ * <p>Compared to {@link PrefixTrieMultiMap}, this saves a node object, a {@link Prefix} for each
+ * branching node, and a singleton set for each prefix with a single element; and longest prefix
+ * match only does arithmetic on longs, without creating a {@link Prefix} for the query. Like {@link
+ * PrefixTrieMultiMap}, nodes are never removed except by {@link #clear()}.
+ */
+@ParametersAreNonnullByDefault
+public final class CompactPrefixTrieMultiMap<T> implements PrefixMultiMap<T> {
+
+  private static final int NONE = -1;
+  private static final int INITIAL_CAPACITY = 4;
+
+  private static final int LENGTH_BITS = 6;
+  private static final long LENGTH_MASK = (1L << LENGTH_BITS) - 1;
+  private static final long SET_FLAG = 1L << LENGTH_BITS;
+  private static final int IP_SHIFT = LENGTH_BITS + 1;
+
+  private long[] _keys;
+  private int[] _children;
+  private Object[] _elements;
+  private int _size;
+  private int _root;
+
+  public CompactPrefixTrieMultiMap() {
+    _keys = new long[INITIAL_CAPACITY];
+    _children = new int[2 * INITIAL_CAPACITY];
+    _elements = new Object[INITIAL_CAPACITY];
+    _size = 0;
+    _root = NONE;
+  }
+
+  public CompactPrefixTrieMultiMap(Prefix prefix) {
+    this();
+    _root = newNode(prefix.getStartIp().asLong(), prefix.getPrefixLength());
+  }
+
+  /** Packs a prefix into a key. The start IP must already be masked to the prefix length. */
+  private static long key(long ip, int length) {
+    return (ip << IP_SHIFT) | length;
+  }
+
+  private static long ip(long key) {
+    return key >>> IP_SHIFT;
+  }
+
+  private static int length(long key) {
+    return (int) (key & LENGTH_MASK);
+  }
+
+  private static long mask(long ip, int length) {
+    return length == 0 ? 0L : ip & (0xFFFFFFFFL << (Prefix.MAX_PREFIX_LENGTH - length));
+  }
+
+  /** Whether the prefix {@code (ip, length)} is contained in the prefix of the given key. */
+  private static boolean contains(long key, long ip, int length) {
+    int keyLength = length(key);
+    return keyLength <= length && mask(ip, keyLength) == ip(key);
+  }
+
+  /** Whether bit {@code position} of {@code ip} is set, counting from the most significant bit. */
+  private static boolean bit(long ip, int position) {
+    return ((ip >>> (Prefix.MAX_PREFIX_LENGTH - 1 - position)) & 1L) == 1L;
+  }
+
+  private static @Nonnull Prefix prefix(long key) {
+    return Prefix.create(Ip.create(ip(key)), length(key));
+  }
+
+  private int newNode(long ip, int length) {
+    if (_size == _keys.length) {
+      int capacity = Math.max(INITIAL_CAPACITY, _size + (_size >> 1));
+      _keys = Arrays.copyOf(_keys, capacity);
+      _children = Arrays.copyOf(_children, 2 * capacity);
+      _elements = Arrays.copyOf(_elements, capacity);
+    }
+    int node = _size++;
+    _keys[node] = key(ip, length);
+    _children[2 * node] = NONE;
+    _children[2 * node + 1] = NONE;
+    _elements[node] = null;
+    return node;
+  }
+
+  private int child(int node, boolean right) {
+    return _children[2 * node + (right ? 1 : 0)];
+  }
+
+  private void setChild(int node, boolean right, int child) {
+    _children[2 * node + (right ? 1 : 0)] = child;
+  }
+
+  private boolean isEmpty(int node) {
+    return _elements[node] == null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private @Nonnull Set<T> elements(int node) {
+    Object elements = _elements[node];
+    if (elements == null) {
+      return ImmutableSet.of();
+    } else if ((_keys[node] & SET_FLAG) != 0) {
+      return (Set<T>) elements;
+    } else {
+      return ImmutableSet.of((T) elements);
+    }
+  }
+
+  private void setElements(int node, Collection<T> elements) {
+    if (elements.isEmpty()) {
+      _elements[node] = null;
+      _keys[node] &= ~SET_FLAG;
+    } else if (elements.size() == 1) {
+      _elements[node] = elements.iterator().next();
+      _keys[node] &= ~SET_FLAG;
+    } else {
+      _elements[node] = ImmutableSet.copyOf(elements);
+      _keys[node] |= SET_FLAG;
+    }
+  }
+
+  /**
+   * Combine two nodes into a tree -- a newly created node, and an existing node. The existing node
+   * cannot be the parent of the new node. Returns the root of the combined tree.
+   */
+  private int combine(int newNode, int oldNode) {
+    // No existing node, newNode is the tree
+    if (oldNode == NONE) {
+      return newNode;
+    }
+    long newKey = _keys[newNode];
+    long oldKey = _keys[oldNode];
+    long oldIp = ip(oldKey);
+    int oldLength = length(oldKey);
+    assert !contains(oldKey, ip(newKey), length(newKey));
+
+    // If the newNode's prefix contains the oldNode's prefix, the existing node is a child of it.
+    if (contains(newKey, oldIp, oldLength)) {
+      setChild(newNode, bit(oldIp, length(newKey)), oldNode);
+      return newNode;
+    }
+
+    // Otherwise, branch at the longest common prefix of the two.
+    long newIp = ip(newKey);
+    int lcpLength =
+        Math.min(
+            Math.min(length(newKey), oldLength),
+            Integer.numberOfLeadingZeros((int) (newIp ^ oldIp)));
+    int parent = newNode(mask(newIp, lcpLength), lcpLength);
+    boolean newNodeRight = bit(newIp, lcpLength);
+    setChild(parent, newNodeRight, newNode);
+    setChild(parent, !newNodeRight, oldNode);
+    return parent;
+  }
+
+  /**
+   * Returns the deepest node whose prefix contains {@code (ip, length)}, or {@link #NONE} if the
+   * root does not.
+   */
+  private int longestMatchNode(long ip, int length) {
+    int node = _root;
+    if (node == NONE || !contains(_keys[node], ip, length)) {
+      return NONE;
+    }
+    while (true) {
+      int nodeLength = length(_keys[node]);
+      if (nodeLength == Prefix.MAX_PREFIX_LENGTH) {
+        return node;
+      }
+      int child = child(node, bit(ip, nodeLength));
+      if (child == NONE || !contains(_keys[child], ip, length)) {
+        return node;
+      }
+      node = child;
+    }
+  }
+
+  private int exactMatchNode(Prefix p) {
+    long ip = p.getStartIp().asLong();
+    int length = p.getPrefixLength();
+    int node = longestMatchNode(ip, length);
+    return node != NONE && ip(_keys[node]) == ip && length(_keys[node]) == length ? node : NONE;
+  }
+
+  /** Find or create a node for a given prefix, which the root must contain. */
+  private int findOrCreateNode(long ip, int length) {
+    int node = longestMatchNode(ip, length);
+    assert node != NONE;
+    int nodeLength = length(_keys[node]);
+    if (nodeLength == length) {
+      return node;
+    }
+    int newNode = newNode(ip, length);
+    boolean right = bit(ip, nodeLength);
+    setChild(node, right, combine(newNode, child(node, right)));
+    return newNode;
+  }
+
+  @Override
+  public void traverseEntries(BiConsumer<Prefix, Set<T>> consumer) {
+    if (_root != NONE) {
+      traverse(_root, consumer, null);
+    }
+  }
+
+  @Override
+  public void traverseEntries(
+      BiConsumer<Prefix, Set<T>> consumer, BiPredicate<Prefix, Set<T>> visitNode) {
+    if (_root != NONE && visitNode.test(prefix(_keys[_root]), elements(_root))) {
+      traverse(_root, consumer, visitNode);
+    }
+  }
+
+  /** Post-order traversal of the subtrie rooted at the given node, which has been admitted. */
+  private void traverse(
+      int node,
+      BiConsumer<Prefix, Set<T>> consumer,
+      @Nullable BiPredicate<Prefix, Set<T>> visitNode) {
+    for (int i = 0; i < 2; i++) {
+      int child = _children[2 * node + i];
+      if (child != NONE
+          && (visitNode == null || visitNode.test(prefix(_keys[child]), elements(child)))) {
+        traverse(child, consumer, visitNode);
+      }
+    }
+    consumer.accept(prefix(_keys[node]), elements(node));
+  }
+
+  @Override
+  public <R> R fold(FoldOperator<T, R> operator) {
+    return _root == NONE ? null : fold(_root, operator);
+  }
+
+  private @Nonnull <R> R fold(int node, FoldOperator<T, R> operator) {
+    int left = child(node, false);
+    int right = child(node, true);
+    R leftResult = left == NONE ? null : fold(left, operator);
+    R rightResult = right == NONE ? null : fold(right, operator);
+    return operator.fold(prefix(_keys[node]), elements(node), leftResult, rightResult);
+  }
+
+  @Override
+  @Nonnull
+  public Set<T> get(Prefix p) {
+    int node = exactMatchNode(p);
+    return node == NONE ? ImmutableSet.of() : elements(node);
+  }
+
+  @Override
+  @Nonnull
+  public Set<T> getAllElements() {
+    ImmutableSet.Builder<T> b = ImmutableSet.builder();
+    traverseEntries((prefix, elements) -> b.addAll(elements));
+    return b.build();
+  }
+
+  @Override
+  @Nonnull
+  public Set<T> longestPrefixMatch(Ip address) {
+    return longestPrefixMatch(address, Prefix.MAX_PREFIX_LENGTH);
+  }
+
+  @Override
+  @Nonnull
+  public Set<T> longestPrefixMatch(Ip address, int maxPrefixLength) {
+    long ip = mask(address.asLong(), maxPrefixLength);
+    int node = _root;
+    if (node == NONE || !contains(_keys[node], ip, maxPrefixLength)) {
+      return ImmutableSet.of();
+    }
+    int longestNonEmpty = NONE;
+    while (node != NONE) {
+      if (!isEmpty(node)) {
+        longestNonEmpty = node;
+      }
+      int nodeLength = length(_keys[node]);
+      if (nodeLength == Prefix.MAX_PREFIX_LENGTH) {
+        break;
+      }
+      int child = child(node, bit(ip, nodeLength));
+      node = child != NONE && contains(_keys[child], ip, maxPrefixLength) ? child : NONE;
+    }
+    return longestNonEmpty == NONE ? ImmutableSet.of() : elements(longestNonEmpty);
+  }
+
+  @Override
+  public boolean put(Prefix p, T e) {
+    return putAll(p, ImmutableSet.of(e));
+  }
+
+  @Override
+  public boolean putAll(Prefix p, Collection<T> elements) {
+    long ip = p.getStartIp().asLong();
+    int length = p.getPrefixLength();
+    if (_root == NONE || !contains(_keys[_root], ip, length)) {
+      int node = newNode(ip, length);
+      setElements(node, elements);
+      _root = combine(node, _root);
+      return true;
+    }
+    int node = findOrCreateNode(ip, length);
+    Set<T> existing = elements(node);
+    if (existing.containsAll(elements)) {
+      return false;
+    }
+    if (existing.isEmpty()) {
+      setElements(node, elements);
+    } else {
+      setElements(
+          node,
+          ImmutableSet.<T>builderWithExpectedSize(existing.size() + elements.size())
+              .addAll(existing)
+              .addAll(elements)
+              .build());
+    }
+    return true;
+  }
+
+  @Override
+  public boolean remove(Prefix p, T e) {
+    int node = exactMatchNode(p);
+    if (node == NONE) {
+      return false;
+    }
+    Set<T> existing = elements(node);
+    if (!existing.contains(e)) {
+      return false;
+    }
+    setElements(
+        node, existing.stream().filter(el -> !el.equals(e)).collect(ImmutableSet.toImmutableSet()));
+    return true;
+  }
+
+  @Override
+  public boolean replaceAll(Prefix p, T e) {
+    int node = exactMatchNode(p);
+    if (node == NONE) {
+      return put(p, e);
+    }
+    Set<T> existing = elements(node);
+    if (existing.size() == 1 && existing.contains(e)) {
+      return false;
+    }
+    setElements(node, ImmutableSet.of(e));
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    _keys = new long[INITIAL_CAPACITY];
+    _children = new int[2 * INITIAL_CAPACITY];
+    _elements = new Object[INITIAL_CAPACITY];
+    _size = 0;
+    _root = NONE;
+  }
+
+  @Override
+  public boolean intersectsPrefixSpace(PrefixSpace prefixSpace) {
+    return _root != NONE
+        && prefixSpace.getPrefixRanges().stream()
+            .anyMatch(range -> intersectsPrefixRange(_root, range));
+  }
+
+  /**
+   * Returns true iff there is a {@link Prefix} key in the subtrie rooted at {@code node} included
+   * in {@code prefixRange}.
+   */
+  private boolean intersectsPrefixRange(int node, PrefixRange prefixRange) {
+    long key = _keys[node];
+    int length = length(key);
+    if (length > prefixRange.getLengthRange().getEnd()) {
+      return false;
+    }
+    Prefix prefix = prefix(key);
+    if (!isEmpty(node) && prefixRange.includesPrefixRange(PrefixRange.fromPrefix(prefix))) {
+      return true;
+    }
+    Prefix rangePrefix = prefixRange.getPrefix();
+    if (!prefix.containsPrefix(rangePrefix) && !rangePrefix.containsPrefix(prefix)) {
+      return false;
+    }
+    int left = child(node, false);
+    int right = child(node, true);
+    return (left != NONE && intersectsPrefixRange(left, prefixRange))
+        || (right != NONE && intersectsPrefixRange(right, prefixRange));
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CompactPrefixTrieMultiMap<?>)) {
+      return false;
+    }
+    CompactPrefixTrieMultiMap<?> that = (CompactPrefixTrieMultiMap<?>) o;
+    return subtrieEquals(_root, that, that._root);
+  }
+
+  private boolean subtrieEquals(int node, CompactPrefixTrieMultiMap<?> that, int thatNode) {
+    if (node == NONE || thatNode == NONE) {
+      return node == thatNode;
+    }
+    return (_keys[node] & ~SET_FLAG) == (that._keys[thatNode] & ~SET_FLAG)
+        && elements(node).equals(that.elements(thatNode))
+        && subtrieEquals(child(node, false), that, that.child(thatNode, false))
+        && subtrieEquals(child(node, true), that, that.child(thatNode, true));
+  }
+
+  @Override
+  public int hashCode() {
+    return subtrieHashCode(_root);
+  }
+
+  private int subtrieHashCode(int node) {
+    if (node == NONE) {
+      return 0;
+    }
+    return Objects.hash(
+        _keys[node] & ~SET_FLAG,
+        elements(node),
+        subtrieHashCode(child(node, false)),
+        subtrieHashCode(child(node, true)));
+  }
+
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    // Do not serialize unused capacity.
+    int capacity = Math.max(_size, 1);
+    if (capacity < _keys.length) {
+      _keys = Arrays.copyOf(_keys, capacity);
+      _children = Arrays.copyOf(_children, 2 * capacity);
+      _elements = Arrays.copyOf(_elements, capacity);
+    }
+    out.defaultWriteObject();
+  }
+}
@@ -29,6 +29,7 @@ import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.batfish.common.Warnings;
+import org.batfish.datamodel.acl.AclCompiler;
 import org.batfish.datamodel.bgp.AddressFamily;
 import org.batfish.datamodel.ospf.OspfProcess;
 import org.batfish.datamodel.packet_policy.PacketPolicy;
@@ -243,6 +244,9 @@ public final class Configuration implements Serializable {
 
   private Map<String, IpSpace> _ipSpaces;
 
+  /** Lazily created, and discarded whenever the ACLs or IP spaces are replaced. */
+  @Nullable private transient volatile AclCompiler _aclCompiler;
+
   private Map<String, IpSpaceMetadata> _ipSpaceMetadata;
 
   private Map<String, IpsecPeerConfig> _ipsecPeerConfigs;
@@ -624,6 +628,20 @@ public final class Configuration implements Serializable {
     return _ipAccessLists;
   }
 
+  /**
+   * Returns an {@link AclCompiler} for the {@link #getIpAccessLists() ACLs} and {@link
+   * #getIpSpaces() IP spaces} of this node, shared by everything that evaluates them on flows.
+   */
+  @JsonIgnore
+  public @Nonnull AclCompiler getAclCompiler() {
+    AclCompiler aclCompiler = _aclCompiler;
+    if (aclCompiler == null) {
+      aclCompiler = new AclCompiler(_ipAccessLists, _ipSpaces);
+      _aclCompiler = aclCompiler;
+    }
+    return aclCompiler;
+  }
+
   /** Dictionary of all IPSec peer configs for this node. */
   @JsonProperty(PROP_IPSEC_PEER_CONFIGS)
   public Map<String, IpsecPeerConfig> getIpsecPeerConfigs() {
@@ -902,6 +920,7 @@ public final class Configuration implements Serializable {
   @JsonProperty(PROP_IP_ACCESS_LISTS)
   public void setIpAccessLists(Map<String, IpAccessList> ipAccessLists) {
     _ipAccessLists = ipAccessLists;
+    _aclCompiler = null;
   }
 
   @JsonProperty(PROP_IPSEC_PEER_CONFIGS)
@@ -924,6 +943,7 @@ public final class Configuration implements Serializable {
   @JsonProperty(PROP_IP_SPACES)
   public void setIpSpaces(Map<String, IpSpace> ipSpaces) {
     _ipSpaces = ipSpaces;
+    _aclCompiler = null;
   }
 
   @JsonProperty(PROP_IP_SPACE_METADATA)
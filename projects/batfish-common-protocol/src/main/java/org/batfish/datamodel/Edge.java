@@ -7,7 +7,6 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.base.Strings;
 import java.io.Serializable;
-import java.util.Comparator;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -116,7 +115,8 @@ public class Edge implements Serializable, Comparable<Edge> {
 
   @Override
   public int compareTo(Edge other) {
-    return Comparator.comparing(Edge::getTail).thenComparing(Edge::getHead).compare(this, other);
+    int tailCmp = _tail.compareTo(other._tail);
+    return tailCmp != 0 ? tailCmp : _head.compareTo(other._head);
   }
 
   @Override
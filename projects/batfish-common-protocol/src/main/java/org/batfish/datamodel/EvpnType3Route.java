@@ -201,14 +201,14 @@ public final class EvpnType3Route extends EvpnRoute<EvpnType3Route.Builder, Evpn
         .setAdmin(getAdministrativeCost())
         .setNonRouting(getNonRouting())
         .setNonForwarding(getNonForwarding())
-        .setAsPath(_asPath)
-        .setClusterList(_clusterList)
-        .setCommunities(_communities)
-        .setLocalPreference(_localPreference)
-        .setMetric(_med)
+        .setAsPath(getAsPath())
+        .setClusterList(getClusterList())
+        .setCommunities(getCommunities())
+        .setLocalPreference(getLocalPreference())
+        .setMetric(getMetric())
         .setNextHop(_nextHop)
-        .setOriginatorIp(_originatorIp)
-        .setOriginType(_originType)
+        .setOriginatorIp(getOriginatorIp())
+        .setOriginType(getOriginType())
         .setProtocol(_protocol)
         .setReceivedFromIp(_receivedFromIp)
         .setReceivedFromRouteReflectorClient(_receivedFromRouteReflectorClient)
@@ -216,7 +216,7 @@ public final class EvpnType3Route extends EvpnRoute<EvpnType3Route.Builder, Evpn
         .setSrcProtocol(_srcProtocol)
         .setTag(_tag)
         .setVniIp(_vniIp)
-        .setWeight(_weight);
+        .setWeight(getWeight());
   }
 
   @Override
@@ -233,16 +233,9 @@ public final class EvpnType3Route extends EvpnRoute<EvpnType3Route.Builder, Evpn
         && _admin == other._admin
         && getNonRouting() == other.getNonRouting()
         && getNonForwarding() == other.getNonForwarding()
-        && _localPreference == other._localPreference
-        && _med == other._med
+        && _attributes == other._attributes
         && _receivedFromRouteReflectorClient == other._receivedFromRouteReflectorClient
-        && _weight == other._weight
-        && Objects.equals(_asPath, other._asPath)
-        && Objects.equals(_clusterList, other._clusterList)
-        && Objects.equals(_communities, other._communities)
         && Objects.equals(_nextHop, other._nextHop)
-        && Objects.equals(_originatorIp, other._originatorIp)
-        && _originType == other._originType
         && _protocol == other._protocol
         && Objects.equals(_receivedFromIp, other._receivedFromIp)
         && Objects.equals(_routeDistinguisher, other._routeDistinguisher)
@@ -256,15 +249,9 @@ public final class EvpnType3Route extends EvpnRoute<EvpnType3Route.Builder, Evpn
     int h = _hashCode;
     if (h == 0) {
       h = _admin;
-      h = h * 31 + _asPath.hashCode();
-      h = h * 31 + _clusterList.hashCode();
-      h = h * 31 + _communities.hashCode();
-      h = h * 31 + Long.hashCode(_localPreference);
-      h = h * 31 + Long.hashCode(_med);
+      h = h * 31 + _attributes.hashCode();
       h = h * 31 + _network.hashCode();
       h = h * 31 + _nextHop.hashCode();
-      h = h * 31 + _originatorIp.hashCode();
-      h = h * 31 + _originType.ordinal();
       h = h * 31 + _protocol.ordinal();
       h = h * 31 + Objects.hashCode(_receivedFromIp);
       h = h * 31 + Boolean.hashCode(_receivedFromRouteReflectorClient);
@@ -272,7 +259,6 @@ public final class EvpnType3Route extends EvpnRoute<EvpnType3Route.Builder, Evpn
       h = h * 31 + (_srcProtocol == null ? 0 : _srcProtocol.ordinal());
       h = h * 31 + Long.hashCode(_tag);
       h = h * 31 + _vniIp.hashCode();
-      h = h * 31 + _weight;
 
       _hashCode = h;
     }
@@ -175,21 +175,21 @@ public final class EvpnType5Route extends EvpnRoute<EvpnType5Route.Builder, Evpn
         .setAdmin(getAdministrativeCost())
         .setNonRouting(getNonRouting())
         .setNonForwarding(getNonForwarding())
-        .setAsPath(_asPath)
-        .setClusterList(_clusterList)
-        .setCommunities(_communities)
-        .setLocalPreference(_localPreference)
-        .setMetric(_med)
+        .setAsPath(getAsPath())
+        .setClusterList(getClusterList())
+        .setCommunities(getCommunities())
+        .setLocalPreference(getLocalPreference())
+        .setMetric(getMetric())
         .setNextHop(_nextHop)
-        .setOriginatorIp(_originatorIp)
-        .setOriginType(_originType)
+        .setOriginatorIp(getOriginatorIp())
+        .setOriginType(getOriginType())
         .setProtocol(_protocol)
         .setReceivedFromIp(_receivedFromIp)
         .setReceivedFromRouteReflectorClient(_receivedFromRouteReflectorClient)
         .setRouteDistinguisher(_routeDistinguisher)
         .setSrcProtocol(_srcProtocol)
         .setTag(_tag)
-        .setWeight(_weight);
+        .setWeight(getWeight());
   }
 
   @Override
@@ -206,16 +206,9 @@ public final class EvpnType5Route extends EvpnRoute<EvpnType5Route.Builder, Evpn
         && _admin == other._admin
         && getNonRouting() == other.getNonRouting()
         && getNonForwarding() == other.getNonForwarding()
-        && _localPreference == other._localPreference
-        && _med == other._med
+        && _attributes == other._attributes
         && _receivedFromRouteReflectorClient == other._receivedFromRouteReflectorClient
-        && _weight == other._weight
-        && Objects.equals(_asPath, other._asPath)
-        && Objects.equals(_clusterList, other._clusterList)
-        && Objects.equals(_communities, other._communities)
         && Objects.equals(_nextHop, other._nextHop)
-        && Objects.equals(_originatorIp, other._originatorIp)
-        && _originType == other._originType
         && _protocol == other._protocol
         && Objects.equals(_receivedFromIp, other._receivedFromIp)
         && Objects.equals(_routeDistinguisher, other._routeDistinguisher)
@@ -228,22 +221,15 @@ public final class EvpnType5Route extends EvpnRoute<EvpnType5Route.Builder, Evpn
     int h = _hashCode;
     if (h == 0) {
       h = _admin;
-      h = h * 31 + _asPath.hashCode();
-      h = h * 31 + _clusterList.hashCode();
-      h = h * 31 + _communities.hashCode();
-      h = h * 31 + Long.hashCode(_localPreference);
-      h = h * 31 + Long.hashCode(_med);
+      h = h * 31 + _attributes.hashCode();
       h = h * 31 + _network.hashCode();
       h = h * 31 + _nextHop.hashCode();
-      h = h * 31 + _originatorIp.hashCode();
-      h = h * 31 + _originType.ordinal();
       h = h * 31 + _protocol.ordinal();
       h = h * 31 + Objects.hashCode(_receivedFromIp);
       h = h * 31 + Boolean.hashCode(_receivedFromRouteReflectorClient);
       h = h * 31 + _routeDistinguisher.hashCode();
       h = h * 31 + (_srcProtocol == null ? 0 : _srcProtocol.ordinal());
       h = h * 31 + Long.hashCode(_tag);
-      h = h * 31 + _weight;
 
       _hashCode = h;
     }
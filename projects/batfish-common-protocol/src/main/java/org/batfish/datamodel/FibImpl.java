@@ -9,10 +9,12 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSet.Builder;
 import com.google.common.collect.ImmutableSortedSet;
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.Stack;
@@ -21,7 +23,7 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.BatfishException;
-import org.batfish.datamodel.PrefixTrieMultiMap.FoldOperator;
+import org.batfish.datamodel.PrefixMultiMap.FoldOperator;
 import org.batfish.datamodel.route.nh.NextHopDiscard;
 import org.batfish.datamodel.route.nh.NextHopInterface;
 import org.batfish.datamodel.route.nh.NextHopIp;
@@ -79,20 +81,118 @@ public final class FibImpl implements Fib {
     }
   }
 
+  /**
+   * Which routes may resolve a next-hop IP. Static routes may always resolve via connected routes,
+   * and only recursive static routes may resolve via other routes.
+   */
+  private enum ResolutionKind {
+    NON_STATIC,
+    STATIC_NON_RECURSIVE,
+    STATIC_RECURSIVE;
+
+    static ResolutionKind of(AbstractRoute route) {
+      if (route.getProtocol() != RoutingProtocol.STATIC) {
+        return NON_STATIC;
+      }
+      return ((StaticRoute) route).getRecursive() ? STATIC_RECURSIVE : STATIC_NON_RECURSIVE;
+    }
+  }
+
+  /** Identifies the resolution of a next-hop IP, shared by all routes with that next-hop IP. */
+  private static final class NextHopResolutionKey {
+    private final @Nonnull Ip _nextHopIp;
+    private final @Nonnull ResolutionKind _kind;
+
+    NextHopResolutionKey(Ip nextHopIp, ResolutionKind kind) {
+      _nextHopIp = nextHopIp;
+      _kind = kind;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof NextHopResolutionKey)) {
+        return false;
+      }
+      NextHopResolutionKey other = (NextHopResolutionKey) o;
+      return _nextHopIp.equals(other._nextHopIp) && _kind == other._kind;
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_nextHopIp, _kind);
+    }
+  }
+
+  /**
+   * The FIB entries computed for one route with a given next-hop IP, along with every network
+   * visited while resolving that next-hop IP. The entries can be reused for another route with the
+   * same next-hop IP as long as its network was not visited, since only then can it not have
+   * changed the result of resolution (by cutting off a resolution loop).
+   */
+  private static final class NextHopResolution {
+    private final @Nonnull AbstractRoute _route;
+    private final @Nonnull Set<FibEntry> _entries;
+    private final @Nonnull Set<Prefix> _visitedNetworks;
+
+    NextHopResolution(AbstractRoute route, Set<FibEntry> entries, Set<Prefix> visitedNetworks) {
+      _route = route;
+      _entries = entries;
+      _visitedNetworks = visitedNetworks;
+    }
+
+    boolean canResolve(AbstractRoute route) {
+      return !_visitedNetworks.contains(route.getNetwork());
+    }
+
+    /** Returns the memoized entries, with the given route as their top-level route. */
+    Set<FibEntry> getEntries(AbstractRoute route) {
+      if (route.equals(_route)) {
+        return _entries;
+      }
+      return _entries.stream()
+          .map(
+              e -> {
+                List<AbstractRoute> steps = e.getResolutionSteps();
+                return new FibEntry(
+                    e.getAction(),
+                    ImmutableList.<AbstractRoute>builderWithExpectedSize(steps.size())
+                        .add(route)
+                        .addAll(steps.subList(1, steps.size()))
+                        .build());
+              })
+          .collect(ImmutableSet.toImmutableSet());
+    }
+  }
+
   private static final int MAX_DEPTH = 10;
 
   /** This trie is the source of truth for all resolved FIB routes */
-  @Nonnull private final PrefixTrieMultiMap<FibEntry> _root;
+  @Nonnull private final PrefixMultiMap<FibEntry> _root;
 
   private transient Supplier<Set<FibEntry>> _entries;
 
   public <R extends AbstractRouteDecorator> FibImpl(
       @Nonnull GenericRib<R> rib, ResolutionRestriction<R> restriction) {
-    _root = new PrefixTrieMultiMap<>(Prefix.ZERO);
+    this(rib, restriction, PrefixMultiMap.Implementation.NODE);
+  }
+
+  /**
+   * Create a FIB resolving the routes of the given RIB, whose entries are stored in a trie of the
+   * given implementation.
+   */
+  public <R extends AbstractRouteDecorator> FibImpl(
+      @Nonnull GenericRib<R> rib,
+      ResolutionRestriction<R> restriction,
+      PrefixMultiMap.Implementation trieImplementation) {
+    _root = trieImplementation.create(Prefix.ZERO);
+    // Many routes typically share few next-hop IPs, so resolve each next-hop IP only once.
+    Map<NextHopResolutionKey, NextHopResolution> resolutions = new HashMap<>();
     rib.getTypedRoutes()
         .forEach(
             r -> {
-              Set<FibEntry> s = resolveRoute(rib, r.getAbstractRoute(), restriction);
+              Set<FibEntry> s = resolveRoute(rib, r.getAbstractRoute(), restriction, resolutions);
               _root.putAll(r.getNetwork(), s);
             });
     initSuppliers();
@@ -126,6 +226,47 @@ public final class FibImpl implements Fib {
   @VisibleForTesting
   <R extends AbstractRouteDecorator> Set<FibEntry> resolveRoute(
       GenericRib<R> rib, AbstractRoute route, ResolutionRestriction<R> restriction) {
+    return resolveRoute(rib, route, restriction, new HashSet<>());
+  }
+
+  /**
+   * Like {@link #resolveRoute(GenericRib, AbstractRoute, ResolutionRestriction)}, but reusing and
+   * recording the resolution of next-hop IPs in {@code resolutions}, which must only be shared
+   * between routes of the same RIB under the same restriction.
+   */
+  private <R extends AbstractRouteDecorator> Set<FibEntry> resolveRoute(
+      GenericRib<R> rib,
+      AbstractRoute route,
+      ResolutionRestriction<R> restriction,
+      Map<NextHopResolutionKey, NextHopResolution> resolutions) {
+    if (route.getNonForwarding() || !(route.getNextHop() instanceof NextHopIp)) {
+      return resolveRoute(rib, route, restriction, new HashSet<>());
+    }
+    NextHopResolutionKey key =
+        new NextHopResolutionKey(
+            ((NextHopIp) route.getNextHop()).getIp(), ResolutionKind.of(route));
+    NextHopResolution resolution = resolutions.get(key);
+    if (resolution != null && resolution.canResolve(route)) {
+      return resolution.getEntries(route);
+    }
+    Set<Prefix> visitedNetworks = new HashSet<>();
+    Set<FibEntry> entries = resolveRoute(rib, route, restriction, visitedNetworks);
+    if (!visitedNetworks.contains(route.getNetwork())) {
+      resolutions.putIfAbsent(
+          key, new NextHopResolution(route, entries, ImmutableSet.copyOf(visitedNetworks)));
+    }
+    return entries;
+  }
+
+  /**
+   * Resolve the given route, adding to {@code visitedNetworks} the networks of all routes
+   * considered while recursively resolving its next hop.
+   */
+  private <R extends AbstractRouteDecorator> Set<FibEntry> resolveRoute(
+      GenericRib<R> rib,
+      AbstractRoute route,
+      ResolutionRestriction<R> restriction,
+      Set<Prefix> visitedNetworks) {
     ResolutionTreeNode resolutionRoot = ResolutionTreeNode.root(route);
     buildResolutionTree(
         rib,
@@ -136,7 +277,8 @@ public final class FibImpl implements Fib {
         Prefix.MAX_PREFIX_LENGTH,
         null,
         resolutionRoot,
-        restriction);
+        restriction,
+        visitedNetworks);
     Builder<FibEntry> collector = ImmutableSet.builder();
     collectEntries(resolutionRoot, new Stack<>(), collector);
     return collector.build();
@@ -196,7 +338,8 @@ public final class FibImpl implements Fib {
       int maxPrefixLength,
       @Nullable AbstractRoute parentRoute,
       ResolutionTreeNode treeNode,
-      ResolutionRestriction<R> restriction) {
+      ResolutionRestriction<R> restriction,
+      Set<Prefix> visitedNetworks) {
     Prefix network = route.getNetwork();
     if (seenNetworks.contains(network)) {
       // Don't enter a resolution loop
@@ -225,7 +368,8 @@ public final class FibImpl implements Fib {
             maxPrefixLength - 1,
             null,
             treeNode,
-            restriction);
+            restriction,
+            visitedNetworks);
         return;
       }
     }
@@ -272,10 +416,12 @@ public final class FibImpl implements Fib {
               maxPrefixLength - 1,
               parentRoute,
               treeNode,
-              restriction);
+              restriction,
+              visitedNetworks);
         } else {
           // We have at least one valid longest-prefix match
           for (AbstractRoute nextHopLongestPrefixMatchRoute : forwardingRoutes) {
+            visitedNetworks.add(nextHopLongestPrefixMatchRoute.getNetwork());
             buildResolutionTree(
                 rib,
                 nextHopLongestPrefixMatchRoute,
@@ -285,7 +431,8 @@ public final class FibImpl implements Fib {
                 Prefix.MAX_PREFIX_LENGTH,
                 route,
                 ResolutionTreeNode.withParent(nextHopLongestPrefixMatchRoute, treeNode, null),
-                restriction);
+                restriction,
+                visitedNetworks);
           }
         }
         return null;
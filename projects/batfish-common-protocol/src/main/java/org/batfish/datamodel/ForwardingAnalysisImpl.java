@@ -9,6 +9,7 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
@@ -19,6 +20,8 @@ import io.opentracing.util.GlobalTracer;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -27,8 +30,10 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import net.sf.javabdd.BDD;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.bdd.IpSpaceToBDD;
@@ -47,11 +52,46 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
   // node -> vrf -> forwarding behavior for that VRF.
   private final Map<String, Map<String, VrfForwardingBehavior>> _vrfForwardingBehavior;
 
+  // Inputs of the analysis that are compared against a later data plane to decide what to
+  // recompute incrementally. Serialized, so that a data plane loaded from storage can be the base
+  // of an incremental analysis.
+  private final IncrementalState _incrementalState;
+
   public ForwardingAnalysisImpl(
       Map<String, Configuration> configurations,
       Map<String, Map<String, Fib>> fibs,
       Topology topology,
       Map<Location, LocationInfo> locationInfo) {
+    this(null, ImmutableSetMultimap.of(), configurations, fibs, topology, locationInfo);
+  }
+
+  /**
+   * Computes the forwarding analysis of a data plane that differs from the one {@code base} was
+   * computed for only in the FIBs and interfaces of the given VRFs, reusing the results of {@code
+   * base} for everything those changes cannot affect. The result is identical to that of a full
+   * rebuild.
+   *
+   * @param changedVrfs node -&gt; VRFs whose FIB or interfaces changed since {@code base}. Nodes
+   *     and VRFs that {@code base} does not know about are always recomputed.
+   */
+  public static @Nonnull ForwardingAnalysisImpl incremental(
+      ForwardingAnalysisImpl base,
+      Multimap<String, String> changedVrfs,
+      Map<String, Configuration> configurations,
+      Map<String, Map<String, Fib>> fibs,
+      Topology topology,
+      Map<Location, LocationInfo> locationInfo) {
+    return new ForwardingAnalysisImpl(
+        base, changedVrfs, configurations, fibs, topology, locationInfo);
+  }
+
+  private ForwardingAnalysisImpl(
+      @Nullable ForwardingAnalysisImpl base,
+      Multimap<String, String> changedVrfs,
+      Map<String, Configuration> configurations,
+      Map<String, Map<String, Fib>> fibs,
+      Topology topology,
+      Map<Location, LocationInfo> locationInfo) {
     Span span = GlobalTracer.get().buildSpan("Construct ForwardingAnalysis").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
@@ -75,14 +115,53 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
       // ARP ips not belonging to any subnet in the network
       Set<Ip> unownedArpIps = computeUnownedArpIps(fibs, ipSpaceToBDD, unownedIpsBDD);
 
+      // hostname -> interfaces that are not full. I.e. could have neighbors not present in snapshot
+      Multimap<String, String> interfacesWithMissingDevices =
+          computeInterfacesWithMissingDevices(locationInfo, ipSpaceToBDD, unownedIpsBDD);
+
+      // ips belonging to any subnet in the network, including inactive interfaces.
+      IpSpace internalIps = computeInternalIps(ipOwners.getAllInterfaceHostIps());
+
+      // ips not belonging to any subnet in the network, including inactive interfaces.
+      IpSpace externalIps = internalIps.complement();
+
+      _incrementalState =
+          new IncrementalState(
+              ownedIps,
+              internalIps,
+              unownedArpIps,
+              interfaceOwnedIps,
+              ipOwners.getVrfIfaceOwnedIpSpaces(),
+              interfacesWithMissingDevices,
+              computeInterfaceArpIps(locationInfo),
+              topology);
+      // If anything network-wide changed, every VRF may be affected: rebuild in full
+      IncrementalState baseState = base == null ? null : base._incrementalState;
+      boolean full = baseState == null || !baseState.hasSameNetworkWideInputs(_incrementalState);
+
+      // Nodes whose ARP replies must be recomputed
+      Set<String> arpNodes =
+          full
+              ? configurations.keySet()
+              : configurations.keySet().stream()
+                  .filter(
+                      node ->
+                          changedVrfs.containsKey(node)
+                              || !base._arpReplies.containsKey(node)
+                              || baseState.hasChangedArpInputs(node, _incrementalState))
+                  .collect(ImmutableSet.toImmutableSet());
+
       // IpSpaces matched by each prefix
       // -- only will have entries for active interfaces if FIB is correct
-      Map<String, Map<String, Map<Prefix, IpSpace>>> matchingIps = computeMatchingIps(fibs);
+      Map<String, Map<String, Map<Prefix, IpSpace>>> matchingIps = new HashMap<>();
       // Set of routes that forward out each interface
-      Map<String, Map<String, Map<String, Set<AbstractRoute>>>> routesWithNextHop =
-          computeRoutesWithNextHop(fibs);
+      Map<String, Map<String, Map<String, Set<AbstractRoute>>>> routesWithNextHop = new HashMap<>();
       // Node -> vrf -> destination IPs that can be routed
-      Map<String, Map<String, IpSpace>> routableIps = computeRoutableIps(fibs);
+      Map<String, Map<String, IpSpace>> routableIps = new HashMap<>();
+      Map<String, Map<String, Fib>> arpNodeFibs = Maps.filterKeys(fibs, arpNodes::contains);
+      matchingIps.putAll(computeMatchingIps(arpNodeFibs));
+      routesWithNextHop.putAll(computeRoutesWithNextHop(arpNodeFibs));
+      routableIps.putAll(computeRoutableIps(arpNodeFibs));
 
       /* Compute _arpReplies: for each interface, the set of arp IPs for which that interface will
        * respond.
@@ -92,20 +171,69 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
         // interface. Should only include active interfaces.
         Map<String, Map<String, Map<String, IpSpace>>> ipsRoutedOutInterfaces =
             computeIpsRoutedOutInterfaces(matchingIps, routesWithNextHop);
-        _arpReplies =
+        Map<String, Map<String, IpSpace>> newArpReplies =
             computeArpReplies(
-                configurations, ipsRoutedOutInterfaces, interfaceOwnedIps, routableIps);
+                Maps.filterKeys(configurations, arpNodes::contains),
+                ipsRoutedOutInterfaces,
+                interfaceOwnedIps,
+                routableIps);
+        _arpReplies =
+            full
+                ? newArpReplies
+                : toImmutableMap(
+                    configurations.keySet(),
+                    Function.identity(),
+                    node -> firstNonNull(newArpReplies.get(node), base._arpReplies.get(node)));
       }
 
-      // hostname -> interfaces that are not full. I.e. could have neighbors not present in snapshot
-      Multimap<String, String> interfacesWithMissingDevices =
-          computeInterfacesWithMissingDevices(locationInfo, ipSpaceToBDD, unownedIpsBDD);
-
-      // ips belonging to any subnet in the network, including inactive interfaces.
-      IpSpace internalIps = computeInternalIps(ipOwners.getAllInterfaceHostIps());
-
-      // ips not belonging to any subnet in the network, including inactive interfaces.
-      IpSpace externalIps = internalIps.complement();
+      // VRFs whose forwarding behavior must be recomputed
+      Predicate<String> allVrfsChanged;
+      if (full) {
+        allVrfsChanged = node -> true;
+      } else {
+        Set<String> changedNodes = new HashSet<>();
+        configurations
+            .keySet()
+            .forEach(
+                node -> {
+                  if (!base._vrfForwardingBehavior.containsKey(node)
+                      || baseState.hasChangedForwardingInputs(node, _incrementalState)) {
+                    changedNodes.add(node);
+                  }
+                  if (!_arpReplies.get(node).equals(base._arpReplies.get(node))) {
+                    // nodes that may ARP for IPs of this node
+                    topology
+                        .getNodeEdges()
+                        .getOrDefault(node, ImmutableSortedSet.of())
+                        .forEach(
+                            edge -> {
+                              changedNodes.add(edge.getNode1());
+                              changedNodes.add(edge.getNode2());
+                            });
+                  }
+                });
+        allVrfsChanged = changedNodes::contains;
+      }
+      Map<String, Set<String>> recomputedVrfs =
+          toImmutableMap(
+              configurations.values(),
+              Configuration::getHostname,
+              config ->
+                  config.getVrfs().keySet().stream()
+                      .filter(
+                          vrf ->
+                              allVrfsChanged.test(config.getHostname())
+                                  || changedVrfs.containsEntry(config.getHostname(), vrf)
+                                  || !base._vrfForwardingBehavior
+                                      .get(config.getHostname())
+                                      .containsKey(vrf))
+                      .collect(ImmutableSet.toImmutableSet()));
+      Map<String, Map<String, Fib>> otherFibs =
+          Maps.filterKeys(
+              fibs, node -> !arpNodes.contains(node) && !recomputedVrfs.get(node).isEmpty());
+      matchingIps.putAll(computeMatchingIps(otherFibs));
+      routesWithNextHop.putAll(computeRoutesWithNextHop(otherFibs));
+      routableIps.putAll(computeRoutableIps(otherFibs));
 
       _vrfForwardingBehavior =
           configurations.values().parallelStream()
@@ -118,6 +246,9 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
                               Function.identity(),
                               vrf -> {
                                 String node = config.getHostname();
+                                if (!recomputedVrfs.get(node).contains(vrf)) {
+                                  return base._vrfForwardingBehavior.get(node).get(vrf);
+                                }
                                 return computeVrfForwardingBehavior(
                                     node,
                                     vrf,
@@ -143,6 +274,83 @@ public final class ForwardingAnalysisImpl implements ForwardingAnalysis, Seriali
     }
   }
 
+  /**
+   * The inputs of a {@link ForwardingAnalysisImpl} other than FIBs and interfaces, used to find out
+   * which of its results can be reused by {@link #incremental}.
+   */
+  private static final class IncrementalState implements Serializable {
+    private final @Nonnull IpSpace _ownedIps;
+    private final @Nonnull IpSpace _internalIps;
+    private final @Nonnull Set<Ip> _unownedArpIps;
+    // node -> interface -> IPs owned by that interface
+    private final @Nonnull Map<String, Map<String, Set<Ip>>> _interfaceOwnedIps;
+    // node -> vrf -> interface -> IPs accepted by that interface
+    private final @Nonnull Map<String, Map<String, Map<String, IpSpace>>> _acceptedIps;
+    private final @Nonnull Multimap<String, String> _interfacesWithMissingDevices;
+    // node -> interface -> ARP IPs of the interface's link
+    private final @Nonnull Map<String, Map<String, IpSpace>> _interfaceArpIps;
+    private final @Nonnull Topology _topology;
+
+    private IncrementalState(
+        IpSpace ownedIps,
+        IpSpace internalIps,
+        Set<Ip> unownedArpIps,
+        Map<String, Map<String, Set<Ip>>> interfaceOwnedIps,
+        Map<String, Map<String, Map<String, IpSpace>>> acceptedIps,
+        Multimap<String, String> interfacesWithMissingDevices,
+        Map<String, Map<String, IpSpace>> interfaceArpIps,
+        Topology topology) {
+      _ownedIps = ownedIps;
+      _internalIps = internalIps;
+      _unownedArpIps = unownedArpIps;
+      _interfaceOwnedIps = interfaceOwnedIps;
+      _acceptedIps = acceptedIps;
+      _interfacesWithMissingDevices = interfacesWithMissingDevices;
+      _interfaceArpIps = interfaceArpIps;
+      _topology = topology;
+    }
+
+    /** Whether the inputs shared by all nodes and VRFs are the same in {@code other}. */
+    private boolean hasSameNetworkWideInputs(IncrementalState other) {
+      return _ownedIps.equals(other._ownedIps)
+          && _internalIps.equals(other._internalIps)
+          && _unownedArpIps.equals(other._unownedArpIps);
+    }
+
+    /** Whether the inputs of the ARP replies of {@code node} differ in {@code other}. */
+    private boolean hasChangedArpInputs(String node, IncrementalState other) {
+      return !Objects.equals(_interfaceOwnedIps.get(node), other._interfaceOwnedIps.get(node));
+    }
+
+    /**
+     * Whether the inputs of the forwarding behavior of all VRFs of {@code node} differ in {@code
+     * other}.
+     */
+    private boolean hasChangedForwardingInputs(String node, IncrementalState other) {
+      return !Objects.equals(_acceptedIps.get(node), other._acceptedIps.get(node))
+          || !ImmutableSet.copyOf(_interfacesWithMissingDevices.get(node))
+              .equals(ImmutableSet.copyOf(other._interfacesWithMissingDevices.get(node)))
+          || !Objects.equals(_interfaceArpIps.get(node), other._interfaceArpIps.get(node))
+          || !Objects.equals(
+              _topology.getNodeEdges().get(node), other._topology.getNodeEdges().get(node));
+    }
+  }
+
+  /** node -&gt; interface -&gt; ARP IPs of the interface's link */
+  private static Map<String, Map<String, IpSpace>> computeInterfaceArpIps(
+      Map<Location, LocationInfo> locationInfo) {
+    Map<String, ImmutableMap.Builder<String, IpSpace>> builders = new HashMap<>();
+    locationInfo.forEach(
+        (location, info) -> {
+          if (location instanceof InterfaceLinkLocation) {
+            builders
+                .computeIfAbsent(location.getNodeName(), k -> ImmutableMap.builder())
+                .put(((InterfaceLinkLocation) location).getInterfaceName(), info.getArpIps());
+          }
+        });
+    return toImmutableMap(builders, Entry::getKey, entry -> entry.getValue().build());
+  }
+
   private VrfForwardingBehavior computeVrfForwardingBehavior(
       String node,
       String vrf,
@@ -0,0 +1,131 @@
+package org.batfish.datamodel;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * A multimap from {@link Prefix prefixes} to sets of elements of type {@link T}, supporting longest
+ * prefix match. Implemented by tries whose keys are prefixes; see {@link Implementation}.
+ */
+@ParametersAreNonnullByDefault
+public interface PrefixMultiMap<T> extends Serializable {
+
+  /** The available implementations of {@link PrefixMultiMap}. */
+  enum Implementation {
+    /** {@link PrefixTrieMultiMap}, which allocates an object per trie node. */
+    NODE,
+    /** {@link CompactPrefixTrieMultiMap}, which stores trie nodes in primitive arrays. */
+    COMPACT;
+
+    /**
+     * Creates an empty multimap of this implementation, whose trie is rooted at the given prefix.
+     */
+    public @Nonnull <T> PrefixMultiMap<T> create(Prefix root) {
+      switch (this) {
+        case NODE:
+          return new PrefixTrieMultiMap<>(root);
+        case COMPACT:
+          return new CompactPrefixTrieMultiMap<>(root);
+        default:
+          throw new IllegalStateException("Unsupported implementation: " + this);
+      }
+    }
+  }
+
+  /**
+   * Interface of fold operations. A fold applies the same operation at each node of the trie,
+   * bottom-up. The operation's inputs are the return values of the recursive calls on the subtries,
+   * plus the prefix and values at that node.
+   */
+  interface FoldOperator<T, R> {
+    @Nonnull
+    R fold(Prefix prefix, Set<T> elems, @Nullable R leftResult, @Nullable R rightResult);
+  }
+
+  /**
+   * Post-order traversal over the entries. Entries will always contain non-null keys and values.
+   * The traversal may not mutate the entries (the values are immutable sets).
+   */
+  void traverseEntries(BiConsumer<Prefix, Set<T>> consumer);
+
+  /**
+   * Post-order traversal over the entries. Entries will always contain non-null keys and values.
+   * The traversal may not mutate the entries (the values are immutable sets).
+   *
+   * <p>A node will only be visited if {@code visitNode} returns {@code true} for its prefix and
+   * elements.
+   */
+  void traverseEntries(BiConsumer<Prefix, Set<T>> consumer, BiPredicate<Prefix, Set<T>> visitNode);
+
+  /**
+   * Perform a fold over the trie. The fold applies the same operation at each node of the trie,
+   * bottom-up. The operation's inputs are the return values of the recursive calls on the subtries,
+   * plus the prefix and values at that node.
+   */
+  <R> R fold(FoldOperator<T, R> operator);
+
+  /**
+   * Retrieve an immutable copy of elements for the given prefix. Returns an empty set if the prefix
+   * is not a key of this multimap.
+   */
+  @Nonnull
+  Set<T> get(Prefix p);
+
+  /** @return all elements in the multimap. */
+  @Nonnull
+  Set<T> getAllElements();
+
+  /** Find the elements associated with the longest matching prefix of a given IP address. */
+  @Nonnull
+  Set<T> longestPrefixMatch(Ip address);
+
+  /**
+   * Find the elements associated with the longest matching prefix of a given IP address, up to the
+   * given maximum length.
+   */
+  @Nonnull
+  Set<T> longestPrefixMatch(Ip address, int maxPrefixLength);
+
+  /**
+   * Stores a key-value pair in the multimap.
+   *
+   * @return whether the multimap was modified.
+   */
+  boolean put(Prefix p, T e);
+
+  /**
+   * Stores multiple key-value pairs for a single key in the multimap.
+   *
+   * @return whether the multimap was modified.
+   */
+  boolean putAll(Prefix p, Collection<T> elements);
+
+  /**
+   * Remove a key-value pair from the multimap.
+   *
+   * @return whether the multimap was modified.
+   */
+  boolean remove(Prefix p, T e);
+
+  /**
+   * Replace any elements associated with prefix {@code p} with a given element.
+   *
+   * @return whether the multimap was modified
+   */
+  boolean replaceAll(Prefix p, T e);
+
+  /** Remove all elements from the multimap. */
+  void clear();
+
+  /**
+   * Returns {@code true} iff there is any intersection between the prefixes that are keys of this
+   * multimap and the provided {@code prefixSpace}.
+   */
+  boolean intersectsPrefixSpace(PrefixSpace prefixSpace);
+}
@@ -34,7 +34,7 @@ import javax.annotation.ParametersAreNonnullByDefault;
  * branching does not have to be done on each bit of the prefix.
  */
 @ParametersAreNonnullByDefault
-public final class PrefixTrieMultiMap<T> implements Serializable {
+public final class PrefixTrieMultiMap<T> implements PrefixMultiMap<T> {
 
   /**
    * Combine two nodes into a tree -- a newly created node, and an existing node. The existing node
@@ -95,16 +95,6 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
         && Ip.getBitAtPosition(childPrefix.getStartIp(), parentPrefix.getPrefixLength());
   }
 
-  /**
-   * Interface of fold operations. A fold applies the same operation at each node of the trie,
-   * bottom-up. The operation's inputs are the return values of the recursive calls on the subtries,
-   * plus the prefix and values at that node.
-   */
-  public interface FoldOperator<T, R> {
-    @Nonnull
-    R fold(Prefix prefix, Set<T> elems, @Nullable R leftResult, @Nullable R rightResult);
-  }
-
   private static final class Node<T> implements Serializable {
 
     @Nonnull private final Prefix _prefix;
@@ -292,6 +282,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    * Post-order traversal over the entries. Entries will always contain non-null keys and values.
    * The traversal may not mutate the entries (the values are immutable sets).
    */
+  @Override
   public void traverseEntries(BiConsumer<Prefix, Set<T>> consumer) {
     // Chose null instead of something like BiPredicates.alwaysTrue() because:
     // - it doesn't exist
@@ -306,6 +297,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    * <p>A node will only be visited if {@code visitNode} returns {@code true} for its prefix and
    * elements.
    */
+  @Override
   public void traverseEntries(
       BiConsumer<Prefix, Set<T>> consumer, BiPredicate<Prefix, Set<T>> visitChild) {
     traverseEntriesImpl(consumer, visitChild);
@@ -327,6 +319,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    * bottom-up. The operation's inputs are the return values of the recursive calls on the subtries,
    * plus the prefix and values at that node.
    */
+  @Override
   public <R> R fold(FoldOperator<T, R> operator) {
     if (_root == null) {
       return null;
@@ -374,6 +367,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    *
    * @return null if the prefix is not contained in the trie.
    */
+  @Override
   @Nonnull
   public Set<T> get(Prefix p) {
     Node<T> node = exactMatchNode(p);
@@ -381,6 +375,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
   }
 
   /** @return all elements in the trie. */
+  @Override
   @Nonnull
   public Set<T> getAllElements() {
     Builder<T> b = ImmutableSet.builder();
@@ -406,6 +401,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
   }
 
   /** Find the elements associated with the longest matching prefix of a given IP address. */
+  @Override
   @Nonnull
   public Set<T> longestPrefixMatch(Ip address) {
     return longestPrefixMatch(address, Prefix.MAX_PREFIX_LENGTH);
@@ -415,6 +411,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    * Find the elements associated with the longest matching prefix of a given IP address, up to the
    * given maximum length.
    */
+  @Override
   @Nonnull
   public Set<T> longestPrefixMatch(Ip address, int maxPrefixLength) {
     Node<T> node = longestMatchNonEmptyNode(Prefix.create(address, maxPrefixLength));
@@ -427,6 +424,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    *
    * @return whether the multimap was modified.
    */
+  @Override
   public boolean put(Prefix p, T e) {
     return putAll(p, ImmutableList.of(e));
   }
@@ -436,6 +434,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    *
    * @return whether the multimap was modified.
    */
+  @Override
   public boolean putAll(Prefix p, Collection<T> elements) {
     if (_root == null || !_root._prefix.containsPrefix(p)) {
       _root = combine(new Node<T>(p, elements), _root);
@@ -462,6 +461,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    *
    * @return whether the multimap was modified.
    */
+  @Override
   public boolean remove(Prefix p, T e) {
     Node<T> node = exactMatchNode(p);
     if (node == null || !node._elements.contains(e)) {
@@ -483,6 +483,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    *
    * @return whether the multimap was modified
    */
+  @Override
   public boolean replaceAll(Prefix p, T e) {
     Node<T> node = _root == null || !_root._prefix.containsPrefix(p) ? null : exactMatchNode(p);
     if (node == null) {
@@ -496,6 +497,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
   }
 
   /** Remove all elements from the multimap. */
+  @Override
   public void clear() {
     _root = null;
   }
@@ -504,6 +506,7 @@ public final class PrefixTrieMultiMap<T> implements Serializable {
    * Returns {@code true} iff there is any intersection between the prefixes that are keys of this
    * trie and the provided {@code prefixSpace}.
    */
+  @Override
   public boolean intersectsPrefixSpace(PrefixSpace prefixSpace) {
     return prefixSpace.getPrefixRanges().stream().anyMatch(_root::intersectsPrefixRange);
   }
@@ -0,0 +1,134 @@
+package org.batfish.datamodel;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.communities.CommunitySetMatchExpr;
+import org.batfish.datamodel.routing_policy.statement.Statement;
+
+/**
+ * Canonicalizes structurally equal structures across {@link Configuration}s, so that all
+ * configurations interned by the same instance share a single copy of each distinct {@link
+ * IpAccessList}, {@link IpSpace}, {@link RouteFilterList}, {@link CommunitySetMatchExpr}, and list
+ * of {@link RoutingPolicy} statements.
+ *
+ * <p>Structures are only shared when they are equal in every serialized field, so interning does
+ * not change the meaning of any configuration. Routing policies themselves refer to their owner, so
+ * only their statements are shared.
+ */
+@ParametersAreNonnullByDefault
+public final class StructureInterner {
+
+  private final Map<List<Object>, IpAccessList> _ipAccessLists = new HashMap<>();
+  private final Map<IpSpace, IpSpace> _ipSpaces = new HashMap<>();
+  private final Map<List<Object>, RouteFilterList> _routeFilterLists = new HashMap<>();
+  private final Map<CommunitySetMatchExpr, CommunitySetMatchExpr> _communitySetMatchExprs =
+      new HashMap<>();
+  private final Map<List<Statement>, List<Statement>> _statements = new HashMap<>();
+  private int _numStructures;
+
+  /** Replaces the structures of {@code c} with their canonical copies. */
+  public void intern(Configuration c) {
+    Map<IpAccessList, IpAccessList> internedAcls = new IdentityHashMap<>();
+    c.setIpAccessLists(
+        internValues(
+            c.getIpAccessLists(),
+            acl -> {
+              IpAccessList canonical =
+                  intern(
+                      _ipAccessLists,
+                      Arrays.asList(
+                          acl.getName(), acl.getSourceName(), acl.getSourceType(), acl.getLines()),
+                      acl);
+              internedAcls.put(acl, canonical);
+              return canonical;
+            }));
+    for (Interface iface : c.getAllInterfaces().values()) {
+      internFilters(iface, internedAcls);
+    }
+    c.setIpSpaces(internValues(c.getIpSpaces(), space -> intern(_ipSpaces, space, space)));
+    c.setRouteFilterLists(
+        internValues(
+            c.getRouteFilterLists(),
+            list ->
+                intern(
+                    _routeFilterLists,
+                    Arrays.asList(list.getName(), list.getVendorStructureId(), list.getLines()),
+                    list)));
+    c.setCommunitySetMatchExprs(
+        internValues(
+            c.getCommunitySetMatchExprs(), expr -> intern(_communitySetMatchExprs, expr, expr)));
+    for (RoutingPolicy policy : c.getRoutingPolicies().values()) {
+      List<Statement> statements = ImmutableList.copyOf(policy.getStatements());
+      policy.setStatements(intern(_statements, statements, statements));
+    }
+  }
+
+  /** Returns the number of structures interned so far, counting duplicates. */
+  public int getNumStructures() {
+    return _numStructures;
+  }
+
+  /** Returns the number of distinct structures interned so far. */
+  public int getNumUniqueStructures() {
+    return _ipAccessLists.size()
+        + _ipSpaces.size()
+        + _routeFilterLists.size()
+        + _communitySetMatchExprs.size()
+        + _statements.size();
+  }
+
+  /**
+   * Returns the ratio of interned structures to distinct structures, i.e., how many copies of each
+   * structure there would be on average without interning. Returns 1 if nothing was interned.
+   */
+  public double getDedupRatio() {
+    int numUnique = getNumUniqueStructures();
+    return numUnique == 0 ? 1.0 : (double) _numStructures / numUnique;
+  }
+
+  private <K, V> V intern(Map<K, V> canonicals, K key, V value) {
+    _numStructures++;
+    V canonical = canonicals.putIfAbsent(key, value);
+    return canonical == null ? value : canonical;
+  }
+
+  private static @Nonnull <V> Map<String, V> internValues(
+      Map<String, V> map, Function<V, V> intern) {
+    // Keep the iteration order of the original map
+    Map<String, V> interned =
+        map instanceof SortedMap
+            ? new TreeMap<>(((SortedMap<String, V>) map).comparator())
+            : new LinkedHashMap<>();
+    map.forEach((name, value) -> interned.put(name, intern.apply(value)));
+    return interned;
+  }
+
+  private static void internFilters(Interface iface, Map<IpAccessList, IpAccessList> internedAcls) {
+    iface.setInboundFilter(canonical(iface.getInboundFilter(), internedAcls));
+    iface.setIncomingFilter(canonical(iface.getIncomingFilter(), internedAcls));
+    iface.setOutgoingFilter(canonical(iface.getOutgoingFilter(), internedAcls));
+    iface.setOutgoingOriginalFlowFilter(
+        canonical(iface.getOutgoingOriginalFlowFilter(), internedAcls));
+    iface.setPostTransformationIncomingFilter(
+        canonical(iface.getPostTransformationIncomingFilter(), internedAcls));
+    iface.setPreTransformationOutgoingFilter(
+        canonical(iface.getPreTransformationOutgoingFilter(), internedAcls));
+  }
+
+  private static @Nullable IpAccessList canonical(
+      @Nullable IpAccessList acl, Map<IpAccessList, IpAccessList> internedAcls) {
+    return acl == null ? null : internedAcls.getOrDefault(acl, acl);
+  }
+}
@@ -0,0 +1,459 @@
+package org.batfish.datamodel.acl;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.AclIpSpaceLine;
+import org.batfish.datamodel.AclLine;
+import org.batfish.datamodel.EmptyIpSpace;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpIpSpace;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardIpSpace;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixIpSpace;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.TcpFlagsMatchConditions;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.batfish.datamodel.visitors.GenericIpSpaceVisitor;
+
+/**
+ * Compiles {@link IpAccessList IpAccessLists}, {@link AclLineMatchExpr AclLineMatchExprs}, and
+ * {@link IpSpace IpSpaces} of a single device into trees of matchers, so that evaluating them on
+ * many flows does not repeatedly walk the data model with visitors.
+ *
+ * <p>Compiled objects give exactly the same results as {@link IpAccessList#filter}, {@link
+ * Evaluator}, and {@link IpSpace#containsIp}, including on undefined references. References to
+ * named ACLs and IP spaces are resolved when a flow is matched, so that they see the contents of
+ * the maps this compiler was created with.
+ *
+ * <p>Compiled objects are memoized by identity and are safe to use from multiple threads.
+ */
+@ParametersAreNonnullByDefault
+public final class AclCompiler {
+
+  private final @Nonnull Map<String, IpAccessList> _availableAcls;
+  private final @Nonnull Map<String, IpSpace> _namedIpSpaces;
+
+  // Weak keys make the caches use identity rather than deep equality, see MemoizedIpSpaceToBDD.
+  private final @Nonnull LoadingCache<IpAccessList, CompiledIpAccessList> _compiledAcls =
+      CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(this::compileAcl));
+  private final @Nonnull LoadingCache<AclLineMatchExpr, CompiledAclLineMatchExpr> _compiledExprs =
+      CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(this::compileExpr));
+  private final @Nonnull LoadingCache<IpSpace, Predicate<Ip>> _compiledIpSpaces =
+      CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(this::compileIpSpace));
+
+  /**
+   * Create a compiler for the given named ACLs and IP spaces, usually those of a single {@link
+   * org.batfish.datamodel.Configuration}. The maps are not copied.
+   */
+  public AclCompiler(Map<String, IpAccessList> availableAcls, Map<String, IpSpace> namedIpSpaces) {
+    _availableAcls = availableAcls;
+    _namedIpSpaces = namedIpSpaces;
+  }
+
+  /** Compile the given {@link IpAccessList}. */
+  public @Nonnull CompiledIpAccessList compile(IpAccessList acl) {
+    return _compiledAcls.getUnchecked(acl);
+  }
+
+  /** Compile the given {@link AclLineMatchExpr}. */
+  public @Nonnull CompiledAclLineMatchExpr compile(AclLineMatchExpr expr) {
+    return _compiledExprs.getUnchecked(expr);
+  }
+
+  /**
+   * Compile the given {@link IpSpace} into a predicate testing whether it contains an {@link Ip}.
+   */
+  public @Nonnull Predicate<Ip> compile(IpSpace ipSpace) {
+    return _compiledIpSpaces.getUnchecked(ipSpace);
+  }
+
+  /** Filter the flow with the named ACL, which must be defined. */
+  private @Nonnull FilterResult filter(String aclName, Flow flow, @Nullable String srcInterface) {
+    return compile(_availableAcls.get(aclName)).filter(flow, srcInterface);
+  }
+
+  private @Nonnull CompiledIpAccessList compileAcl(IpAccessList acl) {
+    ImmutableList.Builder<CompiledIpAccessList.CompiledAclLine> lines = ImmutableList.builder();
+    for (AclLine line : acl.getLines()) {
+      lines.add(compileLine(line));
+    }
+    return new CompiledIpAccessList(acl.getName(), lines.build());
+  }
+
+  private @Nonnull CompiledIpAccessList.CompiledAclLine compileLine(AclLine line) {
+    return line.accept(
+        new GenericAclLineVisitor<CompiledIpAccessList.CompiledAclLine>() {
+          @Override
+          public CompiledIpAccessList.CompiledAclLine visitAclAclLine(AclAclLine aclAclLine) {
+            String aclName = aclAclLine.getAclName();
+            return (flow, srcInterface) -> {
+              IpAccessList referencedAcl =
+                  checkNotNull(
+                      _availableAcls.get(aclName),
+                      "Reference to undefined IpAccessList %s",
+                      aclName);
+              FilterResult result = compile(referencedAcl).filter(flow, srcInterface);
+              return result.getMatchLine() == null ? null : result.getAction();
+            };
+          }
+
+          @Override
+          public CompiledIpAccessList.CompiledAclLine visitExprAclLine(ExprAclLine exprAclLine) {
+            CompiledAclLineMatchExpr matchCondition = compileExpr(exprAclLine.getMatchCondition());
+            LineAction action = exprAclLine.getAction();
+            return (flow, srcInterface) ->
+                matchCondition.matches(flow, srcInterface) ? action : null;
+          }
+        });
+  }
+
+  private @Nonnull CompiledAclLineMatchExpr compileExpr(AclLineMatchExpr expr) {
+    return expr.accept(_exprCompiler);
+  }
+
+  private @Nonnull Predicate<Ip> compileIpSpace(IpSpace ipSpace) {
+    return ipSpace.accept(_ipSpaceCompiler);
+  }
+
+  private final GenericAclLineMatchExprVisitor<CompiledAclLineMatchExpr> _exprCompiler =
+      new GenericAclLineMatchExprVisitor<CompiledAclLineMatchExpr>() {
+        @Override
+        public CompiledAclLineMatchExpr visitAndMatchExpr(AndMatchExpr andMatchExpr) {
+          CompiledAclLineMatchExpr[] conjuncts = compileAll(andMatchExpr.getConjuncts());
+          return (flow, srcInterface) -> {
+            for (CompiledAclLineMatchExpr conjunct : conjuncts) {
+              if (!conjunct.matches(flow, srcInterface)) {
+                return false;
+              }
+            }
+            return true;
+          };
+        }
+
+        @Override
+        public CompiledAclLineMatchExpr visitDeniedByAcl(DeniedByAcl deniedByAcl) {
+          String aclName = deniedByAcl.getAclName();
+          return (flow, srcInterface) ->
+              filter(aclName, flow, srcInterface).getAction() == LineAction.DENY;
+        }
+
+        @Override
+        public CompiledAclLineMatchExpr visitFalseExpr(FalseExpr falseExpr) {
+          return (flow, srcInterface) -> false;
+        }
+
+        @Override
+        public CompiledAclLineMatchExpr visitMatchHeaderSpace(MatchHeaderSpace matchHeaderSpace) {
+          return compileHeaderSpace(matchHeaderSpace.getHeaderspace());
+        }
+
+        @Override
+        public CompiledAclLineMatchExpr visitMatchSrcInterface(
+            MatchSrcInterface matchSrcInterface) {
+          Set<String> srcInterfaces = matchSrcInterface.getSrcInterfaces();
+          return (flow, srcInterface) -> srcInterfaces.contains(srcInterface);
+        }
+
+        @Override
+        public CompiledAclLineMatchExpr visitNotMatchExpr(NotMatchExpr notMatchExpr) {
+          CompiledAclLineMatchExpr operand = compileExpr(notMatchExpr.getOperand());
+          return (flow, srcInterface) -> !operand.matches(flow, srcInterface);
+        }
+
+        @Override
+        public CompiledAclLineMatchExpr visitOriginatingFromDevice(
+            OriginatingFromDevice originatingFromDevice) {
+          return (flow, srcInterface) -> srcInterface == null;
+        }
+
+        @Override
+        public CompiledAclLineMatchExpr visitOrMatchExpr(OrMatchExpr orMatchExpr) {
+          CompiledAclLineMatchExpr[] disjuncts = compileAll(orMatchExpr.getDisjuncts());
+          return (flow, srcInterface) -> {
+            for (CompiledAclLineMatchExpr disjunct : disjuncts) {
+              if (disjunct.matches(flow, srcInterface)) {
+                return true;
+              }
+            }
+            return false;
+          };
+        }
+
+        @Override
+        public CompiledAclLineMatchExpr visitPermittedByAcl(PermittedByAcl permittedByAcl) {
+          String aclName = permittedByAcl.getAclName();
+          return (flow, srcInterface) ->
+              filter(aclName, flow, srcInterface).getAction() == LineAction.PERMIT;
+        }
+
+        @Override
+        public CompiledAclLineMatchExpr visitTrueExpr(TrueExpr trueExpr) {
+          return (flow, srcInterface) -> true;
+        }
+      };
+
+  private @Nonnull CompiledAclLineMatchExpr[] compileAll(Collection<AclLineMatchExpr> exprs) {
+    return exprs.stream().map(this::compileExpr).toArray(CompiledAclLineMatchExpr[]::new);
+  }
+
+  /**
+   * Compile the given {@link HeaderSpace} into the conjunction of its non-trivial constraints,
+   * checked in the same order and with the same semantics as {@link HeaderSpace#matches}.
+   */
+  private @Nonnull CompiledAclLineMatchExpr compileHeaderSpace(HeaderSpace headerSpace) {
+    ImmutableList.Builder<Predicate<Flow>> checks = ImmutableList.builder();
+    if (!headerSpace.getDscps().isEmpty()) {
+      Set<Integer> dscps = ImmutableSet.copyOf(headerSpace.getDscps());
+      checks.add(flow -> dscps.contains(flow.getDscp()));
+    }
+    if (!headerSpace.getNotDscps().isEmpty()) {
+      Set<Integer> notDscps = ImmutableSet.copyOf(headerSpace.getNotDscps());
+      checks.add(flow -> !notDscps.contains(flow.getDscp()));
+    }
+    if (headerSpace.getDstIps() != null) {
+      Predicate<Ip> dstIps = compileIpSpace(headerSpace.getDstIps());
+      checks.add(flow -> dstIps.test(flow.getDstIp()));
+    }
+    if (headerSpace.getNotDstIps() != null) {
+      Predicate<Ip> notDstIps = compileIpSpace(headerSpace.getNotDstIps());
+      checks.add(flow -> !notDstIps.test(flow.getDstIp()));
+    }
+    if (!headerSpace.getDstPorts().isEmpty()) {
+      SubRange[] dstPorts = toArray(headerSpace.getDstPorts());
+      checks.add(flow -> anyIncludes(dstPorts, flow.getDstPort()));
+    }
+    if (!headerSpace.getNotDstPorts().isEmpty()) {
+      SubRange[] notDstPorts = toArray(headerSpace.getNotDstPorts());
+      checks.add(flow -> !anyIncludes(notDstPorts, flow.getDstPort()));
+    }
+    if (!headerSpace.getEcns().isEmpty()) {
+      Set<Integer> ecns = ImmutableSet.copyOf(headerSpace.getEcns());
+      checks.add(flow -> ecns.contains(flow.getEcn()));
+    }
+    if (!headerSpace.getNotEcns().isEmpty()) {
+      Set<Integer> notEcns = ImmutableSet.copyOf(headerSpace.getNotEcns());
+      checks.add(flow -> !notEcns.contains(flow.getEcn()));
+    }
+    if (!headerSpace.getFragmentOffsets().isEmpty()) {
+      SubRange[] fragmentOffsets = toArray(headerSpace.getFragmentOffsets());
+      checks.add(flow -> anyIncludes(fragmentOffsets, flow.getFragmentOffset()));
+    }
+    if (!headerSpace.getNotFragmentOffsets().isEmpty()) {
+      SubRange[] notFragmentOffsets = toArray(headerSpace.getNotFragmentOffsets());
+      checks.add(flow -> !anyIncludes(notFragmentOffsets, flow.getFragmentOffset()));
+    }
+    if (!headerSpace.getIcmpCodes().isEmpty()) {
+      SubRange[] icmpCodes = toArray(headerSpace.getIcmpCodes());
+      checks.add(flow -> flow.getIcmpCode() == null || anyIncludes(icmpCodes, flow.getIcmpCode()));
+    }
+    if (!headerSpace.getNotIcmpCodes().isEmpty()) {
+      // HeaderSpace#matches tests the fragment offset here; preserve its behavior exactly.
+      SubRange[] notIcmpCodes = toArray(headerSpace.getNotIcmpCodes());
+      checks.add(flow -> !anyIncludes(notIcmpCodes, flow.getFragmentOffset()));
+    }
+    if (!headerSpace.getIcmpTypes().isEmpty()) {
+      SubRange[] icmpTypes = toArray(headerSpace.getIcmpTypes());
+      checks.add(flow -> flow.getIcmpType() == null || anyIncludes(icmpTypes, flow.getIcmpType()));
+    }
+    if (!headerSpace.getNotIcmpTypes().isEmpty()) {
+      SubRange[] notIcmpTypes = toArray(headerSpace.getNotIcmpTypes());
+      checks.add(flow -> !anyIncludes(notIcmpTypes, flow.getFragmentOffset()));
+    }
+    if (!headerSpace.getIpProtocols().isEmpty()) {
+      Set<?> ipProtocols = Sets.immutableEnumSet(headerSpace.getIpProtocols());
+      checks.add(flow -> ipProtocols.contains(flow.getIpProtocol()));
+    }
+    if (!headerSpace.getNotIpProtocols().isEmpty()) {
+      Set<?> notIpProtocols = Sets.immutableEnumSet(headerSpace.getNotIpProtocols());
+      checks.add(flow -> !notIpProtocols.contains(flow.getIpProtocol()));
+    }
+    if (!headerSpace.getPacketLengths().isEmpty()) {
+      SubRange[] packetLengths = toArray(headerSpace.getPacketLengths());
+      checks.add(flow -> anyIncludes(packetLengths, flow.getPacketLength()));
+    }
+    if (!headerSpace.getNotPacketLengths().isEmpty()) {
+      SubRange[] notPacketLengths = toArray(headerSpace.getNotPacketLengths());
+      checks.add(flow -> !anyIncludes(notPacketLengths, flow.getPacketLength()));
+    }
+    if (headerSpace.getSrcOrDstIps() != null) {
+      Predicate<Ip> srcOrDstIps = compileIpSpace(headerSpace.getSrcOrDstIps());
+      checks.add(flow -> srcOrDstIps.test(flow.getSrcIp()) || srcOrDstIps.test(flow.getDstIp()));
+    }
+    if (!headerSpace.getSrcOrDstPorts().isEmpty()) {
+      SubRange[] srcOrDstPorts = toArray(headerSpace.getSrcOrDstPorts());
+      checks.add(
+          flow ->
+              anyIncludes(srcOrDstPorts, flow.getSrcPort())
+                  || anyIncludes(srcOrDstPorts, flow.getDstPort()));
+    }
+    if (headerSpace.getSrcIps() != null) {
+      Predicate<Ip> srcIps = compileIpSpace(headerSpace.getSrcIps());
+      checks.add(flow -> srcIps.test(flow.getSrcIp()));
+    }
+    if (headerSpace.getNotSrcIps() != null) {
+      Predicate<Ip> notSrcIps = compileIpSpace(headerSpace.getNotSrcIps());
+      checks.add(flow -> !notSrcIps.test(flow.getSrcIp()));
+    }
+    if (!headerSpace.getSrcPorts().isEmpty()) {
+      SubRange[] srcPorts = toArray(headerSpace.getSrcPorts());
+      checks.add(flow -> anyIncludes(srcPorts, flow.getSrcPort()));
+    }
+    if (!headerSpace.getNotSrcPorts().isEmpty()) {
+      SubRange[] notSrcPorts = toArray(headerSpace.getNotSrcPorts());
+      checks.add(flow -> !anyIncludes(notSrcPorts, flow.getSrcPort()));
+    }
+    if (!headerSpace.getTcpFlags().isEmpty()) {
+      TcpFlagsMatchConditions[] tcpFlags =
+          headerSpace.getTcpFlags().toArray(new TcpFlagsMatchConditions[0]);
+      checks.add(
+          flow -> {
+            for (TcpFlagsMatchConditions conditions : tcpFlags) {
+              if (conditions.match(flow)) {
+                return true;
+              }
+            }
+            return false;
+          });
+    }
+    List<Predicate<Flow>> checkList = checks.build();
+    switch (checkList.size()) {
+      case 0:
+        return (flow, srcInterface) -> true;
+      case 1:
+        Predicate<Flow> check = checkList.get(0);
+        return (flow, srcInterface) -> check.test(flow);
+      default:
+        return (flow, srcInterface) -> {
+          for (int i = 0; i < checkList.size(); i++) {
+            if (!checkList.get(i).test(flow)) {
+              return false;
+            }
+          }
+          return true;
+        };
+    }
+  }
+
+  private static @Nonnull SubRange[] toArray(Collection<SubRange> subRanges) {
+    return subRanges.toArray(new SubRange[0]);
+  }
+
+  /** Same as {@code subRanges.stream().anyMatch(sr -> sr.includes(value))}. */
+  private static boolean anyIncludes(SubRange[] subRanges, @Nullable Integer value) {
+    if (value == null) {
+      return false;
+    }
+    int v = value;
+    for (SubRange subRange : subRanges) {
+      if (subRange.includes(v)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private final GenericIpSpaceVisitor<Predicate<Ip>> _ipSpaceCompiler =
+      new GenericIpSpaceVisitor<Predicate<Ip>>() {
+        @Override
+        public Predicate<Ip> visitAclIpSpace(AclIpSpace aclIpSpace) {
+          List<AclIpSpaceLine> lines = aclIpSpace.getLines();
+          ImmutableList.Builder<Predicate<Ip>> lineSpacesBuilder = ImmutableList.builder();
+          boolean[] permits = new boolean[lines.size()];
+          for (int i = 0; i < lines.size(); i++) {
+            lineSpacesBuilder.add(compileIpSpace(lines.get(i).getIpSpace()));
+            permits[i] = lines.get(i).getAction() == LineAction.PERMIT;
+          }
+          List<Predicate<Ip>> lineSpaces = lineSpacesBuilder.build();
+          return ip -> {
+            for (int i = 0; i < lineSpaces.size(); i++) {
+              if (lineSpaces.get(i).test(ip)) {
+                return permits[i];
+              }
+            }
+            return false;
+          };
+        }
+
+        @Override
+        public Predicate<Ip> visitEmptyIpSpace(EmptyIpSpace emptyIpSpace) {
+          return ip -> false;
+        }
+
+        @Override
+        public Predicate<Ip> visitIpIpSpace(IpIpSpace ipIpSpace) {
+          Ip ip = ipIpSpace.getIp();
+          return ip::equals;
+        }
+
+        @Override
+        public Predicate<Ip> visitIpSpaceReference(IpSpaceReference ipSpaceReference) {
+          String name = ipSpaceReference.getName();
+          return ip -> {
+            IpSpace ipSpace = _namedIpSpaces.get(name);
+            return ipSpace != null && compile(ipSpace).test(ip);
+          };
+        }
+
+        @Override
+        public Predicate<Ip> visitIpWildcardIpSpace(IpWildcardIpSpace ipWildcardIpSpace) {
+          IpWildcard ipWildcard = ipWildcardIpSpace.getIpWildcard();
+          return ipWildcard::containsIp;
+        }
+
+        @Override
+        public Predicate<Ip> visitIpWildcardSetIpSpace(IpWildcardSetIpSpace ipWildcardSetIpSpace) {
+          IpWildcard[] blacklist = ipWildcardSetIpSpace.getBlacklist().toArray(new IpWildcard[0]);
+          IpWildcard[] whitelist = ipWildcardSetIpSpace.getWhitelist().toArray(new IpWildcard[0]);
+          return ip -> {
+            for (IpWildcard w : blacklist) {
+              if (w.containsIp(ip)) {
+                return false;
+              }
+            }
+            for (IpWildcard w : whitelist) {
+              if (w.containsIp(ip)) {
+                return true;
+              }
+            }
+            return false;
+          };
+        }
+
+        @Override
+        public Predicate<Ip> visitPrefixIpSpace(PrefixIpSpace prefixIpSpace) {
+          Prefix prefix = prefixIpSpace.getPrefix();
+          return prefix::containsIp;
+        }
+
+        @Override
+        public Predicate<Ip> visitUniverseIpSpace(UniverseIpSpace universeIpSpace) {
+          return ip -> true;
+        }
+      };
+}
@@ -0,0 +1,17 @@
+package org.batfish.datamodel.acl;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.Flow;
+
+/** An {@link AclLineMatchExpr} compiled by {@link AclCompiler} into a matcher for flows. */
+@FunctionalInterface
+public interface CompiledAclLineMatchExpr {
+
+  /**
+   * Returns whether the expression matches the given flow entering the device at {@code
+   * srcInterface}, or originating from the device if {@code srcInterface} is {@code null}. Gives
+   * the same result as {@link Evaluator}.
+   */
+  boolean matches(@Nonnull Flow flow, @Nullable String srcInterface);
+}
@@ -0,0 +1,63 @@
+package org.batfish.datamodel.acl;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.LineAction;
+
+/**
+ * An {@link IpAccessList} compiled by {@link AclCompiler}. Filtering a flow gives the same {@link
+ * FilterResult}, including the matching line, as {@link IpAccessList#filter}, without allocating.
+ */
+@ParametersAreNonnullByDefault
+public final class CompiledIpAccessList {
+
+  /** A compiled {@link org.batfish.datamodel.AclLine} */
+  @FunctionalInterface
+  interface CompiledAclLine {
+    /** Returns the action the line takes on the flow, or {@code null} if it does not match. */
+    @Nullable
+    LineAction action(Flow flow, @Nullable String srcInterface);
+  }
+
+  private static final FilterResult NO_MATCH = new FilterResult(null, LineAction.DENY);
+
+  private final @Nonnull String _name;
+  private final @Nonnull CompiledAclLine[] _lines;
+  private final @Nonnull FilterResult[] _permitResults;
+  private final @Nonnull FilterResult[] _denyResults;
+
+  CompiledIpAccessList(String name, List<CompiledAclLine> lines) {
+    _name = name;
+    _lines = lines.toArray(new CompiledAclLine[0]);
+    _permitResults = new FilterResult[_lines.length];
+    _denyResults = new FilterResult[_lines.length];
+    for (int i = 0; i < _lines.length; i++) {
+      _permitResults[i] = new FilterResult(i, LineAction.PERMIT);
+      _denyResults[i] = new FilterResult(i, LineAction.DENY);
+    }
+  }
+
+  /** Returns the name of the compiled {@link IpAccessList} */
+  public @Nonnull String getName() {
+    return _name;
+  }
+
+  /**
+   * Filters the given flow entering the device at {@code srcInterface}, or originating from the
+   * device if {@code srcInterface} is {@code null}.
+   */
+  public @Nonnull FilterResult filter(Flow flow, @Nullable String srcInterface) {
+    for (int i = 0; i < _lines.length; i++) {
+      LineAction action = _lines[i].action(flow, srcInterface);
+      if (action != null) {
+        return action == LineAction.PERMIT ? _permitResults[i] : _denyResults[i];
+      }
+    }
+    return NO_MATCH;
+  }
+}
@@ -149,6 +149,7 @@ public final class AnswerMetadataUtil {
     Set<String> emptyColumns = computeEmptyColumns(table);
     return Metrics.builder()
         .setAggregations(columnAggregationResults)
+        .setCounters(table.getCounters())
         .setEmptyColumns(emptyColumns)
         .setNumExcludedRows(numExcludedRows)
         .setNumRows(numRows)
@@ -36,6 +36,7 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   private static final String PROP_ERRORS = "errors";
   private static final String PROP_FILE_MAP = "fileMap";
   private static final String PROP_REFERENCED_STRUCTURES = "referencedStructures";
+  private static final String PROP_STRUCTURE_DEDUP_RATIO = "structureDedupRatio";
   private static final String PROP_UNDEFINED_REFERENCES = "undefinedReferences";
   private static final String PROP_VERSION = "version";
   private static final String PROP_WARNINGS = "warnings";
@@ -64,6 +65,9 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   // This is just to support legacy objects, before _convertStatus map was used
   @Nullable private Set<String> _failed;
 
+  // Average number of copies of each distinct structure across converted configurations
+  @Nullable private Double _structureDedupRatio;
+
   // filename -> structType -> structName -> usage -> lines
   @Nonnull
   private SortedMap<
@@ -75,7 +79,7 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
   @Nonnull private SortedMap<String, Warnings> _warnings;
 
   public ConvertConfigurationAnswerElement() {
-    this(null, null, null, null, null, null, null, null, null);
+    this(null, null, null, null, null, null, null, null, null, null);
   }
 
   @VisibleForTesting
@@ -99,7 +103,8 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
               undefinedReferences,
       @JsonProperty(PROP_VERSION) String version,
       @JsonProperty(PROP_WARNINGS) SortedMap<String, Warnings> warnings,
-      @JsonProperty(PROP_FILE_MAP) @Nullable Multimap<String, String> fileMap) {
+      @JsonProperty(PROP_FILE_MAP) @Nullable Multimap<String, String> fileMap,
+      @JsonProperty(PROP_STRUCTURE_DEDUP_RATIO) @Nullable Double structureDedupRatio) {
     _definedStructures = firstNonNull(definedStructures, new TreeMap<>());
     _errors = firstNonNull(errors, new TreeMap<>());
     _errorDetails = firstNonNull(errorDetails, new TreeMap<>());
@@ -107,6 +112,7 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
     _convertStatus = firstNonNull(convertStatus, new TreeMap<>());
 
     _referencedStructures = firstNonNull(referencedstructures, new TreeMap<>());
+    _structureDedupRatio = structureDedupRatio;
     _undefinedReferences = firstNonNull(undefinedReferences, new TreeMap<>());
     _version = firstNonNull(version, BatfishVersion.getVersionStatic());
     _warnings = firstNonNull(warnings, new TreeMap<>());
@@ -166,6 +172,17 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
     return _referencedStructures;
   }
 
+  /**
+   * Returns the average number of copies of each distinct structure (ACL, IP space, route filter,
+   * community match expression, or routing policy body) across the converted configurations, or
+   * {@code null} if the structures were not deduplicated.
+   */
+  @JsonProperty(PROP_STRUCTURE_DEDUP_RATIO)
+  @Nullable
+  public Double getStructureDedupRatio() {
+    return _structureDedupRatio;
+  }
+
   @JsonProperty(PROP_UNDEFINED_REFERENCES)
   @Nonnull
   public SortedMap<
@@ -211,6 +228,10 @@ public class ConvertConfigurationAnswerElement extends InitStepAnswerElement
     _failed = failed;
   }
 
+  public void setStructureDedupRatio(@Nullable Double structureDedupRatio) {
+    _structureDedupRatio = structureDedupRatio;
+  }
+
   public void setUndefinedReferences(
       @Nonnull
           SortedMap<
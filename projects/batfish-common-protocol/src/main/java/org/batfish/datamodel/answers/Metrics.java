@@ -4,6 +4,8 @@ import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.MoreObjects.toStringHelper;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -19,6 +21,8 @@ public class Metrics {
   public static class Builder {
     private Map<String, Map<Aggregation, Object>> _aggregations;
 
+    private Map<String, Long> _counters;
+
     private Set<String> _emptyColumns;
 
     private int _numExcludedRows;
@@ -27,11 +31,12 @@ public class Metrics {
 
     private Builder() {
       _aggregations = ImmutableMap.of();
+      _counters = ImmutableMap.of();
       _emptyColumns = ImmutableSet.of();
     }
 
     public @Nonnull Metrics build() {
-      return new Metrics(_aggregations, _emptyColumns, _numExcludedRows, _numRows);
+      return new Metrics(_aggregations, _counters, _emptyColumns, _numExcludedRows, _numRows);
     }
 
     public @Nonnull Builder setAggregations(
@@ -40,6 +45,11 @@ public class Metrics {
       return this;
     }
 
+    public @Nonnull Builder setCounters(@Nonnull Map<String, Long> counters) {
+      _counters = ImmutableMap.copyOf(counters);
+      return this;
+    }
+
     public @Nonnull Builder setEmptyColumns(@Nonnull Set<String> emptyColumns) {
       _emptyColumns = ImmutableSet.copyOf(emptyColumns);
       return this;
@@ -63,11 +73,13 @@ public class Metrics {
   @JsonCreator
   private static @Nonnull Metrics create(
       @JsonProperty(BfConsts.PROP_AGGREGATIONS) Map<String, Map<Aggregation, Object>> aggregations,
+      @JsonProperty(BfConsts.PROP_COUNTERS) Map<String, Long> counters,
       @JsonProperty(BfConsts.PROP_EMPTY_COLUMNS) Set<String> emptyColumns,
       @JsonProperty(BfConsts.PROP_NUM_EXCLUDED_ROWS) int numExcludedRows,
       @JsonProperty(BfConsts.PROP_NUM_ROWS) int numRows) {
     return new Metrics(
         firstNonNull(aggregations, ImmutableMap.of()),
+        firstNonNull(counters, ImmutableMap.of()),
         firstNonNull(emptyColumns, ImmutableSet.of()),
         numExcludedRows,
         numRows);
@@ -75,6 +87,8 @@ public class Metrics {
 
   private final Map<String, Map<Aggregation, Object>> _aggregations;
 
+  private final Map<String, Long> _counters;
+
   private final Set<String> _emptyColumns;
 
   private final int _numExcludedRows;
@@ -83,10 +97,12 @@ public class Metrics {
 
   private Metrics(
       @Nonnull Map<String, Map<Aggregation, Object>> aggregations,
+      @Nonnull Map<String, Long> counters,
       @Nonnull Set<String> emptyColumns,
       int numExcludedRows,
       int numRows) {
     _aggregations = aggregations;
+    _counters = counters;
     _emptyColumns = emptyColumns;
     _numExcludedRows = numExcludedRows;
     _numRows = numRows;
@@ -102,6 +118,7 @@ public class Metrics {
     }
     Metrics rhs = (Metrics) obj;
     return _aggregations.equals(rhs._aggregations)
+        && _counters.equals(rhs._counters)
         && _emptyColumns.equals(rhs._emptyColumns)
         && _numExcludedRows == rhs._numExcludedRows
         && _numRows == rhs._numRows;
@@ -112,6 +129,16 @@ public class Metrics {
     return _aggregations;
   }
 
+  /**
+   * Performance counters reported by the answerer, e.g. memo hits and misses. These vary from run
+   * to run, so they are kept out of the answer itself.
+   */
+  @JsonProperty(BfConsts.PROP_COUNTERS)
+  @JsonInclude(Include.NON_EMPTY)
+  public @Nonnull Map<String, Long> getCounters() {
+    return _counters;
+  }
+
   @JsonProperty(BfConsts.PROP_EMPTY_COLUMNS)
   public Set<String> getEmptyColumns() {
     return _emptyColumns;
@@ -129,7 +156,7 @@ public class Metrics {
 
   @Override
   public int hashCode() {
-    return Objects.hash(_aggregations, _emptyColumns, _numExcludedRows, _numRows);
+    return Objects.hash(_aggregations, _counters, _emptyColumns, _numExcludedRows, _numRows);
   }
 
   @Override
@@ -137,6 +164,7 @@ public class Metrics {
     return toStringHelper(getClass())
         .omitNullValues()
         .add(BfConsts.PROP_AGGREGATIONS, _aggregations)
+        .add(BfConsts.PROP_COUNTERS, _counters)
         .add(BfConsts.PROP_EMPTY_COLUMNS, _emptyColumns)
         .add(BfConsts.PROP_NUM_EXCLUDED_ROWS, _numExcludedRows)
         .add(BfConsts.PROP_NUM_ROWS, _numRows)
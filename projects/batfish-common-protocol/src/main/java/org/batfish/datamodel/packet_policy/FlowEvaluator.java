@@ -11,7 +11,7 @@ import org.batfish.datamodel.FibNullRoute;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.IpAccessList;
 import org.batfish.datamodel.IpSpace;
-import org.batfish.datamodel.acl.Evaluator;
+import org.batfish.datamodel.acl.AclCompiler;
 import org.batfish.datamodel.transformation.TransformationEvaluator;
 import org.batfish.datamodel.visitors.FibActionVisitor;
 
@@ -23,8 +23,7 @@ import org.batfish.datamodel.visitors.FibActionVisitor;
  */
 public final class FlowEvaluator {
 
-  private final @Nonnull Map<String, IpAccessList> _availableAcls;
-  private final @Nonnull Map<String, IpSpace> _namedIpSpaces;
+  private final @Nonnull AclCompiler _aclCompiler;
 
   // Start state
   @Nonnull private final String _srcInterface;
@@ -44,8 +43,7 @@ public final class FlowEvaluator {
 
     @Override
     public Boolean visitPacketMatchExpr(PacketMatchExpr expr) {
-      return Evaluator.matches(
-          expr.getExpr(), _currentFlow.build(), _srcInterface, _availableAcls, _namedIpSpaces);
+      return _aclCompiler.compile(expr.getExpr()).matches(_currentFlow.build(), _srcInterface);
     }
 
     @Override
@@ -125,11 +123,7 @@ public final class FlowEvaluator {
     public Action visitApplyTransformation(ApplyTransformation transformation) {
       _currentFlow =
           TransformationEvaluator.eval(
-              transformation.getTransformation(),
-              _currentFlow.build(),
-              _srcInterface,
-              _availableAcls,
-              _namedIpSpaces)
+              transformation.getTransformation(), _currentFlow.build(), _srcInterface, _aclCompiler)
               .getOutputFlow()
               .toBuilder();
       return null;
@@ -140,14 +134,12 @@ public final class FlowEvaluator {
       Flow originalFlow,
       String srcInterface,
       String srcInterfaceVrf,
-      Map<String, IpAccessList> availableAcls,
-      Map<String, IpSpace> namedIpSpaces,
+      AclCompiler aclCompiler,
       Map<String, Fib> fibs) {
     _currentFlow = originalFlow.toBuilder();
     _srcInterface = srcInterface;
     _srcInterfaceVrf = srcInterfaceVrf;
-    _availableAcls = availableAcls;
-    _namedIpSpaces = namedIpSpaces;
+    _aclCompiler = aclCompiler;
     _fibs = fibs;
   }
 
@@ -174,8 +166,27 @@ public final class FlowEvaluator {
       Map<String, IpAccessList> availableAcls,
       Map<String, IpSpace> namedIpSpaces,
       Map<String, Fib> fibs) {
-    return new FlowEvaluator(f, srcInterface, srcInterfaceVrf, availableAcls, namedIpSpaces, fibs)
-        .evaluate(policy);
+    return evaluate(
+        f,
+        srcInterface,
+        srcInterfaceVrf,
+        policy,
+        new AclCompiler(availableAcls, namedIpSpaces),
+        fibs);
+  }
+
+  /**
+   * Same as {@link #evaluate(Flow, String, String, PacketPolicy, Map, Map, Map)}, but matches ACL
+   * expressions with the given {@link AclCompiler} instead of compiling them for this flow only.
+   */
+  public static FlowResult evaluate(
+      Flow f,
+      String srcInterface,
+      String srcInterfaceVrf,
+      PacketPolicy policy,
+      AclCompiler aclCompiler,
+      Map<String, Fib> fibs) {
+    return new FlowEvaluator(f, srcInterface, srcInterfaceVrf, aclCompiler, fibs).evaluate(policy);
   }
 
   /** Combination of final (possibly transformed) {@link Flow} and the action taken */
@@ -2,7 +2,6 @@ package org.batfish.datamodel.routing_policy.as_path;
 
 import com.google.common.collect.Range;
 import java.util.List;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.AsSet;
@@ -34,8 +33,7 @@ public final class AsPathMatchExprEvaluator implements AsPathMatchExprVisitor<Bo
 
   @Override
   public Boolean visitAsPathMatchRegex(AsPathMatchRegex asPathMatchRegex, AsPath arg) {
-    // TODO: optimize
-    return Pattern.compile(asPathMatchRegex.getRegex()).matcher(arg.getAsPathString()).find();
+    return AsPathRegexMatcher.of(asPathMatchRegex.getRegex()).matches(arg);
   }
 
   @Override
@@ -0,0 +1,102 @@
+package org.batfish.datamodel.routing_policy.as_path;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.util.PatternProvider;
+import org.batfish.datamodel.AsPath;
+
+/**
+ * Cache-based matcher of an AS-path regex, i.e., a Java regex that is searched for in the string
+ * rendering of an {@link AsPath}.
+ *
+ * <p>Matchers are shared by all routing policies that use the same regex. Each matcher remembers
+ * its result for recently matched AS paths, so that evaluating a policy against many routes with
+ * the same AS path neither renders the path nor runs the regex again.
+ */
+@ParametersAreNonnullByDefault
+public final class AsPathRegexMatcher {
+
+  /**
+   * Returns the matcher for the given regex, which is searched for in {@link
+   * AsPath#getAsPathString()}.
+   */
+  public static @Nonnull AsPathRegexMatcher of(String regex) {
+    return CACHE.getUnchecked(new Key(regex, false));
+  }
+
+  /**
+   * Returns the matcher for the given regex, which is searched for in {@link
+   * AsPath#getAsPathString()} preceded by a space (unless the AS path is empty).
+   */
+  public static @Nonnull AsPathRegexMatcher withLeadingSpace(String regex) {
+    return CACHE.getUnchecked(new Key(regex, true));
+  }
+
+  /** Returns {@code true} iff the regex is found in the rendering of the given AS path. */
+  public boolean matches(AsPath asPath) {
+    Boolean result = _results.getIfPresent(asPath);
+    if (result == null) {
+      result = _pattern.matcher(render(asPath)).find();
+      _results.put(asPath, result);
+    }
+    return result;
+  }
+
+  private @Nonnull String render(AsPath asPath) {
+    return _leadingSpace && asPath.size() > 0
+        ? " " + asPath.getAsPathString()
+        : asPath.getAsPathString();
+  }
+
+  private AsPathRegexMatcher(Key key) {
+    _pattern = PatternProvider.fromString(key._regex);
+    _leadingSpace = key._leadingSpace;
+    // AS paths are interned, so identity (weak key) lookups hit for the same path.
+    _results = CacheBuilder.newBuilder().weakKeys().maximumSize(1 << 12).build();
+  }
+
+  private final @Nonnull Pattern _pattern;
+  private final boolean _leadingSpace;
+  private final @Nonnull Cache<AsPath, Boolean> _results;
+
+  private static final class Key {
+    private final @Nonnull String _regex;
+    private final boolean _leadingSpace;
+
+    private Key(String regex, boolean leadingSpace) {
+      _regex = regex;
+      _leadingSpace = leadingSpace;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object obj) {
+      if (this == obj) {
+        return true;
+      } else if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return _leadingSpace == other._leadingSpace && _regex.equals(other._regex);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(_regex, _leadingSpace);
+    }
+  }
+
+  // Soft values: let it be garbage collected in times of pressure.
+  // Maximum size 2^16: Just some upper bound on cache size, like PatternProvider.
+  private static final LoadingCache<Key, AsPathRegexMatcher> CACHE =
+      CacheBuilder.newBuilder()
+          .softValues()
+          .maximumSize(1 << 16)
+          .build(CacheLoader.from(AsPathRegexMatcher::new));
+}
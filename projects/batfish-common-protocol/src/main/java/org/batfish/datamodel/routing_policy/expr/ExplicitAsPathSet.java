@@ -7,13 +7,13 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.regex.Pattern;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.BgpRoute;
 import org.batfish.datamodel.routing_policy.Environment;
+import org.batfish.datamodel.routing_policy.as_path.AsPathRegexMatcher;
 
 /**
  * An {@link AsPathSetExpr} that matches an {@link AsPath} if <em>any</em> of the nested {@link
@@ -83,10 +83,12 @@ public final class ExplicitAsPathSet extends AsPathSetExpr {
     }
     // TODO: need to validate regexes against complex AS-Paths that contain sets. For now, regexes
     // will not match against AsPaths for which set components have non-trivial filters.
-    String asPathStr = asPath.size() == 0 ? "" : " " + asPath.getAsPathString();
-    return _elems.stream()
-        .map(AsPathSetElem::regex)
-        .anyMatch(r -> Pattern.compile(r).matcher(asPathStr).find());
+    for (AsPathSetElem elem : _elems) {
+      if (AsPathRegexMatcher.withLeadingSpace(elem.regex()).matches(asPath)) {
+        return true;
+      }
+    }
+    return false;
   }
 
   public void setElems(List<AsPathSetElem> elems) {
@@ -0,0 +1,121 @@
+package org.batfish.datamodel.table;
+
+import static com.google.common.collect.Comparators.lexicographical;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsFirst;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.datamodel.answers.Issue;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.answers.Schema.Type;
+import org.batfish.datamodel.flow.Hop;
+import org.batfish.datamodel.flow.Step;
+import org.batfish.datamodel.flow.Trace;
+import org.batfish.datamodel.pojo.Node;
+
+/** Comparators used to sort the {@link Row rows} of a table answer by column values. */
+@ParametersAreNonnullByDefault
+public final class RowComparators {
+
+  private static final Comparator<Node> COMPARATOR_NODE = comparing(Node::getName);
+
+  private static final Comparator<Trace> COMPARATOR_TRACE =
+      comparing(Trace::getDisposition)
+          .thenComparing(
+              Trace::getHops,
+              lexicographical(
+                  comparing(Hop::getNode, comparing(Node::getName))
+                      .thenComparing(
+                          Hop::getSteps,
+                          lexicographical(
+                              Comparator.<Step<?>, String>comparing(
+                                      step -> step.getDetail().toString())
+                                  .thenComparing(Step::getAction)))));
+
+  /**
+   * Returns a comparator that orders rows by the columns in {@code sortOrder}, in turn.
+   *
+   * @param columnMap the metadata of the table's columns, by name
+   * @param sortOrder a non-empty list of columns to sort by
+   */
+  public static @Nonnull Comparator<Row> rowComparator(
+      Map<String, ColumnMetadata> columnMap, List<ColumnSortOption> sortOrder) {
+    ColumnSortOption firstColumnSortOption = sortOrder.get(0);
+    ColumnMetadata firstMetadata = columnMap.get(firstColumnSortOption.getColumn());
+    Comparator<Row> comparator = columnComparator(firstMetadata);
+    if (firstColumnSortOption.getReversed()) {
+      comparator = comparator.reversed();
+    }
+    for (int i = 1; i < sortOrder.size(); i++) {
+      ColumnSortOption columnSortOption = sortOrder.get(i);
+      Comparator<Row> nextComparator =
+          columnComparator(columnMap.get(columnSortOption.getColumn()));
+      if (columnSortOption.getReversed()) {
+        nextComparator = nextComparator.reversed();
+      }
+      comparator = comparator.thenComparing(nextComparator);
+    }
+    return comparator;
+  }
+
+  /** Returns a comparator that orders rows by the value of the given column, nulls first. */
+  public static @Nonnull Comparator<Row> columnComparator(ColumnMetadata columnMetadata) {
+    Schema schema = columnMetadata.getSchema();
+    return comparing((Row r) -> r.get(columnMetadata.getName(), schema), valueComparator(schema));
+  }
+
+  /**
+   * Returns a comparator of the values returned by {@link Row#get(String, Schema)} for the given
+   * schema, nulls first.
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public static @Nonnull Comparator<Object> valueComparator(Schema schema) {
+    Comparator schemaComparator = schemaComparator(schema);
+    return nullsFirst(schemaComparator);
+  }
+
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static @Nonnull Comparator<?> schemaComparator(Schema schema) {
+    if (schema.equals(Schema.BOOLEAN)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.DOUBLE)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.FLOW)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.INTEGER)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.INTERFACE)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.IP)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.ISSUE)) {
+      return comparing(Issue::getSeverity);
+    } else if (schema.getType() == Type.LIST) {
+      Comparator schemaComparator = schemaComparator(schema.getInnerSchema());
+      return lexicographical(nullsFirst(schemaComparator));
+    } else if (schema.equals(Schema.LONG)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.NODE)) {
+      return COMPARATOR_NODE;
+    } else if (schema.equals(Schema.PREFIX)) {
+      return naturalOrder();
+    } else if (schema.getType() == Type.SET) {
+      Comparator schemaComparator = schemaComparator(schema.getInnerSchema());
+      return lexicographical(nullsFirst(schemaComparator));
+    } else if (schema.equals(Schema.STRING)) {
+      return naturalOrder();
+    } else if (schema.equals(Schema.TRACE)) {
+      return COMPARATOR_TRACE;
+    } else {
+      return comparing(Object::toString);
+    }
+  }
+
+  private RowComparators() {}
+}
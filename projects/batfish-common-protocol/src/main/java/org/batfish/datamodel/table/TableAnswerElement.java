@@ -6,10 +6,12 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import javax.annotation.Nonnull;
 import org.batfish.common.BatfishException;
@@ -28,6 +30,7 @@ public final class TableAnswerElement extends AnswerElement {
 
   private List<ExcludedRows> _excludedRows;
   private Set<String> _columnNames;
+  private Map<String, Long> _counters;
   private Rows _rows;
   private List<Row> _rowsList;
   private TableMetadata _tableMetadata;
@@ -42,6 +45,7 @@ public final class TableAnswerElement extends AnswerElement {
     _rows = new Rows();
     _rowsList = new LinkedList<>();
     _excludedRows = new LinkedList<>();
+    _counters = ImmutableMap.of();
   }
 
   /**
@@ -134,6 +138,15 @@ public final class TableAnswerElement extends AnswerElement {
     }
   }
 
+  /**
+   * Performance counters of the answerer that produced this table. Not part of the answer; they are
+   * reported in the answer's {@link org.batfish.datamodel.answers.Metrics}.
+   */
+  @JsonIgnore
+  public @Nonnull Map<String, Long> getCounters() {
+    return _counters;
+  }
+
   @JsonProperty(PROP_EXCLUDED_ROWS)
   public List<ExcludedRows> getExcludedRows() {
     return _excludedRows;
@@ -176,6 +189,10 @@ public final class TableAnswerElement extends AnswerElement {
     setSummary(computeSummary(question.getAssertion()));
   }
 
+  public void setCounters(@Nonnull Map<String, Long> counters) {
+    _counters = ImmutableMap.copyOf(counters);
+  }
+
   @JsonProperty(PROP_EXCLUDED_ROWS)
   private void setExcludedRows(List<ExcludedRows> excludedRows) {
     _excludedRows = excludedRows == null ? new LinkedList<>() : excludedRows;
@@ -7,7 +7,10 @@ import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
@@ -31,6 +34,37 @@ public final class TableView extends AnswerElement {
         options, ImmutableList.copyOf(firstNonNull(rows, ImmutableList.of())), tableMetadata);
   }
 
+  /**
+   * Returns the metadata of a view of a table with metadata {@code rawMetadata}, projected to the
+   * columns selected by {@code options}.
+   */
+  public static @Nonnull TableMetadata viewMetadata(
+      TableMetadata rawMetadata, AnswerRowsOptions options) {
+    if (options.getColumns().isEmpty()) {
+      return rawMetadata;
+    }
+    Map<String, ColumnMetadata> rawColumnMap = rawMetadata.toColumnMap();
+    // TableMetadata requires at least one key. For simplicity, make them all keys.
+    Map<String, ColumnMetadata> columnMap =
+        options.getColumns().stream()
+            .collect(
+                ImmutableMap.toImmutableMap(
+                    Function.identity(),
+                    col -> {
+                      ColumnMetadata colMetadata = rawColumnMap.get(col);
+                      return new ColumnMetadata(
+                          colMetadata.getName(),
+                          colMetadata.getSchema(),
+                          colMetadata.getDescription(),
+                          true, // isKey
+                          false // isValue
+                          );
+                    }));
+    List<ColumnMetadata> columnMetadata =
+        columnMap.values().stream().collect(ImmutableList.toImmutableList());
+    return new TableMetadata(columnMetadata, rawMetadata.getTextDesc());
+  }
+
   private final AnswerRowsOptions _options;
 
   private final List<TableViewRow> _rows;
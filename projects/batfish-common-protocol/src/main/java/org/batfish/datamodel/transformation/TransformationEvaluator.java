@@ -5,7 +5,6 @@ import static org.batfish.datamodel.FlowDiff.flowDiff;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedSet;
 import java.util.EnumMap;
 import java.util.List;
@@ -17,7 +16,7 @@ import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IpAccessList;
 import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.Prefix;
-import org.batfish.datamodel.acl.Evaluator;
+import org.batfish.datamodel.acl.AclCompiler;
 import org.batfish.datamodel.flow.Step;
 import org.batfish.datamodel.flow.StepAction;
 import org.batfish.datamodel.flow.TransformationStep.TransformationStepDetail;
@@ -27,12 +26,9 @@ import org.batfish.datamodel.flow.TransformationStep.TransformationType;
 public class TransformationEvaluator {
   private final Flow.Builder _flowBuilder;
   @Nullable private final String _srcInterface;
-  private final Map<String, IpAccessList> _namedAcls;
-  private final Map<String, IpSpace> _namedIpSpaces;
+  private final AclCompiler _aclCompiler;
   private final ImmutableList.Builder<Step<?>> _traceSteps;
 
-  // the ACL evaluator has to be re-initialized every time we transform the flow
-  private Evaluator _aclEvaluator;
   private Flow _currentFlow;
 
   /**
@@ -193,17 +189,12 @@ public class TransformationEvaluator {
   }
 
   private TransformationEvaluator(
-      Flow flow,
-      @Nullable String srcInterface,
-      Map<String, IpAccessList> namedAcls,
-      Map<String, IpSpace> namedIpSpaces) {
+      Flow flow, @Nullable String srcInterface, AclCompiler aclCompiler) {
     _currentFlow = flow;
     _flowBuilder = flow.toBuilder();
     _srcInterface = srcInterface;
-    _namedAcls = ImmutableMap.copyOf(namedAcls);
-    _namedIpSpaces = ImmutableMap.copyOf(namedIpSpaces);
+    _aclCompiler = aclCompiler;
     _traceSteps = ImmutableList.builder();
-    initializeAclEvaluator();
   }
 
   /** The result of evaluating a {@link Transformation}. */
@@ -211,7 +202,7 @@ public class TransformationEvaluator {
     private final Flow _outputFlow;
     private final List<Step<?>> _traceSteps;
 
-    TransformationResult(Flow outputFlow, List<Step<?>> traceSteps) {
+    public TransformationResult(Flow outputFlow, List<Step<?>> traceSteps) {
       _outputFlow = outputFlow;
       _traceSteps = ImmutableList.copyOf(traceSteps);
     }
@@ -231,20 +222,29 @@ public class TransformationEvaluator {
       @Nullable String srcInterface,
       Map<String, IpAccessList> namedAcls,
       Map<String, IpSpace> namedIpSpaces) {
+    return eval(transformation, flow, srcInterface, new AclCompiler(namedAcls, namedIpSpaces));
+  }
+
+  /**
+   * Evaluates the transformation, matching its guards with the given {@link AclCompiler}. Callers
+   * that evaluate many flows should share a compiler, e.g. {@link
+   * org.batfish.datamodel.Configuration#getAclCompiler()}.
+   */
+  public static TransformationResult eval(
+      Transformation transformation,
+      Flow flow,
+      @Nullable String srcInterface,
+      AclCompiler aclCompiler) {
     TransformationEvaluator evaluator =
-        new TransformationEvaluator(flow, srcInterface, namedAcls, namedIpSpaces);
+        new TransformationEvaluator(flow, srcInterface, aclCompiler);
     evaluator.eval(transformation);
     return new TransformationResult(evaluator._currentFlow, evaluator._traceSteps.build());
   }
 
-  private void initializeAclEvaluator() {
-    _aclEvaluator = new Evaluator(_currentFlow, _srcInterface, _namedAcls, _namedIpSpaces);
-  }
-
   private void eval(Transformation transformation) {
     Transformation node = transformation;
     while (node != null) {
-      if (_aclEvaluator.visit(node.getGuard())) {
+      if (_aclCompiler.compile(node.getGuard()).matches(_currentFlow, _srcInterface)) {
         StepEvaluator stepEvaluator = new StepEvaluator();
         boolean transformed =
             node.getTransformationSteps().stream()
@@ -256,7 +256,6 @@ public class TransformationEvaluator {
 
         if (transformed) {
           _currentFlow = _flowBuilder.build();
-          initializeAclEvaluator();
         }
 
         node = node.getAndThen();
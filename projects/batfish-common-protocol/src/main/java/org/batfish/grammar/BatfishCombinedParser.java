@@ -79,6 +79,7 @@ public abstract class BatfishCombinedParser<P extends BatfishParser, L extends B
     }
     _parser.initErrorListener(this);
     _parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+    ParserDfaCache.register(_parser);
   }
 
   public BatfishCombinedParser(
@@ -0,0 +1,670 @@
+package org.batfish.grammar;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.RuntimeMetaData;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNConfig;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.ArrayPredictionContext;
+import org.antlr.v4.runtime.atn.PredictionContext;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.atn.SemanticContext;
+import org.antlr.v4.runtime.atn.SingletonPredictionContext;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+import org.antlr.v4.runtime.dfa.DFAState.PredPrediction;
+
+/**
+ * Persistence for the prediction DFAs of Batfish parsers.
+ *
+ * <p>ANTLR-generated parsers already share one DFA cache per grammar across all parser instances,
+ * jobs, and threads of a JVM. That cache starts empty in every new worker, though, and is only
+ * filled in by running full ATN simulation on the first configurations parsed with each grammar,
+ * which dominates their parse time. This class lets a worker write the warmed DFAs of every grammar
+ * it has used, and lets a fresh worker preload them before parsing.
+ *
+ * <p>Persisted DFAs are keyed by parser class and fingerprinted by the grammar's serialized ATN and
+ * the ANTLR runtime version, so DFAs from a different grammar version are ignored rather than
+ * corrupting prediction. Only the parser DFAs are persisted; lexer DFAs warm up quickly.
+ */
+@ThreadSafe
+public final class ParserDfaCache {
+
+  private static final int FORMAT_VERSION = 1;
+
+  /** A grammar whose parser has been instantiated in this JVM. */
+  private static final class Grammar {
+    private final @Nonnull ATN _atn;
+    private final @Nonnull PredictionContextCache _contextCache;
+    private final @Nonnull DFA[] _decisionToDfa;
+    private final @Nonnull String _fingerprint;
+
+    private Grammar(
+        ATN atn, PredictionContextCache contextCache, DFA[] decisionToDfa, String fingerprint) {
+      _atn = atn;
+      _contextCache = contextCache;
+      _decisionToDfa = decisionToDfa;
+      _fingerprint = fingerprint;
+    }
+  }
+
+  /** The serialized DFAs of a grammar. */
+  private static final class Persisted {
+    private final @Nonnull String _fingerprint;
+    private final @Nonnull byte[] _dfas;
+
+    private Persisted(String fingerprint, byte[] dfas) {
+      _fingerprint = fingerprint;
+      _dfas = dfas;
+    }
+  }
+
+  /** Grammars registered in this JVM, keyed by parser class name. */
+  @GuardedBy("ParserDfaCache.class")
+  private static final Map<String, Grammar> GRAMMARS = new HashMap<>();
+
+  /** Persisted DFAs not yet installed in this JVM, keyed by parser class name. */
+  @GuardedBy("ParserDfaCache.class")
+  private static final Map<String, Persisted> PENDING = new HashMap<>();
+
+  /** Total number of DFA states at the last {@link #preload} or {@link #write}. */
+  @GuardedBy("ParserDfaCache.class")
+  private static int _persistedStates;
+
+  @GuardedBy("ParserDfaCache.class")
+  private static boolean _preloaded;
+
+  private ParserDfaCache() {}
+
+  /**
+   * Registers the grammar of the given parser, installing its preloaded DFAs if any. Called for
+   * every parser constructed by {@link BatfishCombinedParser}.
+   */
+  static synchronized void register(Parser parser) {
+    String name = parser.getClass().getName();
+    Grammar grammar = GRAMMARS.get(name);
+    if (grammar == null) {
+      ATN atn = parser.getATN();
+      grammar =
+          new Grammar(
+              atn,
+              parser.getInterpreter().getSharedContextCache(),
+              parser.getInterpreter().decisionToDFA,
+              fingerprint(parser));
+      GRAMMARS.put(name, grammar);
+    }
+    Persisted persisted = PENDING.remove(name);
+    if (persisted != null) {
+      install(grammar, persisted);
+    }
+  }
+
+  /** Returns {@code true} iff persisted DFAs have already been read in this JVM. */
+  public static synchronized boolean isPreloaded() {
+    return _preloaded;
+  }
+
+  /**
+   * Reads DFAs written by {@link #write} and installs them for all grammars whose DFAs are still
+   * empty, now or when their parser is first constructed.
+   *
+   * @throws IOException if the input is not a readable DFA cache
+   */
+  public static synchronized void preload(InputStream input) throws IOException {
+    DataInputStream in = new DataInputStream(new LZ4FrameInputStream(input));
+    if (in.readInt() != FORMAT_VERSION) {
+      throw new IOException("Unsupported parser DFA cache format");
+    }
+    int numGrammars = in.readInt();
+    for (int i = 0; i < numGrammars; i++) {
+      String name = in.readUTF();
+      String fingerprint = in.readUTF();
+      byte[] dfas = new byte[in.readInt()];
+      in.readFully(dfas);
+      Persisted persisted = new Persisted(fingerprint, dfas);
+      Grammar grammar = GRAMMARS.get(name);
+      if (grammar == null) {
+        PENDING.put(name, persisted);
+      } else {
+        install(grammar, persisted);
+      }
+    }
+    _preloaded = true;
+    _persistedStates = countStates();
+  }
+
+  /**
+   * Returns {@code true} iff the DFAs of this JVM have grown since they were last preloaded or
+   * written.
+   */
+  public static synchronized boolean hasNewStates() {
+    return countStates() > _persistedStates;
+  }
+
+  /**
+   * Writes the DFAs of all grammars used in this JVM, as well as preloaded DFAs of grammars not yet
+   * used, to the given output, and closes it.
+   */
+  public static synchronized void write(OutputStream output) throws IOException {
+    Map<String, Persisted> toWrite = new TreeMap<>(PENDING);
+    for (Entry<String, Grammar> entry : GRAMMARS.entrySet()) {
+      Grammar grammar = entry.getValue();
+      ByteArrayOutputStream dfas = new ByteArrayOutputStream();
+      writeDfas(grammar._decisionToDfa, new DataOutputStream(dfas));
+      toWrite.put(entry.getKey(), new Persisted(grammar._fingerprint, dfas.toByteArray()));
+    }
+    DataOutputStream out = new DataOutputStream(new LZ4FrameOutputStream(output));
+    out.writeInt(FORMAT_VERSION);
+    out.writeInt(toWrite.size());
+    for (Entry<String, Persisted> entry : toWrite.entrySet()) {
+      out.writeUTF(entry.getKey());
+      out.writeUTF(entry.getValue()._fingerprint);
+      out.writeInt(entry.getValue()._dfas.length);
+      out.write(entry.getValue()._dfas);
+    }
+    // closing the LZ4 stream writes its end mark
+    out.close();
+    _persistedStates = countStates();
+  }
+
+  @GuardedBy("ParserDfaCache.class")
+  private static int countStates() {
+    int states = 0;
+    for (Grammar grammar : GRAMMARS.values()) {
+      states += countStates(grammar._decisionToDfa);
+    }
+    return states;
+  }
+
+  @VisibleForTesting
+  static int countStates(DFA[] decisionToDfa) {
+    int states = 0;
+    for (DFA dfa : decisionToDfa) {
+      synchronized (dfa.states) {
+        states += dfa.states.size();
+      }
+    }
+    return states;
+  }
+
+  private static @Nonnull String fingerprint(Parser parser) {
+    return Hashing.murmur3_128()
+        .newHasher()
+        .putString(RuntimeMetaData.VERSION, UTF_8)
+        .putString(parser.getSerializedATN(), UTF_8)
+        .hash()
+        .toString();
+  }
+
+  @GuardedBy("ParserDfaCache.class")
+  private static void install(Grammar grammar, Persisted persisted) {
+    if (!persisted._fingerprint.equals(grammar._fingerprint)) {
+      // DFAs of another version of the grammar
+      return;
+    }
+    try {
+      readDfas(
+          grammar._atn,
+          grammar._decisionToDfa,
+          grammar._contextCache,
+          new DataInputStream(new ByteArrayInputStream(persisted._dfas)));
+    } catch (IOException e) {
+      // Truncated or corrupt: parsing still works, it just starts cold.
+    }
+  }
+
+  /*
+   * Serialized form of the DFAs of a grammar:
+   * - the table of prediction contexts, each after its parents;
+   * - the table of semantic contexts, each after its operands;
+   * - for each decision, its states (with their configurations, referring to the tables above),
+   *   then their edges, then the start state(s).
+   */
+
+  private static final int NULL_STATE = -1;
+  private static final int ERROR_STATE = -2;
+
+  private static final byte CONTEXT_EMPTY = 0;
+  private static final byte CONTEXT_SINGLETON = 1;
+  private static final byte CONTEXT_ARRAY = 2;
+
+  private static final byte SEMANTIC_NONE = 0;
+  private static final byte SEMANTIC_PREDICATE = 1;
+  private static final byte SEMANTIC_PRECEDENCE = 2;
+  private static final byte SEMANTIC_AND = 3;
+  private static final byte SEMANTIC_OR = 4;
+
+  @VisibleForTesting
+  static void writeDfas(DFA[] decisionToDfa, DataOutputStream out) throws IOException {
+    List<List<DFAState>> statesByDecision = new ArrayList<>(decisionToDfa.length);
+    Map<PredictionContext, Integer> contexts = new IdentityHashMap<>();
+    List<PredictionContext> contextList = new ArrayList<>();
+    Map<SemanticContext, Integer> semantics = new IdentityHashMap<>();
+    List<SemanticContext> semanticList = new ArrayList<>();
+    for (DFA dfa : decisionToDfa) {
+      List<DFAState> states;
+      synchronized (dfa.states) {
+        states = new ArrayList<>(dfa.states.keySet());
+      }
+      statesByDecision.add(states);
+      for (DFAState state : states) {
+        for (ATNConfig config : state.configs) {
+          indexContext(config.context, contexts, contextList);
+          indexSemantic(config.semanticContext, semantics, semanticList);
+        }
+        if (state.predicates != null) {
+          for (PredPrediction predicate : state.predicates) {
+            indexSemantic(predicate.pred, semantics, semanticList);
+          }
+        }
+      }
+    }
+
+    out.writeInt(contextList.size());
+    for (PredictionContext context : contextList) {
+      if (context == PredictionContext.EMPTY) {
+        out.writeByte(CONTEXT_EMPTY);
+      } else if (context instanceof SingletonPredictionContext) {
+        SingletonPredictionContext singleton = (SingletonPredictionContext) context;
+        out.writeByte(CONTEXT_SINGLETON);
+        out.writeInt(contextId(singleton.parent, contexts));
+        out.writeInt(singleton.returnState);
+      } else {
+        ArrayPredictionContext array = (ArrayPredictionContext) context;
+        out.writeByte(CONTEXT_ARRAY);
+        out.writeInt(array.parents.length);
+        for (int i = 0; i < array.parents.length; i++) {
+          out.writeInt(contextId(array.parents[i], contexts));
+          out.writeInt(array.returnStates[i]);
+        }
+      }
+    }
+
+    out.writeInt(semanticList.size());
+    for (SemanticContext semantic : semanticList) {
+      if (semantic == SemanticContext.NONE) {
+        out.writeByte(SEMANTIC_NONE);
+      } else if (semantic instanceof SemanticContext.Predicate) {
+        SemanticContext.Predicate predicate = (SemanticContext.Predicate) semantic;
+        out.writeByte(SEMANTIC_PREDICATE);
+        out.writeInt(predicate.ruleIndex);
+        out.writeInt(predicate.predIndex);
+        out.writeBoolean(predicate.isCtxDependent);
+      } else if (semantic instanceof SemanticContext.PrecedencePredicate) {
+        out.writeByte(SEMANTIC_PRECEDENCE);
+        out.writeInt(((SemanticContext.PrecedencePredicate) semantic).precedence);
+      } else {
+        SemanticContext[] operands;
+        if (semantic instanceof SemanticContext.AND) {
+          out.writeByte(SEMANTIC_AND);
+          operands = ((SemanticContext.AND) semantic).opnds;
+        } else {
+          out.writeByte(SEMANTIC_OR);
+          operands = ((SemanticContext.OR) semantic).opnds;
+        }
+        out.writeInt(operands.length);
+        for (SemanticContext operand : operands) {
+          out.writeInt(semantics.get(operand));
+        }
+      }
+    }
+
+    out.writeInt(decisionToDfa.length);
+    for (int decision = 0; decision < decisionToDfa.length; decision++) {
+      DFA dfa = decisionToDfa[decision];
+      List<DFAState> states = statesByDecision.get(decision);
+      Map<DFAState, Integer> stateIds = new IdentityHashMap<>();
+      for (DFAState state : states) {
+        stateIds.put(state, stateIds.size());
+      }
+      out.writeBoolean(dfa.isPrecedenceDfa());
+      out.writeInt(states.size());
+      for (DFAState state : states) {
+        out.writeInt(state.configs.size());
+        for (ATNConfig config : state.configs) {
+          out.writeInt(config.state.stateNumber);
+          out.writeInt(config.alt);
+          out.writeInt(contexts.get(config.context));
+          out.writeInt(semantics.get(config.semanticContext));
+          out.writeInt(config.reachesIntoOuterContext);
+        }
+        out.writeInt(state.configs.uniqueAlt);
+        out.writeBoolean(state.isAcceptState);
+        out.writeInt(state.prediction);
+        out.writeBoolean(state.requiresFullContext);
+        if (state.predicates == null) {
+          out.writeInt(-1);
+        } else {
+          out.writeInt(state.predicates.length);
+          for (PredPrediction predicate : state.predicates) {
+            out.writeInt(semantics.get(predicate.pred));
+            out.writeInt(predicate.alt);
+          }
+        }
+      }
+      for (DFAState state : states) {
+        writeEdges(state.edges, stateIds, out);
+      }
+      DFAState s0 = dfa.s0;
+      if (dfa.isPrecedenceDfa()) {
+        writeEdges(s0 == null ? null : s0.edges, stateIds, out);
+      } else {
+        out.writeInt(stateId(s0, stateIds));
+      }
+    }
+  }
+
+  /** Writes the non-null edges of a state, which are few compared to the token vocabulary. */
+  private static void writeEdges(
+      @Nullable DFAState[] edges, Map<DFAState, Integer> stateIds, DataOutputStream out)
+      throws IOException {
+    if (edges == null) {
+      out.writeInt(-1);
+      return;
+    }
+    // edges may be added concurrently; take a snapshot
+    DFAState[] snapshot = edges.clone();
+    out.writeInt(snapshot.length);
+    int numEdges = 0;
+    for (DFAState target : snapshot) {
+      if (stateId(target, stateIds) != NULL_STATE) {
+        numEdges++;
+      }
+    }
+    out.writeInt(numEdges);
+    for (int i = 0; i < snapshot.length; i++) {
+      int target = stateId(snapshot[i], stateIds);
+      if (target != NULL_STATE) {
+        out.writeInt(i);
+        out.writeInt(target);
+      }
+    }
+  }
+
+  private static int stateId(@Nullable DFAState state, Map<DFAState, Integer> stateIds) {
+    if (state == null) {
+      return NULL_STATE;
+    } else if (state == ATNSimulator.ERROR) {
+      return ERROR_STATE;
+    }
+    // a state added to the DFA after the states were listed is dropped
+    Integer id = stateIds.get(state);
+    return id == null ? NULL_STATE : id;
+  }
+
+  private static int contextId(
+      @Nullable PredictionContext context, Map<PredictionContext, Integer> contexts) {
+    return context == null ? -1 : contexts.get(context);
+  }
+
+  /** Assigns ids to the given context and its ancestors, ancestors first. */
+  private static void indexContext(
+      PredictionContext context,
+      Map<PredictionContext, Integer> contexts,
+      List<PredictionContext> contextList) {
+    if (contexts.containsKey(context)) {
+      return;
+    }
+    // iterative post-order, since context chains can be as deep as the rule invocation stack
+    Deque<PredictionContext> stack = new ArrayDeque<>();
+    stack.push(context);
+    while (!stack.isEmpty()) {
+      PredictionContext top = stack.peek();
+      if (contexts.containsKey(top)) {
+        stack.pop();
+        continue;
+      }
+      boolean parentsIndexed = true;
+      for (int i = 0; i < top.size(); i++) {
+        PredictionContext parent = top.getParent(i);
+        if (parent != null && !contexts.containsKey(parent)) {
+          stack.push(parent);
+          parentsIndexed = false;
+        }
+      }
+      if (parentsIndexed) {
+        stack.pop();
+        contexts.put(top, contextList.size());
+        contextList.add(top);
+      }
+    }
+  }
+
+  private static void indexSemantic(
+      SemanticContext semantic,
+      Map<SemanticContext, Integer> semantics,
+      List<SemanticContext> semanticList) {
+    if (semantics.containsKey(semantic)) {
+      return;
+    }
+    SemanticContext[] operands = null;
+    if (semantic instanceof SemanticContext.AND) {
+      operands = ((SemanticContext.AND) semantic).opnds;
+    } else if (semantic instanceof SemanticContext.OR) {
+      operands = ((SemanticContext.OR) semantic).opnds;
+    }
+    if (operands != null) {
+      for (SemanticContext operand : operands) {
+        indexSemantic(operand, semantics, semanticList);
+      }
+    }
+    semantics.put(semantic, semanticList.size());
+    semanticList.add(semantic);
+  }
+
+  /**
+   * Reads DFAs written by {@link #writeDfas} into the given DFAs, leaving alone any decision whose
+   * DFA is not empty.
+   */
+  @VisibleForTesting
+  static void readDfas(
+      ATN atn, DFA[] decisionToDfa, PredictionContextCache contextCache, DataInputStream in)
+      throws IOException {
+    PredictionContext[] contexts = new PredictionContext[in.readInt()];
+    for (int i = 0; i < contexts.length; i++) {
+      PredictionContext context;
+      byte type = in.readByte();
+      switch (type) {
+        case CONTEXT_EMPTY:
+          context = PredictionContext.EMPTY;
+          break;
+        case CONTEXT_SINGLETON:
+          {
+            PredictionContext parent = context(in.readInt(), contexts);
+            context = SingletonPredictionContext.create(parent, in.readInt());
+            break;
+          }
+        case CONTEXT_ARRAY:
+          {
+            int size = in.readInt();
+            PredictionContext[] parents = new PredictionContext[size];
+            int[] returnStates = new int[size];
+            for (int j = 0; j < size; j++) {
+              parents[j] = context(in.readInt(), contexts);
+              returnStates[j] = in.readInt();
+            }
+            context = new ArrayPredictionContext(parents, returnStates);
+            break;
+          }
+        default:
+          throw new IOException("Invalid prediction context type: " + type);
+      }
+      contexts[i] = contextCache.add(context);
+    }
+
+    SemanticContext[] semantics = new SemanticContext[in.readInt()];
+    for (int i = 0; i < semantics.length; i++) {
+      byte type = in.readByte();
+      switch (type) {
+        case SEMANTIC_NONE:
+          semantics[i] = SemanticContext.NONE;
+          break;
+        case SEMANTIC_PREDICATE:
+          semantics[i] =
+              new SemanticContext.Predicate(in.readInt(), in.readInt(), in.readBoolean());
+          break;
+        case SEMANTIC_PRECEDENCE:
+          semantics[i] = new SemanticContext.PrecedencePredicate(in.readInt());
+          break;
+        case SEMANTIC_AND:
+        case SEMANTIC_OR:
+          {
+            int size = in.readInt();
+            SemanticContext combined = semantics[in.readInt()];
+            for (int j = 1; j < size; j++) {
+              SemanticContext operand = semantics[in.readInt()];
+              combined =
+                  type == SEMANTIC_AND
+                      ? new SemanticContext.AND(combined, operand)
+                      : new SemanticContext.OR(combined, operand);
+            }
+            semantics[i] = combined;
+            break;
+          }
+        default:
+          throw new IOException("Invalid semantic context type: " + type);
+      }
+    }
+
+    int numDecisions = in.readInt();
+    if (numDecisions != decisionToDfa.length) {
+      throw new IOException("Persisted DFAs do not match the grammar");
+    }
+    for (DFA dfa : decisionToDfa) {
+      boolean precedenceDfa = in.readBoolean();
+      if (precedenceDfa != dfa.isPrecedenceDfa()) {
+        throw new IOException("Persisted DFAs do not match the grammar");
+      }
+      DFAState[] states = new DFAState[in.readInt()];
+      for (int i = 0; i < states.length; i++) {
+        int numConfigs = in.readInt();
+        LoadedConfigSet configs = new LoadedConfigSet();
+        for (int j = 0; j < numConfigs; j++) {
+          ATNConfig config =
+              new ATNConfig(
+                  atn.states.get(in.readInt()),
+                  in.readInt(),
+                  contexts[in.readInt()],
+                  semantics[in.readInt()]);
+          config.reachesIntoOuterContext = in.readInt();
+          configs.add(config);
+        }
+        configs.uniqueAlt = in.readInt();
+        DFAState state = new DFAState(configs);
+        state.isAcceptState = in.readBoolean();
+        state.prediction = in.readInt();
+        state.requiresFullContext = in.readBoolean();
+        if (state.requiresFullContext) {
+          configs.computeConflictingAlts();
+        }
+        configs.setReadonly(true);
+        int numPredicates = in.readInt();
+        if (numPredicates >= 0) {
+          state.predicates = new PredPrediction[numPredicates];
+          for (int j = 0; j < numPredicates; j++) {
+            state.predicates[j] = new PredPrediction(semantics[in.readInt()], in.readInt());
+          }
+        }
+        states[i] = state;
+      }
+      for (DFAState state : states) {
+        state.edges = readEdges(states, in);
+      }
+      DFAState[] s0Edges = null;
+      DFAState s0 = null;
+      if (precedenceDfa) {
+        s0Edges = readEdges(states, in);
+      } else {
+        int s0Id = in.readInt();
+        s0 = s0Id == NULL_STATE ? null : states[s0Id];
+      }
+
+      synchronized (dfa.states) {
+        boolean empty =
+            dfa.states.isEmpty()
+                && (precedenceDfa ? dfa.s0 == null || dfa.s0.edges.length == 0 : dfa.s0 == null);
+        if (!empty) {
+          continue;
+        }
+        for (DFAState state : states) {
+          state.stateNumber = dfa.states.size();
+          dfa.states.put(state, state);
+        }
+        if (precedenceDfa) {
+          if (s0Edges != null) {
+            for (int precedence = 0; precedence < s0Edges.length; precedence++) {
+              if (s0Edges[precedence] != null) {
+                dfa.setPrecedenceStartState(precedence, s0Edges[precedence]);
+              }
+            }
+          }
+        } else {
+          dfa.s0 = s0;
+        }
+      }
+    }
+  }
+
+  private static @Nullable PredictionContext context(int id, PredictionContext[] contexts) {
+    return id == -1 ? null : contexts[id];
+  }
+
+  private static @Nullable DFAState[] readEdges(DFAState[] states, DataInputStream in)
+      throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      return null;
+    }
+    DFAState[] edges = new DFAState[length];
+    int numEdges = in.readInt();
+    for (int i = 0; i < numEdges; i++) {
+      int index = in.readInt();
+      int id = in.readInt();
+      edges[index] = id == ERROR_STATE ? ATNSimulator.ERROR : states[id];
+    }
+    return edges;
+  }
+
+  /**
+   * The configurations of a loaded DFA state. The conflicting alternatives of a state are not
+   * persisted but recomputed, as ANTLR does when adding the state.
+   */
+  private static final class LoadedConfigSet extends ATNConfigSet {
+    private LoadedConfigSet() {
+      // the DFA caches SLL prediction only
+      super(false);
+    }
+
+    private void computeConflictingAlts() {
+      conflictingAlts = PredictionMode.getAlts(PredictionMode.getConflictingAltSubsets(this));
+    }
+  }
+}
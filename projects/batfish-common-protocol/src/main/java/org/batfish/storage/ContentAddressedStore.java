@@ -0,0 +1,169 @@
+package org.batfish.storage;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+
+/**
+ * Stores each distinct file content once, named by its SHA-256 hash, and hard-links it to every
+ * path that holds that content.
+ *
+ * <p>The link count of a stored file is its reference count: a file with no links other than its
+ * own entry in the store is no longer used by any snapshot, and {@link
+ * #expungeUnreferenced(Instant)} deletes it. Paths linked to the store must only be replaced, never
+ * written in place, since writing through one link would change the content of all of them. All
+ * {@link FileBasedStorage} writes replace the destination with a move.
+ *
+ * <p>If the file system does not report link counts, content is not deduplicated and files are
+ * moved to their destination as-is.
+ */
+@ParametersAreNonnullByDefault
+final class ContentAddressedStore {
+
+  /** The hash function that names stored content. */
+  static final HashFunction HASH_FUNCTION = Hashing.sha256();
+
+  private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+
+  ContentAddressedStore(Path root) {
+    _root = root;
+  }
+
+  /**
+   * Places the content of {@code tmpFile}, whose {@link #HASH_FUNCTION hash} is {@code hash}, at
+   * {@code target}, replacing any existing file there. If the store already holds that content,
+   * {@code tmpFile} is discarded and {@code target} is linked to the stored copy; otherwise {@code
+   * tmpFile} is moved into the store first.
+   */
+  void storeAndLink(Path tmpFile, HashCode hash, Path target) throws IOException {
+    Files.createDirectories(target.getParent());
+    if (!supportsLinkCounts()) {
+      Files.move(tmpFile, target, REPLACE_EXISTING);
+      return;
+    }
+    Path stored = getStoredPath(hash);
+    while (true) {
+      if (Files.exists(stored)) {
+        // Mark the content as recently used, so garbage collection leaves it alone while we link.
+        Files.setLastModifiedTime(stored, FileTime.from(Instant.now()));
+      } else {
+        Files.createDirectories(stored.getParent());
+        Path staging = stored.resolveSibling(stagingName());
+        try {
+          // May copy if tmpFile is on another file system, so only rename into place afterwards.
+          Files.move(tmpFile, staging);
+          // Another writer may have stored the same content concurrently, which is fine to replace.
+          Files.move(staging, stored, ATOMIC_MOVE, REPLACE_EXISTING);
+        } finally {
+          Files.deleteIfExists(staging);
+        }
+      }
+      try {
+        link(stored, target);
+        Files.deleteIfExists(tmpFile);
+        return;
+      } catch (NoSuchFileException e) {
+        if (!Files.exists(tmpFile)) {
+          throw e;
+        }
+        // The stored content was garbage collected before we could link it, so store it again.
+      }
+    }
+  }
+
+  /**
+   * Deletes stored content that no path links to anymore and that was last stored or reused before
+   * {@code expungeBeforeDate}.
+   *
+   * @return the number of deleted files
+   */
+  int expungeUnreferenced(Instant expungeBeforeDate) throws IOException {
+    if (!Files.isDirectory(_root) || !supportsLinkCounts()) {
+      return 0;
+    }
+    List<Path> storedFiles;
+    try (Stream<Path> files = Files.walk(_root)) {
+      storedFiles = files.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+    int deleted = 0;
+    for (Path stored : storedFiles) {
+      try {
+        if (getLinkCount(stored) <= 1
+            && Files.getLastModifiedTime(stored).toInstant().isBefore(expungeBeforeDate)
+            && Files.deleteIfExists(stored)) {
+          deleted++;
+        }
+      } catch (NoSuchFileException e) {
+        // deleted concurrently
+      }
+    }
+    return deleted;
+  }
+
+  @VisibleForTesting
+  @Nonnull
+  Path getStoredPath(HashCode hash) {
+    String name = hash.toString();
+    // Fan out over subdirectories to keep directories small.
+    return _root.resolve(name.substring(0, 2)).resolve(name.substring(2));
+  }
+
+  @VisibleForTesting
+  static int getLinkCount(Path path) throws IOException {
+    return (Integer) Files.getAttribute(path, LINK_COUNT_ATTRIBUTE);
+  }
+
+  /** Atomically replaces {@code target} with a link to {@code stored}. */
+  private static void link(Path stored, Path target) throws IOException {
+    Path staging = target.resolveSibling(stagingName());
+    try {
+      try {
+        Files.createLink(staging, stored);
+      } catch (NoSuchFileException e) {
+        throw e;
+      } catch (UnsupportedOperationException | FileSystemException e) {
+        // E.g., the store and target are on different file systems, or the link limit is reached.
+        Files.copy(stored, staging);
+      }
+      Files.move(staging, target, ATOMIC_MOVE, REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(staging);
+    }
+  }
+
+  /** Returns a unique, hidden file name for a file that is about to be moved into place. */
+  private static @Nonnull String stagingName() {
+    return "." + UUID.randomUUID() + ".tmp";
+  }
+
+  private boolean supportsLinkCounts() throws IOException {
+    if (_supportsLinkCounts == null) {
+      Path existing = _root;
+      while (!Files.exists(existing)) {
+        existing = existing.getParent();
+      }
+      _supportsLinkCounts = Files.getFileStore(existing).supportsFileAttributeView("unix");
+    }
+    return _supportsLinkCounts;
+  }
+
+  private final @Nonnull Path _root;
+  private volatile Boolean _supportsLinkCounts;
+}
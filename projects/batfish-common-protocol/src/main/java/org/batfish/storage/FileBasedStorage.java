@@ -14,6 +14,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.Streams;
+import com.google.common.hash.HashingInputStream;
+import com.google.common.hash.HashingOutputStream;
 import com.google.common.io.ByteStreams;
 import com.google.common.io.Closer;
 import com.google.common.io.MoreFiles;
@@ -33,6 +35,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
@@ -48,6 +51,7 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeMap;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
@@ -62,11 +66,13 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.batfish.common.AnswerRowsOptions;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.bdd.SnapshotAclBdds;
 import org.batfish.common.plugin.PluginConsumer.Format;
 import org.batfish.common.runtime.SnapshotRuntimeData;
 import org.batfish.common.topology.L3Adjacencies;
@@ -78,7 +84,9 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.SnapshotMetadata;
 import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
+import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
 import org.batfish.datamodel.answers.ParseEnvironmentBgpTablesAnswerElement;
 import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
@@ -89,6 +97,8 @@ import org.batfish.datamodel.eigrp.EigrpTopology;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.ospf.OspfTopology;
 import org.batfish.datamodel.questions.Question;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableView;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.AnswerId;
@@ -128,10 +138,12 @@ public class FileBasedStorage implements StorageProvider {
   private static final String RELPATH_FORK_REQUEST_FILE = "fork_request";
   private static final String RELPATH_ENV_TOPOLOGY_FILE = "env_topology";
   private static final String RELPATH_CONVERSION_CONTEXT = "conversion_context";
+  private static final String RELPATH_SNAPSHOT_ACL_BDDS = "acl_bdds";
   private static final String RELPATH_CONVERT_ANSWER_PATH = "convert_answer";
   private static final String RELPATH_ANSWERS_DIR = "answers";
   private static final String RELPATH_ANSWER_METADATA = "answer_metadata.json";
   private static final String RELPATH_ANSWER_JSON = "answer.json";
+  private static final String RELPATH_ANSWER_TABLE_DIR = "answer_table";
   private static final String RELPATH_ANALYSES_DIR = "analyses";
   private static final String RELPATH_BATFISH_CONFIGS_DIR = "batfish";
   private static final String RELPATH_ISP_CONFIG_FILE = "isp_config.json";
@@ -144,10 +156,12 @@ public class FileBasedStorage implements StorageProvider {
   private static final String RELPATH_AWS_ACCOUNTS_DIR = "accounts";
   private static final String RELPATH_SNAPSHOTS_DIR = "snapshots";
   private static final String RELPATH_OUTPUT = "output";
+  private static final String RELPATH_CONTENT_STORE = "content_store";
 
   private final BatfishLogger _logger;
   private final BiFunction<String, Integer, AtomicInteger> _newBatch;
   private final Path _baseDir;
+  private final ContentAddressedStore _contentStore;
 
   /**
    * Create a new {@link FileBasedStorage} instance that uses the given root path and job batch
@@ -163,6 +177,7 @@ public class FileBasedStorage implements StorageProvider {
       throw new UncheckedIOException(
           String.format("Could not get canonical path of %s", baseDir), e);
     }
+    _contentStore = new ContentAddressedStore(_baseDir.resolve(RELPATH_CONTENT_STORE));
   }
 
   /**
@@ -483,6 +498,36 @@ public class FileBasedStorage implements StorageProvider {
     return getSnapshotOutputDir(network, snapshot).resolve(RELPATH_CONVERSION_CONTEXT);
   }
 
+  @Override
+  public @Nonnull Optional<SnapshotAclBdds> loadSnapshotAclBdds(NetworkSnapshot snapshot)
+      throws IOException {
+    Path path = getSnapshotAclBddsPath(snapshot.getNetwork(), snapshot.getSnapshot());
+    if (!Files.exists(path)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(deserializeObject(path, SnapshotAclBdds.class));
+    } catch (BatfishException e) {
+      throw new IOException(
+          String.format(
+              "Failed to deserialize SnapshotAclBdds: %s", Throwables.getStackTraceAsString(e)));
+    }
+  }
+
+  @Override
+  public void storeSnapshotAclBdds(SnapshotAclBdds snapshotAclBdds, NetworkSnapshot snapshot)
+      throws IOException {
+    Path path = getSnapshotAclBddsPath(snapshot.getNetwork(), snapshot.getSnapshot());
+    mkdirs(path.getParent());
+    serializeObject(snapshotAclBdds, path);
+  }
+
+  @VisibleForTesting
+  @Nonnull
+  Path getSnapshotAclBddsPath(NetworkId network, SnapshotId snapshot) {
+    return getSnapshotOutputDir(network, snapshot).resolve(RELPATH_SNAPSHOT_ACL_BDDS);
+  }
+
   private @Nonnull Path getConvertAnswerPath(NetworkId network, SnapshotId snapshot) {
     return getSnapshotOutputDir(network, snapshot).resolve(RELPATH_CONVERT_ANSWER_PATH);
   }
@@ -505,7 +550,7 @@ public class FileBasedStorage implements StorageProvider {
         .forEach(
             e -> {
               Path currentOutputPath = outputDir.resolve(e.getKey());
-              serializeObject(e.getValue(), currentOutputPath);
+              serializeObjectToContentStore(e.getValue(), currentOutputPath);
               progressCount.incrementAndGet();
             });
   }
@@ -516,7 +561,41 @@ public class FileBasedStorage implements StorageProvider {
       throws IOException {
     Path answerPath = getAnswerPath(network, snapshot, answerId);
     mkdirs(answerPath.getParent());
+    // Remove the stale paged answer first, so readers fall back to the new answer until the new
+    // paged answer is in place.
+    Path answerTableDir = getAnswerTableDir(network, snapshot, answerId);
+    deleteDirectory(answerTableDir);
     writeStringToFile(answerPath, answerStr, UTF_8);
+    storeAnswerTable(answerStr, answerTableDir);
+  }
+
+  /**
+   * Stores the table in the given answer in paged form, if it is a successful table answer. Failure
+   * to do so is not an error, since queries fall back to the answer itself.
+   */
+  private void storeAnswerTable(String answerStr, Path answerTableDir) {
+    Path sanitizedDir = validatePath(answerTableDir);
+    Path tmpDir = sanitizedDir.resolveSibling(RELPATH_ANSWER_TABLE_DIR + "." + UUID.randomUUID());
+    try {
+      Answer answer = BatfishObjectMapper.mapper().readValue(answerStr, Answer.class);
+      if (answer.getStatus() != AnswerStatus.SUCCESS
+          || answer.getAnswerElements().isEmpty()
+          || !(answer.getAnswerElements().get(0) instanceof TableAnswerElement)) {
+        return;
+      }
+      TableAnswerElement table = (TableAnswerElement) answer.getAnswerElements().get(0);
+      if (PagedTableAnswer.write(table, tmpDir, PagedTableAnswer.DEFAULT_CHUNK_SIZE)) {
+        Files.move(tmpDir, sanitizedDir, StandardCopyOption.ATOMIC_MOVE);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn(String.format("Failed to store paged answer in %s", sanitizedDir), e);
+    } finally {
+      try {
+        FileUtils.deleteDirectory(tmpDir.toFile());
+      } catch (IOException e) {
+        LOGGER.warn(String.format("Failed to delete %s", tmpDir), e);
+      }
+    }
   }
 
   @Override
@@ -598,14 +677,7 @@ public class FileBasedStorage implements StorageProvider {
     try {
       Path tmpFile = Files.createTempFile(null, null);
       try {
-        try (OutputStream out = Files.newOutputStream(tmpFile);
-            LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
-            ObjectOutputStream oos = new ObjectOutputStream(gos)) {
-          oos.writeObject(object);
-        } catch (Throwable e) {
-          throw new BatfishException(
-              "Failed to serialize object to output file: " + sanitizedOutputFile, e);
-        }
+        serializeObject(object, Files.newOutputStream(tmpFile), sanitizedOutputFile);
         mkdirs(sanitizedOutputFile.getParent());
         Files.move(tmpFile, sanitizedOutputFile, StandardCopyOption.REPLACE_EXISTING);
       } finally {
@@ -616,6 +688,43 @@ public class FileBasedStorage implements StorageProvider {
     }
   }
 
+  /**
+   * Like {@link #serializeObject(Serializable, Path)}, but stores the serialized object in the
+   * {@link ContentAddressedStore}, so that objects with identical serialized forms share storage.
+   * Used for artifacts that often do not change between snapshots of the same network.
+   */
+  @VisibleForTesting
+  void serializeObjectToContentStore(Serializable object, Path outputFile) {
+    Path sanitizedOutputFile = validatePath(outputFile);
+    try {
+      Path tmpFile = Files.createTempFile(null, null);
+      try {
+        HashingOutputStream out =
+            new HashingOutputStream(
+                ContentAddressedStore.HASH_FUNCTION, Files.newOutputStream(tmpFile));
+        serializeObject(object, out, sanitizedOutputFile);
+        _contentStore.storeAndLink(tmpFile, out.hash(), sanitizedOutputFile);
+      } finally {
+        Files.deleteIfExists(tmpFile);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Writes {@code object} to {@code out} in the {@link FileBasedStorage} default file encoding,
+   * then closes {@code out}.
+   */
+  private static void serializeObject(Serializable object, OutputStream out, Path outputFile) {
+    try (LZ4FrameOutputStream gos = new LZ4FrameOutputStream(out);
+        ObjectOutputStream oos = new ObjectOutputStream(gos)) {
+      oos.writeObject(object);
+    } catch (Throwable e) {
+      throw new BatfishException("Failed to serialize object to output file: " + outputFile, e);
+    }
+  }
+
   private <S extends Serializable> void serializeObjects(Map<Path, S> objectsByPath) {
     if (objectsByPath.isEmpty()) {
       return;
@@ -629,7 +738,7 @@ public class FileBasedStorage implements StorageProvider {
             entry -> {
               Path outputPath = entry.getKey();
               S object = entry.getValue();
-              serializeObject(object, outputPath);
+              serializeObjectToContentStore(object, outputPath);
               serializeCompleted.incrementAndGet();
             });
   }
@@ -683,6 +792,20 @@ public class FileBasedStorage implements StorageProvider {
     throw new FileNotFoundException(String.format("Could not find answer with ID: %s", answerId));
   }
 
+  @Override
+  public @Nonnull Optional<TableView> loadAnswerRows(
+      NetworkId networkId, SnapshotId snapshotId, AnswerId answerId, AnswerRowsOptions options)
+      throws IOException {
+    Path answerTableDir = validatePath(getAnswerTableDir(networkId, snapshotId, answerId));
+    try {
+      PagedTableAnswer table = PagedTableAnswer.open(answerTableDir);
+      return table == null ? Optional.empty() : Optional.ofNullable(table.query(options));
+    } catch (NoSuchFileException e) {
+      // the answer is being replaced
+      return Optional.empty();
+    }
+  }
+
   @Override
   public @Nonnull AnswerMetadata loadAnswerMetadata(
       NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) throws IOException {
@@ -718,6 +841,11 @@ public class FileBasedStorage implements StorageProvider {
     return getAnswerDir(networkId, snapshotId, answerId).resolve(RELPATH_ANSWER_METADATA);
   }
 
+  private @Nonnull Path getAnswerTableDir(
+      NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) {
+    return getAnswerDir(networkId, snapshotId, answerId).resolve(RELPATH_ANSWER_TABLE_DIR);
+  }
+
   @Nonnull
   Path getOldAnswerMetadataPath(AnswerId answerId) {
     return getOldAnswerDir(answerId).resolve(RELPATH_ANSWER_METADATA);
@@ -1277,6 +1405,26 @@ public class FileBasedStorage implements StorageProvider {
     }
   }
 
+  /**
+   * Like {@link #writeStreamToFile(InputStream, Path)}, but stores the content in the {@link
+   * ContentAddressedStore}, so that identical files share storage.
+   */
+  private void writeStreamToContentStore(InputStream inputStream, Path outputFile)
+      throws IOException {
+    Path sanitizedOutputFile = validatePath(outputFile);
+    Path tmpFile = Files.createTempFile(null, null);
+    try {
+      HashingInputStream hashingInputStream =
+          new HashingInputStream(ContentAddressedStore.HASH_FUNCTION, inputStream);
+      try (OutputStream fileOutputStream = Files.newOutputStream(tmpFile)) {
+        ByteStreams.copy(hashingInputStream, fileOutputStream);
+      }
+      _contentStore.storeAndLink(tmpFile, hashingInputStream.hash(), sanitizedOutputFile);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
+  }
+
   private void writeStreamToFile(InputStream inputStream, Path outputFile) throws IOException {
     Path sanitizedOutputFile = validatePath(outputFile);
     Path tmpFile = Files.createTempFile(null, null);
@@ -1528,7 +1676,7 @@ public class FileBasedStorage implements StorageProvider {
   @Override
   public void storeSnapshotInputObject(
       InputStream inputStream, String key, NetworkSnapshot snapshot) throws IOException {
-    writeStreamToFile(
+    writeStreamToContentStore(
         inputStream,
         getSnapshotInputObjectPath(snapshot.getNetwork(), snapshot.getSnapshot(), key));
   }
@@ -1558,12 +1706,29 @@ public class FileBasedStorage implements StorageProvider {
   @Nonnull
   @Override
   public DataPlane loadDataPlane(NetworkSnapshot snapshot) throws IOException {
-    return deserializeObject(getDataPlanePath(snapshot), DataPlane.class);
+    Path dataPlanePath = validatePath(getDataPlanePath(snapshot));
+    if (SectionedArtifact.isSectionedArtifact(dataPlanePath)) {
+      return SectionedDataPlane.open(dataPlanePath);
+    }
+    // data plane stored by an older version of Batfish as a single serialized object
+    return deserializeObject(dataPlanePath, DataPlane.class);
   }
 
+  /**
+   * Stores the data plane as a {@link SectionedDataPlane}, so that loading it only reads the nodes
+   * and VRFs that are actually used.
+   */
   @Override
   public void storeDataPlane(DataPlane dataPlane, NetworkSnapshot snapshot) throws IOException {
-    serializeObject(dataPlane, getDataPlanePath(snapshot));
+    Path dataPlanePath = validatePath(getDataPlanePath(snapshot));
+    mkdirs(dataPlanePath.getParent());
+    Path tmpFile = Files.createTempFile(dataPlanePath.getParent(), RELPATH_DATA_PLANE, null);
+    try {
+      SectionedDataPlane.write(dataPlane, tmpFile);
+      Files.move(tmpFile, dataPlanePath, StandardCopyOption.REPLACE_EXISTING);
+    } finally {
+      Files.deleteIfExists(tmpFile);
+    }
   }
 
   @Override
@@ -1684,7 +1849,9 @@ public class FileBasedStorage implements StorageProvider {
         .resolve(RELPATH_SERIALIZED_ENVIRONMENT_BGP_TABLES);
   }
 
-  private @Nonnull Path getDataPlanePath(NetworkSnapshot snapshot) {
+  @VisibleForTesting
+  @Nonnull
+  Path getDataPlanePath(NetworkSnapshot snapshot) {
     return getSnapshotOutputDir(snapshot.getNetwork(), snapshot.getSnapshot())
         .resolve(RELPATH_DATA_PLANE);
   }
@@ -1918,6 +2085,31 @@ public class FileBasedStorage implements StorageProvider {
     deleteDirectory(getVendorConfigurationsPath(snapshot));
   }
 
+  @Nonnull
+  @Override
+  public VendorConfiguration loadVendorConfiguration(NetworkSnapshot snapshot, String name)
+      throws IOException {
+    Path path = getVendorConfigurationsPath(snapshot).resolve(name);
+    if (!Files.exists(path)) {
+      throw new FileNotFoundException(
+          String.format("No vendor configuration %s in snapshot %s", name, snapshot));
+    }
+    return deserializeObject(path, VendorConfiguration.class);
+  }
+
+  @Override
+  public void storeVendorConfiguration(
+      VendorConfiguration vendorConfiguration, String name, NetworkSnapshot snapshot)
+      throws IOException {
+    serializeObjectToContentStore(
+        vendorConfiguration, getVendorConfigurationsPath(snapshot).resolve(name));
+  }
+
+  @Override
+  public void deleteVendorConfiguration(NetworkSnapshot snapshot, String name) throws IOException {
+    deleteIfExists(getVendorConfigurationsPath(snapshot).resolve(name));
+  }
+
   @MustBeClosed
   @Nonnull
   @Override
@@ -2013,6 +2205,15 @@ public class FileBasedStorage implements StorageProvider {
                 }
               });
     }
+
+    // Content no longer linked from any snapshot, e.g. because its snapshots were just expunged.
+    try {
+      _contentStore.expungeUnreferenced(expungeBeforeDate);
+    } catch (IOException e) {
+      _logger.errorf(
+          "Failed to garbage collect content store: %s", Throwables.getStackTraceAsString(e));
+      LOGGER.error("Failed to garbage collect content store", e);
+    }
   }
 
   private List<Path> getSnapshotDirsToExpunge(NetworkId networkId, Instant expungeBeforeDate)
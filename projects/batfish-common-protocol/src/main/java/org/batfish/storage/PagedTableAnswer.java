@@ -0,0 +1,509 @@
+package org.batfish.storage;
+
+import static com.google.common.base.MoreObjects.firstNonNull;
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.SortedSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.AnswerSummary;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.RowComparators;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.datamodel.table.TableView;
+import org.batfish.datamodel.table.TableViewRow;
+
+/**
+ * A table answer stored as chunks of rows in columnar form, with a sort index for each column, so
+ * that {@link AnswerRowsOptions} queries read only the columns and chunks they need instead of
+ * parsing the whole answer.
+ *
+ * <p>A paged table answer is a directory containing:
+ *
+ * <ul>
+ *   <li>{@code header.json}: the table's metadata and summary, its row count, and the offsets of
+ *       the chunks in each column file.
+ *   <li>{@code column-<i>.json}: for the {@code i}th column, a JSON array of the column's values
+ *       for each chunk of rows, concatenated.
+ *   <li>{@code rank-<i>.bin}: for the {@code i}th column, if it can be sorted, the rank of each row
+ *       in the column's sort order as big-endian ints. Rows with equal values have equal ranks.
+ * </ul>
+ */
+@ParametersAreNonnullByDefault
+final class PagedTableAnswer {
+
+  static final int DEFAULT_CHUNK_SIZE = 1024;
+
+  /** The maximum number of column chunks kept in memory while answering a query. */
+  private static final int MAX_CACHED_CHUNKS = 64;
+
+  private static final String RELPATH_HEADER = "header.json";
+
+  /**
+   * Writes {@code table} in paged form to the directory {@code dir}, which is created.
+   *
+   * @return {@code false} (and writes nothing) if the table cannot be paged, because its rows do
+   *     not all have the same columns.
+   */
+  static boolean write(TableAnswerElement table, Path dir, int chunkSize) throws IOException {
+    checkArgument(chunkSize > 0, "Chunk size must be positive");
+    List<Row> rows = table.getRowsList();
+    List<String> columns = getColumns(table);
+    if (columns == null) {
+      return false;
+    }
+    Files.createDirectories(dir);
+    ObjectMapper mapper = BatfishObjectMapper.mapper();
+    ImmutableList.Builder<List<Long>> chunkOffsets = ImmutableList.builder();
+    for (int c = 0; c < columns.size(); c++) {
+      String column = columns.get(c);
+      ImmutableList.Builder<Long> offsets = ImmutableList.builder();
+      long offset = 0;
+      offsets.add(offset);
+      try (OutputStream out =
+          new BufferedOutputStream(Files.newOutputStream(dir.resolve(columnFile(c))))) {
+        for (int start = 0; start < rows.size(); start += chunkSize) {
+          ArrayNode chunk = mapper.createArrayNode();
+          for (Row row : rows.subList(start, Math.min(rows.size(), start + chunkSize))) {
+            chunk.add(row.get(column));
+          }
+          byte[] bytes = mapper.writeValueAsBytes(chunk);
+          out.write(bytes);
+          offset += bytes.length;
+          offsets.add(offset);
+        }
+      }
+      chunkOffsets.add(offsets.build());
+    }
+
+    Map<String, ColumnMetadata> columnMap = table.getMetadata().toColumnMap();
+    ImmutableSortedSet.Builder<String> rankedColumns = ImmutableSortedSet.naturalOrder();
+    for (int c = 0; c < columns.size(); c++) {
+      ColumnMetadata columnMetadata = columnMap.get(columns.get(c));
+      int[] ranks = columnMetadata == null ? null : computeRanks(rows, columnMetadata);
+      if (ranks == null) {
+        continue;
+      }
+      try (DataOutputStream out =
+          new DataOutputStream(
+              new BufferedOutputStream(Files.newOutputStream(dir.resolve(rankFile(c)))))) {
+        for (int rank : ranks) {
+          out.writeInt(rank);
+        }
+      }
+      rankedColumns.add(columns.get(c));
+    }
+
+    Header header =
+        new Header(
+            table.getMetadata(),
+            table.getSummary(),
+            columns,
+            rows.size(),
+            chunkSize,
+            chunkOffsets.build(),
+            rankedColumns.build());
+    mapper.writeValue(dir.resolve(RELPATH_HEADER).toFile(), header);
+    return true;
+  }
+
+  /**
+   * Returns the paged table answer in {@code dir}, or {@code null} if there is none.
+   *
+   * @throws IOException if there is an error reading the header of the paged table answer
+   */
+  static @Nullable PagedTableAnswer open(Path dir) throws IOException {
+    Path headerPath = dir.resolve(RELPATH_HEADER);
+    if (!Files.exists(headerPath)) {
+      return null;
+    }
+    return new PagedTableAnswer(
+        dir, BatfishObjectMapper.mapper().readValue(headerPath.toFile(), Header.class));
+  }
+
+  /**
+   * Returns the view of this table selected by {@code options}, equal to the view computed from the
+   * whole table by the coordinator. Returns {@code null} if the query cannot be answered from the
+   * paged form, e.g., because it refers to a missing column; callers should then query the whole
+   * table, which reports such errors.
+   */
+  @Nullable
+  TableView query(AnswerRowsOptions options) throws IOException {
+    if (options.getRowOffset() < 0 || options.getMaxRows() < 0) {
+      return null;
+    }
+    for (ColumnFilter filter : options.getFilters()) {
+      if (!_columnIndices.containsKey(filter.getColumn())) {
+        return null;
+      }
+    }
+    for (ColumnSortOption sortOption : options.getSortOrder()) {
+      if (!_header._rankedColumns.contains(sortOption.getColumn())) {
+        return null;
+      }
+    }
+    Set<String> metadataColumns = _header._metadata.toColumnMap().keySet();
+    for (String column : options.getColumns()) {
+      if (!_columnIndices.containsKey(column) || !metadataColumns.contains(column)) {
+        return null;
+      }
+    }
+
+    int[] rowIds = filter(options.getFilters());
+    if (!options.getSortOrder().isEmpty()) {
+      rowIds = sort(rowIds, options.getSortOrder());
+    }
+    List<String> viewColumns =
+        options.getColumns().isEmpty()
+            ? _header._columns
+            : ImmutableList.copyOf(options.getColumns());
+    long end = Math.min(rowIds.length, (long) options.getRowOffset() + options.getMaxRows());
+    ImmutableList.Builder<TableViewRow> viewRows = ImmutableList.builder();
+    if (options.getUniqueRows()) {
+      // keep the first occurrence of each row, as Stream.distinct does
+      Map<Row, Integer> distinctRows = new LinkedHashMap<>();
+      for (int i = 0; i < rowIds.length && distinctRows.size() < end; i++) {
+        distinctRows.putIfAbsent(buildRow(rowIds[i], viewColumns), rowIds[i]);
+      }
+      distinctRows.entrySet().stream()
+          .skip(options.getRowOffset())
+          .forEach(e -> viewRows.add(new TableViewRow(e.getValue(), e.getKey())));
+    } else {
+      for (long i = options.getRowOffset(); i < end; i++) {
+        int rowId = rowIds[(int) i];
+        viewRows.add(new TableViewRow(rowId, buildRow(rowId, viewColumns)));
+      }
+    }
+    TableView view =
+        new TableView(
+            options, viewRows.build(), TableView.viewMetadata(_header._metadata, options));
+    view.setSummary(firstNonNull(_header._summary, new AnswerSummary()));
+    view.getSummary().setNumResults(rowIds.length);
+    return view;
+  }
+
+  @VisibleForTesting
+  int getNumRows() {
+    return _header._numRows;
+  }
+
+  @VisibleForTesting
+  int getChunksRead() {
+    return _chunksRead;
+  }
+
+  /** Returns the IDs of the rows matching all {@code filters}, in increasing order. */
+  private @Nonnull int[] filter(List<ColumnFilter> filters) throws IOException {
+    int numRows = _header._numRows;
+    if (filters.isEmpty()) {
+      int[] rowIds = new int[numRows];
+      Arrays.setAll(rowIds, i -> i);
+      return rowIds;
+    }
+    int[] rowIds = new int[numRows];
+    int numMatching = 0;
+    for (int chunk = 0; chunk * _header._chunkSize < numRows; chunk++) {
+      List<ArrayNode> filterValues = new ArrayList<>(filters.size());
+      for (ColumnFilter filter : filters) {
+        filterValues.add(readChunk(_columnIndices.get(filter.getColumn()), chunk));
+      }
+      int chunkRows = filterValues.get(0).size();
+      for (int i = 0; i < chunkRows; i++) {
+        boolean matches = true;
+        for (int f = 0; f < filters.size() && matches; f++) {
+          matches = filters.get(f).matches(filterValues.get(f).get(i));
+        }
+        if (matches) {
+          rowIds[numMatching++] = chunk * _header._chunkSize + i;
+        }
+      }
+    }
+    return Arrays.copyOf(rowIds, numMatching);
+  }
+
+  /** Stably sorts {@code rowIds}, which must be increasing, by the given columns' sort indexes. */
+  private @Nonnull int[] sort(int[] rowIds, List<ColumnSortOption> sortOrder) throws IOException {
+    int[][] keys = new int[sortOrder.size()][];
+    for (int k = 0; k < keys.length; k++) {
+      ColumnSortOption sortOption = sortOrder.get(k);
+      keys[k] = readRanks(_columnIndices.get(sortOption.getColumn()));
+      if (sortOption.getReversed()) {
+        int[] ranks = keys[k];
+        Arrays.setAll(ranks, i -> -ranks[i]);
+      }
+    }
+    if (keys.length == 1) {
+      // ties are broken by row ID, so sorting the packed keys is stable
+      int[] key = keys[0];
+      long[] packed = new long[rowIds.length];
+      for (int i = 0; i < rowIds.length; i++) {
+        packed[i] = ((long) key[rowIds[i]] << 32) | rowIds[i];
+      }
+      Arrays.sort(packed);
+      int[] sorted = new int[rowIds.length];
+      Arrays.setAll(sorted, i -> (int) packed[i]);
+      return sorted;
+    }
+    Comparator<Integer> comparator = Comparator.comparingInt(rowId -> keys[0][rowId]);
+    for (int k = 1; k < keys.length; k++) {
+      int[] key = keys[k];
+      comparator = comparator.thenComparingInt(rowId -> key[rowId]);
+    }
+    return Arrays.stream(rowIds).boxed().sorted(comparator).mapToInt(Integer::intValue).toArray();
+  }
+
+  private @Nonnull Row buildRow(int rowId, List<String> columns) throws IOException {
+    int chunk = rowId / _header._chunkSize;
+    int index = rowId % _header._chunkSize;
+    Row.UntypedRowBuilder row = Row.builder();
+    for (String column : columns) {
+      row.put(column, readChunk(_columnIndices.get(column), chunk).get(index));
+    }
+    return row.build();
+  }
+
+  /** Reads the values of the given column for the given chunk of rows. */
+  private @Nonnull ArrayNode readChunk(int column, int chunk) throws IOException {
+    long key = ((long) column << 32) | chunk;
+    ArrayNode values = _chunkCache.get(key);
+    if (values != null) {
+      return values;
+    }
+    List<Long> offsets = _header._chunkOffsets.get(column);
+    long start = offsets.get(chunk);
+    ByteBuffer buffer = ByteBuffer.allocate(Math.toIntExact(offsets.get(chunk + 1) - start));
+    try (FileChannel channel =
+        FileChannel.open(_dir.resolve(columnFile(column)), StandardOpenOption.READ)) {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, start + buffer.position()) < 0) {
+          throw new EOFException(
+              String.format("Truncated chunk %s of column %s in %s", chunk, column, _dir));
+        }
+      }
+    }
+    values = (ArrayNode) BatfishObjectMapper.mapper().readTree(buffer.array());
+    _chunksRead++;
+    _chunkCache.put(key, values);
+    return values;
+  }
+
+  private @Nonnull int[] readRanks(int column) throws IOException {
+    int[] ranks = new int[_header._numRows];
+    ByteBuffer.wrap(Files.readAllBytes(_dir.resolve(rankFile(column)))).asIntBuffer().get(ranks);
+    return ranks;
+  }
+
+  /**
+   * Returns the columns of the rows of {@code table}, in the order of the first row, or {@code
+   * null} if not all rows have the same columns.
+   */
+  private static @Nullable List<String> getColumns(TableAnswerElement table) {
+    List<Row> rows = table.getRowsList();
+    if (rows.isEmpty()) {
+      return table.getMetadata().getColumnMetadata().stream()
+          .map(ColumnMetadata::getName)
+          .collect(ImmutableList.toImmutableList());
+    }
+    JsonNode firstRow = BatfishObjectMapper.mapper().valueToTree(rows.get(0));
+    List<String> columns = ImmutableList.copyOf(firstRow.fieldNames());
+    Set<String> columnSet = ImmutableSet.copyOf(columns);
+    for (Row row : rows) {
+      if (!row.getColumnNames().equals(columnSet)) {
+        return null;
+      }
+    }
+    return columns;
+  }
+
+  /**
+   * Returns the dense rank of each row in the sort order of the given column, or {@code null} if
+   * the column's values cannot be compared.
+   */
+  private static @Nullable int[] computeRanks(List<Row> rows, ColumnMetadata columnMetadata) {
+    String column = columnMetadata.getName();
+    Schema schema = columnMetadata.getSchema();
+    Comparator<Object> comparator = RowComparators.valueComparator(schema);
+    try {
+      Object[] values = new Object[rows.size()];
+      for (int i = 0; i < values.length; i++) {
+        values[i] = rows.get(i).get(column, schema);
+      }
+      Integer[] order = new Integer[values.length];
+      Arrays.setAll(order, i -> i);
+      Arrays.sort(order, (i, j) -> comparator.compare(values[i], values[j]));
+      int[] ranks = new int[values.length];
+      int rank = 0;
+      for (int i = 0; i < order.length; i++) {
+        if (i > 0 && comparator.compare(values[order[i - 1]], values[order[i]]) != 0) {
+          rank++;
+        }
+        ranks[order[i]] = rank;
+      }
+      return ranks;
+    } catch (RuntimeException e) {
+      // E.g., a value does not conform to the column's schema, so sorting by this column falls
+      // back to sorting the whole table, which reports the error.
+      return null;
+    }
+  }
+
+  private static @Nonnull String columnFile(int column) {
+    return String.format("column-%d.json", column);
+  }
+
+  private static @Nonnull String rankFile(int column) {
+    return String.format("rank-%d.bin", column);
+  }
+
+  private PagedTableAnswer(Path dir, Header header) {
+    _dir = dir;
+    _header = header;
+    _columnIndices = new LinkedHashMap<>();
+    for (int c = 0; c < header._columns.size(); c++) {
+      _columnIndices.put(header._columns.get(c), c);
+    }
+    _chunkCache =
+        new LinkedHashMap<Long, ArrayNode>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Entry<Long, ArrayNode> eldest) {
+            return size() > MAX_CACHED_CHUNKS;
+          }
+        };
+  }
+
+  private final @Nonnull Path _dir;
+  private final @Nonnull Header _header;
+  private final @Nonnull Map<String, Integer> _columnIndices;
+  private final @Nonnull Map<Long, ArrayNode> _chunkCache;
+  private int _chunksRead;
+
+  /** The contents of {@code header.json}. */
+  private static final class Header {
+    private static final String PROP_CHUNK_OFFSETS = "chunkOffsets";
+    private static final String PROP_CHUNK_SIZE = "chunkSize";
+    private static final String PROP_COLUMNS = "columns";
+    private static final String PROP_METADATA = "metadata";
+    private static final String PROP_NUM_ROWS = "numRows";
+    private static final String PROP_RANKED_COLUMNS = "rankedColumns";
+    private static final String PROP_SUMMARY = "summary";
+
+    @JsonCreator
+    private static @Nonnull Header create(
+        @JsonProperty(PROP_METADATA) @Nullable TableMetadata metadata,
+        @JsonProperty(PROP_SUMMARY) @Nullable AnswerSummary summary,
+        @JsonProperty(PROP_COLUMNS) @Nullable List<String> columns,
+        @JsonProperty(PROP_NUM_ROWS) @Nullable Integer numRows,
+        @JsonProperty(PROP_CHUNK_SIZE) @Nullable Integer chunkSize,
+        @JsonProperty(PROP_CHUNK_OFFSETS) @Nullable List<List<Long>> chunkOffsets,
+        @JsonProperty(PROP_RANKED_COLUMNS) @Nullable SortedSet<String> rankedColumns) {
+      checkArgument(metadata != null, "Missing %s", PROP_METADATA);
+      checkArgument(columns != null, "Missing %s", PROP_COLUMNS);
+      checkArgument(numRows != null, "Missing %s", PROP_NUM_ROWS);
+      checkArgument(chunkSize != null, "Missing %s", PROP_CHUNK_SIZE);
+      checkArgument(chunkOffsets != null, "Missing %s", PROP_CHUNK_OFFSETS);
+      return new Header(
+          metadata,
+          summary,
+          ImmutableList.copyOf(columns),
+          numRows,
+          chunkSize,
+          ImmutableList.copyOf(chunkOffsets),
+          ImmutableSortedSet.copyOf(firstNonNull(rankedColumns, ImmutableSortedSet.of())));
+    }
+
+    private Header(
+        TableMetadata metadata,
+        @Nullable AnswerSummary summary,
+        List<String> columns,
+        int numRows,
+        int chunkSize,
+        List<List<Long>> chunkOffsets,
+        SortedSet<String> rankedColumns) {
+      _metadata = metadata;
+      _summary = summary;
+      _columns = columns;
+      _numRows = numRows;
+      _chunkSize = chunkSize;
+      _chunkOffsets = chunkOffsets;
+      _rankedColumns = rankedColumns;
+    }
+
+    @JsonProperty(PROP_CHUNK_OFFSETS)
+    private @Nonnull List<List<Long>> getChunkOffsets() {
+      return _chunkOffsets;
+    }
+
+    @JsonProperty(PROP_CHUNK_SIZE)
+    private int getChunkSize() {
+      return _chunkSize;
+    }
+
+    @JsonProperty(PROP_COLUMNS)
+    private @Nonnull List<String> getColumns() {
+      return _columns;
+    }
+
+    @JsonProperty(PROP_METADATA)
+    private @Nonnull TableMetadata getMetadata() {
+      return _metadata;
+    }
+
+    @JsonProperty(PROP_NUM_ROWS)
+    private int getNumRows() {
+      return _numRows;
+    }
+
+    @JsonProperty(PROP_RANKED_COLUMNS)
+    private @Nonnull SortedSet<String> getRankedColumns() {
+      return _rankedColumns;
+    }
+
+    @JsonProperty(PROP_SUMMARY)
+    private @Nullable AnswerSummary getSummary() {
+      return _summary;
+    }
+
+    private final @Nonnull TableMetadata _metadata;
+    private final @Nullable AnswerSummary _summary;
+    private final @Nonnull List<String> _columns;
+    private final int _numRows;
+    private final int _chunkSize;
+    private final @Nonnull List<List<Long>> _chunkOffsets;
+    private final @Nonnull SortedSet<String> _rankedColumns;
+  }
+}
@@ -0,0 +1,313 @@
+package org.batfish.storage;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream.BLOCKSIZE;
+import org.batfish.common.BatfishException;
+
+/**
+ * A versioned file of independently readable, named sections, each holding one LZ4-compressed
+ * Java-serialized object.
+ *
+ * <p>The file is memory-mapped when opened, and a section is only read and deserialized when it is
+ * requested, so readers pay only for the sections they use. Layout:
+ *
+ * <ul>
+ *   <li>header: the magic bytes {@code BFSA}, the format version as an int, and the offset of the
+ *       index as a long
+ *   <li>the sections, back to back
+ *   <li>index: the number of sections as an int, then for each section its name (modified UTF-8),
+ *       offset as a long, and length as an int
+ * </ul>
+ */
+@ParametersAreNonnullByDefault
+final class SectionedArtifact {
+
+  /** The version of the layout written by {@link Writer}. */
+  static final int VERSION = 1;
+
+  private static final byte[] MAGIC = {'B', 'F', 'S', 'A'};
+  private static final int HEADER_LENGTH = MAGIC.length + Integer.BYTES + Long.BYTES;
+
+  /**
+   * Returns {@code true} iff the given file starts with the magic bytes of a sectioned artifact.
+   * Returns {@code false} if the file does not exist.
+   */
+  static boolean isSectionedArtifact(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+      while (magic.hasRemaining() && channel.read(magic) >= 0) {}
+      return !magic.hasRemaining() && Arrays.equals(magic.array(), MAGIC);
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Opens and memory-maps the sectioned artifact in the given file.
+   *
+   * @throws BatfishException if the file is not a sectioned artifact of a supported version
+   */
+  static @Nonnull SectionedArtifact open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer header = read(channel, 0, HEADER_LENGTH);
+      byte[] magic = new byte[MAGIC.length];
+      header.get(magic);
+      if (!Arrays.equals(magic, MAGIC)) {
+        throw new BatfishException(String.format("%s is not a sectioned artifact", file));
+      }
+      int version = header.getInt();
+      if (version != VERSION) {
+        throw new BatfishException(
+            String.format(
+                "Unsupported version %d of sectioned artifact %s, expected %d",
+                version, file, VERSION));
+      }
+      long indexOffset = header.getLong();
+      ByteBuffer index = read(channel, indexOffset, (int) (channel.size() - indexOffset));
+      DataInputStream in =
+          new DataInputStream(
+              new ByteArrayInputStream(index.array(), index.position(), index.remaining()));
+      int numSections = in.readInt();
+      List<String> names = new ArrayList<>(numSections);
+      long[] offsets = new long[numSections];
+      int[] lengths = new int[numSections];
+      for (int i = 0; i < numSections; i++) {
+        names.add(in.readUTF());
+        offsets[i] = in.readLong();
+        lengths[i] = in.readInt();
+      }
+      return new SectionedArtifact(file, mapSections(channel, names, offsets, lengths));
+    }
+  }
+
+  /** Returns the names of the sections in this artifact, in the order they were written. */
+  @Nonnull
+  Set<String> getSectionNames() {
+    return _sections.keySet();
+  }
+
+  /**
+   * Reads and deserializes the section with the given name. Each call deserializes a new copy;
+   * callers are responsible for caching.
+   *
+   * @throws BatfishException if there is no such section, or it cannot be deserialized
+   */
+  @Nonnull
+  <S> S readSection(String name, Class<S> outputClass) {
+    ByteBuffer section = _sections.get(name);
+    if (section == null) {
+      throw new BatfishException(String.format("No section '%s' in %s", name, _file));
+    }
+    try (ObjectInputStream ois =
+        new ObjectInputStream(
+            new LZ4FrameInputStream(new ByteBufferInputStream(section.duplicate())))) {
+      return outputClass.cast(ois.readObject());
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      throw new BatfishException(
+          String.format(
+              "Failed to deserialize section '%s' of type %s from %s",
+              name, outputClass.getCanonicalName(), _file),
+          e);
+    }
+  }
+
+  /** Writes a sectioned artifact to a file, one section at a time. */
+  static final class Writer implements AutoCloseable {
+
+    /** Creates or truncates the given file and writes the header of an empty artifact to it. */
+    static @Nonnull Writer create(Path file) throws IOException {
+      FileChannel channel =
+          FileChannel.open(
+              file,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.TRUNCATE_EXISTING,
+              StandardOpenOption.WRITE);
+      try {
+        return new Writer(channel);
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+    }
+
+    /** Serializes the given object as the next section, with the given name. */
+    void writeSection(String name, Serializable object) throws IOException {
+      checkState(_indexOffset < 0, "Artifact is already finished");
+      checkArgument(!_offsets.containsKey(name), "Duplicate section '%s'", name);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      // Small blocks, since readers allocate a buffer of the block size for every section read.
+      try (ObjectOutputStream oos =
+          new ObjectOutputStream(new LZ4FrameOutputStream(bytes, BLOCKSIZE.SIZE_64KB))) {
+        oos.writeObject(object);
+      }
+      long offset = _channel.position();
+      writeFully(ByteBuffer.wrap(bytes.toByteArray()));
+      _offsets.put(name, offset);
+      _lengths.put(name, bytes.size());
+    }
+
+    /** Writes the index and the header. No more sections can be written afterwards. */
+    void finish() throws IOException {
+      checkState(_indexOffset < 0, "Artifact is already finished");
+      _indexOffset = _channel.position();
+      ByteArrayOutputStream index = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(index)) {
+        out.writeInt(_offsets.size());
+        for (Map.Entry<String, Long> entry : _offsets.entrySet()) {
+          out.writeUTF(entry.getKey());
+          out.writeLong(entry.getValue());
+          out.writeInt(_lengths.get(entry.getKey()));
+        }
+      }
+      writeFully(ByteBuffer.wrap(index.toByteArray()));
+      _channel.position(0);
+      writeFully(header(_indexOffset));
+      _channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+      _channel.close();
+    }
+
+    private Writer(FileChannel channel) throws IOException {
+      _channel = channel;
+      _indexOffset = -1;
+      _offsets = new LinkedHashMap<>();
+      _lengths = new LinkedHashMap<>();
+      // placeholder, overwritten by finish
+      writeFully(header(0L));
+    }
+
+    private static @Nonnull ByteBuffer header(long indexOffset) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+      header.put(MAGIC).putInt(VERSION).putLong(indexOffset);
+      ((Buffer) header).flip();
+      return header;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+      while (buffer.hasRemaining()) {
+        _channel.write(buffer);
+      }
+    }
+
+    private final @Nonnull FileChannel _channel;
+    private long _indexOffset;
+    private final @Nonnull Map<String, Long> _offsets;
+    private final @Nonnull Map<String, Integer> _lengths;
+  }
+
+  private static final int MAX_MAPPING_SIZE = Integer.MAX_VALUE;
+
+  /**
+   * Maps the given sections, sharing one mapping among consecutive sections as long as it stays
+   * below {@link #MAX_MAPPING_SIZE}, and returns a read-only view of each section by name.
+   */
+  private static @Nonnull Map<String, ByteBuffer> mapSections(
+      FileChannel channel, List<String> names, long[] offsets, int[] lengths) throws IOException {
+    ImmutableMap.Builder<String, ByteBuffer> sections = ImmutableMap.builder();
+    int i = 0;
+    while (i < names.size()) {
+      long start = offsets[i];
+      int end = i;
+      // sections are written back to back, so consecutive sections are contiguous
+      while (end < names.size() && offsets[end] + lengths[end] - start <= MAX_MAPPING_SIZE) {
+        end++;
+      }
+      long mappingSize = offsets[end - 1] + lengths[end - 1] - start;
+      MappedByteBuffer mapping = channel.map(MapMode.READ_ONLY, start, mappingSize);
+      for (int j = i; j < end; j++) {
+        ByteBuffer section = mapping.duplicate();
+        ((Buffer) section).position((int) (offsets[j] - start));
+        ((Buffer) section).limit((int) (offsets[j] - start) + lengths[j]);
+        sections.put(names.get(j), section.slice().asReadOnlyBuffer());
+      }
+      i = end;
+    }
+    return sections.build();
+  }
+
+  private static @Nonnull ByteBuffer read(FileChannel channel, long position, int length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new BatfishException("Unexpected end of sectioned artifact");
+      }
+    }
+    ((Buffer) buffer).flip();
+    return buffer;
+  }
+
+  /** An {@link InputStream} over the remaining bytes of a {@link ByteBuffer}. */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private ByteBufferInputStream(ByteBuffer buffer) {
+      _buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return _buffer.hasRemaining() ? Byte.toUnsignedInt(_buffer.get()) : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      if (len == 0) {
+        return 0;
+      }
+      if (!_buffer.hasRemaining()) {
+        return -1;
+      }
+      int n = Math.min(len, _buffer.remaining());
+      _buffer.get(b, off, n);
+      return n;
+    }
+
+    @Override
+    public int available() {
+      return _buffer.remaining();
+    }
+
+    private final @Nonnull ByteBuffer _buffer;
+  }
+
+  private SectionedArtifact(Path file, Map<String, ByteBuffer> sections) {
+    _file = file;
+    _sections = sections;
+  }
+
+  private final @Nonnull Path _file;
+  private final @Nonnull Map<String, ByteBuffer> _sections;
+}
@@ -0,0 +1,405 @@
+package org.batfish.storage;
+
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ForwardingTable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Table;
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.EvpnRoute;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.ForwardingAnalysis;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.vxlan.Layer2Vni;
+
+/**
+ * A {@link DataPlane} stored as a {@link SectionedArtifact}, with one section per node and VRF.
+ *
+ * <p>A loaded data plane only deserializes the section of a node and VRF when one of its structures
+ * is first accessed, so questions that touch a few nodes only pay for those nodes. Which nodes and
+ * VRFs each structure has is stored in a small layout section, so that key sets and {@link
+ * Table#row(Object) table rows} are available without reading any other section.
+ *
+ * <p>Loaded data planes are views of the mapped file, and cannot themselves be Java-serialized.
+ */
+@ParametersAreNonnullByDefault
+final class SectionedDataPlane implements DataPlane {
+
+  /** Writes the given data plane to the given file as a sectioned artifact. */
+  static void write(DataPlane dataPlane, Path file) throws IOException {
+    Map<Part, SortedMap<String, SortedSet<String>>> keys = new EnumMap<>(Part.class);
+    SortedMap<String, SortedMap<String, EnumMap<Part, Object>>> vrfs = new TreeMap<>();
+    for (Part part : Part.values()) {
+      SortedMap<String, SortedSet<String>> partKeys = new TreeMap<>();
+      part.entries(dataPlane)
+          .forEach(
+              (node, vrfValues) -> {
+                partKeys.put(node, new TreeSet<>(vrfValues.keySet()));
+                vrfValues.forEach(
+                    (vrf, value) ->
+                        vrfs.computeIfAbsent(node, n -> new TreeMap<>())
+                            .computeIfAbsent(vrf, v -> new EnumMap<>(Part.class))
+                            .put(part, value));
+              });
+      keys.put(part, partKeys);
+    }
+
+    SortedMap<String, SortedMap<String, Integer>> sectionIds = new TreeMap<>();
+    try (SectionedArtifact.Writer writer = SectionedArtifact.Writer.create(file)) {
+      int id = 0;
+      for (Map.Entry<String, SortedMap<String, EnumMap<Part, Object>>> nodeEntry :
+          vrfs.entrySet()) {
+        for (Map.Entry<String, EnumMap<Part, Object>> vrfEntry : nodeEntry.getValue().entrySet()) {
+          writer.writeSection(vrfSectionName(id), vrfEntry.getValue());
+          sectionIds
+              .computeIfAbsent(nodeEntry.getKey(), n -> new TreeMap<>())
+              .put(vrfEntry.getKey(), id);
+          id++;
+        }
+      }
+      ForwardingAnalysis forwardingAnalysis = dataPlane.getForwardingAnalysis();
+      if (forwardingAnalysis instanceof Serializable) {
+        writer.writeSection(SECTION_FORWARDING_ANALYSIS, (Serializable) forwardingAnalysis);
+      } else if (forwardingAnalysis != null) {
+        throw new NotSerializableException(forwardingAnalysis.getClass().getName());
+      }
+      writer.writeSection(SECTION_LAYOUT, new Layout(keys, sectionIds));
+      writer.finish();
+    }
+  }
+
+  /** Opens the data plane in the given file, which must have been written by {@link #write}. */
+  static @Nonnull SectionedDataPlane open(Path file) throws IOException {
+    SectionedArtifact artifact = SectionedArtifact.open(file);
+    return new SectionedDataPlane(artifact, artifact.readSection(SECTION_LAYOUT, Layout.class));
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<Bgpv4Route>> getBgpRoutes() {
+    return _bgpRoutes;
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<Bgpv4Route>> getBgpBackupRoutes() {
+    return _bgpBackupRoutes;
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnRoutes() {
+    return _evpnRoutes;
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<EvpnRoute<?, ?>>> getEvpnBackupRoutes() {
+    return _evpnBackupRoutes;
+  }
+
+  @Nonnull
+  @Override
+  public Map<String, Map<String, Fib>> getFibs() {
+    return _fibs;
+  }
+
+  @Override
+  public ForwardingAnalysis getForwardingAnalysis() {
+    return _forwardingAnalysis.get();
+  }
+
+  @Nonnull
+  @Override
+  public SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>> getRibs() {
+    return _ribs;
+  }
+
+  @Nonnull
+  @Override
+  public SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+      getPrefixTracingInfoSummary() {
+    return _prefixTracingInfoSummary;
+  }
+
+  @Nonnull
+  @Override
+  public Table<String, String, Set<Layer2Vni>> getLayer2Vnis() {
+    return _layer2Vnis;
+  }
+
+  /** Returns the number of node/VRF sections deserialized so far. */
+  int getSectionsRead() {
+    return (int) _vrfSections.stream().filter(s -> s._read).count();
+  }
+
+  /** The per-node, per-VRF structures of a data plane, each stored in the node/VRF sections. */
+  private enum Part {
+    BGP_ROUTES {
+      @Override
+      Map<String, ? extends Map<String, ?>> entries(DataPlane dataPlane) {
+        return rowMap(dataPlane.getBgpRoutes());
+      }
+    },
+    BGP_BACKUP_ROUTES {
+      @Override
+      Map<String, ? extends Map<String, ?>> entries(DataPlane dataPlane) {
+        return rowMap(dataPlane.getBgpBackupRoutes());
+      }
+    },
+    EVPN_ROUTES {
+      @Override
+      Map<String, ? extends Map<String, ?>> entries(DataPlane dataPlane) {
+        return rowMap(dataPlane.getEvpnRoutes());
+      }
+    },
+    EVPN_BACKUP_ROUTES {
+      @Override
+      Map<String, ? extends Map<String, ?>> entries(DataPlane dataPlane) {
+        return rowMap(dataPlane.getEvpnBackupRoutes());
+      }
+    },
+    FIBS {
+      @Override
+      Map<String, ? extends Map<String, ?>> entries(DataPlane dataPlane) {
+        return nullToEmpty(dataPlane.getFibs());
+      }
+    },
+    LAYER2_VNIS {
+      @Override
+      Map<String, ? extends Map<String, ?>> entries(DataPlane dataPlane) {
+        return rowMap(dataPlane.getLayer2Vnis());
+      }
+    },
+    PREFIX_TRACING_INFO_SUMMARY {
+      @Override
+      Map<String, ? extends Map<String, ?>> entries(DataPlane dataPlane) {
+        return nullToEmpty(dataPlane.getPrefixTracingInfoSummary());
+      }
+    },
+    RIBS {
+      @Override
+      Map<String, ? extends Map<String, ?>> entries(DataPlane dataPlane) {
+        return nullToEmpty(dataPlane.getRibs());
+      }
+    };
+
+    /** Returns this structure of the given data plane, by node, then VRF. */
+    abstract Map<String, ? extends Map<String, ?>> entries(DataPlane dataPlane);
+
+    private static Map<String, ? extends Map<String, ?>> rowMap(
+        @Nullable Table<String, String, ?> table) {
+      return table == null ? ImmutableMap.of() : table.rowMap();
+    }
+
+    private static Map<String, ? extends Map<String, ?>> nullToEmpty(
+        @Nullable Map<String, ? extends Map<String, ?>> map) {
+      return map == null ? ImmutableMap.of() : map;
+    }
+  }
+
+  /** Which nodes and VRFs each {@link Part} has, and which section holds each node and VRF. */
+  private static final class Layout implements Serializable {
+
+    private Layout(
+        Map<Part, SortedMap<String, SortedSet<String>>> keys,
+        SortedMap<String, SortedMap<String, Integer>> sectionIds) {
+      _keys = new EnumMap<>(Part.class);
+      keys.forEach(
+          (part, partKeys) ->
+              _keys.put(
+                  part,
+                  ImmutableSortedMap.copyOf(
+                      Maps.transformValues(partKeys, ImmutableSortedSet::copyOf))));
+      _sectionIds = ImmutableSortedMap.copyOf(Maps.transformValues(sectionIds, HashMap::new));
+    }
+
+    private final @Nonnull EnumMap<Part, ImmutableSortedMap<String, ImmutableSortedSet<String>>>
+        _keys;
+    private final @Nonnull ImmutableSortedMap<String, HashMap<String, Integer>> _sectionIds;
+  }
+
+  /** A node/VRF section, deserialized on first use. */
+  private static final class VrfSection {
+
+    private VrfSection(SectionedArtifact artifact, int id) {
+      _contents =
+          Suppliers.memoize(
+              () -> {
+                @SuppressWarnings("unchecked")
+                EnumMap<Part, Object> contents =
+                    artifact.readSection(vrfSectionName(id), EnumMap.class);
+                _read = true;
+                return contents;
+              });
+    }
+
+    private final @Nonnull Supplier<EnumMap<Part, Object>> _contents;
+    private volatile boolean _read;
+  }
+
+  /**
+   * A {@link Table} whose rows and cells are read lazily from the node/VRF sections. Operations
+   * over the whole table, such as {@link Table#cellSet()}, read all of its sections.
+   */
+  private final class SectionedTable<V> extends ForwardingTable<String, String, V> {
+
+    private SectionedTable(Part part) {
+      _part = part;
+      _rows = _layout._keys.get(part);
+      _all =
+          Suppliers.memoize(
+              () -> {
+                ImmutableTable.Builder<String, String, V> table = ImmutableTable.builder();
+                _rows.forEach(
+                    (node, vrfs) ->
+                        vrfs.forEach(
+                            vrf ->
+                                table.put(
+                                    node, vrf, SectionedDataPlane.this.<V>read(node, vrf, part))));
+                return table.build();
+              });
+    }
+
+    @Override
+    protected Table<String, String, V> delegate() {
+      return _all.get();
+    }
+
+    @Override
+    public boolean contains(@Nullable Object rowKey, @Nullable Object columnKey) {
+      SortedSet<String> vrfs = rowKey == null ? null : _rows.get(rowKey);
+      return vrfs != null && columnKey != null && vrfs.contains(columnKey);
+    }
+
+    @Override
+    public boolean containsRow(@Nullable Object rowKey) {
+      return rowKey != null && _rows.containsKey(rowKey);
+    }
+
+    @Override
+    public V get(@Nullable Object rowKey, @Nullable Object columnKey) {
+      return contains(rowKey, columnKey)
+          ? SectionedDataPlane.this.read((String) rowKey, (String) columnKey, _part)
+          : null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return _rows.isEmpty();
+    }
+
+    @Override
+    public Map<String, V> row(String rowKey) {
+      SortedSet<String> vrfs = _rows.get(rowKey);
+      return vrfs == null
+          ? ImmutableMap.of()
+          : Maps.asMap(vrfs, vrf -> SectionedDataPlane.this.read(rowKey, vrf, _part));
+    }
+
+    @Override
+    public Set<String> rowKeySet() {
+      return _rows.keySet();
+    }
+
+    @Override
+    public Map<String, Map<String, V>> rowMap() {
+      return Maps.asMap(_rows.keySet(), this::row);
+    }
+
+    @Override
+    public int size() {
+      return _rows.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private final @Nonnull Part _part;
+    private final @Nonnull SortedMap<String, ImmutableSortedSet<String>> _rows;
+    private final @Nonnull Supplier<Table<String, String, V>> _all;
+  }
+
+  private static final String SECTION_FORWARDING_ANALYSIS = "forwarding_analysis";
+  private static final String SECTION_LAYOUT = "layout";
+
+  private static @Nonnull String vrfSectionName(int id) {
+    return "vrf_" + id;
+  }
+
+  private SectionedDataPlane(SectionedArtifact artifact, Layout layout) {
+    _layout = layout;
+    ImmutableList.Builder<VrfSection> vrfSections = ImmutableList.builder();
+    for (int id = 0; artifact.getSectionNames().contains(vrfSectionName(id)); id++) {
+      vrfSections.add(new VrfSection(artifact, id));
+    }
+    _vrfSections = vrfSections.build();
+    _forwardingAnalysis =
+        Suppliers.memoize(
+            () ->
+                artifact.getSectionNames().contains(SECTION_FORWARDING_ANALYSIS)
+                    ? artifact.readSection(SECTION_FORWARDING_ANALYSIS, ForwardingAnalysis.class)
+                    : null);
+    _bgpRoutes = new SectionedTable<>(Part.BGP_ROUTES);
+    _bgpBackupRoutes = new SectionedTable<>(Part.BGP_BACKUP_ROUTES);
+    _evpnRoutes = new SectionedTable<>(Part.EVPN_ROUTES);
+    _evpnBackupRoutes = new SectionedTable<>(Part.EVPN_BACKUP_ROUTES);
+    _layer2Vnis = new SectionedTable<>(Part.LAYER2_VNIS);
+    _fibs = Collections.unmodifiableMap(this.<Fib>nestedMap(Part.FIBS));
+    _prefixTracingInfoSummary = nestedMap(Part.PREFIX_TRACING_INFO_SUMMARY);
+    _ribs = nestedMap(Part.RIBS);
+  }
+
+  /** Returns a view of the given part by node, then VRF, reading sections on first access. */
+  private <V> SortedMap<String, SortedMap<String, V>> nestedMap(Part part) {
+    return Maps.asMap(
+        _layout._keys.get(part).keySet(),
+        node -> Maps.asMap(_layout._keys.get(part).get(node), vrf -> read(node, vrf, part)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private <V> V read(String node, String vrf, Part part) {
+    int id = _layout._sectionIds.get(node).get(vrf);
+    return (V) _vrfSections.get(id)._contents.get().get(part);
+  }
+
+  private final @Nonnull Layout _layout;
+  private final @Nonnull List<VrfSection> _vrfSections;
+  private final @Nonnull Supplier<ForwardingAnalysis> _forwardingAnalysis;
+  private final @Nonnull Table<String, String, Set<Bgpv4Route>> _bgpRoutes;
+  private final @Nonnull Table<String, String, Set<Bgpv4Route>> _bgpBackupRoutes;
+  private final @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> _evpnRoutes;
+  private final @Nonnull Table<String, String, Set<EvpnRoute<?, ?>>> _evpnBackupRoutes;
+  private final @Nonnull Table<String, String, Set<Layer2Vni>> _layer2Vnis;
+  private final @Nonnull Map<String, Map<String, Fib>> _fibs;
+
+  private final @Nonnull SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
+      _prefixTracingInfoSummary;
+
+  private final @Nonnull SortedMap<
+          String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>>
+      _ribs;
+}
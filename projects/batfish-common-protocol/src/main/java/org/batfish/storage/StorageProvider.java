@@ -14,8 +14,10 @@ import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.common.AnswerRowsOptions;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.bdd.SnapshotAclBdds;
 import org.batfish.common.runtime.SnapshotRuntimeData;
 import org.batfish.common.topology.L3Adjacencies;
 import org.batfish.common.topology.Layer1Topology;
@@ -34,6 +36,7 @@ import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.eigrp.EigrpTopology;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.ospf.OspfTopology;
+import org.batfish.datamodel.table.TableView;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.AnswerId;
@@ -206,6 +209,24 @@ public interface StorageProvider {
   String loadAnswer(NetworkId network, SnapshotId snapshot, AnswerId answerId)
       throws FileNotFoundException, IOException;
 
+  /**
+   * Load the rows of a table answer to an ad-hoc or analysis question selected by {@code options},
+   * reading only the parts of the stored answer that are needed.
+   *
+   * @param network The id of the network
+   * @param snapshot The id of the snapshot
+   * @param answerId The ID of the answer
+   * @param options The filters, sort order, projection, and page of rows to select
+   * @return The selected rows, or {@link Optional#empty()} if the answer is not stored in a form
+   *     that supports this query. Callers should then apply {@code options} to the answer returned
+   *     by {@link #loadAnswer(NetworkId, SnapshotId, AnswerId)}.
+   * @throws IOException if there is an error reading the answer.
+   */
+  @Nonnull
+  Optional<TableView> loadAnswerRows(
+      NetworkId network, SnapshotId snapshot, AnswerId answerId, AnswerRowsOptions options)
+      throws IOException;
+
   /**
    * Load the metadata for the answer to an ad-hoc or analysis question.
    *
@@ -851,6 +872,22 @@ public interface StorageProvider {
   void storeConversionContext(ConversionContext conversionContext, NetworkSnapshot snapshot)
       throws IOException;
 
+  /**
+   * Loads the {@link SnapshotAclBdds} for the given {@link NetworkSnapshot}, if present.
+   *
+   * @throws IOException if there is an error reading the {@link SnapshotAclBdds}
+   */
+  @Nonnull
+  Optional<SnapshotAclBdds> loadSnapshotAclBdds(NetworkSnapshot snapshot) throws IOException;
+
+  /**
+   * Stores the {@link SnapshotAclBdds} for the given {@link NetworkSnapshot}.
+   *
+   * @throws IOException if there is an error
+   */
+  void storeSnapshotAclBdds(SnapshotAclBdds snapshotAclBdds, NetworkSnapshot snapshot)
+      throws IOException;
+
   /**
    * Loads the answer element that is the result of parsing vendor configurations for the given
    * snapshot.
@@ -914,6 +951,34 @@ public interface StorageProvider {
    */
   void deleteVendorConfigurations(NetworkSnapshot snapshot) throws IOException;
 
+  /**
+   * Loads the compiled vendor configuration stored under the given name for the given snapshot.
+   *
+   * @throws FileNotFoundException if no vendor configuration is stored under the given name
+   * @throws IOException if there is an error
+   */
+  @Nonnull
+  VendorConfiguration loadVendorConfiguration(NetworkSnapshot snapshot, String name)
+      throws FileNotFoundException, IOException;
+
+  /**
+   * Stores a single compiled vendor configuration under the given name for the given snapshot,
+   * replacing any vendor configuration already stored under that name.
+   *
+   * @throws IOException if there is an error
+   */
+  void storeVendorConfiguration(
+      VendorConfiguration vendorConfiguration, String name, NetworkSnapshot snapshot)
+      throws IOException;
+
+  /**
+   * Deletes the compiled vendor configuration stored under the given name for the given snapshot,
+   * if it exists.
+   *
+   * @throws IOException if there is an error
+   */
+  void deleteVendorConfiguration(NetworkSnapshot snapshot, String name) throws IOException;
+
   /**
    * Returns a list of snapshot input object keys corresponding to Checkpoint management servers.
    *
@@ -0,0 +1,68 @@
+package org.batfish.common.bdd;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import net.sf.javabdd.BDD;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.BatfishException;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+/** Tests of {@link BDDNodeTable}. */
+public class BDDNodeTableTest {
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private static List<BDD> bdds(BDDPacket pkt) {
+    BDD dstPrefix = pkt.getDstIpSpaceToBDD().toBDD(Prefix.parse("10.0.0.0/8"));
+    BDD srcIp = pkt.getSrcIpSpaceToBDD().toBDD(Ip.parse("1.2.3.4"));
+    BDD ssh = pkt.getDstPort().value(22);
+    return ImmutableList.of(
+        pkt.getFactory().zero(),
+        pkt.getFactory().one(),
+        dstPrefix.and(ssh),
+        dstPrefix.and(srcIp).or(ssh),
+        ssh.not());
+  }
+
+  @Test
+  public void testRoundTrip() {
+    BDDPacket oldPkt = new BDDPacket();
+    BDDNodeTable table = BDDNodeTable.create(oldPkt, bdds(oldPkt));
+    BDDNodeTable clone = SerializationUtils.clone(table);
+    assertThat(clone, equalTo(table));
+
+    BDDPacket pkt = new BDDPacket();
+    assertThat(clone.load(pkt), equalTo(bdds(pkt)));
+  }
+
+  @Test
+  public void testSharedNodes() {
+    BDDPacket pkt = new BDDPacket();
+    BDD ssh = pkt.getDstPort().value(22);
+    BDDNodeTable table = BDDNodeTable.create(pkt, ImmutableList.of(ssh, ssh, ssh.not()));
+    // ssh and its negation share no nodes, but each is stored only once.
+    assertThat(table.getNodeCount(), equalTo(ssh.nodeCount() * 2));
+
+    BDDPacket newPkt = new BDDPacket();
+    BDD newSsh = newPkt.getDstPort().value(22);
+    assertThat(table.load(newPkt), contains(newSsh, newSsh, newSsh.not()));
+  }
+
+  @Test
+  public void testLoadDifferentLayout() {
+    BDDPacket pkt = new BDDPacket();
+    BDD extra = pkt.allocateBDDBit("extra");
+    BDDNodeTable table =
+        BDDNodeTable.create(pkt, ImmutableList.of(extra.and(pkt.getDstPort().value(22))));
+
+    _thrown.expect(BatfishException.class);
+    table.load(new BDDPacket());
+  }
+}
@@ -0,0 +1,50 @@
+package org.batfish.common.bdd;
+
+import static org.batfish.datamodel.ExprAclLine.accepting;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrcInterface;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.permittedByAcl;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import net.sf.javabdd.BDD;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.junit.Test;
+
+/** Tests of {@link SnapshotAclBdds}. */
+public class SnapshotAclBddsTest {
+  private static final Prefix PREFIX = Prefix.parse("10.0.0.0/8");
+
+  @Test
+  public void testComputeAndLoad() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c =
+        nf.configurationBuilder()
+            .setHostname("c")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    IpAccessList.Builder ab = nf.aclBuilder().setOwner(c);
+    ab.setName("dst").setLines(ImmutableList.of(accepting(matchDst(PREFIX)))).build();
+    ab.setName("src").setLines(ImmutableList.of(accepting(matchSrcInterface("i1")))).build();
+    ab.setName("ref").setLines(ImmutableList.of(accepting(permittedByAcl("src")))).build();
+
+    SnapshotAclBdds snapshotAclBdds =
+        SerializationUtils.clone(SnapshotAclBdds.compute(ImmutableMap.of("c", c)));
+
+    BDDPacket pkt = new BDDPacket();
+    Map<String, Map<String, BDD>> bdds = snapshotAclBdds.load(pkt);
+    // ACLs that match on sources, directly or not, are not stored.
+    assertThat(
+        bdds,
+        equalTo(
+            ImmutableMap.of("c", ImmutableMap.of("dst", pkt.getDstIpSpaceToBDD().toBDD(PREFIX)))));
+  }
+}
@@ -10,6 +10,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.apache.commons.configuration2.BaseConfiguration;
 import org.apache.commons.configuration2.ImmutableConfiguration;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishLogger;
@@ -219,6 +220,11 @@ public class IBatfishTestAdapter implements IBatfish {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public Optional<NetworkSnapshot> getParentSnapshotWithDataPlane(NetworkSnapshot snapshot) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public NodeRolesData getNodeRolesData() {
     throw new UnsupportedOperationException();
@@ -231,7 +237,8 @@ public class IBatfishTestAdapter implements IBatfish {
 
   @Override
   public ImmutableConfiguration getSettingsConfiguration() {
-    throw new UnsupportedOperationException();
+    // no settings; callers use their defaults
+    return new BaseConfiguration();
   }
 
   @Override
@@ -1512,6 +1512,59 @@ public final class TopologyUtilTest {
     assertThat(t.getEdges(), equalTo(ImmutableSet.of(new Edge(i1, i2), new Edge(i2, i1))));
   }
 
+  @Test
+  public void testSynthesizeTopology_sharedSegment() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    Configuration c1 = cb.build();
+    Configuration c2 = cb.build();
+    Configuration c3 = cb.build();
+    Configuration c4 = cb.build();
+    Interface i1 =
+        nf.interfaceBuilder()
+            .setOwner(c1)
+            .setAddresses(ConcreteInterfaceAddress.parse("10.0.0.1/22"))
+            .build();
+    Interface i2 =
+        nf.interfaceBuilder()
+            .setOwner(c2)
+            .setAddresses(ConcreteInterfaceAddress.parse("10.0.0.2/22"))
+            .build();
+    // Narrower prefix with the same start IP
+    Interface i3 =
+        nf.interfaceBuilder()
+            .setOwner(c3)
+            .setAddresses(ConcreteInterfaceAddress.parse("10.0.0.3/24"))
+            .build();
+    // Narrower prefix with a different start IP
+    nf.interfaceBuilder()
+        .setOwner(c4)
+        .setAddresses(ConcreteInterfaceAddress.parse("10.0.1.4/24"))
+        .build();
+    Topology t =
+        TopologyUtil.synthesizeL3Topology(
+            ImmutableMap.of(
+                c1.getHostname(),
+                c1,
+                c2.getHostname(),
+                c2,
+                c3.getHostname(),
+                c3,
+                c4.getHostname(),
+                c4));
+    assertThat(
+        t.getEdges(),
+        equalTo(
+            ImmutableSet.of(
+                new Edge(i1, i2),
+                new Edge(i2, i1),
+                new Edge(i1, i3),
+                new Edge(i3, i1),
+                new Edge(i2, i3),
+                new Edge(i3, i2))));
+  }
+
   @Test
   public void testSynthesizeTopology_selfEdges() {
     NetworkFactory nf = new NetworkFactory();
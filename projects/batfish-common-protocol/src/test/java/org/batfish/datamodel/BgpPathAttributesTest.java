@@ -0,0 +1,61 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.testing.EqualsTester;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.datamodel.bgp.community.StandardCommunity;
+import org.batfish.datamodel.routing_policy.communities.CommunitySet;
+import org.junit.Test;
+
+/** Tests of {@link BgpPathAttributes} */
+public class BgpPathAttributesTest {
+
+  private static BgpPathAttributes create(long localPreference) {
+    return BgpPathAttributes.create(
+        AsPath.ofSingletonAsSets(1L, 2L),
+        ImmutableSet.of(3L),
+        CommunitySet.of(StandardCommunity.of(1, 1)),
+        localPreference,
+        0L,
+        Ip.parse("1.1.1.1"),
+        OriginType.IGP,
+        0);
+  }
+
+  @Test
+  public void testInterned() {
+    assertThat(create(100L), sameInstance(create(100L)));
+    assertThat(create(100L), not(sameInstance(create(200L))));
+  }
+
+  @Test
+  public void testEquals() {
+    new EqualsTester()
+        .addEqualityGroup(create(100L), create(100L))
+        .addEqualityGroup(create(200L))
+        .addEqualityGroup(
+            BgpPathAttributes.create(
+                null, null, CommunitySet.empty(), 100L, 0L, Ip.ZERO, OriginType.IGP, 0))
+        .testEquals();
+  }
+
+  @Test
+  public void testJavaSerialization() {
+    BgpPathAttributes attributes = create(100L);
+    assertThat(SerializationUtils.clone(attributes), sameInstance(attributes));
+  }
+
+  @Test
+  public void testRoutesShareAttributes() {
+    Bgpv4Route.Builder rb =
+        Bgpv4Route.testBuilder().setAsPath(AsPath.ofSingletonAsSets(1L)).setLocalPreference(200L);
+    Bgpv4Route r1 = rb.setNetwork(Prefix.parse("1.1.1.0/24")).build();
+    Bgpv4Route r2 = rb.setNetwork(Prefix.parse("2.2.2.0/24")).build();
+    assertThat(r1.getAttributes(), sameInstance(r2.getAttributes()));
+    assertThat(SerializationUtils.clone(r1).getAttributes(), sameInstance(r1.getAttributes()));
+  }
+}
@@ -0,0 +1,157 @@
+package org.batfish.datamodel;
+
+import static com.google.common.collect.Maps.immutableEntry;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.testing.EqualsTester;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.datamodel.PrefixMultiMap.FoldOperator;
+import org.junit.Test;
+
+/** Tests of {@link CompactPrefixTrieMultiMap} */
+public class CompactPrefixTrieMultiMapTest {
+
+  private static <T> List<Entry<Prefix, Set<T>>> entriesPostOrder(PrefixMultiMap<T> map) {
+    List<Entry<Prefix, Set<T>>> entries = new ArrayList<>();
+    map.traverseEntries((prefix, elems) -> entries.add(immutableEntry(prefix, elems)));
+    return entries;
+  }
+
+  /** A fold that reconstructs the trie as a string, to check structure and argument order. */
+  private static final FoldOperator<Integer, String> TO_STRING =
+      (prefix, elems, left, right) -> String.format("(%s %s %s %s)", prefix, elems, left, right);
+
+  /** Prefixes within a few /8s, so that random prefixes often overlap. */
+  private static Prefix randomPrefix(Random random) {
+    long ip = ((long) random.nextInt(4) << 24) | (random.nextInt() & 0xFFFFFFL);
+    return Prefix.create(Ip.create(ip), random.nextInt(Prefix.MAX_PREFIX_LENGTH + 1));
+  }
+
+  private static void assertSameContents(
+      CompactPrefixTrieMultiMap<Integer> compact, PrefixTrieMultiMap<Integer> node, Random random) {
+    assertThat(entriesPostOrder(compact), equalTo(entriesPostOrder(node)));
+    assertThat(compact.fold(TO_STRING), equalTo(node.fold(TO_STRING)));
+    assertThat(
+        ImmutableList.copyOf(compact.getAllElements()),
+        equalTo(ImmutableList.copyOf(node.getAllElements())));
+    for (int i = 0; i < 20; i++) {
+      Prefix prefix = randomPrefix(random);
+      assertThat(compact.get(prefix), equalTo(node.get(prefix)));
+      assertThat(
+          compact.longestPrefixMatch(prefix.getStartIp(), prefix.getPrefixLength()),
+          equalTo(node.longestPrefixMatch(prefix.getStartIp(), prefix.getPrefixLength())));
+      Ip ip = Ip.create(random.nextInt() & 0x03FFFFFFL);
+      assertThat(compact.longestPrefixMatch(ip), equalTo(node.longestPrefixMatch(ip)));
+      PrefixSpace space = new PrefixSpace(PrefixRange.sameAsOrMoreSpecificThan(prefix));
+      assertThat(compact.intersectsPrefixSpace(space), equalTo(node.intersectsPrefixSpace(space)));
+    }
+  }
+
+  @Test
+  public void testSameAsPrefixTrieMultiMap() {
+    Random random = new Random(0);
+    for (int trial = 0; trial < 50; trial++) {
+      boolean rooted = random.nextBoolean();
+      CompactPrefixTrieMultiMap<Integer> compact =
+          rooted ? new CompactPrefixTrieMultiMap<>(Prefix.ZERO) : new CompactPrefixTrieMultiMap<>();
+      PrefixTrieMultiMap<Integer> node =
+          rooted ? new PrefixTrieMultiMap<>(Prefix.ZERO) : new PrefixTrieMultiMap<>();
+      List<Prefix> keys = new ArrayList<>();
+      for (int op = 0; op < 200; op++) {
+        Prefix prefix =
+            keys.isEmpty() || random.nextBoolean()
+                ? randomPrefix(random)
+                : keys.get(random.nextInt(keys.size()));
+        int element = random.nextInt(4);
+        switch (random.nextInt(4)) {
+          case 0:
+            keys.add(prefix);
+            assertThat(compact.put(prefix, element), equalTo(node.put(prefix, element)));
+            break;
+          case 1:
+            keys.add(prefix);
+            Set<Integer> elements = ImmutableSet.of(element, element + 1, element + 2);
+            assertThat(compact.putAll(prefix, elements), equalTo(node.putAll(prefix, elements)));
+            break;
+          case 2:
+            assertThat(compact.remove(prefix, element), equalTo(node.remove(prefix, element)));
+            break;
+          default:
+            keys.add(prefix);
+            assertThat(
+                compact.replaceAll(prefix, element), equalTo(node.replaceAll(prefix, element)));
+            break;
+        }
+      }
+      assertSameContents(compact, node, random);
+      assertSameContents(SerializationUtils.clone(compact), node, random);
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    CompactPrefixTrieMultiMap<Integer> map = new CompactPrefixTrieMultiMap<>();
+    assertThat(entriesPostOrder(map), empty());
+    assertThat(map.fold(TO_STRING), equalTo(null));
+    assertThat(map.longestPrefixMatch(Ip.ZERO), empty());
+    assertThat(map.get(Prefix.ZERO), empty());
+    assertFalse(map.remove(Prefix.ZERO, 1));
+    assertFalse(map.intersectsPrefixSpace(new PrefixSpace(PrefixRange.ALL)));
+  }
+
+  @Test
+  public void testClear() {
+    CompactPrefixTrieMultiMap<Integer> map = new CompactPrefixTrieMultiMap<>(Prefix.ZERO);
+    for (int i = 0; i < 100; i++) {
+      map.put(Prefix.create(Ip.create(i << 8), 24), i);
+    }
+    map.clear();
+    assertThat(map.getAllElements(), empty());
+    assertTrue(map.put(Prefix.parse("1.1.1.0/24"), 1));
+    assertThat(map.longestPrefixMatch(Ip.parse("1.1.1.1")), contains(1));
+  }
+
+  @Test
+  public void testLongestPrefixMatch() {
+    CompactPrefixTrieMultiMap<Integer> map = new CompactPrefixTrieMultiMap<>(Prefix.ZERO);
+    map.put(Prefix.ZERO, 0);
+    map.put(Prefix.parse("10.0.0.0/8"), 8);
+    map.putAll(Prefix.parse("10.1.0.0/16"), ImmutableSet.of(16, 17));
+    map.put(Prefix.parse("10.1.1.1/32"), 32);
+
+    assertThat(map.longestPrefixMatch(Ip.parse("11.0.0.0")), contains(0));
+    assertThat(map.longestPrefixMatch(Ip.parse("10.2.0.0")), contains(8));
+    assertThat(map.longestPrefixMatch(Ip.parse("10.1.1.2")), contains(16, 17));
+    assertThat(map.longestPrefixMatch(Ip.parse("10.1.1.1")), contains(32));
+    assertThat(map.longestPrefixMatch(Ip.parse("10.1.1.1"), 31), contains(16, 17));
+    assertThat(map.longestPrefixMatch(Ip.parse("10.1.1.1"), 15), contains(8));
+  }
+
+  @Test
+  public void testEquals() {
+    CompactPrefixTrieMultiMap<Integer> map1 = new CompactPrefixTrieMultiMap<>(Prefix.ZERO);
+    map1.put(Prefix.ZERO, 1);
+    CompactPrefixTrieMultiMap<Integer> map1Again = new CompactPrefixTrieMultiMap<>(Prefix.ZERO);
+    map1Again.putAll(Prefix.ZERO, ImmutableSet.of(1, 2));
+    map1Again.remove(Prefix.ZERO, 2);
+    CompactPrefixTrieMultiMap<Integer> map2 = new CompactPrefixTrieMultiMap<>(Prefix.ZERO);
+    map2.put(Prefix.parse("1.1.1.0/24"), 1);
+    new EqualsTester()
+        .addEqualityGroup(map1, map1Again)
+        .addEqualityGroup(map2)
+        .addEqualityGroup(new CompactPrefixTrieMultiMap<>())
+        .testEquals();
+  }
+}
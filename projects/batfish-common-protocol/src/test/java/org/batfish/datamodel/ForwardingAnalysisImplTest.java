@@ -1,5 +1,6 @@
 package org.batfish.datamodel;
 
+import static org.batfish.common.util.CollectionUtil.toImmutableMap;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeArpFalseDestIp;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeArpFalseNextHopIp;
 import static org.batfish.datamodel.ForwardingAnalysisImpl.computeArpFalseNhipRoutes;
@@ -33,6 +34,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
@@ -40,13 +42,18 @@ import static org.junit.Assert.assertTrue;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.topology.IpOwners;
 import org.batfish.datamodel.visitors.GenericIpSpaceVisitor;
+import org.batfish.specifier.Location;
+import org.batfish.specifier.LocationInfo;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -1397,6 +1404,145 @@ public class ForwardingAnalysisImplTest {
     assertFalse(i1ForwardingBehavior.getInsufficientInfo().containsIp(ip2, c1.getIpSpaces()));
   }
 
+  @Test
+  public void testIncremental() {
+    Prefix prefix = Prefix.parse("1.0.0.0/24");
+    Configuration c1 = _cb.setHostname("c1").build();
+    Configuration c2 = _cb.setHostname("c2").build();
+    Configuration c3 = _cb.setHostname("c3").build();
+    Vrf v1 = _vb.setName("v1").setOwner(c1).build();
+    Vrf v2 = _vb.setName("v2").setOwner(c2).build();
+    Vrf v3 = _vb.setName("v3").setOwner(c3).build();
+    _ib.setActive(true);
+    Interface i1 =
+        _ib.setAddresses(ConcreteInterfaceAddress.parse("1.0.0.1/24"))
+            .setName("i1")
+            .setOwner(c1)
+            .setVrf(v1)
+            .build();
+    Interface i2 =
+        _ib.setAddresses(ConcreteInterfaceAddress.parse("1.0.0.2/24"))
+            .setName("i2")
+            .setOwner(c2)
+            .setVrf(v2)
+            .build();
+    Interface i3 =
+        _ib.setAddresses(ConcreteInterfaceAddress.parse("3.0.0.1/24"))
+            .setName("i3")
+            .setOwner(c3)
+            .setVrf(v3)
+            .build();
+
+    StaticRoute connected1 =
+        StaticRoute.testBuilder().setNetwork(prefix).setNextHopInterface(i1.getName()).build();
+    StaticRoute connected2 =
+        StaticRoute.testBuilder().setNetwork(prefix).setNextHopInterface(i2.getName()).build();
+    StaticRoute connected3 =
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse("3.0.0.0/24"))
+            .setNextHopInterface(i3.getName())
+            .build();
+    StaticRoute viaC2 =
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse("2.0.0.0/8"))
+            .setNextHopIp(i2.getConcreteAddress().getIp())
+            .build();
+    MockFib fib1 = fib(ImmutableMap.of(Ip.AUTO, new FibForward(Ip.AUTO, i1.getName())), connected1);
+    MockFib fib2 = fib(ImmutableMap.of(Ip.AUTO, new FibForward(Ip.AUTO, i2.getName())), connected2);
+    MockFib fib3 = fib(ImmutableMap.of(Ip.AUTO, new FibForward(Ip.AUTO, i3.getName())), connected3);
+
+    Map<String, Configuration> configs =
+        ImmutableMap.of(c1.getHostname(), c1, c2.getHostname(), c2, c3.getHostname(), c3);
+    Topology topology =
+        new Topology(
+            ImmutableSortedSet.of(
+                Edge.of(c1.getHostname(), i1.getName(), c2.getHostname(), i2.getName()),
+                Edge.of(c2.getHostname(), i2.getName(), c1.getHostname(), i1.getName())));
+    Map<Location, LocationInfo> locationInfo = computeLocationInfo(configs);
+    ForwardingAnalysisImpl base =
+        new ForwardingAnalysisImpl(
+            configs,
+            ImmutableMap.of(
+                c1.getHostname(), ImmutableMap.of(v1.getName(), fib1),
+                c2.getHostname(), ImmutableMap.of(v2.getName(), fib2),
+                c3.getHostname(), ImmutableMap.of(v3.getName(), fib3)),
+            topology,
+            locationInfo);
+
+    // c1 learns a route via c2
+    MockFib newFib1 =
+        MockFib.builder()
+            .setMatchingIps(
+                ImmutableMap.of(
+                    prefix, prefix.toIpSpace(), viaC2.getNetwork(), viaC2.getNetwork().toIpSpace()))
+            .setFibEntries(
+                ImmutableMap.of(
+                    Ip.AUTO,
+                    ImmutableSet.of(
+                        new FibEntry(
+                            new FibForward(Ip.AUTO, i1.getName()), ImmutableList.of(connected1))),
+                    viaC2.getNextHopIp(),
+                    ImmutableSet.of(
+                        new FibEntry(
+                            new FibForward(viaC2.getNextHopIp(), i1.getName()),
+                            ImmutableList.of(viaC2, connected1)))))
+            .build();
+    Map<String, Map<String, Fib>> newFibs =
+        ImmutableMap.of(
+            c1.getHostname(), ImmutableMap.of(v1.getName(), newFib1),
+            c2.getHostname(), ImmutableMap.of(v2.getName(), fib2),
+            c3.getHostname(), ImmutableMap.of(v3.getName(), fib3));
+
+    ForwardingAnalysisImpl full =
+        new ForwardingAnalysisImpl(configs, newFibs, topology, locationInfo);
+    ForwardingAnalysisImpl incremental =
+        ForwardingAnalysisImpl.incremental(
+            base,
+            ImmutableSetMultimap.of(c1.getHostname(), v1.getName()),
+            configs,
+            newFibs,
+            topology,
+            locationInfo);
+
+    assertThat(
+        incremental.getVrfForwardingBehavior(), not(equalTo(base.getVrfForwardingBehavior())));
+    assertThat(incremental.getArpReplies(), equalTo(full.getArpReplies()));
+    assertThat(incremental.getVrfForwardingBehavior(), equalTo(full.getVrfForwardingBehavior()));
+    // VRFs that cannot be affected by the change are reused
+    assertThat(
+        incremental.getVrfForwardingBehavior().get(c3.getHostname()).get(v3.getName()),
+        sameInstance(base.getVrfForwardingBehavior().get(c3.getHostname()).get(v3.getName())));
+
+    // A base loaded from storage is reused just the same
+    ForwardingAnalysisImpl deserializedBase = SerializationUtils.clone(base);
+    ForwardingAnalysisImpl fromDeserialized =
+        ForwardingAnalysisImpl.incremental(
+            deserializedBase,
+            ImmutableSetMultimap.of(c1.getHostname(), v1.getName()),
+            configs,
+            newFibs,
+            topology,
+            locationInfo);
+    assertThat(fromDeserialized.getArpReplies(), equalTo(full.getArpReplies()));
+    assertThat(
+        fromDeserialized.getVrfForwardingBehavior(), equalTo(full.getVrfForwardingBehavior()));
+    assertThat(
+        fromDeserialized.getVrfForwardingBehavior().get(c3.getHostname()).get(v3.getName()),
+        sameInstance(
+            deserializedBase.getVrfForwardingBehavior().get(c3.getHostname()).get(v3.getName())));
+  }
+
+  private static MockFib fib(Map<Ip, FibForward> actions, AbstractRoute route) {
+    return MockFib.builder()
+        .setMatchingIps(ImmutableMap.of(route.getNetwork(), route.getNetwork().toIpSpace()))
+        .setFibEntries(
+            toImmutableMap(
+                actions,
+                Entry::getKey,
+                e -> ImmutableSet.of(new FibEntry(e.getValue(), ImmutableList.of(route)))))
+        .build();
+  }
+
   private static class MockIpSpace extends IpSpace {
 
     private final int _num;
@@ -1,10 +1,11 @@
 package org.batfish.datamodel;
 
 import com.google.common.collect.ImmutableMap;
+import java.io.Serializable;
 import java.util.Map;
 import javax.annotation.Nonnull;
 
-public class MockForwardingAnalysis implements ForwardingAnalysis {
+public class MockForwardingAnalysis implements ForwardingAnalysis, Serializable {
   private final Map<String, Map<String, VrfForwardingBehavior>> _vrfForwardingBehavior;
   private final Map<String, Map<String, IpSpace>> _arpReplies;
 
@@ -2,6 +2,7 @@ package org.batfish.datamodel;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import java.io.Serializable;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.Set;
@@ -19,7 +20,9 @@ public class MockRib implements GenericRib<AnnotatedRoute<AbstractRoute>> {
     private Builder() {
       _longestPrefixMatchResults = ImmutableMap.of();
       _mergeRouteTrues = ImmutableSet.of();
-      _routePreferenceComparator = (a, b) -> 0;
+      // serializable, so that data planes containing mock RIBs can be stored
+      _routePreferenceComparator =
+          (Comparator<AnnotatedRoute<AbstractRoute>> & Serializable) (a, b) -> 0;
       _routes = ImmutableSet.of();
       _backupRoutes = ImmutableSet.of();
     }
@@ -21,7 +21,7 @@ import java.util.Set;
 import java.util.function.Predicate;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.batfish.datamodel.PrefixTrieMultiMap.FoldOperator;
+import org.batfish.datamodel.PrefixMultiMap.FoldOperator;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
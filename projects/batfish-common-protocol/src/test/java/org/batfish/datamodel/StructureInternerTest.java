@@ -0,0 +1,68 @@
+package org.batfish.datamodel;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.junit.Test;
+
+/** Tests of {@link StructureInterner}. */
+public final class StructureInternerTest {
+
+  private static Configuration configuration(NetworkFactory nf, String aclSourceName) {
+    Configuration c =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS).build();
+    IpAccessList.Builder ab = IpAccessList.builder().setOwner(c);
+    IpAccessList acl = ab.setName("acl").setLines(ExprAclLine.ACCEPT_ALL).build();
+    ab.setName("other").setSourceName(aclSourceName).setLines(ExprAclLine.REJECT_ALL).build();
+    nf.interfaceBuilder().setOwner(c).setName("i1").setIncomingFilter(acl).build();
+    c.getIpSpaces().put("space", Prefix.parse("10.0.0.0/8").toIpSpace());
+    c.getRouteFilterLists().put("rfl", new RouteFilterList("rfl"));
+    nf.routingPolicyBuilder()
+        .setOwner(c)
+        .setName("policy")
+        .setStatements(ImmutableList.of(Statements.ReturnTrue.toStaticStatement()))
+        .build();
+    return c;
+  }
+
+  @Test
+  public void testIntern() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c1 = configuration(nf, "source1");
+    Configuration c2 = configuration(nf, "source2");
+
+    StructureInterner interner = new StructureInterner();
+    interner.intern(c1);
+    interner.intern(c2);
+
+    IpAccessList acl = c1.getIpAccessLists().get("acl");
+    assertThat(c2.getIpAccessLists().get("acl"), sameInstance(acl));
+    assertThat(c2.getAllInterfaces().get("i1").getIncomingFilter(), sameInstance(acl));
+    assertThat(c2.getIpSpaces().get("space"), sameInstance(c1.getIpSpaces().get("space")));
+    assertThat(
+        c2.getRouteFilterLists().get("rfl"), sameInstance(c1.getRouteFilterLists().get("rfl")));
+    RoutingPolicy policy1 = c1.getRoutingPolicies().get("policy");
+    RoutingPolicy policy2 = c2.getRoutingPolicies().get("policy");
+    assertThat(policy2, not(sameInstance(policy1)));
+    assertThat(policy2.getStatements(), sameInstance(policy1.getStatements()));
+
+    // ACLs differing only in metadata are not shared
+    assertThat(
+        c2.getIpAccessLists().get("other"), not(sameInstance(c1.getIpAccessLists().get("other"))));
+
+    // 5 structures per configuration: all shared except for the ACLs differing in metadata
+    assertThat(interner.getNumStructures(), equalTo(10));
+    assertThat(interner.getNumUniqueStructures(), equalTo(6));
+    assertThat(interner.getDedupRatio(), equalTo(10.0 / 6));
+  }
+
+  @Test
+  public void testDedupRatioEmpty() {
+    assertThat(new StructureInterner().getDedupRatio(), equalTo(1.0));
+  }
+}
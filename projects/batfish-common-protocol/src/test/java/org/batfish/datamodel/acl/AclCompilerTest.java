@@ -0,0 +1,218 @@
+package org.batfish.datamodel.acl;
+
+import static org.batfish.datamodel.acl.AclLineMatchExprs.and;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.deniedByAcl;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.match;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrcInterface;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.not;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.or;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.permittedByAcl;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.AclIpSpace;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.FilterResult;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.IpSpaceReference;
+import org.batfish.datamodel.IpWildcard;
+import org.batfish.datamodel.IpWildcardSetIpSpace;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.TcpFlags;
+import org.batfish.datamodel.TcpFlagsMatchConditions;
+import org.junit.Test;
+
+/** Tests of {@link AclCompiler}. */
+public final class AclCompilerTest {
+
+  private static final Map<String, IpSpace> NAMED_IP_SPACES =
+      ImmutableMap.of(
+          "space",
+          AclIpSpace.builder()
+              .thenRejecting(Ip.parse("10.0.0.1").toIpSpace())
+              .thenPermitting(Prefix.parse("10.0.0.0/24").toIpSpace())
+              .build());
+
+  private static final List<Flow> FLOWS =
+      ImmutableList.of(
+          flow("10.0.0.1", "10.0.0.2", IpProtocol.TCP, 22, 80, TcpFlags.builder().setSyn(true)),
+          flow("10.0.0.2", "10.0.0.1", IpProtocol.TCP, 80, 22, TcpFlags.builder().setAck(true)),
+          flow("10.0.0.3", "192.168.0.1", IpProtocol.UDP, 53, 1024, null),
+          Flow.builder()
+              .setIngressNode("node")
+              .setSrcIp(Ip.parse("192.168.0.1"))
+              .setDstIp(Ip.parse("10.0.0.5"))
+              .setIpProtocol(IpProtocol.ICMP)
+              .setIcmpType(8)
+              .setIcmpCode(0)
+              .setFragmentOffset(3)
+              .setDscp(10)
+              .setEcn(1)
+              .setPacketLength(100)
+              .build());
+
+  private static Flow flow(
+      String srcIp,
+      String dstIp,
+      IpProtocol ipProtocol,
+      int srcPort,
+      int dstPort,
+      @Nullable TcpFlags.Builder tcpFlags) {
+    Flow.Builder builder =
+        Flow.builder()
+            .setIngressNode("node")
+            .setSrcIp(Ip.parse(srcIp))
+            .setDstIp(Ip.parse(dstIp))
+            .setIpProtocol(ipProtocol)
+            .setSrcPort(srcPort)
+            .setDstPort(dstPort);
+    if (tcpFlags != null) {
+      builder.setTcpFlags(tcpFlags.build());
+    }
+    return builder.build();
+  }
+
+  private static final List<AclLineMatchExpr> EXPRS =
+      ImmutableList.of(
+          AclLineMatchExprs.TRUE,
+          AclLineMatchExprs.FALSE,
+          AclLineMatchExprs.ORIGINATING_FROM_DEVICE,
+          matchSrcInterface("i1"),
+          matchDst(new IpSpaceReference("space")),
+          matchDst(new IpSpaceReference("undefined")),
+          match(HeaderSpace.builder().build()),
+          match(
+              HeaderSpace.builder()
+                  .setSrcOrDstIps(Prefix.parse("192.168.0.0/16").toIpSpace())
+                  .setSrcOrDstPorts(ImmutableList.of(new SubRange(22, 22)))
+                  .build()),
+          match(
+              HeaderSpace.builder()
+                  .setIpProtocols(IpProtocol.TCP, IpProtocol.ICMP)
+                  .setNotSrcIps(
+                      IpWildcardSetIpSpace.builder()
+                          .including(IpWildcard.parse("10.0.0.0/8"))
+                          .excluding(IpWildcard.parse("10.0.0.2"))
+                          .build())
+                  .setTcpFlags(
+                      ImmutableList.of(
+                          TcpFlagsMatchConditions.matchAllFlags(
+                              TcpFlags.builder().setAck(true).build())))
+                  .build()),
+          match(
+              HeaderSpace.builder()
+                  .setDscps(ImmutableList.of(10))
+                  .setEcns(ImmutableList.of(1))
+                  .setFragmentOffsets(ImmutableList.of(new SubRange(0, 5)))
+                  .setIcmpTypes(ImmutableList.of(new SubRange(8, 8)))
+                  .setIcmpCodes(ImmutableList.of(new SubRange(0, 0)))
+                  .setPacketLengths(ImmutableList.of(new SubRange(64, 1500)))
+                  .build()),
+          match(
+              HeaderSpace.builder()
+                  // HeaderSpace#matches compares these to the fragment offset
+                  .setNotIcmpCodes(ImmutableList.of(new SubRange(3, 3)))
+                  .setNotIcmpTypes(ImmutableList.of(new SubRange(3, 3)))
+                  .setNotDstPorts(ImmutableList.of(new SubRange(22, 22)))
+                  .setNotIpProtocols(ImmutableList.of(IpProtocol.UDP))
+                  .build()),
+          and(matchSrcInterface("i1"), not(matchDst(Prefix.parse("10.0.0.2/32")))),
+          or(permittedByAcl("referenced"), deniedByAcl("referenced")),
+          permittedByAcl("referenced"),
+          deniedByAcl("referenced"));
+
+  private static final IpAccessList REFERENCED =
+      IpAccessList.builder()
+          .setName("referenced")
+          .setLines(
+              ExprAclLine.rejecting(matchDst(Prefix.parse("10.0.0.1/32"))),
+              ExprAclLine.accepting(matchDst(new IpSpaceReference("space"))))
+          .build();
+
+  private static final Map<String, IpAccessList> ACLS = ImmutableMap.of("referenced", REFERENCED);
+
+  @Test
+  public void testExprsMatchLikeEvaluator() {
+    AclCompiler compiler = new AclCompiler(ACLS, NAMED_IP_SPACES);
+    for (AclLineMatchExpr expr : EXPRS) {
+      CompiledAclLineMatchExpr compiled = compiler.compile(expr);
+      for (Flow flow : FLOWS) {
+        for (String srcInterface : Arrays.asList("i1", "i2", null)) {
+          assertThat(
+              String.format("%s on %s from %s", expr, flow, srcInterface),
+              compiled.matches(flow, srcInterface),
+              equalTo(Evaluator.matches(expr, flow, srcInterface, ACLS, NAMED_IP_SPACES)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testAclFiltersLikeIpAccessList() {
+    ImmutableList.Builder<org.batfish.datamodel.AclLine> lines = ImmutableList.builder();
+    lines.add(new AclAclLine("nested", "referenced"));
+    for (int i = 0; i < EXPRS.size(); i++) {
+      lines.add(
+          i % 2 == 0 ? ExprAclLine.accepting(EXPRS.get(i)) : ExprAclLine.rejecting(EXPRS.get(i)));
+    }
+    IpAccessList acl = IpAccessList.builder().setName("acl").setLines(lines.build()).build();
+    IpAccessList empty = IpAccessList.builder().setName("empty").build();
+    AclCompiler compiler = new AclCompiler(ACLS, NAMED_IP_SPACES);
+    for (IpAccessList toCompile : ImmutableList.of(acl, empty, REFERENCED)) {
+      CompiledIpAccessList compiled = compiler.compile(toCompile);
+      for (Flow flow : FLOWS) {
+        for (String srcInterface : Arrays.asList("i1", "i2", null)) {
+          FilterResult expected = toCompile.filter(flow, srcInterface, ACLS, NAMED_IP_SPACES);
+          FilterResult actual = compiled.filter(flow, srcInterface);
+          assertThat(actual.getAction(), equalTo(expected.getAction()));
+          assertThat(actual.getMatchLine(), equalTo(expected.getMatchLine()));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testCompileIpSpace() {
+    AclCompiler compiler = new AclCompiler(ImmutableMap.of(), NAMED_IP_SPACES);
+    IpSpace space = new IpSpaceReference("space");
+    assertFalse(compiler.compile(space).test(Ip.parse("10.0.0.1")));
+    assertTrue(compiler.compile(space).test(Ip.parse("10.0.0.2")));
+    assertFalse(compiler.compile(space).test(Ip.parse("10.0.1.2")));
+    assertFalse(compiler.compile(new IpSpaceReference("undefined")).test(Ip.parse("10.0.0.2")));
+  }
+
+  @Test
+  public void testMemoized() {
+    AclCompiler compiler = new AclCompiler(ACLS, NAMED_IP_SPACES);
+    assertThat(compiler.compile(REFERENCED), sameInstance(compiler.compile(REFERENCED)));
+    AclLineMatchExpr expr = permittedByAcl("referenced");
+    assertThat(compiler.compile(expr), sameInstance(compiler.compile(expr)));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testUndefinedAclAclLine() {
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName("acl")
+            .setLines(new AclAclLine("nested", "undefined"))
+            .build();
+    new AclCompiler(ImmutableMap.of(), ImmutableMap.of()).compile(acl).filter(FLOWS.get(0), null);
+  }
+}
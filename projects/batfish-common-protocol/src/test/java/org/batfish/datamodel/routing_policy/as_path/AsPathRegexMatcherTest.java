@@ -0,0 +1,55 @@
+package org.batfish.datamodel.routing_policy.as_path;
+
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.batfish.datamodel.AsPath;
+import org.junit.Test;
+
+/** Test of {@link AsPathRegexMatcher}. */
+public final class AsPathRegexMatcherTest {
+
+  @Test
+  public void testShared() {
+    assertThat(AsPathRegexMatcher.of("^1 "), sameInstance(AsPathRegexMatcher.of("^1 ")));
+    assertThat(
+        AsPathRegexMatcher.withLeadingSpace("^1 "),
+        sameInstance(AsPathRegexMatcher.withLeadingSpace("^1 ")));
+    assertThat(
+        AsPathRegexMatcher.of("^1 "),
+        not(sameInstance(AsPathRegexMatcher.withLeadingSpace("^1 "))));
+  }
+
+  @Test
+  public void testMatches() {
+    AsPathRegexMatcher matcher = AsPathRegexMatcher.of("^1 2$");
+    assertTrue(matcher.matches(AsPath.ofSingletonAsSets(1L, 2L)));
+    assertFalse(matcher.matches(AsPath.ofSingletonAsSets(1L, 2L, 3L)));
+    assertFalse(matcher.matches(AsPath.empty()));
+    // repeated queries hit the per-matcher cache and must give the same answers
+    assertTrue(matcher.matches(AsPath.ofSingletonAsSets(1L, 2L)));
+    assertFalse(matcher.matches(AsPath.ofSingletonAsSets(1L, 2L, 3L)));
+  }
+
+  @Test
+  public void testMatchesSubstring() {
+    AsPathRegexMatcher matcher = AsPathRegexMatcher.of("2");
+    assertTrue(matcher.matches(AsPath.ofSingletonAsSets(1L, 2L)));
+    assertTrue(matcher.matches(AsPath.ofSingletonAsSets(12L)));
+    assertFalse(matcher.matches(AsPath.ofSingletonAsSets(1L, 3L)));
+  }
+
+  @Test
+  public void testWithLeadingSpace() {
+    AsPathRegexMatcher matcher = AsPathRegexMatcher.withLeadingSpace("^ 1 ");
+    assertTrue(matcher.matches(AsPath.ofSingletonAsSets(1L, 2L)));
+    assertFalse(AsPathRegexMatcher.of("^ 1 ").matches(AsPath.ofSingletonAsSets(1L, 2L)));
+
+    // the empty AS path is not prefixed by a space
+    assertTrue(AsPathRegexMatcher.withLeadingSpace("^$").matches(AsPath.empty()));
+    assertFalse(AsPathRegexMatcher.withLeadingSpace("^ ").matches(AsPath.empty()));
+  }
+}
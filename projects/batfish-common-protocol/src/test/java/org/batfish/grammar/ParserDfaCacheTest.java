@@ -0,0 +1,113 @@
+package org.batfish.grammar;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.batfish.common.util.Resources.readResource;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.batfish.grammar.recovery_inline_alts.RecoveryInlineAltsCombinedParser;
+import org.batfish.grammar.recovery_inline_alts.RecoveryInlineAltsParser;
+import org.junit.Test;
+
+/** Tests of {@link ParserDfaCache} */
+public final class ParserDfaCacheTest {
+
+  private static final GrammarSettings SETTINGS = MockGrammarSettings.builder().build();
+
+  private static final String TEXT =
+      readResource("org/batfish/grammar/recovery_alts/errors_at_depth2", UTF_8);
+
+  private static DFA[] emptyDfas(ATN atn) {
+    DFA[] dfas = new DFA[atn.getNumberOfDecisions()];
+    for (int i = 0; i < dfas.length; i++) {
+      dfas[i] = new DFA(atn.getDecisionState(i), i);
+    }
+    return dfas;
+  }
+
+  private static byte[] writeDfas(DFA[] dfas) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ParserDfaCache.writeDfas(dfas, new DataOutputStream(out));
+    return out.toByteArray();
+  }
+
+  /** Parses {@link #TEXT} predicting with the given DFAs, and returns the parse tree. */
+  private static String parse(DFA[] dfas) {
+    RecoveryInlineAltsCombinedParser cp = new RecoveryInlineAltsCombinedParser(TEXT, SETTINGS);
+    RecoveryInlineAltsParser parser = cp.getParser();
+    ParserATNSimulator interpreter =
+        new ParserATNSimulator(parser, parser.getATN(), dfas, new PredictionContextCache());
+    interpreter.setPredictionMode(PredictionMode.SLL);
+    parser.setInterpreter(new BatfishParserATNSimulator(interpreter));
+    return cp.parse().toStringTree(parser);
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    ATN atn = new RecoveryInlineAltsCombinedParser("", SETTINGS).getParser().getATN();
+    DFA[] warmed = emptyDfas(atn);
+    String tree = parse(warmed);
+    int states = ParserDfaCache.countStates(warmed);
+    assertThat(states, greaterThan(0));
+
+    DFA[] loaded = emptyDfas(atn);
+    ParserDfaCache.readDfas(
+        atn,
+        loaded,
+        new PredictionContextCache(),
+        new DataInputStream(new ByteArrayInputStream(writeDfas(warmed))));
+    assertThat(ParserDfaCache.countStates(loaded), equalTo(states));
+
+    // The loaded DFAs predict the same parse without any new ATN simulation.
+    assertThat(parse(loaded), equalTo(tree));
+    assertThat(ParserDfaCache.countStates(loaded), equalTo(states));
+
+    // Persisting again gives the same DFAs.
+    assertThat(writeDfas(loaded), equalTo(writeDfas(warmed)));
+  }
+
+  @Test
+  public void testReadKeepsNonEmptyDfas() throws IOException {
+    ATN atn = new RecoveryInlineAltsCombinedParser("", SETTINGS).getParser().getATN();
+    DFA[] warmed = emptyDfas(atn);
+    parse(warmed);
+    byte[] persisted = writeDfas(warmed);
+
+    DFA[] empty = emptyDfas(atn);
+    byte[] emptyPersisted = writeDfas(empty);
+    ParserDfaCache.readDfas(
+        atn,
+        warmed,
+        new PredictionContextCache(),
+        new DataInputStream(new ByteArrayInputStream(emptyPersisted)));
+    assertThat(writeDfas(warmed), equalTo(persisted));
+  }
+
+  @Test
+  public void testWriteAndPreload() throws IOException {
+    new RecoveryInlineAltsCombinedParser(TEXT, SETTINGS).parse();
+    assertTrue(ParserDfaCache.hasNewStates());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ParserDfaCache.write(out);
+    assertFalse(ParserDfaCache.hasNewStates());
+
+    // the DFAs of this JVM are already warm, so they are left alone
+    ParserDfaCache.preload(new ByteArrayInputStream(out.toByteArray()));
+    assertTrue(ParserDfaCache.isPreloaded());
+    assertFalse(ParserDfaCache.hasNewStates());
+  }
+}
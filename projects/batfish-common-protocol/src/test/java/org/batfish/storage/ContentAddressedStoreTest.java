@@ -0,0 +1,103 @@
+package org.batfish.storage;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.hash.HashCode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link ContentAddressedStore}. */
+public final class ContentAddressedStoreTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private Path _dir;
+  private ContentAddressedStore _store;
+
+  @Before
+  public void before() throws IOException {
+    _dir = _folder.getRoot().toPath();
+    _store = new ContentAddressedStore(_dir.resolve("store"));
+  }
+
+  /** Stores {@code content} at {@code target}, the way {@link FileBasedStorage} does. */
+  private void store(String content, Path target) throws IOException {
+    Path tmpFile = Files.createTempFile(_dir, null, null);
+    Files.write(tmpFile, content.getBytes(UTF_8));
+    _store.storeAndLink(tmpFile, hash(content), target);
+    assertFalse(Files.exists(tmpFile));
+  }
+
+  private static HashCode hash(String content) {
+    return ContentAddressedStore.HASH_FUNCTION.hashString(content, UTF_8);
+  }
+
+  @Test
+  public void testStoreAndLink() throws IOException {
+    Path a = _dir.resolve("a").resolve("file");
+    Path b = _dir.resolve("b").resolve("file");
+    Path c = _dir.resolve("c").resolve("file");
+    store("foo", a);
+    store("foo", b);
+    store("bar", c);
+
+    assertThat(new String(Files.readAllBytes(b), UTF_8), equalTo("foo"));
+    assertThat(new String(Files.readAllBytes(c), UTF_8), equalTo("bar"));
+    assertTrue(Files.isSameFile(a, b));
+    assertFalse(Files.isSameFile(a, c));
+    // the stored copy and the two links
+    assertThat(ContentAddressedStore.getLinkCount(_store.getStoredPath(hash("foo"))), equalTo(3));
+  }
+
+  @Test
+  public void testStoreAndLinkReplacesTarget() throws IOException {
+    Path a = _dir.resolve("a");
+    Path b = _dir.resolve("b");
+    store("foo", a);
+    store("foo", b);
+    store("bar", b);
+
+    // replacing b must not change the content a shares with it
+    assertThat(new String(Files.readAllBytes(a), UTF_8), equalTo("foo"));
+    assertThat(new String(Files.readAllBytes(b), UTF_8), equalTo("bar"));
+    assertThat(ContentAddressedStore.getLinkCount(_store.getStoredPath(hash("foo"))), equalTo(2));
+  }
+
+  @Test
+  public void testExpungeUnreferenced() throws IOException {
+    Path a = _dir.resolve("a");
+    Path b = _dir.resolve("b");
+    store("foo", a);
+    store("bar", b);
+    Files.delete(b);
+    Path storedFoo = _store.getStoredPath(hash("foo"));
+    Path storedBar = _store.getStoredPath(hash("bar"));
+
+    // recently stored content is kept, even if unreferenced
+    assertThat(_store.expungeUnreferenced(Instant.now().minusSeconds(60)), equalTo(0));
+    assertTrue(Files.exists(storedBar));
+
+    assertThat(_store.expungeUnreferenced(Instant.now().plusSeconds(60)), equalTo(1));
+    assertTrue(Files.exists(storedFoo));
+    assertFalse(Files.exists(storedBar));
+
+    // expunged content can be stored again
+    store("bar", b);
+    assertThat(new String(Files.readAllBytes(b), UTF_8), equalTo("bar"));
+  }
+
+  @Test
+  public void testExpungeUnreferencedEmpty() throws IOException {
+    assertThat(_store.expungeUnreferenced(Instant.now()), equalTo(0));
+  }
+}
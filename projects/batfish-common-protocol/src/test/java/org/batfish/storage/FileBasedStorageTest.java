@@ -23,7 +23,9 @@ import static org.junit.Assert.fail;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
 import com.google.common.io.ByteStreams;
 import java.io.ByteArrayInputStream;
 import java.io.File;
@@ -41,11 +43,13 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.batfish.common.AnswerRowsOptions;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.CompletionMetadata;
@@ -53,21 +57,33 @@ import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.autocomplete.IpCompletionMetadata;
 import org.batfish.common.autocomplete.LocationCompletionMetadata;
 import org.batfish.common.autocomplete.NodeCompletionMetadata;
+import org.batfish.common.bdd.SnapshotAclBdds;
 import org.batfish.common.topology.GlobalBroadcastNoPointToPoint;
 import org.batfish.common.topology.Layer1Topology;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
 import org.batfish.common.util.UnzipUtility;
+import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.answers.Answer;
 import org.batfish.datamodel.answers.AnswerMetadata;
 import org.batfish.datamodel.answers.AnswerStatus;
 import org.batfish.datamodel.answers.ConvertConfigurationAnswerElement;
+import org.batfish.datamodel.answers.Schema;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.isp_configuration.BorderInterfaceInfo;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.isp_configuration.IspFilter;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.datamodel.table.TableView;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.AnswerId;
 import org.batfish.identifiers.NetworkId;
@@ -76,6 +92,7 @@ import org.batfish.identifiers.QuestionId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.specifier.InterfaceLocation;
 import org.batfish.vendor.ConversionContext;
+import org.batfish.vendor.VendorConfiguration;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -158,6 +175,53 @@ public final class FileBasedStorageTest {
     _storage.loadConversionContext(new NetworkSnapshot(networkId, snapshotId));
   }
 
+  @Test
+  public void testStoreAndLoadSnapshotAclBdds() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    assertThat(_storage.loadSnapshotAclBdds(snapshot), equalTo(Optional.empty()));
+
+    SnapshotAclBdds snapshotAclBdds = SnapshotAclBdds.compute(ImmutableMap.of());
+    _storage.storeSnapshotAclBdds(snapshotAclBdds, snapshot);
+
+    assertThat(
+        _storage.loadSnapshotAclBdds(snapshot).map(SnapshotAclBdds::getNodeTable),
+        equalTo(Optional.of(snapshotAclBdds.getNodeTable())));
+  }
+
+  @Test
+  public void testStoreAndLoadDataPlane() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    Table<String, String, Set<Bgpv4Route>> bgpRoutes =
+        ImmutableTable.of(
+            "node",
+            "vrf",
+            ImmutableSet.of(
+                Bgpv4Route.testBuilder()
+                    .setNetwork(Prefix.ZERO)
+                    .setOriginatorIp(Ip.parse("1.1.1.1"))
+                    .build()));
+    assertFalse(_storage.hasDataPlane(snapshot));
+
+    _storage.storeDataPlane(MockDataPlane.builder().setBgpRoutes(bgpRoutes).build(), snapshot);
+    assertTrue(_storage.hasDataPlane(snapshot));
+    DataPlane loaded = _storage.loadDataPlane(snapshot);
+
+    assertThat(loaded, instanceOf(SectionedDataPlane.class));
+    assertThat(loaded.getBgpRoutes(), equalTo(bgpRoutes));
+  }
+
+  @Test
+  public void testLoadDataPlaneSerializedObject() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    // data planes stored by older versions are a single serialized object
+    _storage.serializeObject(MockDataPlane.builder().build(), _storage.getDataPlanePath(snapshot));
+
+    assertThat(_storage.loadDataPlane(snapshot), instanceOf(MockDataPlane.class));
+  }
+
   @Test
   public void testLoadIspConfiguration() throws IOException {
     NetworkId networkId = new NetworkId("network");
@@ -393,6 +457,33 @@ public final class FileBasedStorageTest {
     }
   }
 
+  @Test
+  public void testStoreSnapshotInputObjectDeduplicated() throws IOException {
+    NetworkId network = new NetworkId("network");
+    NetworkSnapshot snapshot1 = new NetworkSnapshot(network, new SnapshotId("snapshot1"));
+    NetworkSnapshot snapshot2 = new NetworkSnapshot(network, new SnapshotId("snapshot2"));
+    byte[] config = "hostname foo".getBytes(UTF_8);
+    _storage.storeSnapshotInputObject(new ByteArrayInputStream(config), "configs/foo", snapshot1);
+    _storage.storeSnapshotInputObject(new ByteArrayInputStream(config), "configs/foo", snapshot2);
+    _storage.storeSnapshotInputObject(
+        new ByteArrayInputStream("hostname bar".getBytes(UTF_8)), "configs/bar", snapshot2);
+
+    Path path1 =
+        _storage.getSnapshotInputObjectPath(network, snapshot1.getSnapshot(), "configs/foo");
+    Path path2 =
+        _storage.getSnapshotInputObjectPath(network, snapshot2.getSnapshot(), "configs/foo");
+    assertTrue(Files.isSameFile(path1, path2));
+    try (InputStream inputStream =
+        _storage.loadSnapshotInputObject(network, snapshot2.getSnapshot(), "configs/foo")) {
+      assertThat(IOUtils.toString(inputStream, UTF_8.name()), equalTo("hostname foo"));
+    }
+    try (Stream<String> keys = _storage.listSnapshotInputObjectKeys(snapshot2)) {
+      assertThat(
+          keys.collect(ImmutableSet.toImmutableSet()),
+          equalTo(ImmutableSet.of("configs/foo", "configs/bar")));
+    }
+  }
+
   @Test
   public void testLoadSnapshotInputObjectDirectory() throws IOException {
     NetworkId network = new NetworkId("network");
@@ -499,6 +590,39 @@ public final class FileBasedStorageTest {
             new StoredObjectMetadata(key2, content2.getBytes().length)));
   }
 
+  @Test
+  public void testLoadAnswerRows() throws IOException {
+    NetworkId networkId = new NetworkId("network");
+    SnapshotId snapshotId = new SnapshotId("snapshot");
+    AnswerId answerId = new AnswerId("answerId");
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(ImmutableList.of(new ColumnMetadata("col", Schema.STRING, "desc"))));
+    table.addRow(Row.of("col", "a"));
+    table.addRow(Row.of("col", "b"));
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(table);
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(), ImmutableList.of(), Integer.MAX_VALUE, 1, ImmutableList.of(), false);
+
+    _storage.storeAnswer(networkId, snapshotId, BatfishObjectMapper.writeString(answer), answerId);
+    Optional<TableView> view = _storage.loadAnswerRows(networkId, snapshotId, answerId, options);
+    assertThat(
+        view.map(TableView::getInnerRows), equalTo(Optional.of(table.getRowsList().subList(1, 2))));
+
+    // a failed answer replacing the table answer is not queryable
+    _storage.storeAnswer(
+        networkId,
+        snapshotId,
+        BatfishObjectMapper.writeString(Answer.failureAnswer("failed", null)),
+        answerId);
+    assertThat(
+        _storage.loadAnswerRows(networkId, snapshotId, answerId, options),
+        equalTo(Optional.empty()));
+  }
+
   /**
    * Test that the answer is loaded from the legacy location if nothing is found in the primary
    * location
@@ -639,6 +763,57 @@ public final class FileBasedStorageTest {
         _storage.loadSynthesizedLayer1Topology(networkSnapshot), Optional.of(Layer1Topology.EMPTY));
   }
 
+  private static final class TestVendorConfiguration extends VendorConfiguration {
+    private String _hostname;
+
+    @Override
+    public String getHostname() {
+      return _hostname;
+    }
+
+    @Override
+    public void setHostname(String hostname) {
+      _hostname = hostname;
+    }
+
+    @Override
+    public void setVendor(ConfigurationFormat format) {}
+
+    @Override
+    public List<Configuration> toVendorIndependentConfigurations() {
+      return ImmutableList.of();
+    }
+  }
+
+  @Test
+  public void testStoreLoadDeleteVendorConfiguration() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    VendorConfiguration vc1 = new TestVendorConfiguration();
+    vc1.setHostname("h1");
+    VendorConfiguration vc2 = new TestVendorConfiguration();
+    vc2.setHostname("h2");
+    _storage.storeVendorConfiguration(vc1, "h1", snapshot);
+    _storage.storeVendorConfiguration(vc2, "h2", snapshot);
+
+    assertThat(_storage.loadVendorConfiguration(snapshot, "h1").getHostname(), equalTo("h1"));
+    assertThat(
+        _storage.loadVendorConfigurations(snapshot).keySet(), containsInAnyOrder("h1", "h2"));
+
+    _storage.deleteVendorConfiguration(snapshot, "h1");
+    assertThat(_storage.loadVendorConfigurations(snapshot).keySet(), containsInAnyOrder("h2"));
+    // deleting again is fine
+    _storage.deleteVendorConfiguration(snapshot, "h1");
+  }
+
+  @Test
+  public void testLoadVendorConfigurationMissing() throws IOException {
+    NetworkSnapshot snapshot =
+        new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    _thrown.expect(FileNotFoundException.class);
+    _storage.loadVendorConfiguration(snapshot, "h1");
+  }
+
   @Test
   public void testReadId() throws IOException {
     _storage.writeId(new NetworkId("network1_id"), "network1");
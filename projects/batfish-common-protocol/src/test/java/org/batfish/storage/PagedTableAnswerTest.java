@@ -0,0 +1,225 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import org.batfish.common.AnswerRowsOptions;
+import org.batfish.common.ColumnFilter;
+import org.batfish.common.ColumnSortOption;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.datamodel.answers.Schema;
+import org.batfish.datamodel.table.ColumnMetadata;
+import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.TableAnswerElement;
+import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.datamodel.table.TableView;
+import org.batfish.datamodel.table.TableViewRow;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link PagedTableAnswer}. */
+public final class PagedTableAnswerTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private static final String COL_NODE = "node";
+  private static final String COL_VALUE = "value";
+
+  private static final TableMetadata METADATA =
+      new TableMetadata(
+          ImmutableList.of(
+              new ColumnMetadata(COL_NODE, Schema.STRING, "node", true, false),
+              new ColumnMetadata(COL_VALUE, Schema.INTEGER, "value", false, true)));
+
+  /** Rows 0..9 with nodes n0, n1, n2 repeating and values 9..0. */
+  private static TableAnswerElement table() {
+    TableAnswerElement table = new TableAnswerElement(METADATA);
+    for (int i = 0; i < 10; i++) {
+      table.addRow(Row.of(COL_NODE, "n" + (i % 3), COL_VALUE, 9 - i));
+    }
+    return table;
+  }
+
+  private PagedTableAnswer write(TableAnswerElement table) throws IOException {
+    Path dir = _folder.getRoot().toPath().resolve("table");
+    assertTrue(PagedTableAnswer.write(table, dir, 3));
+    PagedTableAnswer paged = PagedTableAnswer.open(dir);
+    assertThat(paged, notNullValue());
+    return paged;
+  }
+
+  private static AnswerRowsOptions options(
+      List<ColumnFilter> filters,
+      int maxRows,
+      int rowOffset,
+      List<ColumnSortOption> sortOrder,
+      boolean uniqueRows,
+      String... columns) {
+    return new AnswerRowsOptions(
+        ImmutableSet.copyOf(columns), filters, maxRows, rowOffset, sortOrder, uniqueRows);
+  }
+
+  private static List<Integer> rowIds(TableView view) {
+    return view.getRows().stream()
+        .map(TableViewRow::getId)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  @Test
+  public void testOpenMissing() throws IOException {
+    assertThat(PagedTableAnswer.open(_folder.getRoot().toPath()), nullValue());
+  }
+
+  @Test
+  public void testQueryAll() throws IOException {
+    TableAnswerElement table = table();
+    PagedTableAnswer paged = write(table);
+    TableView view = paged.query(AnswerRowsOptions.NO_FILTER);
+
+    assertThat(paged.getNumRows(), equalTo(10));
+    assertThat(view.getInnerRows(), equalTo(table.getRowsList()));
+    assertThat(rowIds(view), contains(0, 1, 2, 3, 4, 5, 6, 7, 8, 9));
+    assertThat(view.getTableMetadata(), equalTo(METADATA));
+    assertThat(view.getSummary().getNumResults(), equalTo(10));
+  }
+
+  @Test
+  public void testQueryPageReadsOnlyNeededChunks() throws IOException {
+    PagedTableAnswer paged = write(table());
+    TableView view = paged.query(options(ImmutableList.of(), 2, 4, ImmutableList.of(), false));
+
+    assertThat(rowIds(view), contains(4, 5));
+    // rows 4 and 5 are both in the second chunk, which is read once for each of the two columns
+    assertThat(paged.getChunksRead(), equalTo(2));
+    assertThat(view.getSummary().getNumResults(), equalTo(10));
+  }
+
+  @Test
+  public void testQueryFilter() throws IOException {
+    PagedTableAnswer paged = write(table());
+    TableView view =
+        paged.query(
+            options(
+                ImmutableList.of(new ColumnFilter(COL_NODE, "N1")),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(),
+                false,
+                COL_VALUE));
+
+    assertThat(rowIds(view), contains(1, 4, 7));
+    assertThat(
+        view.getInnerRows(),
+        contains(Row.of(COL_VALUE, 8), Row.of(COL_VALUE, 5), Row.of(COL_VALUE, 2)));
+    assertThat(view.getSummary().getNumResults(), equalTo(3));
+    // all 4 chunks of the node column, and the 3 chunks of the value column holding matches
+    assertThat(paged.getChunksRead(), equalTo(7));
+  }
+
+  @Test
+  public void testQuerySort() throws IOException {
+    PagedTableAnswer paged = write(table());
+
+    // ties in the node column keep the original order of the rows
+    assertThat(
+        rowIds(
+            paged.query(
+                options(
+                    ImmutableList.of(),
+                    Integer.MAX_VALUE,
+                    0,
+                    ImmutableList.of(new ColumnSortOption(COL_NODE, true)),
+                    false))),
+        contains(2, 5, 8, 1, 4, 7, 0, 3, 6, 9));
+    assertThat(
+        rowIds(
+            paged.query(
+                options(
+                    ImmutableList.of(),
+                    Integer.MAX_VALUE,
+                    0,
+                    ImmutableList.of(
+                        new ColumnSortOption(COL_NODE, false),
+                        new ColumnSortOption(COL_VALUE, false)),
+                    false))),
+        contains(9, 6, 3, 0, 7, 4, 1, 8, 5, 2));
+  }
+
+  @Test
+  public void testQueryUniqueRows() throws IOException {
+    PagedTableAnswer paged = write(table());
+    TableView view =
+        paged.query(
+            options(
+                ImmutableList.of(),
+                2,
+                1,
+                ImmutableList.of(new ColumnSortOption(COL_VALUE, false)),
+                true,
+                COL_NODE));
+
+    // sorted by value, the first occurrences of n0, n2, and n1 are rows 9, 8, and 7
+    assertThat(rowIds(view), contains(8, 7));
+    assertThat(view.getInnerRows(), contains(Row.of(COL_NODE, "n2"), Row.of(COL_NODE, "n1")));
+    assertThat(view.getSummary().getNumResults(), equalTo(10));
+  }
+
+  @Test
+  public void testQueryUnsupported() throws IOException {
+    PagedTableAnswer paged = write(table());
+
+    assertThat(
+        paged.query(
+            options(
+                ImmutableList.of(new ColumnFilter("missing", "")),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(),
+                false)),
+        nullValue());
+    assertThat(
+        paged.query(
+            options(
+                ImmutableList.of(),
+                Integer.MAX_VALUE,
+                0,
+                ImmutableList.of(new ColumnSortOption("missing", false)),
+                false)),
+        nullValue());
+    assertThat(
+        paged.query(
+            options(
+                ImmutableList.of(), Integer.MAX_VALUE, 0, ImmutableList.of(), false, "missing")),
+        nullValue());
+  }
+
+  @Test
+  public void testWriteNonUniformRows() throws IOException {
+    // rows of deserialized answers are not checked against the table's metadata
+    TableAnswerElement table =
+        BatfishObjectMapper.mapper()
+            .readValue(
+                BatfishObjectMapper.writeString(new TableAnswerElement(METADATA))
+                    .replaceFirst(
+                        "\\}$",
+                        ",\"rows\":[{\"node\":\"n0\",\"value\":0},{\"node\":\"n1\"}]}"),
+                TableAnswerElement.class);
+    assertThat(table.getRowsList(), hasSize(2));
+    Path dir = _folder.getRoot().toPath().resolve("table");
+
+    assertFalse(PagedTableAnswer.write(table, dir, 3));
+    assertThat(PagedTableAnswer.open(dir), nullValue());
+  }
+}
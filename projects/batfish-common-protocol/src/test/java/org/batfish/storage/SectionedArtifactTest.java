@@ -0,0 +1,90 @@
+package org.batfish.storage;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.batfish.common.BatfishException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link SectionedArtifact}. */
+public final class SectionedArtifactTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
+  private Path write() throws IOException {
+    Path file = _folder.newFile().toPath();
+    try (SectionedArtifact.Writer writer = SectionedArtifact.Writer.create(file)) {
+      writer.writeSection("b", "second");
+      writer.writeSection("a", ImmutableList.of(1, 2, 3));
+      writer.finish();
+    }
+    return file;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    SectionedArtifact artifact = SectionedArtifact.open(write());
+
+    assertThat(artifact.getSectionNames(), contains("b", "a"));
+    assertThat(artifact.readSection("a", ImmutableList.class), equalTo(ImmutableList.of(1, 2, 3)));
+    assertThat(artifact.readSection("b", String.class), equalTo("second"));
+    // sections can be read repeatedly
+    assertThat(artifact.readSection("b", String.class), equalTo("second"));
+  }
+
+  @Test
+  public void testEmpty() throws IOException {
+    Path file = _folder.newFile().toPath();
+    try (SectionedArtifact.Writer writer = SectionedArtifact.Writer.create(file)) {
+      writer.finish();
+    }
+
+    assertThat(SectionedArtifact.open(file).getSectionNames(), empty());
+  }
+
+  @Test
+  public void testIsSectionedArtifact() throws IOException {
+    assertTrue(SectionedArtifact.isSectionedArtifact(write()));
+
+    Path other = _folder.newFile().toPath();
+    assertFalse(SectionedArtifact.isSectionedArtifact(other));
+    Files.write(other, new byte[] {'B', 'F', 'S', 'X', 0, 0});
+    assertFalse(SectionedArtifact.isSectionedArtifact(other));
+    assertFalse(SectionedArtifact.isSectionedArtifact(other.resolveSibling("missing")));
+  }
+
+  @Test
+  public void testMissingSection() throws IOException {
+    SectionedArtifact artifact = SectionedArtifact.open(write());
+
+    _thrown.expect(BatfishException.class);
+    artifact.readSection("c", String.class);
+  }
+
+  @Test
+  public void testUnsupportedVersion() throws IOException {
+    Path file = write();
+    try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+      raf.seek(4);
+      raf.writeInt(SectionedArtifact.VERSION + 1);
+    }
+
+    _thrown.expect(BatfishException.class);
+    _thrown.expectMessage("Unsupported version");
+    SectionedArtifact.open(file);
+  }
+}
@@ -0,0 +1,179 @@
+package org.batfish.storage;
+
+import static org.batfish.datamodel.Configuration.DEFAULT_VRF_NAME;
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Table;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpSpace;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.MockFib;
+import org.batfish.datamodel.MockForwardingAnalysis;
+import org.batfish.datamodel.MockRib;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.datamodel.UniverseIpSpace;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link SectionedDataPlane}. */
+public final class SectionedDataPlaneTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private static final String VRF2 = "vrf2";
+
+  private static AnnotatedRoute<AbstractRoute> staticRoute(String prefix) {
+    return new AnnotatedRoute<>(
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse(prefix))
+            .setNextHopIp(Ip.parse("10.0.0.1"))
+            .setAdministrativeCost(1)
+            .build(),
+        DEFAULT_VRF_NAME);
+  }
+
+  private static Bgpv4Route bgpRoute(String prefix) {
+    return Bgpv4Route.testBuilder()
+        .setNetwork(Prefix.parse(prefix))
+        .setOriginatorIp(Ip.parse("10.0.0.2"))
+        .build();
+  }
+
+  /** Nodes n1 and n2 have RIBs and FIBs in two VRFs, but only n1 has BGP routes. */
+  private static DataPlane dataPlane() {
+    SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>> ribs =
+        ImmutableSortedMap.of(
+            "n1",
+            ImmutableSortedMap.of(
+                DEFAULT_VRF_NAME,
+                MockRib.builder().setRoutes(ImmutableSet.of(staticRoute("1.0.0.0/8"))).build(),
+                VRF2,
+                MockRib.builder().setRoutes(ImmutableSet.of(staticRoute("2.0.0.0/8"))).build()),
+            "n2",
+            ImmutableSortedMap.of(
+                DEFAULT_VRF_NAME,
+                MockRib.builder().setRoutes(ImmutableSet.of(staticRoute("3.0.0.0/8"))).build(),
+                VRF2,
+                MockRib.builder().build()));
+    Map<String, Map<String, Fib>> fibs =
+        ImmutableMap.of(
+            "n1",
+            ImmutableMap.of(
+                DEFAULT_VRF_NAME,
+                MockFib.builder()
+                    .setMatchingIps(
+                        ImmutableMap.of(Prefix.parse("1.0.0.0/8"), UniverseIpSpace.INSTANCE))
+                    .build(),
+                VRF2,
+                MockFib.builder().build()),
+            "n2",
+            ImmutableMap.of(DEFAULT_VRF_NAME, MockFib.builder().build()));
+    Table<String, String, Set<Bgpv4Route>> bgpRoutes =
+        ImmutableTable.of("n1", DEFAULT_VRF_NAME, ImmutableSet.of(bgpRoute("4.0.0.0/8")));
+    return MockDataPlane.builder()
+        .setRibs(ribs)
+        .setFibs(fibs)
+        .setBgpRoutes(bgpRoutes)
+        .setForwardingAnalysis(
+            MockForwardingAnalysis.builder()
+                .setArpReplies(
+                    ImmutableMap.of(
+                        "n1", ImmutableMap.<String, IpSpace>of("i1", UniverseIpSpace.INSTANCE)))
+                .build())
+        .build();
+  }
+
+  private SectionedDataPlane writeAndOpen(DataPlane dataPlane) throws IOException {
+    Path file = _folder.newFile().toPath();
+    SectionedDataPlane.write(dataPlane, file);
+    return SectionedDataPlane.open(file);
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    DataPlane dataPlane = dataPlane();
+    SectionedDataPlane loaded = writeAndOpen(dataPlane);
+
+    assertThat(loaded.getRibs().keySet(), contains("n1", "n2"));
+    assertThat(loaded.getRibs().get("n1").keySet(), contains(DEFAULT_VRF_NAME, VRF2));
+    assertThat(
+        loaded.getRibs().get("n2").get(DEFAULT_VRF_NAME).getTypedRoutes(),
+        equalTo(dataPlane.getRibs().get("n2").get(DEFAULT_VRF_NAME).getTypedRoutes()));
+    assertThat(loaded.getFibs().get("n2").keySet(), contains(DEFAULT_VRF_NAME));
+    assertThat(
+        loaded.getFibs().get("n1").get(DEFAULT_VRF_NAME).getMatchingIps(),
+        equalTo(dataPlane.getFibs().get("n1").get(DEFAULT_VRF_NAME).getMatchingIps()));
+    assertThat(loaded.getBgpRoutes(), equalTo(dataPlane.getBgpRoutes()));
+    assertTrue(loaded.getEvpnRoutes().isEmpty());
+    assertTrue(loaded.getPrefixTracingInfoSummary().isEmpty());
+    assertThat(
+        ((MockForwardingAnalysis) loaded.getForwardingAnalysis()).getArpReplies(),
+        equalTo(((MockForwardingAnalysis) dataPlane.getForwardingAnalysis()).getArpReplies()));
+  }
+
+  @Test
+  public void testLazySections() throws IOException {
+    SectionedDataPlane loaded = writeAndOpen(dataPlane());
+
+    // key sets come from the layout alone
+    assertThat(loaded.getRibs().keySet(), contains("n1", "n2"));
+    assertThat(loaded.getBgpRoutes().row("n1").keySet(), contains(DEFAULT_VRF_NAME));
+    assertThat(loaded.getSectionsRead(), equalTo(0));
+
+    // each node/VRF section is read once, and holds all structures of that node and VRF
+    assertThat(
+        loaded.getRibs().get("n1").get(DEFAULT_VRF_NAME).getTypedRoutes(),
+        contains(staticRoute("1.0.0.0/8")));
+    assertThat(loaded.getBgpRoutes().get("n1", DEFAULT_VRF_NAME), contains(bgpRoute("4.0.0.0/8")));
+    assertThat(
+        loaded.getFibs().get("n1").get(DEFAULT_VRF_NAME).getMatchingIps().keySet(),
+        contains(Prefix.parse("1.0.0.0/8")));
+    assertThat(loaded.getSectionsRead(), equalTo(1));
+
+    // operations over the whole table read every section with a cell in that table
+    assertThat(loaded.getBgpRoutes().cellSet().size(), equalTo(1));
+    assertThat(loaded.getSectionsRead(), equalTo(1));
+    assertThat(loaded.getRibs().get("n2").get(VRF2).getTypedRoutes().size(), equalTo(0));
+    assertThat(loaded.getSectionsRead(), equalTo(2));
+  }
+
+  @Test
+  public void testTableRows() throws IOException {
+    SectionedDataPlane loaded = writeAndOpen(dataPlane());
+    Table<String, String, Set<Bgpv4Route>> bgpRoutes = loaded.getBgpRoutes();
+
+    assertTrue(bgpRoutes.containsRow("n1"));
+    assertTrue(bgpRoutes.contains("n1", DEFAULT_VRF_NAME));
+    // n2 has VRFs, but no BGP routes
+    assertFalse(bgpRoutes.containsRow("n2"));
+    assertFalse(bgpRoutes.contains("n1", VRF2));
+    assertThat(bgpRoutes.get("n1", VRF2), nullValue());
+    assertThat(bgpRoutes.row("n2"), anEmptyMap());
+    assertThat(bgpRoutes.rowKeySet(), contains("n1"));
+    assertThat(bgpRoutes.size(), equalTo(1));
+    assertThat(loaded.getSectionsRead(), equalTo(0));
+  }
+}
@@ -11,8 +11,10 @@ import java.util.SortedSet;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import org.batfish.common.AnswerRowsOptions;
 import org.batfish.common.CompletionMetadata;
 import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.bdd.SnapshotAclBdds;
 import org.batfish.common.runtime.SnapshotRuntimeData;
 import org.batfish.common.topology.L3Adjacencies;
 import org.batfish.common.topology.Layer1Topology;
@@ -31,6 +33,7 @@ import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.eigrp.EigrpTopology;
 import org.batfish.datamodel.isp_configuration.IspConfiguration;
 import org.batfish.datamodel.ospf.OspfTopology;
+import org.batfish.datamodel.table.TableView;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.AnswerId;
@@ -160,6 +163,12 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException("no implementation for generated method");
   }
 
+  @Override
+  public Optional<TableView> loadAnswerRows(
+      NetworkId network, SnapshotId snapshot, AnswerId answerId, AnswerRowsOptions options) {
+    throw new UnsupportedOperationException("no implementation for generated method");
+  }
+
   @Override
   public AnswerMetadata loadAnswerMetadata(
       NetworkId network, SnapshotId snapshot, AnswerId answerId) {
@@ -351,6 +360,16 @@ public class TestStorageProvider implements StorageProvider {
     throw new UnsupportedOperationException();
   }
 
+  @Override
+  public Optional<SnapshotAclBdds> loadSnapshotAclBdds(NetworkSnapshot snapshot) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void storeSnapshotAclBdds(SnapshotAclBdds snapshotAclBdds, NetworkSnapshot snapshot) {
+    throw new UnsupportedOperationException();
+  }
+
   @Override
   public Topology loadLayer3Topology(NetworkSnapshot networkSnapshot) {
     throw new UnsupportedOperationException();
@@ -593,6 +612,23 @@ public class TestStorageProvider implements StorageProvider {
   @Override
   public void deleteVendorConfigurations(NetworkSnapshot snapshot) throws IOException {}
 
+  @Nonnull
+  @Override
+  public VendorConfiguration loadVendorConfiguration(NetworkSnapshot snapshot, String name)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void storeVendorConfiguration(
+      VendorConfiguration vendorConfiguration, String name, NetworkSnapshot snapshot)
+      throws IOException {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public void deleteVendorConfiguration(NetworkSnapshot snapshot, String name) throws IOException {}
+
   @Nonnull
   @Override
   public Stream<String> listInputHostConfigurationsKeys(NetworkSnapshot snapshot)
@@ -50,6 +50,9 @@ import org.batfish.symbolic.state.StateExpr;
  * all packets that can reach the query state, backward reachability is much more efficient.
  */
 public class BDDReachabilityAnalysis {
+  /** The {@link FixpointAlgorithm} used unless another is specified at construction. */
+  public static final FixpointAlgorithm DEFAULT_FIXPOINT_ALGORITHM = FixpointAlgorithm.SCC_WORKLIST;
+
   private final BDDPacket _bddPacket;
 
   // preState --> postState --> transition from pre to post
@@ -62,11 +65,22 @@ public class BDDReachabilityAnalysis {
 
   private final BDD _queryHeaderSpaceBdd;
 
+  private final FixpointAlgorithm _fixpointAlgorithm;
+
   BDDReachabilityAnalysis(
       BDDPacket packet,
       Set<StateExpr> ingressLocationStates,
       Stream<Edge> edges,
       BDD queryHeaderSpaceBdd) {
+    this(packet, ingressLocationStates, edges, queryHeaderSpaceBdd, DEFAULT_FIXPOINT_ALGORITHM);
+  }
+
+  BDDReachabilityAnalysis(
+      BDDPacket packet,
+      Set<StateExpr> ingressLocationStates,
+      Stream<Edge> edges,
+      BDD queryHeaderSpaceBdd,
+      FixpointAlgorithm fixpointAlgorithm) {
     Span span = GlobalTracer.get().buildSpan("constructs BDDReachabilityAnalysis").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
@@ -76,6 +90,7 @@ public class BDDReachabilityAnalysis {
           Suppliers.memoize(() -> BDDReachabilityUtils.transposeAndMaterialize(_forwardEdgeTable));
       _ingressLocationStates = ImmutableSet.copyOf(ingressLocationStates);
       _queryHeaderSpaceBdd = queryHeaderSpaceBdd;
+      _fixpointAlgorithm = fixpointAlgorithm;
     } finally {
       span.finish();
     }
@@ -92,7 +107,7 @@ public class BDDReachabilityAnalysis {
       Map<StateExpr, BDD> reverseReachableStates = new HashMap<>();
       reverseReachableStates.put(Query.INSTANCE, _queryHeaderSpaceBdd);
       BDDReachabilityUtils.backwardFixpointTransposed(
-          _transposedEdgeTable.get(), reverseReachableStates);
+          _transposedEdgeTable.get(), reverseReachableStates, _fixpointAlgorithm);
       return ImmutableMap.copyOf(reverseReachableStates);
     } finally {
       span.finish();
@@ -107,7 +122,7 @@ public class BDDReachabilityAnalysis {
   public Map<StateExpr, BDD> computeReverseReachableStates(Map<StateExpr, BDD> roots) {
     Map<StateExpr, BDD> reverseReachableStates = new HashMap<>(roots);
     BDDReachabilityUtils.backwardFixpointTransposed(
-        _transposedEdgeTable.get(), reverseReachableStates);
+        _transposedEdgeTable.get(), reverseReachableStates, _fixpointAlgorithm);
     return ImmutableMap.copyOf(reverseReachableStates);
   }
 
@@ -122,7 +137,8 @@ public class BDDReachabilityAnalysis {
       Map<StateExpr, BDD> forwardReachableStates = new LinkedHashMap<>();
       BDD one = _bddPacket.getFactory().one();
       _ingressLocationStates.forEach(state -> forwardReachableStates.put(state, one));
-      BDDReachabilityUtils.forwardFixpoint(_forwardEdgeTable, forwardReachableStates);
+      BDDReachabilityUtils.forwardFixpoint(
+          _forwardEdgeTable, forwardReachableStates, _fixpointAlgorithm);
       return ImmutableMap.copyOf(forwardReachableStates);
     } finally {
       span.finish();
@@ -143,13 +159,18 @@ public class BDDReachabilityAnalysis {
       assert scope != null; // avoid unused warning
       assert span != null; // avoid unused warning
       Map<StateExpr, BDD> forwardReachableStates = new LinkedHashMap<>(initialReachableStates);
-      BDDReachabilityUtils.forwardFixpoint(_forwardEdgeTable, forwardReachableStates);
+      BDDReachabilityUtils.forwardFixpoint(
+          _forwardEdgeTable, forwardReachableStates, _fixpointAlgorithm);
       return ImmutableMap.copyOf(forwardReachableStates);
     } finally {
       span.finish();
     }
   }
 
+  public FixpointAlgorithm getFixpointAlgorithm() {
+    return _fixpointAlgorithm;
+  }
+
   public BDDPacket getBDDPacket() {
     return _bddPacket;
   }
@@ -23,6 +23,7 @@ import static org.batfish.datamodel.transformation.TransformationUtil.visitTrans
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
@@ -167,6 +168,9 @@ public final class BDDReachabilityAnalysisFactory {
   @VisibleForTesting final @Nonnull BDDFibGenerator _bddFibGenerator;
 
   private final Map<String, BDDSourceManager> _bddSourceManagers;
+
+  // The query-independent edges, computed once and shared by all queries of this factory.
+  private final Supplier<List<Edge>> _edges;
   private final Map<String, BDDOutgoingOriginalFlowFilterManager>
       _bddOutgoingOriginalFlowFilterManagers;
 
@@ -247,6 +251,29 @@ public final class BDDReachabilityAnalysisFactory {
       IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
       boolean ignoreFilters,
       boolean initializeSessions) {
+    this(
+        packet,
+        configs,
+        forwardingAnalysis,
+        ipsRoutedOutInterfacesFactory,
+        ignoreFilters,
+        initializeSessions,
+        ImmutableMap.of());
+  }
+
+  /**
+   * @param precomputedAclBdds node --&gt; ACL name --&gt; permit BDD, owned by {@code packet}, for
+   *     ACLs whose BDDs were computed ahead of time (e.g. loaded from {@link
+   *     org.batfish.common.bdd.SnapshotAclBdds}). Other ACLs are converted on demand.
+   */
+  public BDDReachabilityAnalysisFactory(
+      BDDPacket packet,
+      Map<String, Configuration> configs,
+      ForwardingAnalysis forwardingAnalysis,
+      IpsRoutedOutInterfacesFactory ipsRoutedOutInterfacesFactory,
+      boolean ignoreFilters,
+      boolean initializeSessions,
+      Map<String, Map<String, BDD>> precomputedAclBdds) {
     Span span = GlobalTracer.get().buildSpan("Construct BDDReachabilityAnalysisFactory").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
@@ -283,7 +310,7 @@ public final class BDDReachabilityAnalysisFactory {
       _dstIpSpaceToBDD = _bddPacket.getDstIpSpaceToBDD();
       _srcIpSpaceToBDD = _bddPacket.getSrcIpSpaceToBDD();
 
-      _aclPermitBDDs = computeAclBDDs(_bddPacket, _bddSourceManagers, configs);
+      _aclPermitBDDs = computeAclBDDs(_bddPacket, _bddSourceManagers, configs, precomputedAclBdds);
       _aclDenyBDDs = computeAclDenyBDDs(_aclPermitBDDs);
 
       _bddIncomingTransformations = computeBDDIncomingTransformations();
@@ -347,6 +374,8 @@ public final class BDDReachabilityAnalysisFactory {
               _nextVrfBDDs,
               _nullRoutedBDDs,
               this::flowsLeavingInterface);
+
+      _edges = Suppliers.memoize(() -> computeEdges().collect(ImmutableList.toImmutableList()));
     } finally {
       span.finish();
     }
@@ -378,7 +407,8 @@ public final class BDDReachabilityAnalysisFactory {
   private static Map<String, Map<String, Supplier<BDD>>> computeAclBDDs(
       BDDPacket bddPacket,
       Map<String, BDDSourceManager> bddSourceManagers,
-      Map<String, Configuration> configs) {
+      Map<String, Configuration> configs,
+      Map<String, Map<String, BDD>> precomputedAclBdds) {
     Span span =
         GlobalTracer.get().buildSpan("BDDReachabilityAnalysisFactory.computeAclBDDs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -390,10 +420,17 @@ public final class BDDReachabilityAnalysisFactory {
             Configuration config = nodeEntry.getValue();
             IpAccessListToBdd aclToBdd =
                 ipAccessListToBdd(bddPacket, bddSourceManagers.get(config.getHostname()), config);
+            Map<String, BDD> precomputed =
+                precomputedAclBdds.getOrDefault(config.getHostname(), ImmutableMap.of());
             return toImmutableMap(
                 config.getIpAccessLists(),
                 Entry::getKey,
-                aclEntry -> Suppliers.memoize(() -> aclToBdd.toBdd(aclEntry.getValue())));
+                aclEntry -> {
+                  BDD bdd = precomputed.get(aclEntry.getKey());
+                  return bdd != null
+                      ? Suppliers.ofInstance(bdd)
+                      : Suppliers.memoize(() -> aclToBdd.toBdd(aclEntry.getValue()));
+                });
           });
     } finally {
       span.finish();
@@ -749,10 +786,13 @@ public final class BDDReachabilityAnalysisFactory {
   }
 
   /*
-   * These edges do not depend on the query. Compute them separately so that we can later cache them
-   * across queries if we want to.
+   * These edges do not depend on the query, so they are computed once and cached across queries.
    */
   private Stream<Edge> generateEdges() {
+    return _edges.get().stream();
+  }
+
+  private Stream<Edge> computeEdges() {
     return Streams.concat(
         generateRules_PreInInterface_NodeDropAclIn(),
         generateRules_PreInInterface_PostInInterface(),
@@ -2080,6 +2120,11 @@ public final class BDDReachabilityAnalysisFactory {
     return _bddOutgoingOriginalFlowFilterManagers;
   }
 
+  /** Returns the {@link BDDPacket} in which all BDDs of this factory and its analyses live. */
+  public BDDPacket getBDDPacket() {
+    return _bddPacket;
+  }
+
   public Map<String, BDDSourceManager> getBDDSourceManagers() {
     return _bddSourceManagers;
   }
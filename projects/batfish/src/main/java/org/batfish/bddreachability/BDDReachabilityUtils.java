@@ -51,7 +51,28 @@ public final class BDDReachabilityUtils {
             (t1, t2) -> Transitions.or(t1, t2)));
   }
 
-  /** Apply edges to the reachableSets until a fixed point is reached. */
+  /** Apply edges to the reachableSets until a fixed point is reached, using the given algorithm. */
+  static void fixpoint(
+      Map<StateExpr, BDD> reachableSets,
+      Table<StateExpr, StateExpr, Transition> edges,
+      BiFunction<Transition, BDD, BDD> traverse,
+      FixpointAlgorithm algorithm) {
+    switch (algorithm) {
+      case ROUND_BASED:
+        fixpoint(reachableSets, edges, traverse);
+        return;
+      case SCC_WORKLIST:
+        SccWorklistFixpoint.fixpoint(reachableSets, edges, traverse);
+        return;
+      default:
+        throw new BatfishException("Unexpected FixpointAlgorithm: " + algorithm);
+    }
+  }
+
+  /**
+   * Apply edges to the reachableSets until a fixed point is reached, using {@link
+   * FixpointAlgorithm#ROUND_BASED}.
+   */
   @VisibleForTesting
   static void fixpoint(
       Map<StateExpr, BDD> reachableSets,
@@ -132,6 +153,14 @@ public final class BDDReachabilityUtils {
     fixpoint(reverseReachable, transposedEdgeTable, Transition::transitBackward);
   }
 
+  /** See {@link #backwardFixpoint(Table, Map)}. */
+  public static void backwardFixpointTransposed(
+      Table<StateExpr, StateExpr, Transition> transposedEdgeTable,
+      Map<StateExpr, BDD> reverseReachable,
+      FixpointAlgorithm algorithm) {
+    fixpoint(reverseReachable, transposedEdgeTable, Transition::transitBackward, algorithm);
+  }
+
   /**
    * Returns an immutable copy of the input table that has been materialized in transposed form.
    *
@@ -149,6 +178,13 @@ public final class BDDReachabilityUtils {
     fixpoint(reachable, forwardEdgeTable, Transition::transitForward);
   }
 
+  public static void forwardFixpoint(
+      Table<StateExpr, StateExpr, Transition> forwardEdgeTable,
+      Map<StateExpr, BDD> reachable,
+      FixpointAlgorithm algorithm) {
+    fixpoint(reachable, forwardEdgeTable, Transition::transitForward, algorithm);
+  }
+
   static Map<IngressLocation, BDD> getIngressLocationBdds(
       Map<StateExpr, BDD> stateReachableBdds, Set<StateExpr> ingressLocationStates, BDD zero) {
     return toImmutableMap(
@@ -0,0 +1,16 @@
+package org.batfish.bddreachability;
+
+/** Algorithms available for computing a reachability fixpoint over the BDD reachability graph. */
+public enum FixpointAlgorithm {
+  /**
+   * Repeatedly sweep over the whole set of states that changed in the previous round, pushing each
+   * state's complete reachable set across all of its out-edges.
+   */
+  ROUND_BASED,
+  /**
+   * Process states from a priority worklist ordered by the topological order of the strongly
+   * connected components of the graph, pushing only the part of each state's reachable set that is
+   * new since the state was last visited.
+   */
+  SCC_WORKLIST
+}
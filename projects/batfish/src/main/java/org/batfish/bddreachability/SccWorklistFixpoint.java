@@ -0,0 +1,198 @@
+package org.batfish.bddreachability;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Table;
+import io.opentracing.Scope;
+import io.opentracing.Span;
+import io.opentracing.util.GlobalTracer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.BiFunction;
+import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.transition.Transition;
+import org.batfish.symbolic.state.StateExpr;
+
+/**
+ * Computes a reachability fixpoint using a priority worklist ordered by the strongly connected
+ * components (SCCs) of the graph, propagating only newly-reached headerspace along each edge.
+ *
+ * <p>States are prioritized according to a topological order of the SCCs reachable from the initial
+ * states, so that (in the absence of cycles) each state is processed exactly once, after all of its
+ * predecessors. Within cycles, states are revisited only when they receive new headerspace, and
+ * only that new headerspace (the delta) is pushed across their out-edges. This is sound because
+ * every {@link Transition} distributes over disjunction.
+ */
+final class SccWorklistFixpoint {
+  private SccWorklistFixpoint() {}
+
+  /** Apply edges to the reachableSets until a fixed point is reached. */
+  static void fixpoint(
+      Map<StateExpr, BDD> reachableSets,
+      Table<StateExpr, StateExpr, Transition> edges,
+      BiFunction<Transition, BDD, BDD> traverse) {
+    Span span = GlobalTracer.get().buildSpan("SccWorklistFixpoint.fixpoint").start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      Map<StateExpr, Integer> priorities = computePriorities(reachableSets.keySet(), edges);
+
+      // state --> headerspace that has reached the state but not yet been propagated from it
+      Map<StateExpr, BDD> pendingDeltas = new HashMap<>();
+      PriorityQueue<StateExpr> worklist =
+          new PriorityQueue<>(Comparator.comparingInt(priorities::get));
+      reachableSets.forEach(
+          (state, bdd) -> {
+            if (!bdd.isZero()) {
+              pendingDeltas.put(state, bdd);
+              worklist.add(state);
+            }
+          });
+
+      while (!worklist.isEmpty()) {
+        StateExpr state = worklist.remove();
+        BDD delta = pendingDeltas.remove(state);
+        edges
+            .row(state)
+            .forEach(
+                (neighbor, edge) -> {
+                  BDD result = traverse.apply(edge, delta);
+                  if (result.isZero()) {
+                    return;
+                  }
+
+                  // update neighbor's reachable set
+                  BDD oldReach = reachableSets.get(neighbor);
+                  BDD newDelta;
+                  if (oldReach == null) {
+                    newDelta = result;
+                    reachableSets.put(neighbor, result);
+                  } else {
+                    newDelta = result.diff(oldReach);
+                    if (newDelta.isZero()) {
+                      return;
+                    }
+                    reachableSets.put(neighbor, oldReach.or(newDelta));
+                  }
+
+                  // schedule the new headerspace to be propagated from neighbor
+                  BDD pendingDelta = pendingDeltas.get(neighbor);
+                  if (pendingDelta == null) {
+                    pendingDeltas.put(neighbor, newDelta);
+                    worklist.add(neighbor);
+                  } else {
+                    pendingDeltas.put(neighbor, pendingDelta.or(newDelta));
+                  }
+                });
+      }
+    } finally {
+      span.finish();
+    }
+  }
+
+  /**
+   * Assign a priority to each state reachable from the roots, such that the states of each SCC have
+   * lower priority values than the states of every SCC reachable from it.
+   */
+  @VisibleForTesting
+  static Map<StateExpr, Integer> computePriorities(
+      Iterable<StateExpr> roots, Table<StateExpr, StateExpr, Transition> edges) {
+    Map<StateExpr, Integer> priorities = new HashMap<>();
+    // Tarjan's algorithm emits SCCs in reverse topological order.
+    for (List<StateExpr> scc : Lists.reverse(computeSccs(roots, edges))) {
+      for (StateExpr state : scc) {
+        priorities.put(state, priorities.size());
+      }
+    }
+    return priorities;
+  }
+
+  /**
+   * Compute the SCCs of the subgraph reachable from the roots, in reverse topological order. Uses
+   * an iterative version of Tarjan's algorithm, since the graph may be too deep for recursion.
+   */
+  @VisibleForTesting
+  static List<List<StateExpr>> computeSccs(
+      Iterable<StateExpr> roots, Table<StateExpr, StateExpr, Transition> edges) {
+    Map<StateExpr, Integer> index = new HashMap<>();
+    Map<StateExpr, Integer> lowLink = new HashMap<>();
+    Deque<StateExpr> sccStack = new ArrayDeque<>();
+    Set<StateExpr> onSccStack = new HashSet<>();
+    Deque<DfsFrame> callStack = new ArrayDeque<>();
+    List<List<StateExpr>> sccs = new ArrayList<>();
+
+    for (StateExpr root : roots) {
+      if (index.containsKey(root)) {
+        continue;
+      }
+      visit(root, index, lowLink, sccStack, onSccStack, callStack, edges);
+      while (!callStack.isEmpty()) {
+        DfsFrame frame = callStack.peek();
+        StateExpr state = frame._state;
+        if (frame._successors.hasNext()) {
+          StateExpr successor = frame._successors.next();
+          if (!index.containsKey(successor)) {
+            visit(successor, index, lowLink, sccStack, onSccStack, callStack, edges);
+          } else if (onSccStack.contains(successor)) {
+            lowLink.put(state, Math.min(lowLink.get(state), index.get(successor)));
+          }
+          continue;
+        }
+
+        // all successors of state have been explored
+        callStack.pop();
+        int stateLowLink = lowLink.get(state);
+        if (!callStack.isEmpty()) {
+          StateExpr parent = callStack.peek()._state;
+          lowLink.put(parent, Math.min(lowLink.get(parent), stateLowLink));
+        }
+        if (stateLowLink == index.get(state)) {
+          ImmutableList.Builder<StateExpr> scc = ImmutableList.builder();
+          StateExpr member;
+          do {
+            member = sccStack.pop();
+            onSccStack.remove(member);
+            scc.add(member);
+          } while (!member.equals(state));
+          sccs.add(scc.build());
+        }
+      }
+    }
+    return sccs;
+  }
+
+  private static void visit(
+      StateExpr state,
+      Map<StateExpr, Integer> index,
+      Map<StateExpr, Integer> lowLink,
+      Deque<StateExpr> sccStack,
+      Set<StateExpr> onSccStack,
+      Deque<DfsFrame> callStack,
+      Table<StateExpr, StateExpr, Transition> edges) {
+    int stateIndex = index.size();
+    index.put(state, stateIndex);
+    lowLink.put(state, stateIndex);
+    sccStack.push(state);
+    onSccStack.add(state);
+    callStack.push(new DfsFrame(state, edges.row(state).keySet().iterator()));
+  }
+
+  private static final class DfsFrame {
+    private final StateExpr _state;
+    private final Iterator<StateExpr> _successors;
+
+    private DfsFrame(StateExpr state, Iterator<StateExpr> successors) {
+      _state = state;
+      _successors = successors;
+    }
+  }
+}
@@ -14,6 +14,7 @@ import org.batfish.common.BaseSettings;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.CoordConsts;
+import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings;
 import org.batfish.grammar.GrammarSettings;
 import org.batfish.identifiers.AnalysisId;
 import org.batfish.identifiers.NetworkId;
@@ -38,6 +39,8 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
   private static final String ARG_PARSE_REUSE = "parsereuse";
 
+  private static final String ARG_PARSER_DFA_CACHE = "parserdfacache";
+
   private static final String ARG_EXIT_ON_FIRST_ERROR = "ee";
 
   private static final String ARG_FLATTEN = "flatten";
@@ -286,6 +289,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     return _config.getBoolean(ARG_PARSE_REUSE);
   }
 
+  public boolean getParserDfaCache() {
+    return _config.getBoolean(ARG_PARSER_DFA_CACHE);
+  }
+
   @Override
   public int getMaxParserContextLines() {
     return _config.getInt(ARG_MAX_PARSER_CONTEXT_LINES);
@@ -453,6 +460,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(BfConsts.ARG_DIFFERENTIAL, false);
     setDefaultProperty(BfConsts.ARG_DISABLE_UNRECOGNIZED, false);
     setDefaultProperty(ARG_EXIT_ON_FIRST_ERROR, false);
+    setDefaultProperty(BfConsts.ARG_FILTER_ANALYSIS_THREADS, 1);
     setDefaultProperty(ARG_FLATTEN, false);
     setDefaultProperty(ARG_FLATTEN_DESTINATION, null);
     setDefaultProperty(BfConsts.ARG_HALT_ON_CONVERT_ERROR, false);
@@ -472,6 +480,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     setDefaultProperty(ARG_CHECK_BGP_REACHABILITY, true);
     setDefaultProperty(ARG_NO_SHUFFLE, false);
     setDefaultProperty(ARG_PARSE_REUSE, true);
+    setDefaultProperty(ARG_PARSER_DFA_CACHE, false);
     setDefaultProperty(ARG_PRINT_PARSE_TREES, false);
     setDefaultProperty(ARG_PRINT_PARSE_TREE_LINE_NUMS, false);
     setDefaultProperty(BfConsts.ARG_QUESTION_NAME, null);
@@ -590,6 +599,11 @@ public final class Settings extends BaseSettings implements GrammarSettings {
         BfConsts.ARG_HALT_ON_PARSE_ERROR,
         "Halt on parse error instead of proceeding with successfully parsed configs");
 
+    addOption(
+        BfConsts.ARG_FILTER_ANALYSIS_THREADS,
+        "number of threads used by filter analysis questions",
+        ARGNAME_NUMBER);
+
     addBooleanOption(ARG_HELP, "print this message");
 
     addOption(
@@ -636,6 +650,9 @@ public final class Settings extends BaseSettings implements GrammarSettings {
 
     addBooleanOption(ARG_PARSE_REUSE, "reuse parse results when appropriate");
 
+    addBooleanOption(
+        ARG_PARSER_DFA_CACHE, "persist warmed parser DFAs per network and preload them");
+
     addBooleanOption(ARG_PRINT_PARSE_TREES, "print parse trees");
 
     addBooleanOption(
@@ -783,6 +800,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getBooleanOptionValue(BfConsts.ARG_DIFFERENTIAL);
     getBooleanOptionValue(BfConsts.ARG_DISABLE_UNRECOGNIZED);
     getBooleanOptionValue(ARG_EXIT_ON_FIRST_ERROR);
+    getIntOptionValue(BfConsts.ARG_FILTER_ANALYSIS_THREADS);
     getBooleanOptionValue(ARG_FLATTEN);
     getPathOptionValue(ARG_FLATTEN_DESTINATION);
     getBooleanOptionValue(BfConsts.ARG_HALT_ON_CONVERT_ERROR);
@@ -811,6 +829,7 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     getIntOptionValue(ARG_SERVICE_PORT);
     getBooleanOptionValue(ARG_NO_SHUFFLE);
     getBooleanOptionValue(ARG_PARSE_REUSE);
+    getBooleanOptionValue(ARG_PARSER_DFA_CACHE);
     getStringOptionValue(BfConsts.ARG_SNAPSHOT_NAME);
     getPathOptionValue(BfConsts.ARG_STORAGE_BASE);
     getStringOptionValue(BfConsts.ARG_TASK_PLUGIN);
@@ -850,6 +869,14 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(BfConsts.ARG_DISABLE_UNRECOGNIZED, b);
   }
 
+  /**
+   * Sets whether the incremental data plane engine runs the EGP computation event-driven; see
+   * {@link IncrementalDataPlaneSettings#getEventDrivenEgp()}.
+   */
+  public void setEventDrivenEgp(boolean eventDrivenEgp) {
+    _config.setProperty(IncrementalDataPlaneSettings.PROP_EVENT_DRIVEN_EGP, eventDrivenEgp);
+  }
+
   public void setHaltOnConvertError(boolean haltOnConvertError) {
     _config.setProperty(BfConsts.ARG_HALT_ON_CONVERT_ERROR, haltOnConvertError);
   }
@@ -886,6 +913,10 @@ public final class Settings extends BaseSettings implements GrammarSettings {
     _config.setProperty(ARG_MAX_RUNTIME_MS, runtimeMs);
   }
 
+  public void setParserDfaCache(boolean parserDfaCache) {
+    _config.setProperty(ARG_PARSER_DFA_CACHE, parserDfaCache);
+  }
+
   @Override
   public void setPrintParseTree(boolean printParseTree) {
     _config.setProperty(ARG_PRINT_PARSE_TREES, printParseTree);
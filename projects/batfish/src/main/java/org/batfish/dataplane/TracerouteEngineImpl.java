@@ -17,6 +17,7 @@ import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.Topology;
 import org.batfish.datamodel.flow.FirewallSessionTraceInfo;
 import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.dataplane.traceroute.TraceMemo;
 import org.batfish.dataplane.traceroute.TracerouteEngineImplContext;
 
 /** The default implementation of a traceroute engine */
@@ -24,12 +25,14 @@ public final class TracerouteEngineImpl implements TracerouteEngine {
   private final DataPlane _dataPlane;
   private final Topology _topology;
   private final Map<String, Configuration> _configurations;
+  private final TraceMemo _memo;
 
   public TracerouteEngineImpl(
       DataPlane dataPlane, Topology topology, Map<String, Configuration> configurations) {
     _dataPlane = dataPlane;
     _topology = topology;
     _configurations = configurations;
+    _memo = new TraceMemo();
   }
 
   @Override
@@ -56,7 +59,13 @@ public final class TracerouteEngineImpl implements TracerouteEngine {
             flows,
             _dataPlane.getFibs(),
             ignoreFilters,
-            _configurations)
+            _configurations,
+            _memo)
         .buildTraceDags();
   }
+
+  @Override
+  public Map<String, Long> getCounters() {
+    return _memo.getCounters();
+  }
 }
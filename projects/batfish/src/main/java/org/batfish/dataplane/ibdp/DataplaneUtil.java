@@ -6,6 +6,7 @@ import static org.batfish.specifier.LocationInfoUtils.computeLocationInfo;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.ImmutableTable;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
@@ -52,6 +53,30 @@ public final class DataplaneUtil {
     return new ForwardingAnalysisImpl(configs, fibs, layer3Topology, computeLocationInfo(configs));
   }
 
+  /**
+   * Computes the forwarding analysis of a data plane in which only the given nodes were recomputed
+   * since {@code base} was computed, reusing the results of {@code base} where possible.
+   */
+  static ForwardingAnalysis computeForwardingAnalysis(
+      Map<String, Map<String, Fib>> fibs,
+      Map<String, Configuration> configs,
+      Topology layer3Topology,
+      ForwardingAnalysis base,
+      Set<String> recomputedNodes) {
+    if (!(base instanceof ForwardingAnalysisImpl)) {
+      return computeForwardingAnalysis(fibs, configs, layer3Topology);
+    }
+    ImmutableSetMultimap.Builder<String, String> changedVrfs = ImmutableSetMultimap.builder();
+    recomputedNodes.forEach(node -> changedVrfs.putAll(node, configs.get(node).getVrfs().keySet()));
+    return ForwardingAnalysisImpl.incremental(
+        (ForwardingAnalysisImpl) base,
+        changedVrfs.build(),
+        configs,
+        fibs,
+        layer3Topology,
+        computeLocationInfo(configs));
+  }
+
   static SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>>
       computeRibs(Map<String, Node> nodes) {
     return toImmutableSortedMap(
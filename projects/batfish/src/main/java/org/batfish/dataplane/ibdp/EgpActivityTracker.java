@@ -0,0 +1,226 @@
+package org.batfish.dataplane.ibdp;
+
+import static com.google.common.collect.ImmutableSet.toImmutableSet;
+import static org.batfish.common.util.StreamUtil.toListInRandomOrder;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.Multimaps;
+import com.google.common.collect.SetMultimap;
+import com.google.common.graph.EndpointPair;
+import com.google.common.graph.GraphBuilder;
+import com.google.common.graph.MutableGraph;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.batfish.datamodel.BgpPeerConfigId;
+import org.batfish.datamodel.eigrp.EigrpEdge;
+import org.batfish.datamodel.isis.IsisEdge;
+import org.batfish.datamodel.ospf.OspfTopology.EdgeId;
+
+/**
+ * Decides which nodes run in each round of the event-driven EGP computation (see {@link
+ * IncrementalDataPlaneSettings#getEventDrivenEgp()}), and detects oscillations separately in each
+ * group of nodes that can exchange routes.
+ *
+ * <p>Two nodes depend on each other if they are adjacent in the BGP, EIGRP, IS-IS, or OSPF
+ * topology. VRFs of the same node always depend on each other, because of cross-VRF leaking. A node
+ * runs in a round if it, or one of its neighbors, has {@link VirtualRouter#hasPendingEgpWork()
+ * pending work} at the end of the previous round. Every other node is quiescent: running it would
+ * not change any state, so it is skipped.
+ *
+ * <p>Nodes in different connected components never exchange routes, so each component has its own
+ * history of states. A component oscillates if it revisits a state while it still has pending work.
+ */
+@ParametersAreNonnullByDefault
+final class EgpActivityTracker {
+
+  private static final Logger LOGGER = LogManager.getLogger(EgpActivityTracker.class);
+
+  private final @Nonnull SortedMap<String, Node> _nodes;
+  private final @Nonnull MutableGraph<String> _graph;
+  private final @Nonnull Map<String, Integer> _componentsByNode;
+  private final @Nonnull ListMultimap<Integer, String> _nodesByComponent;
+
+  /** The iteration hashcode of each virtual router, as of the last round it could have changed */
+  private final @Nonnull Map<VirtualRouter, Integer> _hashCodes;
+
+  private final @Nonnull SetMultimap<Integer, Integer> _seenHashCodesByComponent;
+  private @Nonnull Set<String> _activeNodes;
+
+  EgpActivityTracker(SortedMap<String, Node> nodes, TopologyContext topologyContext) {
+    _nodes = nodes;
+    _graph = dependencyGraph(nodes.keySet(), topologyContext);
+    _componentsByNode = computeComponents(_graph, nodes.keySet());
+    _nodesByComponent =
+        Multimaps.invertFrom(Multimaps.forMap(_componentsByNode), ArrayListMultimap.create());
+    _activeNodes = nodes.keySet();
+    _hashCodes = new IdentityHashMap<>();
+    _seenHashCodesByComponent = HashMultimap.create();
+  }
+
+  /** Return the names of the nodes that run in the current round */
+  @Nonnull
+  Set<String> getActiveNodes() {
+    return _activeNodes;
+  }
+
+  /** Return the virtual routers that run in the current round */
+  @Nonnull
+  List<VirtualRouter> getActiveVirtualRouters() {
+    return virtualRouters(_activeNodes);
+  }
+
+  /** Check whether any node has to run in the current round */
+  boolean hasActiveNodes() {
+    return !_activeNodes.isEmpty();
+  }
+
+  /**
+   * Called at the end of each round, after {@link VirtualRouter#endOfEgpRound()}. Records the state
+   * of each component that ran, and decides which nodes run in the next round.
+   *
+   * @param iteration the number of the round that ended
+   * @return {@code true} iff some component that still has pending work revisited a state
+   */
+  boolean endOfRound(int iteration) {
+    // Active nodes may have sent messages to their neighbors, so the state of those changed too.
+    Set<String> touchedNodes = withNeighbors(_activeNodes);
+    List<VirtualRouter> touchedVrs = virtualRouters(touchedNodes);
+    touchedVrs.parallelStream()
+        .collect(
+            ImmutableMap.toImmutableMap(
+                Function.identity(), VirtualRouter::computeIterationHashCode))
+        .forEach(_hashCodes::put);
+    Set<String> pendingNodes =
+        touchedVrs.parallelStream()
+            .filter(VirtualRouter::hasPendingEgpWork)
+            .map(VirtualRouter::getHostname)
+            .collect(toImmutableSet());
+
+    boolean repeated = false;
+    Set<Integer> pendingComponents =
+        pendingNodes.stream().map(_componentsByNode::get).collect(toImmutableSet());
+    for (int component : pendingComponents) {
+      if (!_seenHashCodesByComponent.put(component, componentHashCode(component))) {
+        LOGGER.debug("Component {} revisited a state in iteration {}", component, iteration);
+        repeated = true;
+      }
+    }
+
+    _activeNodes = withNeighbors(pendingNodes);
+    LOGGER.info(
+        "Iteration {}: {} of {} nodes have pending work, {} run next",
+        iteration,
+        pendingNodes.size(),
+        _nodes.size(),
+        _activeNodes.size());
+    return repeated;
+  }
+
+  /** Return the given nodes and all of their neighbors */
+  @VisibleForTesting
+  @Nonnull
+  Set<String> withNeighbors(Set<String> hostnames) {
+    ImmutableSet.Builder<String> result = ImmutableSet.builder();
+    for (String hostname : hostnames) {
+      result.add(hostname);
+      result.addAll(_graph.adjacentNodes(hostname));
+    }
+    return result.build();
+  }
+
+  /** Return the identifier of the connected component containing the given node */
+  @VisibleForTesting
+  int getComponent(String hostname) {
+    return _componentsByNode.get(hostname);
+  }
+
+  private int componentHashCode(int component) {
+    int hashCode = 0;
+    for (String hostname : _nodesByComponent.get(component)) {
+      for (VirtualRouter vr : _nodes.get(hostname).getVirtualRouters()) {
+        hashCode += _hashCodes.get(vr);
+      }
+    }
+    return hashCode;
+  }
+
+  /** Return the virtual routers of the given nodes, in random order like the engine's list */
+  @Nonnull
+  private List<VirtualRouter> virtualRouters(Set<String> hostnames) {
+    return toListInRandomOrder(
+        hostnames.stream().flatMap(h -> _nodes.get(h).getVirtualRouters().stream()));
+  }
+
+  /**
+   * Build the graph of nodes that can exchange routes. Edges to nodes that are not in {@code
+   * hostnames} are ignored.
+   */
+  @Nonnull
+  private static MutableGraph<String> dependencyGraph(
+      Set<String> hostnames, TopologyContext topologyContext) {
+    MutableGraph<String> graph = GraphBuilder.undirected().allowsSelfLoops(true).build();
+    hostnames.forEach(graph::addNode);
+    ImmutableList.Builder<EndpointPair<String>> edges = ImmutableList.builder();
+    for (EndpointPair<BgpPeerConfigId> edge : topologyContext.getBgpTopology().getGraph().edges()) {
+      edges.add(EndpointPair.unordered(edge.nodeU().getHostname(), edge.nodeV().getHostname()));
+    }
+    for (EigrpEdge edge : topologyContext.getEigrpTopology().getNetwork().edges()) {
+      edges.add(
+          EndpointPair.unordered(edge.getNode1().getHostname(), edge.getNode2().getHostname()));
+    }
+    for (IsisEdge edge : topologyContext.getIsisTopology().getNetwork().edges()) {
+      edges.add(EndpointPair.unordered(edge.getNode1().getNode(), edge.getNode2().getNode()));
+    }
+    for (EdgeId edge : topologyContext.getOspfTopology().edges()) {
+      edges.add(EndpointPair.unordered(edge.getTail().getHostname(), edge.getHead().getHostname()));
+    }
+    for (EndpointPair<String> edge : edges.build()) {
+      if (hostnames.contains(edge.nodeU()) && hostnames.contains(edge.nodeV())) {
+        graph.putEdge(edge.nodeU(), edge.nodeV());
+      }
+    }
+    return graph;
+  }
+
+  /** Number the connected components of the graph, and map each node to its component */
+  @Nonnull
+  private static Map<String, Integer> computeComponents(
+      MutableGraph<String> graph, Set<String> hostnames) {
+    Map<String, Integer> components = new HashMap<>();
+    int component = 0;
+    for (String start : hostnames) {
+      if (components.containsKey(start)) {
+        continue;
+      }
+      Queue<String> queue = new ArrayDeque<>();
+      queue.add(start);
+      components.put(start, component);
+      while (!queue.isEmpty()) {
+        for (String neighbor : graph.adjacentNodes(queue.remove())) {
+          if (components.putIfAbsent(neighbor, component) == null) {
+            queue.add(neighbor);
+          }
+        }
+      }
+      component++;
+    }
+    return ImmutableMap.copyOf(components);
+  }
+}
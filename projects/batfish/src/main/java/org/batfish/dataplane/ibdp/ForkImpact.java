@@ -0,0 +1,267 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.datamodel.bgp.BgpTopologyUtils.initBgpTopology;
+import static org.batfish.datamodel.eigrp.EigrpTopologyUtils.initEigrpTopology;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
+import com.google.common.graph.EndpointPair;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.batfish.common.topology.IpOwners;
+import org.batfish.datamodel.BgpAdvertisement;
+import org.batfish.datamodel.BgpPeerConfigId;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.IpsecPeerConfigId;
+import org.batfish.datamodel.VrrpGroup;
+import org.batfish.datamodel.eigrp.EigrpEdge;
+import org.batfish.datamodel.isis.IsisEdge;
+import org.batfish.datamodel.ospf.OspfNeighborConfigId;
+
+/**
+ * Determines which nodes of a forked snapshot may have a different data plane than in the snapshot
+ * it was forked from.
+ *
+ * <p>Nodes exchange routing information through IPsec and tunnel edges, OSPF, IS-IS, and EIGRP
+ * adjacencies, layer-3 edges running RIP, compatible BGP peerings (whether or not they can be
+ * established), and shared VRRP or HSRP addresses. A node is <em>changed</em> if it exists in only
+ * one of the snapshots, or if its configuration, its external BGP advertisements, its layer-3
+ * edges, or its potential interactions differ. A node is <em>affected</em> if it is connected to a
+ * changed node through potential interactions in either snapshot. Other layer-3 edges do not carry
+ * routes, so they do not connect the nodes at their ends.
+ *
+ * <p>The routes of a node that is not affected cannot depend on any difference between the
+ * snapshots, except through sessions that are established across other nodes, such as multihop BGP
+ * sessions. {@link IncrementalBdpEngine#computeForkedDataPlane} checks those once the data plane is
+ * merged.
+ */
+@ParametersAreNonnullByDefault
+final class ForkImpact {
+
+  private static final Logger LOGGER = LogManager.getLogger(ForkImpact.class);
+
+  /**
+   * Returns the nodes of the fork whose data plane may differ from the parent's.
+   *
+   * @param parentConfigs the configurations of the parent snapshot
+   * @param parentTopologyContext the initial topologies of the parent snapshot
+   * @param parentAdverts the external BGP advertisements of the parent snapshot
+   * @param forkConfigs the configurations of the fork
+   * @param forkTopologyContext the initial topologies of the fork
+   * @param forkAdverts the external BGP advertisements of the fork
+   */
+  static @Nonnull Set<String> computeAffectedNodes(
+      Map<String, Configuration> parentConfigs,
+      TopologyContext parentTopologyContext,
+      Set<BgpAdvertisement> parentAdverts,
+      Map<String, Configuration> forkConfigs,
+      TopologyContext forkTopologyContext,
+      Set<BgpAdvertisement> forkAdverts) {
+    SetMultimap<String, Object> parentInteractions =
+        computeInteractions(parentConfigs, parentTopologyContext);
+    SetMultimap<String, Object> forkInteractions =
+        computeInteractions(forkConfigs, forkTopologyContext);
+    Set<String> changed =
+        computeChangedNodes(
+            parentConfigs,
+            withLayer3Edges(parentInteractions, parentTopologyContext),
+            parentAdverts,
+            forkConfigs,
+            withLayer3Edges(forkInteractions, forkTopologyContext),
+            forkAdverts);
+
+    // Nodes sharing an interaction are connected. Flood from the changed nodes in both snapshots.
+    SetMultimap<Object, String> participants = HashMultimap.create();
+    parentInteractions.forEach((node, interaction) -> participants.put(interaction, node));
+    forkInteractions.forEach((node, interaction) -> participants.put(interaction, node));
+    Set<String> affected = new HashSet<>(changed);
+    Queue<String> queue = new ArrayDeque<>(changed);
+    Set<Object> visited = new HashSet<>();
+    while (!queue.isEmpty()) {
+      String node = queue.remove();
+      for (Object interaction :
+          Sets.union(parentInteractions.get(node), forkInteractions.get(node))) {
+        if (!visited.add(interaction)) {
+          continue;
+        }
+        for (String neighbor : participants.get(interaction)) {
+          if (affected.add(neighbor)) {
+            queue.add(neighbor);
+          }
+        }
+      }
+    }
+    return ImmutableSet.copyOf(Sets.intersection(affected, forkConfigs.keySet()));
+  }
+
+  /**
+   * Returns {@code true} iff any VRF of the given configurations has a VXLAN VNI. VXLAN changes
+   * layer-3 adjacencies network-wide during the data plane computation.
+   */
+  static boolean hasVxlan(Map<String, Configuration> configurations) {
+    return configurations.values().stream()
+        .flatMap(c -> c.getVrfs().values().stream())
+        .anyMatch(vrf -> !vrf.getLayer2Vnis().isEmpty() || !vrf.getLayer3Vnis().isEmpty());
+  }
+
+  @VisibleForTesting
+  static @Nonnull Set<String> computeChangedNodes(
+      Map<String, Configuration> parentConfigs,
+      SetMultimap<String, Object> parentAdjacencies,
+      Set<BgpAdvertisement> parentAdverts,
+      Map<String, Configuration> forkConfigs,
+      SetMultimap<String, Object> forkAdjacencies,
+      Set<BgpAdvertisement> forkAdverts) {
+    SetMultimap<String, BgpAdvertisement> parentAdvertsByNode =
+        byNode(parentAdverts, BgpAdvertisement::getDstNode);
+    SetMultimap<String, BgpAdvertisement> forkAdvertsByNode =
+        byNode(forkAdverts, BgpAdvertisement::getDstNode);
+    ImmutableSet.Builder<String> changed = ImmutableSet.builder();
+    changed.addAll(Sets.symmetricDifference(parentConfigs.keySet(), forkConfigs.keySet()));
+    // Compare configurations last, since that is the expensive part.
+    Sets.intersection(parentConfigs.keySet(), forkConfigs.keySet()).parallelStream()
+        .filter(
+            node ->
+                !parentAdjacencies.get(node).equals(forkAdjacencies.get(node))
+                    || !parentAdvertsByNode.get(node).equals(forkAdvertsByNode.get(node))
+                    || !sameConfiguration(parentConfigs.get(node), forkConfigs.get(node)))
+        .collect(ImmutableList.toImmutableList())
+        .forEach(changed::add);
+    return changed.build();
+  }
+
+  /**
+   * Returns {@code true} if the two configurations are known to be identical. {@link Configuration}
+   * does not implement equals, so this compares fingerprints of their serialized forms. A
+   * configuration that cannot be serialized is never known to be identical, so it is just
+   * recomputed.
+   */
+  @VisibleForTesting
+  static boolean sameConfiguration(Configuration parent, Configuration fork) {
+    if (parent == fork) {
+      return true;
+    }
+    Optional<HashCode> parentFingerprint = fingerprint(parent);
+    return parentFingerprint.isPresent() && parentFingerprint.equals(fingerprint(fork));
+  }
+
+  private static @Nonnull Optional<HashCode> fingerprint(Configuration c) {
+    // Hash the serialized form as it is written, rather than buffering all of it.
+    Hasher hasher = Hashing.sha256().newHasher();
+    try (ObjectOutputStream out = new ObjectOutputStream(Funnels.asOutputStream(hasher))) {
+      out.writeObject(c);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.debug("Could not fingerprint configuration of {}", c.getHostname(), e);
+      return Optional.empty();
+    }
+    return Optional.of(hasher.hash());
+  }
+
+  /** Returns the given interactions, along with the layer-3 edges of each node. */
+  private static @Nonnull SetMultimap<String, Object> withLayer3Edges(
+      SetMultimap<String, Object> interactions, TopologyContext topologyContext) {
+    ImmutableSetMultimap.Builder<String, Object> adjacencies = ImmutableSetMultimap.builder();
+    adjacencies.putAll(interactions);
+    for (Edge edge : topologyContext.getLayer3Topology().getEdges()) {
+      adjacencies.put(edge.getNode1(), edge).put(edge.getNode2(), edge);
+    }
+    return adjacencies.build();
+  }
+
+  /** Returns the potential interactions of each node, each shared by all nodes taking part. */
+  @VisibleForTesting
+  static @Nonnull SetMultimap<String, Object> computeInteractions(
+      Map<String, Configuration> configurations, TopologyContext topologyContext) {
+    ImmutableSetMultimap.Builder<String, Object> interactions = ImmutableSetMultimap.builder();
+    for (Edge edge : topologyContext.getLayer3Topology().getEdges()) {
+      if (runsRip(configurations, edge.getNode1(), edge.getInt1())
+          && runsRip(configurations, edge.getNode2(), edge.getInt2())) {
+        interactions.put(edge.getNode1(), edge).put(edge.getNode2(), edge);
+      }
+    }
+    for (Edge edge : topologyContext.getTunnelTopology().asEdgeSet()) {
+      interactions.put(edge.getNode1(), edge).put(edge.getNode2(), edge);
+    }
+    for (EndpointPair<IpsecPeerConfigId> edge :
+        topologyContext.getIpsecTopology().getGraph().edges()) {
+      interactions.put(edge.nodeU().getHostName(), edge).put(edge.nodeV().getHostName(), edge);
+    }
+    for (EndpointPair<OspfNeighborConfigId> edge :
+        topologyContext.getOspfTopology().getGraph().edges()) {
+      interactions.put(edge.nodeU().getHostname(), edge).put(edge.nodeV().getHostname(), edge);
+    }
+    for (IsisEdge edge : topologyContext.getIsisTopology().getNetwork().edges()) {
+      interactions.put(edge.getNode1().getNode(), edge).put(edge.getNode2().getNode(), edge);
+    }
+    for (EigrpEdge edge :
+        initEigrpTopology(configurations, topologyContext.getLayer3Topology())
+            .getNetwork()
+            .edges()) {
+      interactions
+          .put(edge.getNode1().getHostname(), edge)
+          .put(edge.getNode2().getHostname(), edge);
+    }
+    for (EndpointPair<BgpPeerConfigId> edge :
+        initBgpTopology(
+                configurations,
+                new IpOwners(configurations).getIpVrfOwners(),
+                false,
+                topologyContext.getL3Adjacencies())
+            .getGraph()
+            .edges()) {
+      interactions.put(edge.nodeU().getHostname(), edge).put(edge.nodeV().getHostname(), edge);
+    }
+    // VRRP and HSRP elections are network-wide for each address.
+    for (Configuration c : configurations.values()) {
+      for (Interface i : c.getAllInterfaces().values()) {
+        i.getVrrpGroups().values().stream()
+            .map(VrrpGroup::getVirtualAddress)
+            .filter(Objects::nonNull)
+            .forEach(address -> interactions.put(c.getHostname(), address.getIp()));
+        i.getHsrpGroups()
+            .values()
+            .forEach(group -> interactions.putAll(c.getHostname(), group.getIps()));
+      }
+    }
+    return interactions.build();
+  }
+
+  private static boolean runsRip(
+      Map<String, Configuration> configurations, String node, String interfaceName) {
+    Configuration c = configurations.get(node);
+    Interface i = c == null ? null : c.getAllInterfaces().get(interfaceName);
+    return i != null && i.getRipEnabled();
+  }
+
+  private static @Nonnull <T> SetMultimap<String, T> byNode(
+      Set<T> objects, Function<T, String> node) {
+    ImmutableSetMultimap.Builder<String, T> byNode = ImmutableSetMultimap.builder();
+    objects.forEach(o -> byNode.put(node.apply(o), o));
+    return byNode.build();
+  }
+
+  private ForkImpact() {}
+}
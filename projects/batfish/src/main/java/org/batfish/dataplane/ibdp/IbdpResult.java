@@ -4,7 +4,6 @@ import java.util.Map;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
-import org.batfish.common.topology.TopologyContainer;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.answers.DataPlaneAnswerElement;
 
@@ -18,18 +17,25 @@ import org.batfish.datamodel.answers.DataPlaneAnswerElement;
 final class IbdpResult extends ComputeDataPlaneResult {
 
   @Nonnull private final Map<String, Node> _nodes;
+  @Nonnull private final TopologyContext _topologyContext;
 
   IbdpResult(
       DataPlaneAnswerElement answerElement,
       DataPlane dataPlane,
-      TopologyContainer topologies,
+      TopologyContext topologies,
       Map<String, Node> nodes) {
     super(answerElement, dataPlane, topologies);
     _nodes = nodes;
+    _topologyContext = topologies;
   }
 
   @Nonnull
   Map<String, Node> getNodes() {
     return _nodes;
   }
+
+  @Nonnull
+  TopologyContext getTopologyContext() {
+    return _topologyContext;
+  }
 }
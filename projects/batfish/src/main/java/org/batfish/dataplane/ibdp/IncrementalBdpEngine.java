@@ -14,8 +14,18 @@ import static org.batfish.datamodel.vxlan.VxlanTopologyUtils.prunedVxlanTopology
 import static org.batfish.dataplane.rib.AbstractRib.importRib;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
 import com.google.common.collect.Sets;
+import com.google.common.graph.Graphs;
+import com.google.common.graph.MutableValueGraph;
+import com.google.common.graph.ValueGraph;
+import com.google.common.graph.ValueGraphBuilder;
 import io.opentracing.Scope;
 import io.opentracing.Span;
 import io.opentracing.util.GlobalTracer;
@@ -28,10 +38,11 @@ import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.BdpOscillationException;
-import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
 import org.batfish.common.plugin.TracerouteEngine;
 import org.batfish.common.topology.GlobalBroadcastNoPointToPoint;
 import org.batfish.common.topology.HybridL3Adjacencies;
@@ -44,7 +55,10 @@ import org.batfish.common.topology.broadcast.BroadcastL3Adjacencies;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.BgpAdvertisement;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Edge;
 import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpsecPeerConfigId;
+import org.batfish.datamodel.IpsecSession;
 import org.batfish.datamodel.IsisRoute;
 import org.batfish.datamodel.NetworkConfigurations;
 import org.batfish.datamodel.Topology;
@@ -53,6 +67,9 @@ import org.batfish.datamodel.bgp.BgpTopology;
 import org.batfish.datamodel.eigrp.EigrpTopology;
 import org.batfish.datamodel.eigrp.EigrpTopologyUtils;
 import org.batfish.datamodel.ipsec.IpsecTopology;
+import org.batfish.datamodel.isis.IsisTopology;
+import org.batfish.datamodel.ospf.OspfNeighborConfigId;
+import org.batfish.datamodel.ospf.OspfSessionProperties;
 import org.batfish.datamodel.ospf.OspfTopology;
 import org.batfish.datamodel.vxlan.VxlanTopology;
 import org.batfish.dataplane.TracerouteEngineImpl;
@@ -206,7 +223,7 @@ final class IncrementalBdpEngine {
         .build();
   }
 
-  ComputeDataPlaneResult computeDataPlane(
+  IbdpResult computeDataPlane(
       Map<String, Configuration> configurations,
       TopologyContext initialTopologyContext,
       Set<BgpAdvertisement> externalAdverts) {
@@ -221,7 +238,10 @@ final class IncrementalBdpEngine {
 
       // Generate our nodes, keyed by name, sorted for determinism
       SortedMap<String, Node> nodes =
-          toImmutableSortedMap(configurations.values(), Configuration::getHostname, Node::new);
+          toImmutableSortedMap(
+              configurations.values(),
+              Configuration::getHostname,
+              c -> new Node(c, _settings.getRibTrieImplementation()));
       // A collection of all the virtual routers in random order enables parallelization across all
       // VRs, and likely spreads nodes with similar hostnames across different cores. In contrast,
       // nodes.values().parallelStream().flatMap(get vrs stream) is only node-parallel and clusters
@@ -330,6 +350,230 @@ final class IncrementalBdpEngine {
     }
   }
 
+  /**
+   * Computes the data plane of a snapshot forked from the snapshot described by {@code parent},
+   * reusing the parent's results for the nodes that the differences between the snapshots cannot
+   * affect.
+   *
+   * <p>The {@link ForkImpact affected} nodes exchange no routing information with the other nodes
+   * in either snapshot, so they are computed from scratch as a network of their own. The results of
+   * every other node are taken from the parent's data plane, and the topologies of both parts are
+   * merged. Falls back to {@link #computeDataPlane} if every node is affected, if either snapshot
+   * uses VXLAN, which changes layer-3 adjacencies network-wide, or if the sessions of either part
+   * are not the same on the merged data plane, e.g. because a multihop BGP session between reused
+   * nodes is forwarded through an affected node.
+   */
+  IbdpResult computeForkedDataPlane(
+      Map<String, Configuration> configurations,
+      TopologyContext initialTopologyContext,
+      Set<BgpAdvertisement> externalAdverts,
+      ParentDataPlane parent) {
+    if (ForkImpact.hasVxlan(configurations)
+        || ForkImpact.hasVxlan(parent.getConfigurations())
+        || !parent.getVxlanTopology().equals(VxlanTopology.EMPTY)) {
+      LOGGER.info("Computing data plane from scratch, since VXLAN is in use");
+      return computeDataPlane(configurations, initialTopologyContext, externalAdverts);
+    }
+    Set<String> affected =
+        ForkImpact.computeAffectedNodes(
+            parent.getConfigurations(),
+            parent.getInitialTopologyContext(),
+            parent.getExternalAdverts(),
+            configurations,
+            initialTopologyContext,
+            externalAdverts);
+    if (affected.size() == configurations.size()) {
+      LOGGER.info("Computing data plane from scratch, since every node is affected by the fork");
+      return computeDataPlane(configurations, initialTopologyContext, externalAdverts);
+    }
+    LOGGER.info(
+        "Recomputing data plane of {} of {} nodes affected by the fork",
+        affected.size(),
+        configurations.size());
+    Set<String> reused = Sets.difference(configurations.keySet(), affected).immutableCopy();
+    Map<String, Configuration> affectedConfigurations =
+        toImmutableSortedMap(affected, Function.identity(), configurations::get);
+    IbdpResult affectedResult =
+        computeDataPlane(
+            affectedConfigurations,
+            restrictTopologyContext(initialTopologyContext, affectedConfigurations),
+            externalAdverts);
+    TopologyContext affectedTopologies = affectedResult.getTopologyContext();
+
+    Topology layer3Topology =
+        new Topology(
+            ImmutableSortedSet.<Edge>naturalOrder()
+                .addAll(affectedTopologies.getLayer3Topology().getEdges())
+                // Edges between the two parts carry no routes, but are still used for forwarding.
+                .addAll(
+                    initialTopologyContext.getLayer3Topology().getEdges().stream()
+                        .filter(
+                            edge ->
+                                affected.contains(edge.getNode1())
+                                    != affected.contains(edge.getNode2()))
+                        .iterator())
+                .addAll(
+                    parent
+                        .getLayer3Topology()
+                        .prune(
+                            ImmutableSet.of(),
+                            Sets.difference(parent.getConfigurations().keySet(), reused),
+                            ImmutableSet.of())
+                        .getEdges())
+                .build());
+    IncrementalDataPlane dataPlane =
+        IncrementalDataPlane.builder()
+            .setNodes(affectedResult.getNodes())
+            .setLayer3Topology(layer3Topology)
+            .setReusedDataPlane(parent.getDataPlane(), configurations)
+            .build();
+
+    // Each part established its sessions against its own data plane. The merged data plane is only
+    // valid if it establishes the same sessions, as a computation from scratch would converge to.
+    TracerouteEngine tracerouteEngine =
+        new TracerouteEngineImpl(dataPlane, layer3Topology, configurations);
+    Supplier<TracerouteEngine> parentTracerouteEngine =
+        Suppliers.memoize(
+            () ->
+                new TracerouteEngineImpl(
+                    parent.getDataPlane(), parent.getLayer3Topology(), parent.getConfigurations()));
+    IpsecTopology ipsecTopology =
+        retainReachableIpsecEdges(
+            initialTopologyContext.getIpsecTopology(), configurations, tracerouteEngine);
+    IpsecTopology parentReusedIpsecTopology =
+        restrictIpsecTopology(parent.getInitialTopologyContext().getIpsecTopology(), reused);
+    boolean sameIpsecSessions =
+        restrictIpsecTopology(ipsecTopology, affected).equals(affectedTopologies.getIpsecTopology())
+            && restrictIpsecTopology(ipsecTopology, reused)
+                .equals(
+                    parentReusedIpsecTopology.getGraph().edges().isEmpty()
+                        ? parentReusedIpsecTopology
+                        : retainReachableIpsecEdges(
+                            parentReusedIpsecTopology,
+                            parent.getConfigurations(),
+                            parentTracerouteEngine.get()));
+    TunnelTopology tunnelTopology =
+        pruneUnreachableTunnelEdges(
+            initialTopologyContext.getTunnelTopology(),
+            NetworkConfigurations.of(configurations),
+            tracerouteEngine);
+    TunnelTopology parentReusedTunnelTopology =
+        restrictTunnelTopology(parent.getInitialTopologyContext().getTunnelTopology(), reused);
+    boolean sameTunnels =
+        restrictTunnelTopology(tunnelTopology, affected)
+                .equals(affectedTopologies.getTunnelTopology())
+            && restrictTunnelTopology(tunnelTopology, reused)
+                .equals(
+                    parentReusedTunnelTopology.getGraph().edges().isEmpty()
+                        ? parentReusedTunnelTopology
+                        : pruneUnreachableTunnelEdges(
+                            parentReusedTunnelTopology,
+                            NetworkConfigurations.of(parent.getConfigurations()),
+                            parentTracerouteEngine.get()));
+    BgpTopology bgpTopology =
+        new BgpTopology(
+            union(
+                affectedTopologies.getBgpTopology().getGraph(),
+                Graphs.inducedSubgraph(
+                    parent.getBgpTopology().getGraph(),
+                    parent.getBgpTopology().getGraph().nodes().stream()
+                        .filter(n -> reused.contains(n.getHostname()))
+                        .collect(ImmutableSet.toImmutableSet()))));
+    if (!sameIpsecSessions
+        || !sameTunnels
+        || !bgpTopology.equals(
+            initBgpTopology(
+                configurations,
+                new IpOwners(configurations).getIpVrfOwners(),
+                false,
+                true,
+                tracerouteEngine,
+                dataPlane.getFibs(),
+                initialTopologyContext.getL3Adjacencies()))) {
+      LOGGER.info(
+          "Computing data plane from scratch, since sessions of the fork depend on both parts");
+      return computeDataPlane(configurations, initialTopologyContext, externalAdverts);
+    }
+
+    TopologyContext topologies =
+        initialTopologyContext.toBuilder()
+            .setBgpTopology(bgpTopology)
+            .setEigrpTopology(EigrpTopologyUtils.initEigrpTopology(configurations, layer3Topology))
+            .setIpsecTopology(ipsecTopology)
+            .setLayer3Topology(layer3Topology)
+            .setTunnelTopology(tunnelTopology)
+            .setVxlanTopology(VxlanTopology.EMPTY)
+            .build();
+    return new IbdpResult(
+        affectedResult._answerElement, dataPlane, topologies, affectedResult.getNodes());
+  }
+
+  /**
+   * Restricts the given initial topologies to the given configurations, which must not have
+   * potential interactions with any other node.
+   */
+  private static @Nonnull TopologyContext restrictTopologyContext(
+      TopologyContext topologyContext, Map<String, Configuration> configurations) {
+    Set<String> nodes = configurations.keySet();
+    Topology layer3Topology =
+        new Topology(
+            topologyContext.getLayer3Topology().getEdges().stream()
+                .filter(edge -> nodes.contains(edge.getNode1()) && nodes.contains(edge.getNode2()))
+                .collect(ImmutableSortedSet.toImmutableSortedSet(Ordering.natural())));
+    ValueGraph<OspfNeighborConfigId, OspfSessionProperties> ospfGraph =
+        topologyContext.getOspfTopology().getGraph();
+    return topologyContext.toBuilder()
+        .setIpsecTopology(restrictIpsecTopology(topologyContext.getIpsecTopology(), nodes))
+        .setIsisTopology(IsisTopology.initIsisTopology(configurations, layer3Topology))
+        .setLayer3Topology(layer3Topology)
+        .setOspfTopology(
+            new OspfTopology(
+                Graphs.inducedSubgraph(
+                    ospfGraph,
+                    ospfGraph.nodes().stream()
+                        .filter(n -> nodes.contains(n.getHostname()))
+                        .collect(ImmutableSet.toImmutableSet()))))
+        .setTunnelTopology(restrictTunnelTopology(topologyContext.getTunnelTopology(), nodes))
+        .build();
+  }
+
+  private static @Nonnull IpsecTopology restrictIpsecTopology(
+      IpsecTopology ipsecTopology, Set<String> nodes) {
+    ValueGraph<IpsecPeerConfigId, IpsecSession> graph = ipsecTopology.getGraph();
+    return new IpsecTopology(
+        Graphs.inducedSubgraph(
+            graph,
+            graph.nodes().stream()
+                .filter(n -> nodes.contains(n.getHostName()))
+                .collect(ImmutableSet.toImmutableSet())));
+  }
+
+  private static @Nonnull TunnelTopology restrictTunnelTopology(
+      TunnelTopology tunnelTopology, Set<String> nodes) {
+    TunnelTopology.Builder restricted = TunnelTopology.builder();
+    tunnelTopology.getGraph().edges().stream()
+        .filter(edge -> nodes.contains(edge.nodeU().getHostname()))
+        .forEach(edge -> restricted.add(edge.nodeU(), edge.nodeV()));
+    return restricted.build();
+  }
+
+  /** Returns the union of two graphs with the same properties, with no conflicting edge values. */
+  private static @Nonnull <N, V> ValueGraph<N, V> union(ValueGraph<N, V> g1, ValueGraph<N, V> g2) {
+    MutableValueGraph<N, V> union = ValueGraphBuilder.from(g1).build();
+    for (ValueGraph<N, V> graph : ImmutableList.of(g1, g2)) {
+      graph.nodes().forEach(union::addNode);
+      graph
+          .edges()
+          .forEach(
+              edge ->
+                  union.putEdgeValue(
+                      edge.nodeU(),
+                      edge.nodeV(),
+                      graph.edgeValue(edge.nodeU(), edge.nodeV()).get()));
+    }
+    return union;
+  }
+
   /**
    * Perform one iteration of the "dependent routes" dataplane computation. Dependent routes refers
    * to routes that could change because other routes have changed. For example, this includes:
@@ -639,6 +883,13 @@ final class IncrementalBdpEngine {
 
       Map<Integer, SortedSet<Integer>> iterationsByHashCode = new HashMap<>();
 
+      /*
+       * In event-driven mode, only nodes with pending work and their neighbors run in each round,
+       * and oscillations are detected separately in each connected component of the network.
+       */
+      EgpActivityTracker activity =
+          _settings.getEventDrivenEgp() ? new EgpActivityTracker(nodes, topologyContext) : null;
+
       Schedule currentSchedule = _settings.getScheduleName();
 
       // Go into iteration mode, until the routes converge (or oscillation is detected)
@@ -649,6 +900,9 @@ final class IncrementalBdpEngine {
         try (Scope innerScope = GlobalTracer.get().scopeManager().activate(iterSpan)) {
           assert innerScope != null; // avoid unused warning
 
+          List<VirtualRouter> activeVrs =
+              activity == null ? vrs : activity.getActiveVirtualRouters();
+
           IbdpSchedule schedule;
           Span computeScheduleSpan = GlobalTracer.get().buildSpan("Compute schedule").start();
           LOGGER.info("Compute schedule");
@@ -671,7 +925,7 @@ final class IncrementalBdpEngine {
           try (Scope reiinitscope = GlobalTracer.get().scopeManager().activate(depRoutesspan)) {
             assert reiinitscope != null; // avoid unused warning
 
-            vrs.parallelStream().forEach(VirtualRouter::reinitForNewIteration);
+            activeVrs.parallelStream().forEach(VirtualRouter::reinitForNewIteration);
           } finally {
             depRoutesspan.finish();
           }
@@ -687,10 +941,10 @@ final class IncrementalBdpEngine {
           LOGGER.info("Redistribute");
           try (Scope redistscope = GlobalTracer.get().scopeManager().activate(redistributeSpan)) {
             assert redistscope != null; // avoid unused warning
-            vrs.parallelStream().forEach(VirtualRouter::redistribute);
+            activeVrs.parallelStream().forEach(VirtualRouter::redistribute);
 
             // Handle cross-VRF leaking here too.
-            queueRoutesForCrossVrfLeaking(vrs);
+            queueRoutesForCrossVrfLeaking(activeVrs);
           } finally {
             redistributeSpan.finish();
           }
@@ -699,6 +953,9 @@ final class IncrementalBdpEngine {
           int nodeSet = 0;
           while (schedule.hasNext()) {
             Map<String, Node> iterationNodes = schedule.next();
+            if (activity != null) {
+              iterationNodes = Maps.filterKeys(iterationNodes, activity.getActiveNodes()::contains);
+            }
             List<VirtualRouter> iterationVrs =
                 toListInRandomOrder(
                     iterationNodes.values().stream().flatMap(n -> n.getVirtualRouters().stream()));
@@ -711,7 +968,7 @@ final class IncrementalBdpEngine {
 
           // Tell each VR that a route computation round has ended.
           // This must be the last thing called on a VR in a routing round.
-          vrs.parallelStream().forEach(VirtualRouter::endOfEgpRound);
+          activeVrs.parallelStream().forEach(VirtualRouter::endOfEgpRound);
 
           /*
            * Perform various bookkeeping at the end of the iteration:
@@ -721,14 +978,21 @@ final class IncrementalBdpEngine {
            */
           computeIterationStatistics(vrs, ae, _numIterations);
 
-          // This hashcode uniquely identifies the iteration (i.e., network state)
-          int iterationHashCode = computeIterationHashCode(vrs);
-          SortedSet<Integer> iterationsWithThisHashCode =
-              iterationsByHashCode.computeIfAbsent(iterationHashCode, h -> new TreeSet<>());
-
-          if (iterationsWithThisHashCode.isEmpty()) {
-            iterationsWithThisHashCode.add(_numIterations);
+          boolean stateRepeated;
+          if (activity != null) {
+            stateRepeated = activity.endOfRound(_numIterations);
           } else {
+            // This hashcode uniquely identifies the iteration (i.e., network state)
+            int iterationHashCode = computeIterationHashCode(vrs);
+            SortedSet<Integer> iterationsWithThisHashCode =
+                iterationsByHashCode.computeIfAbsent(iterationHashCode, h -> new TreeSet<>());
+            stateRepeated = !iterationsWithThisHashCode.isEmpty();
+            if (!stateRepeated) {
+              iterationsWithThisHashCode.add(_numIterations);
+            }
+          }
+
+          if (stateRepeated) {
             // If oscillation detected, switch to a more restrictive schedule
             if (currentSchedule != Schedule.NODE_SERIALIZED) {
               LOGGER.debug(
@@ -743,7 +1007,7 @@ final class IncrementalBdpEngine {
         } finally {
           iterSpan.finish();
         }
-      } while (hasNotReachedRoutingFixedPoint(vrs));
+      } while (activity != null ? activity.hasActiveNodes() : hasNotReachedRoutingFixedPoint(vrs));
 
       ae.setDependentRoutesIterations(_numIterations);
       return false; // No oscillations
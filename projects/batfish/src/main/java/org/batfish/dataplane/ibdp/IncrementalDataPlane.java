@@ -4,6 +4,9 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.common.util.CollectionUtil.toImmutableSortedMap;
 
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableTable;
+import com.google.common.collect.Sets;
 import com.google.common.collect.Table;
 import java.io.Serializable;
 import java.util.Map;
@@ -89,6 +92,8 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
 
     @Nullable private Map<String, Node> _nodes;
     @Nullable private Topology _layer3Topology;
+    @Nullable private DataPlane _reusedDataPlane;
+    @Nullable private Map<String, Configuration> _configurations;
 
     public Builder setNodes(@Nonnull Map<String, Node> nodes) {
       _nodes = ImmutableMap.copyOf(nodes);
@@ -100,6 +105,18 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
       return this;
     }
 
+    /**
+     * Reuse the results of {@code reusedDataPlane} for every node in {@code configurations} that is
+     * not among the computed {@link #setNodes nodes}. {@code configurations} must contain the
+     * configurations of all nodes.
+     */
+    public Builder setReusedDataPlane(
+        @Nonnull DataPlane reusedDataPlane, @Nonnull Map<String, Configuration> configurations) {
+      _reusedDataPlane = reusedDataPlane;
+      _configurations = ImmutableMap.copyOf(configurations);
+      return this;
+    }
+
     public IncrementalDataPlane build() {
       return new IncrementalDataPlane(this);
     }
@@ -134,18 +151,81 @@ public final class IncrementalDataPlane implements Serializable, DataPlane {
     checkArgument(builder._layer3Topology != null, "Dataplane must have an L3 topology set");
 
     Map<String, Node> nodes = builder._nodes;
-    Map<String, Configuration> configs = DataplaneUtil.computeConfigurations(nodes);
-    // Order of initialization matters:
-    _bgpRoutes = DataplaneUtil.computeBgpRoutes(nodes);
-    _bgpBackupRoutes = DataplaneUtil.computeBgpBackupRoutes(nodes);
-    _evpnRoutes = DataplaneUtil.computeEvpnRoutes(nodes);
-    _evpnBackupRoutes = DataplaneUtil.computeEvpnBackupRoutes(nodes);
-    _ribs = DataplaneUtil.computeRibs(nodes);
-    _fibs = DataplaneUtil.computeFibs(nodes);
+    DataPlane reused = builder._reusedDataPlane;
+    if (reused == null) {
+      Map<String, Configuration> configs = DataplaneUtil.computeConfigurations(nodes);
+      // Order of initialization matters:
+      _bgpRoutes = DataplaneUtil.computeBgpRoutes(nodes);
+      _bgpBackupRoutes = DataplaneUtil.computeBgpBackupRoutes(nodes);
+      _evpnRoutes = DataplaneUtil.computeEvpnRoutes(nodes);
+      _evpnBackupRoutes = DataplaneUtil.computeEvpnBackupRoutes(nodes);
+      _ribs = DataplaneUtil.computeRibs(nodes);
+      _fibs = DataplaneUtil.computeFibs(nodes);
+      _forwardingAnalysis =
+          DataplaneUtil.computeForwardingAnalysis(_fibs, configs, builder._layer3Topology);
+      _prefixTracerSummary = computePrefixTracingInfo(nodes);
+      _vniSettings = DataplaneUtil.computeVniSettings(nodes);
+      return;
+    }
+    Map<String, Configuration> configs = builder._configurations;
+    assert configs != null;
+    Set<String> reusedNodes = Sets.difference(configs.keySet(), nodes.keySet()).immutableCopy();
+    _bgpRoutes =
+        withReusedRows(DataplaneUtil.computeBgpRoutes(nodes), reused.getBgpRoutes(), reusedNodes);
+    _bgpBackupRoutes =
+        withReusedRows(
+            DataplaneUtil.computeBgpBackupRoutes(nodes), reused.getBgpBackupRoutes(), reusedNodes);
+    _evpnRoutes =
+        withReusedRows(DataplaneUtil.computeEvpnRoutes(nodes), reused.getEvpnRoutes(), reusedNodes);
+    _evpnBackupRoutes =
+        withReusedRows(
+            DataplaneUtil.computeEvpnBackupRoutes(nodes),
+            reused.getEvpnBackupRoutes(),
+            reusedNodes);
+    _ribs =
+        ImmutableSortedMap.copyOf(
+            withReusedEntries(DataplaneUtil.computeRibs(nodes), reused.getRibs(), reusedNodes));
+    _fibs = withReusedEntries(DataplaneUtil.computeFibs(nodes), reused.getFibs(), reusedNodes);
     _forwardingAnalysis =
-        DataplaneUtil.computeForwardingAnalysis(_fibs, configs, builder._layer3Topology);
-    _prefixTracerSummary = computePrefixTracingInfo(nodes);
-    _vniSettings = DataplaneUtil.computeVniSettings(nodes);
+        DataplaneUtil.computeForwardingAnalysis(
+            _fibs,
+            configs,
+            builder._layer3Topology,
+            reused.getForwardingAnalysis(),
+            nodes.keySet());
+    _prefixTracerSummary =
+        ImmutableSortedMap.copyOf(
+            withReusedEntries(
+                computePrefixTracingInfo(nodes),
+                reused.getPrefixTracingInfoSummary(),
+                reusedNodes));
+    _vniSettings =
+        withReusedRows(
+            DataplaneUtil.computeVniSettings(nodes), reused.getLayer2Vnis(), reusedNodes);
+  }
+
+  /** Returns {@code computed} plus the entries of {@code reused} for the given nodes. */
+  private static <V> Map<String, V> withReusedEntries(
+      Map<String, V> computed, Map<String, V> reused, Set<String> reusedNodes) {
+    ImmutableMap.Builder<String, V> merged = ImmutableMap.<String, V>builder().putAll(computed);
+    reusedNodes.forEach(
+        node -> {
+          V value = reused.get(node);
+          if (value != null) {
+            merged.put(node, value);
+          }
+        });
+    return merged.build();
+  }
+
+  /** Returns {@code computed} plus the rows of {@code reused} for the given nodes. */
+  private static <V> Table<String, String, V> withReusedRows(
+      Table<String, String, V> computed, Table<String, String, V> reused, Set<String> reusedNodes) {
+    ImmutableTable.Builder<String, String, V> merged =
+        ImmutableTable.<String, String, V>builder().putAll(computed);
+    reusedNodes.forEach(
+        node -> reused.row(node).forEach((vrf, value) -> merged.put(node, vrf, value)));
+    return merged.build();
   }
 
   private static SortedMap<String, SortedMap<String, Map<Prefix, Map<String, Set<String>>>>>
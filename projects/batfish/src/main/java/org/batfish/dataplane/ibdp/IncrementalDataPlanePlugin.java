@@ -1,8 +1,11 @@
 package org.batfish.dataplane.ibdp;
 
 import com.google.auto.service.AutoService;
+import com.google.common.annotations.VisibleForTesting;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import javax.annotation.Nonnull;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.batfish.common.NetworkSnapshot;
@@ -23,6 +26,7 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
   public static final String PLUGIN_NAME = "ibdp";
 
   private IncrementalBdpEngine _engine;
+  private IncrementalDataPlaneSettings _settings;
 
   public IncrementalDataPlanePlugin() {}
 
@@ -33,22 +37,17 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
         _batfish.loadExternalBgpAnnouncements(snapshot, configurations);
 
     LOGGER.info("Building topology for data-plane");
-    TopologyProvider topologyProvider = _batfish.getTopologyProvider();
-    TopologyContext topologyContext =
-        TopologyContext.builder()
-            .setIpsecTopology(topologyProvider.getInitialIpsecTopology(snapshot))
-            .setIsisTopology(
-                IsisTopology.initIsisTopology(
-                    configurations, topologyProvider.getInitialLayer3Topology(snapshot)))
-            .setLayer3Topology(topologyProvider.getInitialLayer3Topology(snapshot))
-            .setLayer1Topologies(topologyProvider.getLayer1Topologies(snapshot))
-            .setL3Adjacencies(topologyProvider.getInitialL3Adjacencies(snapshot))
-            .setOspfTopology(topologyProvider.getInitialOspfTopology(snapshot))
-            .setTunnelTopology(topologyProvider.getInitialTunnelTopology(snapshot))
-            .build();
+    TopologyContext topologyContext = initialTopologyContext(snapshot, configurations);
 
+    Optional<NetworkSnapshot> parent =
+        _settings.getReuseParentDataPlane()
+            ? _batfish.getParentSnapshotWithDataPlane(snapshot)
+            : Optional.empty();
     ComputeDataPlaneResult answer =
-        _engine.computeDataPlane(configurations, topologyContext, externalAdverts);
+        parent.isPresent()
+            ? _engine.computeForkedDataPlane(
+                configurations, topologyContext, externalAdverts, loadParent(parent.get()))
+            : _engine.computeDataPlane(configurations, topologyContext, externalAdverts);
     _logger.infof(
         "Generated data-plane for snapshot:%s; iterations:%s",
         snapshot.getSnapshot(),
@@ -56,11 +55,44 @@ public final class IncrementalDataPlanePlugin extends DataPlanePlugin {
     return answer;
   }
 
+  @VisibleForTesting
+  @Nonnull
+  TopologyContext initialTopologyContext(
+      NetworkSnapshot snapshot, Map<String, Configuration> configurations) {
+    TopologyProvider topologyProvider = _batfish.getTopologyProvider();
+    return TopologyContext.builder()
+        .setIpsecTopology(topologyProvider.getInitialIpsecTopology(snapshot))
+        .setIsisTopology(
+            IsisTopology.initIsisTopology(
+                configurations, topologyProvider.getInitialLayer3Topology(snapshot)))
+        .setLayer3Topology(topologyProvider.getInitialLayer3Topology(snapshot))
+        .setLayer1Topologies(topologyProvider.getLayer1Topologies(snapshot))
+        .setL3Adjacencies(topologyProvider.getInitialL3Adjacencies(snapshot))
+        .setOspfTopology(topologyProvider.getInitialOspfTopology(snapshot))
+        .setTunnelTopology(topologyProvider.getInitialTunnelTopology(snapshot))
+        .build();
+  }
+
+  @VisibleForTesting
+  @Nonnull
+  ParentDataPlane loadParent(NetworkSnapshot parent) {
+    LOGGER.info("Reusing data plane of parent snapshot {}", parent.getSnapshot());
+    Map<String, Configuration> configurations = _batfish.loadConfigurations(parent);
+    TopologyProvider topologyProvider = _batfish.getTopologyProvider();
+    return new ParentDataPlane(
+        configurations,
+        initialTopologyContext(parent, configurations),
+        _batfish.loadExternalBgpAnnouncements(parent, configurations),
+        _batfish.loadDataPlane(parent),
+        topologyProvider.getBgpTopology(parent),
+        topologyProvider.getLayer3Topology(parent),
+        topologyProvider.getVxlanTopology(parent));
+  }
+
   @Override
   protected void dataPlanePluginInitialize() {
-    _engine =
-        new IncrementalBdpEngine(
-            new IncrementalDataPlaneSettings(_batfish.getSettingsConfiguration()));
+    _settings = new IncrementalDataPlaneSettings(_batfish.getSettingsConfiguration());
+    _engine = new IncrementalBdpEngine(_settings);
   }
 
   @Override
@@ -7,6 +7,7 @@ import org.apache.commons.configuration2.Configuration;
 import org.apache.commons.configuration2.ConfigurationUtils;
 import org.apache.commons.configuration2.ImmutableConfiguration;
 import org.apache.commons.configuration2.PropertiesConfiguration;
+import org.batfish.datamodel.PrefixMultiMap.Implementation;
 import org.batfish.dataplane.ibdp.schedule.IbdpSchedule.Schedule;
 import org.batfish.dataplane.ibdp.schedule.NodeColoredSchedule;
 import org.batfish.dataplane.ibdp.schedule.NodeColoredSchedule.Coloring;
@@ -17,6 +18,9 @@ public final class IncrementalDataPlaneSettings {
   private Configuration _config;
 
   public static final String PROP_COLORING = "coloring";
+  public static final String PROP_EVENT_DRIVEN_EGP = "eventdrivenegp";
+  public static final String PROP_REUSE_PARENT_DATA_PLANE = "reuseparentdataplane";
+  public static final String PROP_RIB_TRIE = "ribtrie";
   public static final String PROP_SCHEDULE = "schedule";
 
   /**
@@ -48,6 +52,9 @@ public final class IncrementalDataPlaneSettings {
   /** Initialize defaults for all properties */
   private void initDefaults() {
     _config.setProperty(PROP_COLORING, SATURATION.toString());
+    _config.setProperty(PROP_EVENT_DRIVEN_EGP, false);
+    _config.setProperty(PROP_REUSE_PARENT_DATA_PLANE, false);
+    _config.setProperty(PROP_RIB_TRIE, Implementation.NODE.toString());
     _config.setProperty(PROP_SCHEDULE, NODE_COLORED.toString());
   }
 
@@ -63,4 +70,25 @@ public final class IncrementalDataPlaneSettings {
   public Coloring getColoringType() {
     return Coloring.valueOf(_config.getString(PROP_COLORING));
   }
+
+  /**
+   * Whether each round of the EGP computation runs only the nodes that have pending work or a
+   * neighbor with pending work, rather than every node.
+   */
+  public boolean getEventDrivenEgp() {
+    return _config.getBoolean(PROP_EVENT_DRIVEN_EGP);
+  }
+
+  /**
+   * Whether the data plane of a forked snapshot reuses the results of its parent snapshot for the
+   * nodes the fork does not affect, if the parent's data plane has been computed.
+   */
+  public boolean getReuseParentDataPlane() {
+    return _config.getBoolean(PROP_REUSE_PARENT_DATA_PLANE);
+  }
+
+  /** Return the implementation of the tries storing main RIBs and FIBs */
+  public Implementation getRibTrieImplementation() {
+    return Implementation.valueOf(_config.getString(PROP_RIB_TRIE));
+  }
 }
@@ -7,6 +7,7 @@ import java.util.SortedMap;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.PrefixMultiMap;
 import org.batfish.datamodel.dataplane.rib.RibId;
 import org.batfish.dataplane.rib.Rib;
 
@@ -17,6 +18,7 @@ public final class Node {
   private final Configuration _c;
   private final SortedMap<String, VirtualRouter> _virtualRouters;
   @Nonnull private final RoutingPolicies _routingPolicies;
+  @Nonnull private final PrefixMultiMap.Implementation _ribTrieImplementation;
 
   /**
    * Create a new node based on the configuration. Initializes virtual routers based on {@link
@@ -25,7 +27,19 @@ public final class Node {
    * @param configuration the {@link Configuration} backing this node
    */
   public Node(Configuration configuration) {
+    this(configuration, PrefixMultiMap.Implementation.NODE);
+  }
+
+  /**
+   * Create a new node based on the configuration, whose main RIBs and FIBs are stored in tries of
+   * the given implementation.
+   *
+   * @param configuration the {@link Configuration} backing this node
+   * @param ribTrieImplementation the implementation of the main RIB and FIB tries
+   */
+  public Node(Configuration configuration, PrefixMultiMap.Implementation ribTrieImplementation) {
     _c = configuration;
+    _ribTrieImplementation = ribTrieImplementation;
     ImmutableSortedMap.Builder<String, VirtualRouter> b = ImmutableSortedMap.naturalOrder();
     for (String vrfName : _c.getVrfs().keySet()) {
       VirtualRouter vr = new VirtualRouter(vrfName, this);
@@ -41,6 +55,12 @@ public final class Node {
     return _c;
   }
 
+  /** Returns the implementation of the tries storing the main RIBs and FIBs of this node. */
+  @Nonnull
+  PrefixMultiMap.Implementation getRibTrieImplementation() {
+    return _ribTrieImplementation;
+  }
+
   /** Returns all routing policies present in the configuration of this node. */
   @Nonnull
   public RoutingPolicies getRoutingPolicies() {
@@ -0,0 +1,89 @@
+package org.batfish.dataplane.ibdp;
+
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.BgpAdvertisement;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.bgp.BgpTopology;
+import org.batfish.datamodel.vxlan.VxlanTopology;
+
+/**
+ * The inputs and stored results of the data plane computation of the snapshot a snapshot was forked
+ * from, for use by {@link IncrementalBdpEngine#computeForkedDataPlane}.
+ */
+@ParametersAreNonnullByDefault
+final class ParentDataPlane {
+
+  /**
+   * @param configurations the configurations of the parent snapshot
+   * @param initialTopologyContext the initial topologies the parent's data plane was computed with
+   * @param externalAdverts the external BGP advertisements of the parent snapshot
+   * @param dataPlane the computed data plane of the parent snapshot
+   * @param bgpTopology the BGP topology the parent's data plane converged to
+   * @param layer3Topology the layer-3 topology the parent's data plane converged to
+   * @param vxlanTopology the VXLAN topology the parent's data plane converged to
+   */
+  ParentDataPlane(
+      Map<String, Configuration> configurations,
+      TopologyContext initialTopologyContext,
+      Set<BgpAdvertisement> externalAdverts,
+      DataPlane dataPlane,
+      BgpTopology bgpTopology,
+      Topology layer3Topology,
+      VxlanTopology vxlanTopology) {
+    _configurations = configurations;
+    _initialTopologyContext = initialTopologyContext;
+    _externalAdverts = externalAdverts;
+    _dataPlane = dataPlane;
+    _bgpTopology = bgpTopology;
+    _layer3Topology = layer3Topology;
+    _vxlanTopology = vxlanTopology;
+  }
+
+  @Nonnull
+  Map<String, Configuration> getConfigurations() {
+    return _configurations;
+  }
+
+  @Nonnull
+  TopologyContext getInitialTopologyContext() {
+    return _initialTopologyContext;
+  }
+
+  @Nonnull
+  Set<BgpAdvertisement> getExternalAdverts() {
+    return _externalAdverts;
+  }
+
+  @Nonnull
+  DataPlane getDataPlane() {
+    return _dataPlane;
+  }
+
+  @Nonnull
+  BgpTopology getBgpTopology() {
+    return _bgpTopology;
+  }
+
+  @Nonnull
+  Topology getLayer3Topology() {
+    return _layer3Topology;
+  }
+
+  @Nonnull
+  VxlanTopology getVxlanTopology() {
+    return _vxlanTopology;
+  }
+
+  private final @Nonnull Map<String, Configuration> _configurations;
+  private final @Nonnull TopologyContext _initialTopologyContext;
+  private final @Nonnull Set<BgpAdvertisement> _externalAdverts;
+  private final @Nonnull DataPlane _dataPlane;
+  private final @Nonnull BgpTopology _bgpTopology;
+  private final @Nonnull Topology _layer3Topology;
+  private final @Nonnull VxlanTopology _vxlanTopology;
+}
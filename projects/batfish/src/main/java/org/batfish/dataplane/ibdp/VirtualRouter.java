@@ -248,7 +248,10 @@ public final class VirtualRouter {
             ? alwaysTrue()
             : _c.getRoutingPolicies().get(resolutionPolicy)::processReadOnly;
     // Main RIB + delta builder
-    _mainRib = new Rib(_c.getMainRibEnforceResolvability() ? _resolutionRestriction : null);
+    _mainRib =
+        new Rib(
+            _c.getMainRibEnforceResolvability() ? _resolutionRestriction : null,
+            node.getRibTrieImplementation());
     _mainRibs = ImmutableMap.of(RibId.DEFAULT_RIB_NAME, _mainRib);
     _mainRibDeltaPrevRound = RibDelta.empty();
     _mainRibRouteDeltaBuilder = RibDelta.builder();
@@ -540,7 +543,7 @@ public final class VirtualRouter {
 
   /** Compute the FIB from the main RIB */
   public void computeFib() {
-    _fib = new FibImpl(_mainRib, _resolutionRestriction);
+    _fib = new FibImpl(_mainRib, _resolutionRestriction, _node.getRibTrieImplementation());
   }
 
   void initBgpAggregateRoutes() {
@@ -1415,6 +1418,15 @@ public final class VirtualRouter {
         || (_bgpRoutingProcess != null && _bgpRoutingProcess.isDirty());
   }
 
+  /**
+   * Check whether this virtual router has work left for the next EGP round: either it {@link
+   * #isDirty() is dirty}, or the changes to its main RIB in the previous round are yet to be
+   * redistributed and leaked to other VRFs.
+   */
+  boolean hasPendingEgpWork() {
+    return isDirty() || !_mainRibDeltaPrevRound.isEmpty();
+  }
+
   void eigrpIteration(Map<String, Node> allNodes) {
     _eigrpProcesses.values().forEach(p -> p.executeIteration(allNodes));
   }
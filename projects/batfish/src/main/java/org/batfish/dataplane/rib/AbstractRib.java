@@ -15,6 +15,7 @@ import org.batfish.datamodel.AnnotatedRoute;
 import org.batfish.datamodel.GenericRib;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixMultiMap;
 import org.batfish.datamodel.PrefixSpace;
 import org.batfish.datamodel.ResolutionRestriction;
 import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
@@ -43,9 +44,20 @@ public abstract class AbstractRib<R extends AbstractRouteDecorator> implements G
   @Nullable protected final LinkedHashMultimap<Prefix, R> _backupRoutes;
 
   protected AbstractRib(boolean withBackupRoutes) {
+    this(withBackupRoutes, PrefixMultiMap.Implementation.NODE);
+  }
+
+  /**
+   * Create an AbstractRib whose routes are stored in a trie of the given implementation.
+   *
+   * @param withBackupRoutes whether to keep alternative routes
+   * @param trieImplementation the implementation of the trie storing the routes
+   */
+  protected AbstractRib(
+      boolean withBackupRoutes, PrefixMultiMap.Implementation trieImplementation) {
     _allRoutes = ImmutableSet.of();
     _backupRoutes = withBackupRoutes ? LinkedHashMultimap.create() : null;
-    _tree = new RibTree<>(this);
+    _tree = new RibTree<>(this, trieImplementation);
   }
 
   /** Create an AbstractRib without backup routes */
@@ -4,6 +4,7 @@ import java.io.Serializable;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.PrefixMultiMap;
 
 /**
  * An {@link AbstractRib} in which all routes are of type {@link AnnotatedRoute} to preserve
@@ -23,6 +24,10 @@ public abstract class AnnotatedRib<R extends AbstractRoute> extends AbstractRib<
     super(withBackupRoutes);
   }
 
+  AnnotatedRib(boolean withBackupRoutes, PrefixMultiMap.Implementation trieImplementation) {
+    super(withBackupRoutes, trieImplementation);
+  }
+
   /*
   TODO If an AnnotatedRoute is added to a RIB that already has an identical route with a different
    source VRF, the new route should not be installed or added to _backupRoutes. If the routes are
@@ -18,9 +18,11 @@ import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AnnotatedRoute;
 import org.batfish.datamodel.AsPath;
 import org.batfish.datamodel.AsSet;
+import org.batfish.datamodel.BgpPathAttributes;
 import org.batfish.datamodel.BgpRoute;
 import org.batfish.datamodel.BgpTieBreaker;
 import org.batfish.datamodel.GenericRibReadOnly;
+import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.MultipathEquivalentAsPathMatchMode;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.RoutingProtocol;
@@ -104,39 +106,41 @@ public abstract class BgpRib<R extends BgpRoute<?, ?>> extends AbstractRib<R> {
   @Override
   public int comparePreference(R lhs, R rhs) {
     int multipathCompare =
-        Comparator
-            // Prefer higher Weight (cisco only)
-            .comparing(R::getWeight)
-            // Prefer higher LocalPref
-            .thenComparing(R::getLocalPreference)
-            // NOTE: Accumulated interior gateway protocol (AIGP) is not supported
-            // Aggregates (for non-juniper devices, won't appear on Juniper)
-            .thenComparing(r -> getAggregatePreference(r.getProtocol()))
-            // AS path: prefer shorter
-            // TODO: support `bestpath as-path ignore` (both cisco, juniper)
-            .thenComparing(r -> r.getAsPath().length(), Comparator.reverseOrder())
-            // Prefer certain origin type Internal over External over Incomplete
-            .thenComparing(r -> r.getOriginType().getPreference())
-            // Prefer eBGP over iBGP
-            .thenComparing(r -> getTypeCost(r.getProtocol()))
-            /*
-             * Prefer lower Multi-Exit Discriminator (MED)
-             * TODO: better support for MED rules
-             * Most rules are currently not supported:
-             *    - normally this comparison is done only if the first AS is the same in both AS Paths
-             *    - `always-compare-med` -- overrides above
-             *    - there are additional confederation rules
-             *    - On Juniper `path-selection cisco-nondeterministic` changes behavior
-             *    - On Cisco `bgp bestpath med missing-as-worst` changes missing MED values from 0 to MAX_INT
-             */
-            .thenComparing(R::getMetric, Comparator.reverseOrder())
-            // Prefer next hop IPs with the lowest IGP metric
-            .thenComparing(this::getIgpCostToNextHopIp, Comparator.reverseOrder())
-            // Prefer lowest CLL as a proxy for IGP Metric. FRR-Only.
-            .thenComparing(this::getClusterListLength, Comparator.reverseOrder())
-            // Evaluate AS path compatibility for multipath
-            .thenComparing(this::compareRouteAsPath)
-            .compare(lhs, rhs);
+        lhs.getAttributes() == rhs.getAttributes()
+            ? compareSamePathAttributes(lhs, rhs)
+            : Comparator
+                // Prefer higher Weight (cisco only)
+                .comparing(R::getWeight)
+                // Prefer higher LocalPref
+                .thenComparing(R::getLocalPreference)
+                // NOTE: Accumulated interior gateway protocol (AIGP) is not supported
+                // Aggregates (for non-juniper devices, won't appear on Juniper)
+                .thenComparing(r -> getAggregatePreference(r.getProtocol()))
+                // AS path: prefer shorter
+                // TODO: support `bestpath as-path ignore` (both cisco, juniper)
+                .thenComparing(r -> r.getAsPath().length(), Comparator.reverseOrder())
+                // Prefer certain origin type Internal over External over Incomplete
+                .thenComparing(r -> r.getOriginType().getPreference())
+                // Prefer eBGP over iBGP
+                .thenComparing(r -> getTypeCost(r.getProtocol()))
+                /*
+                 * Prefer lower Multi-Exit Discriminator (MED)
+                 * TODO: better support for MED rules
+                 * Most rules are currently not supported:
+                 *    - normally this comparison is done only if the first AS is the same in both AS Paths
+                 *    - `always-compare-med` -- overrides above
+                 *    - there are additional confederation rules
+                 *    - On Juniper `path-selection cisco-nondeterministic` changes behavior
+                 *    - On Cisco `bgp bestpath med missing-as-worst` changes missing MED values from 0 to MAX_INT
+                 */
+                .thenComparing(R::getMetric, Comparator.reverseOrder())
+                // Prefer next hop IPs with the lowest IGP metric
+                .thenComparing(this::getIgpCostToNextHopIp, Comparator.reverseOrder())
+                // Prefer lowest CLL as a proxy for IGP Metric. FRR-Only.
+                .thenComparing(this::getClusterListLength, Comparator.reverseOrder())
+                // Evaluate AS path compatibility for multipath
+                .thenComparing(this::compareRouteAsPath)
+                .compare(lhs, rhs);
     if (multipathCompare != 0 || isMultipath()) {
       return multipathCompare;
     } else {
@@ -144,6 +148,17 @@ public abstract class BgpRib<R extends BgpRoute<?, ?>> extends AbstractRib<R> {
     }
   }
 
+  /**
+   * Equivalent to the multipath comparison in {@link #comparePreference} for routes sharing the
+   * same {@link BgpPathAttributes}, on which every attribute-based step is a tie.
+   */
+  private int compareSamePathAttributes(R lhs, R rhs) {
+    return Comparator.comparing((R r) -> getAggregatePreference(r.getProtocol()))
+        .thenComparing(r -> getTypeCost(r.getProtocol()))
+        .thenComparing(this::getIgpCostToNextHopIp, Comparator.reverseOrder())
+        .compare(lhs, rhs);
+  }
+
   @Nonnull
   @Override
   public RibDelta<R> mergeRouteGetDelta(R route) {
@@ -251,6 +266,12 @@ public abstract class BgpRib<R extends BgpRoute<?, ?>> extends AbstractRib<R> {
       }
     }
 
+    if (lhs.getAttributes() == rhs.getAttributes()) {
+      // Same originator and cluster list: only the neighbor IP can break the tie
+      return Comparator.nullsFirst(Comparator.<Ip>reverseOrder())
+          .compare(lhs.getReceivedFromIp(), rhs.getReceivedFromIp());
+    }
+
     // Continue with remaining tie breakers
     return
     // Prefer lower originator router ID
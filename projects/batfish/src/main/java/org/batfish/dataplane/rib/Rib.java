@@ -19,6 +19,7 @@ import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AnnotatedRoute;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixMultiMap;
 import org.batfish.datamodel.ResolutionRestriction;
 import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.StaticRoute;
@@ -376,7 +377,17 @@ public class Rib extends AnnotatedRib<AbstractRoute> implements Serializable {
    * {@link #getRoutes()}, {@link #getTypedRoutes()}, nor {@link #getTypedBackupRoutes()}.
    */
   public Rib(@Nullable ResolutionRestriction<AnnotatedRoute<AbstractRoute>> resolutionRestriction) {
-    super(true);
+    this(resolutionRestriction, PrefixMultiMap.Implementation.NODE);
+  }
+
+  /**
+   * Create a new empty RIB, as with {@link #Rib(ResolutionRestriction)}, whose routes are stored in
+   * a trie of the given implementation.
+   */
+  public Rib(
+      @Nullable ResolutionRestriction<AnnotatedRoute<AbstractRoute>> resolutionRestriction,
+      PrefixMultiMap.Implementation trieImplementation) {
+    super(true, trieImplementation);
     _resolvabilityEnforcer =
         resolutionRestriction != null ? new ResolvabilityEnforcer(resolutionRestriction) : null;
   }
@@ -16,8 +16,8 @@ import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.AbstractRouteDecorator;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixMultiMap;
 import org.batfish.datamodel.PrefixSpace;
-import org.batfish.datamodel.PrefixTrieMultiMap;
 import org.batfish.datamodel.ResolutionRestriction;
 import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 
@@ -31,11 +31,15 @@ import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
 @ParametersAreNonnullByDefault
 final class RibTree<R extends AbstractRouteDecorator> implements Serializable {
 
-  @Nonnull private final PrefixTrieMultiMap<R> _root;
+  @Nonnull private final PrefixMultiMap<R> _root;
   @Nonnull private final AbstractRib<R> _owner;
 
   RibTree(AbstractRib<R> owner) {
-    _root = new PrefixTrieMultiMap<>(Prefix.ZERO);
+    this(owner, PrefixMultiMap.Implementation.NODE);
+  }
+
+  RibTree(AbstractRib<R> owner, PrefixMultiMap.Implementation trieImplementation) {
+    _root = trieImplementation.create(Prefix.ZERO);
     _owner = owner;
   }
 
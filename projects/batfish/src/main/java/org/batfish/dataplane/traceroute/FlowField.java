@@ -0,0 +1,37 @@
+package org.batfish.dataplane.traceroute;
+
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.batfish.datamodel.Flow;
+
+/**
+ * The packet header fields of a {@link Flow} that ACLs and transformations can inspect. Used by
+ * {@link TraceMemo} to project flows onto the fields relevant at a hop.
+ */
+enum FlowField {
+  DSCP(Flow::getDscp),
+  DST_IP(Flow::getDstIp),
+  DST_PORT(Flow::getDstPort),
+  ECN(Flow::getEcn),
+  FRAGMENT_OFFSET(Flow::getFragmentOffset),
+  ICMP_CODE(Flow::getIcmpCode),
+  ICMP_TYPE(Flow::getIcmpType),
+  IP_PROTOCOL(Flow::getIpProtocol),
+  PACKET_LENGTH(Flow::getPacketLength),
+  SRC_IP(Flow::getSrcIp),
+  SRC_PORT(Flow::getSrcPort),
+  TCP_FLAGS(Flow::getTcpFlags);
+
+  private final @Nonnull Function<Flow, Object> _getter;
+
+  FlowField(Function<Flow, Object> getter) {
+    _getter = getter;
+  }
+
+  /** Return the value of this field in the given flow. */
+  @Nullable
+  Object get(Flow flow) {
+    return _getter.apply(flow);
+  }
+}
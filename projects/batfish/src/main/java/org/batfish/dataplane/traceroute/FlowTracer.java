@@ -73,8 +73,8 @@ import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IpAccessList;
 import org.batfish.datamodel.IpProtocol;
-import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.Route;
+import org.batfish.datamodel.acl.AclCompiler;
 import org.batfish.datamodel.acl.Evaluator;
 import org.batfish.datamodel.collections.NodeInterfacePair;
 import org.batfish.datamodel.flow.Accept;
@@ -616,8 +616,7 @@ class FlowTracer {
             incomingInterface.getName(),
             incomingInterface.getVrfName(),
             policy,
-            owner.getIpAccessLists(),
-            owner.getIpSpaces(),
+            owner.getAclCompiler(),
             _tracerouteContext.getFibs(_currentNode.getName()));
     _currentFlow = result.getFinalFlow();
 
@@ -728,12 +727,9 @@ class FlowTracer {
   /** Evaluate the input {@link Transformation} against the current flow in the current context. */
   @VisibleForTesting
   TransformationResult eval(Transformation transformation) {
-    return TransformationEvaluator.eval(
-        transformation,
-        _currentFlow,
-        _ingressInterface,
-        _currentConfig.getIpAccessLists(),
-        _currentConfig.getIpSpaces());
+    return _tracerouteContext
+        .getMemo()
+        .transform(_currentConfig, transformation, _currentFlow, _ingressInterface);
   }
 
   /**
@@ -887,16 +883,13 @@ class FlowTracer {
 
     Configuration config = _tracerouteContext.getConfigurations().get(currentNodeName);
     Map<String, IpAccessList> ipAccessLists = config.getIpAccessLists();
-    Map<String, IpSpace> ipSpaces = config.getIpSpaces();
+    AclCompiler aclCompiler = config.getAclCompiler();
 
     // compute transformation. it will be applied after applying incoming ACL
     Transformation transformation = session.getTransformation();
     TransformationResult transformationResult =
         Optional.ofNullable(transformation)
-            .map(
-                t ->
-                    TransformationEvaluator.eval(
-                        t, _currentFlow, inputIfaceName, ipAccessLists, ipSpaces))
+            .map(t -> TransformationEvaluator.eval(t, _currentFlow, inputIfaceName, aclCompiler))
             .orElse(null);
     if (transformation != null) {
       matchDetail.setTransformation(flowDiffs(_currentFlow, transformationResult.getOutputFlow()));
@@ -1406,8 +1399,8 @@ class FlowTracer {
             _ingressInterface,
             filter,
             filterType,
-            _currentConfig.getIpAccessLists(),
-            _currentConfig.getIpSpaces(),
+            _currentConfig,
+            _tracerouteContext.getMemo(),
             _tracerouteContext.getIgnoreFilters());
     _steps.add(filterStep);
     if (filterStep.getAction() == DENIED) {
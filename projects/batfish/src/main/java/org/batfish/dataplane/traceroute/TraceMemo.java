@@ -0,0 +1,465 @@
+package org.batfish.dataplane.traceroute;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.acl.AndMatchExpr;
+import org.batfish.datamodel.acl.DeniedByAcl;
+import org.batfish.datamodel.acl.FalseExpr;
+import org.batfish.datamodel.acl.GenericAclLineMatchExprVisitor;
+import org.batfish.datamodel.acl.GenericAclLineVisitor;
+import org.batfish.datamodel.acl.MatchHeaderSpace;
+import org.batfish.datamodel.acl.MatchSrcInterface;
+import org.batfish.datamodel.acl.NotMatchExpr;
+import org.batfish.datamodel.acl.OrMatchExpr;
+import org.batfish.datamodel.acl.OriginatingFromDevice;
+import org.batfish.datamodel.acl.PermittedByAcl;
+import org.batfish.datamodel.acl.TrueExpr;
+import org.batfish.datamodel.transformation.ApplyAll;
+import org.batfish.datamodel.transformation.ApplyAny;
+import org.batfish.datamodel.transformation.AssignIpAddressFromPool;
+import org.batfish.datamodel.transformation.AssignPortFromPool;
+import org.batfish.datamodel.transformation.IpField;
+import org.batfish.datamodel.transformation.Noop;
+import org.batfish.datamodel.transformation.PortField;
+import org.batfish.datamodel.transformation.ShiftIpAddressIntoSubnet;
+import org.batfish.datamodel.transformation.Transformation;
+import org.batfish.datamodel.transformation.TransformationEvaluator;
+import org.batfish.datamodel.transformation.TransformationEvaluator.TransformationResult;
+import org.batfish.datamodel.transformation.TransformationStepVisitor;
+
+/**
+ * Memoizes the per-hop decisions of {@link FlowTracer} across all the flows traced by a {@link
+ * org.batfish.dataplane.TracerouteEngineImpl}: whether an ACL permits a flow, and how a
+ * transformation rewrites it.
+ *
+ * <p>Flows are keyed on their equivalence class at the hop: their projection onto the {@link
+ * FlowField fields} that the ACL or transformation can inspect (following references to other
+ * ACLs), plus the ingress interface. Flows that differ only in other fields, such as source ports
+ * that no ACL on the path matches, share one evaluation. The memo is bounded, and its hit, miss,
+ * and eviction counts are reported by {@link #getCounters()}.
+ */
+@ParametersAreNonnullByDefault
+public final class TraceMemo {
+
+  public static final String COUNTER_HITS = "traceMemoHits";
+  public static final String COUNTER_MISSES = "traceMemoMisses";
+  public static final String COUNTER_EVICTIONS = "traceMemoEvictions";
+
+  /** The default maximum number of entries in each of the filter and transformation memos */
+  public static final long DEFAULT_MAXIMUM_SIZE = 100_000;
+
+  private final @Nonnull Cache<HopKey, LineAction> _filterActions;
+  private final @Nonnull Cache<HopKey, MemoizedTransformation> _transformationResults;
+
+  /** The fields each ACL or transformation of each node can inspect */
+  private final @Nonnull Map<ObjectKey, Set<FlowField>> _referencedFields;
+
+  public TraceMemo() {
+    this(DEFAULT_MAXIMUM_SIZE);
+  }
+
+  public TraceMemo(long maximumSize) {
+    _filterActions = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    _transformationResults =
+        CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+    _referencedFields = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Return the action that {@code acl}, defined on node {@code c}, takes on the flow entering
+   * {@code c} at {@code srcInterface}.
+   */
+  @Nonnull
+  LineAction filter(Configuration c, IpAccessList acl, Flow flow, @Nullable String srcInterface) {
+    HopKey key = new HopKey(c.getHostname(), acl, srcInterface, project(c, acl, flow));
+    LineAction action = _filterActions.getIfPresent(key);
+    if (action == null) {
+      action = c.getAclCompiler().compile(acl).filter(flow, srcInterface).getAction();
+      _filterActions.put(key, action);
+    }
+    return action;
+  }
+
+  /**
+   * Evaluate {@code transformation}, defined on node {@code c}, on the flow entering {@code c} at
+   * {@code srcInterface}. Same as {@link TransformationEvaluator#eval}.
+   */
+  @Nonnull
+  TransformationResult transform(
+      Configuration c, Transformation transformation, Flow flow, @Nullable String srcInterface) {
+    HopKey key =
+        new HopKey(c.getHostname(), transformation, srcInterface, project(c, transformation, flow));
+    MemoizedTransformation memoized = _transformationResults.getIfPresent(key);
+    if (memoized == null) {
+      TransformationResult result =
+          TransformationEvaluator.eval(transformation, flow, srcInterface, c.getAclCompiler());
+      _transformationResults.put(key, new MemoizedTransformation(flow, result));
+      return result;
+    }
+    TransformationResult result = memoized._result;
+    return new TransformationResult(
+        rewrite(flow, memoized._input, result.getOutputFlow()), result.getTraceSteps());
+  }
+
+  /** Hit, miss, and eviction counts since this memo was created. */
+  public @Nonnull Map<String, Long> getCounters() {
+    CacheStats stats = _filterActions.stats().plus(_transformationResults.stats());
+    return ImmutableMap.of(
+        COUNTER_HITS,
+        stats.hitCount(),
+        COUNTER_MISSES,
+        stats.missCount(),
+        COUNTER_EVICTIONS,
+        stats.evictionCount());
+  }
+
+  /**
+   * Apply to {@code flow} the rewrites the memoized transformation made to {@code memoizedInput}.
+   * Rewritten fields are part of the memo key, so their input values are equal in both flows.
+   */
+  private static @Nonnull Flow rewrite(Flow flow, Flow memoizedInput, Flow memoizedOutput) {
+    if (memoizedInput.equals(memoizedOutput)) {
+      return flow;
+    }
+    Flow.Builder builder = flow.toBuilder();
+    if (!memoizedInput.getSrcIp().equals(memoizedOutput.getSrcIp())) {
+      builder.setSrcIp(memoizedOutput.getSrcIp());
+    }
+    if (!memoizedInput.getDstIp().equals(memoizedOutput.getDstIp())) {
+      builder.setDstIp(memoizedOutput.getDstIp());
+    }
+    if (!Objects.equals(memoizedInput.getSrcPort(), memoizedOutput.getSrcPort())) {
+      builder.setSrcPort(memoizedOutput.getSrcPort());
+    }
+    if (!Objects.equals(memoizedInput.getDstPort(), memoizedOutput.getDstPort())) {
+      builder.setDstPort(memoizedOutput.getDstPort());
+    }
+    return builder.build();
+  }
+
+  private @Nonnull List<Object> project(Configuration c, Object aclOrTransformation, Flow flow) {
+    Set<FlowField> fields =
+        _referencedFields.computeIfAbsent(
+            new ObjectKey(c.getHostname(), aclOrTransformation),
+            k -> referencedFields(c.getIpAccessLists(), aclOrTransformation));
+    Object[] values = new Object[fields.size()];
+    int i = 0;
+    for (FlowField field : fields) {
+      values[i++] = field.get(flow);
+    }
+    return Arrays.asList(values);
+  }
+
+  /**
+   * Return the fields of a flow that the given {@link IpAccessList} or {@link Transformation} can
+   * inspect. A transformation also inspects the fields it writes, since its trace steps record
+   * their old values.
+   */
+  @VisibleForTesting
+  static @Nonnull Set<FlowField> referencedFields(
+      Map<String, IpAccessList> namedAcls, Object aclOrTransformation) {
+    ReferencedFieldsCollector collector = new ReferencedFieldsCollector(namedAcls);
+    if (aclOrTransformation instanceof IpAccessList) {
+      collector.visitAcl((IpAccessList) aclOrTransformation);
+    } else {
+      collector.visitTransformation((Transformation) aclOrTransformation);
+    }
+    return Sets.immutableEnumSet(collector._fields);
+  }
+
+  /** Collects the flow fields referenced by ACLs and transformations. */
+  private static final class ReferencedFieldsCollector
+      implements GenericAclLineMatchExprVisitor<Void>,
+          GenericAclLineVisitor<Void>,
+          TransformationStepVisitor<Void> {
+    private final @Nonnull Map<String, IpAccessList> _namedAcls;
+    private final @Nonnull Set<String> _visitedAcls;
+    private final @Nonnull EnumSet<FlowField> _fields;
+
+    ReferencedFieldsCollector(Map<String, IpAccessList> namedAcls) {
+      _namedAcls = namedAcls;
+      _visitedAcls = new HashSet<>();
+      _fields = EnumSet.noneOf(FlowField.class);
+    }
+
+    void visitAcl(IpAccessList acl) {
+      acl.getLines().forEach(this::visit);
+    }
+
+    void visitTransformation(@Nullable Transformation transformation) {
+      if (transformation == null) {
+        return;
+      }
+      visit(transformation.getGuard());
+      transformation.getTransformationSteps().forEach(step -> step.accept(this));
+      visitTransformation(transformation.getAndThen());
+      visitTransformation(transformation.getOrElse());
+    }
+
+    private Void visitReference(String aclName) {
+      if (!_visitedAcls.add(aclName)) {
+        // already visited, or a cycle
+        return null;
+      }
+      IpAccessList acl = _namedAcls.get(aclName);
+      if (acl == null) {
+        // evaluation will fail; be conservative
+        _fields.addAll(EnumSet.allOf(FlowField.class));
+        return null;
+      }
+      visitAcl(acl);
+      return null;
+    }
+
+    @Override
+    public Void visitAclAclLine(AclAclLine aclAclLine) {
+      return visitReference(aclAclLine.getAclName());
+    }
+
+    @Override
+    public Void visitExprAclLine(ExprAclLine exprAclLine) {
+      return visit(exprAclLine.getMatchCondition());
+    }
+
+    @Override
+    public Void visitAndMatchExpr(AndMatchExpr andMatchExpr) {
+      andMatchExpr.getConjuncts().forEach(this::visit);
+      return null;
+    }
+
+    @Override
+    public Void visitDeniedByAcl(DeniedByAcl deniedByAcl) {
+      return visitReference(deniedByAcl.getAclName());
+    }
+
+    @Override
+    public Void visitFalseExpr(FalseExpr falseExpr) {
+      return null;
+    }
+
+    @Override
+    public Void visitMatchHeaderSpace(MatchHeaderSpace matchHeaderSpace) {
+      // Mirrors HeaderSpace#matches, including which flow field each constraint tests.
+      HeaderSpace hs = matchHeaderSpace.getHeaderspace();
+      if (!hs.getDscps().isEmpty() || !hs.getNotDscps().isEmpty()) {
+        _fields.add(FlowField.DSCP);
+      }
+      if (hs.getDstIps() != null || hs.getNotDstIps() != null) {
+        _fields.add(FlowField.DST_IP);
+      }
+      if (!hs.getDstPorts().isEmpty() || !hs.getNotDstPorts().isEmpty()) {
+        _fields.add(FlowField.DST_PORT);
+      }
+      if (!hs.getEcns().isEmpty() || !hs.getNotEcns().isEmpty()) {
+        _fields.add(FlowField.ECN);
+      }
+      if (!hs.getFragmentOffsets().isEmpty()
+          || !hs.getNotFragmentOffsets().isEmpty()
+          || !hs.getNotIcmpCodes().isEmpty()
+          || !hs.getNotIcmpTypes().isEmpty()) {
+        _fields.add(FlowField.FRAGMENT_OFFSET);
+      }
+      if (!hs.getIcmpCodes().isEmpty()) {
+        _fields.add(FlowField.ICMP_CODE);
+      }
+      if (!hs.getIcmpTypes().isEmpty()) {
+        _fields.add(FlowField.ICMP_TYPE);
+      }
+      if (!hs.getIpProtocols().isEmpty() || !hs.getNotIpProtocols().isEmpty()) {
+        _fields.add(FlowField.IP_PROTOCOL);
+      }
+      if (!hs.getPacketLengths().isEmpty() || !hs.getNotPacketLengths().isEmpty()) {
+        _fields.add(FlowField.PACKET_LENGTH);
+      }
+      if (hs.getSrcOrDstIps() != null) {
+        _fields.add(FlowField.SRC_IP);
+        _fields.add(FlowField.DST_IP);
+      }
+      if (!hs.getSrcOrDstPorts().isEmpty()) {
+        _fields.add(FlowField.SRC_PORT);
+        _fields.add(FlowField.DST_PORT);
+      }
+      if (hs.getSrcIps() != null || hs.getNotSrcIps() != null) {
+        _fields.add(FlowField.SRC_IP);
+      }
+      if (!hs.getSrcPorts().isEmpty() || !hs.getNotSrcPorts().isEmpty()) {
+        _fields.add(FlowField.SRC_PORT);
+      }
+      if (!hs.getTcpFlags().isEmpty()) {
+        _fields.add(FlowField.TCP_FLAGS);
+      }
+      return null;
+    }
+
+    @Override
+    public Void visitMatchSrcInterface(MatchSrcInterface matchSrcInterface) {
+      // the source interface is always part of the key
+      return null;
+    }
+
+    @Override
+    public Void visitNotMatchExpr(NotMatchExpr notMatchExpr) {
+      return visit(notMatchExpr.getOperand());
+    }
+
+    @Override
+    public Void visitOriginatingFromDevice(OriginatingFromDevice originatingFromDevice) {
+      return null;
+    }
+
+    @Override
+    public Void visitOrMatchExpr(OrMatchExpr orMatchExpr) {
+      orMatchExpr.getDisjuncts().forEach(this::visit);
+      return null;
+    }
+
+    @Override
+    public Void visitPermittedByAcl(PermittedByAcl permittedByAcl) {
+      return visitReference(permittedByAcl.getAclName());
+    }
+
+    @Override
+    public Void visitTrueExpr(TrueExpr trueExpr) {
+      return null;
+    }
+
+    @Override
+    public Void visitApplyAll(ApplyAll applyAll) {
+      applyAll.getSteps().forEach(step -> step.accept(this));
+      return null;
+    }
+
+    @Override
+    public Void visitApplyAny(ApplyAny applyAny) {
+      applyAny.getSteps().forEach(step -> step.accept(this));
+      return null;
+    }
+
+    @Override
+    public Void visitAssignIpAddressFromPool(AssignIpAddressFromPool assignIpAddressFromPool) {
+      _fields.add(toFlowField(assignIpAddressFromPool.getIpField()));
+      return null;
+    }
+
+    @Override
+    public Void visitAssignPortFromPool(AssignPortFromPool assignPortFromPool) {
+      _fields.add(FlowField.IP_PROTOCOL);
+      _fields.add(toFlowField(assignPortFromPool.getPortField()));
+      return null;
+    }
+
+    @Override
+    public Void visitNoop(Noop noop) {
+      return null;
+    }
+
+    @Override
+    public Void visitShiftIpAddressIntoSubnet(ShiftIpAddressIntoSubnet shiftIpAddressIntoSubnet) {
+      _fields.add(toFlowField(shiftIpAddressIntoSubnet.getIpField()));
+      return null;
+    }
+
+    private static @Nonnull FlowField toFlowField(IpField ipField) {
+      return ipField == IpField.SOURCE ? FlowField.SRC_IP : FlowField.DST_IP;
+    }
+
+    private static @Nonnull FlowField toFlowField(PortField portField) {
+      return portField == PortField.SOURCE ? FlowField.SRC_PORT : FlowField.DST_PORT;
+    }
+  }
+
+  /** A transformation result, with the input flow it was computed for. */
+  private static final class MemoizedTransformation {
+    private final @Nonnull Flow _input;
+    private final @Nonnull TransformationResult _result;
+
+    MemoizedTransformation(Flow input, TransformationResult result) {
+      _input = input;
+      _result = result;
+    }
+  }
+
+  /** An ACL or transformation of a node, compared by identity. */
+  private static final class ObjectKey {
+    private final @Nonnull String _hostname;
+    private final @Nonnull Object _object;
+
+    ObjectKey(String hostname, Object object) {
+      _hostname = hostname;
+      _object = object;
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof ObjectKey)) {
+        return false;
+      }
+      ObjectKey other = (ObjectKey) o;
+      return _object == other._object && _hostname.equals(other._hostname);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * _hostname.hashCode() + System.identityHashCode(_object);
+    }
+  }
+
+  /** The equivalence class of a flow at an ACL or transformation of a node. */
+  private static final class HopKey {
+    private final @Nonnull ObjectKey _objectKey;
+    private final @Nullable String _srcInterface;
+    private final @Nonnull List<Object> _fieldValues;
+    private final int _hashCode;
+
+    HopKey(
+        String hostname, Object object, @Nullable String srcInterface, List<Object> fieldValues) {
+      _objectKey = new ObjectKey(hostname, object);
+      _srcInterface = srcInterface;
+      _fieldValues = fieldValues;
+      _hashCode = Objects.hash(_objectKey, _srcInterface, _fieldValues);
+    }
+
+    @Override
+    public boolean equals(@Nullable Object o) {
+      if (this == o) {
+        return true;
+      } else if (!(o instanceof HopKey)) {
+        return false;
+      }
+      HopKey other = (HopKey) o;
+      return _hashCode == other._hashCode
+          && _objectKey.equals(other._objectKey)
+          && Objects.equals(_srcInterface, other._srcInterface)
+          && _fieldValues.equals(other._fieldValues);
+    }
+
+    @Override
+    public int hashCode() {
+      return _hashCode;
+    }
+  }
+}
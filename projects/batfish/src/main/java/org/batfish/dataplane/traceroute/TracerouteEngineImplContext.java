@@ -50,6 +50,7 @@ public class TracerouteEngineImplContext {
   private final Set<Flow> _flows;
   private final ForwardingAnalysis _forwardingAnalysis;
   private final boolean _ignoreFilters;
+  private final TraceMemo _memo;
   private final Topology _topology;
 
   public TracerouteEngineImplContext(
@@ -60,10 +61,28 @@ public class TracerouteEngineImplContext {
       Map<String, Map<String, Fib>> fibs,
       boolean ignoreFilters,
       Map<String, Configuration> configurations) {
+    this(
+        dataPlane, topology, sessions, flows, fibs, ignoreFilters, configurations, new TraceMemo());
+  }
+
+  /**
+   * Create a context whose {@link FlowTracer FlowTracers} share the per-hop decisions recorded in
+   * {@code memo}, which may be shared with other contexts over the same network.
+   */
+  public TracerouteEngineImplContext(
+      DataPlane dataPlane,
+      Topology topology,
+      Set<FirewallSessionTraceInfo> sessions,
+      Set<Flow> flows,
+      Map<String, Map<String, Fib>> fibs,
+      boolean ignoreFilters,
+      Map<String, Configuration> configurations,
+      TraceMemo memo) {
     _configurations = configurations;
     _flows = flows;
     _fibs = fibs;
     _ignoreFilters = ignoreFilters;
+    _memo = memo;
     _forwardingAnalysis = dataPlane.getForwardingAnalysis();
     _sessionsByIngressInterface = buildSessionsByIngressInterface(sessions);
     _sessionsByOriginatingVrf = buildSessionsByOriginatingVrf(sessions);
@@ -152,6 +171,11 @@ public class TracerouteEngineImplContext {
     return _ignoreFilters;
   }
 
+  @Nonnull
+  TraceMemo getMemo() {
+    return _memo;
+  }
+
   Collection<FirewallSessionTraceInfo> getSessionsForIncomingInterface(
       String node, String inputIface) {
     return _sessionsByIngressInterface.get(NodeInterfacePair.of(node, inputIface));
@@ -29,14 +29,12 @@ import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.FibEntry;
-import org.batfish.datamodel.FilterResult;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.FlowDiff;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.Interface;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.IpAccessList;
-import org.batfish.datamodel.IpSpace;
 import org.batfish.datamodel.LineAction;
 import org.batfish.datamodel.TcpFlags;
 import org.batfish.datamodel.collections.NodeInterfacePair;
@@ -142,15 +140,13 @@ public final class TracerouteUtils {
       @Nullable String inInterfaceName,
       IpAccessList filter,
       FilterType filterType,
-      Map<String, IpAccessList> aclDefinitions,
-      Map<String, IpSpace> namedIpSpaces,
+      Configuration config,
+      TraceMemo memo,
       boolean ignoreFilters) {
     StepAction action = StepAction.PERMITTED;
     // check filter
     if (!ignoreFilters) {
-      FilterResult filterResult =
-          filter.filter(currentFlow, inInterfaceName, aclDefinitions, namedIpSpaces);
-      if (filterResult.getAction() == LineAction.DENY) {
+      if (memo.filter(config, filter, currentFlow, inInterfaceName) == LineAction.DENY) {
         action = StepAction.DENIED;
       }
     }
@@ -50,6 +50,7 @@ import io.opentracing.Span;
 import io.opentracing.SpanContext;
 import io.opentracing.util.GlobalTracer;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -107,6 +108,7 @@ import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.Warning;
 import org.batfish.common.Warnings;
 import org.batfish.common.bdd.BDDPacket;
+import org.batfish.common.bdd.SnapshotAclBdds;
 import org.batfish.common.plugin.BgpTablePlugin;
 import org.batfish.common.plugin.DataPlanePlugin;
 import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
@@ -147,6 +149,8 @@ import org.batfish.datamodel.Interface.DependencyType;
 import org.batfish.datamodel.InterfaceType;
 import org.batfish.datamodel.NetworkConfigurations;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.SnapshotMetadata;
+import org.batfish.datamodel.StructureInterner;
 import org.batfish.datamodel.SubRange;
 import org.batfish.datamodel.SwitchportMode;
 import org.batfish.datamodel.Topology;
@@ -185,6 +189,7 @@ import org.batfish.grammar.BgpTableFormat;
 import org.batfish.grammar.GrammarSettings;
 import org.batfish.grammar.NopFlattener;
 import org.batfish.grammar.ParseTreePrettyPrinter;
+import org.batfish.grammar.ParserDfaCache;
 import org.batfish.grammar.VendorConfigurationFormatDetector;
 import org.batfish.grammar.flattener.Flattener;
 import org.batfish.grammar.juniper.JuniperCombinedParser;
@@ -258,6 +263,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private static final Pattern MANAGEMENT_VRFS =
       Pattern.compile("(\\Amgmt)|(\\Amanagement)", CASE_INSENSITIVE);
 
+  /** Network blob key of the persisted parser DFAs. See {@link ParserDfaCache}. */
+  private static final String PARSER_DFA_CACHE_KEY = "parser_dfa_cache";
+
   static void checkTopology(Map<String, Configuration> configurations, Topology topology) {
     for (Edge edge : topology.getEdges()) {
       if (!configurations.containsKey(edge.getNode1())) {
@@ -372,22 +380,23 @@ public class Batfish extends PluginConsumer implements IBatfish {
   private @Nonnull SortedMap<String, String> readAllInputObjects(
       Stream<String> keys, NetworkSnapshot snapshot) {
     return keys.parallel()
-        .map(
-            key -> {
-              _logger.debugf("Reading: \"%s\"\n", key);
-              try (InputStream inputStream =
-                  _storage.loadSnapshotInputObject(
-                      snapshot.getNetwork(), snapshot.getSnapshot(), key)) {
-                return new SimpleEntry<>(key, decodeStreamAndAppendNewline(inputStream));
-              } catch (IOException e) {
-                throw new UncheckedIOException(e);
-              }
-            })
+        .map(key -> new SimpleEntry<>(key, readInputObject(key, snapshot)))
         .collect(
             ImmutableSortedMap.toImmutableSortedMap(
                 Ordering.natural(), SimpleEntry::getKey, SimpleEntry::getValue));
   }
 
+  /** Reads the contents of the snapshot input object with the provided key. */
+  private @Nonnull String readInputObject(String key, NetworkSnapshot snapshot) {
+    _logger.debugf("Reading: \"%s\"\n", key);
+    try (InputStream inputStream =
+        _storage.loadSnapshotInputObject(snapshot.getNetwork(), snapshot.getSnapshot(), key)) {
+      return decodeStreamAndAppendNewline(inputStream);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   public static void logWarnings(BatfishLogger logger, Warnings warnings) {
     for (Warning warning : warnings.getRedFlagWarnings()) {
       logger.redflag(logWarningsHelper(warning));
@@ -437,6 +446,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   private SortedMap<BgpTableFormat, BgpTablePlugin> _bgpTablePlugins;
 
+  private final Cache<BddReachabilityCacheKey, BDDReachabilityAnalysisFactory>
+      _cachedBddReachabilityAnalysisFactories;
+
   private final Cache<NetworkSnapshot, SortedMap<String, Configuration>> _cachedConfigurations;
 
   private final Cache<NetworkSnapshot, DataPlane> _cachedDataPlanes;
@@ -469,6 +481,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
   public Batfish(
       Settings settings,
+      Cache<BddReachabilityCacheKey, BDDReachabilityAnalysisFactory>
+          cachedBddReachabilityAnalysisFactories,
       Cache<NetworkSnapshot, SortedMap<String, Configuration>> cachedConfigurations,
       Cache<NetworkSnapshot, DataPlane> cachedDataPlanes,
       Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>> cachedEnvironmentBgpTables,
@@ -477,6 +491,7 @@ public class Batfish extends PluginConsumer implements IBatfish {
       @Nullable IdResolver alternateIdResolver) {
     _settings = settings;
     _bgpTablePlugins = new TreeMap<>();
+    _cachedBddReachabilityAnalysisFactories = cachedBddReachabilityAnalysisFactories;
     _cachedConfigurations = cachedConfigurations;
     _cachedDataPlanes = cachedDataPlanes;
     _cachedEnvironmentBgpTables = cachedEnvironmentBgpTables;
@@ -817,6 +832,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
     // If already present, invalidate a dataplane for this snapshot.
     // (unlikely, only when devs force recomputation)
     _cachedDataPlanes.invalidate(snapshot);
+    // Reachability graphs are built from the data plane, so they are stale as well.
+    _cachedBddReachabilityAnalysisFactories.invalidate(
+        new BddReachabilityCacheKey(snapshot, false));
+    _cachedBddReachabilityAnalysisFactories.invalidate(new BddReachabilityCacheKey(snapshot, true));
 
     // Reserve space for the new dataplane in the in-memory cache by inserting and invalidating a
     // dummy value.
@@ -1061,6 +1080,35 @@ public class Batfish extends PluginConsumer implements IBatfish {
     return nodeRolesData.nodeRoleDimensionFor(dimension);
   }
 
+  @Override
+  public @Nonnull Optional<NetworkSnapshot> getParentSnapshotWithDataPlane(
+      NetworkSnapshot snapshot) {
+    SnapshotId parentId;
+    try {
+      parentId =
+          BatfishObjectMapper.mapper()
+              .readValue(
+                  _storage.loadSnapshotMetadata(snapshot.getNetwork(), snapshot.getSnapshot()),
+                  SnapshotMetadata.class)
+              .getParentSnapshotId();
+    } catch (IOException e) {
+      // e.g., a snapshot that was not initialized by the coordinator
+      LOGGER.debug("Could not load metadata of snapshot {}", snapshot, e);
+      return Optional.empty();
+    }
+    if (parentId == null) {
+      return Optional.empty();
+    }
+    NetworkSnapshot parent = new NetworkSnapshot(snapshot.getNetwork(), parentId);
+    try {
+      return _cachedDataPlanes.getIfPresent(parent) != null || _storage.hasDataPlane(parent)
+          ? Optional.of(parent)
+          : Optional.empty();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   @Override
   public Map<String, String> getQuestionTemplates(boolean verbose) {
     if (_settings.getCoordinatorHost() == null) {
@@ -1219,6 +1267,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
         // Otherwise, we have to parse the configurations. Fall back to old, hacky code.
         configurations = actuallyParseConfigurations(snapshot);
       }
+      // Each configuration was stored separately, so share duplicated structures again.
+      internStructures(configurations);
       // Apply things like blacklist and aggregations before installing in the cache.
       postProcessSnapshot(snapshot, configurations);
 
@@ -1625,22 +1675,35 @@ public class Batfish extends PluginConsumer implements IBatfish {
           GlobalTracer.get().activeSpan() == null
               ? null
               : GlobalTracer.get().activeSpan().context();
-
-      ParseVendorConfigurationJob job =
-          new ParseVendorConfigurationJob(
-              _settings,
+      jobs.add(
+          makeParseVendorConfigurationJob(
               snapshot,
-              vendorFile.getValue(),
               vendorFile.getKey(),
-              buildWarnings(_settings),
+              vendorFile.getValue(),
               expectedFormat,
-              HashMultimap.create(),
-              parseVendorConfigurationSpanContext);
-      jobs.add(job);
+              parseVendorConfigurationSpanContext));
     }
     return jobs;
   }
 
+  /** Returns a {@link ParseVendorConfigurationJob} to parse the given file. */
+  private @Nonnull ParseVendorConfigurationJob makeParseVendorConfigurationJob(
+      NetworkSnapshot snapshot,
+      String filename,
+      String fileText,
+      ConfigurationFormat expectedFormat,
+      @Nullable SpanContext spanContext) {
+    return new ParseVendorConfigurationJob(
+        _settings,
+        snapshot,
+        fileText,
+        filename,
+        buildWarnings(_settings),
+        expectedFormat,
+        HashMultimap.create(),
+        spanContext);
+  }
+
   /**
    * Parses the given configuration files and returns a map keyed by hostname representing the
    * {@link VendorConfiguration vendor-specific configurations}.
@@ -1658,6 +1721,9 @@ public class Batfish extends PluginConsumer implements IBatfish {
     SortedMap<String, VendorConfiguration> vendorConfigurations = new TreeMap<>();
     List<ParseVendorConfigurationJob> jobs =
         makeParseVendorConfigurationsJobs(snapshot, keyedConfigurationText, expectedFormat);
+    if (_settings.getParserDfaCache()) {
+      preloadParserDfaCache(snapshot.getNetwork());
+    }
     BatfishJobExecutor.runJobsInExecutor(
         _settings,
         _logger,
@@ -1666,10 +1732,45 @@ public class Batfish extends PluginConsumer implements IBatfish {
         answerElement,
         _settings.getHaltOnParseError(),
         "Parse configurations");
+    if (_settings.getParserDfaCache()) {
+      storeParserDfaCache(snapshot.getNetwork());
+    }
     _logger.printElapsedTime();
     return vendorConfigurations;
   }
 
+  /**
+   * Preloads the parser DFAs persisted for the given network, unless this JVM has already preloaded
+   * parser DFAs. See {@link ParserDfaCache}.
+   */
+  private void preloadParserDfaCache(NetworkId network) {
+    if (ParserDfaCache.isPreloaded()) {
+      return;
+    }
+    try (InputStream in = _storage.loadNetworkBlob(network, PARSER_DFA_CACHE_KEY)) {
+      ParserDfaCache.preload(in);
+    } catch (FileNotFoundException e) {
+      // Nothing persisted yet: the DFAs of this network's grammars warm up during parsing.
+    } catch (Exception e) {
+      _logger.warnf("Error preloading parser DFA cache: %s", Throwables.getStackTraceAsString(e));
+    }
+  }
+
+  /** Persists the parser DFAs of this JVM for the given network, if they grew while parsing. */
+  private void storeParserDfaCache(NetworkId network) {
+    if (!ParserDfaCache.hasNewStates()) {
+      return;
+    }
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      ParserDfaCache.write(out);
+      _storage.storeNetworkBlob(
+          new ByteArrayInputStream(out.toByteArray()), network, PARSER_DFA_CACHE_KEY);
+    } catch (Exception e) {
+      _logger.warnf("Error storing parser DFA cache: %s", Throwables.getStackTraceAsString(e));
+    }
+  }
+
   private void populateChannelGroupMembers(
       Map<String, Interface> interfaces, String ifaceName, Interface iface) {
     String portChannelName = iface.getChannelGroup();
@@ -2113,6 +2214,32 @@ public class Batfish extends PluginConsumer implements IBatfish {
     }
   }
 
+  private void computeAndStoreSnapshotAclBdds(
+      NetworkSnapshot snapshot, Map<String, Configuration> configurations) {
+    try {
+      _storage.storeSnapshotAclBdds(SnapshotAclBdds.compute(configurations), snapshot);
+    } catch (IOException e) {
+      _logger.errorf("Error storing SnapshotAclBdds: %s", e);
+    }
+  }
+
+  /**
+   * Loads the stored {@link SnapshotAclBdds} of {@code snapshot} into {@code pkt}, or returns an
+   * empty map if they are missing or were built for a different variable layout.
+   */
+  private @Nonnull Map<String, Map<String, BDD>> loadSnapshotAclBdds(
+      NetworkSnapshot snapshot, BDDPacket pkt) {
+    try {
+      return _storage
+          .loadSnapshotAclBdds(snapshot)
+          .map(snapshotAclBdds -> snapshotAclBdds.load(pkt))
+          .orElse(ImmutableMap.of());
+    } catch (IOException | BatfishException e) {
+      _logger.warnf("Ignoring stored ACL BDDs: %s", e);
+      return ImmutableMap.of();
+    }
+  }
+
   private CompletionMetadata computeCompletionMetadata(
       NetworkSnapshot snapshot, Map<String, Configuration> configurations) {
     return new CompletionMetadata(
@@ -2467,6 +2594,8 @@ public class Batfish extends PluginConsumer implements IBatfish {
 
       mergeInternetAndIspNodes(modeledNodes, configurations, layer1Edges, internetWarnings);
 
+      answerElement.setStructureDedupRatio(internStructures(configurations));
+
       LOGGER.info("Serializing Vendor-Independent configurations");
       Span storeSpan = GlobalTracer.get().buildSpan("store VI configs").start();
       try (Scope childScope = GlobalTracer.get().scopeManager().activate(span)) {
@@ -2505,12 +2634,38 @@ public class Batfish extends PluginConsumer implements IBatfish {
       } finally {
         metadataSpan.finish();
       }
+
+      LOGGER.info("Computing ACL BDDs");
+      Span aclBddsSpan = GlobalTracer.get().buildSpan("Compute and store ACL BDDs").start();
+      try (Scope childScope = GlobalTracer.get().scopeManager().activate(span)) {
+        assert childScope != null; // avoid unused warning
+        computeAndStoreSnapshotAclBdds(snapshot, configurations);
+      } finally {
+        aclBddsSpan.finish();
+      }
       return answer;
     } finally {
       span.finish();
     }
   }
 
+  /**
+   * Makes all {@code configurations} share a single copy of each distinct ACL, IP space, route
+   * filter list, community match expression, and routing policy body. Returns the average number of
+   * copies of each distinct structure before sharing.
+   */
+  private static double internStructures(Map<String, Configuration> configurations) {
+    Span span = GlobalTracer.get().buildSpan("intern VI structures").start();
+    try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
+      assert scope != null; // avoid unused warning
+      StructureInterner interner = new StructureInterner();
+      configurations.values().forEach(interner::intern);
+      return interner.getDedupRatio();
+    } finally {
+      span.finish();
+    }
+  }
+
   /**
    * Merges modeled nodes into {@code configurations} and {@code layer1Edges}. Nothing is done if
    * the input configurations have a node in common with modeled nodes.
@@ -2677,107 +2832,74 @@ public class Batfish extends PluginConsumer implements IBatfish {
       // Not able to cache with overlays.
       return oldSerializeNetworkConfigs(snapshot, answerElement, overlayHostConfigurations);
     }
-    boolean found = false;
-    _logger.info("\n*** READING DEVICE CONFIGURATION FILES ***\n");
+    _logger.info("\n*** PARSING AND SERIALIZING DEVICE CONFIGURATION FILES ***\n");
+    _logger.resetTimer();
 
-    List<ParseVendorConfigurationResult> parseResults;
+    // Each file is read, parsed, and its vendor configuration stored by one worker thread before
+    // that thread moves on to the next file. So only as many files are in memory as there are
+    // threads, regardless of the size of the snapshot.
+    StreamingVendorConfigurationStore store =
+        new StreamingVendorConfigurationStore(_storage, snapshot, _logger, answerElement);
+    List<String> keys;
     Span parseNetworkConfigsSpan = GlobalTracer.get().buildSpan("Parse network configs").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(parseNetworkConfigsSpan)) {
       assert scope != null; // avoid unused warning
 
-      List<ParseVendorConfigurationJob> jobs;
-      Span makeJobsSpan = GlobalTracer.get().buildSpan("Read files and make jobs").start();
-      try (Scope makeJobsScope = GlobalTracer.get().scopeManager().activate(makeJobsSpan)) {
-        assert makeJobsScope != null; // avoid unused warning
-        Map<String, String> keyedConfigText;
-        // user filename (configs/foo) -> text of configs/foo
-        try (Stream<String> keys = _storage.listInputNetworkConfigurationsKeys(snapshot)) {
-          keyedConfigText = readAllInputObjects(keys, snapshot);
-        } catch (IOException e) {
-          throw new UncheckedIOException(e);
-        }
-        if (!keyedConfigText.isEmpty()) {
-          found = true;
-        }
-        jobs =
-            makeParseVendorConfigurationsJobs(
-                snapshot, keyedConfigText, ConfigurationFormat.UNKNOWN);
-        // Java parallel streams are not self-balancing in large networks, so shuffle the jobs.
-        Collections.shuffle(jobs);
-      } finally {
-        makeJobsSpan.finish();
+      // user filenames (configs/foo)
+      try (Stream<String> keyStream = _storage.listInputNetworkConfigurationsKeys(snapshot)) {
+        keys = keyStream.collect(Collectors.toList());
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
       }
+      // Java parallel streams are not self-balancing in large networks, so shuffle the files.
+      Collections.shuffle(keys);
 
-      AtomicInteger batch = newBatch("Parse network configs", jobs.size());
-      LOGGER.info("Parsing {} configuration files", jobs.size());
-      parseResults =
-          jobs.parallelStream()
-              .map(
-                  j -> {
-                    ParseVendorConfigurationResult result =
-                        getOrParse(j, parseNetworkConfigsSpan.context(), _settings);
-                    int done = batch.incrementAndGet();
-                    if (done % 100 == 0) {
-                      LOGGER.info(
-                          "Successfully parsed {}/{} configuration files", done, jobs.size());
-                    }
-                    return result;
-                  })
-              .collect(ImmutableList.toImmutableList());
-      LOGGER.info("Done parsing {} configuration files", jobs.size());
+      AtomicInteger batch = newBatch("Parse network configs", keys.size());
+      LOGGER.info("Parsing {} configuration files", keys.size());
+      SpanContext spanContext = parseNetworkConfigsSpan.context();
+      keys.parallelStream()
+          .forEach(
+              key -> {
+                ParseVendorConfigurationJob job =
+                    makeParseVendorConfigurationJob(
+                        snapshot,
+                        key,
+                        readInputObject(key, snapshot),
+                        ConfigurationFormat.UNKNOWN,
+                        spanContext);
+                try {
+                  store.accept(getOrParse(job, spanContext, _settings));
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+                int done = batch.incrementAndGet();
+                if (done % 100 == 0) {
+                  LOGGER.info("Successfully parsed {}/{} configuration files", done, keys.size());
+                }
+              });
+      store.finish();
+      LOGGER.info("Done parsing {} configuration files", keys.size());
     } finally {
       parseNetworkConfigsSpan.finish();
     }
 
-    if (_settings.getHaltOnParseError()
-        && parseResults.stream().anyMatch(r -> r.getFailureCause() != null)) {
+    List<Throwable> failureCauses = store.getFailureCauses();
+    if (_settings.getHaltOnParseError() && !failureCauses.isEmpty()) {
+      try {
+        _storage.deleteVendorConfigurations(snapshot);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
       BatfishException e = new BatfishException("Exiting due to parser errors");
-      parseResults.stream()
-          .map(ParseVendorConfigurationResult::getFailureCause)
-          .filter(Objects::nonNull)
-          .forEach(e::addSuppressed);
+      failureCauses.forEach(e::addSuppressed);
       throw e;
     }
 
     _logger.infof(
         "Snapshot %s in network %s has total number of network configs:%d",
-        snapshot.getSnapshot(), snapshot.getNetwork(), parseResults.size());
-
-    /* Assemble answer. */
-    SortedMap<String, VendorConfiguration> vendorConfigurations = new TreeMap<>();
-    parseResults.forEach(pvcr -> pvcr.applyTo(vendorConfigurations, _logger, answerElement));
-    LOGGER.info("Serializing Vendor-Specific configurations");
-    Span serializeNetworkConfigsSpan =
-        GlobalTracer.get().buildSpan("Serialize network configs").start();
-    try (Scope scope = GlobalTracer.get().scopeManager().activate(serializeNetworkConfigsSpan)) {
-      assert scope != null; // avoid unused warning
-      _logger.info("\n*** SERIALIZING VENDOR CONFIGURATION STRUCTURES ***\n");
-      _logger.resetTimer();
-      Map<String, VendorConfiguration> output = new TreeMap<>();
-      vendorConfigurations.forEach(
-          (name, vc) -> {
-            if (name.contains(File.separator)) {
-              // iptables will get a hostname like configs/iptables-save if they
-              // are not set up correctly using host files
-              _logger.errorf("Cannot serialize configuration with bad hostname %s\n", name);
-              answerElement.addRedFlagWarning(
-                  name,
-                  new Warning(
-                      "Cannot serialize network config. Bad hostname " + name.replace("\\", "/"),
-                      "MISCELLANEOUS"));
-            } else {
-              output.put(name, vc);
-            }
-          });
-
-      _storage.storeVendorConfigurations(output, snapshot);
-      _logger.printElapsedTime();
-    } catch (IOException e) {
-      throw new UncheckedIOException(e);
-    } finally {
-      serializeNetworkConfigsSpan.finish();
-    }
-    return found;
+        snapshot.getSnapshot(), snapshot.getNetwork(), keys.size());
+    _logger.printElapsedTime();
+    return !keys.isEmpty();
   }
 
   /** Returns {@code true} iff at least one network configuration was found. */
@@ -2976,10 +3098,10 @@ public class Batfish extends PluginConsumer implements IBatfish {
           params.getSrcNatted() == SrcNattedConstraint.UNCONSTRAINED,
           "Requiring or forbidding Source NAT is currently unsupported");
 
-      BDDPacket pkt = new BDDPacket();
       boolean ignoreFilters = params.getIgnoreFilters();
       BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-          getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+          getCachedBddReachabilityAnalysisFactory(snapshot, ignoreFilters);
+      BDDPacket pkt = bddReachabilityAnalysisFactory.getBDDPacket();
 
       Map<IngressLocation, BDD> reachableBDDs =
           bddReachabilityAnalysisFactory.getAllBDDs(
@@ -3003,11 +3125,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
     Span span = GlobalTracer.get().buildSpan("bddLoopDetection").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      BDDPacket pkt = new BDDPacket();
       // TODO add ignoreFilters parameter
       boolean ignoreFilters = false;
       BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-          getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+          getCachedBddReachabilityAnalysisFactory(snapshot, ignoreFilters);
+      BDDPacket pkt = bddReachabilityAnalysisFactory.getBDDPacket();
       BDDLoopDetectionAnalysis analysis =
           bddReachabilityAnalysisFactory.bddLoopDetectionAnalysis(
               getAllSourcesInferFromLocationIpSpaceAssignment(snapshot));
@@ -3053,11 +3175,11 @@ public class Batfish extends PluginConsumer implements IBatfish {
     Span span = GlobalTracer.get().buildSpan("bddMultipathConsistency").start();
     try (Scope scope = GlobalTracer.get().scopeManager().activate(span)) {
       assert scope != null; // avoid unused warning
-      BDDPacket pkt = new BDDPacket();
       // TODO add ignoreFilters parameter
       boolean ignoreFilters = false;
       BDDReachabilityAnalysisFactory bddReachabilityAnalysisFactory =
-          getBddReachabilityAnalysisFactory(snapshot, pkt, ignoreFilters);
+          getCachedBddReachabilityAnalysisFactory(snapshot, ignoreFilters);
+      BDDPacket pkt = bddReachabilityAnalysisFactory.getBDDPacket();
       IpSpaceAssignment srcIpSpaceAssignment = parameters.getSrcIpSpaceAssignment();
       Set<String> finalNodes = parameters.getFinalNodes();
       Set<FlowDisposition> failureDispositions =
@@ -3124,12 +3246,32 @@ public class Batfish extends PluginConsumer implements IBatfish {
           dataPlane.getForwardingAnalysis(),
           new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
           ignoreFilters,
-          false);
+          false,
+          loadSnapshotAclBdds(snapshot, pkt));
     } finally {
       span.finish();
     }
   }
 
+  /**
+   * Returns the {@link BDDReachabilityAnalysisFactory} for {@code snapshot}, with its own {@link
+   * BDDPacket}, building it only if it is not cached already. Use {@link
+   * BDDReachabilityAnalysisFactory#getBDDPacket()} to interpret the BDDs of its analyses.
+   */
+  @VisibleForTesting
+  @Nonnull
+  BDDReachabilityAnalysisFactory getCachedBddReachabilityAnalysisFactory(
+      NetworkSnapshot snapshot, boolean ignoreFilters) {
+    BddReachabilityCacheKey key = new BddReachabilityCacheKey(snapshot, ignoreFilters);
+    BDDReachabilityAnalysisFactory factory =
+        _cachedBddReachabilityAnalysisFactories.getIfPresent(key);
+    if (factory == null) {
+      factory = getBddReachabilityAnalysisFactory(snapshot, new BDDPacket(), ignoreFilters);
+      _cachedBddReachabilityAnalysisFactories.put(key, factory);
+    }
+    return factory;
+  }
+
   public BDDReachabilityAnalysis getBddReachabilityAnalysis(
       NetworkSnapshot snapshot,
       BDDPacket pkt,
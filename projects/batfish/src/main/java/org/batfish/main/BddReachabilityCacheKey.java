@@ -0,0 +1,53 @@
+package org.batfish.main;
+
+import com.google.common.base.MoreObjects;
+import java.util.Objects;
+import javax.annotation.Nonnull;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
+import org.batfish.common.NetworkSnapshot;
+
+/**
+ * Identifies a cached {@link BDDReachabilityAnalysisFactory}: the reachability graph of a {@link
+ * NetworkSnapshot}, built with or without filters.
+ */
+public final class BddReachabilityCacheKey {
+  public BddReachabilityCacheKey(@Nonnull NetworkSnapshot snapshot, boolean ignoreFilters) {
+    _snapshot = snapshot;
+    _ignoreFilters = ignoreFilters;
+  }
+
+  public @Nonnull NetworkSnapshot getSnapshot() {
+    return _snapshot;
+  }
+
+  public boolean getIgnoreFilters() {
+    return _ignoreFilters;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (o == this) {
+      return true;
+    } else if (!(o instanceof BddReachabilityCacheKey)) {
+      return false;
+    }
+    BddReachabilityCacheKey other = (BddReachabilityCacheKey) o;
+    return _snapshot.equals(other._snapshot) && _ignoreFilters == other._ignoreFilters;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(_snapshot, _ignoreFilters);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(BddReachabilityCacheKey.class)
+        .add("snapshot", _snapshot)
+        .add("ignoreFilters", _ignoreFilters)
+        .toString();
+  }
+
+  private final @Nonnull NetworkSnapshot _snapshot;
+  private final boolean _ignoreFilters;
+}
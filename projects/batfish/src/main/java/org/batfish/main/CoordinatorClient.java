@@ -2,9 +2,12 @@ package org.batfish.main;
 
 import com.google.common.base.Throwables;
 import java.util.Map;
+import javax.annotation.Nullable;
 import javax.net.ssl.SSLHandshakeException;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
@@ -20,6 +23,24 @@ public final class CoordinatorClient {
 
   public static Object talkToCoordinator(
       String url, Map<String, String> params, Settings settings, BatfishLogger logger) {
+    return request(url, params, null, logger);
+  }
+
+  /**
+   * Like {@link #talkToCoordinator(String, Map, Settings, BatfishLogger)}, but POSTs {@code body}
+   * as JSON instead of making a GET request. Used for payloads too large for a query parameter.
+   */
+  public static Object postToCoordinator(
+      String url,
+      Map<String, String> params,
+      String body,
+      Settings settings,
+      BatfishLogger logger) {
+    return request(url, params, Entity.json(body), logger);
+  }
+
+  private static Object request(
+      String url, Map<String, String> params, @Nullable Entity<?> body, BatfishLogger logger) {
     Client client = null;
     try {
       client = CommonUtil.createHttpClientBuilder(true).build();
@@ -28,7 +49,8 @@ public final class CoordinatorClient {
         webTarget = webTarget.queryParam(entry.getKey(), entry.getValue());
       }
       JSONArray array;
-      try (Response response = webTarget.request(MediaType.APPLICATION_JSON).get()) {
+      Invocation.Builder request = webTarget.request(MediaType.APPLICATION_JSON);
+      try (Response response = body == null ? request.get() : request.post(body)) {
 
         logger.debug(
             "BF: " + response.getStatus() + " " + response.getStatusInfo() + " " + response + "\n");
@@ -1,5 +1,6 @@
 package org.batfish.main;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
@@ -27,6 +28,7 @@ import javax.annotation.Nullable;
 import javax.ws.rs.ProcessingException;
 import javax.ws.rs.core.UriBuilder;
 import org.apache.commons.collections4.map.LRUMap;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
@@ -36,6 +38,7 @@ import org.batfish.common.CoordConsts;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.QuestionException;
 import org.batfish.common.Task;
+import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.config.Settings;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.DataPlane;
@@ -65,6 +68,12 @@ public class Driver {
 
   private static Settings _mainSettings = null;
 
+  /** This worker's address as registered with the coordinator, or {@code null} if unregistered. */
+  private static @Nullable String _registeredWorker = null;
+
+  private static final Cache<BddReachabilityCacheKey, BDDReachabilityAnalysisFactory>
+      CACHED_BDD_REACHABILITY_ANALYSIS_FACTORIES = buildBddReachabilityAnalysisFactoryCache();
+
   private static final Cache<NetworkSnapshot, DataPlane> CACHED_DATA_PLANES = buildDataPlaneCache();
 
   private static final Map<NetworkSnapshot, SortedMap<String, BgpAdvertisementsByVrf>>
@@ -84,6 +93,9 @@ public class Driver {
 
   static Logger httpServerLogger = Logger.getLogger(HttpServer.class.getName());
 
+  // Two per cached data plane: with and without filters.
+  private static final int MAX_CACHED_BDD_REACHABILITY_ANALYSIS_FACTORIES = 4;
+
   private static final int MAX_CACHED_DATA_PLANES = 2;
 
   private static final int MAX_CACHED_ENVIRONMENT_BGP_TABLES = 4;
@@ -95,6 +107,14 @@ public class Driver {
   static Logger networkListenerLogger =
       Logger.getLogger("org.glassfish.grizzly.http.server.NetworkListener");
 
+  private static Cache<BddReachabilityCacheKey, BDDReachabilityAnalysisFactory>
+      buildBddReachabilityAnalysisFactoryCache() {
+    return CacheBuilder.newBuilder()
+        .softValues()
+        .maximumSize(MAX_CACHED_BDD_REACHABILITY_ANALYSIS_FACTORIES)
+        .build();
+  }
+
   private static Cache<NetworkSnapshot, DataPlane> buildDataPlaneCache() {
     return CacheBuilder.newBuilder().softValues().maximumSize(MAX_CACHED_DATA_PLANES).build();
   }
@@ -210,6 +230,7 @@ public class Driver {
       server = GrizzlyHttpServerFactory.createHttpServer(baseUri, rc);
       int selectedListenPort = server.getListeners().iterator().next().getPort();
       if (_mainSettings.getCoordinatorRegister()) {
+        _registeredWorker = _mainSettings.getServiceHost() + ":" + selectedListenPort;
         // this function does not return until registration succeeds
         registerWithCoordinatorPersistent(selectedListenPort);
       }
@@ -243,6 +264,46 @@ public class Driver {
     _idle = true;
   }
 
+  /**
+   * Pushes the status of the task with id {@code taskId} to the coordinator, so that it learns of
+   * the change without waiting for its next poll. This is best-effort: if the coordinator cannot be
+   * reached, it still finds out by polling.
+   */
+  private static void notifyCoordinatorOfTaskUpdate(String taskId, Task task) {
+    String worker = _registeredWorker;
+    if (worker == null) {
+      return;
+    }
+    notifyCoordinatorOfTaskUpdate(worker, taskId, task, _mainSettings, _mainLogger);
+  }
+
+  /**
+   * Pushes the status of the task with id {@code taskId} on {@code worker} to the coordinator named
+   * in {@code settings}. The task is sent in the body of the request, since its error message may
+   * be too large for a query parameter.
+   */
+  @VisibleForTesting
+  static void notifyCoordinatorOfTaskUpdate(
+      String worker, String taskId, Task task, Settings settings, BatfishLogger logger) {
+    String taskUpdateUrl =
+        String.format(
+            "http://%s:%s%s/%s",
+            settings.getCoordinatorHost(),
+            settings.getCoordinatorPoolPort(),
+            CoordConsts.SVC_CFG_POOL_MGR,
+            CoordConsts.SVC_RSC_POOL_TASK_UPDATE);
+    try {
+      Map<String, String> params = new HashMap<>();
+      params.put(CoordConsts.SVC_KEY_WORKER, worker);
+      params.put(CoordConsts.SVC_KEY_WORKID, taskId);
+      CoordinatorClient.postToCoordinator(
+          taskUpdateUrl, params, BatfishObjectMapper.writeString(task), settings, logger);
+    } catch (Exception e) {
+      logger.errorf(
+          "Could not notify coordinator of update to task %s: %s\n", taskId, e.getMessage());
+    }
+  }
+
   private static boolean registerWithCoordinator(String poolRegUrl, int listenPort) {
     Map<String, String> params = new HashMap<>();
     params.put(CoordConsts.SVC_KEY_ADD_WORKER, _mainSettings.getServiceHost() + ":" + listenPort);
@@ -282,6 +343,7 @@ public class Driver {
       Batfish batfish =
           new Batfish(
               settings,
+              CACHED_BDD_REACHABILITY_ANALYSIS_FACTORIES,
               CACHED_TESTRIGS,
               CACHED_DATA_PLANES,
               CACHED_ENVIRONMENT_BGP_TABLES,
@@ -458,6 +520,8 @@ public class Driver {
                   task.setTerminated(new Date());
                   jobLogger.close();
                   makeIdle();
+                  // after makeIdle, so that the coordinator finds this worker idle if it checks
+                  notifyCoordinatorOfTaskUpdate(taskId, task);
                 } finally {
                   runBatfishSpan.finish();
                 }
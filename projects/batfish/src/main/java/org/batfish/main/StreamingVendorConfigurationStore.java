@@ -0,0 +1,184 @@
+package org.batfish.main;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.Warning;
+import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
+import org.batfish.job.ParseVendorConfigurationResult;
+import org.batfish.storage.StorageProvider;
+import org.batfish.vendor.VendorConfiguration;
+
+/**
+ * Applies the results of parsing the network configuration files of a snapshot as they arrive, and
+ * stores each vendor configuration right away, so that memory use does not grow with the number of
+ * files in the snapshot.
+ *
+ * <p>Results are applied to the answer element exactly as {@link
+ * ParseVendorConfigurationResult#applyTo} applies them to an in-memory map. In particular, when a
+ * hostname is duplicated, the vendor configuration already stored under it is loaded back so that
+ * it can be renamed.
+ */
+@ParametersAreNonnullByDefault
+@ThreadSafe
+final class StreamingVendorConfigurationStore {
+
+  private final @Nonnull ParseVendorConfigurationAnswerElement _answerElement;
+  private final @Nonnull BatfishLogger _logger;
+  private final @Nonnull NetworkSnapshot _snapshot;
+  private final @Nonnull StorageProvider _storage;
+
+  @GuardedBy("this")
+  private final List<Throwable> _failureCauses;
+
+  /** Names of the vendor configurations stored so far, and the completion of their storing. */
+  @GuardedBy("this")
+  private final Map<String, CompletableFuture<Void>> _stored;
+
+  /** Hostnames whose stored vendor configuration is being renamed, and the end of renaming. */
+  @GuardedBy("this")
+  private final Map<String, CompletableFuture<Void>> _renaming;
+
+  /** Vendor configurations whose names cannot be used to store them. */
+  @GuardedBy("this")
+  private final Map<String, VendorConfiguration> _unstorable;
+
+  StreamingVendorConfigurationStore(
+      StorageProvider storage,
+      NetworkSnapshot snapshot,
+      BatfishLogger logger,
+      ParseVendorConfigurationAnswerElement answerElement) {
+    _answerElement = answerElement;
+    _logger = logger;
+    _snapshot = snapshot;
+    _storage = storage;
+    _failureCauses = new ArrayList<>();
+    _renaming = new HashMap<>();
+    _stored = new HashMap<>();
+    _unstorable = new TreeMap<>();
+  }
+
+  /**
+   * Applies the given parse result to the answer element and stores its vendor configuration.
+   * Storing, and loading back a vendor configuration with a duplicate hostname, happen on the
+   * calling thread, outside of any lock.
+   */
+  void accept(ParseVendorConfigurationResult result) throws IOException {
+    VendorConfiguration vc = result.getVendorConfiguration();
+    String hostname = vc == null ? null : vc.getHostname();
+    Map<String, VendorConfiguration> toStore = new HashMap<>();
+    CompletableFuture<Void> stored = new CompletableFuture<>();
+    CompletableFuture<Void> previouslyStored = null;
+    CompletableFuture<Void> renamed = new CompletableFuture<>();
+    while (true) {
+      CompletableFuture<Void> renaming;
+      synchronized (this) {
+        renaming = hostname == null ? null : _renaming.get(hostname);
+        if (renaming == null) {
+          if (hostname != null && _unstorable.containsKey(hostname)) {
+            toStore.put(hostname, _unstorable.remove(hostname));
+          } else if (hostname != null && _stored.containsKey(hostname)) {
+            // Duplicate hostname: the stored vendor configuration will be renamed. Results with
+            // the same hostname must wait until then.
+            previouslyStored = _stored.remove(hostname);
+            _renaming.put(hostname, renamed);
+          }
+          if (previouslyStored == null) {
+            apply(result, toStore, stored);
+          }
+        }
+      }
+      if (renaming == null) {
+        break;
+      }
+      // Another result is renaming the vendor configuration stored under this hostname.
+      renaming.handle((v, e) -> null).join();
+    }
+    if (previouslyStored != null) {
+      try {
+        previouslyStored.join();
+        toStore.put(hostname, _storage.loadVendorConfiguration(_snapshot, hostname));
+        _storage.deleteVendorConfiguration(_snapshot, hostname);
+        synchronized (this) {
+          apply(result, toStore, stored);
+        }
+      } finally {
+        synchronized (this) {
+          _renaming.remove(hostname);
+        }
+        renamed.complete(null);
+      }
+    }
+    try {
+      for (Entry<String, VendorConfiguration> entry : toStore.entrySet()) {
+        _storage.storeVendorConfiguration(entry.getValue(), entry.getKey(), _snapshot);
+      }
+      stored.complete(null);
+    } catch (IOException | RuntimeException e) {
+      stored.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  /**
+   * Applies {@code result} to the answer element and {@code toStore}, and records which of the
+   * vendor configurations in {@code toStore} will be stored, once {@code stored} completes.
+   */
+  @GuardedBy("this")
+  private void apply(
+      ParseVendorConfigurationResult result,
+      Map<String, VendorConfiguration> toStore,
+      CompletableFuture<Void> stored) {
+    if (result.getFailureCause() != null) {
+      _failureCauses.add(result.getFailureCause());
+    }
+    result.applyTo(toStore, _logger, _answerElement);
+    Iterator<Entry<String, VendorConfiguration>> entries = toStore.entrySet().iterator();
+    while (entries.hasNext()) {
+      Entry<String, VendorConfiguration> entry = entries.next();
+      String name = entry.getKey();
+      if (name.contains(File.separator)) {
+        _unstorable.put(name, entry.getValue());
+        entries.remove();
+      } else {
+        _stored.put(name, stored);
+      }
+    }
+  }
+
+  /**
+   * Warns about vendor configurations that could not be stored. Call once all results have been
+   * accepted.
+   */
+  synchronized void finish() {
+    for (String name : _unstorable.keySet()) {
+      // iptables will get a hostname like configs/iptables-save if they
+      // are not set up correctly using host files
+      _logger.errorf("Cannot serialize configuration with bad hostname %s\n", name);
+      _answerElement.addRedFlagWarning(
+          name,
+          new Warning(
+              "Cannot serialize network config. Bad hostname " + name.replace("\\", "/"),
+              "MISCELLANEOUS"));
+    }
+  }
+
+  /** Returns the causes of the failures among the accepted results. */
+  synchronized @Nonnull List<Throwable> getFailureCauses() {
+    return ImmutableList.copyOf(_failureCauses);
+  }
+}
@@ -46,6 +46,7 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
@@ -71,7 +72,9 @@ import net.sf.javabdd.BDD;
 import org.batfish.bddreachability.transition.Transition;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.bdd.HeaderSpaceToBDD;
+import org.batfish.common.bdd.IpAccessListToBdd;
 import org.batfish.common.bdd.IpSpaceToBDD;
+import org.batfish.common.bdd.SnapshotAclBdds;
 import org.batfish.datamodel.AclIpSpace;
 import org.batfish.datamodel.AclLine;
 import org.batfish.datamodel.ConcreteInterfaceAddress;
@@ -216,6 +219,35 @@ public final class BDDReachabilityAnalysisFactoryTest {
     makeBddReachabilityAnalysisFactory(net._configs);
   }
 
+  @Test
+  public void testPrecomputedAclBdds() throws IOException {
+    TestNetworkIndirection net = new TestNetworkIndirection();
+    Batfish batfish = BatfishTestUtils.getBatfish(net._configs, temp);
+    batfish.computeDataPlane(batfish.getSnapshot());
+    DataPlane dataPlane = batfish.loadDataPlane(batfish.getSnapshot());
+    Map<String, Map<String, BDD>> precomputed = SnapshotAclBdds.compute(net._configs).load(_pkt);
+    BDDReachabilityAnalysisFactory factory =
+        new BDDReachabilityAnalysisFactory(
+            _pkt,
+            net._configs,
+            dataPlane.getForwardingAnalysis(),
+            new IpsRoutedOutInterfacesFactory(dataPlane.getFibs()),
+            false,
+            false,
+            precomputed);
+
+    Configuration node = net._configs.get(net._node.getHostname());
+    Map<String, BDD> nodePrecomputed = precomputed.get(node.getHostname());
+    assertFalse(nodePrecomputed.isEmpty());
+    IpAccessListToBdd aclToBdd = factory.ipAccessListToBdd(node);
+    nodePrecomputed.forEach(
+        (aclName, bdd) -> {
+          BDD permitBdd = factory.getAclPermitBdds().get(node.getHostname()).get(aclName).get();
+          assertThat(permitBdd, sameInstance(bdd));
+          assertThat(permitBdd, equalTo(aclToBdd.toBdd(node.getIpAccessLists().get(aclName))));
+        });
+  }
+
   @Test
   public void testAnalysisUseInterfaceRootsParam() throws IOException {
     SortedMap<String, Configuration> configs = TestNetworkSources.twoNodeNetwork();
@@ -661,4 +661,23 @@ public final class BDDReachabilityAnalysisTest {
                   c, start)));
     }
   }
+
+  @Test
+  public void testFixpointAlgorithmsAgree() {
+    Table<StateExpr, StateExpr, Transition> forwardEdges = _graph.getForwardEdgeTable();
+    Table<StateExpr, StateExpr, Transition> reverseEdges =
+        BDDReachabilityUtils.transposeAndMaterialize(forwardEdges);
+    BDD one = _pkt.getFactory().one();
+
+    Map<StateExpr, BDD> roundBased = new HashMap<>();
+    roundBased.put(Query.INSTANCE, one);
+    fixpoint(roundBased, reverseEdges, Transition::transitBackward, FixpointAlgorithm.ROUND_BASED);
+
+    Map<StateExpr, BDD> sccWorklist = new HashMap<>();
+    sccWorklist.put(Query.INSTANCE, one);
+    fixpoint(
+        sccWorklist, reverseEdges, Transition::transitBackward, FixpointAlgorithm.SCC_WORKLIST);
+
+    assertThat(sccWorklist, equalTo(roundBased));
+  }
 }
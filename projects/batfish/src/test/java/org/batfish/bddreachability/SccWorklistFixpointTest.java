@@ -0,0 +1,151 @@
+package org.batfish.bddreachability;
+
+import static org.batfish.bddreachability.BDDReachabilityUtils.computeForwardEdgeTable;
+import static org.batfish.bddreachability.BDDReachabilityUtils.transposeAndMaterialize;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Table;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.sf.javabdd.BDD;
+import org.batfish.bddreachability.transition.Transition;
+import org.batfish.bddreachability.transition.Transitions;
+import org.batfish.common.bdd.BDDPacket;
+import org.batfish.symbolic.state.NodeAccept;
+import org.batfish.symbolic.state.StateExpr;
+import org.junit.Test;
+
+/** Tests of {@link SccWorklistFixpoint}. */
+public final class SccWorklistFixpointTest {
+  private final BDDPacket _pkt = new BDDPacket();
+
+  private final StateExpr _a = new NodeAccept("A");
+  private final StateExpr _b = new NodeAccept("B");
+  private final StateExpr _c = new NodeAccept("C");
+  private final StateExpr _d = new NodeAccept("D");
+
+  @Test
+  public void testComputeSccs() {
+    BDD one = _pkt.getFactory().one();
+    // a -> b <-> c -> d
+    Table<StateExpr, StateExpr, Transition> edges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(_a, _b, one),
+                new Edge(_b, _c, one),
+                new Edge(_c, _b, one),
+                new Edge(_c, _d, one)));
+
+    List<List<StateExpr>> sccs = SccWorklistFixpoint.computeSccs(ImmutableList.of(_a), edges);
+    assertThat(sccs.get(0), contains(_d));
+    assertThat(sccs.get(1), containsInAnyOrder(_b, _c));
+    assertThat(sccs.get(2), contains(_a));
+
+    // only states reachable from the roots are included
+    assertThat(
+        SccWorklistFixpoint.computeSccs(ImmutableList.of(_c), edges).stream()
+            .flatMap(List::stream)
+            .collect(ImmutableSet.toImmutableSet()),
+        containsInAnyOrder(_b, _c, _d));
+  }
+
+  @Test
+  public void testComputePriorities() {
+    BDD one = _pkt.getFactory().one();
+    // a -> b <-> c -> d
+    Table<StateExpr, StateExpr, Transition> edges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(_a, _b, one),
+                new Edge(_b, _c, one),
+                new Edge(_c, _b, one),
+                new Edge(_c, _d, one)));
+
+    Map<StateExpr, Integer> priorities =
+        SccWorklistFixpoint.computePriorities(ImmutableList.of(_a), edges);
+    assertThat(priorities.get(_a), lessThan(priorities.get(_b)));
+    assertThat(priorities.get(_a), lessThan(priorities.get(_c)));
+    assertThat(priorities.get(_b), lessThan(priorities.get(_d)));
+    assertThat(priorities.get(_c), lessThan(priorities.get(_d)));
+  }
+
+  @Test
+  public void testFixpointWithCycle() {
+    BDD start = _pkt.getSrcPort().value(1);
+    BDD bddAB = _pkt.getDstIp().value(1);
+    BDD bddCD = _pkt.getSrcIp().value(1);
+
+    // a -> b <-> c -> d, where c -> b erases the dst IP
+    Table<StateExpr, StateExpr, Transition> edges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(_a, _b, bddAB),
+                new Edge(_b, _c, Transitions.IDENTITY),
+                new Edge(_c, _b, Transitions.eraseAndSet(_pkt.getDstIp(), bddAB.not())),
+                new Edge(_c, _d, bddCD)));
+    // b receives dstIp 1 from a, and every other dstIp via c
+    BDD bReach = start;
+
+    // forward from a
+    {
+      Map<StateExpr, BDD> reach = new HashMap<>();
+      reach.put(_a, start);
+      SccWorklistFixpoint.fixpoint(reach, edges, Transition::transitForward);
+      assertThat(
+          reach,
+          equalTo(
+              ImmutableMap.of(
+                  _a, start, //
+                  _b, bReach, //
+                  _c, bReach, //
+                  _d, bReach.and(bddCD))));
+      assertThat(reach, equalTo(roundBasedFixpoint(start, _a, edges, true)));
+    }
+
+    // backward from d
+    {
+      Table<StateExpr, StateExpr, Transition> reverseEdges = transposeAndMaterialize(edges);
+      Map<StateExpr, BDD> reach = new HashMap<>();
+      reach.put(_d, start);
+      SccWorklistFixpoint.fixpoint(reach, reverseEdges, Transition::transitBackward);
+      assertThat(reach, equalTo(roundBasedFixpoint(start, _d, reverseEdges, false)));
+    }
+  }
+
+  @Test
+  public void testFixpointSelfLoop() {
+    BDD start = _pkt.getDstIp().value(1);
+    Table<StateExpr, StateExpr, Transition> edges =
+        computeForwardEdgeTable(
+            ImmutableList.of(
+                new Edge(
+                    _a, _a, Transitions.eraseAndSet(_pkt.getDstIp(), _pkt.getDstIp().value(2))),
+                new Edge(_a, _b, _pkt.getDstIp().value(2))));
+
+    Map<StateExpr, BDD> reach = new HashMap<>();
+    reach.put(_a, start);
+    SccWorklistFixpoint.fixpoint(reach, edges, Transition::transitForward);
+    BDD aReach = start.or(_pkt.getDstIp().value(2));
+    assertThat(reach, equalTo(ImmutableMap.of(_a, aReach, _b, _pkt.getDstIp().value(2))));
+  }
+
+  private static Map<StateExpr, BDD> roundBasedFixpoint(
+      BDD start, StateExpr root, Table<StateExpr, StateExpr, Transition> edges, boolean forward) {
+    Map<StateExpr, BDD> reach = new HashMap<>();
+    reach.put(root, start);
+    BDDReachabilityUtils.fixpoint(
+        reach,
+        edges,
+        forward ? Transition::transitForward : Transition::transitBackward,
+        FixpointAlgorithm.ROUND_BASED);
+    return reach;
+  }
+}
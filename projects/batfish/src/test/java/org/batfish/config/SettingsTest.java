@@ -9,6 +9,7 @@ import static org.junit.Assert.assertThat;
 import com.google.common.collect.ImmutableList;
 import java.nio.file.Paths;
 import org.batfish.common.CleanBatfishException;
+import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings;
 import org.batfish.identifiers.NetworkId;
 import org.batfish.identifiers.SnapshotId;
 import org.batfish.main.Driver.RunMode;
@@ -43,6 +44,19 @@ public class SettingsTest {
         origSettings.getDataPlaneEngineName(), not(equalTo(settings.getDataPlaneEngineName())));
   }
 
+  @Test
+  public void testSetEventDrivenEgp() {
+    Settings settings = new Settings(new String[] {});
+    assertThat(
+        new IncrementalDataPlaneSettings(settings.getImmutableConfiguration()).getEventDrivenEgp(),
+        is(false));
+
+    settings.setEventDrivenEgp(true);
+    assertThat(
+        new IncrementalDataPlaneSettings(settings.getImmutableConfiguration()).getEventDrivenEgp(),
+        is(true));
+  }
+
   /** Test that boolean parsing recognizes "true" or "false" */
   @Test
   public void testBooleanParsing() {
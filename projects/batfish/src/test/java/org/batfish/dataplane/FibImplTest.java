@@ -348,6 +348,40 @@ public final class FibImplTest {
     assertThat(fibRoutesEth2, containsInAnyOrder(testRoute, restrictionViolatingRoute));
   }
 
+  @Test
+  public void testResolutionSharedByRoutesWithSameNextHopIp() {
+    Rib rib = new Rib();
+
+    ConnectedRoute connectedRoute = new ConnectedRoute(Prefix.strict("1.1.1.0/24"), "Eth1");
+    StaticRoute route1 =
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse("2.2.2.0/24"))
+            .setNextHopIp(Ip.parse("1.1.1.1"))
+            .setAdministrativeCost(1)
+            .build();
+    StaticRoute route2 =
+        StaticRoute.testBuilder()
+            .setNetwork(Prefix.parse("3.3.3.0/24"))
+            .setNextHopIp(Ip.parse("1.1.1.1"))
+            .setAdministrativeCost(1)
+            .build();
+
+    rib.mergeRoute(annotateRoute(connectedRoute));
+    rib.mergeRoute(annotateRoute(route1));
+    rib.mergeRoute(annotateRoute(route2));
+
+    Fib fib = new FibImpl(rib, alwaysTrue());
+
+    // Each route resolves via the same connected route, but with itself as the top-level route.
+    FibForward action = new FibForward(Ip.parse("1.1.1.1"), "Eth1");
+    assertThat(
+        fib.get(Ip.parse("2.2.2.2")),
+        contains(new FibEntry(action, ImmutableList.of(route1, connectedRoute))));
+    assertThat(
+        fib.get(Ip.parse("3.3.3.3")),
+        contains(new FibEntry(action, ImmutableList.of(route2, connectedRoute))));
+  }
+
   @Test
   public void testResolutionWhenNextHopMatchesNonForwardingRouteWithECMP() {
     Rib rib = new Rib();
@@ -0,0 +1,169 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.batfish.dataplane.ibdp.ForkImpact.computeAffectedNodes;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
+import java.util.Map;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Edge;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.batfish.datamodel.VrrpGroup;
+import org.junit.Test;
+
+/** Tests of {@link ForkImpact}. */
+public final class ForkImpactTest {
+
+  private static Configuration node(String hostname, String... addresses) {
+    Configuration c =
+        Configuration.builder()
+            .setHostname(hostname)
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    Vrf vrf = Vrf.builder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+    for (int i = 0; i < addresses.length; i++) {
+      Interface.builder()
+          .setOwner(c)
+          .setVrf(vrf)
+          .setName("i" + i)
+          .setAddress(ConcreteInterfaceAddress.parse(addresses[i]))
+          .build();
+    }
+    return c;
+  }
+
+  private static Map<String, Configuration> configs(Configuration... configurations) {
+    ImmutableSortedMap.Builder<String, Configuration> configs = ImmutableSortedMap.naturalOrder();
+    for (Configuration c : configurations) {
+      configs.put(c.getHostname(), c);
+    }
+    return configs.build();
+  }
+
+  private static TopologyContext topology(Edge... edges) {
+    return TopologyContext.builder()
+        .setLayer3Topology(new Topology(ImmutableSortedSet.copyOf(edges)))
+        .build();
+  }
+
+  private static final Edge N1_N2 = Edge.of("n1", "i0", "n2", "i0");
+
+  @Test
+  public void testUnchanged() {
+    Map<String, Configuration> configs =
+        configs(node("n1", "10.0.0.1/24"), node("n2", "10.0.0.2/24"));
+    assertThat(
+        computeAffectedNodes(
+            configs,
+            topology(N1_N2),
+            ImmutableSet.of(),
+            configs(node("n1", "10.0.0.1/24"), node("n2", "10.0.0.2/24")),
+            topology(N1_N2),
+            ImmutableSet.of()),
+        empty());
+  }
+
+  @Test
+  public void testChangedConfiguration() {
+    // n1 and n2 are adjacent, but exchange no routes
+    assertThat(
+        computeAffectedNodes(
+            configs(node("n1", "10.0.0.1/24"), node("n2", "10.0.0.2/24"), node("n3")),
+            topology(N1_N2),
+            ImmutableSet.of(),
+            configs(
+                node("n1", "10.0.0.1/24", "10.0.1.1/24"), node("n2", "10.0.0.2/24"), node("n3")),
+            topology(N1_N2),
+            ImmutableSet.of()),
+        containsInAnyOrder("n1"));
+  }
+
+  private static Configuration ripNode(String hostname, String... addresses) {
+    Configuration c = node(hostname, addresses);
+    c.getAllInterfaces().values().forEach(i -> i.setRipEnabled(true));
+    return c;
+  }
+
+  @Test
+  public void testChangedConfigurationRip() {
+    // n1 and n2 exchange routes over their layer-3 edge
+    assertThat(
+        computeAffectedNodes(
+            configs(ripNode("n1", "10.0.0.1/24"), ripNode("n2", "10.0.0.2/24"), node("n3")),
+            topology(N1_N2),
+            ImmutableSet.of(),
+            configs(
+                ripNode("n1", "10.0.0.1/24", "10.0.1.1/24"),
+                ripNode("n2", "10.0.0.2/24"),
+                node("n3")),
+            topology(N1_N2),
+            ImmutableSet.of()),
+        containsInAnyOrder("n1", "n2"));
+  }
+
+  @Test
+  public void testChangedEdges() {
+    // e.g., a deactivated link: the configurations are identical, but the edge is gone
+    assertThat(
+        computeAffectedNodes(
+            configs(node("n1", "10.0.0.1/24"), node("n2", "10.0.0.2/24"), node("n3")),
+            topology(N1_N2),
+            ImmutableSet.of(),
+            configs(node("n1", "10.0.0.1/24"), node("n2", "10.0.0.2/24"), node("n3")),
+            topology(),
+            ImmutableSet.of()),
+        containsInAnyOrder("n1", "n2"));
+  }
+
+  @Test
+  public void testRemovedNode() {
+    assertThat(
+        computeAffectedNodes(
+            configs(node("n1", "10.0.0.1/24"), node("n2", "10.0.0.2/24"), node("n3")),
+            topology(N1_N2),
+            ImmutableSet.of(),
+            configs(node("n1", "10.0.0.1/24"), node("n3")),
+            topology(),
+            ImmutableSet.of()),
+        containsInAnyOrder("n1"));
+  }
+
+  private static Configuration vrrpNode(String hostname, String address, int priority) {
+    Configuration c = node(hostname, address);
+    c.getAllInterfaces()
+        .get("i0")
+        .setVrrpGroups(
+            ImmutableSortedMap.of(
+                1,
+                VrrpGroup.builder()
+                    .setName(1)
+                    .setPriority(priority)
+                    .setVirtualAddress(ConcreteInterfaceAddress.parse("10.0.2.1/24"))
+                    .build()));
+    return c;
+  }
+
+  @Test
+  public void testSharedVrrpAddress() {
+    // n1 and n2 are not adjacent, but elect a VRRP master for the same address
+    assertThat(
+        computeAffectedNodes(
+            configs(
+                vrrpNode("n1", "10.0.0.1/24", 100), vrrpNode("n2", "10.0.1.1/24", 100), node("n3")),
+            topology(),
+            ImmutableSet.of(),
+            configs(
+                vrrpNode("n1", "10.0.0.1/24", 200), vrrpNode("n2", "10.0.1.1/24", 100), node("n3")),
+            topology(),
+            ImmutableSet.of()),
+        containsInAnyOrder("n1", "n2"));
+  }
+}
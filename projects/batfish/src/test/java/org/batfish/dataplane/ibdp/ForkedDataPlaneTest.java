@@ -0,0 +1,211 @@
+package org.batfish.dataplane.ibdp;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.Maps;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.datamodel.BgpAdvertisement;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.main.Batfish;
+import org.batfish.main.BatfishTestUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests of {@link IncrementalBdpEngine#computeForkedDataPlane}: the data plane of a fork must be
+ * identical to one computed from scratch.
+ */
+public final class ForkedDataPlaneTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private static final String PREFIX = "org/batfish/dataplane/ibdp/";
+
+  /**
+   * Five independent networks: a, b, and c run BGP; A1, A2, and FWL run OSPF; the dc nodes run
+   * EIGRP; advertiser and listener run OSPF; r1 and r2 run OSPF, and each has a static route to a
+   * stub node that is connected to it but does not run any routing protocol.
+   */
+  private SortedMap<String, Configuration> parentConfigurations() throws IOException {
+    return BatfishTestUtils.parseTextConfigs(
+        _folder,
+        PREFIX + "bgp-topology-change/configs/a",
+        PREFIX + "bgp-topology-change/configs/b",
+        PREFIX + "bgp-topology-change/configs/c",
+        PREFIX + "ospf-edge/configs/A1",
+        PREFIX + "ospf-edge/configs/A2",
+        PREFIX + "ospf-edge/configs/FWL",
+        PREFIX + "ios-eigrp/configs/dc1.cfg",
+        PREFIX + "ios-eigrp/configs/dc1border.cfg",
+        PREFIX + "ios-eigrp/configs/dc1lan.cfg",
+        PREFIX + "ios-eigrp/configs/dc2.cfg",
+        PREFIX + "ios-eigrp/configs/dc2border.cfg",
+        PREFIX + "ios-eigrp/configs/dc2lan.cfg",
+        PREFIX + "ospf-loopback-routes/configs/advertiser",
+        PREFIX + "ospf-loopback-routes/configs/listener",
+        PREFIX + "fork-connected/configs/r1",
+        PREFIX + "fork-connected/configs/r2",
+        PREFIX + "fork-connected/configs/stub1",
+        PREFIX + "fork-connected/configs/stub2");
+  }
+
+  /**
+   * Computes the data plane of a fork of the parent network, both reusing the parent's data plane
+   * and from scratch. Asserts that both are identical, and returns the nodes that were recomputed.
+   */
+  private Set<String> computeFork(Consumer<SortedMap<String, Configuration>> fork)
+      throws IOException {
+    SortedMap<String, Configuration> parentConfigurations = parentConfigurations();
+    SortedMap<String, Configuration> forkConfigurations =
+        new TreeMap<>(SerializationUtils.clone(ImmutableSortedMap.copyOf(parentConfigurations)));
+    fork.accept(forkConfigurations);
+
+    Batfish batfish =
+        BatfishTestUtils.getBatfish(parentConfigurations, forkConfigurations, _folder);
+    NetworkSnapshot parent = batfish.getSnapshot();
+    NetworkSnapshot child = batfish.getReferenceSnapshot();
+    batfish.computeDataPlane(parent);
+    IncrementalDataPlanePlugin plugin = (IncrementalDataPlanePlugin) batfish.getDataPlanePlugin();
+    ParentDataPlane parentDataPlane = plugin.loadParent(parent);
+
+    Map<String, Configuration> configurations = batfish.loadConfigurations(child);
+    TopologyContext topologyContext = plugin.initialTopologyContext(child, configurations);
+    Set<BgpAdvertisement> externalAdverts =
+        batfish.loadExternalBgpAnnouncements(child, configurations);
+    IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
+    IbdpResult forked =
+        engine.computeForkedDataPlane(
+            configurations, topologyContext, externalAdverts, parentDataPlane);
+    IbdpResult scratch = engine.computeDataPlane(configurations, topologyContext, externalAdverts);
+
+    assertSameDataPlane(forked._dataPlane, scratch._dataPlane);
+    assertThat(forked.getTopologyContext(), equalTo(scratch.getTopologyContext()));
+    return forked.getNodes().keySet();
+  }
+
+  private static void assertSameDataPlane(DataPlane actual, DataPlane expected) {
+    assertThat(actual.getRibs().keySet(), equalTo(expected.getRibs().keySet()));
+    expected
+        .getRibs()
+        .forEach(
+            (node, ribs) -> {
+              assertThat(actual.getRibs().get(node).keySet(), equalTo(ribs.keySet()));
+              ribs.forEach(
+                  (vrf, rib) ->
+                      assertThat(
+                          actual.getRibs().get(node).get(vrf).getTypedRoutes(),
+                          equalTo(rib.getTypedRoutes())));
+            });
+    assertThat(actual.getFibs().keySet(), equalTo(expected.getFibs().keySet()));
+    expected
+        .getFibs()
+        .forEach(
+            (node, fibs) -> {
+              assertThat(actual.getFibs().get(node).keySet(), equalTo(fibs.keySet()));
+              fibs.forEach(
+                  (vrf, fib) ->
+                      assertThat(
+                          actual.getFibs().get(node).get(vrf).allEntries(),
+                          equalTo(fib.allEntries())));
+            });
+    assertThat(actual.getBgpRoutes(), equalTo(expected.getBgpRoutes()));
+    assertThat(actual.getBgpBackupRoutes(), equalTo(expected.getBgpBackupRoutes()));
+    assertThat(actual.getEvpnRoutes(), equalTo(expected.getEvpnRoutes()));
+    assertThat(actual.getLayer2Vnis(), equalTo(expected.getLayer2Vnis()));
+    assertThat(
+        actual.getPrefixTracingInfoSummary(), equalTo(expected.getPrefixTracingInfoSummary()));
+    assertThat(
+        actual.getForwardingAnalysis().getArpReplies(),
+        equalTo(expected.getForwardingAnalysis().getArpReplies()));
+    assertThat(forwardingBehavior(actual), equalTo(forwardingBehavior(expected)));
+  }
+
+  /** Returns the forwarding behavior of each VRF in a comparable form. */
+  private static Map<String, Map<String, List<Object>>> forwardingBehavior(DataPlane dataPlane) {
+    return Maps.transformValues(
+        dataPlane.getForwardingAnalysis().getVrfForwardingBehavior(),
+        vrfs ->
+            Maps.transformValues(
+                vrfs,
+                vrf ->
+                    ImmutableList.of(
+                        vrf.getArpTrueEdge(),
+                        vrf.getNextVrfIps(),
+                        vrf.getNullRoutedIps(),
+                        vrf.getRoutableIps(),
+                        Maps.transformValues(
+                            vrf.getInterfaceForwardingBehavior(),
+                            iface ->
+                                ImmutableList.of(
+                                    iface.getAcceptedIps(),
+                                    iface.getDeliveredToSubnet(),
+                                    iface.getExitsNetwork(),
+                                    iface.getInsufficientInfo(),
+                                    iface.getNeighborUnreachable())))));
+  }
+
+  @Test
+  public void testUnchangedFork() throws IOException {
+    assertThat(computeFork(configs -> {}), empty());
+  }
+
+  @Test
+  public void testDeactivatedInterface() throws IOException {
+    assertThat(
+        computeFork(
+            configs -> configs.get("b").getAllInterfaces().get("Ethernet2").setActive(false)),
+        containsInAnyOrder("a", "b", "c"));
+  }
+
+  @Test
+  public void testDeactivatedNode() throws IOException {
+    assertThat(
+        computeFork(configs -> configs.remove("dc2lan")),
+        containsInAnyOrder("dc1", "dc1border", "dc1lan", "dc2", "dc2border"));
+  }
+
+  @Test
+  public void testMultipleChanges() throws IOException {
+    assertThat(
+        computeFork(
+            configs -> {
+              configs.remove("listener");
+              configs.get("a2").getAllInterfaces().get("GigabitEthernet1/0").setActive(false);
+            }),
+        containsInAnyOrder("advertiser", "a1", "a2", "fwl"));
+  }
+
+  @Test
+  public void testConnectedStubChange() throws IOException {
+    // stub1 is connected to r1, but they exchange no routes, so only stub1 is recomputed
+    assertThat(
+        computeFork(
+            configs -> configs.get("stub1").getAllInterfaces().get("Loopback0").setActive(false)),
+        containsInAnyOrder("stub1"));
+  }
+
+  @Test
+  public void testConnectedRouterChange() throws IOException {
+    // r2 loses its edge to stub2 and shares its OSPF routes with r1, but stub1 is reused
+    assertThat(
+        computeFork(
+            configs ->
+                configs.get("r2").getAllInterfaces().get("GigabitEthernet0/1").setActive(false)),
+        containsInAnyOrder("r1", "r2", "stub2"));
+  }
+}
@@ -42,6 +42,7 @@ import org.apache.commons.lang3.SerializationUtils;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.DataPlanePlugin;
 import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.common.topology.TopologyUtil;
 import org.batfish.datamodel.AbstractRoute;
 import org.batfish.datamodel.AnnotatedRoute;
 import org.batfish.datamodel.BgpActivePeerConfig;
@@ -53,6 +54,7 @@ import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.ConfigurationFormat;
 import org.batfish.datamodel.DataPlane;
 import org.batfish.datamodel.ExprAclLine;
+import org.batfish.datamodel.Fib;
 import org.batfish.datamodel.FlowDisposition;
 import org.batfish.datamodel.GeneratedRoute;
 import org.batfish.datamodel.GeneratedRoute.Builder;
@@ -65,6 +67,7 @@ import org.batfish.datamodel.IpProtocol;
 import org.batfish.datamodel.IsoAddress;
 import org.batfish.datamodel.NetworkFactory;
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixMultiMap;
 import org.batfish.datamodel.RoutingProtocol;
 import org.batfish.datamodel.StaticRoute;
 import org.batfish.datamodel.TcpFlagsMatchConditions;
@@ -1008,6 +1011,132 @@ public class IncrementalDataPlanePluginTest {
                 EndpointPair.ordered(bgpConfig2, bgpConfig1))));
   }
 
+  @Test
+  public void testCompactRibTrie() throws IOException {
+    SortedMap<String, Configuration> configurations =
+        BatfishTestUtils.parseTextConfigs(
+            _folder,
+            "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc1.cfg",
+            "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc1border.cfg",
+            "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc1lan.cfg",
+            "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc2.cfg",
+            "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc2border.cfg",
+            "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc2lan.cfg");
+    TopologyContext topologyContext =
+        TopologyContext.builder()
+            .setLayer3Topology(TopologyUtil.synthesizeL3Topology(configurations))
+            .build();
+    IncrementalDataPlaneSettings compactSettings = new IncrementalDataPlaneSettings();
+    compactSettings
+        .getConfig()
+        .setProperty(
+            IncrementalDataPlaneSettings.PROP_RIB_TRIE,
+            PrefixMultiMap.Implementation.COMPACT.toString());
+
+    DataPlane node =
+        new IncrementalBdpEngine(new IncrementalDataPlaneSettings())
+            .computeDataPlane(configurations, topologyContext, Collections.emptySet())
+            ._dataPlane;
+    DataPlane compact =
+        new IncrementalBdpEngine(compactSettings)
+            .computeDataPlane(configurations, topologyContext, Collections.emptySet())
+            ._dataPlane;
+
+    node.getRibs()
+        .forEach(
+            (hostname, ribs) ->
+                ribs.forEach(
+                    (vrf, rib) -> {
+                      assertThat(
+                          compact.getRibs().get(hostname).get(vrf).getTypedRoutes(),
+                          equalTo(rib.getTypedRoutes()));
+                      Fib fib = node.getFibs().get(hostname).get(vrf);
+                      Fib compactFib = compact.getFibs().get(hostname).get(vrf);
+                      assertThat(compactFib.allEntries(), equalTo(fib.allEntries()));
+                      assertThat(compactFib.getMatchingIps(), equalTo(fib.getMatchingIps()));
+                    }));
+  }
+
+  /**
+   * Compute the data plane of the given configuration files with both the default and the
+   * event-driven EGP computation, and assert that they give the same main RIBs.
+   */
+  private void assertEventDrivenEgpMatchesDefault(String... configurationFiles) throws IOException {
+    SortedMap<String, Configuration> configurations =
+        BatfishTestUtils.parseTextConfigs(_folder, configurationFiles);
+    TopologyContext topologyContext =
+        TopologyContext.builder()
+            .setLayer3Topology(TopologyUtil.synthesizeL3Topology(configurations))
+            .build();
+    IncrementalDataPlaneSettings eventDrivenSettings = new IncrementalDataPlaneSettings();
+    eventDrivenSettings
+        .getConfig()
+        .setProperty(IncrementalDataPlaneSettings.PROP_EVENT_DRIVEN_EGP, true);
+
+    DataPlane global =
+        new IncrementalBdpEngine(new IncrementalDataPlaneSettings())
+            .computeDataPlane(configurations, topologyContext, Collections.emptySet())
+            ._dataPlane;
+    DataPlane eventDriven =
+        new IncrementalBdpEngine(eventDrivenSettings)
+            .computeDataPlane(configurations, topologyContext, Collections.emptySet())
+            ._dataPlane;
+
+    global
+        .getRibs()
+        .forEach(
+            (hostname, ribs) ->
+                ribs.forEach(
+                    (vrf, rib) ->
+                        assertThat(
+                            eventDriven.getRibs().get(hostname).get(vrf).getTypedRoutes(),
+                            equalTo(rib.getTypedRoutes()))));
+  }
+
+  @Test
+  public void testEventDrivenEgp() throws IOException {
+    assertEventDrivenEgpMatchesDefault(
+        "org/batfish/dataplane/ibdp/evpn-nxos-symmetric/configs/exitgw",
+        "org/batfish/dataplane/ibdp/evpn-nxos-symmetric/configs/leaf1",
+        "org/batfish/dataplane/ibdp/evpn-nxos-symmetric/configs/spine");
+    assertEventDrivenEgpMatchesDefault(
+        "org/batfish/dataplane/ibdp/bgp-topology-change/configs/a",
+        "org/batfish/dataplane/ibdp/bgp-topology-change/configs/b",
+        "org/batfish/dataplane/ibdp/bgp-topology-change/configs/c");
+    assertEventDrivenEgpMatchesDefault(
+        TESTRIGS_PREFIX + "ibgp-dynamic-local-ips/configs/r1",
+        TESTRIGS_PREFIX + "ibgp-dynamic-local-ips/configs/r2",
+        TESTRIGS_PREFIX + "ibgp-dynamic-local-ips/configs/r3");
+    assertEventDrivenEgpMatchesDefault(
+        "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc1.cfg",
+        "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc1border.cfg",
+        "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc1lan.cfg",
+        "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc2.cfg",
+        "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc2border.cfg",
+        "org/batfish/dataplane/ibdp/ios-eigrp/configs/dc2lan.cfg");
+  }
+
+  @Test
+  public void testEventDrivenEgpBgpOscillation() throws IOException {
+    SortedMap<String, Configuration> configurations =
+        BatfishTestUtils.parseTextConfigs(
+            _folder,
+            TESTRIGS_PREFIX + "bgp-oscillation/configs/r1",
+            TESTRIGS_PREFIX + "bgp-oscillation/configs/r2",
+            TESTRIGS_PREFIX + "bgp-oscillation/configs/r3");
+    IncrementalDataPlaneSettings settings = new IncrementalDataPlaneSettings();
+    settings.getConfig().setProperty(IncrementalDataPlaneSettings.PROP_EVENT_DRIVEN_EGP, true);
+
+    // Really just test that no exception is thrown, as for the default computation
+    new IncrementalBdpEngine(settings)
+        .computeDataPlane(
+            configurations,
+            TopologyContext.builder()
+                .setLayer3Topology(TopologyUtil.synthesizeL3Topology(configurations))
+                .build(),
+            Collections.emptySet());
+  }
+
   @Test
   public void testGetForwardingAnalysisDeserialized() throws IOException {
     String hostname = "n1";
@@ -169,14 +169,13 @@ public class IsisTest {
         ImmutableSortedMap.of(r1.getHostname(), r1, r2.getHostname(), r2);
     IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
-    return (IbdpResult)
-        engine.computeDataPlane(
-            configurations,
-            TopologyContext.builder()
-                .setLayer3Topology(topology)
-                .setIsisTopology(IsisTopology.initIsisTopology(configurations, topology))
-                .build(),
-            Collections.emptySet());
+    return engine.computeDataPlane(
+        configurations,
+        TopologyContext.builder()
+            .setLayer3Topology(topology)
+            .setIsisTopology(IsisTopology.initIsisTopology(configurations, topology))
+            .build(),
+        Collections.emptySet());
   }
 
   @Test
@@ -453,14 +452,13 @@ public class IsisTest {
             r5);
     IncrementalBdpEngine engine = new IncrementalBdpEngine(new IncrementalDataPlaneSettings());
     Topology topology = TopologyUtil.synthesizeL3Topology(configurations);
-    return (IbdpResult)
-        engine.computeDataPlane(
-            configurations,
-            TopologyContext.builder()
-                .setLayer3Topology(topology)
-                .setIsisTopology(IsisTopology.initIsisTopology(configurations, topology))
-                .build(),
-            Collections.emptySet());
+    return engine.computeDataPlane(
+        configurations,
+        TopologyContext.builder()
+            .setLayer3Topology(topology)
+            .setIsisTopology(IsisTopology.initIsisTopology(configurations, topology))
+            .build(),
+        Collections.emptySet());
   }
 
   @Test
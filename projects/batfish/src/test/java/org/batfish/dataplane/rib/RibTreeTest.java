@@ -4,6 +4,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 
 import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixMultiMap;
 import org.batfish.datamodel.StaticRoute;
 import org.batfish.datamodel.route.nh.NextHopDiscard;
 import org.batfish.dataplane.rib.RouteAdvertisement.Reason;
@@ -28,19 +29,21 @@ public final class RibTreeTest {
             return rhs.getAdministrativeCost() - lhs.getAdministrativeCost();
           }
         };
-    RibTree<StaticRoute> ribTree = new RibTree<>(owner);
-    RibDelta<StaticRoute> addR1 = ribTree.mergeRoute(r1);
-    assertThat(addR1, equalTo(RibDelta.adding(r1)));
-    RibDelta<StaticRoute> addR2 = ribTree.mergeRoute(r2);
-    assertThat(addR2, equalTo(RibDelta.adding(r2)));
-    RibDelta<StaticRoute> addR3 = ribTree.mergeRoute(r3);
-    assertThat(
-        addR3,
-        equalTo(
-            RibDelta.builder()
-                .remove(r1, Reason.REPLACE)
-                .remove(r2, Reason.REPLACE)
-                .add(r3)
-                .build()));
+    for (PrefixMultiMap.Implementation implementation : PrefixMultiMap.Implementation.values()) {
+      RibTree<StaticRoute> ribTree = new RibTree<>(owner, implementation);
+      RibDelta<StaticRoute> addR1 = ribTree.mergeRoute(r1);
+      assertThat(addR1, equalTo(RibDelta.adding(r1)));
+      RibDelta<StaticRoute> addR2 = ribTree.mergeRoute(r2);
+      assertThat(addR2, equalTo(RibDelta.adding(r2)));
+      RibDelta<StaticRoute> addR3 = ribTree.mergeRoute(r3);
+      assertThat(
+          addR3,
+          equalTo(
+              RibDelta.builder()
+                  .remove(r1, Reason.REPLACE)
+                  .remove(r2, Reason.REPLACE)
+                  .add(r3)
+                  .build()));
+    }
   }
 }
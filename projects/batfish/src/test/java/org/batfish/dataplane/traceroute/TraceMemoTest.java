@@ -0,0 +1,177 @@
+package org.batfish.dataplane.traceroute;
+
+import static org.batfish.datamodel.ExprAclLine.accepting;
+import static org.batfish.datamodel.ExprAclLine.rejecting;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.match;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchDst;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.matchSrcInterface;
+import static org.batfish.datamodel.acl.AclLineMatchExprs.permittedByAcl;
+import static org.batfish.datamodel.transformation.TransformationStep.assignDestinationPort;
+import static org.batfish.datamodel.transformation.TransformationStep.assignSourceIp;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.batfish.datamodel.AclAclLine;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.HeaderSpace;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpAccessList;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.LineAction;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.SubRange;
+import org.batfish.datamodel.transformation.Transformation;
+import org.batfish.datamodel.transformation.TransformationEvaluator;
+import org.batfish.datamodel.transformation.TransformationEvaluator.TransformationResult;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Tests of {@link TraceMemo}. */
+public final class TraceMemoTest {
+
+  private Configuration _c;
+  private IpAccessList _dstAcl;
+  private IpAccessList _referencingAcl;
+
+  @Before
+  public void setup() {
+    _c =
+        new NetworkFactory()
+            .configurationBuilder()
+            .setHostname("c")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    _dstAcl =
+        IpAccessList.builder()
+            .setOwner(_c)
+            .setName("dst")
+            .setLines(
+                rejecting(matchDst(Prefix.parse("10.0.0.1/32"))),
+                accepting(matchDst(Prefix.parse("10.0.0.0/24"))))
+            .build();
+    _referencingAcl =
+        IpAccessList.builder()
+            .setOwner(_c)
+            .setName("referencing")
+            .setLines(
+                rejecting(
+                    match(
+                        HeaderSpace.builder()
+                            .setSrcPorts(ImmutableList.of(new SubRange(22, 22)))
+                            .build())),
+                new AclAclLine("nested", "dst"))
+            .build();
+  }
+
+  private static Flow flow(String dstIp, int srcPort) {
+    return Flow.builder()
+        .setIngressNode("c")
+        .setSrcIp(Ip.parse("1.1.1.1"))
+        .setDstIp(Ip.parse(dstIp))
+        .setIpProtocol(IpProtocol.TCP)
+        .setSrcPort(srcPort)
+        .setDstPort(80)
+        .build();
+  }
+
+  @Test
+  public void testReferencedFields() {
+    assertThat(
+        TraceMemo.referencedFields(_c.getIpAccessLists(), _dstAcl), contains(FlowField.DST_IP));
+    assertThat(
+        TraceMemo.referencedFields(_c.getIpAccessLists(), _referencingAcl),
+        contains(FlowField.DST_IP, FlowField.SRC_PORT));
+    assertThat(
+        TraceMemo.referencedFields(
+            _c.getIpAccessLists(),
+            Transformation.when(permittedByAcl("dst"))
+                .apply(assignSourceIp(Ip.parse("2.2.2.2")))
+                .setOrElse(
+                    Transformation.when(matchSrcInterface("i1"))
+                        .apply(assignDestinationPort(8080))
+                        .build())
+                .build()),
+        contains(FlowField.DST_IP, FlowField.DST_PORT, FlowField.IP_PROTOCOL, FlowField.SRC_IP));
+  }
+
+  @Test
+  public void testReferencedFieldsUndefinedReference() {
+    IpAccessList acl =
+        IpAccessList.builder()
+            .setName("acl")
+            .setLines(accepting(permittedByAcl("undefined")))
+            .build();
+    assertThat(
+        TraceMemo.referencedFields(ImmutableMap.of(), acl).size(),
+        equalTo(FlowField.values().length));
+  }
+
+  @Test
+  public void testFilter() {
+    TraceMemo memo = new TraceMemo();
+    for (String dstIp : ImmutableList.of("10.0.0.1", "10.0.0.2", "10.0.1.1")) {
+      for (int srcPort : ImmutableList.of(22, 1024, 1025)) {
+        for (IpAccessList acl : ImmutableList.of(_dstAcl, _referencingAcl)) {
+          Flow flow = flow(dstIp, srcPort);
+          LineAction expected =
+              acl.filter(flow, null, _c.getIpAccessLists(), _c.getIpSpaces()).getAction();
+          assertThat(memo.filter(_c, acl, flow, null), equalTo(expected));
+        }
+      }
+    }
+    // dst only inspects the destination IP, so flows differing in source port share its results.
+    // referencing also inspects the source port, so every flow misses.
+    assertThat(
+        memo.getCounters(),
+        equalTo(
+            ImmutableMap.of(
+                TraceMemo.COUNTER_HITS,
+                6L,
+                TraceMemo.COUNTER_MISSES,
+                12L,
+                TraceMemo.COUNTER_EVICTIONS,
+                0L)));
+  }
+
+  @Test
+  public void testTransform() {
+    Transformation transformation =
+        Transformation.when(permittedByAcl("dst"))
+            .apply(assignSourceIp(Ip.parse("2.2.2.2")))
+            .build();
+    TraceMemo memo = new TraceMemo();
+    Flow flow1 = flow("10.0.0.2", 1024);
+    Flow flow2 = flow("10.0.0.2", 1025);
+
+    TransformationResult result1 = memo.transform(_c, transformation, flow1, null);
+    TransformationResult result2 = memo.transform(_c, transformation, flow2, null);
+    for (Flow flow : ImmutableList.of(flow1, flow2)) {
+      TransformationResult expected =
+          TransformationEvaluator.eval(
+              transformation, flow, null, _c.getIpAccessLists(), _c.getIpSpaces());
+      TransformationResult actual = flow == flow1 ? result1 : result2;
+      assertThat(actual.getOutputFlow(), equalTo(expected.getOutputFlow()));
+      assertThat(actual.getTraceSteps(), equalTo(expected.getTraceSteps()));
+    }
+    assertThat(memo.getCounters().get(TraceMemo.COUNTER_HITS), equalTo(1L));
+  }
+
+  @Test
+  public void testTransformUnchanged() {
+    Transformation transformation =
+        Transformation.when(permittedByAcl("dst"))
+            .apply(assignSourceIp(Ip.parse("2.2.2.2")))
+            .build();
+    TraceMemo memo = new TraceMemo();
+    memo.transform(_c, transformation, flow("10.0.0.1", 1024), null);
+    Flow flow = flow("10.0.0.1", 1025);
+    assertThat(memo.transform(_c, transformation, flow, null).getOutputFlow(), sameInstance(flow));
+  }
+}
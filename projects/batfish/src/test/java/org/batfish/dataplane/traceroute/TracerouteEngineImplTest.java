@@ -65,7 +65,6 @@ import static org.junit.Assert.assertTrue;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
@@ -525,8 +524,14 @@ public class TracerouteEngineImplTest {
     String prefix = "1.2.3.4/24";
     String filterName = "preSourceFilter";
 
+    Configuration c =
+        new NetworkFactory()
+            .configurationBuilder()
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
     IpAccessList filter =
         IpAccessList.builder()
+            .setOwner(c)
             .setName(filterName)
             .setLines(
                 ImmutableList.of(
@@ -544,13 +549,7 @@ public class TracerouteEngineImplTest {
 
     FilterStep step =
         TracerouteUtils.createFilterStep(
-            flow,
-            iface1,
-            filter,
-            FilterType.INGRESS_FILTER,
-            ImmutableMap.of(filterName, filter),
-            ImmutableMap.of(),
-            false);
+            flow, iface1, filter, FilterType.INGRESS_FILTER, c, new TraceMemo(), false);
 
     assertThat(step.getAction(), equalTo(StepAction.PERMITTED));
 
@@ -559,13 +558,7 @@ public class TracerouteEngineImplTest {
 
     step =
         TracerouteUtils.createFilterStep(
-            flow,
-            iface2,
-            filter,
-            FilterType.INGRESS_FILTER,
-            ImmutableMap.of(filterName, filter),
-            ImmutableMap.of(),
-            false);
+            flow, iface2, filter, FilterType.INGRESS_FILTER, c, new TraceMemo(), false);
 
     assertThat(step.getAction(), equalTo(StepAction.DENIED));
 
@@ -22,6 +22,8 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 
@@ -45,6 +47,7 @@ import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import org.apache.commons.io.IOUtils;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.common.Answerer;
 import org.batfish.common.BatfishException;
 import org.batfish.common.NetworkSnapshot;
@@ -129,6 +132,30 @@ public class BatfishTest {
         answer.getAnswerElements().get(0).toString(), containsString("Could not parse question"));
   }
 
+  @Test
+  public void testBddReachabilityAnalysisFactoryCached() throws IOException {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration c1 =
+        nf.configurationBuilder()
+            .setHostname("c1")
+            .setConfigurationFormat(ConfigurationFormat.CISCO_IOS)
+            .build();
+    nf.vrfBuilder().setOwner(c1).setName(Configuration.DEFAULT_VRF_NAME).build();
+    Batfish batfish = BatfishTestUtils.getBatfish(ImmutableSortedMap.of("c1", c1), _folder);
+    NetworkSnapshot snapshot = batfish.getSnapshot();
+    batfish.computeDataPlane(snapshot);
+
+    BDDReachabilityAnalysisFactory factory =
+        batfish.getCachedBddReachabilityAnalysisFactory(snapshot, false);
+
+    assertSame(factory, batfish.getCachedBddReachabilityAnalysisFactory(snapshot, false));
+    assertNotSame(factory, batfish.getCachedBddReachabilityAnalysisFactory(snapshot, true));
+
+    // recomputing the data plane invalidates the cached factory
+    batfish.computeDataPlane(snapshot);
+    assertNotSame(factory, batfish.getCachedBddReachabilityAnalysisFactory(snapshot, false));
+  }
+
   @Test
   public void testOverlayIptables() throws IOException {
     SortedMap<String, byte[]> configurationsBytes = new TreeMap<>();
@@ -22,6 +22,7 @@ import java.util.TreeMap;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.collections4.map.LRUMap;
+import org.batfish.bddreachability.BDDReachabilityAnalysisFactory;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
 import org.batfish.common.NetworkSnapshot;
@@ -58,6 +59,11 @@ public class BatfishTestUtils {
     }
   }
 
+  private static Cache<BddReachabilityCacheKey, BDDReachabilityAnalysisFactory>
+      makeBddReachabilityAnalysisFactoryCache() {
+    return CacheBuilder.newBuilder().softValues().maximumSize(4).build();
+  }
+
   private static Cache<NetworkSnapshot, SortedMap<String, Configuration>> makeTestrigCache() {
     return CacheBuilder.newBuilder().softValues().maximumSize(5).build();
   }
@@ -92,6 +98,7 @@ public class BatfishTestUtils {
     Batfish batfish =
         new Batfish(
             settings,
+            makeBddReachabilityAnalysisFactoryCache(),
             testrigs,
             makeDataPlaneCache(),
             makeEnvBgpCache(),
@@ -126,6 +133,7 @@ public class BatfishTestUtils {
     Batfish batfish =
         new Batfish(
             settings,
+            makeBddReachabilityAnalysisFactoryCache(),
             testrigs,
             makeDataPlaneCache(),
             makeEnvBgpCache(),
@@ -189,6 +197,7 @@ public class BatfishTestUtils {
     Batfish batfish =
         new Batfish(
             settings,
+            makeBddReachabilityAnalysisFactoryCache(),
             makeTestrigCache(),
             makeDataPlaneCache(),
             makeEnvBgpCache(),
@@ -278,6 +287,7 @@ public class BatfishTestUtils {
     Batfish batfish =
         new Batfish(
             settings,
+            makeBddReachabilityAnalysisFactoryCache(),
             makeTestrigCache(),
             makeDataPlaneCache(),
             makeEnvBgpCache(),
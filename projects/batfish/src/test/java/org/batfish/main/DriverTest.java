@@ -0,0 +1,73 @@
+package org.batfish.main;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.io.ByteStreams;
+import com.sun.net.httpserver.HttpServer;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicReference;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.BfConsts.TaskStatus;
+import org.batfish.common.CoordConsts;
+import org.batfish.common.Task;
+import org.batfish.common.util.BatfishObjectMapper;
+import org.batfish.config.Settings;
+import org.junit.Test;
+
+/** Tests of {@link Driver}. */
+public final class DriverTest {
+
+  @Test
+  public void testNotifyCoordinatorOfTaskUpdate() throws Exception {
+    AtomicReference<String> method = new AtomicReference<>();
+    AtomicReference<String> query = new AtomicReference<>();
+    AtomicReference<String> body = new AtomicReference<>();
+    HttpServer coordinator =
+        HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    coordinator.createContext(
+        CoordConsts.SVC_CFG_POOL_MGR + "/" + CoordConsts.SVC_RSC_POOL_TASK_UPDATE,
+        exchange -> {
+          method.set(exchange.getRequestMethod());
+          query.set(exchange.getRequestURI().getQuery());
+          body.set(new String(ByteStreams.toByteArray(exchange.getRequestBody()), UTF_8));
+          byte[] response =
+              String.format("[\"%s\",\"processed\"]", CoordConsts.SVC_KEY_SUCCESS).getBytes(UTF_8);
+          exchange.sendResponseHeaders(200, response.length);
+          try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+          }
+        });
+    coordinator.start();
+    try {
+      Settings settings =
+          new Settings(
+              new String[] {
+                "-coordinatorhost",
+                coordinator.getAddress().getHostString(),
+                "-coordinatorpoolport",
+                Integer.toString(coordinator.getAddress().getPort())
+              });
+      Driver.notifyCoordinatorOfTaskUpdate(
+          "worker:9999",
+          "workid",
+          new Task(TaskStatus.TerminatedNormally),
+          settings,
+          new BatfishLogger("debug", false));
+    } finally {
+      coordinator.stop(0);
+    }
+
+    // The task goes in the body, not in the query
+    assertThat(method.get(), equalTo("POST"));
+    assertThat(query.get(), containsString(CoordConsts.SVC_KEY_WORKER + "=worker:9999"));
+    assertThat(query.get(), containsString(CoordConsts.SVC_KEY_WORKID + "=workid"));
+    assertThat(
+        BatfishObjectMapper.mapper().readValue(body.get(), Task.class).getStatus(),
+        equalTo(TaskStatus.TerminatedNormally));
+  }
+}
@@ -0,0 +1,162 @@
+package org.batfish.main;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasKey;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.BatfishLogger.BatfishLoggerHistory;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.common.ParseTreeSentences;
+import org.batfish.common.Warnings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.answers.ParseStatus;
+import org.batfish.datamodel.answers.ParseVendorConfigurationAnswerElement;
+import org.batfish.grammar.silent_syntax.SilentSyntaxCollection;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.job.ParseVendorConfigurationResult;
+import org.batfish.representation.cisco.CiscoConfiguration;
+import org.batfish.storage.FileBasedStorage;
+import org.batfish.storage.StorageProvider;
+import org.batfish.vendor.VendorConfiguration;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests of {@link StreamingVendorConfigurationStore}. */
+public final class StreamingVendorConfigurationStoreTest {
+
+  @Rule public TemporaryFolder _folder = new TemporaryFolder();
+
+  private ParseVendorConfigurationAnswerElement _answerElement;
+  private Multimap<String, String> _duplicateHostnames;
+  private BatfishLogger _logger;
+  private NetworkSnapshot _snapshot;
+  private StorageProvider _storage;
+  private StreamingVendorConfigurationStore _store;
+
+  @Before
+  public void setup() throws IOException {
+    _answerElement = new ParseVendorConfigurationAnswerElement();
+    _duplicateHostnames = HashMultimap.create();
+    _logger = new BatfishLogger(BatfishLogger.LEVELSTR_OUTPUT, false);
+    _snapshot = new NetworkSnapshot(new NetworkId("network"), new SnapshotId("snapshot"));
+    _storage = new FileBasedStorage(_folder.newFolder().toPath(), _logger);
+    _store = new StreamingVendorConfigurationStore(_storage, _snapshot, _logger, _answerElement);
+  }
+
+  private ParseVendorConfigurationResult result(String filename, String hostname) {
+    VendorConfiguration vc = new CiscoConfiguration();
+    vc.setFilename(filename);
+    vc.setHostname(hostname);
+    return new ParseVendorConfigurationResult(
+        0,
+        new BatfishLoggerHistory(),
+        filename,
+        ConfigurationFormat.CISCO_IOS,
+        vc,
+        new Warnings(),
+        new ParseTreeSentences(),
+        ParseStatus.PASSED,
+        _duplicateHostnames,
+        new SilentSyntaxCollection());
+  }
+
+  @Test
+  public void testAccept() throws IOException {
+    _store.accept(result("configs/a.cfg", "a"));
+    _store.finish();
+
+    Map<String, VendorConfiguration> stored = _storage.loadVendorConfigurations(_snapshot);
+    assertThat(stored.keySet(), contains("a"));
+    assertThat(stored.get("a").getFilename(), equalTo("configs/a.cfg"));
+    assertTrue(_answerElement.getFileMap().containsKey("a"));
+    assertThat(_store.getFailureCauses(), empty());
+  }
+
+  @Test
+  public void testAcceptDuplicateHostname() throws IOException {
+    _store.accept(result("configs/first.cfg", "dup"));
+    _store.accept(result("configs/second.cfg", "dup"));
+    _store.accept(result("configs/third.cfg", "dup"));
+    _store.finish();
+
+    // The configuration stored first is loaded back and renamed, and later ones are renamed too.
+    Map<String, VendorConfiguration> stored = _storage.loadVendorConfigurations(_snapshot);
+    assertThat(
+        stored.keySet(),
+        containsInAnyOrder(
+            "dup__configs__first.cfg", "dup__configs__second.cfg", "dup__configs__third.cfg"));
+    stored.forEach((name, vc) -> assertThat(vc.getHostname(), equalTo(name)));
+    assertThat(
+        _answerElement.getFileMap().values(),
+        containsInAnyOrder("configs/first.cfg", "configs/second.cfg", "configs/third.cfg"));
+  }
+
+  @Test
+  public void testAcceptDuplicateHostnameConcurrently() throws Exception {
+    int numResults = 16;
+    ExecutorService executor = Executors.newFixedThreadPool(numResults);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < numResults; i++) {
+        ParseVendorConfigurationResult result = result("configs/" + i + ".cfg", "dup");
+        futures.add(
+            executor.submit(
+                () -> {
+                  _store.accept(result);
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    _store.finish();
+
+    // Every configuration is stored exactly once, under its own new name.
+    Map<String, VendorConfiguration> stored = _storage.loadVendorConfigurations(_snapshot);
+    assertThat(stored.keySet(), containsInAnyOrder(_duplicateHostnames.get("dup").toArray()));
+    assertThat(stored.size(), equalTo(numResults));
+    stored.forEach((name, vc) -> assertThat(vc.getHostname(), equalTo(name)));
+  }
+
+  @Test
+  public void testAcceptInvalidHostname() throws IOException {
+    String badHostname = "configs" + File.separator + "iptables-save";
+    _store.accept(result("configs/iptables-save", badHostname));
+    _store.accept(result("configs/a.cfg", "a"));
+    _store.finish();
+
+    assertThat(_storage.loadVendorConfigurations(_snapshot).keySet(), contains("a"));
+    assertTrue(_answerElement.getFileMap().containsKey(badHostname));
+    assertThat(_answerElement.getWarnings(), hasKey(badHostname));
+    assertThat(
+        _answerElement
+            .getWarnings()
+            .get(badHostname)
+            .getRedFlagWarnings()
+            .iterator()
+            .next()
+            .getText(),
+        equalTo("Cannot serialize network config. Bad hostname configs/iptables-save"));
+  }
+}
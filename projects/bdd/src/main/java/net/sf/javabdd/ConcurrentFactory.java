@@ -0,0 +1,3056 @@
+/*
+ * Note: We obtained permission from the author of Javabdd, John Whaley, to use
+ * the library with Batfish under the MIT license. The email exchange is included
+ * in LICENSE.email file.
+ *
+ * MIT License
+ *
+ * Copyright (c) 2013-2017 John Whaley
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ *
+ */
+package net.sf.javabdd;
+
+import java.lang.ref.WeakReference;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntConsumer;
+
+/**
+ * A thread-safe BDD factory. Unlike {@link JFactory}, any number of threads may operate on the BDDs
+ * of a single {@link ConcurrentFactory} at the same time, and operations on independent BDDs scale
+ * with the number of cores.
+ *
+ * <p>The algorithms are those of {@link JFactory}, restructured around shared, mostly lock-free
+ * state:
+ *
+ * <ul>
+ *   <li>The unique table is an open-addressing hash table updated with compare-and-swap. Nodes are
+ *       immutable once published, so a thread that loses a race to insert a node simply recycles
+ *       its copy and uses the winner's.
+ *   <li>Free nodes are handed out to each thread in chunks, so allocation needs no synchronization
+ *       beyond an occasional atomic increment.
+ *   <li>The operation caches are lossy: each slot holds an immutable entry that is replaced
+ *       wholesale, so concurrent writers can overwrite each other but readers never observe a torn
+ *       entry.
+ *   <li>Reference counts are atomic.
+ * </ul>
+ *
+ * <p>Garbage collection, node table growth, variable creation, and reordering need exclusive access
+ * to the node table. They run in a "stop the world" section, which waits until no other thread is
+ * inside an operation. An operation that runs out of free nodes abandons its partial result,
+ * triggers a collection (growing the table if needed), and restarts from scratch.
+ *
+ * <p>Each {@link BDD} handle is still meant to be used by one thread at a time: methods that modify
+ * a handle in place (like {@link BDD#andWith} or {@link BDD#free}) must not race with other uses of
+ * the same handle. Distinct handles, even to the same function, may be used freely from different
+ * threads.
+ */
+public final class ConcurrentFactory extends BDDFactory {
+
+  public static BDDFactory init(int nodenum, int cachesize) {
+    ConcurrentFactory f = new ConcurrentFactory();
+    f.initialize(nodenum, cachesize);
+    return f;
+  }
+
+  private ConcurrentFactory() {}
+
+  //// Constants
+
+  private static final String VERSION = "ConcurrentFactory 1.0";
+
+  private static final int BDDZERO = 0;
+  private static final int BDDONE = 1;
+  private static final int INVALID_BDD = -1;
+
+  /** Each node takes three ints of {@link #_nodes}: level, low, and high. */
+  private static final int NODE_SIZE = 3;
+
+  private static final int MAXVAR = 0x1FFFFF;
+
+  /** Keep the unique table (twice the node capacity) addressable by an int. */
+  private static final int MAX_CAPACITY = 1 << 29;
+
+  private static final int MIN_CAPACITY = 16;
+  private static final int MIN_CACHE_SIZE = 16;
+
+  /** Number of free nodes a thread claims from the global free list at a time. */
+  private static final int ALLOCATION_CHUNK = 128;
+
+  private static final int DEFAULT_MAX_NODE_INCREASE = 10000000;
+  private static final int DEFAULT_MIN_FREE_NODES = 20;
+
+  // Binary operators, numbered as in BDDFactory.BDDOp.
+  private static final int OP_AND = 0;
+  private static final int OP_XOR = 1;
+  private static final int OP_OR = 2;
+  private static final int OP_NAND = 3;
+  private static final int OP_NOR = 4;
+  private static final int OP_IMP = 5;
+  private static final int OP_BIIMP = 6;
+  private static final int OP_DIFF = 7;
+  private static final int OP_LESS = 8;
+  private static final int OP_INVIMP = 9;
+
+  // Other operations, used as cache keys.
+  private static final int OP_NOT = 10;
+  private static final int OP_ITE = 11;
+  private static final int OP_ANDSAT = 12;
+  private static final int OP_DIFFSAT = 13;
+  private static final int OP_SIMPLIFY = 14;
+  private static final int OP_CONSTRAIN = 15;
+  private static final int OP_RESTRICT = 16;
+  private static final int OP_COMPOSE = 17;
+  private static final int OP_VECCOMPOSE = 18;
+  private static final int OP_REPLACE = 19;
+  private static final int OP_CORRECTIFY = 20;
+
+  // Quantifier kinds.
+  private static final int QUANT_EXIST = 0;
+  private static final int QUANT_FORALL = 1;
+  private static final int QUANT_UNIQUE = 2;
+  private static final int QUANT_PROJECT = 3;
+
+  // Count cache kinds.
+  private static final int COUNT_SAT = 0;
+  private static final int COUNT_PATH = 1;
+
+  /** The result of each binary operator on constant operands, indexed by (l << 1 | r). */
+  private static final int[][] OPRRES = {
+    {0, 0, 0, 1}, // and
+    {0, 1, 1, 0}, // xor
+    {0, 1, 1, 1}, // or
+    {1, 1, 1, 0}, // nand
+    {1, 0, 0, 0}, // nor
+    {1, 1, 0, 1}, // imp
+    {1, 0, 0, 1}, // biimp
+    {0, 0, 1, 0}, // diff
+    {0, 1, 0, 0}, // less
+    {1, 0, 1, 1}, // invimp
+  };
+
+  //// Node table. Only modified in place while the world is stopped, except for publishing newly
+  //// allocated nodes.
+
+  private volatile boolean _running;
+  private int[] _nodes;
+  private AtomicIntegerArray _refs;
+  private int _nodeCapacity;
+
+  /** Open-addressing unique table of node indices. 0 marks an empty slot. */
+  private AtomicIntegerArray _unique;
+
+  private int _uniqueMask;
+
+  /**
+   * Number of unique table entries that no longer hash to the slot they were inserted at (because
+   * their node was rewritten during reordering). They are harmless, but take up space until the
+   * table is rebuilt.
+   */
+  private int _staleUniqueEntries;
+
+  /** Free node indices, claimed by threads in chunks starting from {@link #_freeCursor}. */
+  private int[] _freeList;
+
+  private int _freeCount;
+  private final AtomicInteger _freeCursor = new AtomicInteger();
+
+  /**
+   * Incremented whenever the free list is rebuilt, invalidating the nodes threads have claimed but
+   * not yet used.
+   */
+  private volatile int _epoch;
+
+  //// Variables
+
+  private int _varNum;
+  private int[] _var2level;
+  private int[] _level2var;
+
+  /** The nodes for ithVar(v) and nithVar(v) are at indices 2v and 2v+1. */
+  private int[] _varNodes;
+
+  /** Incremented whenever the variable order or number of variables changes. */
+  private volatile int _orderVersion;
+
+  //// Configuration
+
+  private int _maxNodeSize;
+  private int _maxNodeIncrease = DEFAULT_MAX_NODE_INCREASE;
+  private int _minFreeNodes = DEFAULT_MIN_FREE_NODES;
+  private double _increaseFactor;
+  private int _cacheRatio;
+  private int _cacheSize;
+  private volatile int _errorCondition;
+
+  //// Caches
+
+  private volatile OpCache _applyCache;
+  private volatile OpCache _quantCache;
+  private volatile OpCache _appexCache;
+  private volatile OpCache _replaceCache;
+  private volatile OpCache _miscCache;
+  private volatile MultiOpCache _multiOpCache;
+  private volatile CountCache _countCache;
+
+  //// Threads
+
+  private final ReentrantLock _stopLock = new ReentrantLock();
+  private final Object _resumeMonitor = new Object();
+  private final Set<Worker> _workers = ConcurrentHashMap.newKeySet();
+  private final ThreadLocal<Worker> _worker = ThreadLocal.withInitial(this::registerWorker);
+  private volatile boolean _stopRequested;
+  private volatile Thread _stopper;
+
+  private final AtomicInteger _pairIds = new AtomicInteger();
+
+  /**
+   * Per-thread state. Fields other than {@link #_active} are only accessed by the owning thread.
+   */
+  private static final class Worker {
+    private final WeakReference<Thread> _thread = new WeakReference<>(Thread.currentThread());
+
+    /** Whether the thread is inside an operation, and thus may read or write the node table. */
+    private volatile boolean _active;
+
+    /** Nesting depth of operations (e.g., an operation that frees a BDD). */
+    private int _depth;
+
+    /** The value of {@link #_epoch} when this thread claimed its current chunk of free nodes. */
+    private int _epoch = -1;
+
+    /** The unused part of this thread's chunk of the free list. */
+    private int _chunkNext;
+
+    private int _chunkEnd;
+
+    /** Nodes this thread allocated but did not publish, which it may reuse. */
+    private int[] _spares = new int[16];
+
+    private int _spareCount;
+
+    /** Marks the levels of the current variable set: {@code _varset[level] == ±_varsetId}. */
+    private int[] _varset = new int[0];
+
+    private int _varsetId;
+
+    /** The deepest level in the current variable set. */
+    private int _quantLast;
+
+    private void resetAllocation(int epoch) {
+      _epoch = epoch;
+      _chunkNext = 0;
+      _chunkEnd = 0;
+      _spareCount = 0;
+    }
+  }
+
+  /** An operation that computes a node. */
+  @FunctionalInterface
+  private interface NodeOperation {
+    int apply(Worker w);
+  }
+
+  /** Signals that a thread found no free nodes. Thrown without a stack trace. */
+  private static final class OutOfNodesException extends RuntimeException {
+    private static final OutOfNodesException INSTANCE = new OutOfNodesException();
+
+    private OutOfNodesException() {
+      super(null, null, false, false);
+    }
+  }
+
+  //// Stopping the world
+
+  private Worker registerWorker() {
+    Worker w = new Worker();
+    _stopLock.lock();
+    try {
+      _workers.add(w);
+    } finally {
+      _stopLock.unlock();
+    }
+    return w;
+  }
+
+  /** Enters an operation, waiting if another thread has stopped the world. */
+  private Worker enter() {
+    Worker w = _worker.get();
+    if (w._depth++ == 0) {
+      activate(w);
+    }
+    return w;
+  }
+
+  private void exit(Worker w) {
+    if (--w._depth == 0) {
+      w._active = false;
+    }
+  }
+
+  private void activate(Worker w) {
+    while (true) {
+      w._active = true;
+      if (!_stopRequested || _stopper == Thread.currentThread()) {
+        break;
+      }
+      w._active = false;
+      awaitResume();
+    }
+    if (w._epoch != _epoch) {
+      w.resetAllocation(_epoch);
+    }
+  }
+
+  private void awaitResume() {
+    boolean interrupted = false;
+    synchronized (_resumeMonitor) {
+      while (_stopRequested) {
+        try {
+          _resumeMonitor.wait();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Runs the given action once no other thread is inside an operation. Other threads that try to
+   * start an operation wait until the action completes.
+   */
+  private void stopTheWorld(Runnable action) {
+    _stopLock.lock();
+    try {
+      if (_stopLock.getHoldCount() > 1) {
+        // already stopped by this thread
+        action.run();
+        return;
+      }
+      _stopper = Thread.currentThread();
+      _stopRequested = true;
+      try {
+        awaitQuiescence(_worker.get());
+        action.run();
+      } finally {
+        _stopper = null;
+        synchronized (_resumeMonitor) {
+          _stopRequested = false;
+          _resumeMonitor.notifyAll();
+        }
+      }
+    } finally {
+      _stopLock.unlock();
+    }
+  }
+
+  private void awaitQuiescence(Worker self) {
+    for (int spins = 0; ; spins++) {
+      boolean quiescent = true;
+      Iterator<Worker> workers = _workers.iterator();
+      while (workers.hasNext()) {
+        Worker w = workers.next();
+        if (w._thread.get() == null) {
+          workers.remove();
+        } else if (w != self && w._active) {
+          quiescent = false;
+        }
+      }
+      if (quiescent) {
+        return;
+      }
+      if (spins < 100) {
+        Thread.yield();
+      } else {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(50));
+      }
+    }
+  }
+
+  /**
+   * Runs a top-level operation, restarting it after garbage collection (and perhaps growing the
+   * node table) if it runs out of nodes. Nested operations propagate running out of nodes to the
+   * top-level operation, which holds the references.
+   */
+  private int run(Worker w, NodeOperation op) {
+    if (w._depth > 1) {
+      return op.apply(w);
+    }
+    for (int failures = 1; ; failures++) {
+      int epoch = w._epoch;
+      try {
+        return op.apply(w);
+      } catch (OutOfNodesException e) {
+        recoverFromOutOfNodes(w, epoch, failures);
+      }
+    }
+  }
+
+  private BDD newBDD(NodeOperation op) {
+    Worker w = enter();
+    try {
+      return new BDDImpl(run(w, op));
+    } finally {
+      exit(w);
+    }
+  }
+
+  private void recoverFromOutOfNodes(Worker w, int failedEpoch, int failures) {
+    w._active = false;
+    try {
+      stopTheWorld(
+          () -> {
+            if (_epoch != failedEpoch) {
+              // another thread already collected garbage; just try again
+              return;
+            }
+            collect();
+            boolean forceGrowth = failures > 1;
+            if (forceGrowth || freeNodeCount() * 100L <= (long) _nodeCapacity * _minFreeNodes) {
+              int newCapacity = nextNodeTableSize();
+              if (newCapacity > _nodeCapacity) {
+                growNodeTable(newCapacity);
+              } else if (freeNodeCount() == 0 || failures > 2) {
+                throw new BDDException("Number of nodes reached user defined maximum");
+              }
+            }
+          });
+    } finally {
+      activate(w);
+    }
+  }
+
+  /** Returns the current thread's worker, for use while the world is stopped. */
+  private Worker stoppedWorker() {
+    Worker w = _worker.get();
+    w.resetAllocation(_epoch);
+    return w;
+  }
+
+  //// Node access
+
+  private int levelOf(int n) {
+    return _nodes[n * NODE_SIZE];
+  }
+
+  private int lowOf(int n) {
+    return _nodes[n * NODE_SIZE + 1];
+  }
+
+  private int highOf(int n) {
+    return _nodes[n * NODE_SIZE + 2];
+  }
+
+  private void check(int r) {
+    if (!_running) {
+      throw new BDDException("BDD factory is not running");
+    }
+    if (r < 0 || r >= _nodeCapacity) {
+      throw new BDDException("Illegal node number: " + r);
+    }
+    if (r >= 2 && lowOf(r) == INVALID_BDD) {
+      throw new BDDException("Unknown BDD - was not in node table");
+    }
+  }
+
+  private void checkVar(int var) {
+    if (var < 0 || var >= _varNum) {
+      throw new BDDException("Unknown variable");
+    }
+  }
+
+  private void addRef(int n) {
+    if (n >= 2) {
+      _refs.incrementAndGet(n);
+    }
+  }
+
+  private void delRef(int n) {
+    if (n == INVALID_BDD) {
+      throw new BDDException("BDD has already been freed");
+    }
+    if (n >= 2) {
+      _refs.decrementAndGet(n);
+    }
+  }
+
+  private static int nodeHash(int var, int low, int high) {
+    int h = var * 0x9E3779B9 + low;
+    h = h * 0x9E3779B9 + high;
+    h *= 0x85EBCA6B;
+    return h ^ (h >>> 16);
+  }
+
+  /** Returns the node (level, low, high), creating it if it does not exist. */
+  private int mk(Worker w, int level, int low, int high) {
+    if (low == high) {
+      return low;
+    }
+    int[] nodes = _nodes;
+    AtomicIntegerArray unique = _unique;
+    int mask = _uniqueMask;
+    int slot = nodeHash(_level2var[level], low, high) & mask;
+    int fresh = INVALID_BDD;
+    while (true) {
+      int n = unique.get(slot);
+      if (n == 0) {
+        if (fresh == INVALID_BDD) {
+          fresh = allocate(w);
+          int base = fresh * NODE_SIZE;
+          nodes[base] = level;
+          nodes[base + 1] = low;
+          nodes[base + 2] = high;
+        }
+        // The CAS publishes the node's fields to threads that read it from the table.
+        if (unique.compareAndSet(slot, 0, fresh)) {
+          return fresh;
+        }
+        n = unique.get(slot);
+      }
+      int base = n * NODE_SIZE;
+      if (nodes[base] == level && nodes[base + 1] == low && nodes[base + 2] == high) {
+        if (fresh != INVALID_BDD) {
+          recycle(w, fresh);
+        }
+        return n;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private int allocate(Worker w) {
+    if (w._spareCount > 0) {
+      return w._spares[--w._spareCount];
+    }
+    if (w._chunkNext == w._chunkEnd) {
+      int start = _freeCursor.getAndAdd(ALLOCATION_CHUNK);
+      if (start >= _freeCount) {
+        throw OutOfNodesException.INSTANCE;
+      }
+      w._chunkNext = start;
+      w._chunkEnd = Math.min(start + ALLOCATION_CHUNK, _freeCount);
+    }
+    return _freeList[w._chunkNext++];
+  }
+
+  private void recycle(Worker w, int n) {
+    if (w._spareCount == w._spares.length) {
+      w._spares = Arrays.copyOf(w._spares, w._spareCount * 2);
+    }
+    w._spares[w._spareCount++] = n;
+  }
+
+  /** Inserts an existing node into the unique table. Only used while the world is stopped. */
+  private void insertUnique(int n) {
+    int slot = nodeHash(_level2var[levelOf(n)], lowOf(n), highOf(n)) & _uniqueMask;
+    while (_unique.get(slot) != 0) {
+      slot = (slot + 1) & _uniqueMask;
+    }
+    _unique.set(slot, n);
+  }
+
+  //// Garbage collection and resizing. These only run while the world is stopped.
+
+  private int freeNodeCount() {
+    return Math.max(0, _freeCount - _freeCursor.get());
+  }
+
+  private static int uniqueTableSize(int capacity) {
+    return Integer.highestOneBit(Math.max(capacity, MIN_CAPACITY) * 2 - 1) << 1;
+  }
+
+  private void rebuildUniqueTable(int tableSize) {
+    int[] table = new int[tableSize];
+    int mask = tableSize - 1;
+    int[] nodes = _nodes;
+    for (int n = 2; n < _nodeCapacity; n++) {
+      int base = n * NODE_SIZE;
+      if (nodes[base + 1] == INVALID_BDD) {
+        continue;
+      }
+      int slot = nodeHash(_level2var[nodes[base]], nodes[base + 1], nodes[base + 2]) & mask;
+      while (table[slot] != 0) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = n;
+    }
+    _unique = new AtomicIntegerArray(table);
+    _uniqueMask = mask;
+    _staleUniqueEntries = 0;
+  }
+
+  private void rebuildFreeList() {
+    int[] free = _freeList != null && _freeList.length >= _nodeCapacity ? _freeList : null;
+    if (free == null) {
+      free = new int[_nodeCapacity];
+    }
+    int count = 0;
+    for (int n = 2; n < _nodeCapacity; n++) {
+      if (_nodes[n * NODE_SIZE + 1] == INVALID_BDD) {
+        free[count++] = n;
+      }
+    }
+    _freeList = free;
+    _freeCount = count;
+    _freeCursor.set(0);
+    _epoch++;
+  }
+
+  /** Frees all nodes not reachable from a referenced node. */
+  private void collect() {
+    long start = System.currentTimeMillis();
+    gcstats.nodes = _nodeCapacity;
+    gcstats.freenodes = freeNodeCount();
+    gbc_handler(true, gcstats);
+
+    int[] nodes = _nodes;
+    long[] marked = new long[(_nodeCapacity + 63) >>> 6];
+    int[] stack = new int[64];
+    for (int n = 2; n < _nodeCapacity; n++) {
+      if (_refs.get(n) <= 0 || nodes[n * NODE_SIZE + 1] == INVALID_BDD) {
+        continue;
+      }
+      int size = 0;
+      stack[size++] = n;
+      while (size > 0) {
+        int m = stack[--size];
+        if ((marked[m >>> 6] & (1L << m)) != 0) {
+          continue;
+        }
+        marked[m >>> 6] |= 1L << m;
+        if (size + 2 > stack.length) {
+          stack = Arrays.copyOf(stack, stack.length * 2);
+        }
+        int lo = nodes[m * NODE_SIZE + 1];
+        int hi = nodes[m * NODE_SIZE + 2];
+        if (lo >= 2 && (marked[lo >>> 6] & (1L << lo)) == 0) {
+          stack[size++] = lo;
+        }
+        if (hi >= 2 && (marked[hi >>> 6] & (1L << hi)) == 0) {
+          stack[size++] = hi;
+        }
+      }
+    }
+
+    int freed = 0;
+    for (int n = 2; n < _nodeCapacity; n++) {
+      int base = n * NODE_SIZE;
+      if (nodes[base + 1] != INVALID_BDD && (marked[n >>> 6] & (1L << n)) == 0) {
+        nodes[base + 1] = INVALID_BDD;
+        freed++;
+      }
+    }
+
+    rebuildUniqueTable(_unique.length());
+    rebuildFreeList();
+    if (freed > 0) {
+      flushCaches();
+    }
+
+    long time = System.currentTimeMillis() - start;
+    gcstats.freenodes = freeNodeCount();
+    gcstats.time = time;
+    gcstats.sumtime += time;
+    gcstats.num++;
+    gbc_handler(false, gcstats);
+  }
+
+  private int nextNodeTableSize() {
+    long capacity = _nodeCapacity;
+    long newCapacity =
+        _increaseFactor > 0 ? capacity + (long) (capacity * _increaseFactor) : 2 * capacity;
+    if (_maxNodeIncrease > 0) {
+      newCapacity = Math.min(newCapacity, capacity + _maxNodeIncrease);
+    }
+    if (_maxNodeSize > 0) {
+      newCapacity = Math.min(newCapacity, _maxNodeSize);
+    }
+    return (int) Math.min(newCapacity, MAX_CAPACITY);
+  }
+
+  private void growNodeTable(int newCapacity) {
+    int oldCapacity = _nodeCapacity;
+    if (newCapacity <= oldCapacity) {
+      return;
+    }
+    resize_handler(oldCapacity, newCapacity);
+    int[] nodes = Arrays.copyOf(_nodes, newCapacity * NODE_SIZE);
+    for (int n = oldCapacity; n < newCapacity; n++) {
+      nodes[n * NODE_SIZE + 1] = INVALID_BDD;
+    }
+    int[] refs = new int[newCapacity];
+    for (int n = 0; n < oldCapacity; n++) {
+      refs[n] = _refs.get(n);
+    }
+    _nodes = nodes;
+    _refs = new AtomicIntegerArray(refs);
+    _nodeCapacity = newCapacity;
+    int tableSize = uniqueTableSize(newCapacity);
+    if (tableSize > _unique.length()) {
+      rebuildUniqueTable(tableSize);
+    }
+    rebuildFreeList();
+    if (_cacheRatio > 0) {
+      _cacheSize = Math.max(MIN_CACHE_SIZE, newCapacity / _cacheRatio);
+      flushCaches();
+    }
+  }
+
+  /** Ensures that at least {@code count} free nodes are available to the stopping thread. */
+  private void ensureAvailableNodes(int count) {
+    if (freeNodeCount() >= count) {
+      return;
+    }
+    collect();
+    while (freeNodeCount() < count) {
+      int newCapacity =
+          (int) Math.min(MAX_CAPACITY, Math.max(nextNodeTableSize(), _nodeCapacity + 2L * count));
+      if (newCapacity <= _nodeCapacity) {
+        throw new BDDException("Number of nodes reached user defined maximum");
+      }
+      growNodeTable(newCapacity);
+    }
+  }
+
+  /** Ensures that the unique table has room for {@code count} more entries at a low load factor. */
+  private void ensureUniqueHeadroom(int count) {
+    long entries = (long) _nodeCapacity - freeNodeCount() + _staleUniqueEntries + count;
+    if (entries * 4 > _unique.length() * 3L) {
+      rebuildUniqueTable(Math.max(_unique.length(), uniqueTableSize(_nodeCapacity)));
+    }
+  }
+
+  //// Caches
+
+  private static int cacheSize(int requested) {
+    int size = Math.max(requested, MIN_CACHE_SIZE);
+    return Integer.highestOneBit(Math.min(size, 1 << 30) * 2 - 1);
+  }
+
+  private void flushCaches() {
+    int size = cacheSize(_cacheSize);
+    _applyCache = new OpCache(size);
+    _quantCache = new OpCache(size);
+    _appexCache = new OpCache(size);
+    _replaceCache = new OpCache(size);
+    _miscCache = new OpCache(size);
+    _multiOpCache = new MultiOpCache(size);
+    _countCache = new CountCache(size);
+  }
+
+  private static int cacheHash(int a, int b, int c, int d) {
+    int h = a * 0x9E3779B9 + b;
+    h = h * 0x9E3779B9 + c;
+    h = h * 0x9E3779B9 + d;
+    h *= 0x85EBCA6B;
+    return h ^ (h >>> 16);
+  }
+
+  private static final class OpCacheEntry {
+    private final int _a;
+    private final int _b;
+    private final int _c;
+    private final int _d;
+    private final int _res;
+
+    private OpCacheEntry(int a, int b, int c, int d, int res) {
+      _a = a;
+      _b = b;
+      _c = c;
+      _d = d;
+      _res = res;
+    }
+  }
+
+  /** A lossy cache of operation results, keyed by four ints. */
+  private static final class OpCache {
+    private final AtomicReferenceArray<OpCacheEntry> _entries;
+    private final int _mask;
+
+    private OpCache(int size) {
+      _entries = new AtomicReferenceArray<>(size);
+      _mask = size - 1;
+    }
+
+    /** Returns the cached result, or -1 if there is none. */
+    private int lookup(int a, int b, int c, int d) {
+      OpCacheEntry e = _entries.get(cacheHash(a, b, c, d) & _mask);
+      return e != null && e._a == a && e._b == b && e._c == c && e._d == d ? e._res : -1;
+    }
+
+    private void insert(int a, int b, int c, int d, int res) {
+      _entries.lazySet(cacheHash(a, b, c, d) & _mask, new OpCacheEntry(a, b, c, d, res));
+    }
+  }
+
+  private static final class MultiOpCacheEntry {
+    private final int[] _operands;
+    private final int _res;
+
+    private MultiOpCacheEntry(int[] operands, int res) {
+      _operands = operands;
+      _res = res;
+    }
+  }
+
+  /** A lossy cache of the results of operations with many operands. */
+  private static final class MultiOpCache {
+    private final AtomicReferenceArray<MultiOpCacheEntry> _entries;
+    private final int _mask;
+
+    private MultiOpCache(int size) {
+      _entries = new AtomicReferenceArray<>(size);
+      _mask = size - 1;
+    }
+
+    private int lookup(int[] operands, int hash) {
+      MultiOpCacheEntry e = _entries.get(hash & _mask);
+      return e != null && Arrays.equals(e._operands, operands) ? e._res : -1;
+    }
+
+    private void insert(int[] operands, int hash, int res) {
+      _entries.lazySet(hash & _mask, new MultiOpCacheEntry(operands, res));
+    }
+  }
+
+  private static final class CountCacheEntry {
+    private final int _node;
+    private final int _kind;
+    private final BigInteger _count;
+
+    private CountCacheEntry(int node, int kind, BigInteger count) {
+      _node = node;
+      _kind = kind;
+      _count = count;
+    }
+  }
+
+  /** A lossy cache of path and satisfying assignment counts. */
+  private static final class CountCache {
+    private final AtomicReferenceArray<CountCacheEntry> _entries;
+    private final int _mask;
+
+    private CountCache(int size) {
+      _entries = new AtomicReferenceArray<>(size);
+      _mask = size - 1;
+    }
+
+    private BigInteger lookup(int node, int kind) {
+      CountCacheEntry e = _entries.get(cacheHash(node, kind, 0, 0) & _mask);
+      return e != null && e._node == node && e._kind == kind ? e._count : null;
+    }
+
+    private void insert(int node, int kind, BigInteger count) {
+      _entries.lazySet(cacheHash(node, kind, 0, 0) & _mask, new CountCacheEntry(node, kind, count));
+    }
+  }
+
+  //// Apply, not, and ite
+
+  private int notRec(Worker w, int r) {
+    if (r < 2) {
+      return r ^ 1;
+    }
+    OpCache cache = _applyCache;
+    int res = cache.lookup(r, 0, OP_NOT, 0);
+    if (res >= 0) {
+      return res;
+    }
+    int lo = notRec(w, lowOf(r));
+    int hi = notRec(w, highOf(r));
+    res = mk(w, levelOf(r), lo, hi);
+    cache.insert(r, 0, OP_NOT, 0, res);
+    return res;
+  }
+
+  private int applyRec(Worker w, int l, int r, int op) {
+    if (l < 2 && r < 2) {
+      return OPRRES[op][l << 1 | r];
+    }
+    switch (op) {
+      case OP_AND:
+        if (l == r || r == BDDONE) {
+          return l;
+        } else if (l == BDDZERO || r == BDDZERO) {
+          return BDDZERO;
+        } else if (l == BDDONE) {
+          return r;
+        } else if (l > r) {
+          int t = l;
+          l = r;
+          r = t;
+        }
+        break;
+      case OP_OR:
+        if (l == r || r == BDDZERO) {
+          return l;
+        } else if (l == BDDONE || r == BDDONE) {
+          return BDDONE;
+        } else if (l == BDDZERO) {
+          return r;
+        } else if (l > r) {
+          int t = l;
+          l = r;
+          r = t;
+        }
+        break;
+      case OP_XOR:
+        if (l == r) {
+          return BDDZERO;
+        } else if (l == BDDZERO) {
+          return r;
+        } else if (r == BDDZERO) {
+          return l;
+        } else if (l == BDDONE) {
+          return notRec(w, r);
+        } else if (r == BDDONE) {
+          return notRec(w, l);
+        } else if (l > r) {
+          int t = l;
+          l = r;
+          r = t;
+        }
+        break;
+      case OP_NAND:
+        if (l == r) {
+          return notRec(w, l);
+        } else if (l == BDDZERO || r == BDDZERO) {
+          return BDDONE;
+        } else if (l == BDDONE) {
+          return notRec(w, r);
+        } else if (r == BDDONE) {
+          return notRec(w, l);
+        } else if (l > r) {
+          int t = l;
+          l = r;
+          r = t;
+        }
+        break;
+      case OP_NOR:
+        if (l == r) {
+          return notRec(w, l);
+        } else if (l == BDDONE || r == BDDONE) {
+          return BDDZERO;
+        } else if (l == BDDZERO) {
+          return notRec(w, r);
+        } else if (r == BDDZERO) {
+          return notRec(w, l);
+        } else if (l > r) {
+          int t = l;
+          l = r;
+          r = t;
+        }
+        break;
+      case OP_IMP:
+        if (l == r || l == BDDZERO || r == BDDONE) {
+          return BDDONE;
+        } else if (l == BDDONE) {
+          return r;
+        } else if (r == BDDZERO) {
+          return notRec(w, l);
+        }
+        break;
+      case OP_BIIMP:
+        if (l == r) {
+          return BDDONE;
+        } else if (l == BDDZERO) {
+          return notRec(w, r);
+        } else if (r == BDDZERO) {
+          return notRec(w, l);
+        } else if (l == BDDONE) {
+          return r;
+        } else if (r == BDDONE) {
+          return l;
+        } else if (l > r) {
+          int t = l;
+          l = r;
+          r = t;
+        }
+        break;
+      case OP_DIFF:
+        if (l == r || l == BDDZERO || r == BDDONE) {
+          return BDDZERO;
+        } else if (l == BDDONE) {
+          return notRec(w, r);
+        } else if (r == BDDZERO) {
+          return l;
+        }
+        break;
+      case OP_LESS:
+        // less(l, r) == diff(r, l)
+        return applyRec(w, r, l, OP_DIFF);
+      case OP_INVIMP:
+        // invimp(l, r) == imp(r, l)
+        return applyRec(w, r, l, OP_IMP);
+      default:
+        throw new BDDException("Unknown operator: " + op);
+    }
+
+    OpCache cache = _applyCache;
+    int res = cache.lookup(l, r, op, 0);
+    if (res >= 0) {
+      return res;
+    }
+    int ll = levelOf(l);
+    int lr = levelOf(r);
+    int top = Math.min(ll, lr);
+    int lo = applyRec(w, ll == top ? lowOf(l) : l, lr == top ? lowOf(r) : r, op);
+    int hi = applyRec(w, ll == top ? highOf(l) : l, lr == top ? highOf(r) : r, op);
+    res = mk(w, top, lo, hi);
+    cache.insert(l, r, op, 0, res);
+    return res;
+  }
+
+  private int iteRec(Worker w, int f, int g, int h) {
+    if (f == BDDONE) {
+      return g;
+    } else if (f == BDDZERO) {
+      return h;
+    } else if (g == h) {
+      return g;
+    } else if (g == BDDZERO) {
+      return applyRec(w, h, f, OP_DIFF);
+    } else if (g == BDDONE) {
+      return applyRec(w, f, h, OP_OR);
+    } else if (h == BDDZERO) {
+      return applyRec(w, f, g, OP_AND);
+    } else if (h == BDDONE) {
+      return applyRec(w, f, g, OP_IMP);
+    }
+    OpCache cache = _applyCache;
+    int res = cache.lookup(f, g, OP_ITE, h);
+    if (res >= 0) {
+      return res;
+    }
+    int lf = levelOf(f);
+    int lg = levelOf(g);
+    int lh = levelOf(h);
+    int top = Math.min(lf, Math.min(lg, lh));
+    int lo =
+        iteRec(
+            w,
+            lf == top ? lowOf(f) : f, //
+            lg == top ? lowOf(g) : g,
+            lh == top ? lowOf(h) : h);
+    int hi =
+        iteRec(
+            w,
+            lf == top ? highOf(f) : f, //
+            lg == top ? highOf(g) : g,
+            lh == top ? highOf(h) : h);
+    res = mk(w, top, lo, hi);
+    cache.insert(f, g, OP_ITE, h, res);
+    return res;
+  }
+
+  private int orAllRec(Worker w, int[] operands) {
+    if (operands.length == 0) {
+      return BDDZERO;
+    } else if (operands.length == 1) {
+      return operands[0];
+    } else if (operands.length == 2) {
+      return applyRec(w, operands[0], operands[1], OP_OR);
+    }
+    Arrays.sort(operands);
+    operands = JFactory.dedupSorted(operands);
+
+    MultiOpCache cache = _multiOpCache;
+    int hash = Arrays.hashCode(operands) * 0x9E3779B9;
+    int res = cache.lookup(operands, hash);
+    if (res >= 0) {
+      return res;
+    }
+
+    int top = Integer.MAX_VALUE;
+    for (int n : operands) {
+      top = Math.min(top, levelOf(n));
+    }
+    int[] lowOperands = new int[operands.length];
+    int[] highOperands = new int[operands.length];
+    int lowCount = 0;
+    int highCount = 0;
+    boolean lowIsOne = false;
+    boolean highIsOne = false;
+    for (int n : operands) {
+      int lo = n;
+      int hi = n;
+      if (levelOf(n) == top) {
+        lo = lowOf(n);
+        hi = highOf(n);
+      }
+      lowIsOne |= lo == BDDONE;
+      highIsOne |= hi == BDDONE;
+      if (lo != BDDZERO) {
+        lowOperands[lowCount++] = lo;
+      }
+      if (hi != BDDZERO) {
+        highOperands[highCount++] = hi;
+      }
+    }
+    int lo = lowIsOne ? BDDONE : orAllRec(w, Arrays.copyOf(lowOperands, lowCount));
+    int hi = highIsOne ? BDDONE : orAllRec(w, Arrays.copyOf(highOperands, highCount));
+    res = mk(w, top, lo, hi);
+    cache.insert(operands, hash, res);
+    return res;
+  }
+
+  private boolean andSatRec(int l, int r) {
+    if (l == BDDZERO || r == BDDZERO) {
+      return false;
+    } else if (l == BDDONE || r == BDDONE || l == r) {
+      return true;
+    } else if (l > r) {
+      int t = l;
+      l = r;
+      r = t;
+    }
+    OpCache cache = _applyCache;
+    int cached = cache.lookup(l, r, OP_ANDSAT, 0);
+    if (cached >= 0) {
+      return cached == BDDONE;
+    }
+    int ll = levelOf(l);
+    int lr = levelOf(r);
+    int top = Math.min(ll, lr);
+    boolean res =
+        andSatRec(ll == top ? lowOf(l) : l, lr == top ? lowOf(r) : r)
+            || andSatRec(ll == top ? highOf(l) : l, lr == top ? highOf(r) : r);
+    cache.insert(l, r, OP_ANDSAT, 0, res ? BDDONE : BDDZERO);
+    return res;
+  }
+
+  private boolean diffSatRec(int l, int r) {
+    if (l == BDDZERO || r == BDDONE || l == r) {
+      return false;
+    } else if (l == BDDONE || r == BDDZERO) {
+      return true;
+    }
+    OpCache cache = _applyCache;
+    int cached = cache.lookup(l, r, OP_DIFFSAT, 0);
+    if (cached >= 0) {
+      return cached == BDDONE;
+    }
+    int ll = levelOf(l);
+    int lr = levelOf(r);
+    int top = Math.min(ll, lr);
+    boolean res =
+        diffSatRec(ll == top ? lowOf(l) : l, lr == top ? lowOf(r) : r)
+            || diffSatRec(ll == top ? highOf(l) : l, lr == top ? highOf(r) : r);
+    cache.insert(l, r, OP_DIFFSAT, 0, res ? BDDONE : BDDZERO);
+    return res;
+  }
+
+  //// Quantification
+
+  /** Marks the levels of the variable set (a conjunction of positive variables) in the worker. */
+  private void loadVarset(Worker w, int varset) {
+    nextVarsetId(w);
+    int last = -1;
+    for (int n = varset; n >= 2; n = highOf(n)) {
+      int level = levelOf(n);
+      w._varset[level] = w._varsetId;
+      last = level;
+    }
+    w._quantLast = last;
+  }
+
+  /**
+   * Marks the levels of the variable set (a conjunction of positive and negative variables) in the
+   * worker, with the sign of the mark giving the polarity.
+   */
+  private void loadSignedVarset(Worker w, int varset) {
+    nextVarsetId(w);
+    int last = -1;
+    for (int n = varset; n >= 2; ) {
+      int level = levelOf(n);
+      if (lowOf(n) == BDDZERO) {
+        w._varset[level] = w._varsetId;
+        n = highOf(n);
+      } else {
+        w._varset[level] = -w._varsetId;
+        n = lowOf(n);
+      }
+      last = level;
+    }
+    w._quantLast = last;
+  }
+
+  private void nextVarsetId(Worker w) {
+    if (w._varset.length < _varNum) {
+      w._varset = new int[_varNum];
+      w._varsetId = 0;
+    }
+    if (w._varsetId == Integer.MAX_VALUE / 2) {
+      Arrays.fill(w._varset, 0);
+      w._varsetId = 0;
+    }
+    w._varsetId++;
+  }
+
+  private boolean inVarset(Worker w, int level) {
+    return w._varset[level] == w._varsetId;
+  }
+
+  private void checkVarset(int varset) {
+    if (varset < 2) {
+      return;
+    }
+    for (int n = varset; n >= 2; n = highOf(n)) {
+      if (lowOf(n) != BDDZERO) {
+        throw new BDDException("Illegal variable set");
+      }
+    }
+  }
+
+  private int quantRec(Worker w, int r, int varset, int kind) {
+    if (r < 2 || levelOf(r) > w._quantLast) {
+      return r;
+    }
+    OpCache cache = _quantCache;
+    int res = cache.lookup(r, varset, kind, 0);
+    if (res >= 0) {
+      return res;
+    }
+    int lo = quantRec(w, lowOf(r), varset, kind);
+    int hi = quantRec(w, highOf(r), varset, kind);
+    if (inVarset(w, levelOf(r))) {
+      res = applyRec(w, lo, hi, kind == QUANT_EXIST ? OP_OR : OP_AND);
+    } else {
+      res = mk(w, levelOf(r), lo, hi);
+    }
+    cache.insert(r, varset, kind, 0, res);
+    return res;
+  }
+
+  private int projectRec(Worker w, int r, int varset) {
+    if (r < 2) {
+      return r;
+    }
+    int level = levelOf(r);
+    if (level > w._quantLast) {
+      // existentially quantify all remaining variables
+      return BDDONE;
+    }
+    OpCache cache = _quantCache;
+    int res = cache.lookup(r, varset, QUANT_PROJECT, 0);
+    if (res >= 0) {
+      return res;
+    }
+    int lo = projectRec(w, lowOf(r), varset);
+    int hi = projectRec(w, highOf(r), varset);
+    res = inVarset(w, level) ? mk(w, level, lo, hi) : applyRec(w, lo, hi, OP_OR);
+    cache.insert(r, varset, QUANT_PROJECT, 0, res);
+    return res;
+  }
+
+  private int uniqueRec(Worker w, int r, int q) {
+    if (levelOf(r) > levelOf(q)) {
+      // skipped a quantified variable, so the answer is zero
+      return BDDZERO;
+    } else if (r < 2 || q < 2) {
+      return r;
+    }
+    OpCache cache = _quantCache;
+    int res = cache.lookup(r, q, QUANT_UNIQUE, 0);
+    if (res >= 0) {
+      return res;
+    }
+    if (levelOf(r) == levelOf(q)) {
+      int lo = uniqueRec(w, lowOf(r), highOf(q));
+      int hi = uniqueRec(w, highOf(r), highOf(q));
+      res = applyRec(w, lo, hi, OP_XOR);
+    } else {
+      int lo = uniqueRec(w, lowOf(r), q);
+      int hi = uniqueRec(w, highOf(r), q);
+      res = mk(w, levelOf(r), lo, hi);
+    }
+    cache.insert(r, q, QUANT_UNIQUE, 0, res);
+    return res;
+  }
+
+  private int relprodRec(Worker w, int l, int r, int varset) {
+    if (l == BDDZERO || r == BDDZERO) {
+      return BDDZERO;
+    } else if (l == r || r == BDDONE) {
+      return quantRec(w, l, varset, QUANT_EXIST);
+    } else if (l == BDDONE) {
+      return quantRec(w, r, varset, QUANT_EXIST);
+    }
+    int ll = levelOf(l);
+    int lr = levelOf(r);
+    if (ll > w._quantLast && lr > w._quantLast) {
+      return applyRec(w, l, r, OP_AND);
+    }
+    if (l > r) {
+      int t = l;
+      l = r;
+      r = t;
+      ll = lr;
+      lr = levelOf(r);
+    }
+    OpCache cache = _appexCache;
+    int res = cache.lookup(l, r, varset, OP_AND);
+    if (res >= 0) {
+      return res;
+    }
+    int top = Math.min(ll, lr);
+    int lo = relprodRec(w, ll == top ? lowOf(l) : l, lr == top ? lowOf(r) : r, varset);
+    int hi = relprodRec(w, ll == top ? highOf(l) : l, lr == top ? highOf(r) : r, varset);
+    res = inVarset(w, top) ? applyRec(w, lo, hi, OP_OR) : mk(w, top, lo, hi);
+    cache.insert(l, r, varset, OP_AND, res);
+    return res;
+  }
+
+  /** Applies {@code op} and then quantifies (exist or forall, per {@code kind}) the varset. */
+  private int appQuantRec(Worker w, int l, int r, int op, int varset, int kind) {
+    switch (op) {
+      case OP_OR:
+        if (l == BDDONE || r == BDDONE) {
+          return BDDONE;
+        } else if (l == r || r == BDDZERO) {
+          return quantRec(w, l, varset, kind);
+        } else if (l == BDDZERO) {
+          return quantRec(w, r, varset, kind);
+        }
+        break;
+      case OP_XOR:
+        if (l == r) {
+          return BDDZERO;
+        } else if (l == BDDZERO) {
+          return quantRec(w, r, varset, kind);
+        } else if (r == BDDZERO) {
+          return quantRec(w, l, varset, kind);
+        }
+        break;
+      case OP_NAND:
+        if (l == BDDZERO || r == BDDZERO) {
+          return BDDONE;
+        }
+        break;
+      case OP_NOR:
+        if (l == BDDONE || r == BDDONE) {
+          return BDDZERO;
+        }
+        break;
+      default:
+        break;
+    }
+    if (l < 2 && r < 2) {
+      return OPRRES[op][l << 1 | r];
+    }
+    int ll = levelOf(l);
+    int lr = levelOf(r);
+    if (ll > w._quantLast && lr > w._quantLast) {
+      return applyRec(w, l, r, op);
+    }
+    OpCache cache = _appexCache;
+    int res = cache.lookup(l, r, varset, kind << 4 | op);
+    if (res >= 0) {
+      return res;
+    }
+    int top = Math.min(ll, lr);
+    int lo = appQuantRec(w, ll == top ? lowOf(l) : l, lr == top ? lowOf(r) : r, op, varset, kind);
+    int hi = appQuantRec(w, ll == top ? highOf(l) : l, lr == top ? highOf(r) : r, op, varset, kind);
+    if (inVarset(w, top)) {
+      res = applyRec(w, lo, hi, kind == QUANT_EXIST ? OP_OR : OP_AND);
+    } else {
+      res = mk(w, top, lo, hi);
+    }
+    cache.insert(l, r, varset, kind << 4 | op, res);
+    return res;
+  }
+
+  /** Applies {@code op} and then uniquely quantifies the variables of {@code var}. */
+  private int appUniRec(Worker w, int l, int r, int op, int var) {
+    int ll = levelOf(l);
+    int lr = levelOf(r);
+    int lv = levelOf(var);
+    if (ll > lv && lr > lv) {
+      // skipped a quantified variable, so the answer is zero
+      return BDDZERO;
+    } else if (l < 2 && r < 2) {
+      return OPRRES[op][l << 1 | r];
+    } else if (var < 2) {
+      return applyRec(w, l, r, op);
+    }
+    OpCache cache = _appexCache;
+    int res = cache.lookup(l, r, var, QUANT_UNIQUE << 4 | op);
+    if (res >= 0) {
+      return res;
+    }
+    int top = Math.min(ll, lr);
+    boolean quantified = top == lv;
+    int next = quantified ? highOf(var) : var;
+    int lo = appUniRec(w, ll == top ? lowOf(l) : l, lr == top ? lowOf(r) : r, op, next);
+    int hi = appUniRec(w, ll == top ? highOf(l) : l, lr == top ? highOf(r) : r, op, next);
+    res = quantified ? applyRec(w, lo, hi, OP_XOR) : mk(w, top, lo, hi);
+    cache.insert(l, r, var, QUANT_UNIQUE << 4 | op, res);
+    return res;
+  }
+
+  //// Restrict, constrain, simplify
+
+  private int restrictRec(Worker w, int r, int varset) {
+    if (r < 2 || levelOf(r) > w._quantLast) {
+      return r;
+    }
+    OpCache cache = _miscCache;
+    int res = cache.lookup(r, varset, OP_RESTRICT, 0);
+    if (res >= 0) {
+      return res;
+    }
+    int level = levelOf(r);
+    int mark = w._varset[level];
+    if (mark == w._varsetId) {
+      res = restrictRec(w, highOf(r), varset);
+    } else if (mark == -w._varsetId) {
+      res = restrictRec(w, lowOf(r), varset);
+    } else {
+      int lo = restrictRec(w, lowOf(r), varset);
+      int hi = restrictRec(w, highOf(r), varset);
+      res = mk(w, level, lo, hi);
+    }
+    cache.insert(r, varset, OP_RESTRICT, 0, res);
+    return res;
+  }
+
+  private int constrainRec(Worker w, int f, int c) {
+    if (c == BDDONE || f < 2) {
+      return f;
+    } else if (c == f) {
+      return BDDONE;
+    } else if (c == BDDZERO) {
+      return BDDZERO;
+    }
+    OpCache cache = _miscCache;
+    int res = cache.lookup(f, c, OP_CONSTRAIN, 0);
+    if (res >= 0) {
+      return res;
+    }
+    int lf = levelOf(f);
+    int lc = levelOf(c);
+    if (lf == lc) {
+      if (lowOf(c) == BDDZERO) {
+        res = constrainRec(w, highOf(f), highOf(c));
+      } else if (highOf(c) == BDDZERO) {
+        res = constrainRec(w, lowOf(f), lowOf(c));
+      } else {
+        int lo = constrainRec(w, lowOf(f), lowOf(c));
+        int hi = constrainRec(w, highOf(f), highOf(c));
+        res = mk(w, lf, lo, hi);
+      }
+    } else if (lf < lc) {
+      int lo = constrainRec(w, lowOf(f), c);
+      int hi = constrainRec(w, highOf(f), c);
+      res = mk(w, lf, lo, hi);
+    } else {
+      if (lowOf(c) == BDDZERO) {
+        res = constrainRec(w, f, highOf(c));
+      } else if (highOf(c) == BDDZERO) {
+        res = constrainRec(w, f, lowOf(c));
+      } else {
+        int lo = constrainRec(w, f, lowOf(c));
+        int hi = constrainRec(w, f, highOf(c));
+        res = mk(w, lc, lo, hi);
+      }
+    }
+    cache.insert(f, c, OP_CONSTRAIN, 0, res);
+    return res;
+  }
+
+  private int simplifyRec(Worker w, int f, int d) {
+    if (d == BDDONE || f < 2) {
+      return f;
+    } else if (d == f) {
+      return BDDONE;
+    } else if (d == BDDZERO) {
+      return BDDZERO;
+    }
+    OpCache cache = _applyCache;
+    int res = cache.lookup(f, d, OP_SIMPLIFY, 0);
+    if (res >= 0) {
+      return res;
+    }
+    int lf = levelOf(f);
+    int ld = levelOf(d);
+    if (lf == ld) {
+      if (lowOf(d) == BDDZERO) {
+        res = simplifyRec(w, highOf(f), highOf(d));
+      } else if (highOf(d) == BDDZERO) {
+        res = simplifyRec(w, lowOf(f), lowOf(d));
+      } else {
+        int lo = simplifyRec(w, lowOf(f), lowOf(d));
+        int hi = simplifyRec(w, highOf(f), highOf(d));
+        res = mk(w, lf, lo, hi);
+      }
+    } else if (lf < ld) {
+      int lo = simplifyRec(w, lowOf(f), d);
+      int hi = simplifyRec(w, highOf(f), d);
+      res = mk(w, lf, lo, hi);
+    } else {
+      res = simplifyRec(w, f, applyRec(w, lowOf(d), highOf(d), OP_OR));
+    }
+    cache.insert(f, d, OP_SIMPLIFY, 0, res);
+    return res;
+  }
+
+  //// Replace and compose
+
+  private int replaceRec(Worker w, int r, PairSnapshot pair) {
+    if (r < 2 || levelOf(r) > pair._last) {
+      return r;
+    }
+    OpCache cache = _replaceCache;
+    int res = cache.lookup(r, pair._id, OP_REPLACE, 0);
+    if (res >= 0) {
+      return res;
+    }
+    int lo = replaceRec(w, lowOf(r), pair);
+    int hi = replaceRec(w, highOf(r), pair);
+    res = correctify(w, levelOf(pair._byLevel[levelOf(r)]), lo, hi);
+    cache.insert(r, pair._id, OP_REPLACE, 0, res);
+    return res;
+  }
+
+  /**
+   * Returns the BDD that branches on {@code level} to l or r, like {@link #mk}, except that l and r
+   * may have variables above {@code level}.
+   */
+  private int correctify(Worker w, int level, int l, int r) {
+    int ll = levelOf(l);
+    int lr = levelOf(r);
+    if (level < ll && level < lr) {
+      return mk(w, level, l, r);
+    } else if (level == ll || level == lr) {
+      throw new BDDException("Trying to replace with variables already in the bdd");
+    }
+    OpCache cache = _replaceCache;
+    int res = cache.lookup(l, r, OP_CORRECTIFY, level);
+    if (res >= 0) {
+      return res;
+    }
+    int top = Math.min(ll, lr);
+    int lo = correctify(w, level, ll == top ? lowOf(l) : l, lr == top ? lowOf(r) : r);
+    int hi = correctify(w, level, ll == top ? highOf(l) : l, lr == top ? highOf(r) : r);
+    res = mk(w, top, lo, hi);
+    cache.insert(l, r, OP_CORRECTIFY, level, res);
+    return res;
+  }
+
+  private int composeRec(Worker w, int f, int g, int level) {
+    int lf = levelOf(f);
+    if (lf > level) {
+      return f;
+    }
+    OpCache cache = _replaceCache;
+    int res = cache.lookup(f, g, OP_COMPOSE, level);
+    if (res >= 0) {
+      return res;
+    }
+    if (lf < level) {
+      int lg = levelOf(g);
+      int top = Math.min(lf, lg);
+      int lo = composeRec(w, lf == top ? lowOf(f) : f, lg == top ? lowOf(g) : g, level);
+      int hi = composeRec(w, lf == top ? highOf(f) : f, lg == top ? highOf(g) : g, level);
+      res = mk(w, top, lo, hi);
+    } else {
+      res = iteRec(w, g, highOf(f), lowOf(f));
+    }
+    cache.insert(f, g, OP_COMPOSE, level, res);
+    return res;
+  }
+
+  private int veccomposeRec(Worker w, int f, PairSnapshot pair) {
+    if (levelOf(f) > pair._last) {
+      return f;
+    }
+    OpCache cache = _replaceCache;
+    int res = cache.lookup(f, pair._id, OP_VECCOMPOSE, 0);
+    if (res >= 0) {
+      return res;
+    }
+    int lo = veccomposeRec(w, lowOf(f), pair);
+    int hi = veccomposeRec(w, highOf(f), pair);
+    res = iteRec(w, pair._byLevel[levelOf(f)], hi, lo);
+    cache.insert(f, pair._id, OP_VECCOMPOSE, 0, res);
+    return res;
+  }
+
+  //// Satisfying assignments
+
+  private int makeSatNode(Worker w, int level, int child, boolean useLow) {
+    return mk(w, level, useLow ? child : BDDZERO, useLow ? BDDZERO : child);
+  }
+
+  private int satOneRec(Worker w, int r) {
+    if (r < 2) {
+      return r;
+    }
+    boolean useHigh = lowOf(r) == BDDZERO;
+    int child = satOneRec(w, useHigh ? highOf(r) : lowOf(r));
+    return makeSatNode(w, levelOf(r), child, !useHigh);
+  }
+
+  private int satOneSetRec(Worker w, int r, int var, boolean pol) {
+    if (r < 2 && var < 2) {
+      return r;
+    }
+    int lr = levelOf(r);
+    int lv = levelOf(var);
+    if (lv < lr) {
+      return makeSatNode(w, lv, satOneSetRec(w, r, highOf(var), pol), !pol);
+    }
+    boolean useHigh = lowOf(r) == BDDZERO;
+    int nextVar = lr == lv ? highOf(var) : var;
+    int child = satOneSetRec(w, useHigh ? highOf(r) : lowOf(r), nextVar, pol);
+    return makeSatNode(w, lr, child, !useHigh);
+  }
+
+  private int fullSatOneRec(Worker w, int r) {
+    if (r < 2) {
+      return r;
+    }
+    boolean useLow = lowOf(r) != BDDZERO;
+    int child = fullSatOneRec(w, useLow ? lowOf(r) : highOf(r));
+    for (int v = levelOf(child) - 1; v > levelOf(r); v--) {
+      child = makeSatNode(w, v, child, true);
+    }
+    return makeSatNode(w, levelOf(r), child, useLow);
+  }
+
+  private int randomFullSatOneRec(Worker w, int r, int level, int seed) {
+    if (level == _varNum) {
+      return r;
+    }
+    // Deterministic in the path taken, not the node ids, like JFactory.
+    int newSeed = seed * 31 + level;
+    boolean preferLow = (newSeed & 65536) == 0;
+    if (level < levelOf(r)) {
+      if (preferLow) {
+        newSeed *= 23;
+      }
+      int next = randomFullSatOneRec(w, r, level + 1, newSeed);
+      return makeSatNode(w, level, next, preferLow);
+    }
+    int lo = lowOf(r);
+    int hi = highOf(r);
+    boolean useLow = lo != BDDZERO && preferLow || hi == BDDZERO;
+    if (useLow) {
+      newSeed *= 23;
+    }
+    int next = randomFullSatOneRec(w, useLow ? lo : hi, level + 1, newSeed);
+    return makeSatNode(w, level, next, useLow);
+  }
+
+  private boolean isAssignment(int r) {
+    while (r >= 2) {
+      if (lowOf(r) == BDDZERO) {
+        r = highOf(r);
+      } else if (highOf(r) == BDDZERO) {
+        r = lowOf(r);
+      } else {
+        return false;
+      }
+    }
+    return r == BDDONE;
+  }
+
+  //// Counting and traversal
+
+  private BigInteger satCountRec(int r) {
+    if (r < 2) {
+      return r == BDDZERO ? BigInteger.ZERO : BigInteger.ONE;
+    }
+    CountCache cache = _countCache;
+    BigInteger res = cache.lookup(r, COUNT_SAT);
+    if (res != null) {
+      return res;
+    }
+    int level = levelOf(r);
+    int lo = lowOf(r);
+    int hi = highOf(r);
+    res =
+        satCountRec(lo)
+            .shiftLeft(levelOf(lo) - level - 1)
+            .add(satCountRec(hi).shiftLeft(levelOf(hi) - level - 1));
+    cache.insert(r, COUNT_SAT, res);
+    return res;
+  }
+
+  private BigInteger pathCountRec(int r) {
+    if (r < 2) {
+      return r == BDDZERO ? BigInteger.ZERO : BigInteger.ONE;
+    }
+    CountCache cache = _countCache;
+    BigInteger res = cache.lookup(r, COUNT_PATH);
+    if (res != null) {
+      return res;
+    }
+    res = pathCountRec(lowOf(r)).add(pathCountRec(highOf(r)));
+    cache.insert(r, COUNT_PATH, res);
+    return res;
+  }
+
+  /** Calls {@code visitor} once on each non-terminal node reachable from the roots. */
+  private void forEachNode(int[] roots, IntConsumer visitor) {
+    NodeSet visited = new NodeSet();
+    int[] stack = new int[64];
+    int size = 0;
+    for (int root : roots) {
+      check(root);
+      if (root >= 2 && visited.add(root)) {
+        if (size == stack.length) {
+          stack = Arrays.copyOf(stack, size * 2);
+        }
+        stack[size++] = root;
+      }
+    }
+    while (size > 0) {
+      int n = stack[--size];
+      visitor.accept(n);
+      if (size + 2 > stack.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2);
+      }
+      int lo = lowOf(n);
+      int hi = highOf(n);
+      if (lo >= 2 && visited.add(lo)) {
+        stack[size++] = lo;
+      }
+      if (hi >= 2 && visited.add(hi)) {
+        stack[size++] = hi;
+      }
+    }
+  }
+
+  private int nodeCount(int[] roots) {
+    int[] count = new int[1];
+    forEachNode(roots, n -> count[0]++);
+    return count[0];
+  }
+
+  /** A minimal open-addressing hash set of non-terminal node indices. */
+  private static final class NodeSet {
+    private int[] _table = new int[64];
+    private int _size;
+
+    private boolean add(int n) {
+      int mask = _table.length - 1;
+      int slot = (n * 0x9E3779B9) >>> 7 & mask;
+      while (_table[slot] != 0) {
+        if (_table[slot] == n) {
+          return false;
+        }
+        slot = (slot + 1) & mask;
+      }
+      _table[slot] = n;
+      if (++_size * 2 > _table.length) {
+        int[] old = _table;
+        _table = new int[old.length * 2];
+        _size = 0;
+        for (int m : old) {
+          if (m != 0) {
+            add(m);
+          }
+        }
+      }
+      return true;
+    }
+  }
+
+  //// Variables
+
+  private void setVarNumWhileStopped(int num) {
+    if (num < 1 || num > MAXVAR) {
+      throw new BDDException("Value out of range");
+    }
+    if (num < _varNum) {
+      throw new BDDException("Trying to decrease the number of variables");
+    }
+    if (num == _varNum) {
+      return;
+    }
+    int oldNum = _varNum;
+    ensureAvailableNodes(2 * (num - oldNum));
+    ensureUniqueHeadroom(2 * (num - oldNum));
+    _var2level = Arrays.copyOf(_var2level, num + 1);
+    _level2var = Arrays.copyOf(_level2var, num + 1);
+    _varNodes = Arrays.copyOf(_varNodes, 2 * num);
+    for (int v = oldNum; v <= num; v++) {
+      _var2level[v] = v;
+      _level2var[v] = v;
+    }
+    _varNum = num;
+    // the terminals are below every variable
+    _nodes[0] = num;
+    _nodes[NODE_SIZE] = num;
+
+    Worker w = stoppedWorker();
+    for (int v = oldNum; v < num; v++) {
+      _varNodes[2 * v] = mk(w, v, BDDZERO, BDDONE);
+      addRef(_varNodes[2 * v]);
+      _varNodes[2 * v + 1] = mk(w, v, BDDONE, BDDZERO);
+      addRef(_varNodes[2 * v + 1]);
+    }
+    _orderVersion++;
+    flushCaches();
+  }
+
+  /** The live nodes at {@code level} with a child at the level below. */
+  private int[] nodesToRewrite(int level) {
+    int[] nodes = _nodes;
+    int below = level + 1;
+    int[] result = new int[16];
+    int count = 0;
+    for (int n = 2; n < _nodeCapacity; n++) {
+      int base = n * NODE_SIZE;
+      if (nodes[base] != level || nodes[base + 1] == INVALID_BDD) {
+        continue;
+      }
+      if (levelOf(nodes[base + 1]) == below || levelOf(nodes[base + 2]) == below) {
+        if (count == result.length) {
+          result = Arrays.copyOf(result, count * 2);
+        }
+        result[count++] = n;
+      }
+    }
+    return Arrays.copyOf(result, count);
+  }
+
+  /**
+   * Swaps the variables at {@code level} and {@code level + 1}, rewriting nodes in place so that
+   * every BDD keeps representing the same function.
+   */
+  private void swapLevels(int level) {
+    int below = level + 1;
+    int[] rewrite = nodesToRewrite(level);
+    if (freeNodeCount() < 2 * rewrite.length) {
+      collect();
+      rewrite = nodesToRewrite(level);
+      ensureAvailableNodes(2 * rewrite.length);
+    }
+    ensureUniqueHeadroom(2 * rewrite.length);
+
+    // The cofactors of each node to rewrite, with respect to the variables at level and below.
+    int[] cofactors = new int[4 * rewrite.length];
+    for (int i = 0; i < rewrite.length; i++) {
+      int n = rewrite[i];
+      int lo = lowOf(n);
+      int hi = highOf(n);
+      boolean loBelow = levelOf(lo) == below;
+      boolean hiBelow = levelOf(hi) == below;
+      cofactors[4 * i] = loBelow ? lowOf(lo) : lo;
+      cofactors[4 * i + 1] = loBelow ? highOf(lo) : lo;
+      cofactors[4 * i + 2] = hiBelow ? lowOf(hi) : hi;
+      cofactors[4 * i + 3] = hiBelow ? highOf(hi) : hi;
+    }
+
+    int[] nodes = _nodes;
+    for (int n : rewrite) {
+      // keep these out of the way of mk until they are rewritten
+      nodes[n * NODE_SIZE] = -1;
+    }
+    int upperVar = _level2var[level];
+    int lowerVar = _level2var[below];
+    _level2var[level] = lowerVar;
+    _level2var[below] = upperVar;
+    _var2level[lowerVar] = level;
+    _var2level[upperVar] = below;
+    for (int n = 2; n < _nodeCapacity; n++) {
+      int base = n * NODE_SIZE;
+      if (nodes[base + 1] == INVALID_BDD) {
+        continue;
+      }
+      if (nodes[base] == level) {
+        nodes[base] = below;
+      } else if (nodes[base] == below) {
+        nodes[base] = level;
+      }
+    }
+
+    Worker w = stoppedWorker();
+    for (int i = 0; i < rewrite.length; i++) {
+      int n = rewrite[i];
+      int lo = mk(w, below, cofactors[4 * i], cofactors[4 * i + 2]);
+      int hi = mk(w, below, cofactors[4 * i + 1], cofactors[4 * i + 3]);
+      int base = n * NODE_SIZE;
+      nodes[base] = level;
+      nodes[base + 1] = lo;
+      nodes[base + 2] = hi;
+      insertUnique(n);
+    }
+    _staleUniqueEntries += rewrite.length;
+  }
+
+  //// Pairings
+
+  /** An immutable view of a pairing, for the current variable order. */
+  private static final class PairSnapshot {
+    private final int _id;
+    private final int _orderVersion;
+
+    /** The node to substitute for the variable at each level. */
+    private final int[] _byLevel;
+
+    /** The deepest level with a substitution. */
+    private final int _last;
+
+    private PairSnapshot(int id, int orderVersion, int[] byLevel, int last) {
+      _id = id;
+      _orderVersion = orderVersion;
+      _byLevel = byLevel;
+      _last = last;
+    }
+  }
+
+  private final class Pairing extends BDDPairing {
+    /** The node to substitute for each variable, or {@link #INVALID_BDD} if none. */
+    private int[] _byVar = new int[0];
+
+    private int _id = _pairIds.incrementAndGet();
+    private volatile PairSnapshot _snapshot;
+
+    @Override
+    public void set(int oldvar, int newvar) {
+      Worker w = enter();
+      try {
+        checkVar(oldvar);
+        checkVar(newvar);
+        put(oldvar, _varNodes[2 * newvar]);
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public void set(int oldvar, BDD newvar) {
+      int node = ((BDDImpl) newvar)._index;
+      Worker w = enter();
+      try {
+        checkVar(oldvar);
+        check(node);
+        put(oldvar, node);
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public void reset() {
+      Worker w = enter();
+      try {
+        for (int node : _byVar) {
+          if (node != INVALID_BDD) {
+            delRef(node);
+          }
+        }
+        _byVar = new int[0];
+        changed();
+      } finally {
+        exit(w);
+      }
+    }
+
+    private void put(int var, int node) {
+      if (var >= _byVar.length) {
+        int oldLength = _byVar.length;
+        _byVar = Arrays.copyOf(_byVar, var + 1);
+        Arrays.fill(_byVar, oldLength, var + 1, INVALID_BDD);
+      }
+      addRef(node);
+      if (_byVar[var] != INVALID_BDD) {
+        delRef(_byVar[var]);
+      }
+      _byVar[var] = node;
+      changed();
+    }
+
+    private void changed() {
+      _id = _pairIds.incrementAndGet();
+      _snapshot = null;
+    }
+
+    /** Must be called inside an operation. */
+    private PairSnapshot snapshot() {
+      PairSnapshot snapshot = _snapshot;
+      if (snapshot != null && snapshot._orderVersion == _orderVersion) {
+        return snapshot;
+      }
+      int[] byLevel = new int[_varNum];
+      int last = -1;
+      for (int level = 0; level < _varNum; level++) {
+        int var = _level2var[level];
+        int node = var < _byVar.length ? _byVar[var] : INVALID_BDD;
+        if (node == INVALID_BDD) {
+          byLevel[level] = _varNodes[2 * var];
+        } else {
+          byLevel[level] = node;
+          last = level;
+        }
+      }
+      snapshot = new PairSnapshot(_id, _orderVersion, byLevel, last);
+      _snapshot = snapshot;
+      return snapshot;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder("{");
+      Worker w = enter();
+      try {
+        boolean first = true;
+        for (int var = 0; var < _byVar.length; var++) {
+          int node = _byVar[var];
+          if (node == INVALID_BDD || node == _varNodes[2 * var]) {
+            continue;
+          }
+          if (!first) {
+            sb.append(", ");
+          }
+          first = false;
+          BDDImpl b = new BDDImpl(node);
+          sb.append(var).append('=').append(b);
+          b.free();
+        }
+      } finally {
+        exit(w);
+      }
+      return sb.append('}').toString();
+    }
+  }
+
+  //// BDD handles
+
+  private static int index(BDD bdd) {
+    return ((BDDImpl) bdd)._index;
+  }
+
+  private final class BDDImpl extends BDD {
+    private int _index;
+
+    /** Must be called inside an operation, unless the node is a terminal. */
+    private BDDImpl(int index) {
+      _index = index;
+      addRef(index);
+    }
+
+    @Override
+    public BDDFactory getFactory() {
+      return ConcurrentFactory.this;
+    }
+
+    @Override
+    public boolean isAssignment() {
+      Worker w = enter();
+      try {
+        check(_index);
+        return ConcurrentFactory.this.isAssignment(_index);
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public boolean isZero() {
+      return _index == BDDZERO;
+    }
+
+    @Override
+    public boolean isOne() {
+      return _index == BDDONE;
+    }
+
+    @Override
+    public int var() {
+      Worker w = enter();
+      try {
+        check(_index);
+        if (_index < 2) {
+          throw new BDDException("cannot get var of terminal");
+        }
+        return _level2var[levelOf(_index)];
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public BDD high() {
+      int r = _index;
+      return newBDD(
+          w -> {
+            check(r);
+            if (r < 2) {
+              throw new BDDException("cannot get high of terminal");
+            }
+            return highOf(r);
+          });
+    }
+
+    @Override
+    public BDD low() {
+      int r = _index;
+      return newBDD(
+          w -> {
+            check(r);
+            if (r < 2) {
+              throw new BDDException("cannot get low of terminal");
+            }
+            return lowOf(r);
+          });
+    }
+
+    @Override
+    public BDD id() {
+      int r = _index;
+      return newBDD(
+          w -> {
+            check(r);
+            return r;
+          });
+    }
+
+    @Override
+    public BDD not() {
+      int r = _index;
+      return newBDD(
+          w -> {
+            check(r);
+            return notRec(w, r);
+          });
+    }
+
+    @Override
+    public boolean andSat(BDD that) {
+      int l = _index;
+      int r = index(that);
+      Worker w = enter();
+      try {
+        check(l);
+        check(r);
+        return andSatRec(l, r);
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public boolean diffSat(BDD that) {
+      int l = _index;
+      int r = index(that);
+      Worker w = enter();
+      try {
+        check(l);
+        check(r);
+        return diffSatRec(l, r);
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public BDD ite(BDD thenBDD, BDD elseBDD) {
+      int f = _index;
+      int g = index(thenBDD);
+      int h = index(elseBDD);
+      return newBDD(
+          w -> {
+            check(f);
+            check(g);
+            check(h);
+            return iteRec(w, f, g, h);
+          });
+    }
+
+    @Override
+    public BDD relprod(BDD that, BDD var) {
+      return applyEx(that, BDDFactory.and, var);
+    }
+
+    @Override
+    public BDD compose(BDD g, int var) {
+      int f = _index;
+      int x = index(g);
+      return newBDD(
+          w -> {
+            check(f);
+            check(x);
+            checkVar(var);
+            return composeRec(w, f, x, _var2level[var]);
+          });
+    }
+
+    @Override
+    public BDD veccompose(BDDPairing pair) {
+      int f = _index;
+      Pairing p = (Pairing) pair;
+      return newBDD(
+          w -> {
+            check(f);
+            return veccomposeRec(w, f, p.snapshot());
+          });
+    }
+
+    @Override
+    public BDD constrain(BDD that) {
+      int f = _index;
+      int c = index(that);
+      return newBDD(
+          w -> {
+            check(f);
+            check(c);
+            return constrainRec(w, f, c);
+          });
+    }
+
+    @Override
+    public BDD exist(BDD var) {
+      return quantify(var, QUANT_EXIST);
+    }
+
+    @Override
+    public BDD forAll(BDD var) {
+      return quantify(var, QUANT_FORALL);
+    }
+
+    private BDD quantify(BDD var, int kind) {
+      int r = _index;
+      int v = index(var);
+      return newBDD(
+          w -> {
+            check(r);
+            check(v);
+            checkVarset(v);
+            if (v < 2) {
+              return r;
+            }
+            loadVarset(w, v);
+            return quantRec(w, r, v, kind);
+          });
+    }
+
+    @Override
+    public BDD project(BDD var) {
+      int r = _index;
+      int v = index(var);
+      return newBDD(
+          w -> {
+            check(r);
+            check(v);
+            checkVarset(v);
+            if (v < 2) {
+              return r == BDDZERO ? BDDZERO : BDDONE;
+            }
+            loadVarset(w, v);
+            return projectRec(w, r, v);
+          });
+    }
+
+    @Override
+    public BDD unique(BDD var) {
+      int r = _index;
+      int v = index(var);
+      return newBDD(
+          w -> {
+            check(r);
+            check(v);
+            checkVarset(v);
+            if (v < 2) {
+              return r;
+            }
+            return uniqueRec(w, r, v);
+          });
+    }
+
+    @Override
+    public BDD restrict(BDD var) {
+      int r = _index;
+      int v = index(var);
+      return newBDD(w -> restrict(w, r, v));
+    }
+
+    @Override
+    public BDD restrictWith(BDD var) {
+      int r = _index;
+      int v = index(var);
+      replaceIndex(r, w -> restrict(w, r, v));
+      if (this != var) {
+        var.free();
+      }
+      return this;
+    }
+
+    private int restrict(Worker w, int r, int v) {
+      check(r);
+      check(v);
+      if (v < 2) {
+        return r;
+      }
+      loadSignedVarset(w, v);
+      return restrictRec(w, r, v);
+    }
+
+    @Override
+    public BDD simplify(BDD d) {
+      int f = _index;
+      int x = index(d);
+      return newBDD(
+          w -> {
+            check(f);
+            check(x);
+            return simplifyRec(w, f, x);
+          });
+    }
+
+    @Override
+    public BDD support() {
+      int r = _index;
+      return newBDD(
+          w -> {
+            BitSet levels = new BitSet(_varNum);
+            forEachNode(new int[] {r}, n -> levels.set(levelOf(n)));
+            int res = BDDONE;
+            for (int level = levels.length() - 1;
+                level >= 0;
+                level = levels.previousSetBit(level - 1)) {
+              res = mk(w, level, BDDZERO, res);
+            }
+            return res;
+          });
+    }
+
+    @Override
+    public BDD apply(BDD that, BDDOp opr) {
+      int l = _index;
+      int r = index(that);
+      return newBDD(w -> apply(w, l, r, opr.id));
+    }
+
+    @Override
+    public BDD applyWith(BDD that, BDDOp opr) {
+      int l = _index;
+      int r = index(that);
+      replaceIndex(l, w -> apply(w, l, r, opr.id));
+      if (this != that) {
+        that.free();
+      }
+      return this;
+    }
+
+    private int apply(Worker w, int l, int r, int op) {
+      check(l);
+      check(r);
+      return applyRec(w, l, r, op);
+    }
+
+    @Override
+    public BDD applyAll(BDD that, BDDOp opr, BDD var) {
+      int l = _index;
+      int r = index(that);
+      int v = index(var);
+      int op = opr.id;
+      return newBDD(
+          w -> {
+            check(l);
+            check(r);
+            check(v);
+            checkVarset(v);
+            if (v < 2) {
+              return applyRec(w, l, r, op);
+            }
+            loadVarset(w, v);
+            return appQuantRec(w, l, r, op, v, QUANT_FORALL);
+          });
+    }
+
+    @Override
+    public BDD applyEx(BDD that, BDDOp opr, BDD var) {
+      int l = _index;
+      int r = index(that);
+      int v = index(var);
+      int op = opr.id;
+      return newBDD(
+          w -> {
+            check(l);
+            check(r);
+            check(v);
+            checkVarset(v);
+            if (v < 2) {
+              return applyRec(w, l, r, op);
+            }
+            loadVarset(w, v);
+            return op == OP_AND ? relprodRec(w, l, r, v) : appQuantRec(w, l, r, op, v, QUANT_EXIST);
+          });
+    }
+
+    @Override
+    public BDD applyUni(BDD that, BDDOp opr, BDD var) {
+      int l = _index;
+      int r = index(that);
+      int v = index(var);
+      int op = opr.id;
+      return newBDD(
+          w -> {
+            check(l);
+            check(r);
+            check(v);
+            checkVarset(v);
+            return appUniRec(w, l, r, op, v);
+          });
+    }
+
+    @Override
+    public BDD satOne() {
+      int r = _index;
+      return newBDD(
+          w -> {
+            check(r);
+            return satOneRec(w, r);
+          });
+    }
+
+    @Override
+    public BDD fullSatOne() {
+      int r = _index;
+      return newBDD(
+          w -> {
+            check(r);
+            if (r == BDDZERO) {
+              return BDDZERO;
+            }
+            int res = fullSatOneRec(w, r);
+            for (int v = levelOf(r) - 1; v >= 0; v--) {
+              res = makeSatNode(w, v, res, true);
+            }
+            return res;
+          });
+    }
+
+    @Override
+    public BitSet minAssignmentBits() {
+      Worker w = enter();
+      try {
+        check(_index);
+        BitSet set = new BitSet(_varNum);
+        for (int r = _index; r >= 2; ) {
+          if (lowOf(r) == BDDZERO) {
+            set.set(levelOf(r));
+            r = highOf(r);
+          } else {
+            r = lowOf(r);
+          }
+        }
+        return set;
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public BDD randomFullSatOne(int seed) {
+      int r = _index;
+      return newBDD(
+          w -> {
+            check(r);
+            return r == BDDZERO ? BDDZERO : randomFullSatOneRec(w, r, 0, seed);
+          });
+    }
+
+    @Override
+    public BDD satOne(BDD var, boolean pol) {
+      int r = _index;
+      int v = index(var);
+      return newBDD(
+          w -> {
+            check(r);
+            check(v);
+            return r == BDDZERO ? BDDZERO : satOneSetRec(w, r, v, pol);
+          });
+    }
+
+    @Override
+    public BDD replace(BDDPairing pair) {
+      int r = _index;
+      Pairing p = (Pairing) pair;
+      return newBDD(
+          w -> {
+            check(r);
+            return replaceRec(w, r, p.snapshot());
+          });
+    }
+
+    @Override
+    public BDD replaceWith(BDDPairing pair) {
+      int r = _index;
+      Pairing p = (Pairing) pair;
+      replaceIndex(
+          r,
+          w -> {
+            check(r);
+            return replaceRec(w, r, p.snapshot());
+          });
+      return this;
+    }
+
+    /** Points this handle at the result of {@code op}, releasing its old node. */
+    private void replaceIndex(int old, NodeOperation op) {
+      Worker w = enter();
+      try {
+        int res = run(w, op);
+        addRef(res);
+        delRef(old);
+        _index = res;
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public int nodeCount() {
+      Worker w = enter();
+      try {
+        return ConcurrentFactory.this.nodeCount(new int[] {_index});
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public double pathCount() {
+      Worker w = enter();
+      try {
+        check(_index);
+        return pathCountRec(_index).doubleValue();
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public double satCount() {
+      Worker w = enter();
+      try {
+        check(_index);
+        return satCountRec(_index).shiftLeft(levelOf(_index)).doubleValue();
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public int[] varProfile() {
+      Worker w = enter();
+      try {
+        int[] profile = new int[_varNum];
+        forEachNode(new int[] {_index}, n -> profile[_level2var[levelOf(n)]]++);
+        return profile;
+      } finally {
+        exit(w);
+      }
+    }
+
+    @Override
+    public boolean equals(BDD that) {
+      return _index == index(that);
+    }
+
+    @Override
+    public int hashCode() {
+      return _index;
+    }
+
+    @Override
+    public void free() {
+      Worker w = enter();
+      try {
+        delRef(_index);
+      } finally {
+        exit(w);
+      }
+      _index = INVALID_BDD;
+    }
+  }
+
+  //// BDDFactory
+
+  @Override
+  public BDD zero() {
+    return new BDDImpl(BDDZERO);
+  }
+
+  @Override
+  public BDD one() {
+    return new BDDImpl(BDDONE);
+  }
+
+  @Override
+  protected void initialize(int nodenum, int cachesize) {
+    stopTheWorld(
+        () -> {
+          if (_running) {
+            throw new BDDException("initialize() called twice");
+          }
+          int capacity = Math.min(Math.max(nodenum, MIN_CAPACITY), MAX_CAPACITY);
+          _nodes = new int[capacity * NODE_SIZE];
+          for (int n = 2; n < capacity; n++) {
+            _nodes[n * NODE_SIZE + 1] = INVALID_BDD;
+          }
+          // the terminals have level varNum, and are their own children
+          _nodes[NODE_SIZE + 1] = BDDONE;
+          _nodes[NODE_SIZE + 2] = BDDONE;
+          _refs = new AtomicIntegerArray(capacity);
+          _nodeCapacity = capacity;
+
+          _varNum = 0;
+          _var2level = new int[] {0};
+          _level2var = new int[] {0};
+          _varNodes = new int[0];
+          _orderVersion++;
+
+          rebuildUniqueTable(uniqueTableSize(capacity));
+          _freeList = null;
+          rebuildFreeList();
+          _cacheSize = cachesize;
+          flushCaches();
+          _errorCondition = 0;
+          _running = true;
+        });
+  }
+
+  @Override
+  public boolean isInitialized() {
+    return _running;
+  }
+
+  @Override
+  public void done() {
+    stopTheWorld(
+        () -> {
+          _running = false;
+          _nodes = null;
+          _refs = null;
+          _unique = null;
+          _freeList = null;
+          _freeCount = 0;
+          _freeCursor.set(0);
+          _epoch++;
+          _nodeCapacity = 0;
+          _varNum = 0;
+          _applyCache = null;
+          _quantCache = null;
+          _appexCache = null;
+          _replaceCache = null;
+          _miscCache = null;
+          _multiOpCache = null;
+          _countCache = null;
+        });
+  }
+
+  @Override
+  public void setError(int code) {
+    _errorCondition = code;
+  }
+
+  @Override
+  public void clearError() {
+    _errorCondition = 0;
+  }
+
+  @Override
+  public int setMaxNodeNum(int size) {
+    int[] old = new int[1];
+    stopTheWorld(
+        () -> {
+          if (size > _nodeCapacity || size == 0) {
+            old[0] = _maxNodeSize;
+            _maxNodeSize = size;
+          } else {
+            throw new BDDException("Illegal size");
+          }
+        });
+    return old[0];
+  }
+
+  @Override
+  public double setMinFreeNodes(double x) {
+    int[] old = new int[1];
+    stopTheWorld(
+        () -> {
+          old[0] = _minFreeNodes;
+          _minFreeNodes = (int) (x * 100);
+        });
+    return old[0] / 100.0;
+  }
+
+  @Override
+  public int setMaxIncrease(int x) {
+    int[] old = new int[1];
+    stopTheWorld(
+        () -> {
+          if (x < 0) {
+            throw new BDDException("Illegal size");
+          }
+          old[0] = _maxNodeIncrease;
+          _maxNodeIncrease = x;
+        });
+    return old[0];
+  }
+
+  @Override
+  public double setIncreaseFactor(double x) {
+    double[] old = new double[1];
+    stopTheWorld(
+        () -> {
+          if (x < 0) {
+            throw new BDDException("Illegal increase factor");
+          }
+          old[0] = _increaseFactor;
+          _increaseFactor = x;
+        });
+    return old[0];
+  }
+
+  @Override
+  public int setCacheRatio(int x) {
+    int[] old = new int[1];
+    stopTheWorld(
+        () -> {
+          if (x <= 0) {
+            throw new BDDException("Illegal cache ratio");
+          }
+          old[0] = _cacheRatio;
+          _cacheRatio = x;
+          if (_running) {
+            _cacheSize = Math.max(MIN_CACHE_SIZE, _nodeCapacity / x);
+            flushCaches();
+          }
+        });
+    return old[0];
+  }
+
+  @Override
+  public BDD orAll(BDD... bddOperands) {
+    return orAll(Arrays.asList(bddOperands));
+  }
+
+  @Override
+  public BDD orAll(Collection<BDD> bddOperands) {
+    int[] operands =
+        bddOperands.stream()
+            .mapToInt(ConcurrentFactory::index)
+            .filter(i -> i != BDDZERO)
+            .sorted()
+            .distinct()
+            .toArray();
+    if (operands.length == 0) {
+      return zero();
+    } else if (operands[0] == BDDONE) {
+      return one();
+    }
+    return newBDD(
+        w -> {
+          for (int operand : operands) {
+            check(operand);
+          }
+          return orAllRec(w, operands.clone());
+        });
+  }
+
+  @Override
+  public int setNodeTableSize(int n) {
+    int[] old = new int[1];
+    stopTheWorld(
+        () -> {
+          old[0] = _nodeCapacity;
+          growNodeTable(Math.min(n, MAX_CAPACITY));
+        });
+    return old[0];
+  }
+
+  @Override
+  public int setCacheSize(int n) {
+    int[] old = new int[1];
+    stopTheWorld(
+        () -> {
+          old[0] = _cacheSize;
+          _cacheSize = n;
+          flushCaches();
+        });
+    return old[0];
+  }
+
+  @Override
+  public int varNum() {
+    return _varNum;
+  }
+
+  @Override
+  public int setVarNum(int num) {
+    int[] old = new int[1];
+    stopTheWorld(
+        () -> {
+          old[0] = _varNum;
+          setVarNumWhileStopped(num);
+        });
+    return old[0];
+  }
+
+  @Override
+  public BDD ithVar(int var) {
+    Worker w = enter();
+    try {
+      checkVar(var);
+      return new BDDImpl(_varNodes[2 * var]);
+    } finally {
+      exit(w);
+    }
+  }
+
+  @Override
+  public BDD nithVar(int var) {
+    Worker w = enter();
+    try {
+      checkVar(var);
+      return new BDDImpl(_varNodes[2 * var + 1]);
+    } finally {
+      exit(w);
+    }
+  }
+
+  @Override
+  public void printAll() {
+    stopTheWorld(
+        () -> {
+          for (int n = 0; n < _nodeCapacity; n++) {
+            if (n < 2 || lowOf(n) != INVALID_BDD) {
+              printNode(n);
+            }
+          }
+        });
+  }
+
+  @Override
+  public void printTable(BDD b) {
+    int r = index(b);
+    Worker w = enter();
+    try {
+      check(r);
+      System.out.println("ROOT: " + r);
+      forEachNode(new int[] {r}, this::printNode);
+    } finally {
+      exit(w);
+    }
+  }
+
+  private void printNode(int n) {
+    System.out.println(
+        "[" + n + "] " + (n < 2 ? "" : _level2var[levelOf(n)]) + ": " + lowOf(n) + " " + highOf(n));
+  }
+
+  @Override
+  public int level2Var(int level) {
+    return _level2var[level];
+  }
+
+  @Override
+  public int var2Level(int var) {
+    return _var2level[var];
+  }
+
+  @Override
+  public void setVarOrder(int[] neworder) {
+    stopTheWorld(
+        () -> {
+          if (neworder.length != _varNum) {
+            throw new BDDException("Illegal variable order");
+          }
+          boolean[] seen = new boolean[_varNum];
+          for (int var : neworder) {
+            if (var < 0 || var >= _varNum || seen[var]) {
+              throw new BDDException("Illegal variable order");
+            }
+            seen[var] = true;
+          }
+          reorder_handler(true, reorderstats);
+          collect();
+          for (int level = 0; level < _varNum; level++) {
+            int var = neworder[level];
+            while (_var2level[var] > level) {
+              swapLevels(_var2level[var] - 1);
+            }
+          }
+          _orderVersion++;
+          flushCaches();
+          collect();
+          reorder_handler(false, reorderstats);
+        });
+  }
+
+  @Override
+  public BDDPairing makePair() {
+    return new Pairing();
+  }
+
+  @Override
+  public int duplicateVar(int var) {
+    int[] result = new int[1];
+    stopTheWorld(
+        () -> {
+          checkVar(var);
+          int newVar = _varNum;
+          int level = _var2level[var];
+          setVarNumWhileStopped(_varNum + 1);
+          // move the new variable just below var
+          for (int l = _varNum - 2; l > level; l--) {
+            swapLevels(l);
+          }
+
+          // Every node on var now also requires the new variable to be false, like JFactory.
+          int[] nodes = _nodes;
+          int count = 0;
+          for (int n = 2; n < _nodeCapacity; n++) {
+            if (nodes[n * NODE_SIZE] == level && nodes[n * NODE_SIZE + 1] != INVALID_BDD) {
+              count++;
+            }
+          }
+          ensureAvailableNodes(2 * count + 2);
+          ensureUniqueHeadroom(2 * count + 2);
+          nodes = _nodes;
+          Worker w = stoppedWorker();
+          for (int n = 2; n < _nodeCapacity; n++) {
+            int base = n * NODE_SIZE;
+            if (nodes[base] != level || nodes[base + 1] == INVALID_BDD) {
+              continue;
+            }
+            int lo = mk(w, level + 1, nodes[base + 1], BDDZERO);
+            int hi = mk(w, level + 1, nodes[base + 2], BDDZERO);
+            nodes[base + 1] = lo;
+            nodes[base + 2] = hi;
+            insertUnique(n);
+            _staleUniqueEntries++;
+          }
+
+          // the old variable nodes were rewritten too, so make new ones
+          delRef(_varNodes[2 * var]);
+          delRef(_varNodes[2 * var + 1]);
+          _varNodes[2 * var] = mk(w, level, BDDZERO, BDDONE);
+          addRef(_varNodes[2 * var]);
+          _varNodes[2 * var + 1] = mk(w, level, BDDONE, BDDZERO);
+          addRef(_varNodes[2 * var + 1]);
+
+          _orderVersion++;
+          flushCaches();
+          result[0] = newVar;
+        });
+    return result[0];
+  }
+
+  @Override
+  public String getVersion() {
+    return VERSION;
+  }
+
+  @Override
+  public int nodeCount(Collection<BDD> r) {
+    int[] roots = r.stream().mapToInt(ConcurrentFactory::index).toArray();
+    Worker w = enter();
+    try {
+      return nodeCount(roots);
+    } finally {
+      exit(w);
+    }
+  }
+
+  @Override
+  public int getNodeTableSize() {
+    return _nodeCapacity;
+  }
+
+  @Override
+  public int getNodeNum() {
+    return _nodeCapacity - freeNodeCount();
+  }
+
+  @Override
+  public int getCacheSize() {
+    return _cacheSize;
+  }
+
+  @Override
+  public void printStat() {
+    System.out.println(
+        getVersion()
+            + ": "
+            + getNodeNum()
+            + " of "
+            + getNodeTableSize()
+            + " nodes in use, "
+            + gcstats.num
+            + " garbage collections ("
+            + gcstats.sumtime
+            + " ms)");
+  }
+
+  @Override
+  protected BDDDomain createDomain(int a, BigInteger b) {
+    return new DomainImpl(a, b);
+  }
+
+  private class DomainImpl extends BDDDomain {
+    DomainImpl(int a, BigInteger b) {
+      super(a, b);
+    }
+
+    @Override
+    public BDDFactory getFactory() {
+      return ConcurrentFactory.this;
+    }
+  }
+
+  @Override
+  protected BDDBitVector createBitVector(int a) {
+    return new BitVectorImpl(a);
+  }
+
+  private class BitVectorImpl extends BDDBitVector {
+    BitVectorImpl(int bitnum) {
+      super(bitnum);
+    }
+
+    @Override
+    public BDDFactory getFactory() {
+      return ConcurrentFactory.this;
+    }
+  }
+}
@@ -0,0 +1,303 @@
+package net.sf.javabdd;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import org.junit.Test;
+
+/** Tests of {@link ConcurrentFactory}, mostly by comparison with {@link JFactory}. */
+public class ConcurrentFactoryTest {
+  private static final int VARS = 10;
+
+  /** A random sequence of operations, run against a pool of BDDs of one factory. */
+  private static final class Script {
+    private final BDDFactory _factory;
+    private final Random _random;
+    private final List<BDD> _pool = new ArrayList<>();
+    private final BDDPairing _swapPair;
+    private final BDDPairing _composePair;
+
+    Script(BDDFactory factory, long seed, List<BDD> shared) {
+      _factory = factory;
+      _random = new Random(seed);
+      if (factory.varNum() < VARS) {
+        factory.setVarNum(VARS);
+      }
+      for (int i = 0; i < VARS; i++) {
+        _pool.add(factory.ithVar(i));
+      }
+      _pool.addAll(shared);
+      _swapPair = factory.makePair();
+      for (int i = 0; i < VARS / 2; i++) {
+        _swapPair.set(i, i + VARS / 2);
+        _swapPair.set(i + VARS / 2, i);
+      }
+      _composePair = factory.makePair();
+      _composePair.set(1, factory.ithVar(2).xor(factory.ithVar(3)));
+      _composePair.set(4, factory.ithVar(0).and(factory.ithVar(7)));
+    }
+
+    private BDD pick() {
+      return _pool.get(_random.nextInt(_pool.size()));
+    }
+
+    private BDD varset() {
+      BDD varset = _factory.one();
+      for (int i = 0; i < VARS; i++) {
+        if (_random.nextInt(3) == 0) {
+          varset.andWith(_factory.ithVar(i));
+        }
+      }
+      return varset;
+    }
+
+    private BDD cube() {
+      BDD cube = _factory.one();
+      for (int i = 0; i < VARS; i++) {
+        int r = _random.nextInt(4);
+        if (r == 0) {
+          cube.andWith(_factory.ithVar(i));
+        } else if (r == 1) {
+          cube.andWith(_factory.nithVar(i));
+        }
+      }
+      return cube;
+    }
+
+    private BDDFactory.BDDOp op() {
+      BDDFactory.BDDOp[] ops = {
+        BDDFactory.and,
+        BDDFactory.xor,
+        BDDFactory.or,
+        BDDFactory.nand,
+        BDDFactory.nor,
+        BDDFactory.imp,
+        BDDFactory.biimp,
+        BDDFactory.diff,
+        BDDFactory.less,
+        BDDFactory.invimp
+      };
+      return ops[_random.nextInt(ops.length)];
+    }
+
+    /** Performs one random operation, returning a description of its result. */
+    String step() {
+      BDD a = pick();
+      BDD b = pick();
+      BDD result;
+      String extra = "";
+      switch (_random.nextInt(22)) {
+        case 0:
+          result = a.and(b);
+          break;
+        case 1:
+          result = a.or(b);
+          break;
+        case 2:
+          result = a.apply(b, op());
+          break;
+        case 3:
+          result = a.not();
+          break;
+        case 4:
+          result = a.ite(b, pick());
+          break;
+        case 5:
+          result = a.exist(varset());
+          break;
+        case 6:
+          result = a.forAll(varset());
+          break;
+        case 7:
+          result = a.unique(varset());
+          break;
+        case 8:
+          result = a.project(varset());
+          break;
+        case 9:
+          result = a.replace(_swapPair);
+          break;
+        case 10:
+          result = a.compose(b, _random.nextInt(VARS));
+          break;
+        case 11:
+          result = a.veccompose(_composePair);
+          break;
+        case 12:
+          result = a.relprod(b, varset());
+          break;
+        case 13:
+          result =
+              _random.nextBoolean() ? a.applyEx(b, op(), varset()) : a.applyAll(b, op(), varset());
+          break;
+        case 14:
+          {
+            // JFactory's applyUni gives wrong answers when both operands test a quantified
+            // variable, so check ours against the definition instead.
+            BDDFactory.BDDOp op = op();
+            BDD varset = varset();
+            result = a.apply(b, op).unique(varset);
+            if (_factory instanceof ConcurrentFactory) {
+              assertThat(a.applyUni(b, op, varset), equalTo(result));
+            }
+          }
+          break;
+        case 15:
+          result = a.constrain(b);
+          break;
+        case 16:
+          result = a.restrict(cube());
+          break;
+        case 17:
+          result = a.simplify(b);
+          break;
+        case 18:
+          result = a.support();
+          break;
+        case 19:
+          result = _random.nextBoolean() ? a.satOne() : a.fullSatOne();
+          break;
+        case 20:
+          result =
+              _random.nextBoolean()
+                  ? a.randomFullSatOne(_random.nextInt())
+                  : a.satOne(varset(), _random.nextBoolean());
+          break;
+        case 21:
+          result = _factory.orAll(a, b, pick(), pick());
+          extra = a.andSat(b) + " " + a.diffSat(b);
+          break;
+        default:
+          throw new IllegalStateException();
+      }
+      String description =
+          result
+              + " "
+              + result.satCount()
+              + " "
+              + result.pathCount()
+              + " "
+              + result.nodeCount()
+              + " "
+              + extra;
+      if (_pool.size() < 64) {
+        _pool.add(result);
+      } else {
+        _pool.set(VARS + _random.nextInt(_pool.size() - VARS), result);
+      }
+      return description;
+    }
+
+    List<String> run(int steps) {
+      List<String> results = new ArrayList<>();
+      for (int i = 0; i < steps; i++) {
+        results.add(step());
+      }
+      return results;
+    }
+  }
+
+  @Test
+  public void testMatchesJFactory() {
+    for (long seed = 0; seed < 20; seed++) {
+      List<String> expected =
+          new Script(JFactory.init(1000, 1000), seed, ImmutableList.of()).run(300);
+      List<String> actual =
+          new Script(ConcurrentFactory.init(1000, 1000), seed, ImmutableList.of()).run(300);
+      assertThat("seed " + seed, actual, equalTo(expected));
+    }
+  }
+
+  /** Runs a script on each of many threads, sharing one small factory that has to GC and grow. */
+  @Test
+  public void testConcurrentScripts() throws Exception {
+    int threads = 8;
+    BDDFactory factory = ConcurrentFactory.init(100, 100);
+    factory.setVarNum(VARS);
+    BDDFactory reference = JFactory.init(1000, 1000);
+    reference.setVarNum(VARS);
+    Function<BDDFactory, List<BDD>> sharedOperands =
+        f ->
+            ImmutableList.of(
+                f.ithVar(0).and(f.ithVar(5)).or(f.nithVar(8)),
+                f.ithVar(2).xor(f.ithVar(6)).xor(f.ithVar(9)));
+    List<BDD> shared = sharedOperands.apply(factory);
+    List<BDD> referenceShared = sharedOperands.apply(reference);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<List<String>>> results = new ArrayList<>();
+      for (int t = 0; t < threads; t++) {
+        long seed = t;
+        results.add(executor.submit(() -> new Script(factory, seed, shared).run(1000)));
+      }
+      for (int t = 0; t < threads; t++) {
+        List<String> expected = new Script(reference, t, referenceShared).run(1000);
+        assertThat("thread " + t, results.get(t).get(), equalTo(expected));
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertThat(factory.getGCStats().num, greaterThan(0));
+    assertThat(factory.getNodeTableSize(), greaterThan(100));
+  }
+
+  @Test
+  public void testSetVarOrder() {
+    BDDFactory jfactory = JFactory.init(1000, 1000);
+    BDDFactory factory = ConcurrentFactory.init(1000, 1000);
+    Script expected = new Script(jfactory, 42, ImmutableList.of());
+    Script actual = new Script(factory, 42, ImmutableList.of());
+    expected.run(200);
+    actual.run(200);
+
+    Random random = new Random(0);
+    for (int i = 0; i < 5; i++) {
+      List<Integer> order = new ArrayList<>();
+      for (int v = 0; v < VARS; v++) {
+        order.add(v);
+      }
+      java.util.Collections.shuffle(order, random);
+      int[] neworder = order.stream().mapToInt(Integer::intValue).toArray();
+      jfactory.setVarOrder(neworder);
+      factory.setVarOrder(neworder);
+      for (int v = 0; v < VARS; v++) {
+        assertThat(factory.var2Level(v), equalTo(jfactory.var2Level(v)));
+      }
+      // reordering must preserve the functions of existing BDDs...
+      for (int b = 0; b < expected._pool.size(); b++) {
+        BDD e = expected._pool.get(b);
+        BDD a = actual._pool.get(b);
+        assertThat(a.toString(), equalTo(e.toString()));
+        assertThat(a.nodeCount(), equalTo(e.nodeCount()));
+      }
+      // ...and operations must keep working
+      assertThat(actual.run(50), equalTo(expected.run(50)));
+    }
+  }
+
+  @Test
+  public void testDuplicateVar() {
+    BDDFactory jfactory = JFactory.init(1000, 1000);
+    BDDFactory factory = ConcurrentFactory.init(1000, 1000);
+    Script expected = new Script(jfactory, 7, ImmutableList.of());
+    Script actual = new Script(factory, 7, ImmutableList.of());
+    expected.run(100);
+    actual.run(100);
+
+    assertThat(factory.duplicateVar(3), equalTo(jfactory.duplicateVar(3)));
+    assertThat(factory.var2Level(VARS), equalTo(jfactory.var2Level(VARS)));
+    for (int b = 0; b < expected._pool.size(); b++) {
+      assertThat(actual._pool.get(b).toString(), equalTo(expected._pool.get(b).toString()));
+    }
+  }
+}
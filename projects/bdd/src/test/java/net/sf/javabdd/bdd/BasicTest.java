@@ -36,6 +36,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import com.google.common.collect.ImmutableList;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,20 +44,36 @@ import java.util.BitSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Random;
+import java.util.function.Supplier;
 import net.sf.javabdd.BDD;
 import net.sf.javabdd.BDDDomain;
 import net.sf.javabdd.BDDException;
 import net.sf.javabdd.BDDFactory;
 import net.sf.javabdd.BDDPairing;
+import net.sf.javabdd.ConcurrentFactory;
 import net.sf.javabdd.JFactory;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.junit.runners.JUnit4;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
 
 /** Basic tests of {@link BDDFactory} implementations. */
-@RunWith(JUnit4.class)
+@RunWith(Parameterized.class)
 public class BasicTest {
-  BDDFactory _factory = JFactory.init(1000, 1000);
+  @Parameters(name = "{0}")
+  public static Iterable<Object[]> factories() {
+    return ImmutableList.of(
+        new Object[] {"JFactory", (Supplier<BDDFactory>) () -> JFactory.init(1000, 1000)},
+        new Object[] {
+          "ConcurrentFactory", (Supplier<BDDFactory>) () -> ConcurrentFactory.init(1000, 1000)
+        });
+  }
+
+  final BDDFactory _factory;
+
+  public BasicTest(String name, Supplier<BDDFactory> factory) {
+    _factory = factory.get();
+  }
 
   @Test
   public void testIsAssignment() {
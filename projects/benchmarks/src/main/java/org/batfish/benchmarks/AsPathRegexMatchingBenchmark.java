@@ -0,0 +1,156 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.batfish.datamodel.AsPath;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.routing_policy.RoutingPolicy;
+import org.batfish.datamodel.routing_policy.as_path.AsPathMatchRegex;
+import org.batfish.datamodel.routing_policy.as_path.InputAsPath;
+import org.batfish.datamodel.routing_policy.as_path.MatchAsPath;
+import org.batfish.datamodel.routing_policy.expr.ExplicitAsPathSet;
+import org.batfish.datamodel.routing_policy.expr.LegacyMatchAsPath;
+import org.batfish.datamodel.routing_policy.expr.RegexAsPathSetElem;
+import org.batfish.datamodel.routing_policy.statement.If;
+import org.batfish.datamodel.routing_policy.statement.Statement;
+import org.batfish.datamodel.routing_policy.statement.Statements;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Route-map evaluation of AS-path regexes: running routes through routing policies that match with
+ * {@link MatchAsPath} and {@link LegacyMatchAsPath}, against compiling and running the same regexes
+ * directly for every route. Routes are drawn from a pool of distinct AS paths, as in a real RIB
+ * where many prefixes share a path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class AsPathRegexMatchingBenchmark {
+
+  private static final int NUM_ROUTES = 200_000;
+  private static final int NUM_AS_PATHS = 2_000;
+  private static final int NUM_REGEXES = 20;
+
+  private List<Bgpv4Route> _routes;
+  private List<String> _regexes;
+  private RoutingPolicy _structured;
+  private RoutingPolicy _legacy;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    List<AsPath> asPaths = new ArrayList<>(NUM_AS_PATHS);
+    for (int i = 0; i < NUM_AS_PATHS; i++) {
+      List<Long> asns = new ArrayList<>();
+      int length = 1 + random.nextInt(8);
+      for (int j = 0; j < length; j++) {
+        asns.add(1L + random.nextInt(70_000));
+      }
+      asPaths.add(AsPath.ofSingletonAsSets(asns));
+    }
+    _routes = new ArrayList<>(NUM_ROUTES);
+    for (int i = 0; i < NUM_ROUTES; i++) {
+      _routes.add(
+          Bgpv4Route.testBuilder()
+              .setNetwork(Prefix.create(Ip.create(random.nextInt() & 0xFFFFFFFFL), 32))
+              .setAsPath(asPaths.get(random.nextInt(NUM_AS_PATHS)))
+              .build());
+    }
+    // Regexes in the style of converted vendor lists; none matches, so every one is evaluated.
+    _regexes = new ArrayList<>(NUM_REGEXES);
+    for (int i = 0; i < NUM_REGEXES; i++) {
+      _regexes.add(String.format("(^|[,{} ])%d(,|\\{|\\}|$| )", 100_000 + i));
+    }
+
+    Configuration c = new NetworkFactory().configurationBuilder().build();
+    _structured =
+        policy(
+            c,
+            "structured",
+            _regexes.stream()
+                .map(
+                    r ->
+                        new If(
+                            MatchAsPath.of(InputAsPath.instance(), AsPathMatchRegex.of(r)),
+                            ImmutableList.of(Statements.ExitReject.toStaticStatement())))
+                .collect(ImmutableList.toImmutableList()));
+    _legacy =
+        policy(
+            c,
+            "legacy",
+            ImmutableList.of(
+                new If(
+                    new LegacyMatchAsPath(
+                        new ExplicitAsPathSet(
+                            _regexes.stream()
+                                .map(RegexAsPathSetElem::new)
+                                .collect(Collectors.toList()))),
+                    ImmutableList.of(Statements.ExitReject.toStaticStatement()))));
+  }
+
+  private static RoutingPolicy policy(Configuration c, String name, List<Statement> matches) {
+    return RoutingPolicy.builder()
+        .setName(name)
+        .setOwner(c)
+        .setStatements(
+            ImmutableList.<Statement>builder()
+                .addAll(matches)
+                .add(Statements.ExitAccept.toStaticStatement())
+                .build())
+        .build();
+  }
+
+  /** Baseline: what evaluation cost when every regex was compiled for every route. */
+  @Benchmark
+  public int uncompiled() {
+    int accepted = 0;
+    for (Bgpv4Route route : _routes) {
+      String asPathString = route.getAsPath().getAsPathString();
+      if (_regexes.stream().noneMatch(r -> Pattern.compile(r).matcher(asPathString).find())) {
+        accepted++;
+      }
+    }
+    return accepted;
+  }
+
+  @Benchmark
+  public int matchAsPath() {
+    return countAccepted(_structured);
+  }
+
+  @Benchmark
+  public int legacyMatchAsPath() {
+    return countAccepted(_legacy);
+  }
+
+  private int countAccepted(RoutingPolicy policy) {
+    int accepted = 0;
+    for (Bgpv4Route route : _routes) {
+      if (policy.processReadOnly(route)) {
+        accepted++;
+      }
+    }
+    return accepted;
+  }
+}
@@ -0,0 +1,159 @@
+package org.batfish.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import net.sf.javabdd.BDD;
+import net.sf.javabdd.BDDFactory;
+import net.sf.javabdd.BDDPairing;
+import net.sf.javabdd.ConcurrentFactory;
+import net.sf.javabdd.JFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * How BDD operations scale with the number of threads sharing one {@link ConcurrentFactory}, with
+ * single-threaded {@link JFactory} as the baseline. Each invocation does the same total work, split
+ * evenly across the threads: each thread repeatedly builds random BDDs over its own variables and
+ * combines them with {@code and}, {@code or}, {@code exist}, and {@code replace}, so the threads
+ * share the factory but not their BDDs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+public class BddFactoryScalingBenchmark {
+
+  private static final int OPERATIONS = 8192;
+  private static final int MAX_THREADS = 8;
+  private static final int VARS_PER_THREAD = 24;
+  private static final int CLAUSES = 6;
+  private static final int LITERALS_PER_CLAUSE = 4;
+  private static final int NODE_NUM = 1000000;
+  private static final int CACHE_SIZE = 100000;
+
+  /** A single-threaded {@link JFactory}. */
+  @State(Scope.Benchmark)
+  public static class JFactoryState {
+    private BDDFactory _factory;
+
+    @Setup
+    public void setup() {
+      _factory = JFactory.init(NODE_NUM, CACHE_SIZE);
+      _factory.setVarNum(VARS_PER_THREAD);
+    }
+
+    @TearDown
+    public void tearDown() {
+      _factory.done();
+    }
+  }
+
+  /** A {@link ConcurrentFactory} shared by a number of threads. */
+  @State(Scope.Benchmark)
+  public static class ConcurrentFactoryState {
+    /** Number of threads sharing the factory. */
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private BDDFactory _factory;
+    private ExecutorService _executor;
+
+    @Setup
+    public void setup() {
+      _factory = ConcurrentFactory.init(NODE_NUM, CACHE_SIZE);
+      _factory.setVarNum(VARS_PER_THREAD * MAX_THREADS);
+      _executor = Executors.newFixedThreadPool(threads);
+    }
+
+    @TearDown
+    public void tearDown() {
+      _executor.shutdown();
+      _factory.done();
+    }
+  }
+
+  @Benchmark
+  public void jFactory(JFactoryState state) {
+    work(state._factory, 0, OPERATIONS);
+  }
+
+  @Benchmark
+  public void concurrentFactory(ConcurrentFactoryState state)
+      throws ExecutionException, InterruptedException {
+    List<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < state.threads; t++) {
+      int thread = t;
+      futures.add(
+          state._executor.submit(() -> work(state._factory, thread, OPERATIONS / state.threads)));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+  }
+
+  private static void work(BDDFactory factory, int thread, int operations) {
+    Random random = new Random(thread);
+    int firstVar = thread * VARS_PER_THREAD;
+    int half = VARS_PER_THREAD / 2;
+
+    BDDPairing pair = factory.makePair();
+    BDD quantified = factory.one();
+    for (int i = 0; i < half; i++) {
+      pair.set(firstVar + i, firstVar + half + i);
+      pair.set(firstVar + half + i, firstVar + i);
+      if (i % 3 == 0) {
+        quantified.andWith(factory.ithVar(firstVar + i));
+      }
+    }
+
+    BDD acc = factory.zero();
+    for (int done = 0; done < operations; done += 4) {
+      BDD a = randomCnf(factory, random, firstVar);
+      BDD b = randomCnf(factory, random, firstVar);
+      BDD and = a.and(b);
+      BDD or = a.or(b);
+      BDD exist = or.exist(quantified);
+      BDD replaced = and.replace(pair);
+      acc.free();
+      acc = exist.xor(replaced);
+      a.free();
+      b.free();
+      and.free();
+      or.free();
+      exist.free();
+      replaced.free();
+    }
+    acc.free();
+    quantified.free();
+  }
+
+  private static BDD randomCnf(BDDFactory factory, Random random, int firstVar) {
+    BDD cnf = factory.one();
+    for (int c = 0; c < CLAUSES; c++) {
+      BDD clause = factory.zero();
+      for (int l = 0; l < LITERALS_PER_CLAUSE; l++) {
+        int var = firstVar + random.nextInt(VARS_PER_THREAD);
+        clause.orWith(random.nextBoolean() ? factory.ithVar(var) : factory.nithVar(var));
+      }
+      cnf.andWith(clause);
+    }
+    return cnf;
+  }
+}
@@ -0,0 +1,125 @@
+package org.batfish.benchmarks;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BatfishLogger;
+import org.batfish.common.NetworkSnapshot;
+import org.batfish.config.Settings;
+import org.batfish.dataplane.ibdp.IncrementalDataPlanePlugin;
+import org.batfish.identifiers.NetworkId;
+import org.batfish.identifiers.SnapshotId;
+import org.batfish.identifiers.StorageBasedIdResolver;
+import org.batfish.main.Batfish;
+import org.batfish.storage.FileBasedStorage;
+import org.batfish.storage.StorageProvider;
+
+/**
+ * A snapshot loaded from an input directory laid out like a snapshot zip (e.g., {@code
+ * networks/example/live}) into a {@link Batfish} instance backed by temporary storage.
+ */
+final class BenchmarkSnapshot implements AutoCloseable {
+
+  static final NetworkSnapshot SNAPSHOT =
+      new NetworkSnapshot(new NetworkId("benchmark_network"), new SnapshotId("benchmark_snapshot"));
+
+  /**
+   * Loads the snapshot in {@code inputDir}, which is resolved against the working directory. Run
+   * benchmarks from the root of the repository to use the default inputs.
+   */
+  static @Nonnull BenchmarkSnapshot load(String inputDir) throws IOException {
+    return load(inputDir, newSettings());
+  }
+
+  /**
+   * Loads the snapshot in {@code inputDir} as {@link #load(String)} does, into a {@link Batfish}
+   * instance with the given settings, e.g., to compare data plane engine options.
+   */
+  static @Nonnull BenchmarkSnapshot load(String inputDir, Settings settings) throws IOException {
+    Path input = Paths.get(inputDir);
+    if (!Files.isDirectory(input)) {
+      throw new BatfishException(
+          String.format(
+              "Snapshot input directory does not exist: %s. Run from the repository root.",
+              input.toAbsolutePath()));
+    }
+    Path storageBase = Files.createTempDirectory("batfish-benchmark");
+    settings.setStorageBase(storageBase);
+    settings.setContainer(SNAPSHOT.getNetwork().getId());
+    settings.setTestrig(SNAPSHOT.getSnapshot().getId());
+    settings.setSnapshotName(SNAPSHOT.getSnapshot().getId());
+    StorageProvider storage = new FileBasedStorage(storageBase, settings.getLogger());
+    List<Path> inputFiles;
+    try (Stream<Path> files = Files.walk(input)) {
+      inputFiles = files.filter(Files::isRegularFile).collect(Collectors.toList());
+    }
+    for (Path file : inputFiles) {
+      String key = input.relativize(file).toString().replace('\\', '/');
+      try (InputStream stream = Files.newInputStream(file)) {
+        storage.storeSnapshotInputObject(stream, key, SNAPSHOT);
+      }
+    }
+    Batfish batfish =
+        new Batfish(
+            settings,
+            CacheBuilder.newBuilder().softValues().maximumSize(2).build(),
+            CacheBuilder.newBuilder().softValues().maximumSize(1).build(),
+            CacheBuilder.newBuilder().softValues().maximumSize(1).build(),
+            new HashMap<>(),
+            CacheBuilder.newBuilder().softValues().maximumSize(1).build(),
+            storage,
+            new StorageBasedIdResolver(storage));
+    IncrementalDataPlanePlugin dataPlanePlugin = new IncrementalDataPlanePlugin();
+    dataPlanePlugin.initialize(batfish);
+    return new BenchmarkSnapshot(batfish, dataPlanePlugin, storageBase);
+  }
+
+  /** Returns settings for benchmarks, logging only warnings and above. */
+  static @Nonnull Settings newSettings() {
+    Settings settings = new Settings(new String[] {});
+    settings.setLogger(new BatfishLogger(BatfishLogger.LEVELSTR_WARN, false));
+    return settings;
+  }
+
+  private final @Nonnull Batfish _batfish;
+  private final @Nonnull IncrementalDataPlanePlugin _dataPlanePlugin;
+  private final @Nonnull Path _storageBase;
+
+  private BenchmarkSnapshot(
+      Batfish batfish, IncrementalDataPlanePlugin dataPlanePlugin, Path storageBase) {
+    _batfish = batfish;
+    _dataPlanePlugin = dataPlanePlugin;
+    _storageBase = storageBase;
+  }
+
+  @Nonnull
+  Batfish getBatfish() {
+    return _batfish;
+  }
+
+  @Nonnull
+  IncrementalDataPlanePlugin getDataPlanePlugin() {
+    return _dataPlanePlugin;
+  }
+
+  @Nonnull
+  NetworkSnapshot getSnapshot() {
+    return SNAPSHOT;
+  }
+
+  @Override
+  public void close() throws IOException {
+    MoreFiles.deleteRecursively(_storageBase, RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+}
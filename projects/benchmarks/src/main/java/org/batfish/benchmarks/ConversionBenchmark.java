@@ -0,0 +1,80 @@
+package org.batfish.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.SerializationUtils;
+import org.batfish.common.BatfishException;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Configuration;
+import org.batfish.job.ConvertConfigurationJob;
+import org.batfish.job.ConvertConfigurationResult;
+import org.batfish.vendor.VendorConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Conversion of a single parsed {@link VendorConfiguration} into vendor-independent {@link
+ * Configuration configurations}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 2)
+public class ConversionBenchmark {
+
+  /** Configuration file to convert, relative to the root of the repository. One per vendor. */
+  @Param({
+    "networks/example/live/configs/as2border1.cfg",
+    "projects/batfish/src/test/resources/org/batfish/grammar/arista/testconfigs/arista_bgp_show_run_all_2",
+    "projects/batfish/src/test/resources/org/batfish/grammar/cisco_nxos/testconfigs/nxos_route_map",
+    "projects/batfish/src/test/resources/org/batfish/grammar/cisco_xr/testconfigs/xr-bgp",
+    "projects/batfish/src/test/resources/org/batfish/grammar/juniper/testconfigs/pre-defined-junos-applications",
+    "projects/batfish/src/test/resources/org/batfish/grammar/palo_alto/testconfigs/application-override-shadowing",
+  })
+  public String file;
+
+  private Settings _settings;
+  private byte[] _serializedVendorConfiguration;
+  private VendorConfiguration _vendorConfiguration;
+
+  @Setup
+  public void setup() throws IOException {
+    _settings = BenchmarkSnapshot.newSettings();
+    String fileText = new String(Files.readAllBytes(Paths.get(file)), UTF_8);
+    _serializedVendorConfiguration =
+        SerializationUtils.serialize(ParsingBenchmark.parse(_settings, file, fileText));
+  }
+
+  /** Conversion mutates the vendor configuration, so each invocation gets a fresh copy. */
+  @Setup(Level.Invocation)
+  public void setupInvocation() {
+    _vendorConfiguration = SerializationUtils.deserialize(_serializedVendorConfiguration);
+  }
+
+  @Benchmark
+  public Map<String, Configuration> convert() {
+    ConvertConfigurationResult result =
+        new ConvertConfigurationJob(_settings, null, null, _vendorConfiguration, file).call();
+    if (result.getFailureCause() != null) {
+      throw new BatfishException("Failed to convert " + file, result.getFailureCause());
+    }
+    return result.getConfigurations();
+  }
+}
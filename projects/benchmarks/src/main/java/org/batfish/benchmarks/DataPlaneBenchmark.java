@@ -0,0 +1,63 @@
+package org.batfish.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.config.Settings;
+import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Full data plane computation of a snapshot whose configurations are already loaded, i.e., topology
+ * inference and the fixed-point computation of the incremental batfish data plane engine.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class DataPlaneBenchmark {
+
+  /** Snapshot input directory, relative to the root of the repository. */
+  @Param({"networks/example/live", "networks/example/live-with-bgp-announcements"})
+  public String snapshot;
+
+  /**
+   * Whether each round of the EGP computation runs only the nodes with pending work; see {@link
+   * IncrementalDataPlaneSettings#getEventDrivenEgp()}.
+   */
+  @Param({"false", "true"})
+  public boolean eventDrivenEgp;
+
+  private BenchmarkSnapshot _snapshot;
+
+  @Setup
+  public void setup() throws IOException {
+    Settings settings = BenchmarkSnapshot.newSettings();
+    settings.setEventDrivenEgp(eventDrivenEgp);
+    _snapshot = BenchmarkSnapshot.load(snapshot, settings);
+    _snapshot.getBatfish().loadConfigurations(_snapshot.getSnapshot());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    _snapshot.close();
+  }
+
+  @Benchmark
+  public ComputeDataPlaneResult computeDataPlane() {
+    return _snapshot.getDataPlanePlugin().computeDataPlane(_snapshot.getSnapshot());
+  }
+}
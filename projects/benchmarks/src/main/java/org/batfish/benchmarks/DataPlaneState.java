@@ -0,0 +1,71 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Topology;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/** A snapshot with its data plane computed, shared by the benchmarks that query a data plane. */
+@State(Scope.Benchmark)
+public class DataPlaneState {
+
+  /** Snapshot input directory, relative to the root of the repository. */
+  @Param({"networks/example/live"})
+  public String snapshot;
+
+  private BenchmarkSnapshot _snapshot;
+  private SortedMap<String, Configuration> _configurations;
+  private DataPlane _dataPlane;
+  private Topology _topology;
+
+  @Setup
+  public void setup() throws IOException {
+    _snapshot = BenchmarkSnapshot.load(snapshot);
+    _configurations = _snapshot.getBatfish().loadConfigurations(_snapshot.getSnapshot());
+    _snapshot.getBatfish().computeDataPlane(_snapshot.getSnapshot());
+    _dataPlane = _snapshot.getBatfish().loadDataPlane(_snapshot.getSnapshot());
+    _topology =
+        _snapshot.getBatfish().getTopologyProvider().getLayer3Topology(_snapshot.getSnapshot());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    _snapshot.close();
+  }
+
+  /** Returns the addresses of all interfaces in {@code configurations}, in a stable order. */
+  static List<Ip> interfaceIps(Map<String, Configuration> configurations) {
+    return configurations.values().stream()
+        .flatMap(c -> c.getAllInterfaces().values().stream())
+        .flatMap(i -> i.getAllConcreteAddresses().stream())
+        .map(ConcreteInterfaceAddress::getIp)
+        .collect(ImmutableList.toImmutableList());
+  }
+
+  SortedMap<String, Configuration> getConfigurations() {
+    return _configurations;
+  }
+
+  DataPlane getDataPlane() {
+    return _dataPlane;
+  }
+
+  BenchmarkSnapshot getSnapshot() {
+    return _snapshot;
+  }
+
+  Topology getTopology() {
+    return _topology;
+  }
+}
@@ -0,0 +1,140 @@
+package org.batfish.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.plugin.DataPlanePlugin.ComputeDataPlaneResult;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.Ip;
+import org.batfish.dataplane.ibdp.IncrementalDataPlaneSettings;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Data plane computation of a synthetic eBGP network, with the default EGP computation, in which
+ * every node runs in every round, and with the event-driven one (see {@link
+ * IncrementalDataPlaneSettings#getEventDrivenEgp()}). The network consists of chains of IOS routers
+ * of different lengths, each router originating its loopback, so that short chains converge long
+ * before long ones do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class EventDrivenEgpBenchmark {
+
+  /** Whether each round of the EGP computation runs only the nodes with pending work. */
+  @Param({"false", "true"})
+  public boolean eventDrivenEgp;
+
+  /** Number of chains of routers. */
+  @Param({"100"})
+  public int numChains;
+
+  /** Length of the longest chain; chains have lengths 2 to this. */
+  @Param({"40"})
+  public int maxChainLength;
+
+  private Path _inputDir;
+  private BenchmarkSnapshot _snapshot;
+
+  @Setup
+  public void setup() throws IOException {
+    _inputDir = Files.createTempDirectory("batfish-benchmark-input");
+    writeChains(_inputDir.resolve("configs"), numChains, maxChainLength);
+    Settings settings = BenchmarkSnapshot.newSettings();
+    settings.setEventDrivenEgp(eventDrivenEgp);
+    _snapshot = BenchmarkSnapshot.load(_inputDir.toString(), settings);
+    _snapshot.getBatfish().loadConfigurations(_snapshot.getSnapshot());
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    _snapshot.close();
+    MoreFiles.deleteRecursively(_inputDir, RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  @Benchmark
+  public ComputeDataPlaneResult computeDataPlane() {
+    return _snapshot.getDataPlanePlugin().computeDataPlane(_snapshot.getSnapshot());
+  }
+
+  /**
+   * Writes {@code numChains} chains of eBGP routers, of lengths 2 to {@code maxChainLength}, to
+   * {@code configsDir}.
+   */
+  private static void writeChains(Path configsDir, int numChains, int maxChainLength)
+      throws IOException {
+    Files.createDirectories(configsDir);
+    long nextLoopbackIp = Ip.parse("10.0.0.1").asLong();
+    long nextLinkIp = Ip.parse("172.16.0.0").asLong();
+    int nextAs = 65001;
+    for (int chain = 0; chain < numChains; chain++) {
+      int length = 2 + chain % (maxChainLength - 1);
+      StringBuilder[] configs = new StringBuilder[length];
+      StringBuilder[] neighbors = new StringBuilder[length];
+      Ip[] loopbacks = new Ip[length];
+      int[] asns = new int[length];
+      for (int i = 0; i < length; i++) {
+        loopbacks[i] = Ip.create(nextLoopbackIp++);
+        asns[i] = nextAs++;
+        configs[i] =
+            new StringBuilder()
+                .append(String.format("hostname c%d-r%d\n!\n", chain, i))
+                .append("interface Loopback0\n")
+                .append(String.format(" ip address %s 255.255.255.255\n!\n", loopbacks[i]));
+        neighbors[i] = new StringBuilder();
+      }
+      for (int i = 1; i < length; i++) {
+        Ip ip1 = Ip.create(nextLinkIp++);
+        Ip ip2 = Ip.create(nextLinkIp++);
+        link(configs[i - 1], neighbors[i - 1], i, ip1, ip2, asns[i]);
+        link(configs[i], neighbors[i], i - 1, ip2, ip1, asns[i - 1]);
+      }
+      for (int i = 0; i < length; i++) {
+        configs[i]
+            .append(String.format("router bgp %d\n", asns[i]))
+            .append(String.format(" bgp router-id %s\n", loopbacks[i]))
+            .append(String.format(" network %s mask 255.255.255.255\n", loopbacks[i]))
+            .append(neighbors[i])
+            .append("!\nend\n");
+        Files.write(
+            configsDir.resolve(String.format("c%d-r%d.cfg", chain, i)),
+            configs[i].toString().getBytes(UTF_8));
+      }
+    }
+  }
+
+  /**
+   * Adds the local end of a point-to-point link to {@code remote}, with an eBGP session over it.
+   */
+  private static void link(
+      StringBuilder config,
+      StringBuilder neighbors,
+      int remote,
+      Ip localIp,
+      Ip remoteIp,
+      int remoteAs) {
+    config
+        .append(String.format("interface GigabitEthernet0/%d\n", remote))
+        .append(String.format(" ip address %s 255.255.255.254\n!\n", localIp));
+    neighbors.append(String.format(" neighbor %s remote-as %d\n", remoteIp, remoteAs));
+  }
+}
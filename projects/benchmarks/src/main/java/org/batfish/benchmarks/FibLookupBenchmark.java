@@ -0,0 +1,68 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.Fib;
+import org.batfish.datamodel.Ip;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Longest-prefix-match lookups in the FIBs of a computed data plane. */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 2)
+public class FibLookupBenchmark {
+
+  private static final int NUM_LOOKUPS = 1024;
+
+  // Fixed, so that every run looks up the same addresses.
+  private static final long SEED = 0x0BADF00DL;
+
+  private List<Fib> _fibs;
+  private Ip[] _ips;
+
+  @Setup
+  public void setup(DataPlaneState state) {
+    // Sorted by node and VRF, so that every run looks up each address in the same FIB.
+    _fibs =
+        ImmutableSortedMap.copyOf(state.getDataPlane().getFibs()).values().stream()
+            .flatMap(fibsByVrf -> ImmutableSortedMap.copyOf(fibsByVrf).values().stream())
+            .collect(ImmutableList.toImmutableList());
+    // Half of the lookups are for addresses in the network, half for arbitrary addresses.
+    List<Ip> interfaceIps = DataPlaneState.interfaceIps(state.getConfigurations());
+    Random random = new Random(SEED);
+    _ips = new Ip[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; i++) {
+      _ips[i] =
+          i % 2 == 0 && !interfaceIps.isEmpty()
+              ? interfaceIps.get(random.nextInt(interfaceIps.size()))
+              : Ip.create(random.nextInt() & 0xFFFFFFFFL);
+    }
+  }
+
+  /** Looks up each address in a different FIB; reports the time per lookup. */
+  @Benchmark
+  @OperationsPerInvocation(NUM_LOOKUPS)
+  public void lookup(Blackhole blackhole) {
+    int numFibs = _fibs.size();
+    for (int i = 0; i < NUM_LOOKUPS; i++) {
+      blackhole.consume(_fibs.get(i % numFibs).get(_ips[i]));
+    }
+  }
+}
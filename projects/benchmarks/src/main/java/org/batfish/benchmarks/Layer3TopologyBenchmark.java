@@ -0,0 +1,90 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.topology.GlobalBroadcastNoPointToPoint;
+import org.batfish.common.topology.TopologyUtil;
+import org.batfish.datamodel.ConcreteInterfaceAddress;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.datamodel.Interface;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.NetworkFactory;
+import org.batfish.datamodel.Topology;
+import org.batfish.datamodel.Vrf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Layer-3 topology inference on a synthetic snapshot modeling a large shared segment, like a
+ * datacenter server VLAN or an IXP LAN: every node has an interface in one wide subnet, and a
+ * point-to-point link to the next node.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class Layer3TopologyBenchmark {
+
+  private static final Ip LAN_START = Ip.parse("10.0.0.0");
+  private static final int LAN_PREFIX_LENGTH = 16;
+  private static final Ip P2P_START = Ip.parse("172.16.0.0");
+
+  /** Number of nodes on the shared segment. */
+  @Param({"128", "512", "1024"})
+  public int numNodes;
+
+  private Map<String, Configuration> _configurations;
+
+  @Setup
+  public void setup() {
+    NetworkFactory nf = new NetworkFactory();
+    Configuration.Builder cb =
+        nf.configurationBuilder().setConfigurationFormat(ConfigurationFormat.CISCO_IOS);
+    ImmutableMap.Builder<String, Configuration> configurations = ImmutableMap.builder();
+    for (int n = 0; n < numNodes; n++) {
+      Configuration c = cb.setHostname(String.format("node%05d", n)).build();
+      Vrf vrf = nf.vrfBuilder().setOwner(c).setName(Configuration.DEFAULT_VRF_NAME).build();
+      Interface.Builder ib = nf.interfaceBuilder().setOwner(c).setVrf(vrf);
+      ib.setName("lan")
+          .setAddress(
+              ConcreteInterfaceAddress.create(
+                  Ip.create(LAN_START.asLong() + n + 1), LAN_PREFIX_LENGTH))
+          .build();
+      // This node's side of the links to the previous and next node.
+      ib.setName("prev")
+          .setAddress(ConcreteInterfaceAddress.create(Ip.create(P2P_START.asLong() + 2 * n), 31))
+          .build();
+      ib.setName("next")
+          .setAddress(
+              ConcreteInterfaceAddress.create(Ip.create(P2P_START.asLong() + 2 * n + 3), 31))
+          .build();
+      configurations.put(c.getHostname(), c);
+    }
+    _configurations = configurations.build();
+  }
+
+  @Benchmark
+  public Topology synthesizeL3Topology() {
+    return TopologyUtil.synthesizeL3Topology(_configurations);
+  }
+
+  /** Includes filtering the synthesized edges by broadcast domain. */
+  @Benchmark
+  public Topology computeRawLayer3Topology() {
+    return TopologyUtil.computeRawLayer3Topology(
+        GlobalBroadcastNoPointToPoint.instance(), _configurations);
+  }
+}
@@ -0,0 +1,125 @@
+package org.batfish.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.batfish.config.Settings;
+import org.batfish.grammar.ParserDfaCache;
+import org.batfish.grammar.cisco_xr.CiscoXrCombinedParser;
+import org.batfish.grammar.cisco_xr.CiscoXrParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing a directory of IOS-XR configurations as a fresh worker would, either with cold parser
+ * DFAs or with DFAs preloaded by {@link ParserDfaCache}. Before each invocation, the DFAs shared by
+ * all IOS-XR parsers are emptied and, for the preloaded case, read back from a cache written once
+ * the configurations had been parsed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+public class ParserDfaCacheBenchmark {
+
+  /** The configurations, and the persisted DFAs of their grammar. */
+  @State(Scope.Benchmark)
+  public static class Configs {
+    /** Directory of IOS-XR configurations to parse, relative to the root of the repository. */
+    @Param({"projects/batfish/src/test/resources/org/batfish/grammar/cisco_xr/testconfigs"})
+    public String dir;
+
+    private Settings _settings;
+    private List<String> _texts;
+    private ATN _atn;
+    private DFA[] _decisionToDfa;
+    private byte[] _persistedDfas;
+
+    @Setup
+    public void setup() throws IOException {
+      _settings = BenchmarkSnapshot.newSettings();
+      _texts = new ArrayList<>();
+      try (Stream<Path> files = Files.list(Paths.get(dir))) {
+        for (Path file : files.sorted().collect(Collectors.toList())) {
+          _texts.add(new String(Files.readAllBytes(file), UTF_8));
+        }
+      }
+      CiscoXrParser parser = new CiscoXrCombinedParser("", _settings).getParser();
+      _atn = parser.getATN();
+      // Shared by all IOS-XR parsers in this JVM.
+      _decisionToDfa = parser.getInterpreter().decisionToDFA;
+      parseAll(this);
+      ByteArrayOutputStream persisted = new ByteArrayOutputStream();
+      ParserDfaCache.write(persisted);
+      _persistedDfas = persisted.toByteArray();
+    }
+
+    /** Empties the shared DFAs, as in a fresh worker. */
+    private void clearDfas() {
+      for (int i = 0; i < _decisionToDfa.length; i++) {
+        _decisionToDfa[i] = new DFA(_atn.getDecisionState(i), i);
+      }
+    }
+  }
+
+  /** Cold DFAs for each invocation. */
+  @State(Scope.Benchmark)
+  public static class ColdDfas {
+    @Setup(Level.Invocation)
+    public void setup(Configs configs) {
+      configs.clearDfas();
+    }
+  }
+
+  /** Preloaded DFAs for each invocation. */
+  @State(Scope.Benchmark)
+  public static class PreloadedDfas {
+    @Setup(Level.Invocation)
+    public void setup(Configs configs) throws IOException {
+      configs.clearDfas();
+      ParserDfaCache.preload(new ByteArrayInputStream(configs._persistedDfas));
+    }
+  }
+
+  @Benchmark
+  public List<ParseTree> cold(Configs configs, ColdDfas dfas) {
+    return parseAll(configs);
+  }
+
+  @Benchmark
+  public List<ParseTree> preloaded(Configs configs, PreloadedDfas dfas) {
+    return parseAll(configs);
+  }
+
+  private static List<ParseTree> parseAll(Configs configs) {
+    List<ParseTree> trees = new ArrayList<>(configs._texts.size());
+    for (String text : configs._texts) {
+      trees.add(new CiscoXrCombinedParser(text, configs._settings).parse());
+    }
+    return trees;
+  }
+}
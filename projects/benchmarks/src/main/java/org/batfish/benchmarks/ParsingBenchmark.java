@@ -0,0 +1,86 @@
+package org.batfish.benchmarks;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.HashMultimap;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.batfish.common.BatfishException;
+import org.batfish.common.Warnings;
+import org.batfish.config.Settings;
+import org.batfish.datamodel.ConfigurationFormat;
+import org.batfish.job.ParseResult;
+import org.batfish.job.ParseVendorConfigurationJob;
+import org.batfish.vendor.VendorConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing and extraction of a single configuration file into a {@link VendorConfiguration}, i.e.,
+ * format detection, ANTLR lexing and parsing, and the vendor-specific extractor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 2)
+public class ParsingBenchmark {
+
+  /** Configuration file to parse, relative to the root of the repository. One per vendor. */
+  @Param({
+    "networks/example/live/configs/as2border1.cfg",
+    "projects/batfish/src/test/resources/org/batfish/grammar/arista/testconfigs/arista_bgp_show_run_all_2",
+    "projects/batfish/src/test/resources/org/batfish/grammar/cisco_nxos/testconfigs/nxos_route_map",
+    "projects/batfish/src/test/resources/org/batfish/grammar/cisco_xr/testconfigs/xr-bgp",
+    "projects/batfish/src/test/resources/org/batfish/grammar/juniper/testconfigs/pre-defined-junos-applications",
+    "projects/batfish/src/test/resources/org/batfish/grammar/palo_alto/testconfigs/application-override-shadowing",
+  })
+  public String file;
+
+  private Settings _settings;
+  private String _fileText;
+
+  @Setup
+  public void setup() throws IOException {
+    _settings = BenchmarkSnapshot.newSettings();
+    _fileText = new String(Files.readAllBytes(Paths.get(file)), UTF_8);
+  }
+
+  @Benchmark
+  public VendorConfiguration parseAndExtract() {
+    return parse(_settings, file, _fileText);
+  }
+
+  /** Parses {@code fileText} into a {@link VendorConfiguration}, failing if that is impossible. */
+  static VendorConfiguration parse(Settings settings, String file, String fileText) {
+    ParseResult result =
+        new ParseVendorConfigurationJob(
+                settings,
+                BenchmarkSnapshot.SNAPSHOT,
+                fileText,
+                file,
+                new Warnings(),
+                ConfigurationFormat.UNKNOWN,
+                HashMultimap.create(),
+                null)
+            .parse();
+    if (result.getConfig() == null) {
+      throw new BatfishException(
+          String.format("Failed to parse %s: %s", file, result.getStatus()),
+          result.getFailureCause());
+    }
+    return result.getConfig();
+  }
+}
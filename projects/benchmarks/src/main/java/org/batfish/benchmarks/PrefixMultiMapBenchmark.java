@@ -0,0 +1,93 @@
+package org.batfish.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixMultiMap;
+import org.batfish.datamodel.PrefixMultiMap.Implementation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * The {@link PrefixMultiMap} implementations holding random routes, as in the main RIBs and FIBs of
+ * a data plane: building a trie, and longest prefix match in it. Run with {@code -prof gc} to
+ * compare the allocation of building each as well.
+ *
+ * <p>The prefixes and elements are created in setup, since a RIB shares them with its routes; only
+ * the trie structure is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class PrefixMultiMapBenchmark {
+
+  private static final int NUM_ROUTES = 10_000;
+  private static final int NUM_LOOKUPS = 1 << 16;
+
+  /** The trie implementation. */
+  @Param({"NODE", "COMPACT"})
+  public Implementation implementation;
+
+  private Prefix[] _prefixes;
+  private Object[] _elements;
+  private Ip[] _ips;
+  private PrefixMultiMap<Object> _trie;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(0);
+    _prefixes = new Prefix[NUM_ROUTES];
+    _elements = new Object[NUM_ROUTES];
+    for (int i = 0; i < NUM_ROUTES; i++) {
+      _prefixes[i] = randomPrefix(random);
+      _elements[i] = new Object();
+    }
+    _ips = new Ip[NUM_LOOKUPS];
+    for (int i = 0; i < NUM_LOOKUPS; i++) {
+      _ips[i] = Ip.create(random.nextInt() & 0xFFFFFFFFL);
+    }
+    _trie = build();
+  }
+
+  /** Mostly /24s, as in large RIBs. */
+  private static Prefix randomPrefix(Random random) {
+    int length = random.nextInt(10) == 0 ? 8 + random.nextInt(25) : 24;
+    return Prefix.create(Ip.create(random.nextInt() & 0xFFFFFFFFL), length);
+  }
+
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public PrefixMultiMap<Object> build() {
+    PrefixMultiMap<Object> trie = implementation.create(Prefix.ZERO);
+    // a default route, so that every lookup matches
+    trie.put(Prefix.ZERO, _elements[0]);
+    for (int i = 0; i < NUM_ROUTES; i++) {
+      trie.put(_prefixes[i], _elements[i]);
+    }
+    return trie;
+  }
+
+  /** Reports the time per lookup. */
+  @Benchmark
+  @OperationsPerInvocation(NUM_LOOKUPS)
+  @OutputTimeUnit(TimeUnit.NANOSECONDS)
+  public void longestPrefixMatch(Blackhole blackhole) {
+    for (Ip ip : _ips) {
+      blackhole.consume(_trie.longestPrefixMatch(ip));
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import net.jpountz.lz4.LZ4FrameInputStream;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.storage.FileBasedStorage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading a stored data plane and reading routes from it, either of one node or of every node. The
+ * data plane is stored both as a single serialized object, as older versions did, and in sections
+ * by {@link FileBasedStorage}, which only reads the nodes and VRFs that are used. Run with {@code
+ * -prof gc} to compare the allocation of each as well.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class SectionedDataPlaneBenchmark {
+
+  private Path _dir;
+  private Path _legacyFile;
+  private FileBasedStorage _storage;
+  private String _node;
+  private String _vrf;
+
+  @Setup
+  public void setup(DataPlaneState state) throws IOException {
+    BenchmarkSnapshot snapshot = state.getSnapshot();
+    // Computed again rather than loaded, since a loaded data plane is already sectioned.
+    DataPlane dataPlane =
+        snapshot.getDataPlanePlugin().computeDataPlane(snapshot.getSnapshot())._dataPlane;
+    _dir = Files.createTempDirectory("batfish-benchmark");
+    _legacyFile = _dir.resolve("dp");
+    try (ObjectOutputStream out =
+        new ObjectOutputStream(new LZ4FrameOutputStream(Files.newOutputStream(_legacyFile)))) {
+      out.writeObject(dataPlane);
+    }
+    _storage =
+        new FileBasedStorage(_dir.resolve("storage"), BenchmarkSnapshot.newSettings().getLogger());
+    _storage.storeDataPlane(dataPlane, BenchmarkSnapshot.SNAPSHOT);
+    // The node and VRF a question about a single device would read.
+    _node = ImmutableSortedMap.copyOf(dataPlane.getRibs()).firstKey();
+    _vrf = ImmutableSortedMap.copyOf(dataPlane.getRibs().get(_node)).firstKey();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    MoreFiles.deleteRecursively(_dir, RecursiveDeleteOption.ALLOW_INSECURE);
+  }
+
+  @Benchmark
+  public int legacyOneNode() throws IOException, ClassNotFoundException {
+    return oneNodeRoutes(loadLegacy());
+  }
+
+  @Benchmark
+  public int sectionedOneNode() throws IOException {
+    return oneNodeRoutes(_storage.loadDataPlane(BenchmarkSnapshot.SNAPSHOT));
+  }
+
+  @Benchmark
+  public int legacyAllNodes() throws IOException, ClassNotFoundException {
+    return allNodesRoutes(loadLegacy());
+  }
+
+  @Benchmark
+  public int sectionedAllNodes() throws IOException {
+    return allNodesRoutes(_storage.loadDataPlane(BenchmarkSnapshot.SNAPSHOT));
+  }
+
+  private DataPlane loadLegacy() throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in =
+        new ObjectInputStream(
+            new LZ4FrameInputStream(new BufferedInputStream(Files.newInputStream(_legacyFile))))) {
+      return (DataPlane) in.readObject();
+    }
+  }
+
+  private int oneNodeRoutes(DataPlane dataPlane) {
+    return dataPlane.getRibs().get(_node).get(_vrf).getTypedRoutes().size();
+  }
+
+  private static int allNodesRoutes(DataPlane dataPlane) {
+    return dataPlane.getRibs().values().stream()
+        .flatMap(ribs -> ribs.values().stream())
+        .mapToInt(rib -> rib.getTypedRoutes().size())
+        .sum();
+  }
+}
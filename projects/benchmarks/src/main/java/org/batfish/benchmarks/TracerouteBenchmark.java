@@ -0,0 +1,69 @@
+package org.batfish.benchmarks;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.TimeUnit;
+import org.batfish.datamodel.Configuration;
+import org.batfish.datamodel.Flow;
+import org.batfish.datamodel.Ip;
+import org.batfish.datamodel.IpProtocol;
+import org.batfish.datamodel.flow.TraceAndReverseFlow;
+import org.batfish.dataplane.TracerouteEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Concrete traceroute over a computed data plane: a TCP flow from the default VRF of every node to
+ * the address of every interface in the network.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(1)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+public class TracerouteBenchmark {
+
+  private Set<Flow> _flows;
+
+  @Setup
+  public void setup(DataPlaneState state) {
+    SortedMap<String, Configuration> configurations = state.getConfigurations();
+    List<Ip> dstIps = DataPlaneState.interfaceIps(configurations);
+    ImmutableSet.Builder<Flow> flows = ImmutableSet.builder();
+    configurations.values().stream()
+        .filter(c -> c.getVrfs().containsKey(Configuration.DEFAULT_VRF_NAME))
+        .forEach(
+            c ->
+                dstIps.forEach(
+                    dstIp ->
+                        flows.add(
+                            Flow.builder()
+                                .setIngressNode(c.getHostname())
+                                .setIngressVrf(Configuration.DEFAULT_VRF_NAME)
+                                .setIpProtocol(IpProtocol.TCP)
+                                .setSrcPort(49152)
+                                .setDstIp(dstIp)
+                                .setDstPort(22)
+                                .build())));
+    _flows = flows.build();
+  }
+
+  @Benchmark
+  public SortedMap<Flow, List<TraceAndReverseFlow>> traceroute(DataPlaneState state) {
+    // A fresh engine each time, so that no run benefits from the memoized traces of another.
+    return new TracerouteEngineImpl(
+            state.getDataPlane(), state.getTopology(), state.getConfigurations())
+        .computeTracesAndReverseFlows(_flows, ImmutableSet.of(), false);
+  }
+}
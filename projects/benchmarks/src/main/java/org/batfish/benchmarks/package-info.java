@@ -0,0 +1,22 @@
+/**
+ * JMH benchmarks of the hot paths of Batfish: parsing and extraction, conversion to the
+ * vendor-independent model, data plane computation, FIB lookup, BDD reachability, and traceroute.
+ *
+ * <p>Inputs are read from the {@code networks} directory and test resources, so run from the root
+ * of the repository:
+ *
+ * <pre>
+ * mvn -f projects/pom.xml -P fast,benchmarks package
+ * java -jar projects/benchmarks/target/benchmarks-bundle-0.36.0.jar -rf json -rff results.json
+ * </pre>
+ *
+ * <p>or {@code bazel run //projects/benchmarks -- -rf json -rff $PWD/results.json}. Standard JMH
+ * options apply, e.g., a regular expression to select benchmarks, or {@code -p
+ * snapshot=path/to/snapshot} to use a different snapshot. Fork, warmup, and measurement settings
+ * and the generated inputs are fixed, so the JSON results of two runs on the same machine are
+ * comparable.
+ */
+@ParametersAreNonnullByDefault
+package org.batfish.benchmarks;
+
+import javax.annotation.ParametersAreNonnullByDefault;
@@ -2,12 +2,16 @@ package org.batfish.coordinator;
 
 import static org.batfish.common.CoordConstsV2.QP_VERBOSE;
 
+import com.google.common.base.Strings;
 import com.google.common.base.Throwables;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
+import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
@@ -17,6 +21,8 @@ import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.UriInfo;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.CoordConsts;
+import org.batfish.common.Task;
+import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.version.BatfishVersion;
 import org.codehaus.jettison.json.JSONArray;
 import org.codehaus.jettison.json.JSONObject;
@@ -78,6 +84,39 @@ public class PoolMgrService {
     }
   }
 
+  /**
+   * Accepts the status of a task that a worker pushes when the task changes state, so that the
+   * coordinator does not have to wait for its next poll of the worker. The task is the JSON body of
+   * the request.
+   */
+  @POST
+  @Path(CoordConsts.SVC_RSC_POOL_TASK_UPDATE)
+  @Consumes(MediaType.APPLICATION_JSON)
+  @Produces(MediaType.APPLICATION_JSON)
+  public JSONArray taskUpdate(
+      @QueryParam(CoordConsts.SVC_KEY_WORKER) String worker,
+      @QueryParam(CoordConsts.SVC_KEY_WORKID) String workId,
+      String taskStr) {
+    try {
+      _logger.debugf("PMS:taskUpdate %s %s\n", worker, workId);
+      if (Strings.isNullOrEmpty(worker)
+          || Strings.isNullOrEmpty(workId)
+          || Strings.isNullOrEmpty(taskStr)) {
+        return new JSONArray(
+            Arrays.asList(
+                CoordConsts.SVC_KEY_FAILURE, "Worker, work id, and task status must be supplied"));
+      }
+      Task task = BatfishObjectMapper.mapper().readValue(taskStr, Task.class);
+      boolean processed =
+          Main.getWorkMgr().processTaskUpdate(UUID.fromString(workId), worker, task);
+      return new JSONArray(
+          Arrays.asList(CoordConsts.SVC_KEY_SUCCESS, processed ? "processed" : "ignored"));
+    } catch (Exception e) {
+      _logger.errorf("PMS:taskUpdate exception: %s\n", Throwables.getStackTraceAsString(e));
+      return new JSONArray(Arrays.asList(CoordConsts.SVC_KEY_FAILURE, e.getMessage()));
+    }
+  }
+
   // functions for pool management
   @GET
   @Path(CoordConsts.SVC_RSC_POOL_UPDATE)
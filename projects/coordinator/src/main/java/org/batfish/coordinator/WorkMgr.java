@@ -3,11 +3,7 @@ package org.batfish.coordinator;
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Strings.isNullOrEmpty;
-import static com.google.common.collect.Comparators.lexicographical;
 import static com.google.common.io.MoreFiles.createParentDirectories;
-import static java.util.Comparator.comparing;
-import static java.util.Comparator.naturalOrder;
-import static java.util.Comparator.nullsFirst;
 import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toCollection;
 
@@ -15,9 +11,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
-import com.google.common.collect.Comparators;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
 import com.google.common.collect.ImmutableSortedSet;
@@ -112,19 +106,14 @@ import org.batfish.datamodel.answers.AutoCompleteUtils;
 import org.batfish.datamodel.answers.AutocompleteSuggestion;
 import org.batfish.datamodel.answers.InputValidationNotes;
 import org.batfish.datamodel.answers.InputValidationUtils;
-import org.batfish.datamodel.answers.Issue;
-import org.batfish.datamodel.answers.Schema;
-import org.batfish.datamodel.answers.Schema.Type;
 import org.batfish.datamodel.collections.NodeInterfacePair;
-import org.batfish.datamodel.flow.Hop;
-import org.batfish.datamodel.flow.Step;
-import org.batfish.datamodel.flow.Trace;
 import org.batfish.datamodel.pojo.Node;
 import org.batfish.datamodel.pojo.Topology;
 import org.batfish.datamodel.questions.Question;
 import org.batfish.datamodel.questions.Variable;
 import org.batfish.datamodel.table.ColumnMetadata;
 import org.batfish.datamodel.table.Row;
+import org.batfish.datamodel.table.RowComparators;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableMetadata;
 import org.batfish.datamodel.table.TableView;
@@ -154,21 +143,6 @@ public class WorkMgr extends AbstractCoordinator {
           .add(".svn")
           .build();
 
-  private static final Comparator<Node> COMPARATOR_NODE = Comparator.comparing(Node::getName);
-
-  private static final Comparator<Trace> COMPARATOR_TRACE =
-      Comparator.comparing(Trace::getDisposition)
-          .thenComparing(
-              Trace::getHops,
-              Comparators.lexicographical(
-                  Comparator.comparing(Hop::getNode, Comparator.comparing(Node::getName))
-                      .thenComparing(
-                          Hop::getSteps,
-                          Comparators.lexicographical(
-                              Comparator.<Step<?>, String>comparing(
-                                      step -> step.getDetail().toString())
-                                  .thenComparing(Step::getAction)))));
-
   private static Path getCanonicalPath(Path path) {
     try {
       return Paths.get(path.toFile().getCanonicalPath());
@@ -234,34 +208,48 @@ public class WorkMgr extends AbstractCoordinator {
     return _storage;
   }
 
+  @VisibleForTesting
+  @Nonnull
+  WorkQueueMgr getWorkQueueMgr() {
+    return _workQueueMgr;
+  }
+
   private void assignWork() {
 
     try {
-      QueuedWork work = _workQueueMgr.getWorkForAssignment();
+      // keep going while there is both unassigned work and an idle worker, so that a burst of
+      // queued work does not trickle out one item per period
+      while (true) {
+        QueuedWork work = _workQueueMgr.getWorkForAssignment();
+
+        // get out if no work was found
+        if (work == null) {
+          // _logger.info("WM:AssignWork: No unassigned work\n");
+          return;
+        }
 
-      // get out if no work was found
-      if (work == null) {
-        // _logger.info("WM:AssignWork: No unassigned work\n");
-        return;
-      }
+        String idleWorker = Main.getPoolMgr().getWorkerForAssignment();
 
-      String idleWorker = Main.getPoolMgr().getWorkerForAssignment();
+        // get out if no idle worker was found, but release the work first
+        if (idleWorker == null) {
+          _workQueueMgr.markAssignmentFailure(work);
 
-      // get out if no idle worker was found, but release the work first
-      if (idleWorker == null) {
-        _workQueueMgr.markAssignmentFailure(work);
+          _logger.info("WM:AssignWork: No idle worker\n");
+          return;
+        }
 
-        _logger.info("WM:AssignWork: No idle worker\n");
-        return;
+        // get out if the assignment failed, so that we do not retry it in a tight loop
+        if (!assignWork(work, idleWorker)) {
+          return;
+        }
       }
-
-      assignWork(work, idleWorker);
     } catch (Exception e) {
       _logger.errorf("Got exception in assignWork: %s\n", Throwables.getStackTraceAsString(e));
     }
   }
 
-  private void assignWork(QueuedWork work, String worker) {
+  /** Returns {@code true} if {@code work} was assigned to {@code worker}. */
+  private boolean assignWork(QueuedWork work, String worker) {
 
     _logger.infof("WM:AssignWork: Trying to assign %s to %s\n", work, worker);
 
@@ -305,7 +293,7 @@ public class WorkMgr extends AbstractCoordinator {
       try (Response response = webTarget.request(MediaType.APPLICATION_JSON).get()) {
         if (response.getStatus() != Response.Status.OK.getStatusCode()) {
           _logger.errorf("WM:AssignWork: Got non-OK response %s\n", response.getStatus());
-          return;
+          return false;
         }
         String sobj = response.readEntity(String.class);
         array = new JSONArray(sobj);
@@ -346,7 +334,7 @@ public class WorkMgr extends AbstractCoordinator {
     }
 
     if (work.getStatus() == WorkStatusCode.TERMINATEDBYUSER) {
-      return;
+      return false;
     }
 
     // mark the assignment results for both work and worker
@@ -370,6 +358,7 @@ public class WorkMgr extends AbstractCoordinator {
     }
 
     Main.getPoolMgr().markAssignmentResult(worker, assigned);
+    return assigned;
   }
 
   private void checkTasks() {
@@ -489,6 +478,10 @@ public class WorkMgr extends AbstractCoordinator {
       }
     }
 
+    processTaskCheckResult(work, worker, task);
+  }
+
+  private void processTaskCheckResult(QueuedWork work, String worker, Task task) {
     if (work.getStatus() == WorkStatusCode.TERMINATEDBYUSER) {
       return;
     }
@@ -499,10 +492,32 @@ public class WorkMgr extends AbstractCoordinator {
       _logger.errorf("exception: %s\n", Throwables.getStackTraceAsString(e));
     }
 
-    // if the task ended, send a hint to the pool manager to look up worker status
+    // if the task ended, send a hint to the pool manager to look up worker status, and hand the
+    // freed worker (or the work that was unblocked) out right away instead of at the next period
     if (task.getStatus().isTerminated()) {
       Main.getPoolMgr().refreshWorkerStatus(worker);
+      Thread thread = new Thread(this::assignWork);
+      thread.start();
+    }
+  }
+
+  /**
+   * Processes the status of the task for the work with id {@code workId}, as pushed by {@code
+   * worker} when the task changed state. Polling remains in place as a fallback for updates that
+   * are lost or ignored.
+   *
+   * @return {@code false} if the update was ignored, because the work is unknown, is not assigned
+   *     to {@code worker}, or is being checked by a poll already
+   */
+  public boolean processTaskUpdate(UUID workId, String worker, Task task) {
+    QueuedWork work = _workQueueMgr.getWork(workId);
+    // Check the assigned worker under the queue lock, since the work may be reassigned.
+    if (work == null || !_workQueueMgr.markWorkForChecking(work, worker)) {
+      return false;
     }
+    _logger.debugf("WM:ProcessTaskUpdate: %s on %s is %s\n", work, worker, task.getStatus());
+    processTaskCheckResult(work, worker, task);
+    return true;
   }
 
   WorkDetails computeWorkDetails(WorkItem workItem) throws IOException {
@@ -831,6 +846,67 @@ public class WorkMgr extends AbstractCoordinator {
     }
   }
 
+  /**
+   * Get the answer for the specified question, filtered according to {@code options}. Returns
+   * {@code null} if the question is not answered.
+   *
+   * @throws IllegalArgumentException if the network, question, analysis, or snapshots cannot be
+   *     found
+   * @throws IOException if there are any other errors
+   */
+  public @Nullable Answer getFilteredAnswer(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis,
+      AnswerRowsOptions options)
+      throws IOException {
+    try {
+      Optional<Answer> rows =
+          loadAnswerRows(network, snapshot, question, referenceSnapshot, analysis, options);
+      if (rows.isPresent()) {
+        return rows.get();
+      }
+    } catch (IOException e) {
+      _logger.warnf(
+          "Failed to load answer rows, falling back to whole answer: %s\n",
+          Throwables.getStackTraceAsString(e));
+    }
+    Answer answer = getAnswer(network, snapshot, question, referenceSnapshot, analysis);
+    return answer == null ? null : filterAnswer(answer, options);
+  }
+
+  /**
+   * Get the rows of the answer for the specified question selected by {@code options}, as {@link
+   * #processAnswerRows2(String, AnswerRowsOptions)} computes them from the answer string.
+   *
+   * @throws IllegalArgumentException if the network, question, analysis, or snapshots cannot be
+   *     found
+   */
+  public @Nonnull Answer getAnswerRows2(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis,
+      AnswerRowsOptions options)
+      throws JsonProcessingException {
+    try {
+      Optional<Answer> rows =
+          loadAnswerRows(network, snapshot, question, referenceSnapshot, analysis, options);
+      if (rows.isPresent()) {
+        return rows.get();
+      }
+    } catch (IOException e) {
+      _logger.warnf(
+          "Failed to load answer rows, falling back to whole answer: %s\n",
+          Throwables.getStackTraceAsString(e));
+    }
+    return processAnswerRows2(
+        getAnswerString(network, snapshot, question, referenceSnapshot, analysis), options);
+  }
+
   /**
    * Get the answer string for the specified question. Returns {@code null} if the question is not
    * answered.
@@ -842,6 +918,76 @@ public class WorkMgr extends AbstractCoordinator {
       @Nullable String referenceSnapshot,
       @Nullable String analysis)
       throws IOException {
+    StoredAnswerId storedAnswerId =
+        getStoredAnswerId(network, snapshot, question, referenceSnapshot, analysis);
+    if (storedAnswerId == null) {
+      return null;
+    }
+    return _storage.loadAnswer(
+        storedAnswerId._networkId, storedAnswerId._snapshotId, storedAnswerId._answerId);
+  }
+
+  /**
+   * Get the rows of the answer for the specified question selected by {@code options}, reading only
+   * the needed parts of the stored answer. Returns {@link Optional#empty()} if the question is not
+   * answered, or if its stored answer does not support this query and must be filtered as a whole
+   * instead.
+   */
+  private @Nonnull Optional<Answer> loadAnswerRows(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis,
+      AnswerRowsOptions options)
+      throws IOException {
+    StoredAnswerId storedAnswerId =
+        getStoredAnswerId(network, snapshot, question, referenceSnapshot, analysis);
+    if (storedAnswerId == null) {
+      return Optional.empty();
+    }
+    return _storage
+        .loadAnswerRows(
+            storedAnswerId._networkId,
+            storedAnswerId._snapshotId,
+            storedAnswerId._answerId,
+            options)
+        .map(
+            tableView -> {
+              // only successful answers are stored in a queryable form
+              Answer answer = new Answer();
+              answer.setStatus(AnswerStatus.SUCCESS);
+              answer.addAnswerElement(tableView);
+              return answer;
+            });
+  }
+
+  /** The IDs under which an answer is stored. */
+  private static final class StoredAnswerId {
+    private final @Nonnull NetworkId _networkId;
+    private final @Nonnull SnapshotId _snapshotId;
+    private final @Nonnull AnswerId _answerId;
+
+    private StoredAnswerId(NetworkId networkId, SnapshotId snapshotId, AnswerId answerId) {
+      _networkId = networkId;
+      _snapshotId = snapshotId;
+      _answerId = answerId;
+    }
+  }
+
+  /**
+   * Get the IDs under which the answer for the specified question is stored. Returns {@code null}
+   * if the question is not answered.
+   *
+   * @throws IllegalArgumentException if the network, question, analysis, or snapshots cannot be
+   *     found
+   */
+  private @Nullable StoredAnswerId getStoredAnswerId(
+      String network,
+      String snapshot,
+      String question,
+      @Nullable String referenceSnapshot,
+      @Nullable String analysis) {
     Optional<NetworkId> networkIdOpt = _idManager.getNetworkId(network);
     checkArgument(networkIdOpt.isPresent(), "Missing network: '%s'", network);
     NetworkId networkId = networkIdOpt.get();
@@ -883,7 +1029,7 @@ public class WorkMgr extends AbstractCoordinator {
     if (!_storage.hasAnswerMetadata(networkId, snapshotId, answerId)) {
       return null;
     }
-    return _storage.loadAnswer(networkId, snapshotId, answerId);
+    return new StoredAnswerId(networkId, snapshotId, answerId);
   }
 
   /**
@@ -2152,10 +2298,7 @@ public class WorkMgr extends AbstractCoordinator {
       // sort using specified sort order
       rowStream = rowStream.sorted(buildComparator(rawColumnMap, options.getSortOrder()));
     }
-    TableMetadata tableMetadata;
-    if (options.getColumns().isEmpty()) {
-      tableMetadata = rawTable.getMetadata();
-    } else {
+    if (!options.getColumns().isEmpty()) {
       // project to desired columns
       rowStream =
           rowStream.map(
@@ -2164,26 +2307,8 @@ public class WorkMgr extends AbstractCoordinator {
                 rowIds.put(row, rowIds.get(rawRow));
                 return row;
               });
-      // TableMetadata requires at least one key. For simplicity, make them all keys.
-      Map<String, ColumnMetadata> columnMap =
-          options.getColumns().stream()
-              .collect(
-                  ImmutableMap.toImmutableMap(
-                      Function.identity(),
-                      col -> {
-                        ColumnMetadata colMetadata = rawColumnMap.get(col);
-                        return new ColumnMetadata(
-                            colMetadata.getName(),
-                            colMetadata.getSchema(),
-                            colMetadata.getDescription(),
-                            true, // isKey
-                            false // isValue
-                            );
-                      }));
-      List<ColumnMetadata> columnMetadata =
-          columnMap.values().stream().collect(ImmutableList.toImmutableList());
-      tableMetadata = new TableMetadata(columnMetadata, rawTable.getMetadata().getTextDesc());
     }
+    TableMetadata tableMetadata = TableView.viewMetadata(rawTable.getMetadata(), options);
     if (options.getUniqueRows()) {
       // uniquify if desired
       rowStream = rowStream.distinct();
@@ -2208,70 +2333,13 @@ public class WorkMgr extends AbstractCoordinator {
   @Nonnull
   Comparator<Row> buildComparator(
       Map<String, ColumnMetadata> rawColumnMap, List<ColumnSortOption> sortOrder) {
-    ColumnSortOption firstColumnSortOption = sortOrder.get(0);
-    ColumnMetadata firstMetadata = rawColumnMap.get(firstColumnSortOption.getColumn());
-    Comparator<Row> comparator = columnComparator(firstMetadata);
-    if (firstColumnSortOption.getReversed()) {
-      comparator = comparator.reversed();
-    }
-    for (int i = 1; i < sortOrder.size(); i++) {
-      ColumnSortOption columnSortOption = sortOrder.get(i);
-      Comparator<Row> nextComparator =
-          columnComparator(rawColumnMap.get(columnSortOption.getColumn()));
-      if (columnSortOption.getReversed()) {
-        nextComparator = nextComparator.reversed();
-      }
-      comparator = comparator.thenComparing(nextComparator);
-    }
-    return comparator;
+    return RowComparators.rowComparator(rawColumnMap, sortOrder);
   }
 
-  @SuppressWarnings({"rawtypes", "unchecked"})
   @VisibleForTesting
   @Nonnull
   Comparator<Row> columnComparator(ColumnMetadata columnMetadata) {
-    Schema schema = columnMetadata.getSchema();
-    Comparator schemaComparator = schemaComparator(schema);
-    Comparator comparator =
-        comparing((Row r) -> r.get(columnMetadata.getName(), schema), nullsFirst(schemaComparator));
-    return comparator;
-  }
-
-  @SuppressWarnings({"rawtypes", "unchecked"})
-  private @Nonnull Comparator<?> schemaComparator(Schema schema) {
-    if (schema.equals(Schema.BOOLEAN)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.DOUBLE)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.FLOW)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.INTEGER)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.INTERFACE)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.IP)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.ISSUE)) {
-      return comparing(Issue::getSeverity);
-    } else if (schema.getType() == Type.LIST) {
-      Comparator schemaComparator = schemaComparator(schema.getInnerSchema());
-      return lexicographical(nullsFirst(schemaComparator));
-    } else if (schema.equals(Schema.LONG)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.NODE)) {
-      return COMPARATOR_NODE;
-    } else if (schema.equals(Schema.PREFIX)) {
-      return naturalOrder();
-    } else if (schema.getType() == Type.SET) {
-      Comparator schemaComparator = schemaComparator(schema.getInnerSchema());
-      return lexicographical(nullsFirst(schemaComparator));
-    } else if (schema.equals(Schema.STRING)) {
-      return naturalOrder();
-    } else if (schema.equals(Schema.TRACE)) {
-      return COMPARATOR_TRACE;
-    } else {
-      return comparing(Object::toString);
-    }
+    return RowComparators.columnComparator(columnMetadata);
   }
 
   @VisibleForTesting
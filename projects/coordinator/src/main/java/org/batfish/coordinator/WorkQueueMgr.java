@@ -9,6 +9,8 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -32,6 +34,9 @@ import org.codehaus.jettison.json.JSONObject;
 
 // the design of this WorkQueueMgr is such that all synchronization sits here
 // individual queues do not need to be synchronized
+// queries of the queues share a read lock, so status requests from clients do not wait on each
+// other; changes to the queues or to the status of queued work take the write lock. private
+// methods expect the caller to hold the appropriate lock.
 
 public class WorkQueueMgr {
 
@@ -40,16 +45,18 @@ public class WorkQueueMgr {
     INCOMPLETE
   }
 
-  @GuardedBy("this")
+  @GuardedBy("_lock")
   private Set<UUID> _blockingWork;
 
+  private final ReadWriteLock _lock;
+
   private BatfishLogger _logger;
   private SnapshotMetadataMgr _snapshotMetadataManager;
 
-  @GuardedBy("this")
+  @GuardedBy("_lock")
   private WorkQueue _queueCompletedWork;
 
-  @GuardedBy("this")
+  @GuardedBy("_lock")
   private WorkQueue _queueIncompleteWork;
 
   WorkQueueMgr(BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
@@ -58,6 +65,7 @@ public class WorkQueueMgr {
 
   WorkQueueMgr(Type wqType, BatfishLogger logger, SnapshotMetadataMgr snapshotMetadataManager) {
     _blockingWork = new HashSet<>();
+    _lock = new ReentrantReadWriteLock();
     _logger = logger;
     _snapshotMetadataManager = snapshotMetadataManager;
     switch (wqType) {
@@ -245,20 +253,23 @@ public class WorkQueueMgr {
    * @param snapshotId {@link SnapshotId} to get completed work for.
    * @return {@link List} of completed {@link QueuedWork}.
    */
-  public synchronized List<QueuedWork> getCompletedWork(
-      NetworkId networkId, SnapshotId snapshotId) {
-    ImmutableList.Builder<QueuedWork> b = ImmutableList.builder();
-    for (QueuedWork work : _queueCompletedWork) {
-      if (work.getDetails().getNetworkId().equals(networkId)
-          && work.getDetails().getSnapshotId().equals(snapshotId)) {
-        b.add(work);
+  public List<QueuedWork> getCompletedWork(NetworkId networkId, SnapshotId snapshotId) {
+    _lock.readLock().lock();
+    try {
+      ImmutableList.Builder<QueuedWork> b = ImmutableList.builder();
+      for (QueuedWork work : _queueCompletedWork) {
+        if (work.getDetails().getNetworkId().equals(networkId)
+            && work.getDetails().getSnapshotId().equals(snapshotId)) {
+          b.add(work);
+        }
       }
+      return b.build();
+    } finally {
+      _lock.readLock().unlock();
     }
-    return b.build();
   }
 
-  private synchronized QueuedWork getIncompleteWork(
-      NetworkId networkId, SnapshotId snapshotId, WorkType wType) {
+  private QueuedWork getIncompleteWork(NetworkId networkId, SnapshotId snapshotId, WorkType wType) {
     for (QueuedWork work : _queueIncompleteWork) {
       WorkDetails wDetails = work.getDetails();
       if (networkId.equals(work.getDetails().getNetworkId())
@@ -272,46 +283,60 @@ public class WorkQueueMgr {
     return null;
   }
 
-  public synchronized long getLength(QueueType qType) {
-    switch (qType) {
-      case COMPLETED:
-        return _queueCompletedWork.getLength();
-      case INCOMPLETE:
-        return _queueIncompleteWork.getLength();
-      default:
-        return -1;
+  public long getLength(QueueType qType) {
+    _lock.readLock().lock();
+    try {
+      switch (qType) {
+        case COMPLETED:
+          return _queueCompletedWork.getLength();
+        case INCOMPLETE:
+          return _queueIncompleteWork.getLength();
+        default:
+          return -1;
+      }
+    } finally {
+      _lock.readLock().unlock();
     }
   }
 
-  public synchronized JSONObject getStatusJson() throws JSONException {
+  public JSONObject getStatusJson() throws JSONException {
+    _lock.readLock().lock();
+    try {
+      JSONObject jObject = new JSONObject();
 
-    JSONObject jObject = new JSONObject();
+      jObject.put("incomplete-works", _queueIncompleteWork.getLength());
+      for (QueuedWork work : _queueIncompleteWork) {
+        jObject.put(work.getId().toString(), work.toString());
+      }
 
-    jObject.put("incomplete-works", _queueIncompleteWork.getLength());
-    for (QueuedWork work : _queueIncompleteWork) {
-      jObject.put(work.getId().toString(), work.toString());
-    }
+      jObject.put("completed-works", _queueCompletedWork.getLength());
+      for (QueuedWork work : _queueCompletedWork) {
+        jObject.put(work.getId().toString(), work.toString());
+      }
 
-    jObject.put("completed-works", _queueCompletedWork.getLength());
-    for (QueuedWork work : _queueCompletedWork) {
-      jObject.put(work.getId().toString(), work.toString());
+      return jObject;
+    } finally {
+      _lock.readLock().unlock();
     }
-
-    return jObject;
   }
 
-  public synchronized QueuedWork getMatchingWork(WorkItem workItem, QueueType qType) {
-    switch (qType) {
-      case COMPLETED:
-        return getMatchingWork(workItem, _queueCompletedWork);
-      case INCOMPLETE:
-        return getMatchingWork(workItem, _queueIncompleteWork);
-      default:
-        throw new BatfishException("Unknown QueueType " + qType);
+  public QueuedWork getMatchingWork(WorkItem workItem, QueueType qType) {
+    _lock.readLock().lock();
+    try {
+      switch (qType) {
+        case COMPLETED:
+          return getMatchingWork(workItem, _queueCompletedWork);
+        case INCOMPLETE:
+          return getMatchingWork(workItem, _queueIncompleteWork);
+        default:
+          throw new BatfishException("Unknown QueueType " + qType);
+      }
+    } finally {
+      _lock.readLock().unlock();
     }
   }
 
-  private synchronized QueuedWork getMatchingWork(WorkItem workItem, WorkQueue queue) {
+  private QueuedWork getMatchingWork(WorkItem workItem, WorkQueue queue) {
     for (QueuedWork work : queue) {
       if (work.getWorkItem().matches(workItem)) {
         return work;
@@ -320,16 +345,21 @@ public class WorkQueueMgr {
     return null;
   }
 
-  public synchronized QueuedWork getWork(UUID workId) {
-    QueuedWork work = getWork(workId, QueueType.INCOMPLETE);
-    if (work == null) {
-      work = getWork(workId, QueueType.COMPLETED);
+  public QueuedWork getWork(UUID workId) {
+    _lock.readLock().lock();
+    try {
+      QueuedWork work = getWork(workId, QueueType.INCOMPLETE);
+      if (work == null) {
+        work = getWork(workId, QueueType.COMPLETED);
+      }
+      return work;
+    } finally {
+      _lock.readLock().unlock();
     }
-    return work;
   }
 
   @Nullable
-  private synchronized QueuedWork getWork(UUID workId, QueueType qType) {
+  private QueuedWork getWork(UUID workId, QueueType qType) {
     switch (qType) {
       case COMPLETED:
         return _queueCompletedWork.getWork(workId);
@@ -341,225 +371,283 @@ public class WorkQueueMgr {
   }
 
   @Nullable
-  public synchronized QueuedWork getWorkForAssignment() {
-
-    for (QueuedWork work : _queueIncompleteWork) {
-      if (work.getStatus() == WorkStatusCode.UNASSIGNED) {
-        work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
-        return work;
+  public QueuedWork getWorkForAssignment() {
+    _lock.writeLock().lock();
+    try {
+      for (QueuedWork work : _queueIncompleteWork) {
+        if (work.getStatus() == WorkStatusCode.UNASSIGNED) {
+          work.setStatus(WorkStatusCode.TRYINGTOASSIGN);
+          return work;
+        }
       }
-    }
 
-    return null;
+      return null;
+    } finally {
+      _lock.writeLock().unlock();
+    }
   }
 
   @Nonnull
-  public synchronized List<QueuedWork> getWorkForChecking() {
-    List<QueuedWork> workToCheck = new ArrayList<>();
-    for (QueuedWork work : _queueIncompleteWork) {
-      if (work.getStatus() == WorkStatusCode.ASSIGNED) {
-        work.setStatus(WorkStatusCode.CHECKINGSTATUS);
-        workToCheck.add(work);
+  public List<QueuedWork> getWorkForChecking() {
+    _lock.writeLock().lock();
+    try {
+      List<QueuedWork> workToCheck = new ArrayList<>();
+      for (QueuedWork work : _queueIncompleteWork) {
+        if (work.getStatus() == WorkStatusCode.ASSIGNED) {
+          work.setStatus(WorkStatusCode.CHECKINGSTATUS);
+          workToCheck.add(work);
+        }
       }
+      return workToCheck;
+    } finally {
+      _lock.writeLock().unlock();
     }
-    return workToCheck;
   }
 
-  public synchronized List<QueuedWork> listIncompleteWork(
+  /**
+   * Claims {@code work} for processing a task status that {@code worker} pushed, the same way
+   * {@link #getWorkForChecking()} claims work for polling.
+   *
+   * @return {@code false} if the work is not assigned to {@code worker}, e.g. because it was
+   *     reassigned or a poll is checking it already
+   */
+  public boolean markWorkForChecking(QueuedWork work, String worker) {
+    _lock.writeLock().lock();
+    try {
+      if (work.getStatus() != WorkStatusCode.ASSIGNED || !worker.equals(work.getAssignedWorker())) {
+        return false;
+      }
+      work.setStatus(WorkStatusCode.CHECKINGSTATUS);
+      return true;
+    } finally {
+      _lock.writeLock().unlock();
+    }
+  }
+
+  public List<QueuedWork> listIncompleteWork(
       NetworkId networkId, @Nullable SnapshotId snapshotId, @Nullable WorkType workType) {
-    List<QueuedWork> retList = new LinkedList<>();
-    for (QueuedWork work : _queueIncompleteWork) {
-      // Add to queue if it matches container, testrig if provided, and work type if provided
-      if (work.getDetails().getNetworkId().equals(networkId)
-          && (snapshotId == null || work.getDetails().getSnapshotId().equals(snapshotId))
-          && (workType == null || work.getDetails().getWorkType() == workType)) {
-        retList.add(work);
+    _lock.readLock().lock();
+    try {
+      List<QueuedWork> retList = new LinkedList<>();
+      for (QueuedWork work : _queueIncompleteWork) {
+        // Add to queue if it matches container, testrig if provided, and work type if provided
+        if (work.getDetails().getNetworkId().equals(networkId)
+            && (snapshotId == null || work.getDetails().getSnapshotId().equals(snapshotId))
+            && (workType == null || work.getDetails().getWorkType() == workType)) {
+          retList.add(work);
+        }
       }
+      return retList;
+    } finally {
+      _lock.readLock().unlock();
     }
-    return retList;
   }
 
-  public synchronized void makeWorkUnassigned(QueuedWork work) {
-    work.setStatus(WorkStatusCode.UNASSIGNED);
+  public void makeWorkUnassigned(QueuedWork work) {
+    _lock.writeLock().lock();
+    try {
+      work.setStatus(WorkStatusCode.UNASSIGNED);
+    } finally {
+      _lock.writeLock().unlock();
+    }
   }
 
   // when assignment attempt ends in error, we do not try to reassign
-  public synchronized void markAssignmentError(QueuedWork work) {
-    _queueIncompleteWork.delete(work);
-    _queueCompletedWork.enque(work);
-    work.setStatus(WorkStatusCode.ASSIGNMENTERROR);
+  public void markAssignmentError(QueuedWork work) {
+    _lock.writeLock().lock();
+    try {
+      _queueIncompleteWork.delete(work);
+      _queueCompletedWork.enque(work);
+      work.setStatus(WorkStatusCode.ASSIGNMENTERROR);
+    } finally {
+      _lock.writeLock().unlock();
+    }
   }
 
-  public synchronized void markAssignmentFailure(QueuedWork work) {
-    work.setStatus(WorkStatusCode.UNASSIGNED);
+  public void markAssignmentFailure(QueuedWork work) {
+    _lock.writeLock().lock();
+    try {
+      work.setStatus(WorkStatusCode.UNASSIGNED);
+    } finally {
+      _lock.writeLock().unlock();
+    }
   }
 
-  public synchronized void markAssignmentSuccess(QueuedWork work, String assignedWorker)
-      throws IOException {
-    work.setAssignment(assignedWorker);
+  public void markAssignmentSuccess(QueuedWork work, String assignedWorker) throws IOException {
+    _lock.writeLock().lock();
+    try {
+      work.setAssignment(assignedWorker);
 
-    // update testrig metadata
-    WorkDetails wDetails = work.getDetails();
-    if (wDetails.getWorkType() == WorkType.PARSING) {
-      _snapshotMetadataManager.updateInitializationStatus(
-          wDetails.getNetworkId(), wDetails.getSnapshotId(), ProcessingStatus.PARSING, null);
-    } else if (wDetails.getWorkType() == WorkType.DATAPLANING) {
-      _snapshotMetadataManager.updateInitializationStatus(
-          wDetails.getNetworkId(), wDetails.getSnapshotId(), ProcessingStatus.DATAPLANING, null);
+      // update testrig metadata
+      WorkDetails wDetails = work.getDetails();
+      if (wDetails.getWorkType() == WorkType.PARSING) {
+        _snapshotMetadataManager.updateInitializationStatus(
+            wDetails.getNetworkId(), wDetails.getSnapshotId(), ProcessingStatus.PARSING, null);
+      } else if (wDetails.getWorkType() == WorkType.DATAPLANING) {
+        _snapshotMetadataManager.updateInitializationStatus(
+            wDetails.getNetworkId(), wDetails.getSnapshotId(), ProcessingStatus.DATAPLANING, null);
+      }
+    } finally {
+      _lock.writeLock().unlock();
     }
   }
 
-  public synchronized void processTaskCheckResult(QueuedWork work, Task task) throws Exception {
-
-    // {Unscheduled, InProgress, TerminatedNormally, TerminatedAbnormally, TerminatedByUser
-    // Unknown, UnreachableOrBadResponse}
+  public void processTaskCheckResult(QueuedWork work, Task task) throws Exception {
+    _lock.writeLock().lock();
+    try {
+      // {Unscheduled, InProgress, TerminatedNormally, TerminatedAbnormally, TerminatedByUser
+      // Unknown, UnreachableOrBadResponse}
 
-    switch (task.getStatus()) {
-      case Unscheduled:
-      case InProgress:
-        work.setStatus(WorkStatusCode.ASSIGNED);
-        work.recordTaskCheckResult(task);
-        break;
-      case TerminatedAbnormally:
-      case TerminatedByUser:
-      case TerminatedNormally:
-      case RequeueFailure:
-        {
-          // move the work to completed queue
-          _queueIncompleteWork.delete(work);
-          _queueCompletedWork.enque(work);
-          work.setStatus(WorkStatusCode.fromTerminatedTaskStatus(task.getStatus()));
+      switch (task.getStatus()) {
+        case Unscheduled:
+        case InProgress:
+          work.setStatus(WorkStatusCode.ASSIGNED);
           work.recordTaskCheckResult(task);
+          break;
+        case TerminatedAbnormally:
+        case TerminatedByUser:
+        case TerminatedNormally:
+        case RequeueFailure:
+          {
+            // move the work to completed queue
+            _queueIncompleteWork.delete(work);
+            _queueCompletedWork.enque(work);
+            work.setStatus(WorkStatusCode.fromTerminatedTaskStatus(task.getStatus()));
+            work.recordTaskCheckResult(task);
 
-          // update testrig metadata
-          WorkItem wItem = work.getWorkItem();
-          WorkDetails wDetails = work.getDetails();
-          if (wDetails.getWorkType() == WorkType.PARSING) {
-            ProcessingStatus status;
-            if (task.getStatus() == TaskStatus.TerminatedNormally) {
-              status = ProcessingStatus.PARSED;
-              Main.getWorkMgr()
-                  .tryPromoteSnapshotNodeRoles(wDetails.getNetworkId(), wDetails.getSnapshotId());
-            } else {
-              status = ProcessingStatus.PARSING_FAIL;
-            }
-            _snapshotMetadataManager.updateInitializationStatus(
-                wDetails.getNetworkId(), wDetails.getSnapshotId(), status, task.getErrMessage());
-          } else if (wDetails.getWorkType() == WorkType.DATAPLANING) {
-            // no change in status needed if task.getStatus() is RequeueFailure
-            if (task.getStatus() == TaskStatus.TerminatedAbnormally
-                || task.getStatus() == TaskStatus.TerminatedByUser) {
-              _snapshotMetadataManager.updateInitializationStatus(
-                  wDetails.getNetworkId(),
-                  wDetails.getSnapshotId(),
-                  ProcessingStatus.DATAPLANING_FAIL,
-                  task.getErrMessage());
-            } else if (task.getStatus() == TaskStatus.TerminatedNormally) {
+            // update testrig metadata
+            WorkItem wItem = work.getWorkItem();
+            WorkDetails wDetails = work.getDetails();
+            if (wDetails.getWorkType() == WorkType.PARSING) {
+              ProcessingStatus status;
+              if (task.getStatus() == TaskStatus.TerminatedNormally) {
+                status = ProcessingStatus.PARSED;
+                Main.getWorkMgr()
+                    .tryPromoteSnapshotNodeRoles(wDetails.getNetworkId(), wDetails.getSnapshotId());
+              } else {
+                status = ProcessingStatus.PARSING_FAIL;
+              }
               _snapshotMetadataManager.updateInitializationStatus(
-                  wDetails.getNetworkId(),
-                  wDetails.getSnapshotId(),
-                  ProcessingStatus.DATAPLANED,
-                  null);
+                  wDetails.getNetworkId(), wDetails.getSnapshotId(), status, task.getErrMessage());
+            } else if (wDetails.getWorkType() == WorkType.DATAPLANING) {
+              // no change in status needed if task.getStatus() is RequeueFailure
+              if (task.getStatus() == TaskStatus.TerminatedAbnormally
+                  || task.getStatus() == TaskStatus.TerminatedByUser) {
+                _snapshotMetadataManager.updateInitializationStatus(
+                    wDetails.getNetworkId(),
+                    wDetails.getSnapshotId(),
+                    ProcessingStatus.DATAPLANING_FAIL,
+                    task.getErrMessage());
+              } else if (task.getStatus() == TaskStatus.TerminatedNormally) {
+                _snapshotMetadataManager.updateInitializationStatus(
+                    wDetails.getNetworkId(),
+                    wDetails.getSnapshotId(),
+                    ProcessingStatus.DATAPLANED,
+                    null);
+              }
             }
-          }
 
-          // check if we unblocked anything
-          if (_blockingWork.contains(wItem.getId())) {
-            _blockingWork.remove(wItem.getId());
-            List<QueuedWork> requeueWorks = new LinkedList<>();
-            for (QueuedWork incompleteWork : _queueIncompleteWork) {
-              if (incompleteWork.getStatus() == WorkStatusCode.BLOCKED
-                  && wDetails.isOverlappingInput(incompleteWork.getDetails())) {
-                requeueWorks.add(incompleteWork);
+            // check if we unblocked anything
+            if (_blockingWork.contains(wItem.getId())) {
+              _blockingWork.remove(wItem.getId());
+              List<QueuedWork> requeueWorks = new LinkedList<>();
+              for (QueuedWork incompleteWork : _queueIncompleteWork) {
+                if (incompleteWork.getStatus() == WorkStatusCode.BLOCKED
+                    && wDetails.isOverlappingInput(incompleteWork.getDetails())) {
+                  requeueWorks.add(incompleteWork);
+                }
               }
-            }
-            for (QueuedWork requeueWork : requeueWorks) {
-              _queueIncompleteWork.delete(requeueWork);
-              requeueWork.setStatus(WorkStatusCode.UNASSIGNED);
-            }
-            for (QueuedWork requeueWork : requeueWorks) {
-              try {
-                boolean queued = queueUnassignedWork(requeueWork);
-                if (!queued) {
-                  throw new BatfishException(
-                      "Failed to requeue previously blocked work " + requeueWork.getId());
+              for (QueuedWork requeueWork : requeueWorks) {
+                _queueIncompleteWork.delete(requeueWork);
+                requeueWork.setStatus(WorkStatusCode.UNASSIGNED);
+              }
+              for (QueuedWork requeueWork : requeueWorks) {
+                try {
+                  boolean queued = queueUnassignedWork(requeueWork);
+                  if (!queued) {
+                    throw new BatfishException(
+                        "Failed to requeue previously blocked work " + requeueWork.getId());
+                  }
+                } catch (Exception e) {
+                  String stackTrace = Throwables.getStackTraceAsString(e);
+                  _logger.errorf("exception: %s\n", stackTrace);
+                  // put this work back on incomplete queue and process as if it
+                  // terminatedabnormally
+                  // people may be checking its status and this work may be blocking others
+                  _queueIncompleteWork.enque(requeueWork);
+                  Task fakeTask =
+                      new Task(
+                          TaskStatus.RequeueFailure,
+                          String.format("Couldn't requeue after unblocking.\n%s", e.getMessage()));
+                  processTaskCheckResult(requeueWork, fakeTask);
                 }
-              } catch (Exception e) {
-                String stackTrace = Throwables.getStackTraceAsString(e);
-                _logger.errorf("exception: %s\n", stackTrace);
-                // put this work back on incomplete queue and process as if it terminatedabnormally
-                // people may be checking its status and this work may be blocking others
-                _queueIncompleteWork.enque(requeueWork);
-                Task fakeTask =
-                    new Task(
-                        TaskStatus.RequeueFailure,
-                        String.format("Couldn't requeue after unblocking.\n%s", e.getMessage()));
-                processTaskCheckResult(requeueWork, fakeTask);
               }
             }
           }
-        }
-        break;
-      case Unknown:
-        // we mark this unassigned, so we try to schedule it again
-        work.setStatus(WorkStatusCode.UNASSIGNED);
-        work.clearAssignment();
-        break;
-      case UnreachableOrBadResponse:
-        {
-          if (work.getLastTaskCheckResult().getStatus() == TaskStatus.UnreachableOrBadResponse) {
-            // if we saw the same thing last time around, free the task to be scheduled elsewhere
-            work.setStatus(WorkStatusCode.UNASSIGNED);
-            work.clearAssignment();
-            work.recordTaskCheckResult(task);
-
-            // update snapshot metadata
-            WorkDetails wDetails = work.getDetails();
-            if (wDetails.getWorkType() == WorkType.PARSING
-                || wDetails.getWorkType() == WorkType.DATAPLANING) {
-              InitializationMetadata metadata =
-                  _snapshotMetadataManager.getInitializationMetadata(
-                      wDetails.getNetworkId(), wDetails.getSnapshotId());
-              if (wDetails.getWorkType() == WorkType.PARSING) {
-                if (metadata.getProcessingStatus() != ProcessingStatus.PARSING) {
-                  _logger.errorf(
-                      "Unexpected status %s when parsing failed for %s",
-                      metadata.getProcessingStatus(), wDetails.getSnapshotId());
-                } else {
-                  _snapshotMetadataManager.updateInitializationStatus(
-                      wDetails.getNetworkId(),
-                      wDetails.getSnapshotId(),
-                      ProcessingStatus.UNINITIALIZED,
-                      task.getErrMessage());
-                }
-              } else { // wDetails.getWorkType() == WorkType.DATAPLANING
-                if (metadata.getProcessingStatus() != ProcessingStatus.DATAPLANING) {
-                  _logger.errorf(
-                      "Unexpected status %s when dataplaning failed for %s",
-                      metadata.getProcessingStatus(), wDetails.getSnapshotId());
-                } else {
-                  _snapshotMetadataManager.updateInitializationStatus(
-                      wDetails.getNetworkId(),
-                      wDetails.getSnapshotId(),
-                      ProcessingStatus.PARSED,
-                      task.getErrMessage());
+          break;
+        case Unknown:
+          // we mark this unassigned, so we try to schedule it again
+          work.setStatus(WorkStatusCode.UNASSIGNED);
+          work.clearAssignment();
+          break;
+        case UnreachableOrBadResponse:
+          {
+            if (work.getLastTaskCheckResult().getStatus() == TaskStatus.UnreachableOrBadResponse) {
+              // if we saw the same thing last time around, free the task to be scheduled elsewhere
+              work.setStatus(WorkStatusCode.UNASSIGNED);
+              work.clearAssignment();
+              work.recordTaskCheckResult(task);
+
+              // update snapshot metadata
+              WorkDetails wDetails = work.getDetails();
+              if (wDetails.getWorkType() == WorkType.PARSING
+                  || wDetails.getWorkType() == WorkType.DATAPLANING) {
+                InitializationMetadata metadata =
+                    _snapshotMetadataManager.getInitializationMetadata(
+                        wDetails.getNetworkId(), wDetails.getSnapshotId());
+                if (wDetails.getWorkType() == WorkType.PARSING) {
+                  if (metadata.getProcessingStatus() != ProcessingStatus.PARSING) {
+                    _logger.errorf(
+                        "Unexpected status %s when parsing failed for %s",
+                        metadata.getProcessingStatus(), wDetails.getSnapshotId());
+                  } else {
+                    _snapshotMetadataManager.updateInitializationStatus(
+                        wDetails.getNetworkId(),
+                        wDetails.getSnapshotId(),
+                        ProcessingStatus.UNINITIALIZED,
+                        task.getErrMessage());
+                  }
+                } else { // wDetails.getWorkType() == WorkType.DATAPLANING
+                  if (metadata.getProcessingStatus() != ProcessingStatus.DATAPLANING) {
+                    _logger.errorf(
+                        "Unexpected status %s when dataplaning failed for %s",
+                        metadata.getProcessingStatus(), wDetails.getSnapshotId());
+                  } else {
+                    _snapshotMetadataManager.updateInitializationStatus(
+                        wDetails.getNetworkId(),
+                        wDetails.getSnapshotId(),
+                        ProcessingStatus.PARSED,
+                        task.getErrMessage());
+                  }
                 }
               }
+            } else {
+              work.setStatus(WorkStatusCode.ASSIGNED);
+              work.recordTaskCheckResult(task);
             }
-          } else {
-            work.setStatus(WorkStatusCode.ASSIGNED);
-            work.recordTaskCheckResult(task);
           }
-        }
-        break;
-      default:
-        throw new BatfishException(
-            "Unhandled " + TaskStatus.class.getCanonicalName() + ": " + task.getStatus());
+          break;
+        default:
+          throw new BatfishException(
+              "Unhandled " + TaskStatus.class.getCanonicalName() + ": " + task.getStatus());
+      }
+    } finally {
+      _lock.writeLock().unlock();
     }
   }
 
-  private synchronized boolean queueDependentAnsweringWork(
-      QueuedWork work, boolean dataplaneDependent) throws Exception {
+  private boolean queueDependentAnsweringWork(QueuedWork work, boolean dataplaneDependent)
+      throws Exception {
     WorkDetails wDetails = work.getDetails();
 
     QueuedWork baseBlocker =
@@ -589,13 +677,13 @@ public class WorkQueueMgr {
     return _queueIncompleteWork.enque(work);
   }
 
-  private synchronized boolean queueBlockedWork(QueuedWork work, QueuedWork blocker) {
+  private boolean queueBlockedWork(QueuedWork work, QueuedWork blocker) {
     _blockingWork.add(blocker.getId());
     work.setStatus(WorkStatusCode.BLOCKED);
     return _queueIncompleteWork.enque(work);
   }
 
-  private synchronized boolean queueDataplaningWork(QueuedWork work) throws Exception {
+  private boolean queueDataplaningWork(QueuedWork work) throws Exception {
     WorkDetails wDetails = work.getDetails();
     QueuedWork currentDataplaningWork =
         getIncompleteWork(wDetails.getNetworkId(), wDetails.getSnapshotId(), WorkType.DATAPLANING);
@@ -621,7 +709,7 @@ public class WorkQueueMgr {
     }
   }
 
-  private synchronized boolean queueParsingWork(QueuedWork work) throws Exception {
+  private boolean queueParsingWork(QueuedWork work) throws Exception {
 
     WorkDetails wDetails = work.getDetails();
 
@@ -655,33 +743,38 @@ public class WorkQueueMgr {
     return _queueIncompleteWork.enque(work);
   }
 
-  public synchronized boolean queueUnassignedWork(QueuedWork work) throws Exception {
-    QueuedWork previouslyQueuedWork = getWork(work.getId());
-    if (previouslyQueuedWork != null) {
-      throw new BatfishException("Duplicate work item");
-    }
-    WorkDetails wDetails = work.getDetails();
-    cleanUpInitMetaDataIfNeeded(work.getDetails().getNetworkId(), wDetails.getSnapshotId());
-    if (work.getDetails().isDifferential()) {
-      cleanUpInitMetaDataIfNeeded(
-          work.getDetails().getNetworkId(), wDetails.getReferenceSnapshotId());
-    }
-    switch (work.getDetails().getWorkType()) {
-      case PARSING:
-        return queueParsingWork(work);
-      case DATAPLANING:
-        return queueDataplaningWork(work);
-      case INDEPENDENT_ANSWERING:
-        // assume that this type of work shouldn't be blocked at all
-        return _queueIncompleteWork.enque(work);
-      case PARSING_DEPENDENT_ANSWERING:
-        return queueDependentAnsweringWork(work, false);
-      case DATAPLANE_DEPENDENT_ANSWERING:
-        return queueDependentAnsweringWork(work, true);
-      case UNKNOWN:
-        return _queueIncompleteWork.enque(work);
-      default:
-        throw new BatfishException("Unknown WorkType " + work.getDetails().getWorkType());
+  public boolean queueUnassignedWork(QueuedWork work) throws Exception {
+    _lock.writeLock().lock();
+    try {
+      QueuedWork previouslyQueuedWork = getWork(work.getId());
+      if (previouslyQueuedWork != null) {
+        throw new BatfishException("Duplicate work item");
+      }
+      WorkDetails wDetails = work.getDetails();
+      cleanUpInitMetaDataIfNeeded(work.getDetails().getNetworkId(), wDetails.getSnapshotId());
+      if (work.getDetails().isDifferential()) {
+        cleanUpInitMetaDataIfNeeded(
+            work.getDetails().getNetworkId(), wDetails.getReferenceSnapshotId());
+      }
+      switch (work.getDetails().getWorkType()) {
+        case PARSING:
+          return queueParsingWork(work);
+        case DATAPLANING:
+          return queueDataplaningWork(work);
+        case INDEPENDENT_ANSWERING:
+          // assume that this type of work shouldn't be blocked at all
+          return _queueIncompleteWork.enque(work);
+        case PARSING_DEPENDENT_ANSWERING:
+          return queueDependentAnsweringWork(work, false);
+        case DATAPLANE_DEPENDENT_ANSWERING:
+          return queueDependentAnsweringWork(work, true);
+        case UNKNOWN:
+          return _queueIncompleteWork.enque(work);
+        default:
+          throw new BatfishException("Unknown WorkType " + work.getDetails().getWorkType());
+      }
+    } finally {
+      _lock.writeLock().unlock();
     }
   }
 }
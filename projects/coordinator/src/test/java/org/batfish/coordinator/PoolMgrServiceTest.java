@@ -11,16 +11,24 @@ import com.google.common.collect.ImmutableSet;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Map;
+import java.util.UUID;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.Application;
 import javax.ws.rs.core.Response;
 import org.batfish.common.BatfishLogger;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.CoordConsts;
 import org.batfish.common.CoordConstsV2;
+import org.batfish.common.Task;
+import org.batfish.common.WorkItem;
 import org.batfish.common.util.BatfishObjectMapper;
 import org.batfish.common.util.CommonUtil;
+import org.batfish.coordinator.WorkDetails.WorkType;
 import org.batfish.datamodel.questions.TestQuestion;
+import org.batfish.identifiers.NetworkId;
 import org.batfish.version.BatfishVersion;
 import org.glassfish.jersey.client.ClientConfig;
 import org.glassfish.jersey.jettison.JettisonFeature;
@@ -98,6 +106,62 @@ public final class PoolMgrServiceTest extends JerseyTest {
     }
   }
 
+  @Test
+  public void testTaskUpdateMissingTask() {
+    WorkMgrTestUtils.initWorkManager(_networksFolder);
+
+    try (Response response = getTaskUpdateResponse(UUID.randomUUID().toString(), null)) {
+      assertThat(response.getStatus(), equalTo(OK.getStatusCode()));
+
+      ArrayNode node = response.readEntity(ArrayNode.class);
+      assertThat(node.get(0).asText(), equalTo(CoordConsts.SVC_KEY_FAILURE));
+    }
+  }
+
+  @Test
+  public void testTaskUpdateUnknownWork() throws Exception {
+    WorkMgrTestUtils.initWorkManager(_networksFolder);
+    String task = BatfishObjectMapper.writeString(new Task(TaskStatus.TerminatedNormally));
+
+    try (Response response = getTaskUpdateResponse(UUID.randomUUID().toString(), task)) {
+      assertThat(response.getStatus(), equalTo(OK.getStatusCode()));
+
+      ArrayNode node = response.readEntity(ArrayNode.class);
+      assertThat(node.get(0).asText(), equalTo(CoordConsts.SVC_KEY_SUCCESS));
+      assertThat(node.get(1).asText(), equalTo("ignored"));
+    }
+  }
+
+  @Test
+  public void testTaskUpdateProcessed() throws Exception {
+    WorkMgrTestUtils.initWorkManager(_networksFolder);
+    WorkMgr workMgr = Main.getWorkMgr();
+    workMgr.initNetwork("network", null);
+    WorkMgrTestUtils.initSnapshotWithTopology("network", "snapshot", ImmutableSet.of());
+    NetworkId networkId = workMgr.getIdManager().getNetworkId("network").get();
+    QueuedWork work =
+        new QueuedWork(
+            new WorkItem("network", "snapshot"),
+            WorkDetails.builder()
+                .setWorkType(WorkType.PARSING)
+                .setNetworkId(networkId)
+                .setSnapshotId(workMgr.getIdManager().getSnapshotId("snapshot", networkId).get())
+                .build());
+    WorkQueueMgr workQueueMgr = workMgr.getWorkQueueMgr();
+    workQueueMgr.queueUnassignedWork(work);
+    workQueueMgr.markAssignmentSuccess(work, "worker:9999");
+    String task = BatfishObjectMapper.writeString(new Task(TaskStatus.InProgress));
+
+    try (Response response = getTaskUpdateResponse(work.getId().toString(), task)) {
+      assertThat(response.getStatus(), equalTo(OK.getStatusCode()));
+
+      ArrayNode node = response.readEntity(ArrayNode.class);
+      assertThat(node.get(0).asText(), equalTo(CoordConsts.SVC_KEY_SUCCESS));
+      assertThat(node.get(1).asText(), equalTo("processed"));
+    }
+    assertThat(work.getLastTaskCheckResult().getStatus(), equalTo(TaskStatus.InProgress));
+  }
+
   private Map<String, String> getQuestionTemplates(Response response) throws IOException {
     ArrayNode node = response.readEntity(ArrayNode.class);
 
@@ -117,6 +181,15 @@ public final class PoolMgrServiceTest extends JerseyTest {
         .get();
   }
 
+  private Response getTaskUpdateResponse(String workId, @Nullable String task) {
+    return target(CoordConsts.SVC_CFG_POOL_MGR)
+        .path(CoordConsts.SVC_RSC_POOL_TASK_UPDATE)
+        .queryParam(CoordConsts.SVC_KEY_WORKER, "worker:9999")
+        .queryParam(CoordConsts.SVC_KEY_WORKID, workId)
+        .request()
+        .post(Entity.json(task));
+  }
+
   private @Nonnull String writeTemplateFile(String templateName) {
     Path questionTemplateDir = _questionsTemplatesFolder.getRoot().toPath().resolve("templates");
     String templateText =
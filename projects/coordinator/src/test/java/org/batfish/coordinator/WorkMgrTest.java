@@ -60,14 +60,19 @@ import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.batfish.common.AnswerRowsOptions;
 import org.batfish.common.BatfishException;
 import org.batfish.common.BfConsts;
+import org.batfish.common.BfConsts.TaskStatus;
 import org.batfish.common.ColumnFilter;
 import org.batfish.common.ColumnSortOption;
 import org.batfish.common.Container;
+import org.batfish.common.CoordConsts.WorkStatusCode;
+import org.batfish.common.Task;
 import org.batfish.common.WorkItem;
 import org.batfish.common.runtime.RuntimeData;
 import org.batfish.common.runtime.SnapshotRuntimeData;
@@ -1949,6 +1954,155 @@ public final class WorkMgrTest {
     assertThat(processedRows, equalTo(table.getRowsList()));
   }
 
+  @Test
+  public void testGetAnswerRows2() throws IOException {
+    String networkName = "network1";
+    String snapshotName = "snapshot1";
+    String questionName = "question1";
+    _manager.initNetwork(networkName, null);
+    _manager.uploadQuestion(
+        networkName, questionName, BatfishObjectMapper.writeString(new TestQuestion()), false);
+    NetworkId networkId = _idManager.getNetworkId(networkName).get();
+    SnapshotId snapshotId = _idManager.generateSnapshotId();
+    _idManager.assignSnapshot(snapshotName, networkId, snapshotId);
+    QuestionId questionId = _idManager.getQuestionId(questionName, networkId, null).get();
+    AnswerId answerId =
+        _idManager.getAnswerId(
+            networkId, snapshotId, questionId, DEFAULT_NETWORK_NODE_ROLES_ID, null, null);
+    String col1 = "col1";
+    String col2 = "col2";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(
+                ImmutableList.of(
+                    new ColumnMetadata(col1, Schema.STRING, "col1"),
+                    new ColumnMetadata(col2, Schema.INTEGER, "col2"))));
+    for (int i = 0; i < 3000; i++) {
+      table.addRow(Row.of(col1, "value" + (i % 7), col2, (i * 31) % 101));
+    }
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(table);
+    String answerStr = BatfishObjectMapper.writeString(answer);
+    _storage.storeAnswerMetadata(
+        networkId,
+        snapshotId,
+        AnswerMetadataUtil.computeAnswerMetadata(answer, Main.getLogger()),
+        answerId);
+    _storage.storeAnswer(networkId, snapshotId, answerStr, answerId);
+    // the answer is stored in a form that can be queried without loading all of it
+    assertTrue(
+        _storage
+            .loadAnswerRows(networkId, snapshotId, answerId, AnswerRowsOptions.NO_FILTER)
+            .isPresent());
+
+    List<AnswerRowsOptions> optionsList =
+        ImmutableList.of(
+            AnswerRowsOptions.NO_FILTER,
+            new AnswerRowsOptions(
+                ImmutableSet.of(col2),
+                ImmutableList.of(new ColumnFilter(col1, "VALUE3")),
+                10,
+                5,
+                ImmutableList.of(new ColumnSortOption(col2, true)),
+                false),
+            new AnswerRowsOptions(
+                ImmutableSet.of(),
+                ImmutableList.of(),
+                20,
+                1500,
+                ImmutableList.of(
+                    new ColumnSortOption(col1, false), new ColumnSortOption(col2, true)),
+                false),
+            new AnswerRowsOptions(
+                ImmutableSet.of(col1),
+                ImmutableList.of(),
+                4,
+                2,
+                ImmutableList.of(new ColumnSortOption(col2, false)),
+                true),
+            // unknown columns are reported as by filtering the whole answer
+            new AnswerRowsOptions(
+                ImmutableSet.of("missing"), ImmutableList.of(), 4, 2, ImmutableList.of(), false));
+    for (AnswerRowsOptions options : optionsList) {
+      assertThat(
+          options.toString(),
+          BatfishObjectMapper.writeString(
+              _manager.getAnswerRows2(
+                  networkName, snapshotName, questionName, null, null, options)),
+          equalTo(
+              BatfishObjectMapper.writeString(_manager.processAnswerRows2(answerStr, options))));
+    }
+  }
+
+  @Test
+  public void testGetAnswerRowsUnreadableTable() throws IOException {
+    String networkName = "network1";
+    String snapshotName = "snapshot1";
+    String questionName = "question1";
+    _manager.initNetwork(networkName, null);
+    _manager.uploadQuestion(
+        networkName, questionName, BatfishObjectMapper.writeString(new TestQuestion()), false);
+    NetworkId networkId = _idManager.getNetworkId(networkName).get();
+    SnapshotId snapshotId = _idManager.generateSnapshotId();
+    _idManager.assignSnapshot(snapshotName, networkId, snapshotId);
+    QuestionId questionId = _idManager.getQuestionId(questionName, networkId, null).get();
+    AnswerId answerId =
+        _idManager.getAnswerId(
+            networkId, snapshotId, questionId, DEFAULT_NETWORK_NODE_ROLES_ID, null, null);
+    String col = "col";
+    TableAnswerElement table =
+        new TableAnswerElement(
+            new TableMetadata(ImmutableList.of(new ColumnMetadata(col, Schema.INTEGER, "col"))));
+    for (int i = 0; i < 10; i++) {
+      table.addRow(Row.of(col, i));
+    }
+    Answer answer = new Answer();
+    answer.setStatus(AnswerStatus.SUCCESS);
+    answer.addAnswerElement(table);
+    String answerStr = BatfishObjectMapper.writeString(answer);
+    _storage.storeAnswerMetadata(
+        networkId,
+        snapshotId,
+        AnswerMetadataUtil.computeAnswerMetadata(answer, Main.getLogger()),
+        answerId);
+    _storage.storeAnswer(networkId, snapshotId, answerStr, answerId);
+    // corrupt the paged form of the answer
+    List<Path> headers;
+    try (Stream<Path> files = Files.walk(_folder.getRoot().toPath())) {
+      headers =
+          files
+              .filter(p -> p.getFileName().toString().equals("header.json"))
+              .collect(Collectors.toList());
+    }
+    assertThat(headers, not(empty()));
+    for (Path header : headers) {
+      writeFile(header, "not a header");
+    }
+
+    // both entry points fall back to filtering the whole answer
+    AnswerRowsOptions options =
+        new AnswerRowsOptions(
+            ImmutableSet.of(col),
+            ImmutableList.of(),
+            3,
+            2,
+            ImmutableList.of(new ColumnSortOption(col, true)),
+            false);
+    assertThat(
+        BatfishObjectMapper.writeString(
+            _manager.getAnswerRows2(networkName, snapshotName, questionName, null, null, options)),
+        equalTo(BatfishObjectMapper.writeString(_manager.processAnswerRows2(answerStr, options))));
+    assertThat(
+        BatfishObjectMapper.writeString(
+            _manager.getFilteredAnswer(
+                networkName, snapshotName, questionName, null, null, options)),
+        equalTo(
+            BatfishObjectMapper.writeString(
+                _manager.filterAnswer(
+                    BatfishObjectMapper.mapper().readValue(answerStr, Answer.class), options))));
+  }
+
   @Test
   public void testProcessAnswerRowsFailure() throws IOException {
     String columnName = "issue";
@@ -2315,6 +2469,43 @@ public final class WorkMgrTest {
         equalTo(ImmutableList.of(row1)));
   }
 
+  @Test
+  public void testProcessTaskUpdate() throws Exception {
+    String network = "network";
+    String snapshot = "snapshot";
+    String worker = "worker:9999";
+    _manager.initNetwork(network, null);
+    WorkMgrTestUtils.initSnapshotWithTopology(network, snapshot, ImmutableSet.of());
+    NetworkId networkId = _idManager.getNetworkId(network).get();
+    QueuedWork work =
+        new QueuedWork(
+            new WorkItem(network, snapshot),
+            WorkDetails.builder()
+                .setWorkType(WorkType.PARSING)
+                .setNetworkId(networkId)
+                .setSnapshotId(_idManager.getSnapshotId(snapshot, networkId).get())
+                .build());
+    WorkQueueMgr workQueueMgr = _manager.getWorkQueueMgr();
+    workQueueMgr.queueUnassignedWork(work);
+    workQueueMgr.markAssignmentSuccess(work, worker);
+    Task task = new Task(TaskStatus.InProgress);
+
+    // An update from a worker the work is not assigned to is ignored
+    assertFalse(_manager.processTaskUpdate(work.getId(), "other:9999", task));
+    assertThat(work.getLastTaskCheckResult(), nullValue());
+
+    assertTrue(_manager.processTaskUpdate(work.getId(), worker, task));
+    assertThat(work.getStatus(), equalTo(WorkStatusCode.ASSIGNED));
+    assertThat(work.getLastTaskCheckResult(), equalTo(task));
+  }
+
+  @Test
+  public void testProcessTaskUpdateUnknownWork() {
+    assertFalse(
+        _manager.processTaskUpdate(
+            UUID.randomUUID(), "worker:9999", new Task(TaskStatus.TerminatedNormally)));
+  }
+
   @Test
   public void testBuildComparator() {
     String col1 = "col1";
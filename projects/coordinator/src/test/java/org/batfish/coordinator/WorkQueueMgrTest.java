@@ -9,6 +9,7 @@ import static org.hamcrest.core.IsEqual.equalTo;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -420,6 +421,36 @@ public final class WorkQueueMgrTest {
     assertThat(matchingWork, equalTo(work1));
   }
 
+  @Test
+  public void markWorkForChecking() throws Exception {
+    String snapshot = "snapshot1";
+    initSnapshotMetadata(snapshot, ProcessingStatus.UNINITIALIZED);
+    QueuedWork work =
+        new QueuedWork(
+            new WorkItem(NETWORK, snapshot),
+            WorkDetails.builder()
+                .setWorkType(WorkType.UNKNOWN)
+                .setNetworkId(_networkId)
+                .setSnapshotId(_idManager.getSnapshotId(snapshot, _networkId).get())
+                .build());
+    _workQueueMgr.queueUnassignedWork(work);
+
+    // unassigned work cannot be checked
+    assertFalse(_workQueueMgr.markWorkForChecking(work, "worker"));
+
+    _workQueueMgr.markAssignmentSuccess(work, "worker");
+
+    // only the assigned worker's updates are processed
+    assertFalse(_workQueueMgr.markWorkForChecking(work, "otherWorker"));
+    assertThat(work.getStatus(), equalTo(WorkStatusCode.ASSIGNED));
+
+    assertTrue(_workQueueMgr.markWorkForChecking(work, "worker"));
+    assertThat(work.getStatus(), equalTo(WorkStatusCode.CHECKINGSTATUS));
+    // a poll must not check the work at the same time
+    assertThat(_workQueueMgr.getWorkForChecking(), empty());
+    assertFalse(_workQueueMgr.markWorkForChecking(work, "worker"));
+  }
+
   @Test
   public void listIncompleteWork() throws Exception {
     String snapshot = "snapshot1";
@@ -1,15 +1,28 @@
 package org.batfish.minesweeper;
 
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.SetMultimap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 import dk.brics.automaton.Automaton;
-import java.util.HashMap;
+import dk.brics.automaton.SpecialOperations;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import javax.annotation.Nonnull;
 import javax.annotation.ParametersAreNonnullByDefault;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.batfish.common.BatfishException;
 
 /**
@@ -28,11 +41,24 @@ import org.batfish.common.BatfishException;
  * atomic predicates in order to precisely and scalably analyze packet forwarding symbolically; we
  * use the same idea to track regexes in symbolic routing analysis.
  *
+ * <p>Each regex splits the atomic predicates it overlaps. Atomic predicates whose literal prefixes
+ * are incompatible with the regex's are skipped without building a product automaton, and once a
+ * regex is fully accounted for, the remaining atomic predicates are left untouched. Results are
+ * cached by set of regexes.
+ *
  * @param <T> the particular type of regexes
  */
 @ParametersAreNonnullByDefault
 public class RegexAtomicPredicates<T extends SymbolicRegex> {
 
+  private static final Logger LOGGER = LogManager.getLogger(RegexAtomicPredicates.class);
+
+  // The same sets of regexes recur, e.g. when several questions are asked about one snapshot, so
+  // remember the atomic predicates of recently seen sets. Soft values: let them be garbage
+  // collected in times of pressure.
+  private static final Cache<Set<? extends SymbolicRegex>, AtomicPredicates<?>> CACHE =
+      CacheBuilder.newBuilder().softValues().maximumSize(64).build();
+
   @Nonnull private final Set<T> _regexes;
 
   // the number of atomic predicates
@@ -57,68 +83,142 @@ public class RegexAtomicPredicates<T extends SymbolicRegex> {
     initAtomicPredicates();
   }
 
+  /**
+   * The atomic predicates of one set of regexes, shared via the cache. Its automata must not be
+   * handed out without copying them.
+   */
+  private static final class AtomicPredicates<T extends SymbolicRegex> {
+    @Nonnull private final Map<Integer, Automaton> _automata;
+    @Nonnull private final Map<T, Set<Integer>> _regexAtomicPredicates;
+
+    private AtomicPredicates(
+        Map<Integer, Automaton> automata, Map<T, Set<Integer>> regexAtomicPredicates) {
+      _automata = automata;
+      _regexAtomicPredicates = regexAtomicPredicates;
+    }
+  }
+
+  /** An atomic predicate under construction, along with the regexes that include it. */
+  private static final class Atom<T extends SymbolicRegex> {
+    @Nonnull private final Automaton _automaton;
+    // a string that all strings accepted by the automaton start with
+    @Nonnull private final String _prefix;
+    @Nonnull private final Set<T> _regexes;
+
+    private Atom(Automaton automaton, Set<T> regexes) {
+      _automaton = automaton;
+      _prefix = SpecialOperations.getCommonPrefix(automaton);
+      _regexes = regexes;
+    }
+  }
+
+  @SuppressWarnings("unchecked")
   private void initAtomicPredicates() {
-    SetMultimap<Automaton, T> mmap = HashMultimap.create();
-    for (T regex : _regexes) {
+    AtomicPredicates<T> aps;
+    try {
+      aps = (AtomicPredicates<T>) CACHE.get(_regexes, () -> computeAtomicPredicates(_regexes));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new BatfishException("Could not compute atomic predicates", e.getCause());
+    }
+    _atomicPredicateAutomata = aps._automata;
+    _regexAtomicPredicates = aps._regexAtomicPredicates;
+    _numAtomicPredicates = _atomicPredicateAutomata.size();
+  }
+
+  private static @Nonnull <T extends SymbolicRegex> AtomicPredicates<T> computeAtomicPredicates(
+      Set<T> regexes) {
+    long startTime = System.nanoTime();
+    // invariant: the atoms are non-empty, pairwise disjoint, and each regex seen so far is the
+    // union of the atoms that include it
+    List<Atom<T>> atoms = new ArrayList<>();
+    for (T regex : regexes) {
       Automaton rAuto = regex.toAutomaton();
       if (rAuto.isEmpty()) {
         // regex doesn't match any communities; give up
         throw new BatfishException("Regex " + regex + " does not match any strings");
       }
-      SetMultimap<Automaton, T> newMMap = HashMultimap.create(mmap);
-      for (Automaton a : mmap.keySet()) {
-        if (a.equals(rAuto)) {
-          newMMap.put(a, regex);
-          // since all atomic predicates are disjoint from one another, if
-          // this regex is equal to an existing one, we can ignore all the rest
-          break;
+      String rPrefix = SpecialOperations.getCommonPrefix(rAuto);
+      List<Atom<T>> newAtoms = new ArrayList<>(atoms.size() + 1);
+      int i = 0;
+      for (; i < atoms.size(); i++) {
+        Atom<T> a = atoms.get(i);
+        if (!a._prefix.startsWith(rPrefix) && !rPrefix.startsWith(a._prefix)) {
+          // no string can start with both prefixes, so the regex is disjoint from a
+          newAtoms.add(a);
+          continue;
         }
-        Automaton inter = a.intersection(rAuto);
+        Automaton inter = a._automaton.intersection(rAuto);
         if (inter.isEmpty()) {
           // this regex is disjoint from a, so move on to the next atomic predicate
+          newAtoms.add(a);
           continue;
         }
-        // replace automaton a with two new atomic predicates, representing the intersection
-        // and difference with regex's automaton
-        Set<T> regexes = newMMap.removeAll(a);
-        Automaton diff = a.minus(rAuto);
-        newMMap.putAll(inter, regexes);
-        if (!diff.isEmpty()) {
-          newMMap.putAll(diff, regexes);
+        Automaton diff = a._automaton.minus(rAuto);
+        if (diff.isEmpty()) {
+          // a is contained in the regex
+          a._regexes.add(regex);
+          newAtoms.add(a);
+        } else {
+          // replace automaton a with two new atomic predicates, representing the intersection
+          // and difference with regex's automaton
+          Set<T> interRegexes = new HashSet<>(a._regexes);
+          interRegexes.add(regex);
+          newAtoms.add(new Atom<>(inter, interRegexes));
+          newAtoms.add(new Atom<>(diff, a._regexes));
+        }
+        // update rAuto with the residual automaton that is left
+        rAuto = rAuto.minus(a._automaton);
+        if (rAuto.isEmpty()) {
+          // since all atomic predicates are disjoint from one another, the remaining ones are
+          // disjoint from the regex
+          i++;
+          break;
         }
-        // add regex to the intersection
-        newMMap.put(inter, regex);
-        // update cAuto with the residual automaton that is left
-        rAuto = rAuto.minus(a);
       }
+      newAtoms.addAll(atoms.subList(i, atoms.size()));
       if (!rAuto.isEmpty()) {
-        // if there's anything left of cAuto by the end, add it
-        newMMap.put(rAuto, regex);
+        // if there's anything left of rAuto by the end, add it
+        Set<T> rRegexes = new HashSet<>();
+        rRegexes.add(regex);
+        newAtoms.add(new Atom<>(rAuto, rRegexes));
       }
-      mmap = newMMap;
+      atoms = newAtoms;
     }
     // assign a unique integer to each automaton.
     // create a mapping from each integer to its corresponding automaton
     // and a mapping from each regex to its corresponding set of integers.
-    _atomicPredicateAutomata = new HashMap<>();
-    SetMultimap<Integer, T> iToR = HashMultimap.create();
-    int i = 0;
-    for (Automaton a : mmap.keySet()) {
-      _atomicPredicateAutomata.put(i, a);
-      iToR.putAll(i, mmap.get(a));
-      i++;
+    ImmutableMap.Builder<Integer, Automaton> automata = ImmutableMap.builder();
+    SetMultimap<T, Integer> regexAtomicPredicates = HashMultimap.create();
+    for (int i = 0; i < atoms.size(); i++) {
+      Atom<T> a = atoms.get(i);
+      automata.put(i, a._automaton);
+      for (T regex : a._regexes) {
+        regexAtomicPredicates.put(regex, i);
+      }
     }
-    _numAtomicPredicates = i;
-    _regexAtomicPredicates = Multimaps.asMap(Multimaps.invertFrom(iToR, HashMultimap.create()));
+    LOGGER.info(
+        "Computed {} atomic predicates for {} regexes in {} ms",
+        atoms.size(),
+        regexes.size(),
+        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+    return new AtomicPredicates<>(
+        automata.build(),
+        Multimaps.asMap(Multimaps.unmodifiableSetMultimap(regexAtomicPredicates)));
   }
 
   public int getNumAtomicPredicates() {
     return _numAtomicPredicates;
   }
 
+  /**
+   * Returns the automaton of each atomic predicate. {@link Automaton}s are mutable and the atomic
+   * predicates are shared by all instances with the same regexes, so these are copies that the
+   * caller is free to modify.
+   */
   @Nonnull
   public Map<Integer, Automaton> getAtomicPredicateAutomata() {
-    return _atomicPredicateAutomata;
+    return ImmutableMap.copyOf(Maps.transformValues(_atomicPredicateAutomata, Automaton::clone));
   }
 
   @Nonnull
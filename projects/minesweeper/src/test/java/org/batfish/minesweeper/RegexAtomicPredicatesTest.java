@@ -4,12 +4,16 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.iterableWithSize;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.ImmutableSet;
 import dk.brics.automaton.Automaton;
 import dk.brics.automaton.RegExp;
+import dk.brics.automaton.State;
+import java.util.Map;
 import java.util.Set;
 import org.batfish.datamodel.bgp.community.StandardCommunity;
 import org.junit.Test;
@@ -104,4 +108,60 @@ public class RegexAtomicPredicatesTest {
         asPathAPs.getRegexAtomicPredicates(),
         hasEntry(equalTo(new SymbolicAsPathRegex(".*")), iterableWithSize(5)));
   }
+
+  @Test
+  public void testInitAtomicPredicatesDisjointLiterals() {
+    Set<CommunityVar> cvars =
+        ImmutableSet.of(
+            CommunityVar.from(StandardCommunity.parse("10:1")),
+            CommunityVar.from(StandardCommunity.parse("10:2")),
+            CommunityVar.from(StandardCommunity.parse("20:1")),
+            CommunityVar.from("^10:"));
+
+    RegexAtomicPredicates<CommunityVar> commAPs =
+        new RegexAtomicPredicates<>(cvars, CommunityVar.ALL_STANDARD_COMMUNITIES);
+
+    // 10:1, 10:2, 20:1, other 10:*, and everything else
+    assertEquals(commAPs.getNumAtomicPredicates(), 5);
+    assertThat(
+        commAPs.getRegexAtomicPredicates(),
+        hasEntry(equalTo(CommunityVar.from("^10:")), iterableWithSize(3)));
+    assertThat(
+        commAPs.getRegexAtomicPredicates(),
+        hasEntry(equalTo(CommunityVar.from(StandardCommunity.parse("20:1"))), iterableWithSize(1)));
+  }
+
+  @Test
+  public void testInitAtomicPredicatesCached() {
+    Set<SymbolicAsPathRegex> asPathRegexes =
+        ImmutableSet.of(new SymbolicAsPathRegex("^$"), new SymbolicAsPathRegex(" 7$"));
+
+    RegexAtomicPredicates<SymbolicAsPathRegex> asPathAPs1 =
+        new RegexAtomicPredicates<>(asPathRegexes, SymbolicAsPathRegex.ALL_AS_PATHS);
+    RegexAtomicPredicates<SymbolicAsPathRegex> asPathAPs2 =
+        new RegexAtomicPredicates<>(asPathRegexes, SymbolicAsPathRegex.ALL_AS_PATHS);
+
+    assertThat(
+        asPathAPs2.getRegexAtomicPredicates(), sameInstance(asPathAPs1.getRegexAtomicPredicates()));
+  }
+
+  @Test
+  public void testAtomicPredicateAutomataAreCopies() {
+    Set<SymbolicAsPathRegex> asPathRegexes =
+        ImmutableSet.of(new SymbolicAsPathRegex("^$"), new SymbolicAsPathRegex(" 7$"));
+    RegexAtomicPredicates<SymbolicAsPathRegex> asPathAPs =
+        new RegexAtomicPredicates<>(asPathRegexes, SymbolicAsPathRegex.ALL_AS_PATHS);
+
+    Map<Integer, Automaton> automata = asPathAPs.getAtomicPredicateAutomata();
+    Map<Integer, Automaton> otherAutomata =
+        new RegexAtomicPredicates<>(asPathRegexes, SymbolicAsPathRegex.ALL_AS_PATHS)
+            .getAtomicPredicateAutomata();
+    assertThat(otherAutomata, equalTo(automata));
+
+    // modifying the returned automata does not affect the shared atomic predicates
+    Automaton original = automata.get(0).clone();
+    automata.get(0).setInitialState(new State());
+    assertThat(asPathAPs.getAtomicPredicateAutomata().get(0), equalTo(original));
+    assertThat(otherAutomata.get(0), not(sameInstance(automata.get(0))));
+  }
 }
@@ -3,17 +3,31 @@ package org.batfish.question;
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.SOURCE_ORIGINATING_FROM_DEVICE;
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.referencedSources;
 
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiFunction;
 import net.sf.javabdd.BDD;
+import org.batfish.common.BatfishException;
+import org.batfish.common.BfConsts;
 import org.batfish.common.bdd.BDDFlowConstraintGenerator.FlowPreference;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.bdd.BDDSourceManager;
+import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.Configuration;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.IpAccessList;
@@ -30,6 +44,66 @@ import org.batfish.specifier.SpecifierContext;
 public final class FilterQuestionUtils {
   private FilterQuestionUtils() {}
 
+  /**
+   * Returns the number of threads filter questions may use, as configured by {@link
+   * BfConsts#ARG_FILTER_ANALYSIS_THREADS}. Defaults to 1, i.e. sequential.
+   */
+  public static int getFilterAnalysisThreads(IBatfish batfish) {
+    return batfish.getSettingsConfiguration().getInt(BfConsts.ARG_FILTER_ANALYSIS_THREADS, 1);
+  }
+
+  /**
+   * Applies {@code task} to each of {@code inputs} on up to {@code threads} threads, and returns
+   * the (non-null) results in the order of {@code inputs}. BDD factories are not thread-safe, so
+   * each thread gets its own {@link BDDPacket}; results must not contain {@link BDD BDDs}. With one
+   * thread, all inputs share a single {@link BDDPacket}, as in a sequential loop.
+   */
+  public static <T, R> List<R> mapWithBddPackets(
+      List<T> inputs, int threads, BiFunction<BDDPacket, T, R> task) {
+    int numThreads = Math.min(threads, inputs.size());
+    if (numThreads <= 1) {
+      BDDPacket pkt = new BDDPacket();
+      return inputs.stream()
+          .map(input -> task.apply(pkt, input))
+          .collect(ImmutableList.toImmutableList());
+    }
+    // Threads claim inputs one at a time, so uneven inputs are balanced across threads.
+    AtomicReferenceArray<R> results = new AtomicReferenceArray<>(inputs.size());
+    AtomicInteger nextInput = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+    try {
+      List<Future<?>> workers = new ArrayList<>(numThreads);
+      for (int t = 0; t < numThreads; t++) {
+        workers.add(
+            executor.submit(
+                () -> {
+                  BDDPacket pkt = new BDDPacket();
+                  int i;
+                  while ((i = nextInput.getAndIncrement()) < inputs.size()) {
+                    results.set(i, task.apply(pkt, inputs.get(i)));
+                  }
+                }));
+      }
+      for (Future<?> worker : workers) {
+        worker.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new BatfishException("Interrupted while analyzing filters", e);
+    } catch (ExecutionException e) {
+      // Surface the same exception a sequential run would have thrown
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new BatfishException("Error analyzing filters", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    ImmutableList.Builder<R> orderedResults = ImmutableList.builderWithExpectedSize(inputs.size());
+    for (int i = 0; i < inputs.size(); i++) {
+      orderedResults.add(results.get(i));
+    }
+    return orderedResults.build();
+  }
+
   /** Get filters specified by the given filter specifier. */
   public static Multimap<String, String> getSpecifiedFilters(
       SpecifierContext specifierContext,
@@ -3,7 +3,9 @@ package org.batfish.question.comparefilters;
 import static com.google.common.base.Preconditions.checkArgument;
 import static org.batfish.common.bdd.PermitAndDenyBdds.takeDifferentActions;
 import static org.batfish.question.FilterQuestionUtils.differentialBDDSourceManager;
+import static org.batfish.question.FilterQuestionUtils.getFilterAnalysisThreads;
 import static org.batfish.question.FilterQuestionUtils.getSpecifiedFilters;
+import static org.batfish.question.FilterQuestionUtils.mapWithBddPackets;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
@@ -89,17 +91,22 @@ public class CompareFiltersAnswerer extends Answerer {
             currentFilters,
             entry -> referenceFilters.containsEntry(entry.getKey(), entry.getValue()));
 
-    BDDPacket bddPacket = new BDDPacket();
-    Multiset<Row> rows =
-        commonFilters.entries().stream()
-            .flatMap(
-                entry ->
-                    compareFilter(
+    // Filters are compared independently, possibly in parallel. Rows are added in filter order.
+    List<List<FilterDifference>> differences =
+        mapWithBddPackets(
+            ImmutableList.copyOf(commonFilters.entries()),
+            getFilterAnalysisThreads(_batfish),
+            (bddPacket, entry) ->
+                compareFilter(
                         entry.getKey(),
                         entry.getValue(),
                         bddPacket,
                         currentContext,
-                        referenceContext))
+                        referenceContext)
+                    .collect(ImmutableList.toImmutableList()));
+    Multiset<Row> rows =
+        differences.stream()
+            .flatMap(List::stream)
             .map(filterDifference -> toRow(filterDifference, currentContext, referenceContext))
             .collect(ImmutableMultiset.toImmutableMultiset());
 
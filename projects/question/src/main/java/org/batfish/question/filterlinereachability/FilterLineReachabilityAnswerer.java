@@ -2,6 +2,8 @@ package org.batfish.question.filterlinereachability;
 
 import static com.google.common.base.MoreObjects.firstNonNull;
 import static org.batfish.common.util.CollectionUtil.toImmutableMap;
+import static org.batfish.question.FilterQuestionUtils.getFilterAnalysisThreads;
+import static org.batfish.question.FilterQuestionUtils.mapWithBddPackets;
 import static org.batfish.question.filterlinereachability.AclEraser.erase;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityRows.createMetadata;
 import static org.batfish.question.filterlinereachability.FilterLineReachabilityUtils.getReferencedAcls;
@@ -12,6 +14,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -25,7 +28,6 @@ import java.util.stream.Stream;
 import javax.annotation.ParametersAreNonnullByDefault;
 import org.batfish.common.Answerer;
 import org.batfish.common.NetworkSnapshot;
-import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.datamodel.AclLine;
 import org.batfish.datamodel.Configuration;
@@ -63,7 +65,8 @@ public class FilterLineReachabilityAnswerer extends Answerer {
 
     SortedMap<String, Configuration> configurations = _batfish.loadConfigurations(snapshot);
     List<AclSpecs> aclSpecs = getAclSpecs(configurations, specifiedAcls, answerRows);
-    computeUnreachableFilterLines(aclSpecs).forEach(answerRows::addRowForLine);
+    computeUnreachableFilterLines(aclSpecs, getFilterAnalysisThreads(_batfish))
+        .forEach(answerRows::addRowForLine);
     TableAnswerElement answer = new TableAnswerElement(createMetadata(question));
     answer.postProcessAnswer(question, answerRows.getRows());
     return answer;
@@ -358,7 +361,8 @@ public class FilterLineReachabilityAnswerer extends Answerer {
       SortedMap<String, Configuration> configurations,
       Map<String, Set<String>> specifiedAcls,
       FilterLineReachabilityRows answer) {
-    List<AclSpecs.Builder> aclSpecs = new ArrayList<>();
+    // Identical ACLs share one AclSpecs; insertion order keeps the answer deterministic.
+    Map<CanonicalAcl, AclSpecs.Builder> aclSpecs = new LinkedHashMap<>();
 
     /*
      - For each ACL, build a CanonicalAcl structure with that ACL and referenced ACLs & interfaces
@@ -433,29 +437,29 @@ public class FilterLineReachabilityAnswerer extends Answerer {
                   node.getLinesInCycles());
 
           // If an identical ACL exists, add current hostname/aclName pair; otherwise, add new ACL
-          boolean added = false;
-          for (AclSpecs.Builder aclSpec : aclSpecs) {
-            if (aclSpec.getAcl().equals(currentAcl)) {
-              aclSpec.addSource(hostname, aclName);
-              added = true;
-              break;
-            }
-          }
-          if (!added) {
-            aclSpecs.add(AclSpecs.builder().setAcl(currentAcl).addSource(hostname, aclName));
-          }
+          aclSpecs
+              .computeIfAbsent(currentAcl, acl -> AclSpecs.builder().setAcl(acl))
+              .addSource(hostname, aclName);
         }
       }
     }
-    return aclSpecs.stream().map(AclSpecs.Builder::build).collect(Collectors.toList());
+    return aclSpecs.values().stream().map(AclSpecs.Builder::build).collect(Collectors.toList());
   }
 
-  private static Stream<UnreachableFilterLine> computeUnreachableFilterLines(
-      List<AclSpecs> aclSpecs) {
-    BDDPacket bddPacket = new BDDPacket();
-    return aclSpecs.stream()
-        .flatMap(
-            aclSpec ->
-                FilterLineReachabilityUtils.computeUnreachableFilterLines(aclSpec, bddPacket));
+  /**
+   * Computes the unreachable lines of each of the {@code aclSpecs} on up to {@code threads}
+   * threads. Lines are returned in the order of {@code aclSpecs} regardless of {@code threads}.
+   */
+  @VisibleForTesting
+  static Stream<UnreachableFilterLine> computeUnreachableFilterLines(
+      List<AclSpecs> aclSpecs, int threads) {
+    return mapWithBddPackets(
+            aclSpecs,
+            threads,
+            (bddPacket, aclSpec) ->
+                FilterLineReachabilityUtils.computeUnreachableFilterLines(aclSpec, bddPacket)
+                    .collect(ImmutableList.toImmutableList()))
+        .stream()
+        .flatMap(List::stream);
   }
 }
@@ -0,0 +1,258 @@
+package org.batfish.question.routes;
+
+import static com.google.common.collect.ImmutableList.toImmutableList;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Table;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.GenericRibReadOnly;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.PrefixTrieMultiMap;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.question.routes.RoutesQuestion.PrefixMatchType;
+
+/**
+ * Secondary indexes over the routes of one kind of RIB, on some nodes of a snapshot.
+ *
+ * <p>The routes of each node are indexed separately: they are numbered in VRF order, and each index
+ * maps a key (network or protocol) to the numbers of the routes with that key. Selective queries
+ * thus only touch the routes that match, instead of walking every RIB of the data plane, and
+ * indexes of single nodes can be built on demand and {@link #concat combined}.
+ */
+@ParametersAreNonnullByDefault
+public final class RouteIndex<R extends AbstractRoute> {
+
+  /** A route, along with the node and VRF whose RIB contains it. */
+  public static final class IndexedRoute<R extends AbstractRoute> {
+    private final @Nonnull String _hostname;
+    private final @Nonnull String _vrfName;
+    private final @Nonnull R _route;
+
+    private IndexedRoute(String hostname, String vrfName, R route) {
+      _hostname = hostname;
+      _vrfName = vrfName;
+      _route = route;
+    }
+
+    public @Nonnull String getHostname() {
+      return _hostname;
+    }
+
+    public @Nonnull String getVrfName() {
+      return _vrfName;
+    }
+
+    public @Nonnull R getRoute() {
+      return _route;
+    }
+  }
+
+  /** Index the routes of the given main RIBs, keyed by node and then by VRF. */
+  public static @Nonnull RouteIndex<AbstractRoute> fromRibs(
+      Map<String, ? extends Map<String, ? extends GenericRibReadOnly<?>>> ribs) {
+    return concat(
+        ribs.entrySet().stream()
+            .map(e -> fromNodeRibs(e.getKey(), e.getValue()))
+            .collect(toImmutableList()));
+  }
+
+  /** Index the routes of the given main RIBs of node {@code hostname}, keyed by VRF. */
+  public static @Nonnull RouteIndex<AbstractRoute> fromNodeRibs(
+      String hostname, Map<String, ? extends GenericRibReadOnly<?>> vrfRibs) {
+    NodeIndex.Builder<AbstractRoute> builder = new NodeIndex.Builder<>(hostname);
+    vrfRibs.forEach(
+        (vrfName, rib) -> rib.getRoutes().forEach(route -> builder.add(vrfName, route)));
+    return new RouteIndex<>(ImmutableList.of(builder.build()));
+  }
+
+  /** Index the routes of the given table, whose rows are nodes and whose columns are VRFs. */
+  public static @Nonnull <R extends AbstractRoute> RouteIndex<R> fromTable(
+      Table<String, String, ? extends Set<? extends R>> routes) {
+    return concat(
+        routes.rowMap().entrySet().stream()
+            .map(e -> RouteIndex.<R>fromNodeRoutes(e.getKey(), e.getValue()))
+            .collect(toImmutableList()));
+  }
+
+  /** Index the routes of node {@code hostname}, keyed by VRF. */
+  public static @Nonnull <R extends AbstractRoute> RouteIndex<R> fromNodeRoutes(
+      String hostname, Map<String, ? extends Set<? extends R>> vrfRoutes) {
+    NodeIndex.Builder<R> builder = new NodeIndex.Builder<>(hostname);
+    vrfRoutes.forEach(
+        (vrfName, vrfRouteSet) -> vrfRouteSet.forEach(route -> builder.add(vrfName, route)));
+    return new RouteIndex<>(ImmutableList.of(builder.build()));
+  }
+
+  /** Returns an index of the routes of all the given indexes, which must be of distinct nodes. */
+  public static @Nonnull <R extends AbstractRoute> RouteIndex<R> concat(
+      List<RouteIndex<R>> indexes) {
+    if (indexes.size() == 1) {
+      return indexes.get(0);
+    }
+    return new RouteIndex<>(
+        indexes.stream().flatMap(index -> index._nodes.stream()).collect(toImmutableList()));
+  }
+
+  /** The routes of a single node. */
+  private static final class NodeIndex<R extends AbstractRoute> {
+
+    private static final class Builder<R extends AbstractRoute> {
+      private final @Nonnull String _hostname;
+      private final ImmutableList.Builder<IndexedRoute<R>> _routes = ImmutableList.builder();
+      private final PrefixTrieMultiMap<Integer> _byNetwork = new PrefixTrieMultiMap<>();
+      private final Map<RoutingProtocol, BitSet> _byProtocol = new HashMap<>();
+      private int _size;
+
+      private Builder(String hostname) {
+        _hostname = hostname;
+      }
+
+      private void add(String vrfName, R route) {
+        int id = _size++;
+        _routes.add(new IndexedRoute<>(_hostname, vrfName, route));
+        _byNetwork.put(route.getNetwork(), id);
+        _byProtocol.computeIfAbsent(route.getProtocol(), k -> new BitSet()).set(id);
+      }
+
+      private NodeIndex<R> build() {
+        return new NodeIndex<>(this);
+      }
+    }
+
+    private final @Nonnull String _hostname;
+    private final @Nonnull List<IndexedRoute<R>> _routes;
+    private final @Nonnull PrefixTrieMultiMap<Integer> _byNetwork;
+    private final @Nonnull Map<RoutingProtocol, BitSet> _byProtocol;
+
+    private NodeIndex(Builder<R> builder) {
+      _hostname = builder._hostname;
+      _routes = builder._routes.build();
+      _byNetwork = builder._byNetwork;
+      _byProtocol = ImmutableMap.copyOf(builder._byProtocol);
+    }
+
+    /** Adds the selected routes of this node to {@code result}; see {@link RouteIndex#select}. */
+    private void select(
+        Map<String, Boolean> vrfMatches,
+        Pattern vrfRegex,
+        @Nullable Prefix network,
+        PrefixMatchType prefixMatchType,
+        Set<RoutingProtocol> protocols,
+        ImmutableList.Builder<IndexedRoute<R>> result) {
+      IntPredicate filter =
+          id -> {
+            IndexedRoute<R> route = _routes.get(id);
+            return protocols.contains(route._route.getProtocol())
+                && vrfMatches.computeIfAbsent(
+                    route._vrfName, vrf -> vrfRegex.matcher(vrf).matches());
+          };
+
+      BitSet selected;
+      if (network == null) {
+        selected = candidatesByProtocol(protocols);
+      } else if (prefixMatchType == PrefixMatchType.EXACT) {
+        selected = toBitSet(_byNetwork.get(network));
+      } else {
+        selected = longestPrefixMatches(network, filter);
+      }
+      selected.stream().filter(filter).forEach(id -> result.add(_routes.get(id)));
+    }
+
+    private @Nonnull BitSet candidatesByProtocol(Set<RoutingProtocol> protocols) {
+      if (protocols.containsAll(_byProtocol.keySet())) {
+        BitSet all = new BitSet();
+        all.set(0, _routes.size());
+        return all;
+      }
+      BitSet candidates = new BitSet();
+      protocols.forEach(
+          protocol -> {
+            BitSet routes = _byProtocol.get(protocol);
+            if (routes != null) {
+              candidates.or(routes);
+            }
+          });
+      return candidates;
+    }
+
+    /**
+     * Returns the routes for the longest network containing {@code network} in each VRF,
+     * considering only routes that pass {@code filter}.
+     */
+    private @Nonnull BitSet longestPrefixMatches(Prefix network, IntPredicate filter) {
+      BitSet selected = new BitSet();
+      // VRF -> length of the longest matching network found so far
+      Map<String, Integer> matchedLengths = new HashMap<>();
+      for (int length = network.getPrefixLength(); length >= 0; length--) {
+        for (int id : _byNetwork.get(Prefix.create(network.getStartIp(), length))) {
+          if (!filter.test(id)) {
+            continue;
+          }
+          IndexedRoute<R> route = _routes.get(id);
+          int matchedLength =
+              matchedLengths.computeIfAbsent(
+                  route._vrfName, k -> route._route.getNetwork().getPrefixLength());
+          if (matchedLength == length) {
+            selected.set(id);
+          }
+        }
+      }
+      return selected;
+    }
+
+    private static @Nonnull BitSet toBitSet(Set<Integer> ids) {
+      BitSet bits = new BitSet();
+      ids.forEach(bits::set);
+      return bits;
+    }
+  }
+
+  private final @Nonnull List<NodeIndex<R>> _nodes;
+
+  private RouteIndex(List<NodeIndex<R>> nodes) {
+    _nodes = nodes;
+  }
+
+  /** Returns the number of indexed routes. */
+  public int size() {
+    return _nodes.stream().mapToInt(node -> node._routes.size()).sum();
+  }
+
+  /**
+   * Returns the routes on the given nodes, in VRFs matching {@code vrfRegex}, of the given
+   * protocols, whose network matches {@code network}.
+   *
+   * <p>If {@code network} is {@code null}, routes for all networks are returned. Otherwise, with
+   * {@link PrefixMatchType#EXACT} only routes for exactly {@code network} are returned, and with
+   * {@link PrefixMatchType#LONGEST_PREFIX_MATCH} each VRF contributes its routes for the longest
+   * network containing {@code network}, among the routes that pass the other filters.
+   *
+   * <p>Routes are returned in node and VRF order.
+   */
+  public @Nonnull List<IndexedRoute<R>> select(
+      Set<String> nodes,
+      String vrfRegex,
+      @Nullable Prefix network,
+      PrefixMatchType prefixMatchType,
+      Set<RoutingProtocol> protocols) {
+    Pattern compiledVrfRegex = Pattern.compile(vrfRegex);
+    Map<String, Boolean> vrfMatches = new HashMap<>();
+    ImmutableList.Builder<IndexedRoute<R>> result = ImmutableList.builder();
+    for (NodeIndex<R> node : Iterables.filter(_nodes, n -> nodes.contains(n._hostname))) {
+      node.select(vrfMatches, compiledVrfRegex, network, prefixMatchType, protocols, result);
+    }
+    return result.build();
+  }
+}
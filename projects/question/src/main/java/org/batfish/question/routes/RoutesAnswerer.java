@@ -38,6 +38,7 @@ import org.batfish.datamodel.table.ColumnMetadata;
 import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.TableAnswerElement;
 import org.batfish.datamodel.table.TableMetadata;
+import org.batfish.question.routes.RoutesQuestion.PrefixMatchType;
 import org.batfish.question.routes.RoutesQuestion.RibProtocol;
 import org.batfish.specifier.ConstantEnumSetSpecifier;
 import org.batfish.specifier.RoutingProtocolSpecifier;
@@ -100,6 +101,7 @@ public class RoutesAnswerer extends Answerer {
     Set<String> matchingNodes =
         question.getNodeSpecifier().resolve(_batfish.specifierContext(snapshot));
     Prefix network = question.getNetwork();
+    PrefixMatchType prefixMatchType = question.getPrefixMatchType();
     RoutingProtocolSpecifier protocolSpec = question.getRoutingProtocolSpecifier();
     String vrfRegex = question.getVrfs();
     Map<Ip, Set<String>> ipOwners =
@@ -114,10 +116,11 @@ public class RoutesAnswerer extends Answerer {
         if (bgpBackup) {
           rows.addAll(
               getBgpRibRoutes(
-                  dp.getBgpBackupRoutes(),
+                  SnapshotRouteIndexes.getBgpBackupRoutes(dp, matchingNodes),
                   RibProtocol.BGP,
                   matchingNodes,
                   network,
+                  prefixMatchType,
                   protocolSpec,
                   vrfRegex,
                   ImmutableSet.of(BACKUP)));
@@ -125,10 +128,11 @@ public class RoutesAnswerer extends Answerer {
         if (bgpMultipathBest) {
           rows.addAll(
               getBgpRibRoutes(
-                  dp.getBgpRoutes(),
+                  SnapshotRouteIndexes.getBgpRoutes(dp, matchingNodes),
                   RibProtocol.BGP,
                   matchingNodes,
                   network,
+                  prefixMatchType,
                   protocolSpec,
                   vrfRegex,
                   ImmutableSet.of(BEST)));
@@ -139,10 +143,11 @@ public class RoutesAnswerer extends Answerer {
         if (bgpBackup) {
           rows.addAll(
               getEvpnRoutes(
-                  dp.getEvpnBackupRoutes(),
+                  SnapshotRouteIndexes.getEvpnBackupRoutes(dp, matchingNodes),
                   RibProtocol.EVPN,
                   matchingNodes,
                   network,
+                  prefixMatchType,
                   protocolSpec,
                   vrfRegex,
                   ImmutableSet.of(BACKUP)));
@@ -150,10 +155,11 @@ public class RoutesAnswerer extends Answerer {
         if (bgpMultipathBest) {
           rows.addAll(
               getEvpnRoutes(
-                  dp.getEvpnRoutes(),
+                  SnapshotRouteIndexes.getEvpnRoutes(dp, matchingNodes),
                   RibProtocol.EVPN,
                   matchingNodes,
                   network,
+                  prefixMatchType,
                   protocolSpec,
                   vrfRegex,
                   ImmutableSet.of(BEST)));
@@ -163,7 +169,13 @@ public class RoutesAnswerer extends Answerer {
       default:
         rows =
             getMainRibRoutes(
-                dp.getRibs(), matchingNodes, network, protocolSpec, vrfRegex, ipOwners);
+                SnapshotRouteIndexes.getMainRibRoutes(dp, matchingNodes),
+                matchingNodes,
+                network,
+                prefixMatchType,
+                protocolSpec,
+                vrfRegex,
+                ipOwners);
     }
 
     answer.postProcessAnswer(_question, rows);
@@ -178,6 +190,7 @@ public class RoutesAnswerer extends Answerer {
     Set<String> matchingNodes =
         question.getNodeSpecifier().resolve(_batfish.specifierContext(snapshot));
     Prefix network = question.getNetwork();
+    PrefixMatchType prefixMatchType = question.getPrefixMatchType();
     RoutingProtocolSpecifier protocolSpec = question.getRoutingProtocolSpecifier();
     String vrfRegex = question.getVrfs();
     Set<BgpRouteStatus> expandedBgpRouteStatuses =
@@ -202,21 +215,31 @@ public class RoutesAnswerer extends Answerer {
         dp = _batfish.loadDataPlane(snapshot);
         routesGroupedByKeyInBase =
             groupBgpRoutes(
-                expandedBgpRouteStatuses.contains(BEST) ? dp.getBgpRoutes() : null,
-                expandedBgpRouteStatuses.contains(BACKUP) ? dp.getBgpBackupRoutes() : null,
+                expandedBgpRouteStatuses.contains(BEST)
+                    ? SnapshotRouteIndexes.getBgpRoutes(dp, matchingNodes)
+                    : null,
+                expandedBgpRouteStatuses.contains(BACKUP)
+                    ? SnapshotRouteIndexes.getBgpBackupRoutes(dp, matchingNodes)
+                    : null,
                 matchingNodes,
                 vrfRegex,
                 network,
+                prefixMatchType,
                 protocolSpec);
 
         dp = _batfish.loadDataPlane(reference);
         routesGroupedByKeyInDelta =
             groupBgpRoutes(
-                expandedBgpRouteStatuses.contains(BEST) ? dp.getBgpRoutes() : null,
-                expandedBgpRouteStatuses.contains(BACKUP) ? dp.getBgpBackupRoutes() : null,
+                expandedBgpRouteStatuses.contains(BEST)
+                    ? SnapshotRouteIndexes.getBgpRoutes(dp, matchingNodes)
+                    : null,
+                expandedBgpRouteStatuses.contains(BACKUP)
+                    ? SnapshotRouteIndexes.getBgpBackupRoutes(dp, matchingNodes)
+                    : null,
                 matchingNodes,
                 vrfRegex,
                 network,
+                prefixMatchType,
                 protocolSpec);
         routesDiffRaw = getRoutesDiff(routesGroupedByKeyInBase, routesGroupedByKeyInDelta);
         rows = getBgpRouteRowsDiff(routesDiffRaw, RibProtocol.BGP);
@@ -227,12 +250,26 @@ public class RoutesAnswerer extends Answerer {
         dp = _batfish.loadDataPlane(snapshot);
         ipOwners = computeIpNodeOwners(_batfish.loadConfigurations(snapshot), true);
         routesGroupedByKeyInBase =
-            groupRoutes(dp.getRibs(), matchingNodes, network, vrfRegex, protocolSpec, ipOwners);
+            groupRoutes(
+                SnapshotRouteIndexes.getMainRibRoutes(dp, matchingNodes),
+                matchingNodes,
+                network,
+                prefixMatchType,
+                vrfRegex,
+                protocolSpec,
+                ipOwners);
 
         dp = _batfish.loadDataPlane(reference);
         ipOwners = computeIpNodeOwners(_batfish.loadConfigurations(reference), true);
         routesGroupedByKeyInDelta =
-            groupRoutes(dp.getRibs(), matchingNodes, network, vrfRegex, protocolSpec, ipOwners);
+            groupRoutes(
+                SnapshotRouteIndexes.getMainRibRoutes(dp, matchingNodes),
+                matchingNodes,
+                network,
+                prefixMatchType,
+                vrfRegex,
+                protocolSpec,
+                ipOwners);
 
         routesDiffRaw = getRoutesDiff(routesGroupedByKeyInBase, routesGroupedByKeyInDelta);
         rows = getAbstractRouteRowsDiff(routesDiffRaw);
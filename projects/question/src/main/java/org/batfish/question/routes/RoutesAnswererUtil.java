@@ -38,7 +38,6 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multiset;
-import com.google.common.collect.Table;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
@@ -46,18 +45,14 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.batfish.common.BatfishException;
 import org.batfish.datamodel.AbstractRoute;
-import org.batfish.datamodel.AbstractRouteDecorator;
 import org.batfish.datamodel.Bgpv4Route;
 import org.batfish.datamodel.EvpnRoute;
-import org.batfish.datamodel.GenericRib;
 import org.batfish.datamodel.Ip;
 import org.batfish.datamodel.Prefix;
 import org.batfish.datamodel.Route;
@@ -69,6 +64,8 @@ import org.batfish.datamodel.table.Row;
 import org.batfish.datamodel.table.Row.RowBuilder;
 import org.batfish.datamodel.table.TableDiff;
 import org.batfish.question.routes.DiffRoutesOutput.KeyPresenceStatus;
+import org.batfish.question.routes.RouteIndex.IndexedRoute;
+import org.batfish.question.routes.RoutesQuestion.PrefixMatchType;
 import org.batfish.question.routes.RoutesQuestion.RibProtocol;
 import org.batfish.specifier.RoutingProtocolSpecifier;
 
@@ -137,135 +134,99 @@ public class RoutesAnswererUtil {
   /**
    * Returns a {@link Multiset} of {@link Row}s for all routes present in all RIBs
    *
-   * @param ribs {@link Map} representing all RIBs of all nodes
+   * @param ribs {@link RouteIndex} of the RIBs of at least the matching nodes
    * @param matchingNodes {@link Set} of hostnames of nodes whose routes are to be returned
    * @param network {@link Prefix} of the network used to filter the routes
+   * @param prefixMatchType {@link PrefixMatchType} used to match routes against {@code network}
    * @param protocolSpec {@link RoutingProtocolSpecifier} used to filter the routes
    * @param vrfRegex Regex used to filter the VRF of routes
    * @param ipOwners {@link Map} of {@link Ip} to {@link Set} of owner nodes
    * @return {@link Multiset} of {@link Row}s representing the routes
    */
-  static <T extends AbstractRouteDecorator> Multiset<Row> getMainRibRoutes(
-      SortedMap<String, SortedMap<String, GenericRib<T>>> ribs,
+  static Multiset<Row> getMainRibRoutes(
+      RouteIndex<AbstractRoute> ribs,
       Set<String> matchingNodes,
       @Nullable Prefix network,
+      PrefixMatchType prefixMatchType,
       RoutingProtocolSpecifier protocolSpec,
       String vrfRegex,
       @Nullable Map<Ip, Set<String>> ipOwners) {
     Multiset<Row> rows = HashMultiset.create();
-    Pattern compiledVrfRegex = Pattern.compile(vrfRegex);
     Map<String, ColumnMetadata> columnMetadataMap =
         getTableMetadata(RibProtocol.MAIN).toColumnMap();
-    ribs.forEach(
-        (node, vrfMap) -> {
-          if (matchingNodes.contains(node)) {
-            vrfMap.forEach(
-                (vrfName, rib) -> {
-                  if (compiledVrfRegex.matcher(vrfName).matches()) {
-                    rib.getRoutes().stream()
-                        .filter(
-                            route ->
-                                (network == null || network.equals(route.getNetwork()))
-                                    && protocolSpec.getProtocols().contains(route.getProtocol()))
-                        .forEach(
-                            route ->
-                                rows.add(
-                                    abstractRouteToRow(
-                                        node, vrfName, route, columnMetadataMap, ipOwners)));
-                  }
-                });
-          }
-        });
+    ribs.select(matchingNodes, vrfRegex, network, prefixMatchType, protocolSpec.getProtocols())
+        .forEach(
+            route ->
+                rows.add(
+                    abstractRouteToRow(
+                        route.getHostname(),
+                        route.getVrfName(),
+                        route.getRoute(),
+                        columnMetadataMap,
+                        ipOwners)));
     return rows;
   }
 
   /**
-   * Filters a {@link Table} of {@link Bgpv4Route}s to produce a {@link Multiset} of rows
+   * Filters a {@link RouteIndex} of {@link Bgpv4Route}s to produce a {@link Multiset} of rows
    *
-   * @param bgpRoutes {@link Table} of all {@link Bgpv4Route}s
+   * @param bgpRoutes {@link RouteIndex} of the {@link Bgpv4Route}s of at least the matching nodes
    * @param ribProtocol {@link RibProtocol}, either {@link RibProtocol#BGP}
    * @param matchingNodes {@link Set} of nodes from which {@link Bgpv4Route}s are to be selected
    * @param network {@link Prefix} of the network used to filter the routes
+   * @param prefixMatchType {@link PrefixMatchType} used to match routes against {@code network}
    * @param protocolSpec {@link RoutingProtocolSpecifier} used to filter the {@link Bgpv4Route}s
    * @param vrfRegex Regex used to filter the routes based on {@link org.batfish.datamodel.Vrf}
    * @param statuses BGP route statuses that correspond to routes in {@code bgpRoutes}.
    * @return {@link Multiset} of {@link Row}s representing the routes
    */
   static Multiset<Row> getBgpRibRoutes(
-      Table<String, String, Set<Bgpv4Route>> bgpRoutes,
+      RouteIndex<Bgpv4Route> bgpRoutes,
       RibProtocol ribProtocol,
       Set<String> matchingNodes,
       @Nullable Prefix network,
+      PrefixMatchType prefixMatchType,
       RoutingProtocolSpecifier protocolSpec,
       String vrfRegex,
       Set<BgpRouteStatus> statuses) {
     Multiset<Row> rows = HashMultiset.create();
     Map<String, ColumnMetadata> columnMetadataMap = getTableMetadata(ribProtocol).toColumnMap();
-    Pattern compiledVrfRegex = Pattern.compile(vrfRegex);
-    matchingNodes.forEach(
-        hostname ->
-            bgpRoutes
-                .row(hostname)
-                .forEach(
-                    (vrfName, routes) -> {
-                      if (compiledVrfRegex.matcher(vrfName).matches()) {
-                        routes.stream()
-                            .filter(
-                                route ->
-                                    (network == null || network.equals(route.getNetwork()))
-                                        && protocolSpec
-                                            .getProtocols()
-                                            .contains(route.getProtocol()))
-                            .forEach(
-                                route ->
-                                    rows.add(
-                                        bgpRouteToRow(
-                                            hostname,
-                                            vrfName,
-                                            route,
-                                            statuses,
-                                            columnMetadataMap)));
-                      }
-                    }));
+    bgpRoutes
+        .select(matchingNodes, vrfRegex, network, prefixMatchType, protocolSpec.getProtocols())
+        .forEach(
+            route ->
+                rows.add(
+                    bgpRouteToRow(
+                        route.getHostname(),
+                        route.getVrfName(),
+                        route.getRoute(),
+                        statuses,
+                        columnMetadataMap)));
     return rows;
   }
 
   static Multiset<Row> getEvpnRoutes(
-      Table<String, String, Set<EvpnRoute<?, ?>>> evpnRoutes,
+      RouteIndex<EvpnRoute<?, ?>> evpnRoutes,
       RibProtocol ribProtocol,
       Set<String> matchingNodes,
       @Nullable Prefix network,
+      PrefixMatchType prefixMatchType,
       RoutingProtocolSpecifier protocolSpec,
       String vrfRegex,
       Set<BgpRouteStatus> statuses) {
     Multiset<Row> rows = HashMultiset.create();
     Map<String, ColumnMetadata> columnMetadataMap = getTableMetadata(ribProtocol).toColumnMap();
-    Pattern compiledVrfRegex = Pattern.compile(vrfRegex);
-    matchingNodes.forEach(
-        hostname ->
-            evpnRoutes
-                .row(hostname)
-                .forEach(
-                    (vrfName, routes) -> {
-                      if (compiledVrfRegex.matcher(vrfName).matches()) {
-                        routes.stream()
-                            .filter(
-                                route ->
-                                    (network == null || network.equals(route.getNetwork()))
-                                        && protocolSpec
-                                            .getProtocols()
-                                            .contains(route.getProtocol()))
-                            .forEach(
-                                route ->
-                                    rows.add(
-                                        evpnRouteToRow(
-                                            hostname,
-                                            vrfName,
-                                            route,
-                                            statuses,
-                                            columnMetadataMap)));
-                      }
-                    }));
+    evpnRoutes
+        .select(matchingNodes, vrfRegex, network, prefixMatchType, protocolSpec.getProtocols())
+        .forEach(
+            route ->
+                rows.add(
+                    evpnRouteToRow(
+                        route.getHostname(),
+                        route.getVrfName(),
+                        route.getRoute(),
+                        statuses,
+                        columnMetadataMap)));
     return rows;
   }
 
@@ -599,96 +560,83 @@ public class RoutesAnswererUtil {
    * and further sub-groups them by {@link RouteRowSecondaryKey} and for routes in the same
    * sub-group, sorts them according to {@link RouteRowAttribute}s
    *
-   * @param ribs {@link Map} of the RIBs
+   * @param ribs {@link RouteIndex} of the RIBs
    * @param matchingNodes {@link Set} of nodes to be matched
    * @param network {@link Prefix}
+   * @param prefixMatchType {@link PrefixMatchType} used to match routes against {@code network}
    * @param vrfRegex Regex to filter the VRF
    * @param protocolSpec {@link RoutingProtocolSpecifier} to filter the protocols of the routes
    * @param ipOwners {@link Map} of {@link Ip} to {@link Set} of owner nodes
    * @return {@link Map} of {@link RouteRowKey}s to corresponding sub{@link Map}s of {@link
    *     RouteRowSecondaryKey} to {@link SortedSet} of {@link RouteRowAttribute}s
    */
-  public static <T extends AbstractRouteDecorator>
-      Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> groupRoutes(
-          SortedMap<String, SortedMap<String, GenericRib<T>>> ribs,
+  public static Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>>
+      groupRoutes(
+          RouteIndex<AbstractRoute> ribs,
           Set<String> matchingNodes,
           @Nullable Prefix network,
+          PrefixMatchType prefixMatchType,
           String vrfRegex,
           RoutingProtocolSpecifier protocolSpec,
           @Nullable Map<Ip, Set<String>> ipOwners) {
     Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> routesGroups =
         new HashMap<>();
-    Pattern compiledVrfRegex = Pattern.compile(vrfRegex);
-    ribs.forEach(
-        (node, vrfMap) -> {
-          if (matchingNodes.contains(node)) {
-            vrfMap.forEach(
-                (vrfName, rib) -> {
-                  if (compiledVrfRegex.matcher(vrfName).matches()) {
-                    rib.getRoutes().stream()
-                        .filter(
-                            route ->
-                                (network == null || network.equals(route.getNetwork()))
-                                    && protocolSpec.getProtocols().contains(route.getProtocol()))
-                        .forEach(
-                            route ->
-                                routesGroups
-                                    .computeIfAbsent(
-                                        new RouteRowKey(node, vrfName, route.getNetwork()),
-                                        k -> new HashMap<>())
-                                    .computeIfAbsent(
-                                        new RouteRowSecondaryKey(
-                                            route.getNextHopIp(),
-                                            route.getProtocol().protocolName()),
-                                        k -> new TreeSet<>())
-                                    .add(
-                                        RouteRowAttribute.builder()
-                                            .setNextHop(
-                                                computeNextHopNode(route.getNextHopIp(), ipOwners))
-                                            .setNextHopInterface(route.getNextHopInterface())
-                                            .setAdminDistance(route.getAdministrativeCost())
-                                            .setMetric(route.getMetric())
-                                            .setTag(route.getTag())
-                                            .build()));
-                  }
-                });
-          }
-        });
+    for (IndexedRoute<AbstractRoute> indexedRoute :
+        ribs.select(
+            matchingNodes, vrfRegex, network, prefixMatchType, protocolSpec.getProtocols())) {
+      AbstractRoute route = indexedRoute.getRoute();
+      routesGroups
+          .computeIfAbsent(
+              new RouteRowKey(
+                  indexedRoute.getHostname(), indexedRoute.getVrfName(), route.getNetwork()),
+              k -> new HashMap<>())
+          .computeIfAbsent(
+              new RouteRowSecondaryKey(route.getNextHopIp(), route.getProtocol().protocolName()),
+              k -> new TreeSet<>())
+          .add(
+              RouteRowAttribute.builder()
+                  .setNextHop(computeNextHopNode(route.getNextHopIp(), ipOwners))
+                  .setNextHopInterface(route.getNextHopInterface())
+                  .setAdminDistance(route.getAdministrativeCost())
+                  .setMetric(route.getMetric())
+                  .setTag(route.getTag())
+                  .build());
+    }
     return routesGroups;
   }
 
   /**
-   * Given a {@link Table} of {@link Bgpv4Route}s indexed by Node name and VRF name, applies given
-   * filters and groups the routes by {@link RouteRowKey} and sub-groups them further by {@link
+   * Given a {@link RouteIndex} of {@link Bgpv4Route}s across nodes and VRFs, applies given filters
+   * and groups the routes by {@link RouteRowKey} and sub-groups them further by {@link
    * RouteRowSecondaryKey} and for the routes in same sub-groups, sorts them according to {@link
    * RouteRowAttribute}
    *
-   * @param bgpBestRoutes {@link Table} of best BGP routes with rows per node and columns per VRF
-   * @param bgpBackupRoutes {@link Table} of backup BGP routes with rows per node and columns per
-   *     VRF
+   * @param bgpBestRoutes {@link RouteIndex} of best BGP routes
+   * @param bgpBackupRoutes {@link RouteIndex} of backup BGP routes
    * @param matchingNodes {@link Set} of nodes to be matched
    * @param vrfRegex Regex to filter the VRF
    * @param network {@link Prefix}
+   * @param prefixMatchType {@link PrefixMatchType} used to match routes against {@code network}
    * @param protocolSpec {@link RoutingProtocolSpecifier} to filter the protocols of the routes
    * @return {@link Map} of {@link RouteRowKey}s to corresponding sub{@link Map}s of {@link
    *     RouteRowSecondaryKey} to {@link SortedSet} of {@link RouteRowAttribute}s
    */
   static Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> groupBgpRoutes(
-      @Nullable Table<String, String, Set<Bgpv4Route>> bgpBestRoutes,
-      @Nullable Table<String, String, Set<Bgpv4Route>> bgpBackupRoutes,
+      @Nullable RouteIndex<Bgpv4Route> bgpBestRoutes,
+      @Nullable RouteIndex<Bgpv4Route> bgpBackupRoutes,
       Set<String> matchingNodes,
       String vrfRegex,
       @Nullable Prefix network,
+      PrefixMatchType prefixMatchType,
       RoutingProtocolSpecifier protocolSpec) {
     checkArgument(
         bgpBestRoutes != null || bgpBackupRoutes != null,
         "At least one of best routes or backup routes is required.");
     Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> routesGroups =
         new HashMap<>();
-    Pattern compiledVrfRegex = Pattern.compile(vrfRegex);
 
-    Map<BgpRouteStatus, Table<String, String, Set<Bgpv4Route>>> routesByStatus =
-        new EnumMap<BgpRouteStatus, Table<String, String, Set<Bgpv4Route>>>(BgpRouteStatus.class);
+    Map<BgpRouteStatus, RouteIndex<Bgpv4Route>> routesByStatus =
+        new EnumMap<>(BgpRouteStatus.class);
     if (bgpBestRoutes != null) {
       routesByStatus.put(BgpRouteStatus.BEST, bgpBestRoutes);
     }
@@ -696,63 +644,47 @@ public class RoutesAnswererUtil {
       routesByStatus.put(BgpRouteStatus.BACKUP, bgpBackupRoutes);
     }
 
-    matchingNodes.forEach(
-        hostname ->
-            routesByStatus.forEach(
-                (status, statusRoutes) ->
-                    statusRoutes.row(hostname).entrySet().stream()
-                        .filter(vrfEntry -> compiledVrfRegex.matcher(vrfEntry.getKey()).matches())
-                        .forEach(
-                            vrfEntry ->
-                                vrfEntry.getValue().stream()
-                                    .filter(
-                                        route ->
-                                            (network == null || network.equals(route.getNetwork()))
-                                                && protocolSpec
-                                                    .getProtocols()
-                                                    .contains(route.getProtocol()))
-                                    .forEach(
-                                        route ->
-                                            routesGroups
-                                                .computeIfAbsent(
-                                                    new RouteRowKey(
-                                                        hostname,
-                                                        vrfEntry.getKey(),
-                                                        route.getNetwork()),
-                                                    k -> new HashMap<>())
-                                                .computeIfAbsent(
-                                                    new RouteRowSecondaryKey(
-                                                        route.getNextHopIp(),
-                                                        route.getProtocol().protocolName()),
-                                                    k -> new TreeSet<>())
-                                                .add(
-                                                    RouteRowAttribute.builder()
-                                                        .setOriginProtocol(
-                                                            route.getSrcProtocol() != null
-                                                                ? route
-                                                                    .getSrcProtocol()
-                                                                    .protocolName()
-                                                                : null)
-                                                        .setAdminDistance(
-                                                            route.getAdministrativeCost())
-                                                        .setMetric(route.getMetric())
-                                                        .setAsPath(route.getAsPath())
-                                                        .setLocalPreference(
-                                                            route.getLocalPreference())
-                                                        .setCommunities(
-                                                            route
-                                                                .getCommunities()
-                                                                .getCommunities()
-                                                                .stream()
-                                                                .map(Community::toString)
-                                                                .collect(toImmutableList()))
-                                                        .setOriginType(route.getOriginType())
-                                                        .setTag(
-                                                            route.getTag() == Route.UNSET_ROUTE_TAG
-                                                                ? null
-                                                                : route.getTag())
-                                                        .setStatus(status)
-                                                        .build())))));
+    routesByStatus.forEach(
+        (status, statusRoutes) ->
+            statusRoutes
+                .select(
+                    matchingNodes, vrfRegex, network, prefixMatchType, protocolSpec.getProtocols())
+                .forEach(
+                    indexedRoute -> {
+                      Bgpv4Route route = indexedRoute.getRoute();
+                      routesGroups
+                          .computeIfAbsent(
+                              new RouteRowKey(
+                                  indexedRoute.getHostname(),
+                                  indexedRoute.getVrfName(),
+                                  route.getNetwork()),
+                              k -> new HashMap<>())
+                          .computeIfAbsent(
+                              new RouteRowSecondaryKey(
+                                  route.getNextHopIp(), route.getProtocol().protocolName()),
+                              k -> new TreeSet<>())
+                          .add(
+                              RouteRowAttribute.builder()
+                                  .setOriginProtocol(
+                                      route.getSrcProtocol() != null
+                                          ? route.getSrcProtocol().protocolName()
+                                          : null)
+                                  .setAdminDistance(route.getAdministrativeCost())
+                                  .setMetric(route.getMetric())
+                                  .setAsPath(route.getAsPath())
+                                  .setLocalPreference(route.getLocalPreference())
+                                  .setCommunities(
+                                      route.getCommunities().getCommunities().stream()
+                                          .map(Community::toString)
+                                          .collect(toImmutableList()))
+                                  .setOriginType(route.getOriginType())
+                                  .setTag(
+                                      route.getTag() == Route.UNSET_ROUTE_TAG
+                                          ? null
+                                          : route.getTag())
+                                  .setStatus(status)
+                                  .build());
+                    }));
 
     return routesGroups;
   }
@@ -51,9 +51,18 @@ public class RoutesQuestion extends Question {
     }
   }
 
+  /** How the {@code network} parameter is matched against the networks of routes. */
+  public enum PrefixMatchType {
+    /** Only routes for exactly the given network. */
+    EXACT,
+    /** In each VRF, the routes for the longest network containing the given network. */
+    LONGEST_PREFIX_MATCH
+  }
+
   private static final String PROP_BGP_ROUTE_STATUS = "bgpRouteStatus";
   private static final String PROP_NETWORK = "network";
   private static final String PROP_NODES = "nodes";
+  private static final String PROP_PREFIX_MATCH_TYPE = "prefixMatchType";
   private static final String PROP_PROTOCOLS = "protocols";
   private static final String PROP_RIB = "rib";
   private static final String PROP_VRFS = "vrfs";
@@ -66,6 +75,8 @@ public class RoutesQuestion extends Question {
 
   @Nullable private String _nodes;
 
+  @Nonnull private PrefixMatchType _prefixMatchType;
+
   @Nonnull private String _protocols;
 
   @Nonnull private RibProtocol _rib;
@@ -78,6 +89,7 @@ public class RoutesQuestion extends Question {
    * @param nodes {@link NodeSpecifier} indicating which nodes' RIBs should be considered
    * @param vrfs a regex pattern indicating which VRFs should be considered
    * @param rib a specific protocol RIB to return routes from.
+   * @param prefixMatchType how {@code network} is matched against the networks of routes
    */
   @VisibleForTesting
   public RoutesQuestion(
@@ -86,8 +98,10 @@ public class RoutesQuestion extends Question {
       @Nullable String vrfs,
       @Nullable String protocols,
       @Nullable String bgpRouteStatus,
-      @Nullable RibProtocol rib) {
+      @Nullable RibProtocol rib,
+      @Nullable PrefixMatchType prefixMatchType) {
     _network = network;
+    _prefixMatchType = firstNonNull(prefixMatchType, PrefixMatchType.EXACT);
     _nodes = nodes;
     _protocols = firstNonNull(protocols, RoutingProtocolSpecifier.ALL);
     _rib = firstNonNull(rib, MAIN);
@@ -102,13 +116,15 @@ public class RoutesQuestion extends Question {
       @Nullable @JsonProperty(PROP_VRFS) String vrfs,
       @Nullable @JsonProperty(PROP_PROTOCOLS) String protocols,
       @Nullable @JsonProperty(PROP_BGP_ROUTE_STATUS) String bgpRouteStatus,
-      @Nullable @JsonProperty(PROP_RIB) RibProtocol rib) {
-    return new RoutesQuestion(network, nodes, vrfs, protocols, bgpRouteStatus, rib);
+      @Nullable @JsonProperty(PROP_RIB) RibProtocol rib,
+      @Nullable @JsonProperty(PROP_PREFIX_MATCH_TYPE) PrefixMatchType prefixMatchType) {
+    return new RoutesQuestion(
+        network, nodes, vrfs, protocols, bgpRouteStatus, rib, prefixMatchType);
   }
 
   /** Create new routes question with default parameters. */
   public RoutesQuestion() {
-    this(null, null, null, null, null, null);
+    this(null, null, null, null, null, null, null);
   }
 
   @JsonProperty(PROP_BGP_ROUTE_STATUS)
@@ -144,6 +160,12 @@ public class RoutesQuestion extends Question {
     return SpecifierFactories.getNodeSpecifierOrDefault(_nodes, AllNodesNodeSpecifier.INSTANCE);
   }
 
+  @JsonProperty(PROP_PREFIX_MATCH_TYPE)
+  @Nonnull
+  public PrefixMatchType getPrefixMatchType() {
+    return _prefixMatchType;
+  }
+
   @JsonProperty(PROP_PROTOCOLS)
   @Nonnull
   public String getProtocols() {
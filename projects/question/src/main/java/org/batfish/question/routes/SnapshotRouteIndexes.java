@@ -0,0 +1,97 @@
+package org.batfish.question.routes;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import com.google.common.collect.Table;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.ParametersAreNonnullByDefault;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.Bgpv4Route;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.EvpnRoute;
+import org.batfish.datamodel.GenericRib;
+
+/**
+ * The {@link RouteIndex}es of the RIBs of one {@link DataPlane}. The index of each node is built on
+ * first use and shared by all later {@link RoutesQuestion}s on the same snapshot, for as long as
+ * the data plane itself stays loaded. A question about a few nodes thus only reads and indexes the
+ * RIBs of those nodes.
+ *
+ * <p>The cached indexes are weakly keyed by their data plane, so they must not refer back to it.
+ * The data plane is thus passed to each getter, rather than kept to build the indexes later.
+ */
+@ParametersAreNonnullByDefault
+final class SnapshotRouteIndexes {
+
+  private static final ConcurrentMap<DataPlane, SnapshotRouteIndexes> CACHE =
+      CacheBuilder.newBuilder().weakKeys().<DataPlane, SnapshotRouteIndexes>build().asMap();
+
+  static @Nonnull RouteIndex<AbstractRoute> getMainRibRoutes(DataPlane dp, Set<String> nodes) {
+    SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>> ribs =
+        dp.getRibs();
+    return forDataPlane(dp)
+        ._mainRibRoutes
+        .get(nodes, ribs.keySet(), node -> RouteIndex.fromNodeRibs(node, ribs.get(node)));
+  }
+
+  static @Nonnull RouteIndex<Bgpv4Route> getBgpRoutes(DataPlane dp, Set<String> nodes) {
+    return forDataPlane(dp)._bgpRoutes.get(nodes, dp.getBgpRoutes());
+  }
+
+  static @Nonnull RouteIndex<Bgpv4Route> getBgpBackupRoutes(DataPlane dp, Set<String> nodes) {
+    return forDataPlane(dp)._bgpBackupRoutes.get(nodes, dp.getBgpBackupRoutes());
+  }
+
+  static @Nonnull RouteIndex<EvpnRoute<?, ?>> getEvpnRoutes(DataPlane dp, Set<String> nodes) {
+    return forDataPlane(dp)._evpnRoutes.get(nodes, dp.getEvpnRoutes());
+  }
+
+  static @Nonnull RouteIndex<EvpnRoute<?, ?>> getEvpnBackupRoutes(DataPlane dp, Set<String> nodes) {
+    return forDataPlane(dp)._evpnBackupRoutes.get(nodes, dp.getEvpnBackupRoutes());
+  }
+
+  private static @Nonnull SnapshotRouteIndexes forDataPlane(DataPlane dp) {
+    return CACHE.computeIfAbsent(dp, unused -> new SnapshotRouteIndexes());
+  }
+
+  /** The indexes of one kind of RIB, each built for its node on first use. */
+  private static final class NodeIndexes<R extends AbstractRoute> {
+    private final @Nonnull ConcurrentMap<String, RouteIndex<R>> _byNode = new ConcurrentHashMap<>();
+
+    /** Returns an index of the routes in {@code routes} on the given nodes, in node order. */
+    @Nonnull
+    RouteIndex<R> get(Set<String> nodes, Table<String, String, ? extends Set<? extends R>> routes) {
+      return get(
+          nodes, routes.rowKeySet(), node -> RouteIndex.fromNodeRoutes(node, routes.row(node)));
+    }
+
+    /**
+     * Returns an index of the routes on the given nodes that are among {@code present}, in node
+     * order, building the index of each node that has none yet with {@code builder}.
+     */
+    @Nonnull
+    RouteIndex<R> get(
+        Set<String> nodes, Set<String> present, Function<String, RouteIndex<R>> builder) {
+      return RouteIndex.concat(
+          ImmutableSortedSet.copyOf(nodes).stream()
+              .filter(present::contains)
+              .map(node -> _byNode.computeIfAbsent(node, builder))
+              .collect(ImmutableList.toImmutableList()));
+    }
+  }
+
+  private final @Nonnull NodeIndexes<AbstractRoute> _mainRibRoutes = new NodeIndexes<>();
+  private final @Nonnull NodeIndexes<Bgpv4Route> _bgpRoutes = new NodeIndexes<>();
+  private final @Nonnull NodeIndexes<Bgpv4Route> _bgpBackupRoutes = new NodeIndexes<>();
+  private final @Nonnull NodeIndexes<EvpnRoute<?, ?>> _evpnRoutes = new NodeIndexes<>();
+  private final @Nonnull NodeIndexes<EvpnRoute<?, ?>> _evpnBackupRoutes = new NodeIndexes<>();
+
+  private SnapshotRouteIndexes() {}
+}
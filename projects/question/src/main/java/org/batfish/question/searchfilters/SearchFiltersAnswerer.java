@@ -2,6 +2,8 @@ package org.batfish.question.searchfilters;
 
 import static org.batfish.datamodel.acl.SourcesReferencedByIpAccessLists.referencedSources;
 import static org.batfish.question.FilterQuestionUtils.differentialBDDSourceManager;
+import static org.batfish.question.FilterQuestionUtils.getFilterAnalysisThreads;
+import static org.batfish.question.FilterQuestionUtils.mapWithBddPackets;
 import static org.batfish.question.FilterQuestionUtils.resolveSources;
 import static org.batfish.question.testfilters.TestFiltersAnswerer.COLUMN_METADATA;
 import static org.batfish.question.testfilters.TestFiltersAnswerer.COL_FILTER_NAME;
@@ -9,12 +11,14 @@ import static org.batfish.question.testfilters.TestFiltersAnswerer.COL_NODE;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Sets;
 import com.google.common.collect.Sets.SetView;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Function;
@@ -79,49 +83,69 @@ public final class SearchFiltersAnswerer extends Answerer {
 
     Map<String, Map<String, IpAccessList>> acls = getSpecifiedAcls(snapshot, question);
     Map<String, Map<String, IpAccessList>> refAcls = getSpecifiedAcls(reference, question);
-    Map<String, DiffConfigContext> configContexts =
-        getDiffConfigContexts(acls, refAcls, snapshot, reference, parameters);
-
-    for (Entry<String, DiffConfigContext> e : configContexts.entrySet()) {
-      String hostname = e.getKey();
-      DiffConfigContext configContext = e.getValue();
-      Map<String, IpAccessList> aclsForNode = acls.get(hostname);
-      Map<String, IpAccessList> refAclsForNode = refAcls.get(hostname);
-
-      Set<String> commonAcls = Sets.intersection(aclsForNode.keySet(), refAclsForNode.keySet());
-      for (String aclName : commonAcls) {
-        IpAccessList acl = aclsForNode.get(aclName);
-        IpAccessList refAcl = refAclsForNode.get(aclName);
-
-        // If either ACL can't be queried, can't compare them; fill in row in the other table if
-        // necessary and continue
-        boolean canQueryAcl = query.canQuery(acl);
-        boolean canQueryRefAcl = query.canQuery(refAcl);
-        if (!canQueryAcl || !canQueryRefAcl) {
-          if (question.getIncludeOneTableKeys() && (canQueryAcl || canQueryRefAcl)) {
-            // One of them is not null and question specifies to include rows in this case
-            TableAnswerElement table = canQueryAcl ? baseTable : refTable;
-            table.addRow(
-                Row.builder(table.getMetadata().toColumnMap())
-                    .put(COL_NODE, new Node(hostname))
-                    .put(COL_FILTER_NAME, aclName)
-                    .build());
-          }
-          continue;
-        }
-
-        // present in both snapshot
-        DifferentialSearchFiltersResult result = getDiffResult(acl, refAcl, configContext, query);
-
-        Stream.of(result.getDecreasedFlow(), result.getIncreasedFlow())
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .forEach(
-                flow -> {
-                  baseTable.addRow(testFiltersRow(snapshot, hostname, aclName, flow));
-                  refTable.addRow(testFiltersRow(reference, hostname, aclName, flow));
-                });
-      }
+    Map<String, Configuration> configs = _batfish.loadConfigurations(snapshot);
+    Map<String, Configuration> refConfigs = _batfish.loadConfigurations(reference);
+    SpecifierContext specifierContext = _batfish.specifierContext(snapshot);
+    SpecifierContext refSpecifierContext = _batfish.specifierContext(reference);
+
+    // Nodes are analyzed independently, possibly in parallel. Rows are added in node order.
+    List<String> commonNodes =
+        ImmutableList.copyOf(Sets.intersection(acls.keySet(), refAcls.keySet()));
+    List<DiffRows> diffRowsByNode =
+        mapWithBddPackets(
+            commonNodes,
+            getFilterAnalysisThreads(_batfish),
+            (pkt, hostname) -> {
+              Configuration c = configs.get(hostname);
+              Configuration refC = refConfigs.get(hostname);
+              Map<String, IpAccessList> aclsForNode = acls.get(hostname);
+              Map<String, IpAccessList> refAclsForNode = refAcls.get(hostname);
+              Set<String> commonAcls =
+                  Sets.intersection(aclsForNode.keySet(), refAclsForNode.keySet());
+              DiffConfigContext configContext =
+                  new DiffConfigContext(
+                      c, refC, commonAcls, specifierContext, refSpecifierContext, parameters, pkt);
+              DiffRows diffRows = new DiffRows();
+              for (String aclName : commonAcls) {
+                IpAccessList acl = aclsForNode.get(aclName);
+                IpAccessList refAcl = refAclsForNode.get(aclName);
+
+                // If either ACL can't be queried, can't compare them; fill in row in the other
+                // table if necessary and continue
+                boolean canQueryAcl = query.canQuery(acl);
+                boolean canQueryRefAcl = query.canQuery(refAcl);
+                if (!canQueryAcl || !canQueryRefAcl) {
+                  if (question.getIncludeOneTableKeys() && (canQueryAcl || canQueryRefAcl)) {
+                    // One of them is not null and question specifies to include rows in this case
+                    TableAnswerElement table = canQueryAcl ? baseTable : refTable;
+                    List<Row> tableRows = canQueryAcl ? diffRows._baseRows : diffRows._refRows;
+                    tableRows.add(
+                        Row.builder(table.getMetadata().toColumnMap())
+                            .put(COL_NODE, new Node(hostname))
+                            .put(COL_FILTER_NAME, aclName)
+                            .build());
+                  }
+                  continue;
+                }
+
+                // present in both snapshot
+                DifferentialSearchFiltersResult result =
+                    getDiffResult(acl, refAcl, configContext, query);
+
+                Stream.of(result.getDecreasedFlow(), result.getIncreasedFlow())
+                    .filter(Optional::isPresent)
+                    .map(Optional::get)
+                    .forEach(
+                        flow -> {
+                          diffRows._baseRows.add(testFiltersRow(c, aclName, flow));
+                          diffRows._refRows.add(testFiltersRow(refC, aclName, flow));
+                        });
+              }
+              return diffRows;
+            });
+    for (DiffRows diffRows : diffRowsByNode) {
+      diffRows._baseRows.forEach(baseTable::addRow);
+      diffRows._refRows.forEach(refTable::addRow);
     }
 
     // take care of nodes that are present in only one snapshot
@@ -137,93 +161,60 @@ public final class SearchFiltersAnswerer extends Answerer {
     _tableAnswerElement.postProcessAnswer(question, diffTable.getRows().getData());
   }
 
+  /** The rows one node contributes to the base and reference tables of a differential answer. */
+  private static final class DiffRows {
+    private final List<Row> _baseRows = new ArrayList<>();
+    private final List<Row> _refRows = new ArrayList<>();
+  }
+
   private void nonDifferentialAnswer(NetworkSnapshot snapshot, SearchFiltersQuestion question) {
     Map<String, Map<String, IpAccessList>> specifiedAcls = getSpecifiedAcls(snapshot, question);
     if (specifiedAcls.values().stream().allMatch(Map::isEmpty)) {
       throw new BatfishException("No matching filters");
     }
 
-    Multiset<Row> rows = HashMultiset.create();
-
     /*
      * For each ACL, try to get a flow matching the query. If one exists, run traceFilter on that
-     * flow. Concatenate the answers for all flows into one big table.
+     * flow. Concatenate the answers for all flows into one big table. Nodes are analyzed
+     * independently, possibly in parallel. Rows are added in node order.
      */
     SearchFiltersParameters parameters = question.toSearchFiltersParameters();
     SearchFiltersQuery query = question.getQuery();
-    for (Entry<String, NonDiffConfigContext> e :
-        getConfigContexts(specifiedAcls, snapshot, parameters).entrySet()) {
-      String hostname = e.getKey();
-      NonDiffConfigContext configContext = e.getValue();
-      for (IpAccessList acl : specifiedAcls.get(hostname).values()) {
-        // Ensure that query is applicable to acl
-        if (!query.canQuery(acl)) {
-          continue;
-        }
-
-        // Generate representative flow for ACL, if one exists
-        Flow flow = configContext.getFlow(configContext.getReachBdd(acl, query));
-        if (flow == null) {
-          continue;
-        }
-
-        // Add result to table
-        rows.add(testFiltersRow(snapshot, hostname, acl.getName(), flow));
-      }
-
-      _tableAnswerElement = new TableAnswerElement(new TableMetadata(COLUMN_METADATA));
-      _tableAnswerElement.postProcessAnswer(question, rows);
-    }
-  }
-
-  /**
-   * Given all specified ACLs on all configs of the given snapshot, returns a {@link
-   * NonDiffConfigContext} for each config.
-   */
-  private Map<String, NonDiffConfigContext> getConfigContexts(
-      Map<String, Map<String, IpAccessList>> specifiedAcls,
-      NetworkSnapshot snapshot,
-      SearchFiltersParameters parameters) {
     Map<String, Configuration> configs = _batfish.loadConfigurations(snapshot);
-    BDDPacket pkt = new BDDPacket();
-    return specifiedAcls.entrySet().stream()
-        .collect(
-            ImmutableMap.toImmutableMap(
-                Entry::getKey,
-                e -> {
-                  Configuration c = configs.get(e.getKey());
-                  Set<String> aclNames = e.getValue().keySet();
-                  return new NonDiffConfigContext(c, aclNames, snapshot, _batfish, parameters, pkt);
-                }));
-  }
+    SpecifierContext specifierContext = _batfish.specifierContext(snapshot);
+    List<List<Row>> rowsByNode =
+        mapWithBddPackets(
+            ImmutableList.copyOf(specifiedAcls.keySet()),
+            getFilterAnalysisThreads(_batfish),
+            (pkt, hostname) -> {
+              Configuration c = configs.get(hostname);
+              Map<String, IpAccessList> aclsForNode = specifiedAcls.get(hostname);
+              NonDiffConfigContext configContext =
+                  new NonDiffConfigContext(
+                      c, aclsForNode.keySet(), specifierContext, parameters, pkt);
+              ImmutableList.Builder<Row> nodeRows = ImmutableList.builder();
+              for (IpAccessList acl : aclsForNode.values()) {
+                // Ensure that query is applicable to acl
+                if (!query.canQuery(acl)) {
+                  continue;
+                }
+
+                // Generate representative flow for ACL, if one exists
+                Flow flow = configContext.getFlow(configContext.getReachBdd(acl, query));
+                if (flow == null) {
+                  continue;
+                }
+
+                // Add result to table
+                nodeRows.add(testFiltersRow(c, acl.getName(), flow));
+              }
+              return nodeRows.build();
+            });
 
-  /**
-   * Given all specified ACLs in two snapshots, returns a {@link DiffConfigContext} for each config
-   * in common between the two snapshots.
-   */
-  private Map<String, DiffConfigContext> getDiffConfigContexts(
-      Map<String, Map<String, IpAccessList>> baseAcls,
-      Map<String, Map<String, IpAccessList>> refAcls,
-      NetworkSnapshot snapshot,
-      NetworkSnapshot reference,
-      SearchFiltersParameters parameters) {
-    Map<String, Configuration> baseConfigs = _batfish.loadConfigurations(snapshot);
-    Map<String, Configuration> refConfigs = _batfish.loadConfigurations(reference);
-    BDDPacket pkt = new BDDPacket();
-
-    Set<String> commonNodes = Sets.intersection(baseAcls.keySet(), refAcls.keySet());
-    ImmutableMap.Builder<String, DiffConfigContext> configContexts = ImmutableMap.builder();
-    for (String hostname : commonNodes) {
-      Configuration c = baseConfigs.get(hostname);
-      Configuration refC = refConfigs.get(hostname);
-      Set<String> commonAcls =
-          Sets.intersection(baseAcls.get(hostname).keySet(), refAcls.get(hostname).keySet());
-      configContexts.put(
-          hostname,
-          new DiffConfigContext(
-              c, refC, commonAcls, snapshot, reference, _batfish, parameters, pkt));
-    }
-    return configContexts.build();
+    Multiset<Row> rows = HashMultiset.create();
+    rowsByNode.forEach(rows::addAll);
+    _tableAnswerElement = new TableAnswerElement(new TableMetadata(COLUMN_METADATA));
+    _tableAnswerElement.postProcessAnswer(question, rows);
   }
 
   /**
@@ -248,10 +239,8 @@ public final class SearchFiltersAnswerer extends Answerer {
                                 IpAccessList::getName, Function.identity()))));
   }
 
-  private Row testFiltersRow(NetworkSnapshot snapshot, String hostname, String aclName, Flow flow) {
-    Configuration c = _batfish.loadConfigurations(snapshot).get(hostname);
-    Row row = TestFiltersAnswerer.getRow(c.getIpAccessLists().get(aclName), flow, c);
-    return row;
+  private static Row testFiltersRow(Configuration c, String aclName, Flow flow) {
+    return TestFiltersAnswerer.getRow(c.getIpAccessLists().get(aclName), flow, c);
   }
 
   /** Adds {@code nodes} (which are present in only one snapshot) to the {@code table} */
@@ -302,14 +291,12 @@ public final class SearchFiltersAnswerer extends Answerer {
     NonDiffConfigContext(
         Configuration config,
         Set<String> specifiedAcls,
-        NetworkSnapshot snapshot,
-        IBatfish batfish,
+        SpecifierContext specifierContext,
         SearchFiltersParameters parameters,
         BDDPacket pkt) {
       _hostname = config.getHostname();
       _pkt = pkt;
 
-      SpecifierContext specifierContext = batfish.specifierContext(snapshot);
       Set<String> activeSources = getActiveSources(config, specifierContext, parameters);
       Set<String> referencedSources = referencedSources(config.getIpAccessLists(), specifiedAcls);
       _mgr = BDDSourceManager.forSources(_pkt, activeSources, referencedSources);
@@ -357,17 +344,14 @@ public final class SearchFiltersAnswerer extends Answerer {
         Configuration config,
         Configuration refConfig,
         Set<String> specifiedAcls,
-        NetworkSnapshot snapshot,
-        NetworkSnapshot refSnapshot,
-        IBatfish batfish,
+        SpecifierContext specifierContext,
+        SpecifierContext refSpecifierContext,
         SearchFiltersParameters parameters,
         BDDPacket pkt) {
       // Both configs should share the same hostname
       _hostname = config.getHostname();
       _pkt = pkt;
 
-      SpecifierContext specifierContext = batfish.specifierContext(snapshot);
-      SpecifierContext refSpecifierContext = batfish.specifierContext(refSnapshot);
       _mgr =
           differentialBDDSourceManager(
               _pkt,
@@ -216,7 +216,7 @@ public class TestFiltersAnswerer extends Answerer {
             c.getIpSpaces(),
             c.getIpSpaceMetadata());
     FilterResult result =
-        filter.filter(flow, flow.getIngressInterface(), c.getIpAccessLists(), c.getIpSpaces());
+        c.getAclCompiler().compile(filter).filter(flow, flow.getIngressInterface());
     Integer matchLine = result.getMatchLine();
     String lineDesc = "no-match";
     if (matchLine != null) {
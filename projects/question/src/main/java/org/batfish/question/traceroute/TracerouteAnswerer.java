@@ -10,9 +10,11 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
+import java.util.TreeMap;
 import org.batfish.common.Answerer;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.IBatfish;
+import org.batfish.common.plugin.TracerouteEngine;
 import org.batfish.common.util.TracePruner;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.answers.AnswerElement;
@@ -36,8 +38,12 @@ public final class TracerouteAnswerer extends Answerer {
   public static final String COL_BASE_TRACE_COUNT = TableDiff.baseColumnName(COL_TRACE_COUNT);
   public static final String COL_DELTA_TRACE_COUNT = TableDiff.deltaColumnName(COL_TRACE_COUNT);
 
+  /** Performance counters of the traceroute engines used so far, summed over snapshots. */
+  private final Map<String, Long> _counters;
+
   TracerouteAnswerer(Question question, IBatfish batfish) {
     super(question, batfish);
+    _counters = new TreeMap<>();
   }
 
   @VisibleForTesting
@@ -48,7 +54,10 @@ public final class TracerouteAnswerer extends Answerer {
             q.getSourceLocationStr(),
             _batfish.specifierContext(snapshot));
     Set<Flow> flows = helper.getFlows();
-    return _batfish.getTracerouteEngine(snapshot).computeTraces(flows, q.getIgnoreFilters());
+    TracerouteEngine engine = _batfish.getTracerouteEngine(snapshot);
+    SortedMap<Flow, List<Trace>> traces = engine.computeTraces(flows, q.getIgnoreFilters());
+    engine.getCounters().forEach((name, value) -> _counters.merge(name, value, Long::sum));
+    return traces;
   }
 
   @Override
@@ -59,6 +68,7 @@ public final class TracerouteAnswerer extends Answerer {
 
     TableAnswerElement table = new TableAnswerElement(metadata(false));
     table.postProcessAnswer(_question, rows);
+    table.setCounters(_counters);
     return table;
   }
 
@@ -72,6 +82,7 @@ public final class TracerouteAnswerer extends Answerer {
     Multiset<Row> rows = diffFlowTracesToRows(baseFlowTraces, deltaFlowTraces, q.getMaxTraces());
     TableAnswerElement table = new TableAnswerElement(metadata(true));
     table.postProcessAnswer(_question, rows);
+    table.setCounters(_counters);
     return table;
   }
 
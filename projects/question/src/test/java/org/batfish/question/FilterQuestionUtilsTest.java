@@ -1,18 +1,34 @@
 package org.batfish.question;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.junit.Assert.assertTrue;
 
+import com.google.common.collect.ImmutableList;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import net.sf.javabdd.BDD;
+import org.batfish.common.BatfishException;
 import org.batfish.common.bdd.BDDPacket;
 import org.batfish.common.bdd.BDDSourceManager;
 import org.batfish.datamodel.Flow;
 import org.batfish.datamodel.Ip;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.ExpectedException;
 
 public class FilterQuestionUtilsTest {
+  @Rule public ExpectedException _thrown = ExpectedException.none();
+
   @Test
   public void testGetFlowWithPreference() {
     BDDPacket pkt = new BDDPacket();
@@ -25,4 +41,51 @@ public class FilterQuestionUtilsTest {
     assertThat(flow.getDstIp(), not(equalTo(Ip.ZERO)));
     assertThat(flow.getIpProtocol().number(), not(equalTo(0)));
   }
+
+  @Test
+  public void testMapWithBddPackets() {
+    List<Integer> inputs = IntStream.range(0, 20).boxed().collect(Collectors.toList());
+    Set<BDDPacket> packets = ConcurrentHashMap.newKeySet();
+    List<Integer> results =
+        FilterQuestionUtils.mapWithBddPackets(
+            inputs,
+            4,
+            (pkt, i) -> {
+              packets.add(pkt);
+              BDD dstPort = pkt.getDstPort().value(i);
+              return dstPort.isZero() ? -1 : i * 2;
+            });
+    assertThat(results, equalTo(inputs.stream().map(i -> i * 2).collect(Collectors.toList())));
+    assertThat(packets.size(), lessThanOrEqualTo(4));
+  }
+
+  @Test
+  public void testMapWithBddPacketsSequential() {
+    Set<BDDPacket> packets = new HashSet<>();
+    List<Integer> results =
+        FilterQuestionUtils.mapWithBddPackets(
+            ImmutableList.of(3, 1, 2),
+            1,
+            (pkt, i) -> {
+              packets.add(pkt);
+              return i;
+            });
+    assertThat(results, contains(3, 1, 2));
+    assertThat(packets, hasSize(1));
+  }
+
+  @Test
+  public void testMapWithBddPacketsRethrows() {
+    _thrown.expect(BatfishException.class);
+    _thrown.expectMessage("bad input 7");
+    FilterQuestionUtils.mapWithBddPackets(
+        IntStream.range(0, 10).boxed().collect(Collectors.toList()),
+        3,
+        (pkt, i) -> {
+          if (i == 7) {
+            throw new BatfishException("bad input " + i);
+          }
+          return i;
+        });
+  }
 }
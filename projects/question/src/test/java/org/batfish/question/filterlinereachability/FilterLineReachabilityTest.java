@@ -28,6 +28,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.SortedMap;
 import java.util.stream.Collectors;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.ImmutableConfiguration;
+import org.batfish.common.BfConsts;
 import org.batfish.common.NetworkSnapshot;
 import org.batfish.common.plugin.IBatfish;
 import org.batfish.common.plugin.IBatfishTestAdapter;
@@ -484,9 +487,51 @@ public class FilterLineReachabilityTest {
     assertThat(answer.getRows().getData(), equalTo(expected));
   }
 
+  @Test
+  public void testParallelAnswerMatchesSequential() {
+    // Several ACLs on both nodes, each with a blocked line, so that analysis is split across
+    // threads
+    for (int i = 0; i < 8; i++) {
+      Configuration owner = i % 2 == 0 ? _c1 : _c2;
+      IpSpaceReference ipSpace = new IpSpaceReference(i % 3 == 0 ? "ipSpace" : "undefined");
+      _aclb
+          .setOwner(owner)
+          .setName("acl" + i)
+          .setLines(
+              ImmutableList.of(
+                  acceptingHeaderSpace(
+                      HeaderSpace.builder()
+                          .setSrcIps(Prefix.parse("1.0.0.0/8").toIpSpace())
+                          .build()),
+                  rejectingHeaderSpace(
+                      HeaderSpace.builder()
+                          .setSrcIps(Prefix.parse(String.format("1.%d.0.0/16", i)).toIpSpace())
+                          .build()),
+                  acceptingHeaderSpace(HeaderSpace.builder().setDstIps(ipSpace).build())))
+          .build();
+    }
+
+    TableAnswerElement sequential = answer(new FilterLineReachabilityQuestion(), 1);
+    TableAnswerElement parallel = answer(new FilterLineReachabilityQuestion(), 4);
+    assertThat(parallel.getRows().getData(), equalTo(sequential.getRows().getData()));
+    // One blocked line per ACL, plus an undefined reference wherever ipSpace is not defined
+    assertThat(parallel.getRows().getData().size(), equalTo(14));
+  }
+
   private TableAnswerElement answer(FilterLineReachabilityQuestion q) {
+    return answer(q, 1);
+  }
+
+  private TableAnswerElement answer(FilterLineReachabilityQuestion q, int threads) {
     IBatfish batfish =
         new IBatfishTestAdapter() {
+          @Override
+          public ImmutableConfiguration getSettingsConfiguration() {
+            BaseConfiguration settings = new BaseConfiguration();
+            settings.setProperty(BfConsts.ARG_FILTER_ANALYSIS_THREADS, threads);
+            return settings;
+          }
+
           @Override
           public SortedMap<String, Configuration> loadConfigurations(NetworkSnapshot snapshot) {
             return ImmutableSortedMap.of(_c1.getHostname(), _c1, _c2.getHostname(), _c2);
@@ -0,0 +1,151 @@
+package org.batfish.question.routes;
+
+import static org.batfish.question.routes.RoutesQuestion.PrefixMatchType.EXACT;
+import static org.batfish.question.routes.RoutesQuestion.PrefixMatchType.LONGEST_PREFIX_MATCH;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.ConnectedRoute;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.question.routes.RouteIndex.IndexedRoute;
+import org.batfish.question.routes.RoutesAnswererTest.MockRib;
+import org.junit.Test;
+
+/** Tests of {@link RouteIndex}. */
+public final class RouteIndexTest {
+
+  private static final Set<RoutingProtocol> ALL_PROTOCOLS =
+      ImmutableSet.copyOf(RoutingProtocol.values());
+
+  private static final AbstractRoute DEFAULT = staticRoute("0.0.0.0/0");
+  private static final AbstractRoute SLASH_8 = staticRoute("10.0.0.0/8");
+  private static final AbstractRoute SLASH_16 = staticRoute("10.1.0.0/16");
+  private static final AbstractRoute CONNECTED_16 =
+      new ConnectedRoute(Prefix.parse("10.1.0.0/16"), "eth0");
+  private static final AbstractRoute SLASH_24 = staticRoute("10.1.1.0/24");
+
+  private static AbstractRoute staticRoute(String network) {
+    return StaticRoute.testBuilder().setNetwork(Prefix.parse(network)).build();
+  }
+
+  /*
+   * n1/default: default, 10.0.0.0/8, 10.1.0.0/16 (static and connected)
+   * n1/vrf2: 10.0.0.0/8
+   * n2/default: 10.1.1.0/24, default
+   */
+  private static final RouteIndex<AbstractRoute> INDEX =
+      RouteIndex.fromRibs(
+          ImmutableSortedMap.of(
+              "n1",
+              ImmutableSortedMap.of(
+                  "default",
+                  new MockRib<>(ImmutableSet.of(DEFAULT, SLASH_8, SLASH_16, CONNECTED_16)),
+                  "vrf2",
+                  new MockRib<>(ImmutableSet.of(SLASH_8))),
+              "n2",
+              ImmutableSortedMap.of("default", new MockRib<>(ImmutableSet.of(SLASH_24, DEFAULT)))));
+
+  private static List<String> describe(List<? extends IndexedRoute<?>> routes) {
+    return routes.stream()
+        .map(r -> r.getHostname() + "/" + r.getVrfName() + "/" + r.getRoute().getNetwork())
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void testSelectAll() {
+    assertThat(INDEX.size(), equalTo(7));
+    assertThat(
+        describe(INDEX.select(ImmutableSet.of("n1", "n2"), ".*", null, EXACT, ALL_PROTOCOLS)),
+        contains(
+            "n1/default/0.0.0.0/0",
+            "n1/default/10.0.0.0/8",
+            "n1/default/10.1.0.0/16",
+            "n1/default/10.1.0.0/16",
+            "n1/vrf2/10.0.0.0/8",
+            "n2/default/10.1.1.0/24",
+            "n2/default/0.0.0.0/0"));
+  }
+
+  @Test
+  public void testSelectNodesVrfsAndProtocols() {
+    assertThat(
+        describe(INDEX.select(ImmutableSet.of("n1"), "vrf.*", null, EXACT, ALL_PROTOCOLS)),
+        contains("n1/vrf2/10.0.0.0/8"));
+    assertThat(
+        describe(
+            INDEX.select(
+                ImmutableSet.of("n1", "n2"),
+                ".*",
+                null,
+                EXACT,
+                ImmutableSet.of(RoutingProtocol.CONNECTED))),
+        contains("n1/default/10.1.0.0/16"));
+    assertThat(INDEX.select(ImmutableSet.of("n3"), ".*", null, EXACT, ALL_PROTOCOLS), empty());
+  }
+
+  @Test
+  public void testSelectExact() {
+    assertThat(
+        describe(
+            INDEX.select(
+                ImmutableSet.of("n1", "n2"),
+                ".*",
+                Prefix.parse("10.0.0.0/8"),
+                EXACT,
+                ALL_PROTOCOLS)),
+        contains("n1/default/10.0.0.0/8", "n1/vrf2/10.0.0.0/8"));
+    assertThat(
+        describe(
+            INDEX.select(
+                ImmutableSet.of("n1"), ".*", Prefix.parse("10.1.1.0/24"), EXACT, ALL_PROTOCOLS)),
+        empty());
+  }
+
+  @Test
+  public void testSelectLongestPrefixMatch() {
+    // Each VRF contributes the routes for its own longest matching network
+    assertThat(
+        describe(
+            INDEX.select(
+                ImmutableSet.of("n1", "n2"),
+                ".*",
+                Prefix.parse("10.1.1.0/24"),
+                LONGEST_PREFIX_MATCH,
+                ALL_PROTOCOLS)),
+        contains(
+            "n1/default/10.1.0.0/16",
+            "n1/default/10.1.0.0/16",
+            "n1/vrf2/10.0.0.0/8",
+            "n2/default/10.1.1.0/24"));
+    // Networks longer than the queried network do not match
+    assertThat(
+        describe(
+            INDEX.select(
+                ImmutableSet.of("n2"),
+                ".*",
+                Prefix.parse("10.1.0.0/16"),
+                LONGEST_PREFIX_MATCH,
+                ALL_PROTOCOLS)),
+        contains("n2/default/0.0.0.0/0"));
+    // The longest match is chosen among routes passing the other filters
+    assertThat(
+        describe(
+            INDEX.select(
+                ImmutableSet.of("n1"),
+                "default",
+                Prefix.parse("10.1.1.1/32"),
+                LONGEST_PREFIX_MATCH,
+                ImmutableSet.of(RoutingProtocol.CONNECTED))),
+        contains("n1/default/10.1.0.0/16"));
+  }
+}
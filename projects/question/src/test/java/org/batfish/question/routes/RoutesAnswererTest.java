@@ -29,6 +29,7 @@ import static org.batfish.question.routes.RoutesAnswerer.COL_WEIGHT;
 import static org.batfish.question.routes.RoutesAnswerer.getDiffTableMetadata;
 import static org.batfish.question.routes.RoutesAnswerer.getTableMetadata;
 import static org.batfish.question.routes.RoutesAnswererUtil.getMainRibRoutes;
+import static org.batfish.question.routes.RoutesQuestion.PrefixMatchType.EXACT;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.emptyString;
 import static org.hamcrest.Matchers.equalTo;
@@ -87,9 +88,10 @@ public class RoutesAnswererTest {
 
     Multiset<Row> actual =
         getMainRibRoutes(
-            ribs,
+            RouteIndex.fromRibs(ribs),
             ImmutableSet.of("n1"),
             null,
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER,
             ".*",
             null);
@@ -119,9 +121,10 @@ public class RoutesAnswererTest {
 
     Multiset<Row> actual =
         getMainRibRoutes(
-            ribs,
+            RouteIndex.fromRibs(ribs),
             ImmutableSet.of("n1"),
             Prefix.create(Ip.parse("2.2.2.0"), 24),
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER,
             ".*",
             null);
@@ -148,9 +151,10 @@ public class RoutesAnswererTest {
 
     Multiset<Row> actual =
         getMainRibRoutes(
-            ribs,
+            RouteIndex.fromRibs(ribs),
             ImmutableSet.of("differentNode"),
             null,
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER,
             ".*",
             null);
@@ -176,7 +180,13 @@ public class RoutesAnswererTest {
 
     Multiset<Row> actual =
         getMainRibRoutes(
-            ribs, ImmutableSet.of("n1"), null, new RoutingProtocolSpecifier("static"), ".*", null);
+            RouteIndex.fromRibs(ribs),
+            ImmutableSet.of("n1"),
+            null,
+            EXACT,
+            new RoutingProtocolSpecifier("static"),
+            ".*",
+            null);
 
     assertThat(actual, hasSize(1));
     assertThat(
@@ -208,9 +218,10 @@ public class RoutesAnswererTest {
 
     Multiset<Row> actual =
         getMainRibRoutes(
-            ribs,
+            RouteIndex.fromRibs(ribs),
             ImmutableSet.of("n1"),
             null,
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER,
             "^not.*",
             null);
@@ -34,6 +34,7 @@ import static org.batfish.question.routes.RoutesAnswererUtil.getRoutesDiff;
 import static org.batfish.question.routes.RoutesAnswererUtil.groupBgpRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.groupRoutes;
 import static org.batfish.question.routes.RoutesAnswererUtil.populateRouteAttributes;
+import static org.batfish.question.routes.RoutesQuestion.PrefixMatchType.EXACT;
 import static org.hamcrest.Matchers.allOf;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
@@ -196,9 +197,10 @@ public class RoutesAnswererUtilTest {
 
     Multiset<Row> actual =
         getMainRibRoutes(
-            ribs,
+            RouteIndex.fromRibs(ribs),
             ImmutableSet.of("n1"),
             null,
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER,
             ".*",
             null);
@@ -240,10 +242,11 @@ public class RoutesAnswererUtilTest {
     bgpRouteTable.put("node", "vrf", ImmutableSet.of(standardRoute, unnumRoute));
     Multiset<Row> rows =
         getBgpRibRoutes(
-            bgpRouteTable,
+            RouteIndex.fromTable(bgpRouteTable),
             RibProtocol.BGP,
             ImmutableSet.of("node"),
             null,
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER,
             ".*",
             ImmutableSet.of(BEST));
@@ -299,10 +302,11 @@ public class RoutesAnswererUtilTest {
                 .build()));
     Multiset<Row> rows =
         getBgpRibRoutes(
-            bgpRouteTable,
+            RouteIndex.fromTable(bgpRouteTable),
             RibProtocol.BGP,
             ImmutableSet.of("node"),
             null,
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER,
             ".*",
             ImmutableSet.of(BEST));
@@ -332,10 +336,11 @@ public class RoutesAnswererUtilTest {
     evpnRouteTable.put("node", "vrf", ImmutableSet.of(standardRoute));
     Multiset<Row> rows =
         getEvpnRoutes(
-            evpnRouteTable,
+            RouteIndex.fromTable(evpnRouteTable),
             RibProtocol.EVPN,
             ImmutableSet.of("node"),
             null,
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER,
             ".*",
             ImmutableSet.of(BEST));
@@ -509,9 +514,10 @@ public class RoutesAnswererUtilTest {
 
     Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> grouped =
         groupRoutes(
-            ribs,
+            RouteIndex.fromRibs(ribs),
             ImmutableSet.of("n1"),
             null,
+            EXACT,
             ".*",
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER,
             null);
@@ -579,12 +585,12 @@ public class RoutesAnswererUtilTest {
 
     Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> grouped =
         groupBgpRoutes(
-            bgpTable,
-            ImmutableTable.of(),
+            RouteIndex.fromTable(bgpTable),
+            RouteIndex.fromTable(ImmutableTable.of()),
             ImmutableSet.of("node"),
             ".*",
             null,
-            // only include the IBGP route
+            EXACT, // only include the IBGP route
             new RoutingProtocolSpecifier("IBGP"));
 
     assertThat(grouped.keySet(), hasSize(1));
@@ -647,11 +653,12 @@ public class RoutesAnswererUtilTest {
 
     Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> grouped =
         groupBgpRoutes(
-            bgpTable,
-            ImmutableTable.of(),
+            RouteIndex.fromTable(bgpTable),
+            RouteIndex.fromTable(ImmutableTable.of()),
             ImmutableSet.of("node"),
             ".*",
             null,
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER);
 
     assertThat(grouped.keySet(), hasSize(1));
@@ -710,11 +717,12 @@ public class RoutesAnswererUtilTest {
 
     Map<RouteRowKey, Map<RouteRowSecondaryKey, SortedSet<RouteRowAttribute>>> grouped =
         groupBgpRoutes(
-            ImmutableTable.of(),
-            backupRoutes,
+            RouteIndex.fromTable(ImmutableTable.of()),
+            RouteIndex.fromTable(backupRoutes),
             ImmutableSet.of("node"),
             ".*",
             null,
+            EXACT,
             RoutingProtocolSpecifier.ALL_PROTOCOLS_SPECIFIER);
 
     assertThat(grouped.keySet(), hasSize(1));
@@ -3,6 +3,7 @@ package org.batfish.question.routes;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertThat;
 
+import org.batfish.question.routes.RoutesQuestion.PrefixMatchType;
 import org.batfish.question.routes.RoutesQuestion.RibProtocol;
 import org.batfish.specifier.AllNodesNodeSpecifier;
 import org.junit.Test;
@@ -19,5 +20,6 @@ public class RoutesQuestionTest {
     assertThat(question.getNodeSpecifier(), equalTo(AllNodesNodeSpecifier.INSTANCE));
     assertThat(question.getVrfs(), equalTo(".*"));
     assertThat(question.getRib(), equalTo(RibProtocol.MAIN));
+    assertThat(question.getPrefixMatchType(), equalTo(PrefixMatchType.EXACT));
   }
 }
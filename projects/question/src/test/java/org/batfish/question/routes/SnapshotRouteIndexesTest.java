@@ -0,0 +1,110 @@
+package org.batfish.question.routes;
+
+import static org.batfish.question.routes.RoutesQuestion.PrefixMatchType.EXACT;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedMap;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+import org.batfish.datamodel.AbstractRoute;
+import org.batfish.datamodel.AnnotatedRoute;
+import org.batfish.datamodel.DataPlane;
+import org.batfish.datamodel.GenericRib;
+import org.batfish.datamodel.MockDataPlane;
+import org.batfish.datamodel.Prefix;
+import org.batfish.datamodel.RoutingProtocol;
+import org.batfish.datamodel.StaticRoute;
+import org.batfish.question.routes.RoutesAnswererTest.MockRib;
+import org.junit.Test;
+
+/** Tests of {@link SnapshotRouteIndexes}. */
+public final class SnapshotRouteIndexesTest {
+
+  private static final Set<String> N1 = ImmutableSet.of("n1");
+
+  private static SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>> vrfRibs() {
+    AbstractRoute route = StaticRoute.testBuilder().setNetwork(Prefix.parse("10.0.0.0/8")).build();
+    return ImmutableSortedMap.of(
+        "default", new MockRib<>(ImmutableSet.of(new AnnotatedRoute<>(route, "default"))));
+  }
+
+  @Test
+  public void testIndexesAreShared() {
+    DataPlane dp1 = MockDataPlane.builder().setRibs(ImmutableSortedMap.of("n1", vrfRibs())).build();
+    DataPlane dp2 = MockDataPlane.builder().setRibs(ImmutableSortedMap.of("n1", vrfRibs())).build();
+
+    RouteIndex<?> index = SnapshotRouteIndexes.getMainRibRoutes(dp1, N1);
+    assertThat(SnapshotRouteIndexes.getMainRibRoutes(dp1, N1), sameInstance(index));
+    assertThat(SnapshotRouteIndexes.getMainRibRoutes(dp2, N1), not(sameInstance(index)));
+  }
+
+  /** RIBs of node {@code node} that record in {@code read} when their routes are read. */
+  private static SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>> countingRibs(
+      String node, List<String> read) {
+    AbstractRoute route = StaticRoute.testBuilder().setNetwork(Prefix.parse("10.0.0.0/8")).build();
+    return ImmutableSortedMap.of(
+        "default",
+        new MockRib<AnnotatedRoute<AbstractRoute>>(
+            ImmutableSet.of(new AnnotatedRoute<>(route, "default"))) {
+          @Override
+          public Set<AbstractRoute> getRoutes() {
+            read.add(node);
+            return super.getRoutes();
+          }
+        });
+  }
+
+  @Test
+  public void testOnlyMatchingNodesAreIndexed() {
+    List<String> read = new ArrayList<>();
+    SortedMap<String, SortedMap<String, GenericRib<AnnotatedRoute<AbstractRoute>>>> ribs =
+        ImmutableSortedMap.of(
+            "n1",
+            countingRibs("n1", read),
+            "n2",
+            countingRibs("n2", read),
+            "n3",
+            countingRibs("n3", read));
+    DataPlane dp = MockDataPlane.builder().setRibs(ribs).build();
+    Set<RoutingProtocol> allProtocols = ImmutableSet.copyOf(RoutingProtocol.values());
+
+    RouteIndex<AbstractRoute> index =
+        SnapshotRouteIndexes.getMainRibRoutes(dp, ImmutableSet.of("n3", "n1", "n4"));
+    assertThat(read, contains("n1", "n3"));
+    assertThat(
+        index.select(ImmutableSet.of("n1", "n3"), ".*", null, EXACT, allProtocols).stream()
+            .map(RouteIndex.IndexedRoute::getHostname)
+            .collect(Collectors.toList()),
+        contains("n1", "n3"));
+
+    // The index of each node is reused by later queries
+    assertThat(SnapshotRouteIndexes.getMainRibRoutes(dp, ribs.keySet()).size(), equalTo(3));
+    assertThat(read, contains("n1", "n3", "n2"));
+  }
+
+  @Test
+  public void testDataPlaneIsNotRetained() throws InterruptedException {
+    DataPlane dp = MockDataPlane.builder().build();
+    SnapshotRouteIndexes.getMainRibRoutes(dp, N1);
+    SnapshotRouteIndexes.getBgpRoutes(dp, N1);
+    WeakReference<DataPlane> ref = new WeakReference<>(dp);
+    dp = null;
+
+    // The cached indexes must not keep their data plane alive.
+    for (int i = 0; i < 100 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+    assertThat(ref.get(), nullValue());
+  }
+}
@@ -88,9 +88,8 @@ public class SearchFiltersAnswererDifferentialTest {
             config,
             refConfig,
             ImmutableSet.of(aclName),
-            snapshot,
-            reference,
-            batfish,
+            batfish.specifierContext(snapshot),
+            batfish.specifierContext(reference),
             DEFAULT_PARAMS,
             _pkt);
     DifferentialSearchFiltersResult result =
@@ -105,9 +104,8 @@ public class SearchFiltersAnswererDifferentialTest {
             refConfig,
             config,
             ImmutableSet.of(aclName),
-            reference,
-            snapshot,
-            getBatfish(refConfig, config),
+            getBatfish(refConfig, config).specifierContext(reference),
+            getBatfish(refConfig, config).specifierContext(snapshot),
             DEFAULT_PARAMS,
             _pkt);
     result = getDiffResult(refAcl, acl, configContext, PERMIT_QUERY);
@@ -135,9 +133,8 @@ public class SearchFiltersAnswererDifferentialTest {
             config,
             refConfig,
             ImmutableSet.of(aclName),
-            snapshot,
-            reference,
-            batfish,
+            batfish.specifierContext(snapshot),
+            batfish.specifierContext(reference),
             DEFAULT_PARAMS,
             _pkt);
     DifferentialSearchFiltersResult result =
@@ -152,9 +149,8 @@ public class SearchFiltersAnswererDifferentialTest {
             refConfig,
             config,
             ImmutableSet.of(aclName),
-            reference,
-            snapshot,
-            getBatfish(refConfig, config),
+            getBatfish(refConfig, config).specifierContext(reference),
+            getBatfish(refConfig, config).specifierContext(snapshot),
             DEFAULT_PARAMS,
             _pkt);
     result = getDiffResult(refAcl, acl, configContext, PERMIT_QUERY);
@@ -196,9 +192,8 @@ public class SearchFiltersAnswererDifferentialTest {
             config,
             refConfig,
             ImmutableSet.of(aclName),
-            snapshot,
-            reference,
-            batfish,
+            batfish.specifierContext(snapshot),
+            batfish.specifierContext(reference),
             params,
             _pkt);
     DifferentialSearchFiltersResult result =
@@ -218,9 +213,8 @@ public class SearchFiltersAnswererDifferentialTest {
             config,
             refConfig,
             ImmutableSet.of(aclName),
-            snapshot,
-            reference,
-            batfish,
+            batfish.specifierContext(snapshot),
+            batfish.specifierContext(reference),
             params,
             _pkt);
     result = getDiffResult(acl, refAcl, configContext, PERMIT_QUERY);